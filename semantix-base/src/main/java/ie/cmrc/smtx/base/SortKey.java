@@ -0,0 +1,213 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.base;
+
+import java.text.CollationKey;
+import java.text.Collator;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Locale-sensitive sort key of a semantic entity in a given language.<br/>
+ * Sort keys order semantic entities like
+ * {@link AbstractSemanticEntity#compareTo(ie.cmrc.smtx.base.SemanticEntity)},
+ * that is by preferred label in the sort language, then by local name, then
+ * by URI, except that labels and local names are compared with the
+ * {@link Collator} of the sort language, so that accented labels are ordered
+ * correctly. Sort keys are immutable: once computed, comparing them requires
+ * no access to the entities nor to their store, and they may be cached and
+ * shared between threads.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class SortKey implements Comparable<SortKey> {
+
+    /**
+     * Collators by language. Collators are not thread-safe, so each thread
+     * has its own.
+     */
+    private static final ThreadLocal<Map<String, Collator>> COLLATORS = new ThreadLocal<Map<String, Collator>>() {
+        @Override
+        protected Map<String, Collator> initialValue() {
+            return new HashMap<>();
+        }
+    };
+
+    /**
+     * Collation key of the preferred label
+     */
+    private final CollationKey label;
+
+    /**
+     * Collation key of the local name
+     */
+    private final CollationKey localName;
+
+    /**
+     * URI of the entity
+     */
+    private final String uri;
+
+    /**
+     * Constructs a {@link SortKey}
+     * @param label Preferred label in {@code language}, or {@code null}
+     * @param localName Local name, or {@code null}
+     * @param uri URI, or {@code null}
+     * @param language Sort language, or {@code null} for the root locale
+     */
+    public SortKey(String label, String localName, String uri, String language) {
+        Collator collator = getCollator(language);
+        this.label = collator.getCollationKey((label != null) ? label : "");
+        this.localName = collator.getCollationKey((localName != null) ? localName : "");
+        this.uri = (uri != null) ? uri : "";
+    }
+
+    /**
+     * Computes the sort key of a semantic entity
+     * @param entity Semantic entity
+     * @param language Sort language. The preferred label of {@code entity} in
+     * this language is read once. If {@code null}, entities are sorted by
+     * local name then URI.
+     * @return Sort key of {@code entity}
+     * @throws IllegalArgumentException If {@code entity} is {@code null}
+     */
+    public static SortKey of(SemanticEntity entity, String language) throws IllegalArgumentException {
+        if (entity == null) throw new IllegalArgumentException("SortKey.of: entity argument must not be null");
+        String label = (language != null) ? entity.getPrefLabel(language) : null;
+        return new SortKey(label, entity.getLocalName(), entity.getURI(), language);
+    }
+
+    /**
+     * Sorts semantic entities by their sort keys in the provided language. The
+     * sort key of each entity is computed once.
+     * @param <T> Type of the semantic entities
+     * @param entities Semantic entities. {@code null} elements are ignored.
+     * @param language Sort language, or {@code null}
+     * @return New list of the entities in sort key order, entities with the
+     * same URI being kept once
+     */
+    public static <T extends SemanticEntity> List<T> sort(Collection<? extends T> entities, String language) {
+        List<T> sorted = new ArrayList<>();
+        if (entities == null || entities.isEmpty()) return sorted;
+
+        List<Keyed<T>> keyed = new ArrayList<>(entities.size());
+        for (T entity: entities) {
+            if (entity != null) keyed.add(new Keyed<>(entity, of(entity, language)));
+        }
+        Collections.sort(keyed);
+
+        SortKey previous = null;
+        for (Keyed<T> entry: keyed) {
+            if (previous == null || previous.compareTo(entry.key) != 0) sorted.add(entry.entity);
+            previous = entry.key;
+        }
+        return sorted;
+    }
+
+    /**
+     * Returns the collator of a language for the calling thread
+     * @param language Language tag, or {@code null} for the root locale
+     * @return Collator of {@code language}. This must not be shared with
+     * other threads.
+     */
+    public static Collator getCollator(String language) {
+        String tag = (language != null) ? language : "";
+        Map<String, Collator> collators = COLLATORS.get();
+        Collator collator = collators.get(tag);
+        if (collator == null) {
+            collator = Collator.getInstance(language != null ? Locale.forLanguageTag(language) : Locale.ROOT);
+            collators.put(tag, collator);
+        }
+        return collator;
+    }
+
+    /**
+     * Compares this sort key to another one, by preferred label, then local
+     * name, then URI
+     * @param other Sort key to compare this to
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int compareTo(SortKey other) {
+        if (other == null) return 1;
+        int comparison = this.label.compareTo(other.label);
+        if (comparison != 0) return comparison;
+        comparison = this.localName.compareTo(other.localName);
+        if (comparison != 0) return comparison;
+        return this.uri.compareTo(other.uri);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param obj {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) return true;
+        if (!(obj instanceof SortKey)) return false;
+        return this.compareTo((SortKey) obj) == 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(this.uri);
+    }
+
+    /**
+     * Entity paired with its sort key
+     * @param <T> Type of the entity
+     */
+    private static class Keyed<T> implements Comparable<Keyed<T>> {
+
+        /**
+         * Entity
+         */
+        final T entity;
+
+        /**
+         * Sort key of the entity
+         */
+        final SortKey key;
+
+        /**
+         * Constructs a {@link Keyed}
+         * @param entity Entity
+         * @param key Sort key of the entity
+         */
+        Keyed(T entity, SortKey key) {
+            this.entity = entity;
+            this.key = key;
+        }
+
+        @Override
+        public int compareTo(Keyed<T> other) {
+            return this.key.compareTo(other.key);
+        }
+    }
+}
@@ -20,6 +20,7 @@ package ie.cmrc.smtx.etl.cl;
 
 import ie.cmrc.smtx.skos.jena.SKOSFactory;
 import ie.cmrc.smtx.skos.jena.TDBSKOS;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotFile;
 import ie.cmrc.smtx.etl.ext.Extractor;
 import ie.cmrc.smtx.etl.ext.tabular.TabularExtractor;
 import ie.cmrc.smtx.etl.index.lucene.LuceneSKOSConceptIndexer;
@@ -74,6 +75,12 @@ public class ETL {
      */
     private static boolean transitive = false;
     
+    /**
+     * Indicates whether the transitive closure of the hierarchy should be
+     * materialised as triples
+     */
+    private static boolean closure = true;
+    
     /**
      * Comma separated list of language codes
      */
@@ -104,6 +111,11 @@ public class ETL {
      */
     private static String tdbDir = null;
     
+    /**
+     * Path to the concept store file
+     */
+    private static String snapshotFile = null;
+    
     private static final String owlOntologySheetName = "owl:Ontlogy";
     private static final String skosCSSheetName = "skos:ConceptScheme";
     private static final String skosCollectionSheetName = "skos:Collection";
@@ -229,6 +241,10 @@ public class ETL {
                         transitive = true;
                         i++;
                     }
+                    else if (arg.equals("--no-closure") || arg.equals("-n")) {
+                        closure = false;
+                        i++;
+                    }
                     else if (arg.equals("--languages") || arg.equals("-l")) {
                         i++;
                         if (i<args.length) {
@@ -281,6 +297,7 @@ public class ETL {
         
         indexDir = output + "index";
         tdbDir = output + "tdb";
+        snapshotFile = output + "skos.snapshot";
         
         if (format == null) format = InputFormat.excel;
         
@@ -296,6 +313,7 @@ public class ETL {
         
         try {
             infOptions = parseInferencingOptions(infOptionsString);
+            if (!closure) infOptions.put("t", false);
         }
         catch (IllegalArgumentException ex) {
             System.err.println(ex.getMessage());
@@ -367,6 +385,14 @@ public class ETL {
             thesaurus.sync();
             System.out.println("  --> TDB synchronised.");
             
+            System.out.println("Writing TDB statistics...");
+            thesaurus.writeStatistics();
+            System.out.println("  --> Done writing TDB statistics.");
+            
+            System.out.println("Writing structure index...");
+            thesaurus.writeStructureIndex();
+            System.out.println("  --> Done writing structure index.");
+            
             if (result) {
                 
                 System.out.println("Indexing...");
@@ -377,6 +403,10 @@ public class ETL {
 
                 System.out.println("  --> Done indexing.");
                 
+                System.out.println("Writing concept store...");
+                SnapshotFile.write(SKOSFactory.createSKOSSnapshot(thesaurus), new File(snapshotFile));
+                System.out.println("  --> Done writing concept store.");
+                
                 System.out.println("Closing connection to TDB...");
                 thesaurus.close();
                 System.out.println("  --> Closed connection.");
@@ -418,8 +448,9 @@ public class ETL {
                     + "                 If the ouput directory is not provided, then outputs will be saved in the\n"
                     + "                 current user directory.\n\n"
                     + "\033[1mDESCRIPTION\033[0m\n"
-                    + "     Extracts data from an input file or directory and creates a TDB store and an index\n"
-                    + "     in the provided output directory, if any, or the current user directory.\n\n"
+                    + "     Extracts data from an input file or directory and creates a TDB store, an index\n"
+                    + "     and a read-only concept store file (skos.snapshot) in the provided output directory,\n"
+                    + "     if any, or the current user directory.\n\n"
                     + "\033[1mOPTIONS\033[0m\n"
                     + "       \033[1m--extension\033[0m extension\n"
                     + "                 (Optional) For ASCII input data, this specifies the file extension.\n"
@@ -438,6 +469,13 @@ public class ETL {
                     + "                     t: infer transitive closure\n"
                     + "                 Example: 'sit' for super, inverse, and transtitive property inferencing\n\n"
                     + "       \033[1m-i\033[0m    Synonym of --infer\n\n"
+                    + "       \033[1m--no-closure\033[0m\n"
+                    + "                 (Optional) If this option is used, then the transitive closure is not\n"
+                    + "                 materialised, even if 't' is part of the inferencing options. The\n"
+                    + "                 thesaurus serves the transitive narrower and broader concepts from its\n"
+                    + "                 hierarchy index, so the closure triples are only needed by SPARQL\n"
+                    + "                 clients of the TDB store and to index transitive collection memberships.\n\n"
+                    + "       \033[1m-n\033[0m    Synonym of --no-closure\n\n"
                     + "       \033[1m--transitive\033[0m\n"
                     + "                 (Optional) If this option is used, then the indexer will index transitive\n"
                     + "                 collection memberships.\n\n"
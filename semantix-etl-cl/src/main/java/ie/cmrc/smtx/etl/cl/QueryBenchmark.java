@@ -0,0 +1,375 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.etl.cl;
+
+import com.hp.hpl.jena.shared.Lock;
+import ie.cmrc.smtx.skos.jena.JenaSKOS;
+import ie.cmrc.smtx.skos.jena.TDBSKOS;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.io.File;
+import java.util.Random;
+
+/**
+ * Benchmark of the routes {@link JenaSKOS} can take to answer concept scheme
+ * and collection filtered queries on a TDB thesaurus: the in-memory index of
+ * the structure of the thesaurus, SPARQL queries pushed down to the TDB
+ * dataset, and statement selectors filtering the statements of the model in
+ * Java.<br/>
+ * The benchmark generates a thesaurus of concepts that all belong to a large
+ * concept scheme, to one of several small concept schemes and to one of
+ * several collections, and that form a random hierarchy. It then times each
+ * query shape along each route, and reports the mean time of a query, the
+ * number of results, and the time of the first indexed query following a
+ * write, which includes rebuilding the index. Each route is warmed up by as
+ * many untimed runs as timed ones. The pushdown route only
+ * differs from the selector route on the query shapes {@link JenaSKOS}
+ * pushes down to TDB (see {@link JenaSKOS#setQueryPushdown(boolean)}).
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class QueryBenchmark {
+
+    /**
+     * Namespace of the benchmark resources
+     */
+    private static final String NS = "http://vocab.semantix/benchmark/";
+
+    /**
+     * Number of test concepts
+     */
+    private static int numConcepts = 50000;
+
+    /**
+     * Number of small concept schemes, and of collections
+     */
+    private static int numGroups = 10;
+
+    /**
+     * Number of timed runs of each query shape along each route
+     */
+    private static int runs = 20;
+
+    /**
+     * Path to the TDB directory
+     */
+    private static String tdbDir = null;
+
+    /**
+     * Route taken by filtered queries
+     */
+    private static enum Route {
+        INDEX(true, true),
+        PUSHDOWN(false, true),
+        SELECTOR(false, false);
+
+        private final boolean indexing;
+
+        private final boolean pushdown;
+
+        private Route(boolean indexing, boolean pushdown) {
+            this.indexing = indexing;
+            this.pushdown = pushdown;
+        }
+
+        void apply(JenaSKOS thesaurus) {
+            thesaurus.setIndexing(this.indexing);
+            thesaurus.setQueryPushdown(this.pushdown);
+        }
+    }
+
+    /**
+     * Query shape
+     */
+    private static abstract class Shape {
+
+        private final String name;
+
+        Shape(String name) {
+            this.name = name;
+        }
+
+        /**
+         * Runs one query of this shape
+         * @param thesaurus Thesaurus
+         * @param random Random generator choosing the query arguments
+         * @return Number of results
+         */
+        abstract int run(JenaSKOS thesaurus, Random random);
+    }
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        System.out.println("\n\033[1mquerybenchmark\033[0m -- Version 2015.06\n");
+
+        if (readArgs(args)) {
+            boolean success = run();
+            if (success) System.out.println("SUCCESS");
+            else {
+                System.out.println("FAILURE");
+                System.exit(1);
+            }
+        }
+    }
+
+    private static boolean readArgs(String[] args) {
+        int i = 0;
+        while (i < args.length) {
+            String arg = args[i];
+            switch (arg) {
+                case "--concepts":
+                case "-c":
+                    i++;
+                    if (i < args.length && args[i].matches("[1-9][0-9]*") && Integer.parseInt(args[i]) > 1) numConcepts = Integer.parseInt(args[i]);
+                    else return invalidArgs("The --concepts (-c) option must be followed by a number of concepts greater than 1!");
+                    break;
+                case "--groups":
+                case "-g":
+                    i++;
+                    if (i < args.length && args[i].matches("[1-9][0-9]*")) numGroups = Integer.parseInt(args[i]);
+                    else return invalidArgs("The --groups (-g) option must be followed by a positive number of concept schemes and collections!");
+                    break;
+                case "--runs":
+                case "-n":
+                    i++;
+                    if (i < args.length && args[i].matches("[1-9][0-9]*")) runs = Integer.parseInt(args[i]);
+                    else return invalidArgs("The --runs (-n) option must be followed by a positive number of runs!");
+                    break;
+                case "--help":
+                case "-h":
+                    printHelp();
+                    return false;
+                default:
+                    if (arg.startsWith("-") || tdbDir != null) return invalidArgs("Invalid argument "+arg+"!");
+                    tdbDir = arg;
+                    break;
+            }
+            i++;
+        }
+        if (tdbDir == null) return invalidArgs("Missing TDB directory!");
+        File dir = new File(tdbDir);
+        String[] content = dir.list();
+        if (dir.exists() && (content == null || content.length > 0)) {
+            System.err.println("ERROR: \""+dir.getAbsolutePath()+"\" is not an empty directory! The benchmark generates its own thesaurus.");
+            return false;
+        }
+        return true;
+    }
+
+    private static boolean invalidArgs(String message) {
+        System.err.println("ERROR: "+message+"\n"
+                + "Please check querybenchmark command syntax below.");
+        printHelp();
+        return false;
+    }
+
+    private static boolean run() {
+        System.out.println("Generating a TDB thesaurus of "+numConcepts+" concept(s) in \""+tdbDir+"\"...");
+        TDBSKOS thesaurus = new TDBSKOS(tdbDir);
+        populate(thesaurus);
+        thesaurus.writeStatistics();
+        thesaurus.close();
+        thesaurus = new TDBSKOS(tdbDir);
+        System.out.println("  --> Done.");
+
+        Shape[] shapes = shapes(thesaurus);
+        boolean success = true;
+        for (Shape shape: shapes) {
+            System.out.println("  - "+shape.name+":");
+            long expected = -1;
+            for (Route route: Route.values()) {
+                route.apply(thesaurus);
+                Random random = new Random(42);
+                String rebuild = "";
+                if (route == Route.INDEX) {
+                    touch(thesaurus);
+                    long t0 = System.nanoTime();
+                    shape.run(thesaurus, random);
+                    rebuild = String.format(", %10.3f ms first query after a write", (System.nanoTime() - t0) / 1e6);
+                }
+                // Warm up the route, so that the timed runs are compiled
+                for (int r = 0; r < runs; r++) shape.run(thesaurus, random);
+
+                random = new Random(42);
+                long results = 0;
+                long t0 = System.nanoTime();
+                for (int r = 0; r < runs; r++) results += shape.run(thesaurus, random);
+                double millis = (System.nanoTime() - t0) / 1e6 / runs;
+
+                if (expected < 0) expected = results;
+                else if (results != expected) success = false;
+                System.out.println(String.format("      %-9s %10.3f ms per query, %8d result(s) per query%s", route.name().toLowerCase(), millis, results / runs, rebuild));
+            }
+        }
+        thesaurus.close();
+        if (!success) System.err.println("ERROR: The routes returned different numbers of results!");
+        return success;
+    }
+
+    /**
+     * Generates the benchmark thesaurus
+     * @param thesaurus Empty thesaurus
+     */
+    private static void populate(JenaSKOS thesaurus) {
+        Random random = new Random(42);
+        SKOSBulkWriter writer = thesaurus.createBulkWriter(true, true, SKOSBulkWriter.DEFAULT_BATCH_SIZE);
+        writer.addResource(NS+"scheme", SKOSType.ConceptScheme);
+        for (int g = 0; g < numGroups; g++) {
+            writer.addResource(NS+"scheme"+g, SKOSType.ConceptScheme);
+            writer.addResource(NS+"collection"+g, SKOSType.Collection);
+        }
+        for (int i = 0; i < numConcepts; i++) {
+            writer.addResource(uri(i), SKOSType.Concept);
+            writer.addAnnotation(uri(i), SKOSAnnotationProperty.prefLabel, "Concept "+i, "en");
+            writer.addRelation(uri(i), SKOSElementProperty.inScheme, NS+"scheme");
+            writer.addRelation(uri(i), SKOSElementProperty.inScheme, NS+"scheme"+(i % numGroups));
+            writer.addRelation(NS+"collection"+((i / numGroups) % numGroups), SKOSElementProperty.member, uri(i));
+            if (i > 0) writer.addRelation(uri(i), SKOSSemanticProperty.broader, uri(random.nextInt(i)));
+        }
+        writer.close();
+    }
+
+    /**
+     * Returns the benchmarked query shapes
+     * @param thesaurus Thesaurus
+     * @return Query shapes
+     */
+    private static Shape[] shapes(JenaSKOS thesaurus) {
+        final SKOSConceptScheme scheme = thesaurus.getConceptScheme(NS+"scheme");
+        final SKOSConceptScheme smallScheme = thesaurus.getConceptScheme(NS+"scheme0");
+        final SKOSCollection collection = thesaurus.getCollection(NS+"collection0");
+        return new Shape[] {
+            new Shape("Concepts of the large concept scheme") {
+                @Override
+                int run(JenaSKOS thesaurus, Random random) {
+                    return count(thesaurus, thesaurus.listConcepts(scheme));
+                }
+            },
+            new Shape("Concepts of a small concept scheme") {
+                @Override
+                int run(JenaSKOS thesaurus, Random random) {
+                    return count(thesaurus, thesaurus.listConcepts(smallScheme));
+                }
+            },
+            new Shape("Concepts of a collection") {
+                @Override
+                int run(JenaSKOS thesaurus, Random random) {
+                    return count(thesaurus, thesaurus.listConcepts(collection));
+                }
+            },
+            new Shape("Concepts of a small concept scheme and a collection") {
+                @Override
+                int run(JenaSKOS thesaurus, Random random) {
+                    return count(thesaurus, thesaurus.listConcepts(smallScheme, collection));
+                }
+            },
+            new Shape("Narrower concepts within a small concept scheme and a collection (100 concepts)") {
+                @Override
+                int run(JenaSKOS thesaurus, Random random) {
+                    int results = 0;
+                    for (int i = 0; i < 100; i++) {
+                        SKOSConcept concept = thesaurus.getConcept(uri(random.nextInt(numConcepts / 10)));
+                        results += count(thesaurus, thesaurus.listSemanticRelations(concept, SKOSSemanticProperty.narrower, smallScheme, collection));
+                    }
+                    return results;
+                }
+            },
+            new Shape("Broader concepts within the large concept scheme (100 concepts)") {
+                @Override
+                int run(JenaSKOS thesaurus, Random random) {
+                    int results = 0;
+                    for (int i = 0; i < 100; i++) {
+                        SKOSConcept concept = thesaurus.getConcept(uri(random.nextInt(numConcepts)));
+                        results += count(thesaurus, thesaurus.listSemanticRelations(concept, SKOSSemanticProperty.broader, scheme, null));
+                    }
+                    return results;
+                }
+            }
+        };
+    }
+
+    /**
+     * Consumes an iterator within a read critical section
+     * @param thesaurus Thesaurus
+     * @param iterator Iterator to consume
+     * @return Number of elements
+     */
+    private static int count(JenaSKOS thesaurus, CloseableIterator<?> iterator) {
+        int count = 0;
+        thesaurus.enterCriticalSection(Lock.READ);
+        try {
+            while (iterator.hasNext()) {
+                iterator.next();
+                count++;
+            }
+        }
+        finally {
+            iterator.close();
+            thesaurus.leaveCriticalSection();
+        }
+        return count;
+    }
+
+    /**
+     * Writes to the thesaurus, so that its structure index is out of date
+     * @param thesaurus Thesaurus
+     */
+    private static void touch(JenaSKOS thesaurus) {
+        SKOSConcept concept = thesaurus.getConcept(uri(0));
+        concept.removeAnnotations(SKOSAnnotationProperty.prefLabel, "en");
+        concept.addAnnotation(SKOSAnnotationProperty.prefLabel, "Concept 0", "en");
+    }
+
+    private static String uri(int i) {
+        return NS+"c"+i;
+    }
+
+    private static void printHelp() {
+        String man =
+                      "\033[1mNAME\033[0m\n"
+                    + "     \033[1mquerybenchmark\033[0m -- times the routes of filtered queries on a TDB thesaurus\n\n"
+                    + "\033[1mSYNOPSIS\033[0m\n"
+                    + "     \033[1mquerybenchmark\033[0m [options] <path/to/empty/tdb/directory>\n\n"
+                    + "\033[1mARGUMENTS\033[0m\n"
+                    + "       \033[1mTDB directory\033[0m\n"
+                    + "                 Empty directory where the benchmark TDB thesaurus is generated.\n\n"
+                    + "\033[1mDESCRIPTION\033[0m\n"
+                    + "     Times concept scheme and collection filtered queries answered from the\n"
+                    + "     in-memory structure index, by SPARQL queries pushed down to TDB, and by\n"
+                    + "     statement selectors, and checks that the three routes agree.\n\n"
+                    + "\033[1mOPTIONS\033[0m\n"
+                    + "       \033[1m-c\033[0m <number>, \033[1m--concepts\033[0m <number>\n"
+                    + "                 Number of concepts, at least 2. Defaults to 50000.\n\n"
+                    + "       \033[1m-g\033[0m <number>, \033[1m--groups\033[0m <number>\n"
+                    + "                 Number of small concept schemes, and of collections. Defaults to 10.\n\n"
+                    + "       \033[1m-n\033[0m <number>, \033[1m--runs\033[0m <number>\n"
+                    + "                 Number of warm-up runs, and of timed runs, of each query. Defaults to 20.\n\n"
+                    + "       \033[1m-h\033[0m, \033[1m--help\033[0m\n"
+                    + "                 Prints this help.\n";
+        System.out.println(man);
+    }
+}
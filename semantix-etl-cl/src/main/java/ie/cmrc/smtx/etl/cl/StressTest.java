@@ -0,0 +1,448 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.etl.cl;
+
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.shared.Lock;
+import ie.cmrc.smtx.skos.jena.JenaSKOS;
+import ie.cmrc.smtx.skos.jena.TDBSKOS;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.Random;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Concurrent stress test of the read/write locking of {@link JenaSKOS}.<br/>
+ * The test builds a concept hierarchy, then runs an increasing number of
+ * reader threads against one writer thread. The writer keeps relabelling
+ * concepts and moving them under other parents, each change within one write
+ * critical section. Readers look concepts up and check, within one read
+ * critical section, that each concept has exactly one English preferred
+ * label and that its narrower concepts have it as a broader concept.<br/>
+ * The writer also moves concepts in and out of a second concept scheme that
+ * always holds half of the concepts. As many listing threads as readers list
+ * all the concepts, the concepts of the main scheme and the concepts of the
+ * second scheme without entering any critical section, as SWS requests do.
+ * Each listing must return the exact number of distinct concepts of its
+ * scope, which fails if a listing mixes states from before and after a write.
+ * The default number of concepts makes these listings larger than the
+ * batches of {@link ie.cmrc.smtx.jena.concurrent.LockedIterator}.<br/>
+ * The test reports the read and write throughput of each round and fails if
+ * any reader observes an inconsistent state or any thread fails.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class StressTest {
+
+    /**
+     * Namespace of the test resources
+     */
+    private static final String NS = "http://vocab.semantix/stress/";
+
+    /**
+     * Maximum number of reader threads
+     */
+    private static int maxReaders = Runtime.getRuntime().availableProcessors();
+
+    /**
+     * Duration of each round in seconds
+     */
+    private static int duration = 5;
+
+    /**
+     * Number of test concepts
+     */
+    private static int numConcepts = 1000;
+
+    /**
+     * Path to an empty TDB directory, or {@code null} to test an in-memory
+     * thesaurus
+     */
+    private static String tdbDir = null;
+
+    /**
+     * @param args the command line arguments
+     */
+    public static void main(String[] args) {
+        System.out.println("\n\033[1mstresstest\033[0m -- Version 2015.06\n");
+
+        if (readArgs(args)) {
+            boolean success = false;
+            try {
+                success = run();
+            }
+            catch (InterruptedException ex) {
+                System.err.println("ERROR: Interrupted!");
+            }
+            if (success) System.out.println("SUCCESS");
+            else {
+                System.out.println("FAILURE");
+                System.exit(1);
+            }
+        }
+    }
+
+    private static boolean readArgs(String[] args) {
+        int i = 0;
+        while (i < args.length) {
+            String arg = args[i];
+            switch (arg) {
+                case "--readers":
+                case "-r":
+                    i++;
+                    if (i < args.length && args[i].matches("[1-9][0-9]*")) maxReaders = Integer.parseInt(args[i]);
+                    else return invalidArgs("The --readers (-r) option must be followed by a positive number of threads!");
+                    break;
+                case "--duration":
+                case "-d":
+                    i++;
+                    if (i < args.length && args[i].matches("[1-9][0-9]*")) duration = Integer.parseInt(args[i]);
+                    else return invalidArgs("The --duration (-d) option must be followed by a positive number of seconds!");
+                    break;
+                case "--concepts":
+                case "-c":
+                    i++;
+                    if (i < args.length && args[i].matches("[1-9][0-9]*") && Integer.parseInt(args[i]) > 1) numConcepts = Integer.parseInt(args[i]);
+                    else return invalidArgs("The --concepts (-c) option must be followed by a number of concepts greater than 1!");
+                    break;
+                case "--help":
+                case "-h":
+                    printHelp();
+                    return false;
+                default:
+                    if (arg.startsWith("-") || tdbDir != null) return invalidArgs("Invalid argument "+arg+"!");
+                    tdbDir = arg;
+                    break;
+            }
+            i++;
+        }
+        if (tdbDir != null) {
+            File dir = new File(tdbDir);
+            String[] content = dir.list();
+            if (dir.exists() && (content == null || content.length > 0)) {
+                System.err.println("ERROR: \""+dir.getAbsolutePath()+"\" is not an empty directory! The stress test modifies the thesaurus.");
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static boolean invalidArgs(String message) {
+        System.err.println("ERROR: "+message+"\n"
+                + "Please check stresstest command syntax below.");
+        printHelp();
+        return false;
+    }
+
+    private static boolean run() throws InterruptedException {
+        System.out.println("Initialising "+((tdbDir != null) ? "TDB thesaurus in \""+tdbDir+"\"" : "in-memory thesaurus")+"...");
+        JenaSKOS thesaurus = (tdbDir != null) ? new TDBSKOS(tdbDir) : new JenaSKOS(ModelFactory.createDefaultModel());
+        boolean[] moving = new boolean[numConcepts];
+        int[] parents = populate(thesaurus, moving);
+        System.out.println("  --> "+numConcepts+" concept(s) created.");
+
+        boolean success = true;
+        List<Integer> rounds = new ArrayList<>();
+        for (int readers = 1; readers < maxReaders; readers *= 2) rounds.add(readers);
+        rounds.add(maxReaders);
+
+        for (int readers: rounds) {
+            success &= round(thesaurus, parents, moving, readers);
+        }
+
+        thesaurus.close();
+        return success;
+    }
+
+    /**
+     * Creates the test concept schemes and concept hierarchy
+     * @param thesaurus Thesaurus
+     * @param moving Array filled with the membership of each concept in the
+     * second concept scheme
+     * @return Parent of each concept, {@code -1} for the root concept
+     */
+    private static int[] populate(JenaSKOS thesaurus, boolean[] moving) {
+        int[] parents = new int[numConcepts];
+        Random random = new Random(42);
+        thesaurus.enterCriticalSection(Lock.WRITE);
+        try {
+            SKOSConceptScheme scheme = thesaurus.createConceptScheme(NS+"scheme");
+            SKOSConceptScheme second = thesaurus.createConceptScheme(NS+"moving");
+            for (int i = 0; i < numConcepts; i++) {
+                SKOSConcept concept = thesaurus.createConcept(uri(i));
+                concept.addToConceptScheme(scheme);
+                moving[i] = (i % 2 == 0);
+                if (moving[i]) concept.addToConceptScheme(second);
+                concept.addAnnotation(SKOSAnnotationProperty.prefLabel, "Concept "+i, "en");
+                parents[i] = (i > 0) ? random.nextInt(i) : -1;
+                if (i > 0) link(thesaurus, i, parents[i]);
+            }
+        }
+        finally {
+            thesaurus.leaveCriticalSection();
+        }
+        thesaurus.sync();
+        return parents;
+    }
+
+    /**
+     * Runs one round of the test
+     * @param thesaurus Thesaurus
+     * @param parents Parent of each concept, updated by the writer
+     * @param moving Membership of each concept in the second concept scheme,
+     * updated by the writer
+     * @param numReaders Number of reader threads, and of listing threads
+     * @return {@code true} if no inconsistency or failure was observed
+     * @throws InterruptedException if interrupted
+     */
+    private static boolean round(final JenaSKOS thesaurus, final int[] parents, final boolean[] moving, int numReaders) throws InterruptedException {
+        final AtomicBoolean running = new AtomicBoolean(true);
+        final AtomicLong reads = new AtomicLong();
+        final AtomicLong listings = new AtomicLong();
+        final AtomicLong writes = new AtomicLong();
+        final AtomicLong violations = new AtomicLong();
+        final AtomicLong failures = new AtomicLong();
+        final CountDownLatch start = new CountDownLatch(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int r = 0; r < numReaders; r++) {
+            final long seed = r;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    Random random = new Random(seed);
+                    try {
+                        start.await();
+                        long count = 0;
+                        while (running.get()) {
+                            if (!check(thesaurus, random.nextInt(numConcepts))) violations.incrementAndGet();
+                            count++;
+                        }
+                        reads.addAndGet(count);
+                    }
+                    catch (InterruptedException | RuntimeException ex) {
+                        failure(failures, ex);
+                    }
+                }
+            }, "reader-"+r));
+            final int first = r;
+            threads.add(new Thread(new Runnable() {
+                @Override
+                public void run() {
+                    try {
+                        start.await();
+                        long count = 0;
+                        while (running.get()) {
+                            if (!checkListing(thesaurus, (int) ((first + count) % 3), (numConcepts + 1) / 2)) violations.incrementAndGet();
+                            count++;
+                        }
+                        listings.addAndGet(count);
+                    }
+                    catch (InterruptedException | RuntimeException ex) {
+                        failure(failures, ex);
+                    }
+                }
+            }, "lister-"+r));
+        }
+        threads.add(new Thread(new Runnable() {
+            @Override
+            public void run() {
+                Random random = new Random(numConcepts);
+                try {
+                    start.await();
+                    long count = 0;
+                    while (running.get()) {
+                        update(thesaurus, parents, moving, 1 + random.nextInt(numConcepts - 1), random);
+                        count++;
+                    }
+                    writes.addAndGet(count);
+                }
+                catch (InterruptedException | RuntimeException ex) {
+                    failure(failures, ex);
+                }
+            }
+        }, "writer"));
+
+        for (Thread thread: threads) thread.start();
+        long t0 = System.nanoTime();
+        start.countDown();
+        Thread.sleep(duration * 1000L);
+        running.set(false);
+        for (Thread thread: threads) thread.join();
+        double seconds = (System.nanoTime() - t0) / 1e9;
+
+        System.out.println(String.format("  - %2d reader(s): %10.0f reads/s (%8.0f per reader), %8.0f listings/s, %8.0f writes/s, %d inconsistent read(s), %d failure(s)",
+                numReaders, reads.get() / seconds, reads.get() / seconds / numReaders, listings.get() / seconds, writes.get() / seconds, violations.get(), failures.get()));
+        return violations.get() == 0 && failures.get() == 0;
+    }
+
+    /**
+     * Counts a failure of the current round and reports it on the error
+     * output
+     * @param failures Failure count of the round
+     * @param ex Exception that caused the failure
+     */
+    private static void failure(AtomicLong failures, Exception ex) {
+        failures.incrementAndGet();
+        System.err.println("ERROR: Thread "+Thread.currentThread().getName()+" failed: "+ex);
+    }
+
+    /**
+     * Checks the consistency of a concept within one read critical section
+     * @param thesaurus Thesaurus
+     * @param i Index of the concept
+     * @return {@code true} if the concept is consistent
+     */
+    private static boolean check(JenaSKOS thesaurus, int i) {
+        thesaurus.enterCriticalSection(Lock.READ);
+        try {
+            SKOSConcept concept = thesaurus.getConcept(uri(i));
+            if (concept == null || concept.getAnnotations(SKOSAnnotationProperty.prefLabel, "en").size() != 1) return false;
+            boolean consistent = true;
+            CloseableIterator<SKOSConcept> narrower = thesaurus.listSemanticRelations(concept, SKOSSemanticProperty.narrower);
+            while (narrower.hasNext()) {
+                consistent &= narrower.next().hasRelation(SKOSSemanticProperty.broader, concept);
+            }
+            narrower.close();
+            return consistent;
+        }
+        finally {
+            thesaurus.leaveCriticalSection();
+        }
+    }
+
+    /**
+     * Lists concepts without entering a critical section and checks that the
+     * listing returns the exact number of distinct concepts of its scope
+     * @param thesaurus Thesaurus
+     * @param scope {@code 0} to list all the concepts, {@code 1} to list the
+     * concepts of the main scheme and {@code 2} to list the concepts of the
+     * second scheme
+     * @param movingSize Number of concepts of the second scheme
+     * @return {@code true} if the listing is consistent
+     */
+    private static boolean checkListing(JenaSKOS thesaurus, int scope, int movingSize) {
+        CloseableIterator<SKOSConcept> concepts;
+        int expected = numConcepts;
+        if (scope == 0) concepts = thesaurus.listConcepts();
+        else if (scope == 1) concepts = thesaurus.listConcepts(thesaurus.getConceptScheme(NS+"scheme"));
+        else {
+            concepts = thesaurus.listConcepts(thesaurus.getConceptScheme(NS+"moving"));
+            expected = movingSize;
+        }
+        Set<String> uris = new HashSet<>();
+        int count = 0;
+        try {
+            while (concepts.hasNext()) {
+                SKOSConcept concept = concepts.next();
+                if (concept == null) return false;
+                uris.add(concept.getURI());
+                count++;
+            }
+        }
+        finally {
+            concepts.close();
+        }
+        return count == expected && uris.size() == expected;
+    }
+
+    /**
+     * Relabels a concept, moves it under another parent and swaps a member of
+     * the second concept scheme for a non-member, within one write critical
+     * section
+     * @param thesaurus Thesaurus
+     * @param parents Parent of each concept
+     * @param moving Membership of each concept in the second concept scheme
+     * @param i Index of the concept, other than the root concept
+     * @param random Random generator
+     */
+    private static void update(JenaSKOS thesaurus, int[] parents, boolean[] moving, int i, Random random) {
+        int parent = random.nextInt(i);
+        int out, in;
+        do out = random.nextInt(numConcepts); while (!moving[out]);
+        do in = random.nextInt(numConcepts); while (moving[in]);
+        thesaurus.enterCriticalSection(Lock.WRITE);
+        try {
+            SKOSConcept concept = thesaurus.getConcept(uri(i));
+            concept.removeAnnotations(SKOSAnnotationProperty.prefLabel, "en");
+            concept.addAnnotation(SKOSAnnotationProperty.prefLabel, "Concept "+i+" ("+random.nextInt()+")", "en");
+            unlink(thesaurus, i, parents[i]);
+            link(thesaurus, i, parent);
+            parents[i] = parent;
+            thesaurus.getConcept(uri(out)).removeFromConceptScheme(NS+"moving");
+            thesaurus.getConcept(uri(in)).addToConceptScheme(NS+"moving");
+            moving[out] = false;
+            moving[in] = true;
+        }
+        finally {
+            thesaurus.leaveCriticalSection();
+        }
+    }
+
+    private static void link(JenaSKOS thesaurus, int child, int parent) {
+        thesaurus.getConcept(uri(child)).addRelation(SKOSSemanticProperty.broader, uri(parent));
+        thesaurus.getConcept(uri(parent)).addRelation(SKOSSemanticProperty.narrower, uri(child));
+    }
+
+    private static void unlink(JenaSKOS thesaurus, int child, int parent) {
+        thesaurus.getConcept(uri(child)).removeRelation(SKOSSemanticProperty.broader, uri(parent));
+        thesaurus.getConcept(uri(parent)).removeRelation(SKOSSemanticProperty.narrower, uri(child));
+    }
+
+    private static String uri(int i) {
+        return NS+"c"+i;
+    }
+
+    private static void printHelp() {
+        String man =
+                      "\033[1mNAME\033[0m\n"
+                    + "     \033[1mstresstest\033[0m -- tests concurrent reads and writes on a SKOS thesaurus\n\n"
+                    + "\033[1mSYNOPSIS\033[0m\n"
+                    + "     \033[1mstresstest\033[0m [options] [<path/to/empty/tdb/directory>]\n\n"
+                    + "\033[1mARGUMENTS\033[0m\n"
+                    + "       \033[1mTDB directory\033[0m\n"
+                    + "                 (Optional) Empty directory where a test TDB thesaurus is created.\n"
+                    + "                 If omitted, an in-memory thesaurus is tested.\n\n"
+                    + "\033[1mDESCRIPTION\033[0m\n"
+                    + "     Runs an increasing number of reader threads against a writer thread, reports\n"
+                    + "     the read and write throughput of each round, and checks that readers never\n"
+                    + "     observe a partially applied update. As many listing threads as readers list\n"
+                    + "     concepts without entering a critical section and check that each listing\n"
+                    + "     returns a consistent number of concepts.\n\n"
+                    + "\033[1mOPTIONS\033[0m\n"
+                    + "       \033[1m-r\033[0m <number>, \033[1m--readers\033[0m <number>\n"
+                    + "                 Maximum number of reader threads. Defaults to the number of processors.\n\n"
+                    + "       \033[1m-d\033[0m <seconds>, \033[1m--duration\033[0m <seconds>\n"
+                    + "                 Duration of each round. Defaults to 5 seconds.\n\n"
+                    + "       \033[1m-c\033[0m <number>, \033[1m--concepts\033[0m <number>\n"
+                    + "                 Number of test concepts, at least 2. Defaults to 1000.\n\n"
+                    + "       \033[1m-h\033[0m, \033[1m--help\033[0m\n"
+                    + "                 Prints this help.\n";
+        System.out.println(man);
+    }
+}
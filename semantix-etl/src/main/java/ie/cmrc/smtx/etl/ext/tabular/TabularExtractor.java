@@ -22,12 +22,12 @@ import com.hp.hpl.jena.ontology.OntModelSpec;
 import com.hp.hpl.jena.rdf.model.Resource;
 import ie.cmrc.smtx.skos.model.SKOS;
 import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
 import ie.cmrc.smtx.skos.model.SKOSCollection;
 import ie.cmrc.smtx.skos.model.SKOSConcept;
 import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
 import ie.cmrc.smtx.skos.model.SKOSElementProperty;
 import ie.cmrc.smtx.skos.jena.SKOSFactory;
-import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
 import ie.cmrc.smtx.skos.model.SKOSResource;
 import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
 import ie.cmrc.smtx.skos.model.SKOSType;
@@ -434,6 +434,7 @@ public final class TabularExtractor implements Extractor {
         if (defTableNames!=null) {
             
             SKOSConceptScheme conceptScheme = thesaurus.getConceptScheme(csm.getURI());
+            SKOSBulkWriter writer = thesaurus.createBulkWriter(inferInverseProperties, false, SKOSBulkWriter.DEFAULT_BATCH_SIZE);
             Term conceptURIField = CFN.SKOS_CONCEPT.field();
             for (String tableName: defTableNames) {
                 // Get definitions table
@@ -451,19 +452,15 @@ public final class TabularExtractor implements Extractor {
                                 while ((tr = defTable.getNextRow()) != null) {
                                     String uri = ResourceParser.parseResourceURI(tr.getFieldStringValue(conceptURIField), this.conceptNS);
                                     if (uri!=null && !(uri=uri.trim()).isEmpty()) {
-                                        try{
-                                            SKOSConcept concept = conceptScheme.createConcept(uri);
+                                        if (this.declareConcept(writer, thesaurus, uri, conceptScheme)) {
                                             counter++;
                                             bufferSize++;
 
                                             Boolean isTopConcept;
 
-                                            if (concept!=null && topConceptField != null && (isTopConcept = tr.getFieldBooleanValue(topConceptField))!=null && isTopConcept==true) {
-                                                concept.addRelation(SKOSElementProperty.topConceptOf, conceptScheme);
-
-                                                if(inferInverseProperties) {
-                                                    conceptScheme.addRelation(SKOSElementProperty.hasTopConcept, concept);
-                                                }
+                                            if (topConceptField != null && (isTopConcept = tr.getFieldBooleanValue(topConceptField))!=null && isTopConcept==true) {
+                                                // The writer adds the inverse hasTopConcept relation if required
+                                                writer.addRelation(uri, SKOSElementProperty.topConceptOf, conceptScheme.getURI());
                                             }
                                             Set<Term> fields = annoFields.keySet();
                                             // Add annotations
@@ -473,16 +470,15 @@ public final class TabularExtractor implements Extractor {
                                                 for (TableCell cell: annotationCells) {
                                                     String annotation = cell.getStringValue();
                                                     if (annotation!=null && !(annotation=annotation.trim()).isEmpty()) {
-                                                        if (concept != null) concept.addAnnotation(property, annotation, field.getLanguage());
+                                                        writer.addAnnotation(uri, property, annotation, field.getLanguage());
                                                     }
                                                 }
                                             }
                                             if (incrementalSync && bufferSize>=this.maxBufferSize) {
+                                                writer.flush();
                                                 thesaurus.sync();
                                                 bufferSize = 0;
                                             }
-                                        } catch (IllegalArgumentException ex) {
-                                            //Logger.getLogger(TabularExtractor.class.getName()).log(Level.SEVERE, ex.getMessage(), ex);
                                         }
                                     }
                                 }
@@ -505,6 +501,7 @@ public final class TabularExtractor implements Extractor {
                     Logger.getLogger(TabularExtractor.class.getName()).log(Level.WARNING, "\"{0}\": No such table!", tableName);
                 }
             }
+            writer.close();
         }
         return counter;
     }
@@ -517,6 +514,7 @@ public final class TabularExtractor implements Extractor {
         int counter = 0;
         
         SKOSConceptScheme conceptScheme = thesaurus.getConceptScheme(csm.getURI());
+        SKOSBulkWriter writer = thesaurus.createBulkWriter(inferInverseProperties, false, SKOSBulkWriter.DEFAULT_BATCH_SIZE);
         
         String conceptsListTableName = csm.getConceptListTableName();
         
@@ -539,23 +537,20 @@ public final class TabularExtractor implements Extractor {
                     while ((tr = conceptsTable.getNextRow()) != null) {
                         String uri = ResourceParser.parseResourceURI(tr.getFieldStringValue(conceptURIField), this.conceptNS);
                         if (uri!=null && !uri.isEmpty()) {
-                            try {
-                                SKOSConcept concept = conceptScheme.createConcept(uri);
+                            if (this.declareConcept(writer, thesaurus, uri, conceptScheme)) {
                                 counter++;
                                 bufferSize++;
-                                if (concept!=null && topConceptField != null && tr.getFieldBooleanValue(topConceptField)==true) {
-                                    concept.addRelation(SKOSElementProperty.topConceptOf, conceptScheme);
-
-                                    if(inferInverseProperties) {
-                                        conceptScheme.addRelation(SKOSElementProperty.hasTopConcept, concept);
-                                    }
+                                if (topConceptField != null && tr.getFieldBooleanValue(topConceptField)==true) {
+                                    // The writer adds the inverse hasTopConcept relation if required
+                                    writer.addRelation(uri, SKOSElementProperty.topConceptOf, conceptScheme.getURI());
                                 }
                                 if (incrementalSync && bufferSize>=this.maxBufferSize) {
+                                    writer.flush();
                                     thesaurus.sync();
                                     bufferSize = 0;
                                 }
                             }
-                            catch (IllegalArgumentException ex) {
+                            else {
                                 if (this.verbose) System.out.println("WARNING: Could not create concept \""+uri+"\"!");
                             }
                         }
@@ -580,6 +575,9 @@ public final class TabularExtractor implements Extractor {
             conceptsAlreadyDeclared = false;
         }
         
+        // Make the declared concepts visible to the definition tables
+        writer.flush();
+        
         // Load collection definitions
         List<String> defTableNames = csm.getConceptDefinitionTableNames();
         if (defTableNames!=null) {
@@ -593,7 +591,7 @@ public final class TabularExtractor implements Extractor {
                             && defTable.getHeader().containsField(CFN.RDF_PREDICATE.fieldName())
                             && defTable.getHeader().containsField(CFN.RDF_OBJECT.fieldName())) {
                             // Add definitions
-                            int addedFromannotationTables = this.addConceptAnnotationTriples(defTable, thesaurus, conceptScheme, conceptsAlreadyDeclared);
+                            int addedFromannotationTables = this.addConceptAnnotationTriples(defTable, thesaurus, writer, conceptScheme, conceptsAlreadyDeclared);
                             counter += addedFromannotationTables;
                             try {
                                 // Close definitions table
@@ -613,16 +611,17 @@ public final class TabularExtractor implements Extractor {
                 }
             }
         }
+        writer.close();
         return counter;
     }
     
-    private int addConceptAnnotationTriples(Table table, SKOS thesaurus, SKOSConceptScheme conceptScheme, boolean conceptsAlreadyDeclared) {
+    private int addConceptAnnotationTriples(Table table, SKOS thesaurus, SKOSBulkWriter writer, SKOSConceptScheme conceptScheme, boolean conceptsAlreadyDeclared) {
         int counter = 0;
         Term subjectField = CFN.RDF_SUBJECT.field();
         Term predicateField = CFN.RDF_PREDICATE.field();
         Term objectField = CFN.RDF_OBJECT.field();
         String currentConceptURI = null;
-        SKOSConcept currentConcept = null;
+        boolean currentConceptExists = false;
 
         TableRow tr;
         while ((tr = table.getNextRow()) != null) {
@@ -643,19 +642,15 @@ public final class TabularExtractor implements Extractor {
                         // This is a new collection
                         currentConceptURI = uri;
 
-                        currentConcept = thesaurus.getConcept(currentConceptURI);
-                        if (currentConcept==null && !conceptsAlreadyDeclared) {
-                            try {
-                                currentConcept = conceptScheme.createConcept(currentConceptURI);
-                                counter++;
-                            } catch (IllegalArgumentException ex) {
-                                //Logger.getLogger(TabularExtractor.class.getName()).log(Level.SEVERE, ex.getMessage(), ex);
-                            }
+                        currentConceptExists = (thesaurus.getSKOSResourceType(currentConceptURI) == SKOSType.Concept);
+                        if (!currentConceptExists && !conceptsAlreadyDeclared) {
+                            currentConceptExists = this.declareConcept(writer, thesaurus, currentConceptURI, conceptScheme);
+                            if (currentConceptExists) counter++;
                         }
                     }
 
-                    if (currentConcept!=null) {
-                        currentConcept.addAnnotation(annotationProp, annotation, annotationPropTerm.getLanguage());
+                    if (currentConceptExists) {
+                        writer.addAnnotation(currentConceptURI, annotationProp, annotation, annotationPropTerm.getLanguage());
                     }
                 }
             }
@@ -759,6 +754,7 @@ public final class TabularExtractor implements Extractor {
     private int addCollectionMembers(CollectionMetadata cm, SKOS thesaurus, boolean inferInverseProperties, boolean inferSuperProperties, boolean incrementalSync) {
         int counter = 0;
         SKOSCollection collection = thesaurus.getCollection(cm.getURI());
+        SKOSBulkWriter writer = thesaurus.createBulkWriter(inferInverseProperties, inferSuperProperties, SKOSBulkWriter.DEFAULT_BATCH_SIZE);
         
         // Get collection declarations table
         String tableName = cm.getConceptsTableName();
@@ -774,20 +770,14 @@ public final class TabularExtractor implements Extractor {
                     while ((tr = conceptsTable.getNextRow()) != null) {
                         String uri = ResourceParser.parseResourceURI(tr.getFieldStringValue(memberURIField), this.conceptNS);
                         
-                        if (uri!=null && !uri.isEmpty()) {
-                            try {
-                                collection.addMember(uri);
-                                if (inferInverseProperties) collection.makeRelation(uri, SKOSElementProperty.memberOf);
-                                if (inferSuperProperties) {
-                                    collection.addRelation(SKOSElementProperty.memberTransitive, uri);
-                                    if (inferInverseProperties) collection.makeRelation(uri, SKOSElementProperty.memberOfTransitive);
-                                }
-                                
-                                counter++;
-                                bufferSize++;
-                            } catch (IllegalArgumentException ex) {}
+                        if (uri!=null && !uri.isEmpty() && this.isCollectionMember(thesaurus, uri)) {
+                            // The writer adds the inverse and super properties if required
+                            writer.addRelation(collection.getURI(), SKOSElementProperty.member, uri);
+                            counter++;
+                            bufferSize++;
                         }
                         if (incrementalSync && bufferSize>=this.maxBufferSize) {
+                            writer.flush();
                             thesaurus.sync();
                             bufferSize = 0;
                         }
@@ -808,6 +798,7 @@ public final class TabularExtractor implements Extractor {
         else {
             Logger.getLogger(TabularExtractor.class.getName()).log(Level.WARNING, "\"{0}\": No such table!", tableName);
         }
+        writer.close();
         return counter;
     }
     
@@ -827,6 +818,7 @@ public final class TabularExtractor implements Extractor {
                         
                         String currentCollectionUri = null;
                         SKOSCollection collection = null;
+                        SKOSBulkWriter writer = thesaurus.createBulkWriter(inferInverseProperties, inferSuperProperties, SKOSBulkWriter.DEFAULT_BATCH_SIZE);
                         
                         Term collectionURIField = CFN.SKOS_COLLECTION.field();
                         Term memberURIField = CFN.SKOS_MEMBER.field();
@@ -841,25 +833,21 @@ public final class TabularExtractor implements Extractor {
                                 }
                                 if (collection != null) {
                                     String uri = ResourceParser.parseResourceURI(tr.getFieldStringValue(memberURIField), this.conceptNS);
-                                    if (uri!=null && !uri.isEmpty()) {
-                                        try {
-                                            collection.addMember(uri);
-                                            if (inferInverseProperties) collection.makeRelation(uri, SKOSElementProperty.memberOf);
-                                            if (inferSuperProperties) {
-                                                collection.addRelation(SKOSElementProperty.memberTransitive, uri);
-                                                if (inferInverseProperties) collection.makeRelation(uri, SKOSElementProperty.memberOfTransitive);
-                                            }
-                                            counter++;
-                                            bufferSize++;
-                                        } catch (IllegalArgumentException ex) {}
+                                    if (uri!=null && !uri.isEmpty() && this.isCollectionMember(thesaurus, uri)) {
+                                        // The writer adds the inverse and super properties if required
+                                        writer.addRelation(currentCollectionUri, SKOSElementProperty.member, uri);
+                                        counter++;
+                                        bufferSize++;
                                     }
                                     if (incrementalSync && bufferSize>=this.maxBufferSize) {
+                                        writer.flush();
                                         thesaurus.sync();
                                         bufferSize = 0;
                                     }
                                 }
                             }
                         }
+                        writer.close();
                         try {
                             // Close concepts table
                             membershipTable.close();
@@ -898,6 +886,7 @@ public final class TabularExtractor implements Extractor {
                         
                         String currentCollectionUri = null;
                         SKOSCollection collection = null;
+                        SKOSBulkWriter writer = thesaurus.createBulkWriter(inferInverseProperties, inferSuperProperties, SKOSBulkWriter.DEFAULT_BATCH_SIZE);
                         
                         Term collectionURIField = CFN.SKOS_COLLECTION.field();
                         Term memberURIField = CFN.SKOS_MEMBER.field();
@@ -912,25 +901,21 @@ public final class TabularExtractor implements Extractor {
                                 }
                                 if (collection != null) {
                                     String uri = ResourceParser.parseResourceURI(tr.getFieldStringValue(memberURIField), this.collectionNS);
-                                    if (uri!=null && !uri.isEmpty()) {
-                                        try {
-                                            collection.addMember(uri);
-                                            if (inferInverseProperties) collection.makeRelation(uri, SKOSElementProperty.memberOf);
-                                            if (inferSuperProperties) {
-                                                collection.addRelation(SKOSElementProperty.memberTransitive, uri);
-                                                if (inferInverseProperties) collection.makeRelation(uri, SKOSElementProperty.memberOfTransitive);
-                                            }
-                                            counter++;
-                                            bufferSize++;
-                                        } catch (IllegalArgumentException ex) {}
+                                    if (uri!=null && !uri.isEmpty() && this.isCollectionMember(thesaurus, uri)) {
+                                        // The writer adds the inverse and super properties if required
+                                        writer.addRelation(currentCollectionUri, SKOSElementProperty.member, uri);
+                                        counter++;
+                                        bufferSize++;
                                     }
                                     if (incrementalSync && bufferSize>=this.maxBufferSize) {
+                                        writer.flush();
                                         thesaurus.sync();
                                         bufferSize = 0;
                                     }
                                 }
                             }
                         }
+                        writer.close();
                         try {
                             // Close concepts table
                             collectionMembershipTable.close();
@@ -954,6 +939,37 @@ public final class TabularExtractor implements Extractor {
         return counter;
     }
     
+    /**
+     * Declares a concept of a concept scheme using the provided bulk writer,
+     * unless a resource of another SKOS type has the same URI
+     * @param writer Bulk writer of the thesaurus
+     * @param thesaurus SKOS thesaurus
+     * @param uri URI of the concept
+     * @param conceptScheme Concept scheme of the concept
+     * @return {@code true} if the concept was declared, {@code false} if
+     * {@code uri} is the URI of another type of resource
+     */
+    private boolean declareConcept(SKOSBulkWriter writer, SKOS thesaurus, String uri, SKOSConceptScheme conceptScheme) {
+        SKOSType type = thesaurus.getSKOSResourceType(uri);
+        if (type!=null && type!=SKOSType.Concept) return false;
+        writer.addResource(uri, SKOSType.Concept);
+        writer.addRelation(uri, SKOSElementProperty.inScheme, conceptScheme.getURI());
+        return true;
+    }
+    
+    /**
+     * Indicates whether the provided URI is that of a resource that can be
+     * a member of a collection, i.e., a concept or a collection
+     * @param thesaurus SKOS thesaurus
+     * @param uri Resource URI
+     * @return {@code true} if {@code uri} is the URI of a concept or a
+     * collection of {@code thesaurus}
+     */
+    private boolean isCollectionMember(SKOS thesaurus, String uri) {
+        SKOSType type = thesaurus.getSKOSResourceType(uri);
+        return (type==SKOSType.Concept || type==SKOSType.Collection);
+    }
+    
     private List<String> getRelationshipTables() {
         List<String> relationshipTables = new ArrayList<>();
         Table relTable = this.dataset.getTable(CTN.SKOS_SEMANTIC_RELATION.tableName());
@@ -994,6 +1010,7 @@ public final class TabularExtractor implements Extractor {
                                 
                 String currentResourceURI = null;
                 SKOSResource currentResource = null;
+                SKOSBulkWriter writer = thesaurus.createBulkWriter(inferInverseProperties, inferSuperProperties, SKOSBulkWriter.DEFAULT_BATCH_SIZE);
 
                 TableRow tr;
                 int bufferSize = 0;
@@ -1019,41 +1036,24 @@ public final class TabularExtractor implements Extractor {
                             }
 
                             if (currentResource!=null) {
-                                currentResource.addRelation(objectProperty, objectURI);
-                                counter++;
-                                bufferSize++;
-                                // If inferencing enabled infer inverse and super properties
-                                if (inferInverseProperties) {
-                                    SKOSObjectProperty inverse = objectProperty.getInverseProperty();
-                                    currentResource.makeRelation(objectURI, inverse);
-                                    counter++;
-                                    bufferSize++;
-                                }
-                                if (inferSuperProperties) {
-                                    for (SKOSObjectProperty superProp: objectProperty.getSuperProperties()) {
-                                        currentResource.addRelation(superProp, objectURI);
-                                        counter++;
-                                        bufferSize++;
-                                    }
-                                    if (inferInverseProperties) {
-                                        SKOSObjectProperty inverse = objectProperty.getInverseProperty();
-                                        for (SKOSObjectProperty inverseSuperProp: inverse.getSuperProperties()) {
-                                            currentResource.makeRelation(objectURI, inverseSuperProp);
-                                            counter++;
-                                            bufferSize++;
-                                        }
-                                    }
-                                }
+                                // If inferencing enabled the writer infers inverse and super properties
+                                long statements = writer.getWrittenStatements() + writer.getBufferSize();
+                                writer.addRelation(currentResourceURI, objectProperty, objectURI);
+                                int added = (int) (writer.getWrittenStatements() + writer.getBufferSize() - statements);
+                                counter += added;
+                                bufferSize += added;
                             }
                         }
                     }
                     
                     if (incrementalSync && bufferSize>=this.maxBufferSize) {
+                        writer.flush();
                         thesaurus.sync();
                         bufferSize = 0;
                     }
                     
                 }
+                writer.close();
             }
             else {
                 Logger.getLogger(TabularExtractor.class.getName()).log(Level.WARNING, "Table \"{0}\" does not have the required fields rdf:subject, rdf:predicate, and rdf:object. It will be skipped!", relTableName);
@@ -0,0 +1,279 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.etl.index;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Interval encoding of the broader/narrower hierarchy of a SKOS thesaurus.<br/>
+ * Each concept is given a <i>position</i>, its post-order number in a
+ * depth-first traversal of the narrower relation starting from the top
+ * concepts (concepts without broader concepts). Each concept is also given a
+ * list of position <i>intervals</i> covering itself and all its narrower
+ * concepts, direct or indirect: the interval of its subtree in the spanning
+ * tree of the traversal, plus the intervals inherited from narrower concepts
+ * reached through other paths (polyhierarchy). Overlapping and adjacent
+ * intervals are merged, so that a strict hierarchy has exactly one interval
+ * per concept.<br/>
+ * A concept {@code D} is then a (reflexive) descendant of a concept
+ * {@code A} if and only if the position of {@code D} falls within one of
+ * the intervals of {@code A}, which an index can evaluate as numeric range
+ * queries.<br/>
+ * Cycles in the hierarchy are broken at the first edge closing them.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class HierarchyIntervals {
+
+    /**
+     * Maps concept URIs to their internal identifiers
+     */
+    private final Map<String, Integer> ids;
+
+    /**
+     * Positions of the concepts, by internal identifier
+     */
+    private final int[] positions;
+
+    /**
+     * Intervals of the concepts, by internal identifier, as flattened
+     * {@code [start1, end1, start2, end2, ...]} arrays of inclusive bounds
+     */
+    private final int[][] intervals;
+
+    /**
+     * Constructs a {@link HierarchyIntervals}
+     * @param ids Maps concept URIs to their internal identifiers
+     * @param positions Positions of the concepts
+     * @param intervals Intervals of the concepts
+     */
+    private HierarchyIntervals(Map<String, Integer> ids, int[] positions, int[][] intervals) {
+        this.ids = ids;
+        this.positions = positions;
+        this.intervals = intervals;
+    }
+
+    /**
+     * Computes the interval encoding of the hierarchy of the provided thesaurus.
+     * Both the narrower and broader relations are read, so the encoding does
+     * not depend on whether the thesaurus declares the inverse relations.
+     * @param thesaurus SKOS thesaurus
+     * @return Interval encoding of the hierarchy of {@code thesaurus}
+     * @throws IllegalArgumentException If {@code thesaurus} is {@code null}
+     */
+    public static HierarchyIntervals compute(SKOS thesaurus) {
+        if (thesaurus == null) throw new IllegalArgumentException("HierarchyIntervals.compute: thesaurus argument must not be null");
+
+        // Read the hierarchy as a list of (parent, child) edges
+        Map<String, Integer> ids = new HashMap<>();
+        int[] parents = new int[1024];
+        int[] children = new int[1024];
+        int edges = 0;
+        CloseableIterator<SKOSConcept> iter = thesaurus.listConcepts();
+        try {
+            while (iter.hasNext()) {
+                SKOSConcept concept = iter.next();
+                int id = id(ids, concept.getURI());
+                for (SKOSSemanticProperty relation: new SKOSSemanticProperty[]{SKOSSemanticProperty.narrower, SKOSSemanticProperty.broader}) {
+                    CloseableIterator<SKOSConcept> related = thesaurus.listSemanticRelations(concept, relation);
+                    try {
+                        while (related.hasNext()) {
+                            int other = id(ids, related.next().getURI());
+                            if (other == id) continue;
+                            if (edges == parents.length) {
+                                parents = Arrays.copyOf(parents, edges * 2);
+                                children = Arrays.copyOf(children, edges * 2);
+                            }
+                            parents[edges] = (relation == SKOSSemanticProperty.narrower) ? id : other;
+                            children[edges] = (relation == SKOSSemanticProperty.narrower) ? other : id;
+                            edges++;
+                        }
+                    }
+                    finally {
+                        related.close();
+                    }
+                }
+            }
+        }
+        finally {
+            iter.close();
+        }
+
+        // Adjacency lists in compressed form: the children of n are
+        // adjacency[offsets[n]] to adjacency[offsets[n+1]-1]
+        int n = ids.size();
+        int[] offsets = new int[n + 1];
+        boolean[] hasParent = new boolean[n];
+        for (int e = 0; e < edges; e++) {
+            offsets[parents[e] + 1]++;
+            hasParent[children[e]] = true;
+        }
+        for (int i = 0; i < n; i++) offsets[i + 1] += offsets[i];
+        int[] adjacency = new int[edges];
+        int[] fill = Arrays.copyOf(offsets, n);
+        for (int e = 0; e < edges; e++) adjacency[fill[parents[e]]++] = children[e];
+
+        // Iterative depth-first traversal, top concepts first, then any
+        // concept left unvisited (cycles without a top concept)
+        int[] positions = new int[n];
+        int[] low = new int[n];
+        int[] order = new int[n];
+        int[] cursor = new int[n];
+        byte[] state = new byte[n];
+        int[] stack = new int[n];
+        int counter = 0;
+        for (int pass = 0; pass < 2; pass++) {
+            for (int root = 0; root < n; root++) {
+                if (state[root] != 0 || (pass == 0 && hasParent[root])) continue;
+                int sp = 0;
+                stack[sp++] = root;
+                state[root] = 1;
+                low[root] = counter;
+                cursor[root] = offsets[root];
+                while (sp > 0) {
+                    int node = stack[sp - 1];
+                    if (cursor[node] < offsets[node + 1]) {
+                        int child = adjacency[cursor[node]++];
+                        if (state[child] == 0) {
+                            state[child] = 1;
+                            low[child] = counter;
+                            cursor[child] = offsets[child];
+                            stack[sp++] = child;
+                        }
+                    }
+                    else {
+                        positions[node] = counter;
+                        order[counter++] = node;
+                        state[node] = 2;
+                        sp--;
+                    }
+                }
+            }
+        }
+
+        // Children are numbered before their parents, except across edges
+        // closing a cycle, so intervals can be inherited in position order
+        int[][] intervals = new int[n][];
+        for (int p = 0; p < n; p++) {
+            int node = order[p];
+            int size = 2;
+            for (int a = offsets[node]; a < offsets[node + 1]; a++) {
+                int child = adjacency[a];
+                if (positions[child] < p) size += intervals[child].length;
+            }
+            int[] collected = new int[size];
+            collected[0] = low[node];
+            collected[1] = p;
+            int k = 2;
+            for (int a = offsets[node]; a < offsets[node + 1]; a++) {
+                int child = adjacency[a];
+                if (positions[child] < p) {
+                    System.arraycopy(intervals[child], 0, collected, k, intervals[child].length);
+                    k += intervals[child].length;
+                }
+            }
+            intervals[node] = merge(collected);
+        }
+
+        return new HierarchyIntervals(ids, positions, intervals);
+    }
+
+    /**
+     * Returns the number of concepts in the encoded hierarchy
+     * @return Number of concepts
+     */
+    public int size() {
+        return this.positions.length;
+    }
+
+    /**
+     * Returns the position of the provided concept
+     * @param conceptURI Concept URI
+     * @return Position of the concept, or {@code -1} if it is not part of
+     * the encoded hierarchy
+     */
+    public int getPosition(String conceptURI) {
+        Integer id = (conceptURI != null) ? this.ids.get(conceptURI) : null;
+        return (id != null) ? this.positions[id] : -1;
+    }
+
+    /**
+     * Returns the intervals of the provided concept
+     * @param conceptURI Concept URI
+     * @return Inclusive bounds of the intervals of the concept, as a
+     * {@code [start1, end1, start2, end2, ...]} array sorted by start, or an
+     * empty array if the concept is not part of the encoded hierarchy
+     */
+    public int[] getIntervals(String conceptURI) {
+        Integer id = (conceptURI != null) ? this.ids.get(conceptURI) : null;
+        return (id != null) ? this.intervals[id].clone() : new int[0];
+    }
+
+    /**
+     * Returns the internal identifier of the provided URI, assigning a new
+     * one if needed
+     * @param ids Maps URIs to their internal identifiers
+     * @param uri URI
+     * @return Internal identifier of {@code uri}
+     */
+    private static int id(Map<String, Integer> ids, String uri) {
+        Integer id = ids.get(uri);
+        if (id == null) {
+            id = ids.size();
+            ids.put(uri, id);
+        }
+        return id;
+    }
+
+    /**
+     * Sorts the provided intervals and merges those overlapping or adjacent
+     * @param bounds Intervals as a {@code [start1, end1, start2, end2, ...]}
+     * array
+     * @return Merged intervals as a {@code [start1, end1, start2, end2, ...]}
+     * array sorted by start
+     */
+    private static int[] merge(int[] bounds) {
+        int count = bounds.length / 2;
+        if (count == 1) return bounds;
+        long[] packed = new long[count];
+        for (int i = 0; i < count; i++) {
+            packed[i] = ((long) bounds[2 * i] << 32) | (bounds[2 * i + 1] & 0xffffffffL);
+        }
+        Arrays.sort(packed);
+        int[] merged = new int[bounds.length];
+        int k = 0;
+        for (long interval: packed) {
+            int start = (int) (interval >>> 32);
+            int end = (int) interval;
+            if (k > 0 && start <= merged[k - 1] + 1) {
+                if (end > merged[k - 1]) merged[k - 1] = end;
+            }
+            else {
+                merged[k++] = start;
+                merged[k++] = end;
+            }
+        }
+        return Arrays.copyOf(merged, k);
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.etl.index;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.Collections;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Spliterator over the SKOS resources of a thesaurus, backed by the
+ * partitioned listings of the thesaurus (see
+ * {@link SKOS#listSKOSResources(SKOSType, int, int)}).<br/>
+ * A spliterator covers a range of partitions, and splits by handing over the
+ * half of the partitions it has not started yet, so that the resources of a
+ * thesaurus can be processed with a parallel {@link Stream} (see
+ * {@link #stream(SKOS, SKOSType, int)}). Each partition is listed when the
+ * spliterator reaches it, and closed as soon as it is exhausted: at most one
+ * partition per thread is open at a time. How much of an open partition is
+ * held in memory depends on the thesaurus: a {@code JenaSKOS} thesaurus reads
+ * each partition into memory when the caller is not within a critical
+ * section, so more partitions mean less memory, at the cost of one scan of
+ * the rdf:type statements per partition.<br/>
+ * The partitions of a thesaurus are disjoint, hence the resources are
+ * reported as distinct.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class SKOSResourceSpliterator implements Spliterator<SKOSResource> {
+
+    /**
+     * Thesaurus
+     */
+    private final SKOS thesaurus;
+
+    /**
+     * Type of the listed resources, or {@code null} for all types
+     */
+    private final SKOSType type;
+
+    /**
+     * Total number of partitions
+     */
+    private final int partitions;
+
+    /**
+     * Next partition to list
+     */
+    private int next;
+
+    /**
+     * End of the range of partitions of this spliterator (exclusive)
+     */
+    private int end;
+
+    /**
+     * Listing of the current partition, or {@code null}
+     */
+    private CloseableIterator<SKOSResource> current = null;
+
+    /**
+     * Listings left open by all the spliterators split from the same root,
+     * closed when the stream is closed
+     */
+    private final Set<CloseableIterator<SKOSResource>> open;
+
+    /**
+     * Constructs a {@link SKOSResourceSpliterator} over all the partitions of
+     * the resources of a thesaurus
+     * @param thesaurus SKOS thesaurus
+     * @param type Type of the resources to list. If {@code null}, then
+     * resources of all types are listed.
+     * @param partitions Number of partitions
+     * @throws IllegalArgumentException if {@code thesaurus} is {@code null}
+     * or {@code partitions} is less than {@code 1}
+     */
+    public SKOSResourceSpliterator(SKOS thesaurus, SKOSType type, int partitions) {
+        this(thesaurus, type, partitions, 0, partitions, Collections.newSetFromMap(new ConcurrentHashMap<CloseableIterator<SKOSResource>, Boolean>()));
+        if (thesaurus == null) throw new IllegalArgumentException("SKOSResourceSpliterator constructor: thesaurus argument must not be null");
+        if (partitions < 1) throw new IllegalArgumentException("SKOSResourceSpliterator constructor: partitions argument must be positive");
+    }
+
+    /**
+     * Constructs a {@link SKOSResourceSpliterator} over a range of partitions
+     * @param thesaurus SKOS thesaurus
+     * @param type Type of the resources to list
+     * @param partitions Total number of partitions
+     * @param start First partition of the range
+     * @param end End of the range (exclusive)
+     * @param open Listings left open by the spliterators of the same root
+     */
+    private SKOSResourceSpliterator(SKOS thesaurus, SKOSType type, int partitions, int start, int end, Set<CloseableIterator<SKOSResource>> open) {
+        this.thesaurus = thesaurus;
+        this.type = type;
+        this.partitions = partitions;
+        this.next = start;
+        this.end = end;
+        this.open = open;
+    }
+
+    /**
+     * Returns a stream over the SKOS resources of a thesaurus. The stream is
+     * sequential, and may be turned into a parallel stream with
+     * {@link Stream#parallel()}. Closing the stream closes the partition
+     * listings that were left open, for example by a short-circuiting
+     * operation.
+     * @param thesaurus SKOS thesaurus
+     * @param type Type of the resources to list. If {@code null}, then
+     * resources of all types are listed.
+     * @param partitions Number of partitions, which bounds the parallelism of
+     * the stream
+     * @return Stream over the resources of {@code thesaurus} of type
+     * {@code type}
+     * @throws IllegalArgumentException if {@code thesaurus} is {@code null}
+     * or {@code partitions} is less than {@code 1}
+     */
+    public static Stream<SKOSResource> stream(SKOS thesaurus, SKOSType type, int partitions) {
+        final SKOSResourceSpliterator spliterator = new SKOSResourceSpliterator(thesaurus, type, partitions);
+        return StreamSupport.stream(spliterator, false).onClose(spliterator::closeAll);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param action {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean tryAdvance(Consumer<? super SKOSResource> action) {
+        while (true) {
+            if (this.current == null) {
+                if (this.next >= this.end) return false;
+                this.current = this.thesaurus.listSKOSResources(this.type, this.next++, this.partitions);
+                this.open.add(this.current);
+            }
+            if (this.current.hasNext()) {
+                action.accept(this.current.next());
+                return true;
+            }
+            this.closeCurrent();
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Hands over the second half of the partitions that this spliterator has
+     * not started yet.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public Spliterator<SKOSResource> trySplit() {
+        int remaining = this.end - this.next;
+        if (remaining < 1 || (remaining < 2 && this.current == null)) return null;
+        int middle = this.next + remaining / 2;
+        SKOSResourceSpliterator split = new SKOSResourceSpliterator(this.thesaurus, this.type, this.partitions, middle, this.end, this.open);
+        this.end = middle;
+        return split;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@link Long#MAX_VALUE}, as the size of the partitions is not
+     * known before they are listed
+     */
+    @Override
+    public long estimateSize() {
+        return (this.current == null && this.next >= this.end) ? 0 : Long.MAX_VALUE;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@link Spliterator#DISTINCT} and {@link Spliterator#NONNULL}
+     */
+    @Override
+    public int characteristics() {
+        return DISTINCT | NONNULL;
+    }
+
+    /**
+     * Closes the listing of the current partition
+     */
+    private void closeCurrent() {
+        this.current.close();
+        this.open.remove(this.current);
+        this.current = null;
+    }
+
+    /**
+     * Closes the listings left open by this spliterator and by the
+     * spliterators split from it
+     */
+    private void closeAll() {
+        for (CloseableIterator<SKOSResource> iterator: this.open) {
+            iterator.close();
+        }
+        this.open.clear();
+    }
+}
@@ -27,6 +27,7 @@ import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
 import ie.cmrc.smtx.skos.model.util.CloseableIterator;
 import ie.cmrc.smtx.skos.index.IndexField;
 import ie.cmrc.smtx.skos.index.lucene.analysis.SKOSAnalyzerFactory;
+import ie.cmrc.smtx.etl.index.HierarchyIntervals;
 import ie.cmrc.smtx.etl.index.SKOSIndexer;
 import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
 import ie.cmrc.util.Term;
@@ -41,6 +42,8 @@ import java.util.Set;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
+import org.apache.lucene.document.IntField;
+import org.apache.lucene.document.StoredField;
 import org.apache.lucene.document.StringField;
 import org.apache.lucene.document.TextField;
 import org.apache.lucene.index.IndexWriter;
@@ -59,6 +62,8 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
     
     public static final boolean DEFAULT_INDEX_TRANSITIVE_COLLECTIONS = true;
     
+    public static final boolean DEFAULT_INDEX_HIERARCHY = true;
+    
     /**
      * If set to {@code true} the indexer will print processing information to the standard output
      */
@@ -70,6 +75,13 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
      */
     private final boolean indexTransitiveCollections;
     
+    /**
+     * If set to {@code true} the indexer will index the interval encoding of
+     * the concept hierarchy, allowing searches to be restricted to the
+     * narrower concepts of a given concept
+     */
+    private final boolean indexHierarchy;
+    
     /**
      * List of languages for which the indexer will index the concept labels and definitions 
      */
@@ -112,6 +124,7 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
         this.setLanguages(languageCodes);
         this.verbose = DEFAULT_VERBOSE;
         this.indexTransitiveCollections = DEFAULT_INDEX_TRANSITIVE_COLLECTIONS;
+        this.indexHierarchy = DEFAULT_INDEX_HIERARCHY;
     }
     
     /**
@@ -127,6 +140,7 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
         this.setLanguages(languageCodes);
         this.verbose = verbose;
         this.indexTransitiveCollections = DEFAULT_INDEX_TRANSITIVE_COLLECTIONS;
+        this.indexHierarchy = DEFAULT_INDEX_HIERARCHY;
     }
     
     /**
@@ -144,6 +158,27 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
         this.verbose = verbose;
         this.setLanguages(languageCodes);
         this.indexTransitiveCollections = indexTransitiveCollections;
+        this.indexHierarchy = DEFAULT_INDEX_HIERARCHY;
+    }
+    
+    /**
+     * Constructs a {@code MultilingualSKOSIndexer} that supports the provided
+     * languages
+     * @param languageCodes List of two-letter codes of languages to support
+     * by the indexer. If this is {@code null} or empty, then all annotations
+     * in all languages are indexed.
+     * @param verbose If set to {@code true} the indexer will write progress
+     * information to the standard output
+     * @param indexTransitiveCollections If set to {@code true} the indexer
+     * will index transitive collection membership
+     * @param indexHierarchy If set to {@code true} the indexer will index the
+     * interval encoding of the concept hierarchy
+     */
+    public LuceneSKOSConceptIndexer(List<String> languageCodes, boolean verbose, boolean indexTransitiveCollections, boolean indexHierarchy) {
+        this.verbose = verbose;
+        this.setLanguages(languageCodes);
+        this.indexTransitiveCollections = indexTransitiveCollections;
+        this.indexHierarchy = indexHierarchy;
     }
     
     /**
@@ -162,6 +197,15 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
     public boolean indexTransitiveCollections() {
         return indexTransitiveCollections;
     }
+
+    /**
+     * Indicates whether the interval encoding of the concept hierarchy is
+     * indexed
+     * @return {@code true} if the concept hierarchy is indexed
+     */
+    public boolean indexHierarchy() {
+        return indexHierarchy;
+    }
     
     /**
      * Returns the list of languages supported by the indexer
@@ -246,6 +290,13 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
                 IndexWriter indexWriter = new IndexWriter(new SimpleFSDirectory(indexDirFile), iwc);
                 if (verbose) System.out.println("      --> Done configuring and connecting index writer.");
                 
+                HierarchyIntervals hierarchy = null;
+                if (this.indexHierarchy) {
+                    if (verbose) System.out.println("  - Encoding concept hierarchy...");
+                    hierarchy = HierarchyIntervals.compute(thesaurus);
+                    if (verbose) System.out.println("      --> Encoded hierarchy of "+hierarchy.size()+" concept(s).");
+                }
+                
                 if (verbose) System.out.println("  - Indexing concepts. Please be patient as this may take a few minutes...");
                 int counter = 0;
                 int errors = 0;
@@ -253,7 +304,7 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
                 while (iter.hasNext()) {
                     counter++;
                     SKOSConcept concept = iter.next();
-                    Document doc = this.indexConcept(concept);
+                    Document doc = this.indexConcept(concept, hierarchy);
                     if (doc != null) {
                         try {
                             indexWriter.addDocument(doc);
@@ -290,14 +341,17 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
      * {@code org.apache.lucene.document.Document} ready to be added to an
      * index writer
      * @param concept Concept to index
+     * @param hierarchy Interval encoding of the concept hierarchy, or
+     * {@code null} if the hierarchy is not indexed
      * @return {@code org.apache.lucene.document.Document} containing the
      * relevant fields and values to index.
      */
-    private Document indexConcept(SKOSConcept concept) {
+    private Document indexConcept(SKOSConcept concept, HierarchyIntervals hierarchy) {
         Document doc = new Document();
         
         String uri = concept.getURI();
         doc.add(new TextField(IndexField.Searchable.URI.fieldName(), uri, Field.Store.YES));
+        doc.add(new StringField(IndexField.Filterable.URI.fieldName(), uri, Field.Store.NO));
         
         String name = concept.getLocalName();
         doc.add(new TextField(IndexField.Searchable.NAME.fieldName(), name, Field.Store.YES));
@@ -320,7 +374,15 @@ public final class LuceneSKOSConceptIndexer implements SKOSIndexer {
             }
         }
         
-        
+        if (hierarchy != null) {
+            int position = hierarchy.getPosition(uri);
+            if (position >= 0) {
+                doc.add(new IntField(IndexField.Filterable.HIERARCHY_POSITION.fieldName(), position, Field.Store.YES));
+                for (int bound: hierarchy.getIntervals(uri)) {
+                    doc.add(new StoredField(IndexField.Filterable.HIERARCHY_INTERVAL.fieldName(), bound));
+                }
+            }
+        }
         
         Set<SKOSAnnotationProperty> annotationProps = annotationFields.keySet();
         for (SKOSAnnotationProperty annotationProp: annotationProps) {
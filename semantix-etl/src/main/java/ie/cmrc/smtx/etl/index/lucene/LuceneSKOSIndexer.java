@@ -23,10 +23,10 @@ import ie.cmrc.smtx.skos.model.SKOS;
 import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
 import ie.cmrc.smtx.skos.model.SKOSCollection;
 import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
-import ie.cmrc.smtx.skos.model.util.CloseableIterator;
 import ie.cmrc.smtx.skos.index.IndexField;
 import ie.cmrc.smtx.skos.index.lucene.analysis.SKOSAnalyzerFactory;
 import ie.cmrc.smtx.etl.index.SKOSIndexer;
+import ie.cmrc.smtx.etl.index.SKOSResourceSpliterator;
 import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
 import ie.cmrc.smtx.skos.model.SKOSResource;
 import ie.cmrc.smtx.skos.model.SKOSType;
@@ -39,6 +39,8 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Stream;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.document.Field;
@@ -51,7 +53,9 @@ import org.apache.lucene.util.Version;
 
 /**
  * A {@link ie.cmrc.smtx.etl.index.SKOSIndexer} implementation that indexes
- * all SKOS resources of a thesaurus
+ * all SKOS resources of a thesaurus. Resources are read and indexed in
+ * parallel, one partition of the thesaurus per task (see
+ * {@link SKOSResourceSpliterator}).
  * @author Yassine Lassoued
  * @deprecated Not to be used for the time being.
  */
@@ -61,6 +65,14 @@ public final class LuceneSKOSIndexer implements SKOSIndexer {
     
     public static final boolean DEFAULT_INDEX_TRANSITIVE_COLLECTIONS = true;
     
+    /**
+     * Number of partitions the resources of a thesaurus are listed in (see
+     * {@link SKOSResourceSpliterator}). Several partitions per processor keep
+     * the worker threads busy when partitions have uneven sizes, and bound
+     * the part of the thesaurus held in memory at a time.
+     */
+    private static final int PARTITIONS = 4 * Runtime.getRuntime().availableProcessors();
+    
     /**
      * If set to {@code true} the indexer will print processing information to the standard output
      */
@@ -251,24 +263,23 @@ public final class LuceneSKOSIndexer implements SKOSIndexer {
                 
                 
                 if (verbose) System.out.println("  - Indexing resources. Please be patient as this may take a few minutes...");
-                int counter = 0;
-                int errors = 0;
-                CloseableIterator<SKOSResource> iter = thesaurus.listSKOSResources();
-                while (iter.hasNext()) {
-                    counter++;
-                    SKOSResource resource = iter.next();
-                    Document doc = this.indexResource(resource);
-                    if (doc != null) {
-                        try {
-                            indexWriter.addDocument(doc);
+                final AtomicInteger counter = new AtomicInteger();
+                final AtomicInteger errors = new AtomicInteger();
+                try (Stream<SKOSResource> resources = SKOSResourceSpliterator.stream(thesaurus, null, PARTITIONS).parallel()) {
+                    resources.forEach(resource -> {
+                        counter.incrementAndGet();
+                        Document doc = this.indexResource(resource);
+                        if (doc != null) {
+                            try {
+                                indexWriter.addDocument(doc);
+                            }
+                            catch (IOException ex) {
+                                errors.incrementAndGet();
+                                if (verbose) System.out.println("    * ERROR: Could not index resource \""+resource.getURI()+"\"!");
+                            }
                         }
-                        catch (IOException ex) {
-                            errors++;
-                            if (verbose) System.out.println("    * ERROR: Could not index resource \""+resource.getURI()+"\"!");
-                        }
-                    }
+                    });
                 }
-                iter.close();
                 if (verbose) System.out.println("      --> Indexed "+counter+" resources(s) with "+errors+" error(s).");
                 
                 if (verbose) System.out.println("  - Closing connection to index directory...");
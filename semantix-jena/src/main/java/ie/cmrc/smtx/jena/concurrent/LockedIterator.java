@@ -0,0 +1,180 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.jena.concurrent;
+
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.util.iterator.NiceIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Iterator that reads an underlying iterator under a read lock, without
+ * holding the lock between calls, so that an iterator that is dropped
+ * without being closed, or that is closed by another thread, never blocks
+ * writers.<br/>
+ * A detached iterator reads all the elements of the underlying iterator
+ * when it is created, under the read lock held by its creator, so that it
+ * iterates over a consistent copy of the data whatever the writers do
+ * afterwards. This is what readers that are not within a critical section
+ * get.<br/>
+ * Otherwise, elements are read in batches of {@link #BATCH_SIZE}, each
+ * under its own read lock. This is meant for readers within a read critical
+ * section (see {@link ReentrantMRSWLock#enterCriticalSection(boolean)}),
+ * which keeps writers out until the iteration completes and lets large
+ * results be read at constant memory. Such an iterator must be consumed
+ * before the critical section is left: a writer may otherwise update the
+ * data between two batches, in which case the underlying iterator may fail
+ * with a {@code java.util.ConcurrentModificationException}.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ * @param <T> Type of the iterated elements
+ */
+public class LockedIterator<T> extends NiceIterator<T> {
+
+    /**
+     * Number of elements read under each read lock by iterators that are
+     * not detached
+     */
+    public static final int BATCH_SIZE = 256;
+
+    /**
+     * Underlying iterator
+     */
+    private final ExtendedIterator<T> iterator;
+
+    /**
+     * Lock guarding the data of the underlying iterator
+     */
+    private final ReentrantMRSWLock lock;
+
+    /**
+     * Elements of the current batch, or all the elements if the iterator is
+     * detached
+     */
+    private final List<T> batch = new ArrayList<>();
+
+    /**
+     * Position of the next element in {@link #batch}
+     */
+    private int position = 0;
+
+    /**
+     * Whether the underlying iterator is still open
+     */
+    private boolean open = true;
+
+    /**
+     * Constructs a {@link LockedIterator}, reading the first batch of
+     * elements, or all of them if {@code detached} is {@code true}. The
+     * caller must hold the read lock while creating {@code iterator} and
+     * calling this, and may release it once this returns.
+     * @param iterator Underlying iterator
+     * @param lock Lock guarding the data of {@code iterator}
+     * @param detached {@code true} to read all the elements now, typically
+     * when the creator is not within a critical section, {@code false} to
+     * read them in batches
+     * @throws IllegalArgumentException if any of the arguments is
+     * {@code null}
+     */
+    public LockedIterator(ExtendedIterator<T> iterator, ReentrantMRSWLock lock, boolean detached) throws IllegalArgumentException {
+        if (iterator == null) throw new IllegalArgumentException("LockedIterator constructor: iterator argument must not be null");
+        if (lock == null) throw new IllegalArgumentException("LockedIterator constructor: lock argument must not be null");
+        this.iterator = iterator;
+        this.lock = lock;
+        this.fill(detached ? Integer.MAX_VALUE : BATCH_SIZE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public synchronized boolean hasNext() {
+        if (this.position < this.batch.size()) return true;
+        if (this.open) this.fill(BATCH_SIZE);
+        return this.position < this.batch.size();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public synchronized T next() {
+        this.ensureHasNext();
+        T element = this.batch.get(this.position);
+        this.batch.set(this.position++, null);
+        return element;
+    }
+
+    /**
+     * Not supported, as the elements are read ahead of the caller
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("LockedIterator.remove: elements are read ahead and cannot be removed");
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * This may be called from any thread.
+     */
+    @Override
+    public synchronized void close() {
+        this.batch.clear();
+        this.position = 0;
+        if (this.open) {
+            this.open = false;
+            this.lock.lockRead();
+            try {
+                this.iterator.close();
+            }
+            finally {
+                this.lock.unlockRead();
+            }
+        }
+    }
+
+    /**
+     * Reads the next batch of elements under a read lock, closing the
+     * underlying iterator once exhausted
+     * @param size Maximum number of elements to read
+     */
+    private void fill(int size) {
+        this.batch.clear();
+        this.position = 0;
+        this.lock.lockRead();
+        try {
+            while (this.batch.size() < size && this.iterator.hasNext()) this.batch.add(this.iterator.next());
+            if (this.batch.size() < size) {
+                this.open = false;
+                this.iterator.close();
+            }
+        }
+        catch (RuntimeException e) {
+            this.open = false;
+            this.batch.clear();
+            this.iterator.close();
+            throw e;
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+}
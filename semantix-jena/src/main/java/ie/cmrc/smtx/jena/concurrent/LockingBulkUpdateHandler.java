@@ -0,0 +1,187 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.jena.concurrent;
+
+import com.hp.hpl.jena.graph.BulkUpdateHandler;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Bulk update handler of a {@link LockingGraph}. Each bulk update is
+ * executed by the bulk update handler of the underlying graph, within one
+ * write critical section.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+class LockingBulkUpdateHandler implements BulkUpdateHandler {
+
+    /**
+     * Bulk update handler of the underlying graph
+     */
+    private final BulkUpdateHandler handler;
+
+    /**
+     * Lock of the graph
+     */
+    private final ReentrantMRSWLock lock;
+
+    /**
+     * Constructs a {@link LockingBulkUpdateHandler}
+     * @param handler Bulk update handler of the underlying graph
+     * @param lock Lock of the graph
+     */
+    LockingBulkUpdateHandler(BulkUpdateHandler handler, ReentrantMRSWLock lock) {
+        this.handler = handler;
+        this.lock = lock;
+    }
+
+    @Override
+    public void add(Triple[] triples) {
+        this.lock.lockWrite();
+        try {
+            this.handler.add(triples);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void add(List<Triple> triples) {
+        this.lock.lockWrite();
+        try {
+            this.handler.add(triples);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void add(Iterator<Triple> it) {
+        this.lock.lockWrite();
+        try {
+            this.handler.add(it);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void add(Graph g, boolean withReifications) {
+        this.lock.lockWrite();
+        try {
+            this.handler.add(g, withReifications);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void add(Graph g) {
+        this.lock.lockWrite();
+        try {
+            this.handler.add(g);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void delete(Triple[] triples) {
+        this.lock.lockWrite();
+        try {
+            this.handler.delete(triples);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void delete(List<Triple> triples) {
+        this.lock.lockWrite();
+        try {
+            this.handler.delete(triples);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void delete(Iterator<Triple> it) {
+        this.lock.lockWrite();
+        try {
+            this.handler.delete(it);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void delete(Graph g) {
+        this.lock.lockWrite();
+        try {
+            this.handler.delete(g);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void delete(Graph g, boolean withReifications) {
+        this.lock.lockWrite();
+        try {
+            this.handler.delete(g, withReifications);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void removeAll() {
+        this.lock.lockWrite();
+        try {
+            this.handler.removeAll();
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void remove(Node s, Node p, Node o) {
+        this.lock.lockWrite();
+        try {
+            this.handler.remove(s, p, o);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+}
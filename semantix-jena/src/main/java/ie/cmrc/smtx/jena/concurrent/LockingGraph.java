@@ -0,0 +1,256 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.jena.concurrent;
+
+import com.hp.hpl.jena.graph.BulkUpdateHandler;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.TripleMatch;
+import com.hp.hpl.jena.graph.impl.WrappedGraph;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+
+/**
+ * Jena graph wrapper that guards every access to the underlying graph with a
+ * multiple reader, single writer lock ({@link ReentrantMRSWLock}).<br/>
+ * Reads acquire the read lock for the duration of the call. The iterators
+ * returned by {@code find} read all the matching triples under one read
+ * lock, unless the caller is within a critical section, in which case they
+ * read them in batches, each under the read lock (see
+ * {@link LockedIterator}). They do not hold the lock in between, so that an
+ * iterator that is dropped without being closed never blocks writers.
+ * Updates, including bulk updates, acquire the write lock. Callers may batch
+ * several updates, or make several reads consistent, by entering a critical
+ * section of {@link #getLock()}, which is reentrant.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class LockingGraph extends WrappedGraph {
+
+    /**
+     * Lock guarding the underlying graph
+     */
+    private final ReentrantMRSWLock lock;
+
+    /**
+     * Locking bulk update handler, created on first use
+     */
+    private BulkUpdateHandler bulkUpdateHandler = null;
+
+    /**
+     * Constructs a {@link LockingGraph}
+     * @param base Underlying graph
+     * @param lock Lock guarding {@code base}. All the locking graphs wrapping
+     * the same data should share the same lock.
+     * @throws IllegalArgumentException if {@code base} or {@code lock} is
+     * {@code null}
+     */
+    public LockingGraph(Graph base, ReentrantMRSWLock lock) {
+        super(base);
+        if (base == null) throw new IllegalArgumentException("LockingGraph constructor: Graph argument must not be null");
+        if (lock == null) throw new IllegalArgumentException("LockingGraph constructor: ReentrantMRSWLock argument must not be null");
+        this.lock = lock;
+    }
+
+    /**
+     * Returns the lock guarding the underlying graph
+     * @return Lock of the graph
+     */
+    public ReentrantMRSWLock getLock() {
+        return this.lock;
+    }
+
+    /**
+     * Returns the underlying graph. Accessing it directly bypasses the lock.
+     * @return Underlying graph
+     */
+    public Graph getBase() {
+        return this.base;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public synchronized BulkUpdateHandler getBulkUpdateHandler() {
+        if (this.bulkUpdateHandler == null) this.bulkUpdateHandler = new LockingBulkUpdateHandler(super.getBulkUpdateHandler(), this.lock);
+        return this.bulkUpdateHandler;
+    }
+
+    @Override
+    public void add(Triple t) {
+        this.lock.lockWrite();
+        try {
+            super.add(t);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void delete(Triple t) {
+        this.lock.lockWrite();
+        try {
+            super.delete(t);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void performAdd(Triple t) {
+        this.lock.lockWrite();
+        try {
+            super.performAdd(t);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    @Override
+    public void performDelete(Triple t) {
+        this.lock.lockWrite();
+        try {
+            super.performDelete(t);
+        }
+        finally {
+            this.lock.unlockWrite();
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Unless the calling thread is within a critical section, the returned
+     * iterator is detached: the matching triples are all read under one read
+     * lock (see {@link LockedIterator}).
+     * @param m {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public ExtendedIterator<Triple> find(TripleMatch m) {
+        boolean detached = !this.lock.isHeldByCurrentThread();
+        this.lock.lockRead();
+        try {
+            return new LockedIterator<>(super.find(m), this.lock, detached);
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Unless the calling thread is within a critical section, the returned
+     * iterator is detached: the matching triples are all read under one read
+     * lock (see {@link LockedIterator}).
+     * @param s {@inheritDoc}
+     * @param p {@inheritDoc}
+     * @param o {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public ExtendedIterator<Triple> find(Node s, Node p, Node o) {
+        boolean detached = !this.lock.isHeldByCurrentThread();
+        this.lock.lockRead();
+        try {
+            return new LockedIterator<>(super.find(s, p, o), this.lock, detached);
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+
+    @Override
+    public boolean contains(Node s, Node p, Node o) {
+        this.lock.lockRead();
+        try {
+            return super.contains(s, p, o);
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+
+    @Override
+    public boolean contains(Triple t) {
+        this.lock.lockRead();
+        try {
+            return super.contains(t);
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+
+    @Override
+    public boolean isIsomorphicWith(Graph g) {
+        this.lock.lockRead();
+        try {
+            return super.isIsomorphicWith(g);
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+
+    @Override
+    public boolean isEmpty() {
+        this.lock.lockRead();
+        try {
+            return super.isEmpty();
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+
+    @Override
+    public int size() {
+        this.lock.lockRead();
+        try {
+            return super.size();
+        }
+        finally {
+            this.lock.unlockRead();
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param o {@inheritDoc}
+     * @return {@code true} if {@code o} is a {@link LockingGraph} wrapping
+     * the same graph
+     */
+    @Override
+    public boolean equals(Object o) {
+        return this == o || (o instanceof LockingGraph && this.base.equals(((LockingGraph) o).base));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int hashCode() {
+        return this.base.hashCode();
+    }
+}
@@ -0,0 +1,106 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.jena.concurrent;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.impl.ModelCom;
+import com.hp.hpl.jena.shared.Lock;
+
+/**
+ * Jena model over a {@link LockingGraph}. The lock of the model
+ * ({@link #getLock()}) is that of the graph, so that critical sections
+ * entered through the model are honoured by every access to the graph.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class LockingModel extends ModelCom {
+
+    /**
+     * Underlying locking graph
+     */
+    private final LockingGraph lockingGraph;
+
+    /**
+     * Constructs a {@link LockingModel}
+     * @param graph Locking graph
+     */
+    public LockingModel(LockingGraph graph) {
+        super(graph);
+        this.lockingGraph = graph;
+    }
+
+    /**
+     * Wraps the graph of the provided model with a {@link LockingGraph}
+     * that uses the lock of the provided owner (see
+     * {@link ReentrantMRSWLock#forOwner(java.lang.Object)})
+     * @param model Jena model
+     * @param owner Owner of the data of {@code model}
+     * @return {@code model} itself if it is a {@link LockingModel}, otherwise
+     * a {@link LockingModel} over the graph of {@code model}
+     * @throws IllegalArgumentException if {@code model} or {@code owner} is
+     * {@code null}
+     */
+    public static LockingModel wrap(Model model, Object owner) {
+        if (model == null) throw new IllegalArgumentException("LockingModel.wrap: model argument must not be null");
+        if (model instanceof LockingModel) return (LockingModel) model;
+        return new LockingModel(new LockingGraph(model.getGraph(), ReentrantMRSWLock.forOwner(owner)));
+    }
+
+    /**
+     * Returns the underlying locking graph
+     * @return Locking graph of the model
+     */
+    public LockingGraph getLockingGraph() {
+        return this.lockingGraph;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Lock of the underlying {@link LockingGraph}
+     */
+    @Override
+    public Lock getLock() {
+        return this.lockingGraph.getLock();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Lock of the underlying {@link LockingGraph}
+     */
+    @Override
+    public Lock getModelLock() {
+        return this.lockingGraph.getLock();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param readLockRequested {@inheritDoc}
+     */
+    @Override
+    public void enterCriticalSection(boolean readLockRequested) {
+        this.lockingGraph.getLock().enterCriticalSection(readLockRequested);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void leaveCriticalSection() {
+        this.lockingGraph.getLock().leaveCriticalSection();
+    }
+}
@@ -0,0 +1,241 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.jena.concurrent;
+
+import com.hp.hpl.jena.shared.JenaException;
+import com.hp.hpl.jena.shared.Lock;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Multiple reader, single writer lock ({@code com.hp.hpl.jena.shared.Lock})
+ * based on a {@link java.util.concurrent.locks.ReentrantReadWriteLock}.<br/>
+ * Unlike Jena's {@code com.hp.hpl.jena.shared.LockMRSW}, which looks up the
+ * state of the calling thread in a synchronised map on every call, readers
+ * acquire this lock without going through a monitor, so that they never
+ * block each other. Both critical sections are reentrant, and a thread
+ * holding the write lock may enter read critical sections. Promoting a read
+ * lock to a write lock is not supported, as it would deadlock: it fails with
+ * a {@code com.hp.hpl.jena.shared.JenaException} instead.<br/>
+ * Locks are shared by the owner of the data they protect (see
+ * {@link #forOwner(java.lang.Object)}), so that the different views of the
+ * same data within a JVM synchronise on the same lock.<br/>
+ * The lock also keeps the generation of the data it protects, which changes
+ * each time the write lock is released (see {@link #getGeneration()}).
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class ReentrantMRSWLock implements Lock {
+
+    /**
+     * Locks of the owners of the protected data. Owners are weakly referenced
+     * so that the lock of some data is released with it.
+     */
+    private static final Map<Object, ReentrantMRSWLock> LOCKS = new WeakHashMap<>();
+
+    /**
+     * Underlying read/write lock
+     */
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Generation of the protected data
+     */
+    private final AtomicLong generation = new AtomicLong();
+
+    /**
+     * Modes of the critical sections entered by each thread, most recent
+     * first, used to leave them in reverse order
+     */
+    private final ThreadLocal<Deque<Boolean>> criticalSections = new ThreadLocal<Deque<Boolean>>() {
+        @Override
+        protected Deque<Boolean> initialValue() {
+            return new ArrayDeque<>();
+        }
+    };
+
+    /**
+     * Constructs a {@link ReentrantMRSWLock}
+     */
+    public ReentrantMRSWLock() {
+    }
+
+    /**
+     * Returns the lock of the provided owner, creating it on first use
+     * @param owner Owner of the protected data, for example a Jena graph or
+     * the dataset of a persistent graph
+     * @return Lock shared by all the callers providing the same owner
+     * @throws IllegalArgumentException if {@code owner} is {@code null}
+     */
+    public static ReentrantMRSWLock forOwner(Object owner) {
+        if (owner == null) throw new IllegalArgumentException("ReentrantMRSWLock.forOwner: owner argument must not be null");
+        synchronized (LOCKS) {
+            ReentrantMRSWLock lock = LOCKS.get(owner);
+            if (lock == null) {
+                lock = new ReentrantMRSWLock();
+                LOCKS.put(owner, lock);
+            }
+            return lock;
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Critical sections must be left by the thread that entered them, in
+     * reverse order.
+     * @param readLockRequested {@inheritDoc}
+     * @throws JenaException if a write lock is requested by a thread that
+     * holds a read lock only
+     */
+    @Override
+    public void enterCriticalSection(boolean readLockRequested) {
+        if (readLockRequested) this.lockRead();
+        else this.lockWrite();
+        this.criticalSections.get().push(readLockRequested);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws JenaException if the calling thread is not in a critical
+     * section
+     */
+    @Override
+    public void leaveCriticalSection() {
+        Boolean readLock = this.criticalSections.get().poll();
+        if (readLock == null) throw new JenaException("ReentrantMRSWLock.leaveCriticalSection: thread is not in a critical section");
+        if (readLock) this.unlockRead();
+        else this.unlockWrite();
+    }
+
+    /**
+     * Acquires the read lock, waiting for the current writer, if any, to
+     * release the write lock. Unlike
+     * {@link #enterCriticalSection(boolean)}, this does not record the
+     * critical section, and must be paired with {@link #unlockRead()} by the
+     * same thread.
+     */
+    public void lockRead() {
+        this.lock.readLock().lock();
+    }
+
+    /**
+     * Releases a read lock acquired using {@link #lockRead()}
+     */
+    public void unlockRead() {
+        this.lock.readLock().unlock();
+    }
+
+    /**
+     * Acquires the write lock, waiting for the current readers and writer to
+     * release the lock. Must be paired with {@link #unlockWrite()}.
+     * @throws JenaException if the calling thread holds a read lock but not
+     * the write lock
+     */
+    public void lockWrite() {
+        if (this.lock.getReadHoldCount() > 0 && !this.lock.isWriteLockedByCurrentThread()) {
+            throw new JenaException("ReentrantMRSWLock.lockWrite: promoting a read lock to a write lock is not supported. Leave read critical sections before writing.");
+        }
+        this.lock.writeLock().lock();
+    }
+
+    /**
+     * Releases a write lock acquired using {@link #lockWrite()}, and moves the
+     * protected data to a new generation
+     */
+    public void unlockWrite() {
+        this.generation.incrementAndGet();
+        this.lock.writeLock().unlock();
+    }
+
+    /**
+     * Returns the generation of the protected data. The generation changes
+     * each time the write lock is released, or {@link #nextGeneration()} is
+     * called, so that readers may detect that results they derived from the
+     * data are out of date.
+     * @return Current generation of the protected data
+     */
+    public long getGeneration() {
+        return this.generation.get();
+    }
+
+    /**
+     * Moves the protected data to a new generation. This is meant for
+     * changes that are not made under the write lock, such as the commit of
+     * a transaction or a flush to the backend of the data.
+     * @return New generation of the protected data
+     */
+    public long nextGeneration() {
+        return this.generation.incrementAndGet();
+    }
+
+    /**
+     * Indicates whether the calling thread holds the write lock
+     * @return {@code true} if the calling thread holds the write lock
+     */
+    public boolean isWriteLockedByCurrentThread() {
+        return this.lock.isWriteLockedByCurrentThread();
+    }
+
+    /**
+     * Indicates whether the calling thread holds the read or the write lock,
+     * for example because it is within a critical section
+     * @return {@code true} if the calling thread holds the lock
+     */
+    public boolean isHeldByCurrentThread() {
+        return this.lock.getReadHoldCount() > 0 || this.lock.isWriteLockedByCurrentThread();
+    }
+
+    /**
+     * Returns the number of read locks held by the calling thread
+     * @return Number of read locks held by the calling thread
+     */
+    public int getReadHoldCount() {
+        return this.lock.getReadHoldCount();
+    }
+
+    /**
+     * Returns the number of read locks held, across all threads. This is
+     * meant for monitoring.
+     * @return Number of read locks held
+     */
+    public int getReadLockCount() {
+        return this.lock.getReadLockCount();
+    }
+
+    /**
+     * Indicates whether some thread holds the write lock. This is meant for
+     * monitoring.
+     * @return {@code true} if the write lock is held
+     */
+    public boolean isWriteLocked() {
+        return this.lock.isWriteLocked();
+    }
+
+    /**
+     * Returns an estimate of the number of threads waiting for the lock.
+     * This is meant for monitoring.
+     * @return Estimated number of waiting threads
+     */
+    public int getQueueLength() {
+        return this.lock.getQueueLength();
+    }
+}
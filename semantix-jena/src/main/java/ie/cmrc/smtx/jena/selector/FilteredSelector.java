@@ -19,6 +19,7 @@
 package ie.cmrc.smtx.jena.selector;
 
 import ie.cmrc.smtx.jena.selector.filter.StmtFilter;
+import ie.cmrc.smtx.jena.selector.filter.StmtFilterCompiler;
 import com.hp.hpl.jena.rdf.model.Property;
 import com.hp.hpl.jena.rdf.model.RDFNode;
 import com.hp.hpl.jena.rdf.model.Resource;
@@ -37,6 +38,16 @@ public class FilteredSelector extends SimpleSelector {
      * Statement filter that defines the constraint of this {@code FilteredSelector}
      */
     protected StmtFilter filter;
+    
+    /**
+     * Evaluation plan of {@link #filter}, compiled on first use
+     */
+    private StmtFilter plan = null;
+    
+    /**
+     * Filter {@link #plan} was compiled from
+     */
+    private StmtFilter planFilter = null;
 
     /**
      * Creates a {@link FilteredSelector} that applies the provided filter
@@ -184,17 +195,45 @@ public class FilteredSelector extends SimpleSelector {
         super(subject, predicate, object);
         this.filter = filter;
     }
-    
+
+    /**
+     * Checks whether the provided statement matches the subject, predicate
+     * and object of the {@link FilteredSelector}, and satisfies its filter.<br/>
+     * Unlike {@link SimpleSelector#test(com.hp.hpl.jena.rdf.model.Statement)},
+     * the subject, predicate and object are compared by their graph nodes, as
+     * the statements are listed from the graph, so that resource views whose
+     * {@code equals} method is not that of Jena resources (e.g., SKOS
+     * resources that implement {@link Resource}) may be used in a selector.
+     * @param statement Statement to be tested
+     * @return {@code true} if the statement matches the selector and
+     * satisfies its filter
+     */
+    @Override
+    public boolean test(Statement statement) {
+        return (this.subject == null || this.subject.asNode().equals(statement.getSubject().asNode()))
+                && (this.predicate == null || this.predicate.asNode().equals(statement.getPredicate().asNode()))
+                && (this.object == null || this.object.asNode().equals(statement.getObject().asNode()))
+                && this.selects(statement);
+    }
+
     /**
      * Checks whether the provided statement satisfies the constraint (filter)
-     * of the {@link FilteredSelector}
+     * of the {@link FilteredSelector}.<br/>
+     * The filter is evaluated using the plan compiled by
+     * {@link StmtFilterCompiler}, which memoises the model probes of the
+     * filter. A {@link FilteredSelector} should therefore be used for one
+     * listing of statements, by one thread.
      * @param statement Statement to be tested
      * @return {@code true} if the statement satisfies the constraint
      */
     @Override
     public boolean selects(Statement statement) {
         if (this.filter != null) {
-            return filter.test(statement);
+            if (this.planFilter != this.filter) {
+                this.plan = StmtFilterCompiler.compile(this.filter);
+                this.planFilter = this.filter;
+            }
+            return this.plan.test(statement);
         }
         else return true;
     } 
@@ -0,0 +1,602 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.jena.selector.filter;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Compiles a statement filter ({@link StmtFilter}) into an evaluation plan,
+ * which accepts the same statements while probing the model less often:
+ * <ul>
+ * <li>Nested conjunctions and disjunctions are flattened, double negations
+ * are removed, and empty or constant members are folded.</li>
+ * <li>The members of a conjunction or disjunction are evaluated by
+ * increasing estimated cost per decided statement, so that cheap and
+ * selective members, such as {@link StmtSubjectPartitionFilter}, short-cut
+ * the model probes of the others.</li>
+ * <li>The members of a disjunction that probe the same property of the same
+ * statement node against different URI resources, for example the concept
+ * schemes of a {@code skos:inScheme} filter, are merged into a single probe
+ * that lists the values of the property once.</li>
+ * <li>The result of each probe is memoised per probed node, so that
+ * statements sharing their subject or object are decided without probing
+ * the model again.</li>
+ * </ul>
+ * As the probe results are memoised, a plan must only be used to filter the
+ * statements of one model while it is not modified, typically for the
+ * duration of an iteration, and by one thread at a time. The members of the
+ * compiled filters are copied, so that later changes to those do not affect
+ * the plan. Filters of other classes, including subclasses of the filters of
+ * this package, are evaluated as they are.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class StmtFilterCompiler {
+
+    /**
+     * Estimated cost of a model probe
+     */
+    private static final double PROBE_COST = 1.0;
+
+    /**
+     * Estimated probability that a statement passes a probe whose pattern is
+     * fully bound, e.g., {@code ?x skos:inScheme <scheme>}
+     */
+    private static final double BOUND_PROBE_PASS = 0.3;
+
+    /**
+     * Estimated probability that a statement passes a probe whose pattern has
+     * an unbound term, e.g., {@code ?x skos:inScheme ?y}
+     */
+    private static final double UNBOUND_PROBE_PASS = 0.7;
+
+    /**
+     * Estimated cost of a filter of unknown class
+     */
+    private static final double OPAQUE_COST = 1.0;
+
+    /**
+     * Estimated probability that a statement passes a filter of unknown class
+     */
+    private static final double OPAQUE_PASS = 0.5;
+
+    /**
+     * Estimated cost of a filter that does not probe the model
+     */
+    private static final double LOCAL_COST = 0.01;
+
+    /**
+     * Maximum number of memoised probe results per probe. The memo is
+     * cleared when it is full.
+     */
+    private static final int MEMO_SIZE = 10000;
+
+    /**
+     * Prevents instantiation
+     */
+    private StmtFilterCompiler() {
+    }
+
+    /**
+     * Compiles the provided statement filter into an evaluation plan
+     * @param filter Statement filter
+     * @return Statement filter accepting the same statements as
+     * {@code filter}, or {@code null} if {@code filter} is {@code null}
+     */
+    public static StmtFilter compile(StmtFilter filter) {
+        if (filter == null) return null;
+        return plan(filter);
+    }
+
+    /**
+     * Builds the plan of the provided filter
+     * @param filter Statement filter
+     * @return Plan node evaluating {@code filter}
+     */
+    private static PlanNode plan(StmtFilter filter) {
+        if (filter == null) return new OpaqueNode(filter);
+        Class<?> type = filter.getClass();
+        if (type == AndStmtFilter.class || type == OrStmtFilter.class) {
+            boolean conjunction = (type == AndStmtFilter.class);
+            List<PlanNode> members = new ArrayList<>();
+            flatten((BooleanOpStmtFilter) filter, conjunction, members);
+            return combine(conjunction, members);
+        }
+        else if (type == NotStmtFilter.class) {
+            StmtFilter negated = ((NotStmtFilter) filter).filterToNegate;
+            if (negated != null && negated.getClass() == NotStmtFilter.class) return plan(((NotStmtFilter) negated).filterToNegate);
+            PlanNode member = plan(negated);
+            if (member instanceof ConstantNode) return ConstantNode.of(!((ConstantNode) member).value);
+            return new NotNode(member);
+        }
+        else if (type == StmtSubjectHasPropertyFilter.class || type == StmtObjectHasPropertyFilter.class) {
+            HasPropertyStmtFilter hasProperty = (HasPropertyStmtFilter) filter;
+            return new ProbeNode(filter, type == StmtSubjectHasPropertyFilter.class, hasProperty.getPredicate() != null && hasProperty.getObject() != null);
+        }
+        else if (type == StmtSubjectIsPropertyOfFilter.class || type == StmtObjectIsPropertyOfFilter.class) {
+            IsPropertyOfStmtFilter isPropertyOf = (IsPropertyOfStmtFilter) filter;
+            return new ProbeNode(filter, type == StmtSubjectIsPropertyOfFilter.class, isPropertyOf.getPredicate() != null && isPropertyOf.getSubject() != null);
+        }
+        else if (type == StmtSubjectPartitionFilter.class) {
+            return new LocalNode(filter, 1.0 / ((StmtSubjectPartitionFilter) filter).getPartitions());
+        }
+        else return new OpaqueNode(filter);
+    }
+
+    /**
+     * Plans the members of the provided Boolean filter, inlining the members
+     * of nested filters of the same operator
+     * @param filter Conjunction or disjunction
+     * @param conjunction {@code true} if {@code filter} is a conjunction
+     * @param members List the planned members are added to
+     */
+    private static void flatten(BooleanOpStmtFilter filter, boolean conjunction, List<PlanNode> members) {
+        Class<?> type = filter.getClass();
+        for (StmtFilter member: filter.getFilters()) {
+            if (member != null && member.getClass() == type) flatten((BooleanOpStmtFilter) member, conjunction, members);
+            else {
+                PlanNode node = plan(member);
+                if (node instanceof ConjunctionNode && ((ConjunctionNode) node).conjunction == conjunction) {
+                    members.addAll(Arrays.asList(((ConjunctionNode) node).members));
+                }
+                else members.add(node);
+            }
+        }
+    }
+
+    /**
+     * Combines the provided plan nodes into a conjunction or disjunction,
+     * folding constants, merging probes and ordering the members
+     * @param conjunction {@code true} for a conjunction, {@code false} for a
+     * disjunction
+     * @param members Planned members
+     * @return Plan node evaluating the combination of {@code members}
+     */
+    private static PlanNode combine(final boolean conjunction, List<PlanNode> members) {
+        List<PlanNode> kept = new ArrayList<>(members.size());
+        for (PlanNode member: members) {
+            if (member instanceof ConstantNode) {
+                // true is neutral for a conjunction and absorbing for a disjunction
+                if (((ConstantNode) member).value != conjunction) return member;
+            }
+            else kept.add(member);
+        }
+        if (!conjunction) kept = mergeProbes(kept);
+        if (kept.isEmpty()) return ConstantNode.of(conjunction);
+        if (kept.size() == 1) return kept.get(0);
+        
+        Collections.sort(kept, new Comparator<PlanNode>() {
+            @Override
+            public int compare(PlanNode n1, PlanNode n2) {
+                return Double.compare(n1.rank(conjunction), n2.rank(conjunction));
+            }
+        });
+        return new ConjunctionNode(conjunction, kept);
+    }
+
+    /**
+     * Merges the members of a disjunction that probe the same property of the
+     * same statement node against different URI resources
+     * @param members Members of the disjunction
+     * @return Members, where each group of mergeable probes is replaced by
+     * a single {@link ValueSetNode}
+     */
+    private static List<PlanNode> mergeProbes(List<PlanNode> members) {
+        Map<List<Object>, List<ProbeNode>> groups = new LinkedHashMap<>();
+        List<PlanNode> merged = new ArrayList<>(members.size());
+        for (PlanNode member: members) {
+            List<Object> key = (member instanceof ProbeNode) ? ((ProbeNode) member).mergeKey() : null;
+            if (key == null) merged.add(member);
+            else {
+                List<ProbeNode> group = groups.get(key);
+                if (group == null) {
+                    group = new ArrayList<>();
+                    groups.put(key, group);
+                    // Reserves the position of the group
+                    merged.add(null);
+                }
+                group.add((ProbeNode) member);
+            }
+        }
+        
+        int i = 0;
+        for (List<ProbeNode> group: groups.values()) {
+            while (merged.get(i) != null) i++;
+            merged.set(i, (group.size() == 1) ? group.get(0) : new ValueSetNode(group));
+        }
+        return merged;
+    }
+
+    /**
+     * Node of an evaluation plan
+     */
+    private static abstract class PlanNode implements StmtFilter {
+
+        /**
+         * Returns the estimated cost of evaluating the node on a statement
+         * @return Estimated cost
+         */
+        abstract double cost();
+
+        /**
+         * Returns the estimated probability that a statement passes the node
+         * @return Estimated pass probability
+         */
+        abstract double pass();
+
+        /**
+         * Returns the rank of the node within a conjunction or disjunction.
+         * Evaluating members by increasing rank minimises the expected cost
+         * of deciding a statement, assuming independent members.
+         * @param conjunction {@code true} for a conjunction, {@code false}
+         * for a disjunction
+         * @return Estimated cost per statement decided by the node alone
+         */
+        double rank(boolean conjunction) {
+            double decides = conjunction ? 1.0 - this.pass() : this.pass();
+            return (decides > 0) ? this.cost() / decides : Double.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Plan node accepting either all or no statements
+     */
+    private static final class ConstantNode extends PlanNode {
+
+        private static final ConstantNode TRUE = new ConstantNode(true);
+
+        private static final ConstantNode FALSE = new ConstantNode(false);
+
+        private final boolean value;
+
+        private ConstantNode(boolean value) {
+            this.value = value;
+        }
+
+        static ConstantNode of(boolean value) {
+            return value ? TRUE : FALSE;
+        }
+
+        @Override
+        public boolean test(Statement statement) {
+            return this.value;
+        }
+
+        @Override
+        double cost() {
+            return 0;
+        }
+
+        @Override
+        double pass() {
+            return this.value ? 1 : 0;
+        }
+    }
+
+    /**
+     * Plan node evaluating a conjunction or disjunction, member by member in
+     * list order
+     */
+    private static final class ConjunctionNode extends PlanNode {
+
+        private final boolean conjunction;
+
+        private final PlanNode[] members;
+
+        private final double cost;
+
+        private final double pass;
+
+        ConjunctionNode(boolean conjunction, List<PlanNode> members) {
+            this.conjunction = conjunction;
+            this.members = members.toArray(new PlanNode[members.size()]);
+            // Probability of reaching the next member
+            double reach = 1;
+            double cost = 0;
+            for (PlanNode member: this.members) {
+                cost += reach * member.cost();
+                reach *= conjunction ? member.pass() : 1 - member.pass();
+            }
+            this.cost = cost;
+            this.pass = conjunction ? reach : 1 - reach;
+        }
+
+        @Override
+        public boolean test(Statement statement) {
+            for (PlanNode member: this.members) {
+                if (member.test(statement) != this.conjunction) return !this.conjunction;
+            }
+            return this.conjunction;
+        }
+
+        @Override
+        double cost() {
+            return this.cost;
+        }
+
+        @Override
+        double pass() {
+            return this.pass;
+        }
+    }
+
+    /**
+     * Plan node negating another node
+     */
+    private static final class NotNode extends PlanNode {
+
+        private final PlanNode member;
+
+        NotNode(PlanNode member) {
+            this.member = member;
+        }
+
+        @Override
+        public boolean test(Statement statement) {
+            return !this.member.test(statement);
+        }
+
+        @Override
+        double cost() {
+            return this.member.cost();
+        }
+
+        @Override
+        double pass() {
+            return 1 - this.member.pass();
+        }
+    }
+
+    /**
+     * Plan node evaluating a filter of unknown class as it is
+     */
+    private static final class OpaqueNode extends PlanNode {
+
+        private final StmtFilter filter;
+
+        OpaqueNode(StmtFilter filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public boolean test(Statement statement) {
+            return this.filter.test(statement);
+        }
+
+        @Override
+        double cost() {
+            return OPAQUE_COST;
+        }
+
+        @Override
+        double pass() {
+            return OPAQUE_PASS;
+        }
+    }
+
+    /**
+     * Plan node evaluating a filter that does not probe the model
+     */
+    private static final class LocalNode extends PlanNode {
+
+        private final StmtFilter filter;
+
+        private final double pass;
+
+        LocalNode(StmtFilter filter, double pass) {
+            this.filter = filter;
+            this.pass = pass;
+        }
+
+        @Override
+        public boolean test(Statement statement) {
+            return this.filter.test(statement);
+        }
+
+        @Override
+        double cost() {
+            return LOCAL_COST;
+        }
+
+        @Override
+        double pass() {
+            return this.pass;
+        }
+    }
+
+    /**
+     * Plan node probing the model about the subject or object of statements,
+     * whose results are memoised per probed node
+     */
+    private static abstract class MemoNode extends PlanNode {
+
+        /**
+         * Whether the subject, rather than the object, of statements is probed
+         */
+        final boolean onSubject;
+
+        /**
+         * Memoised probe results
+         */
+        private final Map<Node, Boolean> memo = new HashMap<>();
+
+        MemoNode(boolean onSubject) {
+            this.onSubject = onSubject;
+        }
+
+        @Override
+        public final boolean test(Statement statement) {
+            Node node = this.onSubject ? statement.getSubject().asNode() : statement.getObject().asNode();
+            Boolean result = this.memo.get(node);
+            if (result == null) {
+                result = this.probe(statement);
+                if (this.memo.size() >= MEMO_SIZE) this.memo.clear();
+                this.memo.put(node, result);
+            }
+            return result;
+        }
+
+        /**
+         * Probes the model about the subject or object of the provided
+         * statement
+         * @param statement Statement
+         * @return {@code true} if {@code statement} passes the probe
+         */
+        abstract boolean probe(Statement statement);
+    }
+
+    /**
+     * Plan node evaluating a has-property or is-property-of filter of this
+     * package
+     */
+    private static final class ProbeNode extends MemoNode {
+
+        private final StmtFilter filter;
+
+        private final boolean bound;
+
+        ProbeNode(StmtFilter filter, boolean onSubject, boolean bound) {
+            super(onSubject);
+            this.filter = filter;
+            this.bound = bound;
+        }
+
+        @Override
+        boolean probe(Statement statement) {
+            return this.filter.test(statement);
+        }
+
+        /**
+         * Returns the key grouping the probes that may be merged with this
+         * one in a disjunction
+         * @return Filter class and property, or {@code null} if the value
+         * this probe looks for is not a URI resource
+         */
+        List<Object> mergeKey() {
+            RDFNode value = this.value();
+            if (!this.bound || !value.isURIResource()) return null;
+            List<Object> key = new ArrayList<>(2);
+            key.add(this.filter.getClass());
+            key.add(this.predicate().asNode());
+            return key;
+        }
+
+        /**
+         * Returns the value this probe looks for
+         * @return Object of a has-property filter, or subject of an
+         * is-property-of filter
+         */
+        RDFNode value() {
+            return (this.filter instanceof HasPropertyStmtFilter) ? ((HasPropertyStmtFilter) this.filter).getObject() : ((IsPropertyOfStmtFilter) this.filter).getSubject();
+        }
+
+        /**
+         * Returns the property this probe looks for
+         * @return Predicate of the filter
+         */
+        Property predicate() {
+            return (this.filter instanceof HasPropertyStmtFilter) ? ((HasPropertyStmtFilter) this.filter).getPredicate() : ((IsPropertyOfStmtFilter) this.filter).getPredicate();
+        }
+
+        @Override
+        double cost() {
+            return PROBE_COST;
+        }
+
+        @Override
+        double pass() {
+            return this.bound ? BOUND_PROBE_PASS : UNBOUND_PROBE_PASS;
+        }
+    }
+
+    /**
+     * Plan node evaluating a disjunction of probes of the same property of
+     * the same statement node, by listing the values of the property once
+     * and looking them up in the set of values of the probes
+     */
+    private static final class ValueSetNode extends MemoNode {
+
+        /**
+         * Whether the probed node is the subject of the property, i.e., the
+         * probes are has-property filters
+         */
+        private final boolean hasProperty;
+
+        private final Property predicate;
+
+        private final Set<Node> values = new HashSet<>();
+
+        private final double pass;
+
+        ValueSetNode(List<ProbeNode> probes) {
+            super(probes.get(0).onSubject);
+            this.hasProperty = (probes.get(0).filter instanceof HasPropertyStmtFilter);
+            this.predicate = probes.get(0).predicate();
+            for (ProbeNode probe: probes) this.values.add(probe.value().asNode());
+            this.pass = 1 - Math.pow(1 - BOUND_PROBE_PASS, this.values.size());
+        }
+
+        @Override
+        boolean probe(Statement statement) {
+            RDFNode node = this.onSubject ? statement.getSubject() : statement.getObject();
+            StmtIterator iter;
+            if (this.hasProperty) {
+                // Non-resource nodes have no properties
+                if (!node.isResource()) return false;
+                iter = statement.getModel().listStatements(node.asResource(), this.predicate, (RDFNode) null);
+            }
+            else iter = statement.getModel().listStatements((Resource) null, this.predicate, node);
+            try {
+                while (iter.hasNext()) {
+                    Statement stmt = iter.nextStatement();
+                    if (this.values.contains(this.hasProperty ? stmt.getObject().asNode() : stmt.getSubject().asNode())) return true;
+                }
+                return false;
+            }
+            finally {
+                iter.close();
+            }
+        }
+
+        @Override
+        double cost() {
+            return PROBE_COST;
+        }
+
+        @Override
+        double pass() {
+            return this.pass;
+        }
+    }
+}
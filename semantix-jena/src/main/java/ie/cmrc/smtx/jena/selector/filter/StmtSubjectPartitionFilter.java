@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.jena.selector.filter;
+
+import com.hp.hpl.jena.rdf.model.Statement;
+
+/**
+ * A statement filter that accepts the statements whose subject belongs to a
+ * given partition of the subject space. Subjects are assigned to one of
+ * {@code partitions} partitions according to the hash code of their node,
+ * so that the partitions are disjoint and together cover all the subjects.
+ * The hash code of a URI node only depends on its URI, therefore a subject
+ * is assigned to the same partition from one run to another.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class StmtSubjectPartitionFilter implements StmtFilter {
+
+    /**
+     * Index of the accepted partition
+     */
+    private final int partition;
+
+    /**
+     * Number of partitions
+     */
+    private final int partitions;
+
+    /**
+     * Creates a {@link StmtSubjectPartitionFilter}
+     * @param partition Index of the accepted partition, between {@code 0}
+     * and {@code partitions-1}
+     * @param partitions Number of partitions
+     * @throws IllegalArgumentException if {@code partitions} is less than
+     * {@code 1}, or {@code partition} is not between {@code 0} and
+     * {@code partitions-1}
+     */
+    public StmtSubjectPartitionFilter(int partition, int partitions) {
+        if (partitions < 1) throw new IllegalArgumentException("StmtSubjectPartitionFilter constructor: partitions argument must be positive");
+        if (partition < 0 || partition >= partitions) throw new IllegalArgumentException("StmtSubjectPartitionFilter constructor: partition argument must be between 0 and "+(partitions-1));
+        this.partition = partition;
+        this.partitions = partitions;
+    }
+
+    /**
+     * Returns the index of the accepted partition
+     * @return Index of the accepted partition
+     */
+    public int getPartition() {
+        return this.partition;
+    }
+
+    /**
+     * Returns the number of partitions
+     * @return Number of partitions
+     */
+    public int getPartitions() {
+        return this.partitions;
+    }
+    
+    /**
+     * {@inheritDoc}
+     * @param statement {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean test(Statement statement) {
+        return ((statement.getSubject().asNode().hashCode() & 0x7fffffff) % this.partitions == this.partition);
+    }
+    
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.jena.concurrent;
+
+import com.hp.hpl.jena.graph.Factory;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link LockingGraph}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class LockingGraphTest {
+
+    private static final Node P = Node.createURI("http://example.org/p");
+
+    private LockingGraph graph;
+
+    private ExecutorService executor;
+
+    @Before
+    public void setUp() {
+        this.graph = new LockingGraph(Factory.createGraphMem(), new ReentrantMRSWLock());
+        for (int i = 0; i < 3 * LockedIterator.BATCH_SIZE; i++) {
+            this.graph.add(triple(i));
+        }
+        this.executor = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void droppedIteratorDoesNotBlockWriters() throws Exception {
+        ExtendedIterator<Triple> it = this.graph.find(Node.ANY, P, Node.ANY);
+        assertTrue(it.hasNext());
+        it.next();
+        // The iterator is dropped without being closed
+        it = null;
+
+        Future<?> writer = this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                graph.add(triple(-1));
+            }
+        });
+        writer.get(5, TimeUnit.SECONDS);
+        assertTrue(this.graph.contains(triple(-1)));
+    }
+
+    @Test
+    public void sameThreadCanWriteWhileIterating() {
+        ExtendedIterator<Triple> it = this.graph.find(Node.ANY, P, Node.ANY);
+        it.next();
+        this.graph.add(triple(-1));
+        this.graph.delete(triple(-1));
+        it.close();
+        assertEquals(0, this.graph.getLock().getReadHoldCount());
+    }
+
+    @Test
+    public void iteratorCanBeClosedByAnotherThread() throws Exception {
+        final ExtendedIterator<Triple> it = this.graph.find(Node.ANY, P, Node.ANY);
+        it.next();
+        Future<?> closer = this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                it.close();
+            }
+        });
+        closer.get(5, TimeUnit.SECONDS);
+        assertFalse(it.hasNext());
+        assertEquals(0, this.graph.getLock().getReadLockCount());
+    }
+
+    @Test
+    public void iteratorReturnsAllTriples() {
+        ExtendedIterator<Triple> it = this.graph.find(Node.ANY, P, Node.ANY);
+        int count = 0;
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertEquals(3 * LockedIterator.BATCH_SIZE, count);
+        assertEquals(0, this.graph.getLock().getReadLockCount());
+    }
+
+    @Test
+    public void iteratorIsNotAffectedByLaterWrites() throws Exception {
+        ExtendedIterator<Triple> it = this.graph.find(Node.ANY, P, Node.ANY);
+        it.next();
+        int count = 1;
+        Future<?> writer = this.executor.submit(new Runnable() {
+            @Override
+            public void run() {
+                for (int i = 0; i < LockedIterator.BATCH_SIZE; i++) graph.delete(triple(i));
+                graph.add(triple(-1));
+            }
+        });
+        writer.get(5, TimeUnit.SECONDS);
+        while (it.hasNext()) {
+            it.next();
+            count++;
+        }
+        assertEquals(3 * LockedIterator.BATCH_SIZE, count);
+    }
+
+    @Test
+    public void iteratorWithinCriticalSectionKeepsWritersOut() throws Exception {
+        this.graph.getLock().enterCriticalSection(true);
+        Future<?> writer;
+        try {
+            ExtendedIterator<Triple> it = this.graph.find(Node.ANY, P, Node.ANY);
+            writer = this.executor.submit(new Runnable() {
+                @Override
+                public void run() {
+                    graph.add(triple(-1));
+                }
+            });
+            int count = 0;
+            while (it.hasNext()) {
+                it.next();
+                count++;
+            }
+            assertEquals(3 * LockedIterator.BATCH_SIZE, count);
+            assertFalse(writer.isDone());
+        }
+        finally {
+            this.graph.getLock().leaveCriticalSection();
+        }
+        writer.get(5, TimeUnit.SECONDS);
+        assertTrue(this.graph.contains(triple(-1)));
+    }
+
+    private static Triple triple(int i) {
+        return Triple.create(Node.createURI("http://example.org/s" + i), P, Node.createLiteral(Integer.toString(i)));
+    }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.jena.selector.filter;
+
+import com.hp.hpl.jena.graph.Factory;
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.TripleMatch;
+import com.hp.hpl.jena.graph.impl.WrappedGraph;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link StmtFilterCompiler}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class StmtFilterCompilerTest {
+
+    private static final String NS = "http://example.org/";
+
+    private static final int RESOURCES = 20;
+
+    private static final int PROPERTIES = 3;
+
+    private CountingGraph graph;
+
+    private Model model;
+
+    private Resource[] resources;
+
+    private Property[] properties;
+
+    @Before
+    public void setUp() {
+        this.graph = new CountingGraph(Factory.createGraphMem());
+        this.model = ModelFactory.createModelForGraph(this.graph);
+        this.resources = new Resource[RESOURCES];
+        for (int i = 0; i < RESOURCES; i++) this.resources[i] = this.model.createResource(NS + "r" + i);
+        this.properties = new Property[PROPERTIES];
+        for (int i = 0; i < PROPERTIES; i++) this.properties[i] = this.model.createProperty(NS + "p" + i);
+
+        Random random = new Random(42);
+        for (int i = 0; i < 4 * RESOURCES; i++) {
+            Resource subject = this.resources[random.nextInt(RESOURCES)];
+            Property predicate = this.properties[random.nextInt(PROPERTIES)];
+            if (random.nextInt(5) == 0) this.model.add(subject, predicate, "literal" + random.nextInt(3));
+            else this.model.add(subject, predicate, this.resources[random.nextInt(RESOURCES)]);
+        }
+    }
+
+    @Test
+    public void compiledFiltersAcceptTheSameStatements() {
+        Random random = new Random(7);
+        List<Statement> statements = this.model.listStatements().toList();
+        for (int i = 0; i < 500; i++) {
+            StmtFilter filter = this.randomFilter(random, 4);
+            // A plan memoises its probes, so check one statement at a time too
+            StmtFilter plan = StmtFilterCompiler.compile(filter);
+            for (Statement statement: statements) {
+                assertEquals("Filter #" + i + " on " + statement, filter.test(statement), plan.test(statement));
+                assertEquals("Filter #" + i + " on " + statement, filter.test(statement), StmtFilterCompiler.compile(filter).test(statement));
+            }
+        }
+    }
+
+    @Test
+    public void compilingNullGivesNull() {
+        assertNull(StmtFilterCompiler.compile(null));
+    }
+
+    @Test
+    public void emptyCombinationsAreFolded() {
+        Statement statement = this.model.listStatements().nextStatement();
+        StmtFilter probe = new StmtSubjectHasPropertyFilter(this.properties[0], this.resources[0]);
+        this.graph.reset();
+        assertTrue(StmtFilterCompiler.compile(new AndStmtFilter()).test(statement));
+        assertFalse(StmtFilterCompiler.compile(new OrStmtFilter()).test(statement));
+        assertTrue(StmtFilterCompiler.compile(new OrStmtFilter(Arrays.asList(new AndStmtFilter(), probe))).test(statement));
+        assertFalse(StmtFilterCompiler.compile(new AndStmtFilter(Arrays.asList(new NotStmtFilter(new AndStmtFilter()), probe))).test(statement));
+        assertEquals(0, this.graph.probes);
+    }
+
+    @Test
+    public void nestedConjunctionsAreFlattened() {
+        // The partition filter rejects all statements, and is evaluated first
+        // although it is nested below probes
+        StmtFilter filter = new AndStmtFilter(Arrays.asList(
+                new StmtSubjectHasPropertyFilter(this.properties[0], null),
+                new AndStmtFilter(Arrays.asList(
+                        new StmtObjectIsPropertyOfFilter(null, this.properties[1]),
+                        new AndStmtFilter(Arrays.asList(
+                                new StmtSubjectIsPropertyOfFilter(null, this.properties[2]),
+                                new RejectingPartitionFilter()))))));
+        StmtFilter plan = StmtFilterCompiler.compile(filter);
+        List<Statement> statements = this.model.listStatements().toList();
+        this.graph.reset();
+        for (Statement statement: statements) assertFalse(plan.test(statement));
+        assertEquals(0, this.graph.probes);
+    }
+
+    @Test
+    public void doubleNegationsAreRemoved() {
+        StmtFilter probe = new StmtSubjectHasPropertyFilter(this.properties[0], this.resources[1]);
+        StmtFilter plan = StmtFilterCompiler.compile(new NotStmtFilter(new NotStmtFilter(new NotStmtFilter(new NotStmtFilter(probe)))));
+        List<Statement> statements = this.model.listStatements().toList();
+        this.graph.reset();
+        for (Statement statement: statements) assertEquals(probe.test(statement), plan.test(statement));
+        // The probe is memoised, hence evaluated by the plan rather than by the negations
+        this.graph.reset();
+        for (Statement statement: statements) plan.test(statement);
+        assertEquals(0, this.graph.probes);
+    }
+
+    @Test
+    public void disjunctionsOfProbesAreMerged() {
+        List<StmtFilter> members = new ArrayList<>();
+        for (int i = 0; i < 5; i++) members.add(new StmtSubjectHasPropertyFilter(this.properties[0], this.resources[i]));
+        StmtFilter filter = new OrStmtFilter(members);
+        StmtFilter plan = StmtFilterCompiler.compile(filter);
+        List<Statement> statements = this.model.listStatements().toList();
+        this.graph.reset();
+        for (Statement statement: statements) assertEquals(filter.test(statement), plan.test(statement));
+        long unplannedProbes = this.graph.probes;
+
+        plan = StmtFilterCompiler.compile(filter);
+        this.graph.reset();
+        for (Statement statement: statements) plan.test(statement);
+        // One listing of the property values per distinct subject
+        assertEquals(this.distinctSubjects(statements), this.graph.probes);
+        assertEquals(this.graph.probes, this.graph.lists);
+        assertTrue(this.graph.probes < unplannedProbes);
+    }
+
+    @Test
+    public void probesAreMemoisedPerNode() {
+        StmtFilter filter = new StmtSubjectIsPropertyOfFilter(this.resources[0], this.properties[0]);
+        StmtFilter plan = StmtFilterCompiler.compile(new AndStmtFilter(filter));
+        List<Statement> statements = this.model.listStatements().toList();
+        List<Boolean> results = new ArrayList<>(statements.size());
+        this.graph.reset();
+        for (Statement statement: statements) results.add(plan.test(statement));
+        assertEquals(this.distinctSubjects(statements), this.graph.probes);
+        for (int i = 0; i < statements.size(); i++) assertEquals(filter.test(statements.get(i)), results.get(i));
+    }
+
+    @Test
+    public void compiledFiltersAreCopies() {
+        OrStmtFilter filter = new OrStmtFilter(new StmtSubjectHasPropertyFilter(this.properties[0], this.resources[0]));
+        StmtFilter plan = StmtFilterCompiler.compile(filter);
+        filter.add(new AndStmtFilter());
+        for (Statement statement: this.model.listStatements().toList()) {
+            assertTrue(filter.test(statement));
+            assertEquals(statement.getSubject().hasProperty(this.properties[0], this.resources[0]), plan.test(statement));
+        }
+    }
+
+    /**
+     * Counts the distinct subjects of the provided statements
+     * @param statements Statements
+     * @return Number of distinct subjects
+     */
+    private long distinctSubjects(List<Statement> statements) {
+        List<Resource> subjects = new ArrayList<>();
+        for (Statement statement: statements) {
+            if (!subjects.contains(statement.getSubject())) subjects.add(statement.getSubject());
+        }
+        return subjects.size();
+    }
+
+    /**
+     * Generates a random filter tree
+     * @param random Random generator
+     * @param depth Maximum depth of the tree
+     * @return Statement filter
+     */
+    private StmtFilter randomFilter(Random random, int depth) {
+        int kind = random.nextInt(depth > 0 ? 9 : 5);
+        Property predicate = this.properties[random.nextInt(PROPERTIES)];
+        Resource resource = random.nextInt(4) == 0 ? null : this.resources[random.nextInt(RESOURCES / 2)];
+        switch (kind) {
+            case 0:
+                return new StmtSubjectHasPropertyFilter(predicate, resource);
+            case 1:
+                return new StmtObjectHasPropertyFilter(predicate, resource);
+            case 2:
+                return new StmtSubjectIsPropertyOfFilter(resource, predicate);
+            case 3:
+                return new StmtObjectIsPropertyOfFilter(resource, predicate);
+            case 4:
+                return random.nextBoolean() ? new StmtSubjectPartitionFilter(random.nextInt(3), 3) : new ObjectIsLiteralFilter();
+            case 5:
+                return new NotStmtFilter(this.randomFilter(random, depth - 1));
+            default:
+                List<StmtFilter> members = new ArrayList<>();
+                int size = random.nextInt(5);
+                for (int i = 0; i < size; i++) members.add(this.randomFilter(random, depth - 1));
+                return (kind % 2 == 0) ? new AndStmtFilter(members) : new OrStmtFilter(members);
+        }
+    }
+
+    /**
+     * Filter of a class the compiler does not know
+     */
+    private static class ObjectIsLiteralFilter implements StmtFilter {
+        @Override
+        public boolean test(Statement statement) {
+            return statement.getObject().isLiteral();
+        }
+    }
+
+    /**
+     * Partition filter rejecting all statements, as if its partition was
+     * always empty
+     */
+    private static final class RejectingPartitionFilter extends StmtSubjectPartitionFilter {
+        RejectingPartitionFilter() {
+            super(0, 1);
+        }
+
+        @Override
+        public boolean test(Statement statement) {
+            return false;
+        }
+    }
+
+    /**
+     * Graph counting the probes of its content
+     */
+    private static final class CountingGraph extends WrappedGraph {
+
+        /**
+         * Number of find and contains calls
+         */
+        long probes;
+
+        /**
+         * Number of find calls
+         */
+        long lists;
+
+        CountingGraph(Graph base) {
+            super(base);
+        }
+
+        void reset() {
+            this.probes = 0;
+            this.lists = 0;
+        }
+
+        @Override
+        public ExtendedIterator<Triple> find(TripleMatch match) {
+            this.probes++;
+            this.lists++;
+            return super.find(match);
+        }
+
+        @Override
+        public ExtendedIterator<Triple> find(Node s, Node p, Node o) {
+            this.probes++;
+            this.lists++;
+            return super.find(s, p, o);
+        }
+
+        @Override
+        public boolean contains(Node s, Node p, Node o) {
+            this.probes++;
+            return super.contains(s, p, o);
+        }
+
+        @Override
+        public boolean contains(Triple t) {
+            this.probes++;
+            return super.contains(t);
+        }
+    }
+}
@@ -183,6 +183,54 @@ public abstract class AbstractSKOSIndex implements SKOSIndex {
         return this.search(keyword, field, conceptSchemes, collections, false, offset, limit);
     }
     
+    /**
+     * {@inheritDoc}
+     * @param keyword {@inheritDoc}
+     * @param field {@inheritDoc}
+     * @param conceptSchemes {@inheritDoc}
+     * @param collections {@inheritDoc}
+     * @param transitiveMember {@inheritDoc}
+     * @param offset {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<Scored<SemanticEntity>> search(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, int offset, int limit) {
+        return this.search(keyword, field, conceptSchemes, collections, transitiveMember, null, offset, limit);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * @param keyword {@inheritDoc}
+     * @param field {@inheritDoc}
+     * @param conceptSchemes {@inheritDoc}
+     * @param collections {@inheritDoc}
+     * @param transitiveMember {@inheritDoc}
+     * @param withinConcept {@inheritDoc}
+     * @param offset {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     */
+    @Override
+    public List<Scored<SemanticEntity>> search(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, String withinConcept, int offset, int limit) {
+        return this.search(keyword, field, conceptSchemes, collections, transitiveMember, withinConcept, null, offset, limit);
+    }
+    
+    /**
+     * {@inheritDoc}
+     * @param keyword {@inheritDoc}
+     * @param field {@inheritDoc}
+     * @param conceptSchemes {@inheritDoc}
+     * @param collections {@inheritDoc}
+     * @param transitiveMember {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int count(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember) {
+        return this.count(keyword, field, conceptSchemes, collections, transitiveMember, null);
+    }
+    
     /**
      * {@inheritDoc}
      * @return {@inheritDoc}
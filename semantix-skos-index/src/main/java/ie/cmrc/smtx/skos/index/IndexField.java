@@ -194,6 +194,11 @@ public class IndexField {
      */
     public static enum Filterable {
 
+        /**
+         * Concept URI, indexed as a single untokenised term for exact lookups
+         */
+        URI("uriKey"),
+
         /**
          * Resource type (Concept, Collection, or ConceptScheme)
          */
@@ -212,7 +217,19 @@ public class IndexField {
         /**
          * Collection to which a resource belongs directly or indirectly
          */
-        COLLECTION_TRANSITIVE("collTrans");
+        COLLECTION_TRANSITIVE("collTrans"),
+
+        /**
+         * Position of a concept in the broader/narrower hierarchy, indexed as
+         * a numeric field
+         */
+        HIERARCHY_POSITION("hierPos"),
+
+        /**
+         * Position intervals covering a concept and its narrower concepts,
+         * stored (not indexed) as a sequence of inclusive start and end bounds
+         */
+        HIERARCHY_INTERVAL("hierInterval");
 
         /**
          * Name of the field 
@@ -280,6 +280,124 @@ public interface SKOSIndex extends Closeable {
      */
     List<Scored<SemanticEntity>> search(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, int offset, int limit);
     
+    /**
+     * Counts the semantic entities whose values for the provided field
+     * match the provided keyword and which belong to at least one of the
+     * concept schemes and at least one of the collections identified by the
+     * provided URIs. This is cheaper than {@linkplain #search(ie.cmrc.util.Term, ie.cmrc.smtx.skos.index.IndexField.Searchable, java.util.Collection, java.util.Collection, boolean, int, int)}
+     * as no result is scored, sorted or loaded, and may be used to estimate
+     * the selectivity of a keyword.
+     * @param keyword A {@link ie.cmrc.util.Term} consisting of a string keyword
+     * to search and a language code. If the language code is {@code null} then
+     * the search is performed across all the available languages
+     * @param field Field to search the keyword in
+     * @param conceptSchemes List of URIs of concept schemes to restrict search to
+     * @param collections List of URIs of SKOS collections to restrict search to
+     * @param transitiveMember Indicates whether indirect (transitive) members
+     * of the provided collections should be considered
+     * @return Number of semantic entities matching {@code keyword}
+     */
+    int count(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember);
+    
+    /**
+     * Lists the semantic entities whose values for the provided field
+     * match the provided keyword, which belong to at least one of the
+     * concept schemes and at least one of the collections identified by the
+     * provided URIs, and which are narrower concepts, direct or indirect, of
+     * the concept identified by {@code withinConcept}. The hierarchy
+     * restriction is evaluated as a numeric range filter on the interval
+     * encoding of the concept hierarchy, and is therefore about as cheap as
+     * an unrestricted search.
+     * @param keyword A {@link ie.cmrc.util.Term} consisting of a string keyword
+     * to search and a language code. If the language code is {@code null} then
+     * the search is performed across all the available languages
+     * @param field Field to search the keyword in
+     * @param conceptSchemes List of URIs of concept schemes to restrict search to
+     * @param collections List of URIs of SKOS collections to restrict search to
+     * @param transitiveMember Indicates whether indirect (transitive) members
+     * of the provided collections should be considered
+     * @param withinConcept URI of the concept whose narrower concepts the
+     * search is restricted to. If this is {@code null} then the search is not
+     * restricted.
+     * @param offset Number of results to skip before returning any results. Results
+     * that are skipped due to {@code offset} do not count against {@code limit}.
+     * @param limit Maximum number of results the query will return
+     * @return {@code List<Scored<SemanticEntity>>} containing the semantic entities matching
+     * {@code keyword}.
+     * If no matches are found, the en empty {@code List} is returned.
+     * @throws UnsupportedOperationException If {@code withinConcept} is not
+     * {@code null} and the index does not contain the concept hierarchy (see
+     * {@linkplain #isHierarchyIndexed()})
+     */
+    List<Scored<SemanticEntity>> search(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, String withinConcept, int offset, int limit);
+    
+    /**
+     * Lists the semantic entities whose values for the provided field
+     * match the provided keyword, which belong to at least one of the
+     * concept schemes and at least one of the collections identified by the
+     * provided URIs, which are narrower concepts, direct or indirect, of
+     * the concept identified by {@code withinConcept}, and whose URIs are
+     * among the provided concept URIs. The URI restriction is evaluated as a
+     * filter on the exact URIs of the indexed entities, so only the
+     * provided concepts are scored.
+     * @param keyword A {@link ie.cmrc.util.Term} consisting of a string keyword
+     * to search and a language code. If the language code is {@code null} then
+     * the search is performed across all the available languages
+     * @param field Field to search the keyword in
+     * @param conceptSchemes List of URIs of concept schemes to restrict search to
+     * @param collections List of URIs of SKOS collections to restrict search to
+     * @param transitiveMember Indicates whether indirect (transitive) members
+     * of the provided collections should be considered
+     * @param withinConcept URI of the concept whose narrower concepts the
+     * search is restricted to. If this is {@code null} then the search is not
+     * restricted.
+     * @param conceptURIs URIs of the concepts the search is restricted to.
+     * If this is {@code null} then the search is not restricted.
+     * @param offset Number of results to skip before returning any results. Results
+     * that are skipped due to {@code offset} do not count against {@code limit}.
+     * @param limit Maximum number of results the query will return
+     * @return {@code List<Scored<SemanticEntity>>} containing the semantic entities matching
+     * {@code keyword}.
+     * If no matches are found, the en empty {@code List} is returned.
+     * @throws UnsupportedOperationException If {@code withinConcept} is not
+     * {@code null} and the index does not contain the concept hierarchy (see
+     * {@linkplain #isHierarchyIndexed()})
+     */
+    List<Scored<SemanticEntity>> search(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, String withinConcept, Collection<String> conceptURIs, int offset, int limit);
+    
+    /**
+     * Counts the semantic entities whose values for the provided field
+     * match the provided keyword, which belong to at least one of the
+     * concept schemes and at least one of the collections identified by the
+     * provided URIs, and which are narrower concepts, direct or indirect, of
+     * the concept identified by {@code withinConcept}
+     * @param keyword A {@link ie.cmrc.util.Term} consisting of a string keyword
+     * to search and a language code. If the language code is {@code null} then
+     * the search is performed across all the available languages
+     * @param field Field to search the keyword in
+     * @param conceptSchemes List of URIs of concept schemes to restrict search to
+     * @param collections List of URIs of SKOS collections to restrict search to
+     * @param transitiveMember Indicates whether indirect (transitive) members
+     * of the provided collections should be considered
+     * @param withinConcept URI of the concept whose narrower concepts the
+     * search is restricted to. If this is {@code null} then the search is not
+     * restricted.
+     * @return Number of semantic entities matching {@code keyword}
+     * @throws UnsupportedOperationException If {@code withinConcept} is not
+     * {@code null} and the index does not contain the concept hierarchy (see
+     * {@linkplain #isHierarchyIndexed()})
+     */
+    int count(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, String withinConcept);
+    
+    /**
+     * Indicates whether the index contains the interval encoding of the
+     * concept hierarchy, which is required for restricting searches to the
+     * narrower concepts of a given concept
+     * @return {@code true} if the concept hierarchy is indexed; {@code false}
+     * otherwise
+     */
+    boolean isHierarchyIndexed();
+    
     /**
      * Lists the languages supported by the index
      * @return String collection containing the codes of the languages supported
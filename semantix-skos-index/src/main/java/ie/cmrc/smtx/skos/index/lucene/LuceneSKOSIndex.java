@@ -30,27 +30,40 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.nio.file.NotDirectoryException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import org.apache.lucene.analysis.Analyzer;
 import org.apache.lucene.document.Document;
 import org.apache.lucene.index.CorruptIndexException;
 import org.apache.lucene.index.DirectoryReader;
 import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.IndexableField;
+import org.apache.lucene.index.MultiFields;
+import org.apache.lucene.queries.TermsFilter;
 import org.apache.lucene.queryparser.classic.ParseException;
 import org.apache.lucene.queryparser.classic.QueryParser;
 import org.apache.lucene.queryparser.classic.QueryParserBase;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
+import org.apache.lucene.search.CachingWrapperFilter;
 import org.apache.lucene.search.Filter;
+import org.apache.lucene.search.FilteredQuery;
 import org.apache.lucene.search.IndexSearcher;
+import org.apache.lucene.search.NumericRangeQuery;
 import org.apache.lucene.search.Query;
 import org.apache.lucene.search.QueryWrapperFilter;
 import org.apache.lucene.search.ScoreDoc;
 import org.apache.lucene.search.TermQuery;
 import org.apache.lucene.search.TopScoreDocCollector;
+import org.apache.lucene.search.TotalHitCountCollector;
 import org.apache.lucene.store.Directory;
 import org.apache.lucene.store.SimpleFSDirectory;
+import org.apache.lucene.util.BytesRef;
 
 /**
  * A persistent {@link ie.cmrc.skos.index.SKOSIndex} implementation based on the
@@ -93,6 +106,39 @@ public class LuceneSKOSIndex extends AbstractSKOSIndex implements SKOSIndex {
      */
     private boolean initialised = false;
     
+    /**
+     * Indicates whether the index contains the interval encoding of the
+     * concept hierarchy
+     */
+    private boolean hierarchyIndexed = false;
+    
+    /**
+     * Indicates whether the index contains the exact, untokenised, concept
+     * URIs
+     */
+    private boolean urisIndexed = false;
+    
+    /**
+     * Maximum number of concept scheme and collection filters to keep in
+     * {@linkplain #filterCache}
+     */
+    private static final int MAX_CACHED_FILTERS = 64;
+    
+    /**
+     * Concept scheme and collection filters, keyed by their concept schemes,
+     * collections and transitivity, and hierarchy filters, keyed by their
+     * concept URI. Filters are wrapped in a
+     * {@link CachingWrapperFilter} so that the matching documents are only
+     * computed once per index segment, then reused as a bit set by
+     * subsequent searches.
+     */
+    private final Map<List<Object>, Filter> filterCache = new LinkedHashMap<List<Object>, Filter>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<List<Object>, Filter> eldest) {
+            return this.size() > MAX_CACHED_FILTERS;
+        }
+    };
+    
 
     /**
      * Creates a {@link LuceneSKOSIndex} with the provided index data directory
@@ -129,6 +175,8 @@ public class LuceneSKOSIndex extends AbstractSKOSIndex implements SKOSIndex {
                         try {
                             this.indexReader = DirectoryReader.open(dir);
                             this.indexSearcher = new org.apache.lucene.search.IndexSearcher(indexReader);
+                            this.urisIndexed = (MultiFields.getTerms(this.indexReader, IndexField.Filterable.URI.fieldName()) != null);
+                            this.hierarchyIndexed = this.urisIndexed && (MultiFields.getTerms(this.indexReader, IndexField.Filterable.HIERARCHY_POSITION.fieldName()) != null);
                             this.initialised = true;
                         }
                         catch(CorruptIndexException ex) {
@@ -224,21 +272,46 @@ public class LuceneSKOSIndex extends AbstractSKOSIndex implements SKOSIndex {
      * @param conceptSchemes {@inheritDoc}
      * @param collections {@inheritDoc}
      * @param transitiveMember {@inheritDoc}
+     * @param withinConcept {@inheritDoc}
+     * @param conceptURIs {@inheritDoc}
      * @param offset {@inheritDoc}
      * @param limit {@inheritDoc}
      * @return {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
      */
     @Override
-    public List<Scored<SemanticEntity>> search(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, int offset, int limit) {
+    public List<Scored<SemanticEntity>> search(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, String withinConcept, Collection<String> conceptURIs, int offset, int limit) {
         String queryString = this.getQueryString(keyword, field);
         if (queryString != null) {
+            if (conceptURIs != null && conceptURIs.isEmpty()) return new ArrayList<>(0);
+            
             QueryParser queryParser = new QueryParser(IndexField.Searchable.NAME.fieldName(), analyser);
 
             Filter filter = this.getFilterForSchemesAndCollections(conceptSchemes, collections, transitiveMember);
+            
+            Filter hierarchyFilter = null;
+            if (withinConcept != null) {
+                hierarchyFilter = this.getFilterForHierarchy(withinConcept);
+                if (hierarchyFilter == null) return new ArrayList<>(0);
+            }
 
             try {
                 //System.out.println("Your query is: "+queryString);
                 Query query = queryParser.parse(queryString);
+                if (hierarchyFilter != null) query = new FilteredQuery(query, hierarchyFilter);
+                if (conceptURIs != null) {
+                    if (this.urisIndexed) {
+                        // Score the provided concepts only
+                        List<BytesRef> terms = new ArrayList<>(conceptURIs.size());
+                        for (String conceptURI: conceptURIs) {
+                            if (conceptURI != null) terms.add(new BytesRef(conceptURI));
+                        }
+                        query = new FilteredQuery(query, new TermsFilter(IndexField.Filterable.URI.fieldName(), terms));
+                    }
+                    else {
+                        return this.restrictToConcepts(this.processQuery(query, filter, 0, this.indexReader.maxDoc()), conceptURIs, offset, limit);
+                    }
+                }
                 return this.processQuery(query, filter, offset, limit);
                 
 
@@ -250,6 +323,86 @@ public class LuceneSKOSIndex extends AbstractSKOSIndex implements SKOSIndex {
         }
         return new ArrayList<>(0);
     }
+    
+    /**
+     * Keeps the results whose URIs are among the provided concept URIs. This
+     * is used for indexes that do not contain the exact concept URIs, which
+     * can therefore not be filtered by the index.
+     * @param results Scored results, by decreasing relevance
+     * @param conceptURIs URIs of the concepts to keep
+     * @param offset Number of kept results to skip
+     * @param limit Maximum number of results to return
+     * @return Page of the kept results
+     */
+    private List<Scored<SemanticEntity>> restrictToConcepts(List<Scored<SemanticEntity>> results, Collection<String> conceptURIs, int offset, int limit) {
+        Set<String> uris = (conceptURIs instanceof Set) ? (Set<String>) conceptURIs : new HashSet<>(conceptURIs);
+        int qOffset = Math.max(offset, 0);
+        int qLimit = (limit > 0) ? limit : 200;
+        List<Scored<SemanticEntity>> page = new ArrayList<>(Math.min(qLimit, results.size()));
+        int kept = 0;
+        for (Scored<SemanticEntity> result: results) {
+            if (page.size() >= qLimit) break;
+            if (uris.contains(result.getItem().getURI()) && kept++ >= qOffset) page.add(result);
+        }
+        return page;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param keyword {@inheritDoc}
+     * @param field {@inheritDoc}
+     * @param conceptSchemes {@inheritDoc}
+     * @param collections {@inheritDoc}
+     * @param transitiveMember {@inheritDoc}
+     * @param withinConcept {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws UnsupportedOperationException {@inheritDoc}
+     */
+    @Override
+    public int count(Term keyword, IndexField.Searchable field, Collection<String> conceptSchemes, Collection<String> collections, boolean transitiveMember, String withinConcept) {
+        String queryString = this.getQueryString(keyword, field);
+        if (queryString != null && this.initialised) {
+            QueryParser queryParser = new QueryParser(IndexField.Searchable.NAME.fieldName(), analyser);
+
+            Filter filter = this.getFilterForSchemesAndCollections(conceptSchemes, collections, transitiveMember);
+            
+            Filter hierarchyFilter = null;
+            if (withinConcept != null) {
+                hierarchyFilter = this.getFilterForHierarchy(withinConcept);
+                if (hierarchyFilter == null) return 0;
+            }
+
+            try {
+                Query query = queryParser.parse(queryString);
+                if (hierarchyFilter != null) query = new FilteredQuery(query, hierarchyFilter);
+                TotalHitCountCollector collector = new TotalHitCountCollector();
+                if (filter!=null) {
+                    this.indexSearcher.search(query, filter, collector);
+                }
+                else {
+                    this.indexSearcher.search(query, collector);
+                }
+                return collector.getTotalHits();
+            }
+            catch (ParseException ex) {
+                // This should never happen, but just in case...
+                throw new RuntimeException("Could not parse \""+queryString+"\":"+ex.getMessage(), ex);
+            }
+            catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isHierarchyIndexed() {
+        return this.hierarchyIndexed;
+    }
 
     /**
      * {@inheritDoc}
@@ -341,12 +494,41 @@ public class LuceneSKOSIndex extends AbstractSKOSIndex implements SKOSIndex {
     }
     
     /**
-     * Constructs a Lucene filter for the provided lists of concept schemes and collections
+     * Returns a Lucene filter for the provided lists of concept schemes and
+     * collections. Filters are cached, so that repeated searches within the
+     * same concept schemes and collections reuse the same document bit sets.
      * @param conceptSchemes List of concept scheme URIs
      * @param collections List of SKOS collection URIs
+     * @param transitive Indicates whether indirect (transitive) members
+     * of the provided collections should be considered
      * @return Lucene filter for the provided lists of concept schemes and collections
      */
     private Filter getFilterForSchemesAndCollections(Collection<String> conceptSchemes, Collection<String> collections, boolean transitive) {
+        List<Object> key = Arrays.<Object>asList(
+                conceptSchemes != null ? new ArrayList<String>(conceptSchemes) : null,
+                collections != null ? new ArrayList<String>(collections) : null,
+                transitive);
+        synchronized (this.filterCache) {
+            if (this.filterCache.containsKey(key)) return this.filterCache.get(key);
+        }
+        Filter filter = this.createFilterForSchemesAndCollections(conceptSchemes, collections, transitive);
+        synchronized (this.filterCache) {
+            this.filterCache.put(key, filter);
+        }
+        return filter;
+    }
+    
+    /**
+     * Creates a Lucene filter for the provided lists of concept schemes and
+     * collections
+     * @param conceptSchemes List of concept scheme URIs
+     * @param collections List of collection URIs
+     * @param transitive Indicates whether indirect (transitive) members
+     * of the provided collections should be considered
+     * @return Lucene filter for the provided lists of concept schemes and
+     * collections, or {@code null} if no filtering is needed
+     */
+    private Filter createFilterForSchemesAndCollections(Collection<String> conceptSchemes, Collection<String> collections, boolean transitive) {
         Filter filter = null;
 
         Query filterQuery = null;
@@ -414,11 +596,78 @@ public class LuceneSKOSIndex extends AbstractSKOSIndex implements SKOSIndex {
             }
         }
 
-        if (filterQuery != null) filter = new QueryWrapperFilter(filterQuery);
+        if (filterQuery != null) filter = new CachingWrapperFilter(new QueryWrapperFilter(filterQuery));
         
         return filter;
     }
     
+    /**
+     * Returns a Lucene filter accepting the narrower concepts, direct or
+     * indirect, of the provided concept. The filter matches the hierarchy
+     * positions falling within the intervals of the concept, excluding the
+     * concept itself. Filters are cached like concept scheme and collection
+     * filters.
+     * @param conceptURI Concept URI
+     * @return Lucene filter for the narrower concepts of {@code conceptURI},
+     * or {@code null} if the concept is not indexed, in which case no concept
+     * is accepted
+     * @throws UnsupportedOperationException If the concept hierarchy is not
+     * indexed
+     */
+    private Filter getFilterForHierarchy(String conceptURI) {
+        if (!this.hierarchyIndexed) {
+            throw new UnsupportedOperationException("Index \""+this.indexDir+"\" does not contain the concept hierarchy. Please re-index the thesaurus.");
+        }
+        List<Object> key = Arrays.<Object>asList(IndexField.Filterable.HIERARCHY_POSITION, conceptURI);
+        synchronized (this.filterCache) {
+            if (this.filterCache.containsKey(key)) return this.filterCache.get(key);
+        }
+        Filter filter = null;
+        Document doc = this.getConceptDocument(conceptURI);
+        if (doc != null) {
+            IndexableField position = doc.getField(IndexField.Filterable.HIERARCHY_POSITION.fieldName());
+            IndexableField[] bounds = doc.getFields(IndexField.Filterable.HIERARCHY_INTERVAL.fieldName());
+            if (position != null && bounds.length >= 2) {
+                String fieldName = IndexField.Filterable.HIERARCHY_POSITION.fieldName();
+                BooleanQuery intervalsQuery = new BooleanQuery();
+                for (int i=0; i+1<bounds.length; i+=2) {
+                    int start = bounds[i].numericValue().intValue();
+                    int end = bounds[i+1].numericValue().intValue();
+                    intervalsQuery.add(NumericRangeQuery.newIntRange(fieldName, start, end, true, true), BooleanClause.Occur.SHOULD);
+                }
+                int pos = position.numericValue().intValue();
+                BooleanQuery filterQuery = new BooleanQuery();
+                filterQuery.add(intervalsQuery, BooleanClause.Occur.MUST);
+                filterQuery.add(NumericRangeQuery.newIntRange(fieldName, pos, pos, true, true), BooleanClause.Occur.MUST_NOT);
+                filter = new CachingWrapperFilter(new QueryWrapperFilter(filterQuery));
+            }
+        }
+        synchronized (this.filterCache) {
+            this.filterCache.put(key, filter);
+        }
+        return filter;
+    }
+    
+    /**
+     * Returns the index document of the concept identified by the provided URI
+     * @param conceptURI Concept URI
+     * @return Index document whose URI is exactly {@code conceptURI}, or
+     * {@code null} if there is none
+     */
+    private Document getConceptDocument(String conceptURI) {
+        if (conceptURI != null && this.initialised) {
+            Query query = new TermQuery(new org.apache.lucene.index.Term(IndexField.Filterable.URI.fieldName(), conceptURI));
+            try {
+                ScoreDoc[] hits = this.indexSearcher.search(query, 1).scoreDocs;
+                if (hits.length > 0) return this.indexSearcher.doc(hits[0].doc);
+            }
+            catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
+        return null;
+    }
+    
     /**
      * Processes a Lucene query
      * @param query Lucene query to process
@@ -0,0 +1,226 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.rdf.model.Literal;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Statement;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.util.Term;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Annotations of a SKOS resource, loaded with a single scan of the statements
+ * of the resource and grouped by SKOS annotation property. Values keep the
+ * order of the statements they were read from.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class AnnotationView {
+
+    /**
+     * SKOS annotation properties by URI
+     */
+    private static final Map<String, SKOSAnnotationProperty> PROPERTIES = new HashMap<>();
+
+    static {
+        for (SKOSAnnotationProperty property: SKOSAnnotationProperty.values()) PROPERTIES.put(property.uri(), property);
+    }
+
+    /**
+     * Annotation values by property
+     */
+    private final Map<SKOSAnnotationProperty, List<Value>> values = new EnumMap<>(SKOSAnnotationProperty.class);
+
+    /**
+     * Annotation properties, in the order they were first read
+     */
+    private final List<SKOSAnnotationProperty> properties = new ArrayList<>();
+
+    /**
+     * Annotation languages, in the order they were first read
+     */
+    private final List<String> languages = new ArrayList<>();
+
+    /**
+     * Loads the annotations of a resource from its statements. Statements
+     * whose predicate is not a SKOS annotation property, or whose object is
+     * not a literal, are ignored.
+     * @param statements Statements of the resource. This iterator is consumed
+     * but not closed.
+     */
+    AnnotationView(Iterator<Statement> statements) {
+        while (statements.hasNext()) {
+            Statement stmt = statements.next();
+            RDFNode node = stmt.getObject();
+            if (node.isLiteral()) {
+                SKOSAnnotationProperty property = PROPERTIES.get(stmt.getPredicate().getURI());
+                if (property != null) {
+                    Literal literal = (Literal)node;
+                    String lang = literal.getLanguage();
+                    List<Value> propertyValues = this.values.get(property);
+                    if (propertyValues == null) {
+                        propertyValues = new ArrayList<>(1);
+                        this.values.put(property, propertyValues);
+                        this.properties.add(property);
+                    }
+                    propertyValues.add(new Value(literal.getString(), lang));
+                    if (!this.languages.contains(lang)) this.languages.add(lang);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the first value of an annotation property in a language
+     * @param property SKOS annotation property
+     * @param language Language
+     * @return First value of {@code property} in {@code language}, or
+     * {@code null} if there is none
+     */
+    String getValue(SKOSAnnotationProperty property, String language) {
+        for (Value value: this.getPropertyValues(property)) {
+            if (Objects.equals(language, value.language)) return value.string;
+        }
+        return null;
+    }
+
+    /**
+     * Returns the values of an annotation property in a language
+     * @param property SKOS annotation property
+     * @param language Language
+     * @return Values of {@code property} in {@code language}
+     */
+    List<String> getValues(SKOSAnnotationProperty property, String language) {
+        List<String> languageValues = new ArrayList<>();
+        for (Value value: this.getPropertyValues(property)) {
+            if (Objects.equals(language, value.language)) languageValues.add(value.string);
+        }
+        return languageValues;
+    }
+
+    /**
+     * Returns the values of an annotation property in all languages
+     * @param property SKOS annotation property
+     * @return Values of {@code property} as terms
+     */
+    List<Term> getTerms(SKOSAnnotationProperty property) {
+        List<Value> propertyValues = this.getPropertyValues(property);
+        List<Term> terms = new ArrayList<>(propertyValues.size());
+        for (Value value: propertyValues) terms.add(new Term(value.string, value.language));
+        return terms;
+    }
+
+    /**
+     * Checks whether an annotation property has a value in a language
+     * @param property SKOS annotation property
+     * @param language Language
+     * @return {@code true} if {@code property} has a value in
+     * {@code language}
+     */
+    boolean hasValue(SKOSAnnotationProperty property, String language) {
+        return this.getValue(property, language) != null;
+    }
+
+    /**
+     * Checks whether an annotation property has a given value in a language
+     * @param property SKOS annotation property
+     * @param value Value
+     * @param language Language
+     * @return {@code true} if {@code value} is a value of {@code property} in
+     * {@code language}
+     */
+    boolean hasValue(SKOSAnnotationProperty property, String value, String language) {
+        for (Value propertyValue: this.getPropertyValues(property)) {
+            if (Objects.equals(language, propertyValue.language) && value.equals(propertyValue.string)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the annotation properties having values
+     * @return Annotation properties, in the order they were first read
+     */
+    List<SKOSAnnotationProperty> getProperties() {
+        return new ArrayList<>(this.properties);
+    }
+
+    /**
+     * Returns the languages of all the annotations
+     * @return Languages, in the order they were first read
+     */
+    List<String> getLanguages() {
+        return new ArrayList<>(this.languages);
+    }
+
+    /**
+     * Returns the languages of the values of an annotation property
+     * @param property SKOS annotation property
+     * @return Languages, in the order they were first read
+     */
+    List<String> getLanguages(SKOSAnnotationProperty property) {
+        List<String> propertyLanguages = new ArrayList<>();
+        for (Value value: this.getPropertyValues(property)) {
+            if (!propertyLanguages.contains(value.language)) propertyLanguages.add(value.language);
+        }
+        return propertyLanguages;
+    }
+
+    /**
+     * Returns the values of an annotation property
+     * @param property SKOS annotation property
+     * @return Values of {@code property}. This list must not be modified.
+     */
+    private List<Value> getPropertyValues(SKOSAnnotationProperty property) {
+        List<Value> propertyValues = this.values.get(property);
+        return (propertyValues != null) ? propertyValues : Collections.<Value>emptyList();
+    }
+
+    /**
+     * Annotation value and its language
+     */
+    private static class Value {
+
+        /**
+         * Value
+         */
+        final String string;
+
+        /**
+         * Language of the value
+         */
+        final String language;
+
+        /**
+         * Constructs a {@link Value}
+         * @param string Value
+         * @param language Language of the value
+         */
+        Value(String string, String language) {
+            this.string = string;
+            this.language = language;
+        }
+    }
+}
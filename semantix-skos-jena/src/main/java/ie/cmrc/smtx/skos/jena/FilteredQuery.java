@@ -0,0 +1,282 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.query.Dataset;
+import com.hp.hpl.jena.query.Query;
+import com.hp.hpl.jena.query.QueryExecution;
+import com.hp.hpl.jena.query.QueryExecutionFactory;
+import com.hp.hpl.jena.query.ResultSet;
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.Property;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.rdf.model.impl.StmtIteratorImpl;
+import com.hp.hpl.jena.sparql.core.Var;
+import com.hp.hpl.jena.sparql.syntax.Element;
+import com.hp.hpl.jena.sparql.syntax.ElementGroup;
+import com.hp.hpl.jena.sparql.syntax.ElementNamedGraph;
+import com.hp.hpl.jena.sparql.syntax.ElementUnion;
+import com.hp.hpl.jena.tdb.TDB;
+import com.hp.hpl.jena.util.iterator.NiceIterator;
+import com.hp.hpl.jena.vocabulary.RDF;
+import ie.cmrc.smtx.jena.concurrent.LockedIterator;
+import ie.cmrc.smtx.jena.concurrent.ReentrantMRSWLock;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Concept scheme and collection filtered statement query, executed as a
+ * SPARQL query against a Jena dataset.<br/>
+ * The query selects the resources {@code ?x} matching an anchor triple
+ * pattern, for example {@code <concept> skos:narrower ?x}, that belong to at
+ * least one of the concept schemes and are a member of at least one of the
+ * collections of the filters. Unlike the {@link ie.cmrc.smtx.jena.selector.FilteredSelector}
+ * equivalent, which lists the statements of the anchor pattern and checks
+ * the filters statement by statement, the whole query is evaluated by the
+ * query engine of the dataset, so that TDB can order and join the patterns
+ * using its indexes and statistics.<br/>
+ * Results are returned as the statements of the anchor pattern, so that they
+ * can be consumed in place of the statements listed by a selector.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class FilteredQuery {
+
+    /**
+     * Selected variable
+     */
+    private static final Var X = Var.alloc("x");
+
+    /**
+     * Anchor triple pattern, holding {@link #X} as subject or object
+     */
+    private final Triple anchor;
+
+    /**
+     * Query pattern
+     */
+    private final ElementGroup pattern = new ElementGroup();
+
+    /**
+     * Concept schemes the selected resources must belong to, if any
+     */
+    private final List<Node> conceptSchemes = new ArrayList<>();
+
+    /**
+     * Constructs a {@link FilteredQuery} selecting the objects of the
+     * statements with the provided subject and property
+     * @param subject Subject
+     * @param property Property
+     * @return Query selecting the objects of the statements of {@code subject}
+     * and {@code property}
+     */
+    static FilteredQuery objectsOf(Resource subject, Property property) {
+        return new FilteredQuery(new Triple(subject.asNode(), property.asNode(), X));
+    }
+
+    /**
+     * Constructs a {@link FilteredQuery} selecting the subjects of the
+     * statements with the provided property and object
+     * @param property Property
+     * @param object Object
+     * @return Query selecting the subjects of the statements of
+     * {@code property} and {@code object}
+     */
+    static FilteredQuery subjectsOf(Property property, Resource object) {
+        return new FilteredQuery(new Triple(X, property.asNode(), object.asNode()));
+    }
+
+    /**
+     * Constructs a {@link FilteredQuery}
+     * @param anchor Anchor triple pattern, holding {@link #X} as subject or
+     * object
+     */
+    private FilteredQuery(Triple anchor) {
+        this.anchor = anchor;
+        this.pattern.addTriplePattern(anchor);
+    }
+
+    /**
+     * Restricts the selected resources to those of the provided type
+     * @param type Type resource
+     * @return This query
+     */
+    FilteredQuery withType(Resource type) {
+        this.pattern.addTriplePattern(new Triple(X, RDF.type.asNode(), type.asNode()));
+        return this;
+    }
+
+    /**
+     * Restricts the selected resources to those belonging to at least one of
+     * the provided concept schemes
+     * @param conceptSchemes Concept scheme resources, or {@code null} for no
+     * restriction
+     * @return This query
+     */
+    FilteredQuery inSchemes(Collection<Resource> conceptSchemes) {
+        if (conceptSchemes != null) {
+            for (Resource conceptScheme: conceptSchemes) this.conceptSchemes.add(conceptScheme.asNode());
+        }
+        return this;
+    }
+
+    /**
+     * Restricts the selected resources to those that are a member of at least
+     * one of the provided collections
+     * @param collections Collection resources, or {@code null} for no
+     * restriction
+     * @return This query
+     */
+    FilteredQuery inCollections(Collection<Resource> collections) {
+        if (collections != null && !collections.isEmpty()) {
+            Triple[] triples = new Triple[collections.size()];
+            int i = 0;
+            for (Resource collection: collections) triples[i++] = new Triple(collection.asNode(), PropertyFactory.member.asNode(), X);
+            addAlternatives(this.pattern, triples, null);
+        }
+        return this;
+    }
+
+    /**
+     * Adds a pattern matching any of the provided triple patterns. A single
+     * triple pattern in the default graph is added to the basic graph
+     * pattern of the query, so that the query engine can reorder it with the
+     * anchor pattern.
+     * @param pattern Group the pattern is added to
+     * @param triples Triple patterns
+     * @param graphs Named graph of each triple pattern, or {@code null} to
+     * match the triple patterns in the default graph
+     */
+    private static void addAlternatives(ElementGroup pattern, Triple[] triples, Node[] graphs) {
+        if (triples.length == 1 && graphs == null) pattern.addTriplePattern(triples[0]);
+        else {
+            ElementUnion union = new ElementUnion();
+            for (int i=0; i<triples.length; i++) {
+                ElementGroup group = new ElementGroup();
+                group.addTriplePattern(triples[i]);
+                union.addElement(graphs != null ? new ElementNamedGraph(graphs[i], group) : group);
+            }
+            if (union.getElements().size() == 1) pattern.addElement(union.getElements().get(0));
+            else pattern.addElement(union);
+        }
+    }
+
+    /**
+     * Builds the SPARQL query
+     * @param schemeGraphs Whether the statements of each concept scheme are
+     * stored in their own named graph (see {@link SchemePartitionedGraph}),
+     * in which case concept scheme membership is matched in the graphs of
+     * the concept schemes only
+     * @return SPARQL query selecting the distinct matching resources
+     */
+    Query toQuery(boolean schemeGraphs) {
+        ElementGroup queryPattern = this.pattern;
+        if (!this.conceptSchemes.isEmpty()) {
+            queryPattern = new ElementGroup();
+            for (Element element: this.pattern.getElements()) queryPattern.addElement(element);
+            Triple[] triples = new Triple[this.conceptSchemes.size()];
+            Node[] graphs = schemeGraphs ? new Node[triples.length] : null;
+            for (int i=0; i<triples.length; i++) {
+                Node conceptScheme = this.conceptSchemes.get(i);
+                triples[i] = new Triple(X, PropertyFactory.inScheme.asNode(), conceptScheme);
+                if (graphs != null) graphs[i] = conceptScheme;
+            }
+            addAlternatives(queryPattern, triples, graphs);
+        }
+        
+        Query query = new Query();
+        query.setQuerySelectType();
+        query.setDistinct(true);
+        query.addResultVar(X);
+        query.setQueryPattern(queryPattern);
+        return query;
+    }
+
+    /**
+     * Executes the query against the provided dataset
+     * @param dataset Dataset to query
+     * @param model Model the returned statements are attached to
+     * @return Statements of the anchor pattern, one per selected resource.
+     * If the lock of {@code model} is a {@link ReentrantMRSWLock}, the query
+     * is run and its results are read under the read lock, as the query
+     * bypasses the graph of {@code model}: all at once unless the caller is
+     * within a critical section, in batches otherwise (see
+     * {@link LockedIterator}). Closing or exhausting the iterator releases the query
+     * execution. If {@code model} stores each concept scheme in its own
+     * named graph, the default graph of the query is the union of the named
+     * graphs of {@code dataset}.
+     */
+    StmtIterator execute(Dataset dataset, final Model model) {
+        ReentrantMRSWLock lock = (model.getLock() instanceof ReentrantMRSWLock) ? (ReentrantMRSWLock) model.getLock() : null;
+        boolean schemeGraphs = JenaSKOS.schemeGraphOf(model) != null;
+        boolean detached = lock != null && !lock.isHeldByCurrentThread();
+        if (lock != null) lock.lockRead();
+        try {
+            final QueryExecution execution = QueryExecutionFactory.create(this.toQuery(schemeGraphs), dataset);
+            if (schemeGraphs) execution.getContext().set(TDB.symUnionDefaultGraph, true);
+            final ResultSet results = execution.execSelect();
+            NiceIterator<Statement> statements = new NiceIterator<Statement>() {
+
+                private boolean open = true;
+
+                @Override
+                public boolean hasNext() {
+                    if (this.open && !results.hasNext()) this.close();
+                    return this.open;
+                }
+
+                @Override
+                public Statement next() {
+                    if (!this.hasNext()) throw new NoSuchElementException();
+                    Node x = results.nextBinding().get(X);
+                    Triple triple = new Triple(substitute(anchor.getSubject(), x), anchor.getPredicate(), substitute(anchor.getObject(), x));
+                    return model.asStatement(triple);
+                }
+
+                @Override
+                public void close() {
+                    if (this.open) {
+                        this.open = false;
+                        execution.close();
+                    }
+                }
+            };
+            return new StmtIteratorImpl(lock != null ? new LockedIterator<>(statements, lock, detached) : statements);
+        }
+        finally {
+            if (lock != null) lock.unlockRead();
+        }
+    }
+
+    /**
+     * Replaces the selected variable by its value
+     * @param node Node of the anchor pattern
+     * @param value Value of {@link #X}
+     * @return {@code value} if {@code node} is {@link #X}, {@code node}
+     * otherwise
+     */
+    private static Node substitute(Node node, Node value) {
+        return X.equals(node) ? value : node;
+    }
+}
@@ -0,0 +1,130 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Statement;
+import ie.cmrc.smtx.jena.selector.filter.StmtFilter;
+import ie.cmrc.smtx.jena.selector.filter.StmtFilterCompiler;
+import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS;
+import java.util.List;
+
+/**
+ * A statement filter that accepts the statements whose subject, or object,
+ * belongs to at least one of a set of concept schemes and to at least one of
+ * a set of collections. Memberships are read from the bitmaps of the index
+ * of the thesaurus (see {@link JenaSKOS#getIndex()}) rather than probed in
+ * the model. Statements whose subject, or object, is not held by the index
+ * are tested with a fallback filter that probes the model.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+class IndexedMembershipFilter implements StmtFilter {
+
+    /**
+     * Index of the thesaurus
+     */
+    private final SnapshotSKOS index;
+
+    /**
+     * Whether the subjects of the statements are tested, rather than their
+     * objects
+     */
+    private final boolean subjects;
+
+    /**
+     * URIs of the concept schemes, or {@code null} for no concept scheme
+     * constraint
+     */
+    private final List<String> conceptSchemeURIs;
+
+    /**
+     * URIs of the collections, or {@code null} for no collection constraint
+     */
+    private final List<String> collectionURIs;
+
+    /**
+     * Filter expressing the same constraint by probing the model
+     */
+    private final StmtFilter fallback;
+
+    /**
+     * Creates an {@link IndexedMembershipFilter}
+     * @param index Index of the thesaurus. The concept schemes and
+     * collections must be held by the index.
+     * @param subjects {@code true} to test the subjects of the statements,
+     * {@code false} to test their objects
+     * @param conceptSchemeURIs URIs of the concept schemes, or {@code null}
+     * for no concept scheme constraint
+     * @param collectionURIs URIs of the collections, or {@code null} for no
+     * collection constraint
+     * @param fallback Filter expressing the same constraint by probing the
+     * model, applied to the statements whose tested node is not held by the
+     * index
+     */
+    IndexedMembershipFilter(SnapshotSKOS index, boolean subjects, List<String> conceptSchemeURIs, List<String> collectionURIs, StmtFilter fallback) {
+        this.index = index;
+        this.subjects = subjects;
+        this.conceptSchemeURIs = conceptSchemeURIs;
+        this.collectionURIs = collectionURIs;
+        this.fallback = StmtFilterCompiler.compile(fallback);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param statement {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean test(Statement statement) {
+        RDFNode node = this.subjects ? statement.getSubject() : statement.getObject();
+        SKOSResource resource = node.isURIResource() ? this.index.getSKOSResource(node.asResource().getURI()) : null;
+        if (resource == null || (this.collectionURIs != null && !(resource instanceof SKOSCollectionMember))) return this.fallback.test(statement);
+        return this.isInSchemes(resource) && this.isInCollections(resource);
+    }
+
+    /**
+     * Checks the concept scheme constraint
+     * @param resource Resource of the index
+     * @return {@code true} if {@code resource} belongs to one of the concept
+     * schemes, or there is no concept scheme constraint
+     */
+    private boolean isInSchemes(SKOSResource resource) {
+        if (this.conceptSchemeURIs == null) return true;
+        for (String conceptSchemeURI: this.conceptSchemeURIs) {
+            if (resource.isInScheme(conceptSchemeURI)) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Checks the collection constraint
+     * @param resource Resource of the index
+     * @return {@code true} if {@code resource} is a member of one of the
+     * collections, or there is no collection constraint
+     */
+    private boolean isInCollections(SKOSResource resource) {
+        if (this.collectionURIs == null) return true;
+        for (String collectionURI: this.collectionURIs) {
+            if (((SKOSCollectionMember) resource).isMemberOfCollection(collectionURI)) return true;
+        }
+        return false;
+    }
+}
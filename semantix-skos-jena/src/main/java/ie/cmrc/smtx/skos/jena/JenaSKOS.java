@@ -30,6 +30,7 @@ import com.hp.hpl.jena.rdf.model.Bag;
 import com.hp.hpl.jena.rdf.model.Literal;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelChangedListener;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
 import com.hp.hpl.jena.rdf.model.NodeIterator;
 import com.hp.hpl.jena.rdf.model.NsIterator;
 import com.hp.hpl.jena.rdf.model.Property;
@@ -47,11 +48,18 @@ import com.hp.hpl.jena.rdf.model.Seq;
 import com.hp.hpl.jena.rdf.model.SimpleSelector;
 import com.hp.hpl.jena.rdf.model.Statement;
 import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.rdf.model.impl.StmtIteratorImpl;
 import com.hp.hpl.jena.shared.Command;
 import com.hp.hpl.jena.shared.Lock;
 import com.hp.hpl.jena.shared.PrefixMapping;
 import com.hp.hpl.jena.shared.ReificationStyle;
+import com.hp.hpl.jena.tdb.store.GraphTDB;
+import com.hp.hpl.jena.util.iterator.Map1;
 import com.hp.hpl.jena.vocabulary.RDF;
+import ie.cmrc.smtx.base.SortKey;
+import ie.cmrc.smtx.jena.concurrent.LockingGraph;
+import ie.cmrc.smtx.jena.concurrent.LockingModel;
+import ie.cmrc.smtx.jena.concurrent.ReentrantMRSWLock;
 import ie.cmrc.smtx.jena.selector.FilteredSelector;
 import ie.cmrc.smtx.jena.selector.filter.AndStmtFilter;
 import ie.cmrc.smtx.jena.selector.filter.OrStmtFilter;
@@ -60,18 +68,22 @@ import ie.cmrc.smtx.jena.selector.filter.StmtObjectHasPropertyFilter;
 import ie.cmrc.smtx.jena.selector.filter.StmtObjectIsPropertyOfFilter;
 import ie.cmrc.smtx.jena.selector.filter.StmtSubjectHasPropertyFilter;
 import ie.cmrc.smtx.jena.selector.filter.StmtSubjectIsPropertyOfFilter;
+import ie.cmrc.smtx.jena.selector.filter.StmtSubjectPartitionFilter;
 import ie.cmrc.smtx.skos.model.SKOS;
 import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
 import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
 import ie.cmrc.smtx.skos.model.SKOSConcept;
 import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
 import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
 import ie.cmrc.smtx.skos.model.SKOSResource;
 import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
 import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.hierarchy.ConceptHierarchyBuilder;
 import ie.cmrc.smtx.skos.model.hierarchy.DefaultSKOSConceptNode;
 import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
 import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS;
 import ie.cmrc.smtx.skos.jena.util.SKOSResourceIterFactory;
 import ie.cmrc.smtx.skos.model.util.CloseableIterator;
 import ie.cmrc.smtx.skos.model.util.EmptyCloseableIterator;
@@ -82,11 +94,16 @@ import java.io.Writer;
 import java.util.ArrayList;
 import java.util.Calendar;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
 import java.util.Objects;
-import java.util.TreeSet;
+import java.util.Set;
 
 /**
  * A {@code JenaSKOSThesaurus} is an Jena-based implementation of the
@@ -94,6 +111,25 @@ import java.util.TreeSet;
  * ({@code com.hp.hpl.jena.rdf.model.Model}) as a {@link ie.cmrc.skos.core.SKOS}.
  * This {@code JenaSKOSThesaurus} only supports inferences if the underlying
  * Jena Model does so.<br/>
+ * All accesses to the model go through a multiple reader, single writer lock
+ * ({@link ie.cmrc.smtx.jena.concurrent.LockingGraph}), shared by all the
+ * thesauri wrapping the same data within a JVM. Readers never block each
+ * other. Each read operation of the {@link ie.cmrc.skos.core.SKOS} interface
+ * runs within one read critical section, so that it sees a single state of
+ * the data, and the iterators it returns are read into memory before the
+ * section is left, so that an iterator left open never blocks writers and
+ * is not affected by them. Concept hierarchies are built in parallel
+ * without holding the lock, and built again, within a read critical
+ * section if need be, when a write happened meanwhile. Updates take the
+ * write lock. Writers may batch several updates into one critical section,
+ * which also hides intermediate states from readers, using
+ * {@code enterCriticalSection(Lock.WRITE)} and
+ * {@link #leaveCriticalSection()} (see {@link #getLock()}). Readers that need
+ * a consistent view across several operations enter a read critical section
+ * in the same way. Within a critical section, iterators are read lazily, at
+ * constant memory, and must be consumed before the section is left.
+ * Critical sections are reentrant, but a thread within a read critical
+ * section cannot write.<br/>
  * {@code JenaSKOSThesaurus} also implements the Jena Model interface
  * ({@code com.hp.hpl.jena.rdf.model.Model}).
  * 
@@ -102,10 +138,33 @@ import java.util.TreeSet;
  */
 public class JenaSKOS implements SKOS, Model {
     
+    /**
+     * Number of times a concept hierarchy is built in parallel, without
+     * holding the read lock, before it is built within a read critical
+     * section (see {@link #getConceptHierarchy(SKOSConceptScheme, SKOSCollection, HierarchyMethod)})
+     */
+    private static final int HIERARCHY_ATTEMPTS = 3;
+    
+    /**
+     * Smallest number of concepts loaded in a single pass over the statements
+     * of the model rather than one lookup per concept (see
+     * {@link #loadConcepts(Collection)})
+     */
+    private static final int LOAD_SCAN_MIN_CONCEPTS = 1024;
+    
+    /**
+     * Largest number of statements of the model per concept to load for
+     * which concepts are loaded in a single pass over the statements of the
+     * model (see {@link #loadConcepts(Collection)})
+     */
+    private static final int LOAD_SCAN_MAX_RATIO = 8;
+    
     /**
      * Underlying Jena Model ({@code com.hp.hpl.jena.rdf.model.Model}) for this
      * {@code JenaSKOSThesaurus}. If this supports inferences, then the
-     * thesaurus will support inferences too.
+     * thesaurus will support inferences too. The wrapped model is accessed
+     * through a {@link ie.cmrc.smtx.jena.concurrent.LockingModel} that guards
+     * its graph with the lock of its data.
      */
     protected final Model model;
     
@@ -114,6 +173,30 @@ public class JenaSKOS implements SKOS, Model {
      */
     protected final Dataset dataset;
     
+    /**
+     * Whether the concepts of both a concept scheme and a collection are
+     * listed by SPARQL queries against {@link #dataset}
+     */
+    private volatile boolean queryPushdown;
+    
+    /**
+     * Whether hierarchy and membership queries are answered from the
+     * in-memory index of the structure of the thesaurus (see
+     * {@link #getIndex()})
+     */
+    private volatile boolean indexing = true;
+    
+    /**
+     * Index of the structure of the thesaurus, looked up on first use
+     */
+    private volatile StructureIndex structureIndex = null;
+    
+    /**
+     * Underlying graph if it stores each concept scheme in its own named
+     * graph, {@code null} otherwise
+     */
+    private final SchemePartitionedGraph schemeGraph;
+    
     /**
      * Constructs a {@link JenaSKOS} that wraps the provided Jena Model
      * ({@code com.hp.hpl.jena.rdf.model.Model})
@@ -123,15 +206,75 @@ public class JenaSKOS implements SKOS, Model {
      * @throws IllegalArgumentException if {@code model==null}
      */
     public JenaSKOS(Model model) {
-        this.model = model;
-        if (this.model == null) throw new IllegalArgumentException("JenaSKOSThesaurus constructor: Model argument must not be null");
+        if (model == null) throw new IllegalArgumentException("JenaSKOSThesaurus constructor: Model argument must not be null");
+        this.model = LockingModel.wrap(model, lockOwner(model.getGraph()));
         this.dataset = null;
+        this.schemeGraph = schemeGraphOf(model);
     }
 
+    /**
+     * Constructs a {@link JenaSKOS} that wraps the default model of the
+     * provided Jena Dataset ({@code com.hp.hpl.jena.query.Dataset})
+     * @param dataset Jena Dataset ({@code com.hp.hpl.jena.query.Dataset}) to
+     * wrap as a {@link ie.cmrc.skos.core.SKOS}
+     * @throws IllegalArgumentException if {@code dataset==null} or it has no
+     * default model
+     */
     public JenaSKOS(Dataset dataset) {
+        if (dataset == null) throw new IllegalArgumentException("JenaSKOSThesaurus constructor: Dataset argument must not be null");
+        this.dataset = dataset;
+        Model defaultModel = dataset.getDefaultModel();
+        if (defaultModel == null) throw new IllegalArgumentException("JenaSKOSThesaurus constructor: Model argument must not be null");
+        this.model = LockingModel.wrap(defaultModel, lockOwner(defaultModel.getGraph()));
+        this.queryPushdown = true;
+        this.schemeGraph = null;
+    }
+
+    /**
+     * Constructs a {@link JenaSKOS} that wraps the provided view of the data
+     * of the provided Jena Dataset ({@code com.hp.hpl.jena.query.Dataset}),
+     * for example a model over a {@link SchemePartitionedGraph}
+     * @param dataset Jena Dataset ({@code com.hp.hpl.jena.query.Dataset})
+     * holding the data of {@code model}
+     * @param model Jena Model ({@code com.hp.hpl.jena.rdf.model.Model}) to
+     * wrap as a {@link ie.cmrc.skos.core.SKOS}
+     * @throws IllegalArgumentException if {@code dataset==null} or
+     * {@code model==null}
+     */
+    protected JenaSKOS(Dataset dataset, Model model) {
+        if (dataset == null) throw new IllegalArgumentException("JenaSKOSThesaurus constructor: Dataset argument must not be null");
+        if (model == null) throw new IllegalArgumentException("JenaSKOSThesaurus constructor: Model argument must not be null");
         this.dataset = dataset;
-        this.model = dataset.getDefaultModel();
-        if (this.model == null) throw new IllegalArgumentException("JenaSKOSThesaurus constructor: Model argument must not be null");
+        this.model = LockingModel.wrap(model, lockOwner(model.getGraph()));
+        this.queryPushdown = true;
+        this.schemeGraph = schemeGraphOf(model);
+    }
+    
+    /**
+     * Returns the graph of the provided model if it stores each concept
+     * scheme in its own named graph
+     * @param model Jena model
+     * @return Graph of {@code model} if it is a {@link SchemePartitionedGraph},
+     * {@code null} otherwise
+     */
+    static SchemePartitionedGraph schemeGraphOf(Model model) {
+        Graph graph = model.getGraph();
+        if (graph instanceof LockingGraph) graph = ((LockingGraph) graph).getBase();
+        return (graph instanceof SchemePartitionedGraph) ? (SchemePartitionedGraph) graph : null;
+    }
+    
+    /**
+     * Returns the owner of the data of the provided graph, whose lock guards
+     * the graph. The graphs of a TDB dataset share the lock of the dataset,
+     * so that all the thesauri opened on the same TDB directory within a JVM
+     * synchronise on the same lock.
+     * @param graph Jena graph
+     * @return Owner of the data of {@code graph}
+     */
+    private static Object lockOwner(Graph graph) {
+        if (graph instanceof GraphTDB) return ((GraphTDB) graph).getDataset();
+        if (graph instanceof SchemePartitionedGraph) return ((SchemePartitionedGraph) graph).getDataset();
+        return graph;
     }
     
     /**
@@ -150,66 +293,532 @@ public class JenaSKOS implements SKOS, Model {
         return this.dataset;
     }
     
+    /**
+     * Indicates whether the concepts belonging to both a concept scheme and a
+     * collection are listed by SPARQL queries against the underlying dataset
+     * when the index of the thesaurus is not available (see
+     * {@link #getIndex()}), rather than by filtering the statements of the
+     * model one by one
+     * @return {@code true} if these listings are pushed down to the dataset
+     */
+    public boolean isQueryPushdown() {
+        return this.queryPushdown;
+    }
+    
+    /**
+     * Sets whether the concepts belonging to both a concept scheme and a
+     * collection are listed by SPARQL queries against the underlying dataset
+     * when the index of the thesaurus is not available (see
+     * {@link #getIndex()}). This is enabled by default when the thesaurus
+     * wraps a dataset, and has no effect otherwise.<br/>
+     * TDB joins the two memberships about twice as fast as a selector
+     * probing the collection membership of each concept of the scheme. Other
+     * queries are always answered by listing statements: the concepts of a
+     * single concept scheme or collection are a single index lookup, and
+     * relation queries only probe the memberships of a few related concepts,
+     * which is several times faster than compiling and executing a query.
+     * @param queryPushdown {@code true} to push these listings down to the
+     * dataset, {@code false} to filter statements in Java
+     * @return This thesaurus
+     */
+    public JenaSKOS setQueryPushdown(boolean queryPushdown) {
+        this.queryPushdown = queryPushdown && this.dataset != null;
+        return this;
+    }
+    
+    /**
+     * Indicates whether hierarchy and membership queries, such as listing the
+     * direct narrower concepts of a concept, are answered from an in-memory
+     * index of the structure of the thesaurus rather than by probing the
+     * model statement by statement (see {@link #getIndex()})
+     * @return {@code true} if queries are answered from the index
+     */
+    public boolean isIndexing() {
+        return this.indexing;
+    }
+    
+    /**
+     * Sets whether hierarchy and membership queries are answered from an
+     * in-memory index of the structure of the thesaurus. This is enabled by
+     * default. Disabling it saves the memory of the index, at the cost of
+     * probing the model for each query.
+     * @param indexing {@code true} to answer queries from the index,
+     * {@code false} to probe the model
+     * @return This thesaurus
+     */
+    public JenaSKOS setIndexing(boolean indexing) {
+        this.indexing = indexing;
+        return this;
+    }
+    
+    /**
+     * Returns the in-memory index of the structure of the thesaurus: its
+     * resources, relationships, concept scheme and collection memberships,
+     * without their annotations. The index is shared by all the thesauri
+     * wrapping the same graph, built on first use and rebuilt on the first
+     * use following a change of the data.
+     * @return Index of the current state of the thesaurus, or {@code null}
+     * if indexing is disabled (see {@link #setIndexing(boolean)}) or the
+     * index is not available, for example while the current thread holds
+     * the write lock or another thread is building the index. Callers then
+     * query the model.
+     */
+    protected SnapshotSKOS getIndex() {
+        if (!this.indexing) return null;
+        return this.structureIndex().get(this.model, this.dataLock());
+    }
+    
+    /**
+     * Sets the index of the structure of the thesaurus (see
+     * {@link #getIndex()}), for example an index persisted along with the
+     * data. The index is used until the data changes.
+     * @param index Index of the current state of the thesaurus
+     */
+    protected void setIndex(SnapshotSKOS index) {
+        this.structureIndex().set(index, this.dataLock());
+    }
+    
+    /**
+     * Returns the index of the structure of the graph of the thesaurus
+     * @return Index shared by all the thesauri wrapping the same graph
+     */
+    private StructureIndex structureIndex() {
+        StructureIndex index = this.structureIndex;
+        if (index == null) {
+            index = StructureIndex.forGraph(((LockingModel) this.model).getLockingGraph().getBase());
+            this.structureIndex = index;
+        }
+        return index;
+    }
+    
+    /**
+     * Reads the provided iterator into memory, so that the returned iterator
+     * holds the results of the read critical section of the current
+     * operation whatever the writers do afterwards. Iterators returned to a
+     * caller that is itself within a critical section are left as they are,
+     * since the caller keeps writers out until it leaves the section.
+     * @param <T> Type of the iterated elements
+     * @param iterator Iterator read within the read critical section of the
+     * current operation
+     * @return Iterator over the elements of {@code iterator}
+     */
+    private <T> CloseableIterator<T> detach(CloseableIterator<T> iterator) {
+        ReentrantMRSWLock lock = this.dataLock();
+        if (iterator == null || lock.isWriteLockedByCurrentThread() || lock.getReadHoldCount() > 1) return iterator;
+        final List<T> elements = new ArrayList<>();
+        try {
+            while (iterator.hasNext()) elements.add(iterator.next());
+        }
+        finally {
+            iterator.close();
+        }
+        return new CloseableIterator<T>() {
+            
+            private int position = 0;
+
+            @Override
+            public boolean hasNext() {
+                return this.position < elements.size();
+            }
+
+            @Override
+            public T next() {
+                if (!this.hasNext()) throw new NoSuchElementException("Iterator has no more elements!");
+                return elements.set(this.position++, null);
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("JenaSKOS: elements read ahead may not be removed");
+            }
+
+            @Override
+            public void close() {
+                this.position = elements.size();
+            }
+        };
+    }
+    
+    /**
+     * Returns the concepts of the thesaurus matching the provided concepts
+     * of its index
+     * @param concepts Concepts of the index (see {@link #getIndex()})
+     * @return List of the matching {@link JenaSKOSConcept}s, in the same
+     * order
+     */
+    private List<SKOSConcept> fromIndex(List<SKOSConcept> concepts) {
+        List<SKOSConcept> jenaConcepts = new ArrayList<>(concepts.size());
+        for (SKOSConcept concept: concepts) jenaConcepts.add(new JenaSKOSConcept(this.model.getResource(concept.getURI())));
+        return jenaConcepts;
+    }
+    
+    /**
+     * Returns an iterator over the concepts of the thesaurus matching the
+     * concepts of the provided iterator over its index
+     * @param concepts Iterator over concepts of the index (see
+     * {@link #getIndex()})
+     * @return Iterator over the matching {@link JenaSKOSConcept}s, in the same
+     * order
+     */
+    private CloseableIterator<SKOSConcept> fromIndex(final CloseableIterator<SKOSConcept> concepts) {
+        return new CloseableIterator<SKOSConcept>() {
+
+            @Override
+            public boolean hasNext() {
+                return concepts.hasNext();
+            }
+
+            @Override
+            public SKOSConcept next() {
+                return new JenaSKOSConcept(model.getResource(concepts.next().getURI()));
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("JenaSKOS: concepts read from the index may not be removed");
+            }
+
+            @Override
+            public void close() {
+                concepts.close();
+            }
+        };
+    }
+    
+    /**
+     * Lists the concepts of the provided concept scheme and collection from
+     * the membership bitmaps of the index of the thesaurus (see
+     * {@link #getIndex()})
+     * @param conceptScheme Concept scheme, or {@code null}
+     * @param skosCollection Collection, or {@code null}
+     * @return Iterator over the concepts belonging to both
+     * {@code conceptScheme} and {@code skosCollection}, or {@code null} if
+     * the index is not available or does not hold these resources with their
+     * SKOS types
+     */
+    private CloseableIterator<SKOSConcept> listIndexedConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        SnapshotSKOS index = this.getIndex();
+        if (index == null) return null;
+        SKOSConceptScheme indexedScheme = null;
+        if (conceptScheme != null) {
+            indexedScheme = index.getConceptScheme(conceptScheme.getURI());
+            if (indexedScheme == null) return null;
+        }
+        SKOSCollection indexedCollection = null;
+        if (skosCollection != null) {
+            indexedCollection = index.getCollection(skosCollection.getURI());
+            if (indexedCollection == null) return null;
+        }
+        return this.fromIndex(index.listConcepts(indexedScheme, indexedCollection));
+    }
+    
+    /**
+     * Wraps a single concept scheme or collection filter into a list
+     * @param resource Concept scheme or collection, or {@code null}
+     * @return List holding {@code resource}, or {@code null} if
+     * {@code resource} is {@code null}, meaning no filter
+     */
+    private static <T extends SKOSResource> List<T> singletonOrNull(T resource) {
+        if (resource == null) return null;
+        return Collections.singletonList(resource);
+    }
+    
+    /**
+     * Lists the targets or sources of the transitive hierarchical
+     * relationships of a concept from the reachability labelling of the index
+     * of the thesaurus (see {@link #getIndex()}). The index derives them from
+     * the direct relationships, so the transitive closure does not need to be
+     * materialised as triples in the model.
+     * @param concept Concept
+     * @param relationshipType Relationship type
+     * @param conceptSchemes Concept schemes the results belong to, or
+     * {@code null}
+     * @param skosCollections Collections the results belong to, or
+     * {@code null}
+     * @param sources {@code true} to list the sources of the relationships
+     * targeting {@code concept}, {@code false} to list the targets of the
+     * relationships of {@code concept}
+     * @return Iterator over the matching concepts, or {@code null} if
+     * {@code relationshipType} is neither
+     * {@link SKOSSemanticProperty#narrowerTransitive} nor
+     * {@link SKOSSemanticProperty#broaderTransitive}, or if the index is not
+     * available or does not hold these resources with their SKOS types
+     */
+    private CloseableIterator<SKOSConcept> listIndexedTransitiveRelations(SKOSResource concept, SKOSSemanticProperty relationshipType, Collection<SKOSConceptScheme> conceptSchemes, Collection<SKOSCollection> skosCollections, boolean sources) {
+        if (concept == null || (relationshipType != SKOSSemanticProperty.narrowerTransitive && relationshipType != SKOSSemanticProperty.broaderTransitive)) return null;
+        SnapshotSKOS index = this.getIndex();
+        if (index == null) return null;
+        SKOSConcept indexedConcept = index.getConcept(concept.getURI());
+        if (indexedConcept == null) return null;
+        if (conceptSchemes != null) {
+            for (SKOSConceptScheme conceptScheme: conceptSchemes) {
+                if (conceptScheme == null || index.getConceptScheme(conceptScheme.getURI()) == null) return null;
+            }
+        }
+        if (skosCollections != null) {
+            for (SKOSCollection collection: skosCollections) {
+                if (collection == null || index.getCollection(collection.getURI()) == null) return null;
+            }
+        }
+        if (sources) return this.fromIndex(index.listSemanticRelationshipSources(relationshipType, indexedConcept, conceptSchemes, skosCollections));
+        else return this.fromIndex(index.listSemanticRelations(indexedConcept, relationshipType, conceptSchemes, skosCollections));
+    }
+    
+    /**
+     * Returns a filter accepting the same statements as the provided concept
+     * scheme and collection filter, which reads the memberships from the
+     * bitmaps of the index of the thesaurus (see {@link #getIndex()}) rather
+     * than probing the model for each statement
+     * @param filter Concept scheme and collection filter probing the model
+     * @param subjects {@code true} if {@code filter} tests the subjects of the
+     * statements, {@code false} if it tests their objects
+     * @param conceptSchemes Concept schemes of {@code filter}, or {@code null}
+     * @param skosCollections Collections of {@code filter}, or {@code null}
+     * @return {@link IndexedMembershipFilter} equivalent to {@code filter}, or
+     * {@code filter} itself if the index is not available or does not hold
+     * the concept schemes and collections with their SKOS types
+     */
+    private StmtFilter withIndex(StmtFilter filter, boolean subjects, Collection<? extends SKOSResource> conceptSchemes, Collection<? extends SKOSResource> skosCollections) {
+        SnapshotSKOS index = this.getIndex();
+        if (index == null) return filter;
+        List<String> conceptSchemeURIs = null;
+        if (conceptSchemes != null && !conceptSchemes.isEmpty()) {
+            conceptSchemeURIs = new ArrayList<>(conceptSchemes.size());
+            for (SKOSResource conceptScheme: conceptSchemes) {
+                if (conceptScheme == null || index.getConceptScheme(conceptScheme.getURI()) == null) return filter;
+                conceptSchemeURIs.add(conceptScheme.getURI());
+            }
+        }
+        List<String> collectionURIs = null;
+        if (skosCollections != null && !skosCollections.isEmpty()) {
+            collectionURIs = new ArrayList<>(skosCollections.size());
+            for (SKOSResource collection: skosCollections) {
+                if (collection == null || index.getCollection(collection.getURI()) == null) return filter;
+                collectionURIs.add(collection.getURI());
+            }
+        }
+        return new IndexedMembershipFilter(index, subjects, conceptSchemeURIs, collectionURIs, filter);
+    }
+    
+    /**
+     * Indicates whether the statements of each concept scheme are stored in
+     * their own named graph (see {@link SchemePartitionedGraph}). If so,
+     * concept scheme scoped listings only read the graph of the concept
+     * scheme, and concept schemes may be cleared individually (see
+     * {@link #clearConceptScheme(java.lang.String)}).
+     * @return {@code true} if the thesaurus is stored in one named graph per
+     * concept scheme
+     */
+    public boolean usesSchemeGraphs() {
+        return this.schemeGraph != null;
+    }
+    
+    /**
+     * Removes all the statements of the named graph of the provided concept
+     * scheme, for example before reloading it. Resources that also belong to
+     * other concept schemes keep their statements in the graphs of those.
+     * @param conceptSchemeURI Concept scheme URI
+     * @return This thesaurus
+     * @throws IllegalArgumentException if {@code conceptSchemeURI} is
+     * {@code null}
+     * @throws UnsupportedOperationException if the thesaurus is not stored in
+     * one named graph per concept scheme (see {@link #usesSchemeGraphs()})
+     */
+    public JenaSKOS clearConceptScheme(String conceptSchemeURI) {
+        if (conceptSchemeURI == null) throw new IllegalArgumentException("JenaSKOS.clearConceptScheme: conceptSchemeURI argument must not be null");
+        if (this.schemeGraph == null) throw new UnsupportedOperationException("JenaSKOS.clearConceptScheme: the thesaurus is not stored in one named graph per concept scheme");
+        this.enterCriticalSection(Lock.WRITE);
+        try {
+            this.schemeGraph.clearConceptScheme(Node.createURI(conceptSchemeURI));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+        return this;
+    }
+    
+    /**
+     * Returns a model over the named graph of the provided concept scheme.
+     * The model shares the lock of the thesaurus.
+     * @param conceptScheme Concept scheme resource
+     * @return Model over the graph of {@code conceptScheme}, or {@code null}
+     * if the thesaurus is not stored in one named graph per concept scheme
+     */
+    private Model getConceptSchemeModel(Resource conceptScheme) {
+        if (this.schemeGraph == null) return null;
+        Model schemeModel = ModelFactory.createModelForGraph(this.schemeGraph.getConceptSchemeGraph(conceptScheme.asNode()));
+        return LockingModel.wrap(schemeModel, this.schemeGraph.getDataset());
+    }
+    
+    /**
+     * Attaches the statements of the provided iterator to the model of the
+     * thesaurus, so that the resources they hold are not bound to the graph
+     * they were read from
+     * @param iter Statement iterator
+     * @return Iterator over the same statements, attached to {@link #model}
+     */
+    private StmtIterator attach(StmtIterator iter) {
+        return new StmtIteratorImpl(iter.mapWith(new Map1<Statement, Statement>() {
+            @Override
+            public Statement map1(Statement statement) {
+                return model.asStatement(statement.asTriple());
+            }
+        }));
+    }
+    
     // ******** ******** ******** ******** ******** ******** ******** ********
     // Implementing the SKOSThesaurus interface
     // ******** ******** ******** ******** ******** ******** ******** ********
     
     /**
      * {@inheritDoc}<br/>
-     * This method is not supported yet. Please use {@linkplain #listConceptSchemes()},
-     * {@linkplain #listCollections()}, and {@linkplain #listConcepts()} instead
-     * for the time being.
-     * 
+     * Concept schemes are listed first, followed by collections and concepts.
+     * Resources are read lazily from the model, one type at a time, so that
+     * the iterator holds a single statement iterator at any time. A resource
+     * declared with several SKOS types is listed once per type.
      * @return {@inheritDoc}
      */
     @Override
     public CloseableIterator<SKOSResource> listSKOSResources() {
-        // TODO Implement this
-        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+        return this.listSKOSResources(null, null);
     }
-    
+
     /**
-     * {@inheritDoc}
+     * {@inheritDoc}<br/>
+     * Resources are assigned to partitions according to the hash code of
+     * their node (see {@link StmtSubjectPartitionFilter}), so that a URI
+     * resource always belongs to the same partition. Each partition reads
+     * the rdf:type statements of the requested type(s) lazily and skips the
+     * resources of the other partitions: the type statements are scanned
+     * once per partition, while the resources themselves are processed once
+     * overall.
+     * @param type {@inheritDoc}
+     * @param partition {@inheritDoc}
+     * @param partitions {@inheritDoc}
      * @return {@inheritDoc}
      */
     @Override
-    public List<SKOSResource> getSKOSResources() {
-        List<SKOSResource> skosResources = new ArrayList<>();
+    public CloseableIterator<SKOSResource> listSKOSResources(SKOSType type, int partition, int partitions) {
+        this.enterCriticalSection(Lock.READ);
+        try {
+            if (partitions < 1) throw new IllegalArgumentException("JenaSKOS.listSKOSResources: partitions argument must be positive");
+            if (partition < 0 || partition >= partitions) throw new IllegalArgumentException("JenaSKOS.listSKOSResources: partition argument must be between 0 and "+(partitions-1));
+            StmtFilter filter = (partitions > 1) ? new StmtSubjectPartitionFilter(partition, partitions) : null;
+            return this.detach(this.listSKOSResources(type, filter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+    }
+
+    /**
+     * Returns a closeable iterator over the SKOS resources of the provided
+     * type whose rdf:type statement is accepted by the provided filter. The
+     * statements of each SKOS type are only queried once those of the
+     * previous type have been exhausted.
+     * @param type Type of the resources to list. If {@code null}, then
+     * concept schemes, collections and concepts are listed, in this order.
+     * @param filter Filter over rdf:type statements. If {@code null}, then
+     * all the resources of the provided type are listed.
+     * @return {@link SKOSResource} iterator over the matching resources
+     */
+    private CloseableIterator<SKOSResource> listSKOSResources(SKOSType type, final StmtFilter filter) {
+        final SKOSType[] types = (type != null) ? new SKOSType[] {type} : new SKOSType[] {SKOSType.ConceptScheme, SKOSType.Collection, SKOSType.Concept};
         
-        if (this.model != null) {
-            Property rdfTypeProp = RDF.type;
+        return (new CloseableIterator<SKOSResource>() {
             
-            StmtIterator iter = this.model.listStatements((Resource)null, rdfTypeProp, (RDFNode)null);
+            int index = 0;
             
-            while (iter.hasNext()) {
-                Statement statement = iter.next();
-                Resource resource = statement.getSubject();
-                RDFNode object = statement.getObject();
-                if (object.isResource()) {
-                    String uri = ((Resource)object).getURI();
-                    SKOSType skosType = SKOSType.fromString(uri);
-                    SKOSResource skosResource;
-                    switch (skosType) {
-                        case Concept:
-                            skosResource = new JenaSKOSConcept(resource);
-                            break;
-                        case Collection:
-                            skosResource = new JenaSKOSCollection(resource);
-                            break;
-                        case ConceptScheme: 
-                            skosResource = new JenaSKOSConceptScheme(resource);
-                            break;
-                        default: 
-                            skosResource = null;
-                            break;
+            CloseableIterator<? extends SKOSResource> current = null;
+            
+            @Override
+            public boolean hasNext() {
+                while (current == null || !current.hasNext()) {
+                    if (current != null) {
+                        current.close();
+                        current = null;
                     }
-                    if (skosResource!=null && !skosResources.contains(skosResource)) skosResources.add(skosResource);       
+                    if (index >= types.length) return false;
+                    current = listSKOSResourcesOfType(types[index++], filter);
                 }
+                return true;
             }
-            iter.close();
+
+            @Override
+            public SKOSResource next() {
+                if (!this.hasNext()) throw new NoSuchElementException("Iterator has no more elements!");
+                return current.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException("Remove() is not supported by the SKOS resource iterator");
+            }
+
+            @Override
+            public void close() {
+                if (current != null) {
+                    current.close();
+                    current = null;
+                }
+                index = types.length;
+            }
+        });
+    }
+
+    /**
+     * Returns a closeable iterator over the SKOS resources of the provided
+     * type whose rdf:type statement is accepted by the provided filter
+     * @param type SKOS type
+     * @param filter Filter over rdf:type statements. If {@code null}, then
+     * all the resources of the provided type are listed.
+     * @return Iterator over the matching resources
+     */
+    private CloseableIterator<? extends SKOSResource> listSKOSResourcesOfType(SKOSType type, StmtFilter filter) {
+        Resource typeRes = this.getSKOSTypeResource(type);
+        if (typeRes == null) return new EmptyCloseableIterator<>();
+        
+        StmtIterator iter;
+        if (filter != null) iter = this.model.listStatements(new FilteredSelector((Resource)null, RDF.type, typeRes, filter));
+        else iter = this.model.listStatements((Resource)null, RDF.type, typeRes);
+        
+        switch (type) {
+            case ConceptScheme:
+                return SKOSResourceIterFactory.makeSKOSConceptSchemeIterOverSubjects(iter);
+            case Collection:
+                return SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter);
+            default:
+                return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
         }
+    }
+    
+    /**
+     * {@inheritDoc}<br/>
+     * Resources are listed in the order of {@link #listSKOSResources()},
+     * and resources declared with several SKOS types are only listed once.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSResource> getSKOSResources() {
+        this.enterCriticalSection(Lock.READ);
+        try {
+            List<SKOSResource> skosResources = new ArrayList<>();
+        
+            if (this.model != null) {
+                Set<Node> nodes = new HashSet<>();
+                CloseableIterator<SKOSResource> iter = this.listSKOSResources();
+                while (iter.hasNext()) {
+                    SKOSResource skosResource = iter.next();
+                    if (skosResource != null && nodes.add(((JenaSKOSResource)skosResource).asNode())) skosResources.add(skosResource);
+                }
+                iter.close();
+            }
         
-        return skosResources;
+            return skosResources;
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -219,11 +828,17 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public JenaSKOSResource getSKOSResource(String resourceURI) {
-        if (this.model!=null) {
-            Resource resource = this.model.getResource(resourceURI);
-            if (this.model.containsResource(resource) && this.getSKOSType(resource)!=null) return JenaSKOSResource.fromJenaResource(resource);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            if (this.model!=null) {
+                Resource resource = this.model.getResource(resourceURI);
+                if (this.model.containsResource(resource) && this.getSKOSType(resource)!=null) return JenaSKOSResource.fromJenaResource(resource);
+            }
+            return null;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return null;
     }
 
     /**
@@ -250,11 +865,17 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public SKOSType getSKOSResourceType(String resourceURI) {
-        if (this.model!=null) {
-            Resource resource = this.model.getResource(resourceURI);
-            if (this.model.containsResource(resource)) return this.getSKOSType(resource);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            if (this.model!=null) {
+                Resource resource = this.model.getResource(resourceURI);
+                if (this.model.containsResource(resource)) return this.getSKOSType(resource);
+            }
+            return null;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return null;
     }
     
     /**
@@ -298,54 +919,60 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConceptScheme> listConceptSchemes() {
-        Property rdfTypeProp = RDF.type;
-        Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.ConceptScheme);
-        final StmtIterator iter;
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Property rdfTypeProp = RDF.type;
+            Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.ConceptScheme);
+            final StmtIterator iter;
 
-        if (skosCSTypeRes != null) {
-            iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
-        }
-        else iter = null;
+            if (skosCSTypeRes != null) {
+                iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
+            }
+            else iter = null;
 
-        return SKOSResourceIterFactory.makeSKOSConceptSchemeIterOverSubjects(iter);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptSchemeIterOverSubjects(iter));
         
-//        return (new CloseableIterator<SKOSConceptScheme>() {
-//
-//            boolean isOpen= true;
-//
-//            @Override
-//            public boolean hasNext() {
-//                return (isOpen && iter!=null && iter.hasNext());
-//            }
-//
-//            @Override
-//            public SKOSConceptScheme next() {
-//                if (isOpen && iter!=null && iter.hasNext()) {
-//
-//                    Statement statement = iter.next();
-//                    Resource resource = statement.getSubject();
-//                    SKOSConceptScheme skosConceptScheme = new JenaSKOSConceptScheme(resource);
-//
-//                    if (!iter.hasNext()) {
-//                        isOpen = false;
-//                        iter.close();
-//                    }
-//                    return skosConceptScheme;
-//
-//                }
-//                else return null;
-//            }
-//
-//            @Override
-//            public void remove() {
-//                if (isOpen && iter!=null) iter.remove();
-//            }
-//
-//            @Override
-//            public void close() {
-//                if (isOpen && iter!=null) iter.close();
-//            }
-//        });
+    //        return (new CloseableIterator<SKOSConceptScheme>() {
+    //
+    //            boolean isOpen= true;
+    //
+    //            @Override
+    //            public boolean hasNext() {
+    //                return (isOpen && iter!=null && iter.hasNext());
+    //            }
+    //
+    //            @Override
+    //            public SKOSConceptScheme next() {
+    //                if (isOpen && iter!=null && iter.hasNext()) {
+    //
+    //                    Statement statement = iter.next();
+    //                    Resource resource = statement.getSubject();
+    //                    SKOSConceptScheme skosConceptScheme = new JenaSKOSConceptScheme(resource);
+    //
+    //                    if (!iter.hasNext()) {
+    //                        isOpen = false;
+    //                        iter.close();
+    //                    }
+    //                    return skosConceptScheme;
+    //
+    //                }
+    //                else return null;
+    //            }
+    //
+    //            @Override
+    //            public void remove() {
+    //                if (isOpen && iter!=null) iter.remove();
+    //            }
+    //
+    //            @Override
+    //            public void close() {
+    //                if (isOpen && iter!=null) iter.close();
+    //            }
+    //        });
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
     
     /**
@@ -354,24 +981,30 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSConceptScheme> getConceptSchemes() {
-        List<SKOSConceptScheme> conceptSchemes = new ArrayList<>();
+        this.enterCriticalSection(Lock.READ);
+        try {
+            List<SKOSConceptScheme> conceptSchemes = new ArrayList<>();
         
-        if (this.model != null) {
-            Property rdfTypeProp = RDF.type;
-            Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.ConceptScheme);
-            if (skosCSTypeRes != null) {
-                StmtIterator iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
-
-                while (iter.hasNext()) {
-                    Statement statement = iter.next();
-                    Resource resource = statement.getSubject();
-                    SKOSConceptScheme skosConceptScheme = new JenaSKOSConceptScheme(resource);
-                    if (!conceptSchemes.contains(skosConceptScheme)) conceptSchemes.add(skosConceptScheme);
+            if (this.model != null) {
+                Property rdfTypeProp = RDF.type;
+                Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.ConceptScheme);
+                if (skosCSTypeRes != null) {
+                    StmtIterator iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
+
+                    while (iter.hasNext()) {
+                        Statement statement = iter.next();
+                        Resource resource = statement.getSubject();
+                        SKOSConceptScheme skosConceptScheme = new JenaSKOSConceptScheme(resource);
+                        if (!conceptSchemes.contains(skosConceptScheme)) conceptSchemes.add(skosConceptScheme);
+                    }
+                    iter.close();
                 }
-                iter.close();
             }
+            return conceptSchemes;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return conceptSchemes;
     }
 
     /**
@@ -381,11 +1014,17 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public SKOSConceptScheme getConceptScheme(String conceptSchemeURI) {
-        if (this.model!=null) {
-            Resource resource = this.model.getResource(conceptSchemeURI);
-            return JenaSKOSResource.skosConcepSchemeFromJenaResource(resource);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            if (this.model!=null) {
+                Resource resource = this.model.getResource(conceptSchemeURI);
+                return JenaSKOSResource.skosConcepSchemeFromJenaResource(resource);
+            }
+            return null;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return null;
     }
 
     /**
@@ -408,54 +1047,60 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSCollection> listCollections() {
-        Property rdfTypeProp = RDF.type;
-        Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.Collection);
-        final StmtIterator iter;
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Property rdfTypeProp = RDF.type;
+            Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.Collection);
+            final StmtIterator iter;
 
-        if (skosCSTypeRes != null) {
-            iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
-        }
-        else iter = null;
+            if (skosCSTypeRes != null) {
+                iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
+            }
+            else iter = null;
 
-        return SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter);
+            return this.detach(SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter));
         
-//        return (new CloseableIterator<SKOSCollection>() {
-//
-//            boolean isOpen= true;
-//
-//            @Override
-//            public boolean hasNext() {
-//                return (isOpen && iter!=null && iter.hasNext());
-//            }
-//
-//            @Override
-//            public SKOSCollection next() {
-//                if (isOpen && iter!=null && iter.hasNext()) {
-//
-//                    Statement statement = iter.next();
-//                    Resource resource = statement.getSubject();
-//                    SKOSCollection skosCollection = new JenaSKOSCollection(resource);
-//
-//                    if (!iter.hasNext()) {
-//                        isOpen = false;
-//                        iter.close();
-//                    }
-//                    return skosCollection;
-//
-//                }
-//                else return null;
-//            }
-//
-//            @Override
-//            public void remove() {
-//                if (isOpen && iter!=null) iter.remove();
-//            }
-//
-//            @Override
-//            public void close() {
-//                if (isOpen && iter!=null) iter.close();
-//            }
-//        });
+    //        return (new CloseableIterator<SKOSCollection>() {
+    //
+    //            boolean isOpen= true;
+    //
+    //            @Override
+    //            public boolean hasNext() {
+    //                return (isOpen && iter!=null && iter.hasNext());
+    //            }
+    //
+    //            @Override
+    //            public SKOSCollection next() {
+    //                if (isOpen && iter!=null && iter.hasNext()) {
+    //
+    //                    Statement statement = iter.next();
+    //                    Resource resource = statement.getSubject();
+    //                    SKOSCollection skosCollection = new JenaSKOSCollection(resource);
+    //
+    //                    if (!iter.hasNext()) {
+    //                        isOpen = false;
+    //                        iter.close();
+    //                    }
+    //                    return skosCollection;
+    //
+    //                }
+    //                else return null;
+    //            }
+    //
+    //            @Override
+    //            public void remove() {
+    //                if (isOpen && iter!=null) iter.remove();
+    //            }
+    //
+    //            @Override
+    //            public void close() {
+    //                if (isOpen && iter!=null) iter.close();
+    //            }
+    //        });
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -465,20 +1110,35 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSCollection> listCollections(SKOSConceptScheme conceptScheme) {
-        Resource csRes = this.getJenaResource(conceptScheme);
-        if (conceptScheme==null || csRes!=null) {
-            if (csRes == null) return this.listCollections();
-            else {
-                // Iterate through collections and filter by concept scheme
-                StmtFilter filter = new StmtSubjectHasPropertyFilter(PropertyFactory.inScheme, csRes);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource csRes = this.getJenaResource(conceptScheme);
+            if (conceptScheme==null || csRes!=null) {
+                if (csRes == null) return this.detach(this.listCollections());
+                else if (this.schemeGraph != null) {
+                    // Iterate through the members of the concept scheme graph and filter by type
+                    StmtFilter filter = new StmtSubjectHasPropertyFilter(RDF.type, TypeResourceFactory.COLLECTION);
 
-                Selector filteredSelector = new FilteredSelector((Resource)null, RDF.type, TypeResourceFactory.COLLECTION, filter);
+                    Selector filteredSelector = new FilteredSelector((Resource)null, PropertyFactory.inScheme, csRes, filter);
 
-                StmtIterator iter = this.model.listStatements(filteredSelector);
-                return SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter);
+                    StmtIterator iter = this.getConceptSchemeModel(csRes).listStatements(filteredSelector);
+                    return this.detach(SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(this.attach(iter)));
+                }
+                else {
+                    // Iterate through collections and filter by concept scheme
+                    StmtFilter filter = new StmtSubjectHasPropertyFilter(PropertyFactory.inScheme, csRes);
+
+                    Selector filteredSelector = new FilteredSelector((Resource)null, RDF.type, TypeResourceFactory.COLLECTION, filter);
+
+                    StmtIterator iter = this.model.listStatements(filteredSelector);
+                    return this.detach(SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter));
+                }
             }
+            else return new EmptyCloseableIterator<>();
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new EmptyCloseableIterator<>();
     }
 
     /**
@@ -488,20 +1148,26 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSCollection> listCollections(SKOSCollection skosCollection) {
-        Resource collRes = this.getJenaResource(skosCollection);
-        if (skosCollection==null || collRes!=null) {
-            if (collRes == null) return this.listCollections();
-            else {
-                // Iterate through collections and filter by parent collection
-                StmtFilter filter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource collRes = this.getJenaResource(skosCollection);
+            if (skosCollection==null || collRes!=null) {
+                if (collRes == null) return this.detach(this.listCollections());
+                else {
+                    // Iterate through collections and filter by parent collection
+                    StmtFilter filter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
 
-                Selector filteredSelector = new FilteredSelector((Resource)null, RDF.type, TypeResourceFactory.COLLECTION, filter);
+                    Selector filteredSelector = new FilteredSelector((Resource)null, RDF.type, TypeResourceFactory.COLLECTION, filter);
 
-                StmtIterator iter = this.model.listStatements(filteredSelector);
-                return SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter);
+                    StmtIterator iter = this.model.listStatements(filteredSelector);
+                    return this.detach(SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter));
+                }
             }
+            else return new EmptyCloseableIterator<>();
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new EmptyCloseableIterator<>();
     }
 
     /**
@@ -512,29 +1178,35 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSCollection> listCollections(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        Resource csRes = this.getSKOSResource(conceptScheme);
-        if (conceptScheme==null || csRes!=null) {
-            if (csRes != null) {
-                Resource collRes = this.getSKOSResource(skosCollection);
-                if (skosCollection==null || collRes!=null) {
-                    if (collRes != null) {
-                        StmtFilter csFilter = new StmtSubjectHasPropertyFilter(PropertyFactory.inScheme, csRes);
-                        StmtFilter collFilter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
-                        StmtFilter filter = new AndStmtFilter(collFilter);
-                        ((AndStmtFilter)filter).add(csFilter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource csRes = this.getSKOSResource(conceptScheme);
+            if (conceptScheme==null || csRes!=null) {
+                if (csRes != null) {
+                    Resource collRes = this.getSKOSResource(skosCollection);
+                    if (skosCollection==null || collRes!=null) {
+                        if (collRes != null) {
+                            StmtFilter csFilter = new StmtSubjectHasPropertyFilter(PropertyFactory.inScheme, csRes);
+                            StmtFilter collFilter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
+                            StmtFilter filter = new AndStmtFilter(collFilter);
+                            ((AndStmtFilter)filter).add(csFilter);
 
-                        Selector filteredSelector = new FilteredSelector((Resource)null, RDF.type, TypeResourceFactory.COLLECTION, filter);
+                            Selector filteredSelector = new FilteredSelector((Resource)null, RDF.type, TypeResourceFactory.COLLECTION, filter);
 
-                        StmtIterator iter = this.model.listStatements(filteredSelector);
-                        return SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter);
+                            StmtIterator iter = this.model.listStatements(filteredSelector);
+                            return this.detach(SKOSResourceIterFactory.makeSKOSCollectionIterOverSubjects(iter));
+                        }
+                        else return this.detach(this.listCollections(conceptScheme));
                     }
-                    else return this.listCollections(conceptScheme);
+                    else return new EmptyCloseableIterator<>();
                 }
-                else return new EmptyCloseableIterator<>();
+                else return this.detach(this.listCollections(skosCollection));
             }
-            else return this.listCollections(skosCollection);
+            else return new EmptyCloseableIterator<>();
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new EmptyCloseableIterator<>();
     }
 
     /**
@@ -543,24 +1215,30 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSCollection> getCollections() {
-        List<SKOSCollection> collections = new ArrayList<>();
+        this.enterCriticalSection(Lock.READ);
+        try {
+            List<SKOSCollection> collections = new ArrayList<>();
         
-        if (this.model != null) {
-            Property rdfTypeProp = RDF.type;
-            Resource skosCollectionTypeRes = this.getSKOSTypeResource(SKOSType.Collection);
-            if (skosCollectionTypeRes != null) {
-                StmtIterator iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCollectionTypeRes);
-
-                while (iter.hasNext()) {
-                    Statement statement = iter.next();
-                    Resource resource = statement.getSubject();
-                    SKOSCollection skosCollection = new JenaSKOSCollection(resource);
-                    collections.add(skosCollection);
+            if (this.model != null) {
+                Property rdfTypeProp = RDF.type;
+                Resource skosCollectionTypeRes = this.getSKOSTypeResource(SKOSType.Collection);
+                if (skosCollectionTypeRes != null) {
+                    StmtIterator iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCollectionTypeRes);
+
+                    while (iter.hasNext()) {
+                        Statement statement = iter.next();
+                        Resource resource = statement.getSubject();
+                        SKOSCollection skosCollection = new JenaSKOSCollection(resource);
+                        collections.add(skosCollection);
+                    }
+                    iter.close();
                 }
-                iter.close();
             }
+            return collections;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return collections;
     }
     
     
@@ -573,12 +1251,18 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public SKOSCollection getCollection(String collectionURI) {
-        if (this.model!=null) {
-            Resource resource = this.model.getResource(collectionURI);
-            SKOSCollection coll = JenaSKOSResource.skosCollectionFromJenaResource(resource);
-            return JenaSKOSResource.skosCollectionFromJenaResource(resource);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            if (this.model!=null) {
+                Resource resource = this.model.getResource(collectionURI);
+                SKOSCollection coll = JenaSKOSResource.skosCollectionFromJenaResource(resource);
+                return JenaSKOSResource.skosCollectionFromJenaResource(resource);
+            }
+            return null;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return null;
     }
 
     /**
@@ -601,56 +1285,62 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listConcepts() {
-        Property rdfTypeProp = RDF.type;
-        Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.Concept);
-        final StmtIterator iter;
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Property rdfTypeProp = RDF.type;
+            Resource skosCSTypeRes = this.getSKOSTypeResource(SKOSType.Concept);
+            final StmtIterator iter;
 
         
         
-        if (skosCSTypeRes != null) {
-            iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
-        }
-        else iter = null;
+            if (skosCSTypeRes != null) {
+                iter = this.model.listStatements((Resource)null, rdfTypeProp, skosCSTypeRes);
+            }
+            else iter = null;
 
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
         
-//        return (new CloseableIterator<SKOSConcept>() {
-//
-//            boolean isOpen= true;
-//
-//            @Override
-//            public boolean hasNext() {
-//                return (isOpen && iter!=null && iter.hasNext());
-//            }
-//
-//            @Override
-//            public SKOSConcept next() {
-//                if (isOpen && iter!=null && iter.hasNext()) {
-//
-//                    Statement statement = iter.next();
-//                    Resource resource = statement.getSubject();
-//                    SKOSConcept skosCollection = new JenaSKOSConcept(resource);
-//
-//                    if (!iter.hasNext()) {
-//                        isOpen = false;
-//                        iter.close();
-//                    }
-//                    return skosCollection;
-//
-//                }
-//                else return null;
-//            }
-//
-//            @Override
-//            public void remove() {
-//                if (isOpen && iter!=null) iter.remove();
-//            }
-//
-//            @Override
-//            public void close() {
-//                if (isOpen && iter!=null) iter.close();
-//            }
-//        });
+    //        return (new CloseableIterator<SKOSConcept>() {
+    //
+    //            boolean isOpen= true;
+    //
+    //            @Override
+    //            public boolean hasNext() {
+    //                return (isOpen && iter!=null && iter.hasNext());
+    //            }
+    //
+    //            @Override
+    //            public SKOSConcept next() {
+    //                if (isOpen && iter!=null && iter.hasNext()) {
+    //
+    //                    Statement statement = iter.next();
+    //                    Resource resource = statement.getSubject();
+    //                    SKOSConcept skosCollection = new JenaSKOSConcept(resource);
+    //
+    //                    if (!iter.hasNext()) {
+    //                        isOpen = false;
+    //                        iter.close();
+    //                    }
+    //                    return skosCollection;
+    //
+    //                }
+    //                else return null;
+    //            }
+    //
+    //            @Override
+    //            public void remove() {
+    //                if (isOpen && iter!=null) iter.remove();
+    //            }
+    //
+    //            @Override
+    //            public void close() {
+    //                if (isOpen && iter!=null) iter.close();
+    //            }
+    //        });
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -660,23 +1350,39 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listConcepts(SKOSConceptScheme conceptScheme) {
+        this.enterCriticalSection(Lock.READ);
+        try {
         
-        Resource csRes = this.getJenaResource(conceptScheme);
-        if (conceptScheme==null || csRes!=null) {
-            if (csRes == null) return this.listConcepts();
-            else {
-                Property property = PropertyFactory.inScheme;
-                Property filterProperty = RDF.type;
-                Resource filterObject = TypeResourceFactory.CONCEPT;
-                StmtFilter filter = new StmtSubjectHasPropertyFilter(filterProperty, filterObject);
+            Resource csRes = this.getJenaResource(conceptScheme);
+            if (conceptScheme==null || csRes!=null) {
+                if (csRes == null) return this.detach(this.listConcepts());
+                CloseableIterator<SKOSConcept> indexed = this.listIndexedConcepts(conceptScheme, null);
+                if (indexed != null) return this.detach(indexed);
+                else if (this.schemeGraph != null) {
+                    StmtFilter filter = new StmtSubjectHasPropertyFilter(RDF.type, TypeResourceFactory.CONCEPT);
 
-                Selector filteredSelector = new FilteredSelector((Resource)null, property, csRes, filter);
+                    Selector filteredSelector = new FilteredSelector((Resource)null, PropertyFactory.inScheme, csRes, filter);
 
-                StmtIterator iter = this.model.listStatements(filteredSelector);
-                return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
+                    StmtIterator iter = this.getConceptSchemeModel(csRes).listStatements(filteredSelector);
+                    return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(this.attach(iter)));
+                }
+                else {
+                    Property property = PropertyFactory.inScheme;
+                    Property filterProperty = RDF.type;
+                    Resource filterObject = TypeResourceFactory.CONCEPT;
+                    StmtFilter filter = new StmtSubjectHasPropertyFilter(filterProperty, filterObject);
+
+                    Selector filteredSelector = new FilteredSelector((Resource)null, property, csRes, filter);
+
+                    StmtIterator iter = this.model.listStatements(filteredSelector);
+                    return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
+                }
             }
+            else return new EmptyCloseableIterator<>();
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new EmptyCloseableIterator<>();
     }
 
     /**
@@ -686,22 +1392,30 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listConcepts(SKOSCollection skosCollection) {
-        Resource collRes = this.getJenaResource(skosCollection);
-        if (skosCollection==null || collRes!=null) {
-            if (collRes == null) return this.listConcepts();
-            else {
-                Property property = PropertyFactory.member;
-                Property filterProperty = RDF.type;
-                Resource filterObject = TypeResourceFactory.CONCEPT;
-                StmtFilter filter = new StmtObjectHasPropertyFilter(filterProperty, filterObject);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource collRes = this.getJenaResource(skosCollection);
+            if (skosCollection==null || collRes!=null) {
+                if (collRes == null) return this.detach(this.listConcepts());
+                CloseableIterator<SKOSConcept> indexed = this.listIndexedConcepts(null, skosCollection);
+                if (indexed != null) return this.detach(indexed);
+                else {
+                    Property property = PropertyFactory.member;
+                    Property filterProperty = RDF.type;
+                    Resource filterObject = TypeResourceFactory.CONCEPT;
+                    StmtFilter filter = new StmtObjectHasPropertyFilter(filterProperty, filterObject);
 
-                Selector filteredSelector = new FilteredSelector(collRes, property, (RDFNode)null, filter);
+                    Selector filteredSelector = new FilteredSelector(collRes, property, (RDFNode)null, filter);
 
-                StmtIterator iter = this.model.listStatements(filteredSelector);
-                return SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(iter);
+                    StmtIterator iter = this.model.listStatements(filteredSelector);
+                    return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(iter));
+                }
             }
+            else return new EmptyCloseableIterator<>();
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new EmptyCloseableIterator<>();
     }
 
     /**
@@ -712,30 +1426,42 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        Resource csRes = this.getSKOSResource(conceptScheme);
-        if (conceptScheme==null || csRes!=null) {
-            if (csRes != null) {
-                Resource collRes = this.getSKOSResource(skosCollection);
-                if (skosCollection==null || collRes!=null) {
-                    if (collRes != null) {
-                        StmtFilter typeFilter = new StmtSubjectHasPropertyFilter(RDF.type, TypeResourceFactory.CONCEPT);
-                        StmtFilter collFilter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
-                        StmtFilter filter = new AndStmtFilter(collFilter);
-                        ((AndStmtFilter)filter).add(typeFilter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource csRes = this.getSKOSResource(conceptScheme);
+            if (conceptScheme==null || csRes!=null) {
+                if (csRes != null) {
+                    Resource collRes = this.getSKOSResource(skosCollection);
+                    if (skosCollection==null || collRes!=null) {
+                        CloseableIterator<SKOSConcept> indexed = (collRes != null) ? this.listIndexedConcepts(conceptScheme, skosCollection) : null;
+                        if (indexed != null) return this.detach(indexed);
+                        else if (collRes != null && this.queryPushdown) {
+                            StmtIterator iter = FilteredQuery.subjectsOf(PropertyFactory.inScheme, csRes).withType(TypeResourceFactory.CONCEPT).inCollections(Collections.singletonList(collRes)).execute(this.dataset, this.model);
+                            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
+                        }
+                        else if (collRes != null) {
+                            StmtFilter typeFilter = new StmtSubjectHasPropertyFilter(RDF.type, TypeResourceFactory.CONCEPT);
+                            StmtFilter collFilter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
+                            StmtFilter filter = new AndStmtFilter(collFilter);
+                            ((AndStmtFilter)filter).add(typeFilter);
 
-                        Selector filteredSelector = new FilteredSelector((Resource)null, PropertyFactory.inScheme, csRes, filter);
+                            Selector filteredSelector = new FilteredSelector((Resource)null, PropertyFactory.inScheme, csRes, filter);
 
-                        StmtIterator iter = this.model.listStatements(filteredSelector);
+                            StmtIterator iter = this.model.listStatements(filteredSelector);
                         
-                        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
+                            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
+                        }
+                        else return this.detach(this.listConcepts(conceptScheme));
                     }
-                    else return this.listConcepts(conceptScheme);
+                    else return new EmptyCloseableIterator<>();
                 }
-                else return new EmptyCloseableIterator<>();
+                else return this.detach(this.listConcepts(skosCollection));
             }
-            else return this.listConcepts(skosCollection);
+            else return new EmptyCloseableIterator<>();
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new EmptyCloseableIterator<>();
     }
 
     /**
@@ -746,29 +1472,41 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listConcepts(SKOSCollection skosCollection, SKOSConceptScheme conceptScheme) {
-        Resource collRes = this.getSKOSResource(skosCollection);
-        if (skosCollection==null || collRes!=null) {
-            if (collRes != null) {
-                Resource csRes = this.getSKOSResource(conceptScheme);
-                if (conceptScheme==null || csRes!=null) {
-                    if (csRes != null) {
-                        StmtFilter typeFilter = new StmtObjectHasPropertyFilter(RDF.type, TypeResourceFactory.CONCEPT);
-                        StmtFilter csFilter = new StmtObjectHasPropertyFilter(PropertyFactory.inScheme, csRes);
-                        StmtFilter filter = new AndStmtFilter(csFilter);
-                        ((AndStmtFilter)filter).add(typeFilter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource collRes = this.getSKOSResource(skosCollection);
+            if (skosCollection==null || collRes!=null) {
+                if (collRes != null) {
+                    Resource csRes = this.getSKOSResource(conceptScheme);
+                    if (conceptScheme==null || csRes!=null) {
+                        CloseableIterator<SKOSConcept> indexed = (csRes != null) ? this.listIndexedConcepts(conceptScheme, skosCollection) : null;
+                        if (indexed != null) return this.detach(indexed);
+                        else if (csRes != null && this.queryPushdown) {
+                            StmtIterator iter = FilteredQuery.objectsOf(collRes, PropertyFactory.member).withType(TypeResourceFactory.CONCEPT).inSchemes(Collections.singletonList(csRes)).execute(this.dataset, this.model);
+                            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(iter));
+                        }
+                        else if (csRes != null) {
+                            StmtFilter typeFilter = new StmtObjectHasPropertyFilter(RDF.type, TypeResourceFactory.CONCEPT);
+                            StmtFilter csFilter = new StmtObjectHasPropertyFilter(PropertyFactory.inScheme, csRes);
+                            StmtFilter filter = new AndStmtFilter(csFilter);
+                            ((AndStmtFilter)filter).add(typeFilter);
 
-                        Selector filteredSelector = new FilteredSelector(collRes, PropertyFactory.inScheme, (RDFNode)null, filter);
+                            Selector filteredSelector = new FilteredSelector(collRes, PropertyFactory.member, (RDFNode)null, filter);
 
-                        StmtIterator iter = this.model.listStatements(filteredSelector);
-                        return SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(iter);
+                            StmtIterator iter = this.model.listStatements(filteredSelector);
+                            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(iter));
+                        }
+                        else return this.detach(this.listConcepts(skosCollection));
                     }
-                    else return this.listConcepts(skosCollection);
+                    else return new EmptyCloseableIterator<>();
                 }
-                else return new EmptyCloseableIterator<>();
+                else return this.detach(this.listConcepts(conceptScheme));
             }
-            else return this.listConcepts(conceptScheme);
+            else return new EmptyCloseableIterator<>();
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new EmptyCloseableIterator<>();
     }
     
     
@@ -778,24 +1516,30 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSConcept> getConcepts() {
-        List<SKOSConcept> concepts = new ArrayList<>();
+        this.enterCriticalSection(Lock.READ);
+        try {
+            List<SKOSConcept> concepts = new ArrayList<>();
         
-        if (this.model != null) {
-            Property rdfTypeProp = RDF.type;
-            Resource skosConceptTypeRes = this.getSKOSTypeResource(SKOSType.Concept);
-            if (skosConceptTypeRes != null) {
-                StmtIterator iter = this.model.listStatements((Resource)null, rdfTypeProp, skosConceptTypeRes);
-
-                while (iter.hasNext()) {
-                    Statement statement = iter.next();
-                    Resource resource = statement.getSubject();
-                    SKOSConcept skosConcept = new JenaSKOSConcept(resource);
-                    concepts.add(skosConcept);
+            if (this.model != null) {
+                Property rdfTypeProp = RDF.type;
+                Resource skosConceptTypeRes = this.getSKOSTypeResource(SKOSType.Concept);
+                if (skosConceptTypeRes != null) {
+                    StmtIterator iter = this.model.listStatements((Resource)null, rdfTypeProp, skosConceptTypeRes);
+
+                    while (iter.hasNext()) {
+                        Statement statement = iter.next();
+                        Resource resource = statement.getSubject();
+                        SKOSConcept skosConcept = new JenaSKOSConcept(resource);
+                        concepts.add(skosConcept);
+                    }
+                    iter.close();
                 }
-                iter.close();
             }
+            return concepts;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return concepts;
     }
 
     /**
@@ -805,11 +1549,36 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public SKOSConcept getConcept(String conceptURI) {
-        if (this.model!=null) {
-            Resource resource = this.model.getResource(conceptURI);
-            return JenaSKOSResource.skosConceptFromJenaResource(resource);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            if (this.model!=null) {
+                Resource resource = this.model.getResource(conceptURI);
+                return JenaSKOSResource.skosConceptFromJenaResource(resource);
+            }
+            else return null;
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Each concept is loaded with a single scan of its statements in the
+     * underlying model, which serves both to check its type and to answer
+     * later reads of its annotations and relations.
+     * @param conceptURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConcepts(Collection<String> conceptURIs) {
+        this.enterCriticalSection(Lock.READ);
+        try {
+            return new ArrayList<SKOSConcept>(this.loadConcepts(conceptURIs));
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return null;
     }
 
     /**
@@ -837,20 +1606,28 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSConcept concept, SKOSSemanticProperty relationshipType) {
-        StmtIterator iter;
-        if (concept!=null && relationshipType!=null) {
-
-            Property property = this.getProperty(relationshipType);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            CloseableIterator<SKOSConcept> indexed = this.listIndexedTransitiveRelations(concept, relationshipType, null, null, false);
+            if (indexed != null) return this.detach(indexed);
+            StmtIterator iter;
+            if (concept!=null && relationshipType!=null) {
+
+                Property property = this.getProperty(relationshipType);
             
-            if (property!=null) {
-                Resource conceptRes = this.getJenaResource(concept);
-                iter = conceptRes.listProperties(property);
+                if (property!=null) {
+                    Resource conceptRes = this.getJenaResource(concept);
+                    iter = conceptRes.listProperties(property);
+                }
+                else iter = null;
             }
             else iter = null;
-        }
-        else iter = null;
         
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(iter);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(iter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -875,9 +1652,17 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSConcept concept, SKOSSemanticProperty relationshipType, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        Resource conceptRes = this.getJenaResource(concept);
-        StmtIterator stmtIter = this.getRelationIter(conceptRes, relationshipType, conceptScheme, skosCollection);
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(stmtIter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            CloseableIterator<SKOSConcept> indexed = this.listIndexedTransitiveRelations(concept, relationshipType, singletonOrNull(conceptScheme), singletonOrNull(skosCollection), false);
+            if (indexed != null) return this.detach(indexed);
+            Resource conceptRes = this.getJenaResource(concept);
+            StmtIterator stmtIter = this.getRelationIter(conceptRes, relationshipType, conceptScheme, skosCollection);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(stmtIter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -890,9 +1675,17 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSConcept concept, SKOSSemanticProperty relationshipType, Collection<SKOSConceptScheme> conceptSchemes, Collection<SKOSCollection> skosCollections) {
-        Resource conceptRes = this.getJenaResource(concept);
-        StmtIterator stmtIter = this.getRelationIter(conceptRes, relationshipType, conceptSchemes, skosCollections);
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(stmtIter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            CloseableIterator<SKOSConcept> indexed = this.listIndexedTransitiveRelations(concept, relationshipType, conceptSchemes, skosCollections, false);
+            if (indexed != null) return this.detach(indexed);
+            Resource conceptRes = this.getJenaResource(concept);
+            StmtIterator stmtIter = this.getRelationIter(conceptRes, relationshipType, conceptSchemes, skosCollections);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverObjects(stmtIter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -903,20 +1696,28 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSResource targetResource) {
-        StmtIterator iter;
-        if (targetResource!=null && relationshipType!=null) {
-
-            Property property = this.getProperty(relationshipType);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            CloseableIterator<SKOSConcept> indexed = this.listIndexedTransitiveRelations(targetResource, relationshipType, null, null, true);
+            if (indexed != null) return this.detach(indexed);
+            StmtIterator iter;
+            if (targetResource!=null && relationshipType!=null) {
+
+                Property property = this.getProperty(relationshipType);
             
-            if (property!=null) {
-                Resource conceptRes = this.getJenaResource(targetResource);
-                iter = this.listStatements((Resource)null, property, conceptRes);
+                if (property!=null) {
+                    Resource conceptRes = this.getJenaResource(targetResource);
+                    iter = this.listStatements((Resource)null, property, conceptRes);
+                }
+                else iter = null;
             }
             else iter = null;
-        }
-        else iter = null;
         
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -941,9 +1742,17 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSConcept targetConcept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        Resource conceptRes = this.getJenaResource(targetConcept);
-        StmtIterator stmtIter = this.getRelationshipSourceIter(conceptRes, relationshipType, conceptScheme, skosCollection);
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(stmtIter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            CloseableIterator<SKOSConcept> indexed = this.listIndexedTransitiveRelations(targetConcept, relationshipType, singletonOrNull(conceptScheme), singletonOrNull(skosCollection), true);
+            if (indexed != null) return this.detach(indexed);
+            Resource conceptRes = this.getJenaResource(targetConcept);
+            StmtIterator stmtIter = this.getRelationshipSourceIter(conceptRes, relationshipType, conceptScheme, skosCollection);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(stmtIter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -968,9 +1777,17 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSConcept targetConcept, Collection<SKOSConceptScheme> conceptSchemes, Collection<SKOSCollection> skosCollections) {
-        Resource conceptRes = this.getJenaResource(targetConcept);
-        StmtIterator stmtIter = this.getRelationshipSourceIter(conceptRes, relationshipType, conceptSchemes, skosCollections);
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(stmtIter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            CloseableIterator<SKOSConcept> indexed = this.listIndexedTransitiveRelations(targetConcept, relationshipType, conceptSchemes, skosCollections, true);
+            if (indexed != null) return this.detach(indexed);
+            Resource conceptRes = this.getJenaResource(targetConcept);
+            StmtIterator stmtIter = this.getRelationshipSourceIter(conceptRes, relationshipType, conceptSchemes, skosCollections);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(stmtIter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -979,8 +1796,14 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listTopConcepts() {
-        StmtIterator iter = this.listStatements((Resource)null, PropertyFactory.topConceptOf, (RDFNode)null);
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            StmtIterator iter = this.listStatements((Resource)null, PropertyFactory.topConceptOf, (RDFNode)null);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -990,9 +1813,15 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listTopConcepts(SKOSConceptScheme conceptScheme) {
-        Resource csRes = this.getJenaResource(conceptScheme);
-        StmtIterator iter = this.listStatements((Resource)null, PropertyFactory.topConceptOf, csRes);
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource csRes = this.getJenaResource(conceptScheme);
+            StmtIterator iter = this.listStatements((Resource)null, PropertyFactory.topConceptOf, csRes);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -1003,19 +1832,25 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public CloseableIterator<SKOSConcept> listTopConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        Resource csRes = this.getJenaResource(conceptScheme);
-        Resource collRes = this.getJenaResource(skosCollection);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource csRes = this.getJenaResource(conceptScheme);
+            Resource collRes = this.getJenaResource(skosCollection);
         
-        StmtFilter filter = null;
-        if (collRes != null) {
-            filter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
-        }
-        Selector selector  = new SimpleSelector((Resource)null, PropertyFactory.topConceptOf, csRes);
-        if (filter != null) selector = new FilteredSelector(selector, filter);
+            StmtFilter filter = null;
+            if (collRes != null) {
+                filter = new StmtSubjectIsPropertyOfFilter(collRes, PropertyFactory.member);
+            }
+            Selector selector  = new SimpleSelector((Resource)null, PropertyFactory.topConceptOf, csRes);
+            if (filter != null) selector = new FilteredSelector(selector, filter);
         
-        StmtIterator iter = this.listStatements(selector);
+            StmtIterator iter = this.listStatements(selector);
         
-        return SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter);
+            return this.detach(SKOSResourceIterFactory.makeSKOSConceptIterOverSubjects(iter));
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
     }
 
     /**
@@ -1024,17 +1859,26 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSConcept> getBroadestConcepts() {
-        List<SKOSConcept> broadest = new ArrayList<>();
+        this.enterCriticalSection(Lock.READ);
+        try {
+            List<SKOSConcept> indexed = this.getIndexedBroadestConcepts(null, null);
+            if (indexed != null) return indexed;
         
-        CloseableIterator<SKOSConcept> iter = this.listConcepts();
-        while(iter.hasNext()) {
-            SKOSConcept concept = iter.next();
-            if (concept != null) {
-                if (!this.conceptHasBroaderConcepts((JenaSKOSConcept)concept, null, null)) broadest.add(concept);
+            List<SKOSConcept> broadest = new ArrayList<>();
+        
+            CloseableIterator<SKOSConcept> iter = this.listConcepts();
+            while(iter.hasNext()) {
+                SKOSConcept concept = iter.next();
+                if (concept != null) {
+                    if (!this.conceptHasBroaderConcepts((JenaSKOSConcept)concept, null, null)) broadest.add(concept);
+                }
             }
+            iter.close();
+            return broadest;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        iter.close();
-        return broadest;
     }
 
     /**
@@ -1044,19 +1888,28 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSConcept> getBroadestConcepts(SKOSConceptScheme conceptScheme) {
-        List<SKOSConcept> broadest = new ArrayList<>();
-        Resource jcs = this.getJenaResource(conceptScheme);
-        if (conceptScheme==null || jcs!=null) {
-            CloseableIterator<SKOSConcept> iter = this.listConcepts(conceptScheme);
-            while(iter.hasNext()) {
-                SKOSConcept concept = iter.next();
-                if (concept != null) {
-                    if (!this.conceptHasBroaderConcepts((JenaSKOSConcept)concept, jcs, null)) broadest.add(concept);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            List<SKOSConcept> indexed = this.getIndexedBroadestConcepts(conceptScheme, null);
+            if (indexed != null) return indexed;
+        
+            List<SKOSConcept> broadest = new ArrayList<>();
+            Resource jcs = this.getJenaResource(conceptScheme);
+            if (conceptScheme==null || jcs!=null) {
+                CloseableIterator<SKOSConcept> iter = this.listConcepts(conceptScheme);
+                while(iter.hasNext()) {
+                    SKOSConcept concept = iter.next();
+                    if (concept != null) {
+                        if (!this.conceptHasBroaderConcepts((JenaSKOSConcept)concept, jcs, null)) broadest.add(concept);
+                    }
                 }
+                iter.close();
             }
-            iter.close();
+            return broadest;
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        return broadest;
     }
 
     /**
@@ -1067,20 +1920,55 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSConcept> getBroadestConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        List<SKOSConcept> broadest = new ArrayList<>();
-        Resource jcs = this.getJenaResource(conceptScheme);
-        Resource jcoll = this.getJenaResource(skosCollection);
-        if ((conceptScheme==null || jcs!=null) && (skosCollection==null || jcoll!=null)) {
-            CloseableIterator<SKOSConcept> iter = this.listConcepts(conceptScheme, skosCollection);
-            while(iter.hasNext()) {
-                SKOSConcept concept = iter.next();
-                if (concept != null) {
-                    if (!this.conceptHasBroaderConcepts((JenaSKOSConcept)concept, jcs, jcoll)) broadest.add(concept);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            List<SKOSConcept> indexed = this.getIndexedBroadestConcepts(conceptScheme, skosCollection);
+            if (indexed != null) return indexed;
+        
+            List<SKOSConcept> broadest = new ArrayList<>();
+            Resource jcs = this.getJenaResource(conceptScheme);
+            Resource jcoll = this.getJenaResource(skosCollection);
+            if ((conceptScheme==null || jcs!=null) && (skosCollection==null || jcoll!=null)) {
+                CloseableIterator<SKOSConcept> iter = this.listConcepts(conceptScheme, skosCollection);
+                while(iter.hasNext()) {
+                    SKOSConcept concept = iter.next();
+                    if (concept != null) {
+                        if (!this.conceptHasBroaderConcepts((JenaSKOSConcept)concept, jcs, jcoll)) broadest.add(concept);
+                    }
                 }
+                iter.close();
             }
-            iter.close();
+            return broadest;
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+    }
+
+    /**
+     * Returns the broadest concepts of the provided concept scheme and
+     * collection from the root sets of the index of the thesaurus (see
+     * {@link #getIndex()})
+     * @param conceptScheme Concept scheme, or {@code null}
+     * @param skosCollection Collection, or {@code null}
+     * @return Concepts of {@code conceptScheme} and {@code skosCollection}
+     * that have no broader concepts in them, or {@code null} if the index is
+     * not available or does not hold these resources with their SKOS types
+     */
+    private List<SKOSConcept> getIndexedBroadestConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        SnapshotSKOS index = this.getIndex();
+        if (index == null) return null;
+        SKOSConceptScheme indexedScheme = null;
+        if (conceptScheme != null) {
+            indexedScheme = index.getConceptScheme(conceptScheme.getURI());
+            if (indexedScheme == null) return null;
         }
-        return broadest;
+        SKOSCollection indexedCollection = null;
+        if (skosCollection != null) {
+            indexedCollection = index.getCollection(skosCollection.getURI());
+            if (indexedCollection == null) return null;
+        }
+        return this.fromIndex(index.getBroadestConcepts(indexedScheme, indexedCollection));
     }
 
     /**
@@ -1113,16 +2001,22 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSConcept> getDirectNarrowerConcepts(SKOSConcept concept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        Resource conceptRes = this.getJenaResource(concept);
-        if (conceptRes!=null) {
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource conceptRes = this.getJenaResource(concept);
+            if (conceptRes!=null) {
 
-            Resource csRes = this.getJenaResource(conceptScheme);
+                Resource csRes = this.getJenaResource(conceptScheme);
 
-            Resource collectionRes = this.getJenaResource(skosCollection);
+                Resource collectionRes = this.getJenaResource(skosCollection);
 
-            return getDirectNarrowerConcepts(conceptRes, csRes, collectionRes);
+                return getDirectNarrowerConcepts(conceptRes, csRes, collectionRes);
+            }
+            else return new ArrayList<>(0);
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new ArrayList<>(0);
     }
 
     /**
@@ -1155,16 +2049,22 @@ public class JenaSKOS implements SKOS, Model {
      */
     @Override
     public List<SKOSConcept> getDirectBroaderConcepts(SKOSConcept concept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
-        Resource conceptRes = this.getJenaResource(concept);
-        if (conceptRes!=null) {
+        this.enterCriticalSection(Lock.READ);
+        try {
+            Resource conceptRes = this.getJenaResource(concept);
+            if (conceptRes!=null) {
 
-            Resource csRes = this.getJenaResource(conceptScheme);
+                Resource csRes = this.getJenaResource(conceptScheme);
 
-            Resource collectionRes = this.getJenaResource(skosCollection);
+                Resource collectionRes = this.getJenaResource(skosCollection);
 
-            return getDirectBroaderConcepts(conceptRes, csRes, collectionRes);
+                return getDirectBroaderConcepts(conceptRes, csRes, collectionRes);
+            }
+            else return new ArrayList<>(0);
+        }
+        finally {
+            this.leaveCriticalSection();
         }
-        else return new ArrayList<>(0);
     }
 
     @Override
@@ -1204,6 +2104,33 @@ public class JenaSKOS implements SKOS, Model {
 
     @Override
     public List<SKOSConceptNode> getConceptHierarchy(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection, HierarchyMethod hierarchyMethod) {
+        ReentrantMRSWLock lock = this.dataLock();
+        if (!lock.isHeldByCurrentThread()) {
+            for (int attempt = 0; attempt < HIERARCHY_ATTEMPTS; attempt++) {
+                long generation = lock.getGeneration();
+                List<SKOSConceptNode> conceptHierarchy = this.buildConceptHierarchy(conceptScheme, skosCollection, hierarchyMethod);
+                if (lock.getGeneration() == generation) return conceptHierarchy;
+            }
+        }
+        this.enterCriticalSection(Lock.READ);
+        try {
+            return this.buildConceptHierarchy(conceptScheme, skosCollection, hierarchyMethod);
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+    }
+    
+    /**
+     * Builds the concept hierarchy of a concept scheme and collection. Unless
+     * the current thread is within a critical section, the child concepts
+     * are read in parallel, each under its own read lock.
+     * @param conceptScheme Concept scheme, or {@code null}
+     * @param skosCollection Collection, or {@code null}
+     * @param hierarchyMethod Hierarchy method
+     * @return Concept hierarchy
+     */
+    private List<SKOSConceptNode> buildConceptHierarchy(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection, HierarchyMethod hierarchyMethod) {
         // Make sure that the hierarchy method is not null
         HierarchyMethod hm = hierarchyMethod;
         if (hm == null) hm = HierarchyMethod.DEFAULT_METHOD;
@@ -1221,7 +2148,7 @@ public class JenaSKOS implements SKOS, Model {
         //Make sure that the matched Jena SKOS resources are correct
         if ((conceptScheme==null || jConceptScheme!=null) && (skosCollection==null || jCollection!=null)) {
             
-            TreeSet<JenaSKOSConcept> rootConcepts = new TreeSet<>();
+            List<String> rootConceptURIs = new ArrayList<>();
             
             CloseableIterator<SKOSConcept> topConcepts;
             List<SKOSConcept> broadestConcepts;
@@ -1230,24 +2157,26 @@ public class JenaSKOS implements SKOS, Model {
                     topConcepts = this.listTopConcepts(jConceptScheme, jCollection);
                     while (topConcepts.hasNext()) {
                         SKOSConcept topConcept = topConcepts.next();
-                        if (topConcept != null) rootConcepts.add((JenaSKOSConcept) topConcept);
+                        if (topConcept != null) rootConceptURIs.add(topConcept.getURI());
                     }
+                    topConcepts.close();
                 case BROADEST_CONCEPTS:
                     broadestConcepts = this.getBroadestConcepts(jConceptScheme, jCollection);
-                    for (SKOSConcept broadConcept: broadestConcepts) rootConcepts.add((JenaSKOSConcept) broadConcept);
+                    for (SKOSConcept broadConcept: broadestConcepts) rootConceptURIs.add(broadConcept.getURI());
                     break;
                 default:
                     topConcepts = this.listTopConcepts(jConceptScheme, jCollection);
                     while (topConcepts.hasNext()) {
                         SKOSConcept topConcept = topConcepts.next();
-                        if (topConcept != null) rootConcepts.add((JenaSKOSConcept) topConcept);
+                        if (topConcept != null) rootConceptURIs.add(topConcept.getURI());
                     }
+                    topConcepts.close();
                     break;
             }
             
-            for (JenaSKOSConcept concept:rootConcepts) {
-                conceptHierarchy.add(this.getHierarchyOfConcept(concept, jConceptScheme, jCollection, hm.getRelationshipType(), hm.getSortLanguage()));
-            }
+            List<JenaSKOSConcept> rootConcepts = SortKey.sort(this.loadConcepts(rootConceptURIs), hm.getSortLanguage());
+            
+            conceptHierarchy.addAll(this.hierarchyBuilder(jConceptScheme, jCollection, hm.getRelationshipType(), hm.getSortLanguage()).build(rootConcepts));
         }
         
         return conceptHierarchy;
@@ -1280,6 +2209,35 @@ public class JenaSKOS implements SKOS, Model {
     
     @Override
     public SKOSConceptNode getConceptTree(SKOSConcept rootConcept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection, HierarchyMethod hierarchyMethod) {
+        ReentrantMRSWLock lock = this.dataLock();
+        if (!lock.isHeldByCurrentThread()) {
+            for (int attempt = 0; attempt < HIERARCHY_ATTEMPTS; attempt++) {
+                long generation = lock.getGeneration();
+                SKOSConceptNode conceptTree = this.buildConceptTree(rootConcept, conceptScheme, skosCollection, hierarchyMethod);
+                if (lock.getGeneration() == generation) return conceptTree;
+            }
+        }
+        this.enterCriticalSection(Lock.READ);
+        try {
+            return this.buildConceptTree(rootConcept, conceptScheme, skosCollection, hierarchyMethod);
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+    }
+    
+    /**
+     * Builds the concept tree of a concept. Unless the current thread is
+     * within a critical section, the child concepts are read in parallel,
+     * each under its own read lock.
+     * @param rootConcept Root concept
+     * @param conceptScheme Concept scheme, or {@code null}
+     * @param skosCollection Collection, or {@code null}
+     * @param hierarchyMethod Hierarchy method
+     * @return Concept tree, or {@code null} if {@code rootConcept} is not a
+     * concept of this thesaurus
+     */
+    private SKOSConceptNode buildConceptTree(SKOSConcept rootConcept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection, HierarchyMethod hierarchyMethod) {
         // Make sure that the hierarchy method is not null
         HierarchyMethod hm = hierarchyMethod;
         if (hm == null) hm = HierarchyMethod.DEFAULT_METHOD;
@@ -1311,15 +2269,65 @@ public class JenaSKOS implements SKOS, Model {
     }
     
     
+    // -------- -------- -------- --------
+    // Bulk updates
+    
+    /**
+     * {@inheritDoc}<br/>
+     * The returned writer adds its batches through the bulk update handler
+     * of the graph of this thesaurus (see {@link JenaSKOSBulkWriter}).
+     * @param inferInverseProperties {@inheritDoc}
+     * @param inferSuperProperties {@inheritDoc}
+     * @param batchSize {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @Override
+    public JenaSKOSBulkWriter createBulkWriter(boolean inferInverseProperties, boolean inferSuperProperties, int batchSize) throws IllegalArgumentException {
+        return new JenaSKOSBulkWriter(this, inferInverseProperties, inferSuperProperties, batchSize);
+    }
+    
+    
     // -------- -------- -------- --------
     // Managing connection
     
+    /**
+     * {@inheritDoc}<br/>
+     * The generation is kept by the lock of the data (see
+     * {@link ReentrantMRSWLock#getGeneration()}), so it is shared by all the
+     * thesauri wrapping the same data within a JVM, and changes each time one
+     * of them leaves a write critical section.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long getGeneration() {
+        return this.dataLock().getGeneration();
+    }
+    
+    /**
+     * Moves the data of the thesaurus to a new generation (see
+     * {@link #getGeneration()}). This must be called after changes that are
+     * not made within a write critical section.
+     */
+    protected void nextGeneration() {
+        this.dataLock().nextGeneration();
+    }
+    
+    /**
+     * Returns the lock guarding the data of the thesaurus
+     * @return Lock of the underlying {@link LockingModel}
+     */
+    private ReentrantMRSWLock dataLock() {
+        return ((LockingModel) this.model).getLockingGraph().getLock();
+    }
+    
     /**
      * {@inheritDoc}
      * @return {@inheritDoc}
      */
     @Override
     public SKOS sync() {
+        this.nextGeneration();
         return this;
     }
     
@@ -1330,6 +2338,7 @@ public class JenaSKOS implements SKOS, Model {
     @Override
     public JenaSKOS commit() {
         model.commit();
+        this.nextGeneration();
         return this;
     }
     
@@ -1500,7 +2509,7 @@ public class JenaSKOS implements SKOS, Model {
                 }
 
                 Selector selector;
-                if (stmtFilter != null) selector = new FilteredSelector(resource, property, (RDFNode)null, stmtFilter);
+                if (stmtFilter != null) selector = new FilteredSelector(resource, property, (RDFNode)null, this.withIndex(stmtFilter, false, singleton(conceptScheme), singleton(skosCollection)));
                 else selector = new SimpleSelector(resource, property, (RDFNode)null);
 
                 return this.model.listStatements(selector);
@@ -1565,7 +2574,7 @@ public class JenaSKOS implements SKOS, Model {
                 }
 
                 Selector selector;
-                if (stmtFilter != null) selector = new FilteredSelector(resource, property, (RDFNode)null, stmtFilter);
+                if (stmtFilter != null) selector = new FilteredSelector(resource, property, (RDFNode)null, this.withIndex(stmtFilter, false, conceptSchemes, skosCollections));
                 else selector = new SimpleSelector(resource, property, (RDFNode)null);
 
                 return this.model.listStatements(selector);
@@ -1624,8 +2633,8 @@ public class JenaSKOS implements SKOS, Model {
                 }
 
                 Selector selector;
-                if (stmtFilter != null) selector = new FilteredSelector((Resource)null, property, resource, stmtFilter);
-                else selector = new SimpleSelector(resource, property, (RDFNode)null);
+                if (stmtFilter != null) selector = new FilteredSelector((Resource)null, property, resource, this.withIndex(stmtFilter, true, singleton(conceptScheme), singleton(skosCollection)));
+                else selector = new SimpleSelector((Resource)null, property, resource);
 
                 return this.model.listStatements(selector);
             }
@@ -1689,8 +2698,8 @@ public class JenaSKOS implements SKOS, Model {
                 }
 
                 Selector selector;
-                if (stmtFilter != null) selector = new FilteredSelector((Resource)null, property, resource, stmtFilter);
-                else selector = new SimpleSelector(resource, property, (RDFNode)null);
+                if (stmtFilter != null) selector = new FilteredSelector((Resource)null, property, resource, this.withIndex(stmtFilter, true, conceptSchemes, skosCollections));
+                else selector = new SimpleSelector((Resource)null, property, resource);
 
                 return this.model.listStatements(selector);
             }
@@ -1699,6 +2708,17 @@ public class JenaSKOS implements SKOS, Model {
         else return null;
     }
     
+    /**
+     * Wraps a possibly null element as a collection
+     * @param <T> Element type
+     * @param element Element
+     * @return Singleton list of {@code element}, or {@code null} if
+     * {@code element} is {@code null}
+     */
+    private static <T> List<T> singleton(T element) {
+        return (element != null) ? Collections.singletonList(element) : null;
+    }
+    
     /**
      * Checks whether the provided concept has broader collections in the provided
  concept scheme and collection
@@ -1712,13 +2732,19 @@ public class JenaSKOS implements SKOS, Model {
     protected boolean conceptHasBroaderConcepts(Resource conceptResource, Resource targetCSResource, Resource targetCollectionResource) {
         Property relationProp = PropertyFactory.broaderTransitive;
 
-        for (StmtIterator iter = this.model.listStatements( (Resource) conceptResource, relationProp, (RDFNode) null); iter.hasNext(); ) {
-            Statement stmt = iter.nextStatement();
-            Resource broaderConceptRes = (Resource) stmt.getObject();
-            if (!broaderConceptRes.getURI().equals(conceptResource.getURI())) {
-                if ((targetCSResource==null || this.resourceIsInScheme(broaderConceptRes, targetCSResource))&&(targetCollectionResource==null || this.resourceIsInCollection(broaderConceptRes, targetCollectionResource))) return true;
+        StmtIterator iter = this.model.listStatements( (Resource) conceptResource, relationProp, (RDFNode) null);
+        try {
+            while (iter.hasNext()) {
+                Statement stmt = iter.nextStatement();
+                Resource broaderConceptRes = (Resource) stmt.getObject();
+                if (!broaderConceptRes.getURI().equals(conceptResource.getURI())) {
+                    if ((targetCSResource==null || this.resourceIsInScheme(broaderConceptRes, targetCSResource))&&(targetCollectionResource==null || this.resourceIsInCollection(broaderConceptRes, targetCollectionResource))) return true;
+                }
             }
         }
+        finally {
+            iter.close();
+        }
         
         return false;
     }
@@ -1736,19 +2762,27 @@ public class JenaSKOS implements SKOS, Model {
     protected boolean conceptHasNarrowerConcepts(Resource conceptResource, Resource targetCSResource, Resource targetCollectionResource) {
         Property relationProp = PropertyFactory.narrowerTransitive;
 
-        for (StmtIterator iter = this.model.listStatements( (Resource) conceptResource, relationProp, (RDFNode) null); iter.hasNext(); ) {
-            Statement stmt = iter.nextStatement();
-            Resource narrowerConceptRes = (Resource) stmt.getObject();
-            if (!narrowerConceptRes.getURI().equals(conceptResource.getURI())) {
-                if ((targetCSResource==null || this.resourceIsInScheme(narrowerConceptRes, targetCSResource))&&(targetCollectionResource==null || this.resourceIsInCollection(narrowerConceptRes, targetCollectionResource))) return true;
+        StmtIterator iter = this.model.listStatements( (Resource) conceptResource, relationProp, (RDFNode) null);
+        try {
+            while (iter.hasNext()) {
+                Statement stmt = iter.nextStatement();
+                Resource narrowerConceptRes = (Resource) stmt.getObject();
+                if (!narrowerConceptRes.getURI().equals(conceptResource.getURI())) {
+                    if ((targetCSResource==null || this.resourceIsInScheme(narrowerConceptRes, targetCSResource))&&(targetCollectionResource==null || this.resourceIsInCollection(narrowerConceptRes, targetCollectionResource))) return true;
+                }
             }
         }
+        finally {
+            iter.close();
+        }
 
         return false;
     }
     
     /**
-     * Checks whether a resource belongs to a concept scheme
+     * Checks whether a resource belongs to a concept scheme. The membership
+     * is read from the bitmaps of the index of the thesaurus if it holds both
+     * resources (see {@link #getIndex()}), and probed in the model otherwise.
      * @param resource Resource to check
      * @param conceptSchemeResource Concept scheme resource
      * @return {@code true} if {@code resource} belongs to
@@ -1757,13 +2791,20 @@ public class JenaSKOS implements SKOS, Model {
     protected boolean resourceIsInScheme(Resource resource, Resource conceptSchemeResource) {
         if (resource==null || conceptSchemeResource==null) return false;
         else {
+            SnapshotSKOS index = this.getIndex();
+            if (index != null && resource.isURIResource() && conceptSchemeResource.isURIResource() && index.getConceptScheme(conceptSchemeResource.getURI()) != null) {
+                SKOSResource indexed = index.getSKOSResource(resource.getURI());
+                if (indexed != null) return indexed.isInScheme(conceptSchemeResource.getURI());
+            }
             Property inScheme = PropertyFactory.inScheme;
             return resource.hasProperty(inScheme, conceptSchemeResource);
         }
     }
     
     /**
-     * Checks whether a resource belongs to a collection
+     * Checks whether a resource belongs to a collection. The membership is
+     * read from the bitmaps of the index of the thesaurus if it holds both
+     * resources (see {@link #getIndex()}), and probed in the model otherwise.
      * @param resource Resource to check
      * @param skosCollectionResource Concept scheme resource
      * @return {@code true} if {@code resource} belongs to
@@ -1772,14 +2813,148 @@ public class JenaSKOS implements SKOS, Model {
     protected boolean resourceIsInCollection(Resource resource, Resource skosCollectionResource) {
         if (resource==null || skosCollectionResource==null) return false;
         else {
+            SnapshotSKOS index = this.getIndex();
+            if (index != null && resource.isURIResource() && skosCollectionResource.isURIResource() && index.getCollection(skosCollectionResource.getURI()) != null) {
+                SKOSResource indexed = index.getSKOSResource(resource.getURI());
+                if (indexed instanceof SKOSCollectionMember) return ((SKOSCollectionMember) indexed).isMemberOfCollection(skosCollectionResource.getURI());
+            }
             Property member = PropertyFactory.member;
             return skosCollectionResource.hasProperty(member, resource);
         }
     }
     
     
+    /**
+     * Loads the SKOS concepts with the provided URIs. The statements of each
+     * concept are read once, then kept by the returned
+     * {@link JenaSKOSConcept} so that reading its labels, concept schemes and
+     * other annotations does not access the model again.<br/>
+     * Large batches, of at least {@link #LOAD_SCAN_MIN_CONCEPTS} concepts and
+     * one concept per {@link #LOAD_SCAN_MAX_RATIO} statements of the model,
+     * are resolved in a single pass over the statements of the model, matched
+     * against the set of URIs. Smaller batches look the statements of each
+     * concept up by subject, which uses the subject index of the model: on a
+     * TDB store of 400,000 statements, one lookup costs about 70 microseconds
+     * where a full pass costs about 4 seconds, and a single SPARQL query
+     * matching all the subjects is slower than the separate lookups.
+     * @param conceptURIs URIs of the concepts to load
+     * @return {@code List} of the loaded concepts, in the order of
+     * {@code conceptURIs}. URIs that are null, empty or not those of SKOS
+     * concepts are skipped, and duplicate URIs are loaded once.
+     */
+    protected List<JenaSKOSConcept> loadConcepts(Collection<String> conceptURIs) {
+        List<JenaSKOSConcept> concepts = new ArrayList<>();
+        if (this.model!=null && conceptURIs!=null) {
+            Set<String> uris = new LinkedHashSet<>();
+            for (String conceptURI: conceptURIs) {
+                if (conceptURI!=null && !conceptURI.isEmpty()) uris.add(conceptURI);
+            }
+            Map<String, List<Statement>> statements;
+            if (uris.size() >= LOAD_SCAN_MIN_CONCEPTS && (long) uris.size() * LOAD_SCAN_MAX_RATIO >= this.model.size()) {
+                statements = new HashMap<>(2 * uris.size());
+                StmtIterator iter = this.model.listStatements();
+                while (iter.hasNext()) {
+                    Statement stmt = iter.nextStatement();
+                    Resource subject = stmt.getSubject();
+                    if (subject.isURIResource() && uris.contains(subject.getURI())) {
+                        List<Statement> subjectStatements = statements.get(subject.getURI());
+                        if (subjectStatements == null) {
+                            subjectStatements = new ArrayList<>();
+                            statements.put(subject.getURI(), subjectStatements);
+                        }
+                        subjectStatements.add(stmt);
+                    }
+                }
+                iter.close();
+            }
+            else statements = null;
+            
+            for (String conceptURI: uris) {
+                Resource conceptRes = this.model.getResource(conceptURI);
+                List<Statement> conceptStatements;
+                if (statements != null) conceptStatements = statements.get(conceptURI);
+                else {
+                    conceptStatements = new ArrayList<>();
+                    StmtIterator iter = this.model.listStatements(conceptRes, (Property)null, (RDFNode)null);
+                    while (iter.hasNext()) conceptStatements.add(iter.nextStatement());
+                    iter.close();
+                }
+                if (conceptStatements != null && isConcept(conceptStatements)) {
+                    JenaSKOSConcept concept = new JenaSKOSConcept(conceptRes);
+                    concept.loadStatements(conceptStatements);
+                    concepts.add(concept);
+                }
+            }
+        }
+        return concepts;
+    }
+    
+    /**
+     * Indicates whether the provided statements of a resource type it as a
+     * SKOS concept
+     * @param statements Statements of a resource
+     * @return {@code true} if {@code statements} include an {@code rdf:type}
+     * statement whose object is {@code skos:Concept}
+     */
+    private static boolean isConcept(List<Statement> statements) {
+        for (Statement stmt: statements) {
+            if (RDF.type.equals(stmt.getPredicate()) && TypeResourceFactory.CONCEPT.equals(stmt.getObject())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Returns the direct narrower or broader concepts of the provided concept
+     * from the index of the thesaurus (see {@link #getIndex()}), which holds
+     * the transitive reduction of the hierarchy
+     * @param conceptRes Concept resource
+     * @param targetConceptSchemeRes Target concept scheme resource, or
+     * {@code null}
+     * @param targetCollectionRes Target collection resource, or {@code null}
+     * @param narrower {@code true} for the direct narrower concepts,
+     * {@code false} for the direct broader concepts
+     * @return Direct narrower or broader concepts of {@code conceptRes}
+     * belonging to both {@code targetConceptSchemeRes} and
+     * {@code targetCollectionRes}, or {@code null} if the index is not
+     * available or does not hold these resources with their SKOS types
+     */
+    private List<SKOSConcept> getIndexedDirectConcepts(Resource conceptRes, Resource targetConceptSchemeRes, Resource targetCollectionRes, boolean narrower) {
+        SnapshotSKOS index = this.getIndex();
+        if (index == null) return null;
+        SKOSConcept concept = index.getConcept(conceptRes.getURI());
+        if (concept == null) return null;
+        SKOSConceptScheme conceptScheme = null;
+        if (targetConceptSchemeRes != null) {
+            conceptScheme = index.getConceptScheme(targetConceptSchemeRes.getURI());
+            if (conceptScheme == null) return null;
+        }
+        SKOSCollection collection = null;
+        if (targetCollectionRes != null) {
+            collection = index.getCollection(targetCollectionRes.getURI());
+            if (collection == null) return null;
+        }
+        if (narrower) return this.fromIndex(index.getDirectNarrowerConcepts(concept, conceptScheme, collection));
+        else return this.fromIndex(index.getDirectBroaderConcepts(concept, conceptScheme, collection));
+    }
+
+    /**
+     * Returns the direct narrower concepts of the provided concept, that is
+     * its narrower concepts that are not narrower than another of them. They
+     * are read from the index of the thesaurus if available (see
+     * {@link #getIndex()}), and computed from the skos:narrowerTransitive
+     * statements of the model otherwise.
+     * @param conceptRes Concept resource
+     * @param targetConceptSchemeRes Target concept scheme resource, or
+     * {@code null}
+     * @param targetCollectionRes Target collection resource, or {@code null}
+     * @return Direct narrower concepts of {@code conceptRes} belonging to
+     * both {@code targetConceptSchemeRes} and {@code targetCollectionRes}
+     */
     protected List<SKOSConcept> getDirectNarrowerConcepts(Resource conceptRes, Resource targetConceptSchemeRes, Resource targetCollectionRes) {
 
+            List<SKOSConcept> indexed = this.getIndexedDirectConcepts(conceptRes, targetConceptSchemeRes, targetCollectionRes, true);
+            if (indexed != null) return indexed;
+
             Property narrower = PropertyFactory.narrowerTransitive;
 
             List<SKOSConcept> directNarrower = new ArrayList<>();
@@ -1835,8 +3010,24 @@ public class JenaSKOS implements SKOS, Model {
             return directNarrower;
     }
     
+    /**
+     * Returns the direct broader concepts of the provided concept, that is
+     * its broader concepts that are not broader than another of them. They
+     * are read from the index of the thesaurus if available (see
+     * {@link #getIndex()}), and computed from the skos:broaderTransitive
+     * statements of the model otherwise.
+     * @param conceptRes Concept resource
+     * @param targetConceptSchemeRes Target concept scheme resource, or
+     * {@code null}
+     * @param targetCollectionRes Target collection resource, or {@code null}
+     * @return Direct broader concepts of {@code conceptRes} belonging to
+     * both {@code targetConceptSchemeRes} and {@code targetCollectionRes}
+     */
     protected List<SKOSConcept> getDirectBroaderConcepts(Resource conceptRes, Resource targetConceptSchemeRes, Resource targetCollectionRes) {
 
+            List<SKOSConcept> indexed = this.getIndexedDirectConcepts(conceptRes, targetConceptSchemeRes, targetCollectionRes, false);
+            if (indexed != null) return indexed;
+
             Property broader = PropertyFactory.broaderTransitive;
 
             List<SKOSConcept> directBroader = new ArrayList<>();
@@ -1882,9 +3073,62 @@ public class JenaSKOS implements SKOS, Model {
             return directBroader;
     }
     
+    /**
+     * Builds the hierarchy of a concept. Subtrees are expanded in parallel,
+     * cyclic relationships are reported and left out, and concepts appearing
+     * under several parents share the same node.
+     * @param concept Root concept
+     * @param taregtConceptScheme Target concept scheme, or {@code null}
+     * @param targetCollection Target collection, or {@code null}
+     * @param relType Type of the relationships between parent and child nodes
+     * @param sortLanguage Language used to sort the child nodes
+     * @return Concept node of {@code concept}
+     */
     protected SKOSConceptNode getHierarchyOfConcept (JenaSKOSConcept concept, JenaSKOSConceptScheme taregtConceptScheme, JenaSKOSCollection targetCollection, HierarchyMethod.RelationshipType relType, String sortLanguage) {
-        SKOSConceptNode cn = new DefaultSKOSConceptNode(concept);
-        TreeSet<SKOSConcept> sortedChildConcepts = new TreeSet<>();
+        return this.hierarchyBuilder(taregtConceptScheme, targetCollection, relType, sortLanguage).build(concept);
+    }
+    
+    /**
+     * Returns a builder of concept hierarchies
+     * @param taregtConceptScheme Target concept scheme, or {@code null}
+     * @param targetCollection Target collection, or {@code null}
+     * @param relType Type of the relationships between parent and child nodes
+     * @param sortLanguage Language used to sort the child nodes
+     * @return Hierarchy builder reading the child concepts from the model
+     */
+    protected ConceptHierarchyBuilder hierarchyBuilder(final JenaSKOSConceptScheme taregtConceptScheme, final JenaSKOSCollection targetCollection, final HierarchyMethod.RelationshipType relType, final String sortLanguage) {
+        ConceptHierarchyBuilder.ChildSource childSource = new ConceptHierarchyBuilder.ChildSource() {
+            @Override
+            public List<JenaSKOSConcept> getChildren(SKOSConcept concept) {
+                // Child concepts are read concurrently by the builder, so
+                // read them within one read critical section
+                model.enterCriticalSection(Lock.READ);
+                try {
+                    return getChildConcepts((JenaSKOSConcept)concept, taregtConceptScheme, targetCollection, relType, sortLanguage);
+                }
+                finally {
+                    model.leaveCriticalSection();
+                }
+            }
+        };
+        // A thread within a critical section expands the hierarchy itself:
+        // pool threads waiting for the read lock behind a queued writer
+        // would otherwise never complete
+        if (this.dataLock().isHeldByCurrentThread()) return new ConceptHierarchyBuilder(childSource, null);
+        else return new ConceptHierarchyBuilder(childSource);
+    }
+    
+    /**
+     * Returns the child concepts of a concept in a hierarchy
+     * @param concept Concept
+     * @param taregtConceptScheme Target concept scheme, or {@code null}
+     * @param targetCollection Target collection, or {@code null}
+     * @param relType Type of the relationships between parent and child nodes
+     * @param sortLanguage Language used to sort the child concepts
+     * @return Child concepts sorted by label in {@code sortLanguage}
+     */
+    protected List<JenaSKOSConcept> getChildConcepts (JenaSKOSConcept concept, JenaSKOSConceptScheme taregtConceptScheme, JenaSKOSCollection targetCollection, HierarchyMethod.RelationshipType relType, String sortLanguage) {
+        List<String> childConceptURIs = new ArrayList<>();
         CloseableIterator<SKOSConcept> iter;
         
         switch (relType) {
@@ -1892,36 +3136,30 @@ public class JenaSKOS implements SKOS, Model {
                 iter = this.listSemanticRelations(concept, SKOSSemanticProperty.narrower, taregtConceptScheme, targetCollection);
                 while (iter.hasNext()) {
                     SKOSConcept narrower = iter.next();
-                    if (narrower!=null) {
-                        narrower.setComparisonLanguage(sortLanguage);
-                        sortedChildConcepts.add(narrower);
-                    }
+                    if (narrower!=null) childConceptURIs.add(narrower.getURI());
                 }
+                iter.close();
             case DIRECT_NARROWER:
                 List<SKOSConcept> childConcepts = this.getDirectNarrowerConcepts(concept, (Resource)taregtConceptScheme, (Resource)targetCollection);
                 for (SKOSConcept childConcept: childConcepts) {
-                    childConcept.setComparisonLanguage(sortLanguage);
-                    sortedChildConcepts.add(childConcept);
+                    if (childConcept!=null) childConceptURIs.add(childConcept.getURI());
                 }
                 break;
             default:
                 iter = this.listSemanticRelations(concept, SKOSSemanticProperty.narrower, taregtConceptScheme, targetCollection);
                 while (iter.hasNext()) {
                     SKOSConcept narrower = iter.next();
-                    if (narrower!=null) {
-                        narrower.setComparisonLanguage(sortLanguage);
-                        sortedChildConcepts.add(narrower);
-                    }
+                    if (narrower!=null) childConceptURIs.add(narrower.getURI());
                 }
+                iter.close();
                 break;
         }
         
-        if (!sortedChildConcepts.isEmpty()) {
-            for (SKOSConcept childConcept: sortedChildConcepts) {
-                cn.addChild(this.getHierarchyOfConcept((JenaSKOSConcept)childConcept, taregtConceptScheme, targetCollection, relType, sortLanguage));
-            }
-        }
-        return cn;
+        if (childConceptURIs.isEmpty()) return new ArrayList<>();
+        
+        // Load the child concepts in one pass, so that computing their sort
+        // keys does not go back to the model
+        return SortKey.sort(this.loadConcepts(childConceptURIs), sortLanguage);
     }
     
     
@@ -0,0 +1,322 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.shared.Lock;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.vocabulary.RDF;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SKOSBulkWriter} of a {@link JenaSKOS} thesaurus.<br/>
+ * Statements are buffered as Jena triples in an array of fixed capacity,
+ * and each batch is written through the bulk update handler of the graph of
+ * the thesaurus, within one write critical section. For TDB thesauri, this
+ * leaves the cost of loading to the updates of the TDB indexes. Each flushed
+ * batch moves the thesaurus to a new generation (see
+ * {@link JenaSKOS#getGeneration()}).
+ * Annotations of single-valued properties are deduplicated within a batch,
+ * and the values they replace are removed when the batch is flushed.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class JenaSKOSBulkWriter implements SKOSBulkWriter {
+    
+    /**
+     * Thesaurus written to
+     */
+    private final JenaSKOS thesaurus;
+    
+    /**
+     * Whether inverse relations are added
+     */
+    private final boolean inferInverseProperties;
+    
+    /**
+     * Whether the super properties of relations are added
+     */
+    private final boolean inferSuperProperties;
+    
+    /**
+     * Buffered triples
+     */
+    private final Triple[] buffer;
+    
+    /**
+     * Number of buffered triples
+     */
+    private int size = 0;
+    
+    /**
+     * Positions in the buffer of the annotations of single-valued properties,
+     * by resource, property and language
+     */
+    private final Map<List<Object>, Integer> singleValued = new HashMap<>();
+    
+    /**
+     * Nodes of the SKOS properties and types, created on first use
+     */
+    private final Map<Object, Node> nodes = new HashMap<>();
+    
+    /**
+     * Number of flushed triples
+     */
+    private long written = 0;
+    
+    /**
+     * Whether the writer has been closed
+     */
+    private boolean closed = false;
+
+    /**
+     * Constructs a {@link JenaSKOSBulkWriter}
+     * @param thesaurus Thesaurus to write to
+     * @param inferInverseProperties Whether to add the inverse of each relation
+     * @param inferSuperProperties Whether to add the super properties of each
+     * relation
+     * @param batchSize Maximum number of statements to buffer
+     * @throws IllegalArgumentException if {@code thesaurus} is {@code null}
+     * or {@code batchSize} is not positive
+     */
+    public JenaSKOSBulkWriter(JenaSKOS thesaurus, boolean inferInverseProperties, boolean inferSuperProperties, int batchSize) throws IllegalArgumentException {
+        if (thesaurus == null) throw new IllegalArgumentException("JenaSKOSBulkWriter constructor: JenaSKOS argument must not be null");
+        if (batchSize < 1) throw new IllegalArgumentException("JenaSKOSBulkWriter constructor: batchSize argument must be positive");
+        this.thesaurus = thesaurus;
+        this.inferInverseProperties = inferInverseProperties;
+        this.inferSuperProperties = inferSuperProperties;
+        this.buffer = new Triple[batchSize];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @Override
+    public JenaSKOSBulkWriter addResource(String resourceURI, SKOSType type) throws IllegalArgumentException {
+        if (resourceURI == null || resourceURI.isEmpty()) throw new IllegalArgumentException("JenaSKOSBulkWriter.addResource: resourceURI argument must not be null or empty");
+        if (type == null) throw new IllegalArgumentException("JenaSKOSBulkWriter.addResource: type argument must not be null");
+        this.checkOpen();
+        this.add(new Triple(Node.createURI(resourceURI), RDF.type.asNode(), this.node(type, type.uri())));
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param value {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @Override
+    public JenaSKOSBulkWriter addAnnotation(String resourceURI, SKOSAnnotationProperty annotationProperty, String value, String language) throws IllegalArgumentException {
+        if (resourceURI == null || resourceURI.isEmpty()) throw new IllegalArgumentException("JenaSKOSBulkWriter.addAnnotation: resourceURI argument must not be null or empty");
+        if (annotationProperty == null) throw new IllegalArgumentException("JenaSKOSBulkWriter.addAnnotation: annotationProperty argument must not be null");
+        this.checkOpen();
+        if (value != null && !value.isEmpty()) {
+            String lang = (language != null) ? language : "";
+            Triple triple = new Triple(Node.createURI(resourceURI), this.node(annotationProperty, annotationProperty.uri()), Node.createLiteral(value, lang, false));
+            if (annotationProperty.isMultiple()) this.add(triple);
+            else {
+                List<Object> key = Arrays.<Object>asList(resourceURI, annotationProperty, lang);
+                Integer position = this.singleValued.get(key);
+                if (position != null) this.buffer[position] = triple;
+                else {
+                    this.add(triple);
+                    this.singleValued.put(key, this.size - 1);
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param otherResourceURI {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IllegalArgumentException {@inheritDoc}
+     */
+    @Override
+    public JenaSKOSBulkWriter addRelation(String resourceURI, SKOSObjectProperty relationshipType, String otherResourceURI) throws IllegalArgumentException {
+        if (resourceURI == null || resourceURI.isEmpty()) throw new IllegalArgumentException("JenaSKOSBulkWriter.addRelation: resourceURI argument must not be null or empty");
+        if (relationshipType == null) throw new IllegalArgumentException("JenaSKOSBulkWriter.addRelation: relationshipType argument must not be null");
+        if (otherResourceURI == null || otherResourceURI.isEmpty()) throw new IllegalArgumentException("JenaSKOSBulkWriter.addRelation: otherResourceURI argument must not be null or empty");
+        this.checkOpen();
+        
+        Node subject = Node.createURI(resourceURI);
+        Node object = Node.createURI(otherResourceURI);
+        this.add(new Triple(subject, this.node(relationshipType, relationshipType.uri()), object));
+        
+        SKOSObjectProperty inverse = this.inferInverseProperties ? relationshipType.getInverseProperty() : null;
+        if (inverse != null) this.add(new Triple(object, this.node(inverse, inverse.uri()), subject));
+        
+        if (this.inferSuperProperties) {
+            List<? extends SKOSObjectProperty> superProperties = relationshipType.getSuperProperties();
+            if (superProperties != null) {
+                for (SKOSObjectProperty superProperty: superProperties) {
+                    this.add(new Triple(subject, this.node(superProperty, superProperty.uri()), object));
+                }
+            }
+            superProperties = (inverse != null) ? inverse.getSuperProperties() : null;
+            if (superProperties != null) {
+                for (SKOSObjectProperty superProperty: superProperties) {
+                    this.add(new Triple(object, this.node(superProperty, superProperty.uri()), subject));
+                }
+            }
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int getBufferSize() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long getWrittenStatements() {
+        return this.written;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The values replaced by single-valued annotations are removed, and the
+     * buffered triples added, within one write critical section of the
+     * thesaurus.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public JenaSKOSBulkWriter flush() {
+        if (this.size > 0) {
+            Graph graph = this.thesaurus.getGraph();
+            List<Triple> triples = Arrays.asList(this.buffer).subList(0, this.size);
+            
+            this.thesaurus.enterCriticalSection(Lock.WRITE);
+            try {
+                List<Triple> replaced = this.listReplacedAnnotations(graph);
+                if (!replaced.isEmpty()) graph.getBulkUpdateHandler().delete(replaced);
+                graph.getBulkUpdateHandler().add(triples);
+                this.thesaurus.nextGeneration();
+            }
+            finally {
+                this.thesaurus.leaveCriticalSection();
+            }
+            
+            this.written += this.size;
+            Arrays.fill(this.buffer, 0, this.size, null);
+            this.size = 0;
+            this.singleValued.clear();
+        }
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        if (!this.closed) {
+            this.flush();
+            this.closed = true;
+        }
+    }
+
+    /**
+     * Buffers a triple, flushing the buffer first if it is full
+     * @param triple Triple
+     */
+    private void add(Triple triple) {
+        if (this.size == this.buffer.length) this.flush();
+        this.buffer[this.size++] = triple;
+    }
+
+    /**
+     * Lists the triples of the graph holding the values that the buffered
+     * single-valued annotations replace, i.e., the values of the same
+     * property in the same language
+     * @param graph Graph of the thesaurus
+     * @return Triples to delete
+     */
+    private List<Triple> listReplacedAnnotations(Graph graph) {
+        List<Triple> replaced = new ArrayList<>();
+        for (Integer position: this.singleValued.values()) {
+            Triple triple = this.buffer[position];
+            String lang = triple.getObject().getLiteralLanguage();
+            ExtendedIterator<Triple> iter = graph.find(triple.getSubject(), triple.getPredicate(), Node.ANY);
+            try {
+                while (iter.hasNext()) {
+                    Triple existing = iter.next();
+                    Node value = existing.getObject();
+                    if (value.isLiteral() && lang.equals(value.getLiteralLanguage()) && !value.equals(triple.getObject())) replaced.add(existing);
+                }
+            }
+            finally {
+                iter.close();
+            }
+        }
+        return replaced;
+    }
+
+    /**
+     * Returns the node of a SKOS property or type
+     * @param key SKOS property or type
+     * @param uri URI of {@code key}
+     * @return URI node
+     */
+    private Node node(Object key, String uri) {
+        Node node = this.nodes.get(key);
+        if (node == null) {
+            node = Node.createURI(uri);
+            this.nodes.put(key, node);
+        }
+        return node;
+    }
+
+    /**
+     * Checks that the writer is open
+     * @throws IllegalStateException if the writer has been closed
+     */
+    private void checkOpen() throws IllegalStateException {
+        if (this.closed) throw new IllegalStateException("JenaSKOSBulkWriter: writer is closed");
+    }
+}
@@ -374,19 +374,23 @@ public class JenaSKOSConceptScheme extends JenaSKOSResource implements SKOSConce
                 Property broaderTransitive = ((JenaSKOSThesaurus)this.getSKOSThesaurus()).getProperty(SKOSObjectProperty.BROADER_TRANSITIVE);
                 if (broaderTransitive != null) {
                     StmtIterator iter = concept.listProperties(broaderTransitive);
-                    while (iter.hasNext()) {
-                        Statement stmt = iter.next();
-                        RDFNode object = stmt.getObject();
-                        
-                        if (object.isResource()) {
-                            Resource objRes = object.asResource();
-                            if (JenaSKOSResource.jenaResourceIsSKOSConcept(objRes)) {
-                                SKOSConcept broaderConcept = JenaSKOSResource.skosConceptFromJenaResource(objRes);
-                                if (broaderConcept.isInScheme(this) || this.hasSKOSResource(broaderConcept)) return false;
+                    try {
+                        while (iter.hasNext()) {
+                            Statement stmt = iter.next();
+                            RDFNode object = stmt.getObject();
+
+                            if (object.isResource()) {
+                                Resource objRes = object.asResource();
+                                if (JenaSKOSResource.jenaResourceIsSKOSConcept(objRes)) {
+                                    SKOSConcept broaderConcept = JenaSKOSResource.skosConceptFromJenaResource(objRes);
+                                    if (broaderConcept.isInScheme(this) || this.hasSKOSResource(broaderConcept)) return false;
+                                }
                             }
                         }
                     }
-                    iter.close();
+                    finally {
+                        iter.close();
+                    }
                 }
                 return true;
             }
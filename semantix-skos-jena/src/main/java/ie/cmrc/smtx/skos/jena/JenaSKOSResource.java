@@ -29,6 +29,7 @@ import com.hp.hpl.jena.rdf.model.RDFVisitor;
 import com.hp.hpl.jena.rdf.model.Resource;
 import com.hp.hpl.jena.rdf.model.Statement;
 import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.rdf.model.impl.StmtIteratorImpl;
 import com.hp.hpl.jena.vocabulary.RDF;
 import ie.cmrc.smtx.skos.model.AbstractSKOSResource;
 import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
@@ -42,7 +43,11 @@ import ie.cmrc.smtx.skos.jena.util.JenaResourceIteratorFactory;
 import ie.cmrc.smtx.skos.jena.util.SKOSResourceIterFactory;
 import ie.cmrc.util.Term;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * An abstract implementation of the {@link ie.cmrc.skos.core.SKOSResource} interface
@@ -61,6 +66,21 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     protected final Resource resource;
     
+    /**
+     * Statements of the resource, grouped by predicate, when these have been
+     * loaded in one pass (see {@link #loadStatements(java.util.Collection)}).
+     * If {@code null}, then properties are read from the underlying model.
+     */
+    private Map<Property, List<Statement>> loadedStatements = null;
+    
+    /**
+     * Annotations of the resource, loaded with one scan of its statements on
+     * first read (see {@link #getAnnotationView()}). If {@code null}, then
+     * annotations have not been read yet or the resource has been modified
+     * since.
+     */
+    private volatile AnnotationView annotationView = null;
+    
     /**
      * Constructs a {@link JenaSKOSResource} that wraps the provided Jena Resource
      * ({@code com.hp.hpl.jena.rdf.model.Resource})
@@ -99,6 +119,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public SKOSResource addAnnotation(SKOSAnnotationProperty annotationProperty, String value, String language) {
+        this.unloadStatements();
         if (this.resource != null && annotationProperty!=null) {
             String trimmedValue;
             if (value!=null && !(trimmedValue=value).isEmpty()) {
@@ -139,30 +160,11 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public String getAnnotation(SKOSAnnotationProperty annotationProperty, String language) {
-        if (this.resource!=null && annotationProperty!=null) {
-            Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
-
-            StmtIterator iter = this.resource.listProperties(property);
-
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                RDFNode node = stmt.getObject();
-                if (node.isLiteral()) {
-                    Literal literal = (Literal)node;
-                    String lang = literal.getLanguage();
-
-                    if ((language==null && lang==null) || (language!=null && language.equals(lang))) {
-                        String value = literal.getString();
-                        return value;
-                    }
-                }
-            }
-            
-            iter.close();
-        }
+        if (annotationProperty!=null) return this.getAnnotationView().getValue(annotationProperty, language);
         return null;
     }
 
+
     /**
      * {@inheritDoc}
      * @param annotationProperty {@inheritDoc}
@@ -170,30 +172,11 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public List<Term> getAnnotations(SKOSAnnotationProperty annotationProperty) {
-        List<Term> terms = new ArrayList<>();
-        
-        if (this.resource!=null && annotationProperty!=null) {
-            Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
-
-            StmtIterator iter = this.resource.listProperties(property);
-
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                RDFNode node = stmt.getObject();
-                if (node.isLiteral()) {
-                    Literal literal = (Literal)node;
-                    String lang = literal.getLanguage();
-                    String value = literal.getString();
-
-                    terms.add(new Term(value, lang));
-                }
-            }
-            
-            iter.close();
-        }
-        return terms;
+        if (annotationProperty!=null) return this.getAnnotationView().getTerms(annotationProperty);
+        return new ArrayList<>();
     }
 
+
     /**
      * {@inheritDoc}
      * @param annotationProperty {@inheritDoc}
@@ -202,31 +185,11 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public List<String> getAnnotations(SKOSAnnotationProperty annotationProperty, String language) {
-        List<String> values = new ArrayList<>();
-        if (this.resource!=null && annotationProperty!=null) {
-            Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
-
-            StmtIterator iter = this.resource.listProperties(property);
-
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                RDFNode node = stmt.getObject();
-                if (node.isLiteral()) {
-                    Literal literal = (Literal)node;
-                    String lang = literal.getLanguage();
-
-                    if ((language==null && lang==null) || (language!=null && language.equals(lang))) {
-                        String value = literal.getString();
-                        values.add(value);
-                    }
-                }
-            }
-            
-            iter.close();
-        }
-        return values;
+        if (annotationProperty!=null) return this.getAnnotationView().getValues(annotationProperty, language);
+        return new ArrayList<>();
     }
 
+
     /**
      * {@inheritDoc}
      * @param annotationProperty {@inheritDoc}
@@ -234,15 +197,10 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty) {
-        if (this.resource!=null && annotationProperty!=null) {
-            Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
-            if (property != null) {
-                return this.resource.hasProperty(property);
-            }
-        }
-        return false;
+        return annotationProperty!=null && !this.getAnnotationView().getTerms(annotationProperty).isEmpty();
     }
 
+
     /**
      * {@inheritDoc}
      * @param annotationProperty {@inheritDoc}
@@ -251,33 +209,10 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty, String language) {
-        if (this.resource!=null && annotationProperty!=null) {
-            Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
-            
-            StmtIterator iter = this.resource.listProperties(property);
-            
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                RDFNode node = stmt.getObject();
-                if (node.isLiteral()) {
-                    Literal literal = (Literal)node;
-                    String lang = literal.getLanguage();
-
-                    if ((language==null && lang==null) || (language!=null && language.equals(lang))) {
-                        String value = literal.getString();
-                        if (value!=null) {
-                            iter.close();
-                            return true;
-                        }
-                    }
-                }
-            }
-            
-            iter.close();
-        }
-        return false;
+        return annotationProperty!=null && this.getAnnotationView().hasValue(annotationProperty, language);
     }
 
+
     /**
      * {@inheritDoc}
      * @param annotationProperty {@inheritDoc}
@@ -287,35 +222,10 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty, String value, String language) {
-        if (value!=null && this.resource!=null && annotationProperty!=null) {
-            Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
-            
-            StmtIterator iter = this.resource.listProperties(property);
-            
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                RDFNode node = stmt.getObject();
-                if (node.isLiteral()) {
-                    Literal literal = (Literal)node;
-                    String lang = literal.getLanguage();
-
-                    if ((language==null && lang==null) || (language!=null && language.equals(lang))) {
-                        String annValue = literal.getString();
-                        if (annValue!=null && annValue.equals(value)) {
-                            iter.close();
-                            return true;
-                        }
-                    }
-                }
-            }
-            
-            iter.close();
-        }
-        return false;
+        return value!=null && annotationProperty!=null && this.getAnnotationView().hasValue(annotationProperty, value, language);
     }
-    
-    
-    
+
+
     /**
      * {@inheritDoc}
      * @param annotationProperty {@inheritDoc}
@@ -323,6 +233,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public SKOSResource removeAnnotations(SKOSAnnotationProperty annotationProperty) {
+        this.unloadStatements();
         if (this.resource!=null && annotationProperty!=null) {
             Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
             this.resource.removeAll(property);
@@ -338,6 +249,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public SKOSResource removeAnnotations(SKOSAnnotationProperty annotationProperty, String language) {
+        this.unloadStatements();
         if (this.resource!=null && annotationProperty!=null) {
             Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
             
@@ -372,6 +284,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public SKOSResource removeAnnotation(SKOSAnnotationProperty annotationProperty, String annotationValue, String language) {
+        this.unloadStatements();
         if (this.resource!=null && annotationProperty!=null) {
             Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
             StmtIterator iter = this.resource.listProperties(property);
@@ -402,58 +315,20 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public List<SKOSAnnotationProperty> getAnnotationProperties() {
-        List<SKOSAnnotationProperty> annotationProperties = new ArrayList<>();
-        
-        if (this.resource!=null) {
-            StmtIterator iter = this.resource.listProperties();
-            
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                Property property = stmt.getPredicate();
-                RDFNode node = stmt.getObject();
-                // Only consider those statements with a literal as an object
-                if (node.isLiteral()) {
-                    String propLocalName = property.getURI();
-                    SKOSAnnotationProperty annotationProperty = SKOSAnnotationProperty.fromString(propLocalName);
-                    if (annotationProperty!=null && !annotationProperties.contains(annotationProperty)) annotationProperties.add(annotationProperty);
-                }
-            }
-            iter.close();
-        }
-        
-        return annotationProperties;
+        return this.getAnnotationView().getProperties();
     }
 
+
     /**
      * {@inheritDoc}
      * @return {@inheritDoc}
      */
     @Override
     public List<String> getAnnotationLanguages() {
-        List<String> languages = new ArrayList<>();
-        
-        if (this.resource!=null) {
-            StmtIterator iter = this.resource.listProperties();
-            
-            while (iter.hasNext()) {
-                Statement stmt = iter.next();
-                Property property = stmt.getPredicate();
-                RDFNode node = stmt.getObject();
-                // Only consider those statements with a literal as an object
-                if (node.isLiteral()) {
-                    Literal literal = (Literal)node;
-                    String lang = literal.getLanguage();
-                    String propLocalName = property.getLocalName();
-                    SKOSAnnotationProperty annotationProperty = SKOSAnnotationProperty.fromString(propLocalName);
-                    if (annotationProperty!=null && !languages.contains(lang)) languages.add(lang);
-                }
-            }
-            iter.close();
-        }
-        
-        return languages;
+        return this.getAnnotationView().getLanguages();
     }
 
+
     /**
      * {@inheritDoc}
      * @param annotationProperty {@inheritDoc}
@@ -461,30 +336,11 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public List<String> getAnnotationLanguages(SKOSAnnotationProperty annotationProperty) {
-        List<String> languages = new ArrayList<>();
-        
-        if (this.resource!=null) {
-            Property property = ((JenaSKOS)(this.getSKOS())).getProperty(annotationProperty);
-            if (property!=null) {
-                StmtIterator iter = this.resource.listProperties(property);
-
-                while (iter.hasNext()) {
-                    Statement stmt = iter.next();
-                    RDFNode node = stmt.getObject();
-                    // Only consider those statements with a literal as an object
-                    if (node.isLiteral()) {
-                        Literal literal = (Literal)node;
-                        String lang = literal.getLanguage();
-                        if (!languages.contains(lang)) languages.add(lang);
-                    }
-                }
-                iter.close();
-            }
-        }
-        
-        return languages;
+        if (annotationProperty!=null) return this.getAnnotationView().getLanguages(annotationProperty);
+        return new ArrayList<>();
     }
-    
+
+
     /**
      * {@inheritDoc}
      * @param relationshipType {@inheritDoc}
@@ -493,6 +349,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public SKOSResource addRelation(SKOSObjectProperty relationshipType, String someResourceURI) {
+        this.unloadStatements();
         if (this.resource!=null && relationshipType!=null) {
             if (someResourceURI!=null && !someResourceURI.isEmpty()) {
 
@@ -564,7 +421,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
             Property property = ((JenaSKOS)(this.getSKOS())).getProperty(relationshipType);
             
             if (property!=null) {
-                iter = this.resource.listProperties(property);
+                iter = this.listLoadedProperties(property);
             }
             else iter = null;
         }
@@ -850,6 +707,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public SKOSResource removeRelations(SKOSObjectProperty relationshipType) {
+        this.unloadStatements();
         if (this.resource!=null) {
             Property property = ((JenaSKOS)(this.getSKOS())).getProperty(relationshipType);
 
@@ -868,6 +726,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
      */
     @Override
     public SKOSResource removeRelation(SKOSObjectProperty relationshipType, String resourceURI) {
+        this.unloadStatements();
         if (this.resource!=null && relationshipType!=null && resourceURI!=null && !resourceURI.isEmpty()) {
 
             Property property = ((JenaSKOS)(this.getSKOS())).getProperty(relationshipType);
@@ -1164,13 +1023,16 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
 
             if (property!=null) {
                 StmtIterator iter = this.getModel().listStatements((Resource)null, property, this.resource);
-
-                while (iter.hasNext()) {
-                    Statement stmt = iter.next();
-                    Resource subject = stmt.getSubject();
-                    if (jenaResourceIsSKOSResource(subject)) return true;
+                try {
+                    while (iter.hasNext()) {
+                        Statement stmt = iter.next();
+                        Resource subject = stmt.getSubject();
+                        if (jenaResourceIsSKOSResource(subject)) return true;
+                    }
+                }
+                finally {
+                    iter.close();
                 }
-                iter.close();
             }
         }
         
@@ -1388,7 +1250,7 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
         List<SKOSConceptScheme> conceptSchemes = new ArrayList<>();
         Property property = ((JenaSKOS) (this.getSKOS())).getProperty(SKOSElementProperty.inScheme);
         if (property != null) {
-            StmtIterator iter = this.resource.listProperties(property);
+            StmtIterator iter = this.listLoadedProperties(property);
             while (iter.hasNext()) {
                 Statement stmt = iter.nextStatement();
                 RDFNode node = stmt.getObject();
@@ -1411,7 +1273,104 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
     // ******** ******** ******** ******** ******** ******** ******** ********
     // Methods specific to JenaSKOSResource
     // ******** ******** ******** ******** ******** ******** ******** ********
-    
+
+    /**
+     * Loads the provided statements as the statements of this resource.
+     * Subsequent reads of annotations and relations of this resource (labels,
+     * concept schemes, etc.) are answered from these statements instead of the
+     * underlying model, until the resource is modified through this object.
+     * This is used by {@link JenaSKOS#getConcepts(java.util.Collection)} to
+     * load resources in one pass.
+     * @param statements Statements whose subject is this resource. These
+     * should be <i>all</i> the statements of the resource in the underlying
+     * model. Statements with a different subject are ignored.
+     */
+    protected void loadStatements(Collection<Statement> statements) {
+        Map<Property, List<Statement>> stmtMap = new LinkedHashMap<>();
+        if (statements != null) {
+            for (Statement stmt: statements) {
+                if (stmt!=null && this.resource.equals(stmt.getSubject())) {
+                    List<Statement> propStatements = stmtMap.get(stmt.getPredicate());
+                    if (propStatements == null) {
+                        propStatements = new ArrayList<>(1);
+                        stmtMap.put(stmt.getPredicate(), propStatements);
+                    }
+                    propStatements.add(stmt);
+                }
+            }
+        }
+        this.loadedStatements = stmtMap;
+        this.annotationView = null;
+    }
+
+    /**
+     * Discards any statements previously loaded using
+     * {@link #loadStatements(java.util.Collection)}, so that properties are
+     * read from the underlying model again
+     */
+    protected void unloadStatements() {
+        this.loadedStatements = null;
+        this.annotationView = null;
+    }
+
+    /**
+     * Indicates whether the statements of this resource have been loaded
+     * using {@link #loadStatements(java.util.Collection)}
+     * @return {@code true} if the statements of this resource are loaded,
+     * {@code false} otherwise
+     */
+    public boolean hasLoadedStatements() {
+        return (this.loadedStatements != null);
+    }
+
+    /**
+     * Returns the annotations of this resource. On first call, these are read
+     * with one scan of the loaded statements if any, otherwise of the
+     * statements of the resource in the underlying model. They are then kept
+     * until the resource is modified through this object.
+     * @return Annotations of this resource
+     */
+    AnnotationView getAnnotationView() {
+        AnnotationView view = this.annotationView;
+        if (view == null) {
+            Map<Property, List<Statement>> stmtMap = this.loadedStatements;
+            if (stmtMap != null) {
+                List<Statement> statements = new ArrayList<>();
+                for (List<Statement> propStatements: stmtMap.values()) statements.addAll(propStatements);
+                view = new AnnotationView(statements.iterator());
+            }
+            else {
+                StmtIterator iter = this.resource.listProperties();
+                try {
+                    view = new AnnotationView(iter);
+                }
+                finally {
+                    iter.close();
+                }
+            }
+            this.annotationView = view;
+        }
+        return view;
+    }
+
+    /**
+     * Lists the statements of this resource with the provided predicate. These
+     * are taken from the loaded statements if any, otherwise from the
+     * underlying model.
+     * @param property Predicate of the statements to list
+     * @return Iterator over the statements of this resource whose predicate is
+     * {@code property}
+     */
+    protected StmtIterator listLoadedProperties(Property property) {
+        Map<Property, List<Statement>> stmtMap = this.loadedStatements;
+        if (stmtMap != null) {
+            List<Statement> statements = stmtMap.get(property);
+            if (statements == null) statements = Collections.emptyList();
+            return new StmtIteratorImpl(statements.iterator());
+        }
+        else return this.resource.listProperties(property);
+    }
+
     /**
      * Return an iterator over the Jena resources that this SKOS resource is
      * related to through the provided SKOS relationship type
@@ -1894,56 +1853,67 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
 
     @Override
     public Resource addLiteral(Property p, boolean o) {
+        this.unloadStatements();
         return resource.addLiteral(p, o);
     }
 
     @Override
     public Resource addLiteral(Property p, long o) {
+        this.unloadStatements();
         return resource.addLiteral(p, o);
     }
 
     @Override
     public Resource addLiteral(Property p, char o) {
+        this.unloadStatements();
         return resource.addLiteral(p, o);
     }
 
     @Override
     public Resource addLiteral(Property value, double d) {
+        this.unloadStatements();
         return resource.addLiteral(value, d);
     }
 
     @Override
     public Resource addLiteral(Property value, float d) {
+        this.unloadStatements();
         return resource.addLiteral(value, d);
     }
 
     @Override
     public Resource addLiteral(Property p, Object o) {
+        this.unloadStatements();
         return resource.addLiteral(p, o);
     }
 
     @Override
     public Resource addLiteral(Property p, Literal o) {
+        this.unloadStatements();
         return resource.addLiteral(p, o);
     }
 
     @Override
     public Resource addProperty(Property p, String o) {
+        this.unloadStatements();
         return resource.addProperty(p, o);
     }
 
     @Override
     public Resource addProperty(Property p, String o, String l) {
+        this.unloadStatements();
         return resource.addProperty(p, o, l);
     }
 
     @Override
     public Resource addProperty(Property p, String lexicalForm, RDFDatatype datatype) {
+        this.unloadStatements();
         return resource.addProperty(p, lexicalForm, datatype);
     }
 
     @Override
     public Resource addProperty(Property p, RDFNode o) {
+        this.unloadStatements();
         return resource.addProperty(p, o);
     }
 
@@ -1999,11 +1969,13 @@ public abstract class JenaSKOSResource extends AbstractSKOSResource implements R
 
     @Override
     public Resource removeProperties() {
+        this.unloadStatements();
         return resource.removeProperties();
     }
 
     @Override
     public Resource removeAll(Property p) {
+        this.unloadStatements();
         return resource.removeAll(p);
     }
 
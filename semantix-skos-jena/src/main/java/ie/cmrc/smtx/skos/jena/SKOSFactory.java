@@ -22,8 +22,24 @@ import com.hp.hpl.jena.ontology.OntModelSpec;
 import com.hp.hpl.jena.rdf.model.InfModel;
 import com.hp.hpl.jena.rdf.model.Model;
 import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.rdf.model.Literal;
+import com.hp.hpl.jena.rdf.model.RDFNode;
+import com.hp.hpl.jena.rdf.model.Resource;
+import com.hp.hpl.jena.rdf.model.Statement;
+import com.hp.hpl.jena.rdf.model.StmtIterator;
+import com.hp.hpl.jena.shared.Lock;
+import com.hp.hpl.jena.vocabulary.RDF;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotBuilder;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
 
 /**
  * Provides methods for creating SKOS thesauri and inferencing
@@ -137,7 +153,7 @@ public class SKOSFactory {
      * http://www.w3.org/2004/02/skos/core# and uses it to initialise the thesaurus<br/>
      * You may need to improve this by storing SKOS locally...
      * @return An empty {@link ie.cmrc.skos.core.SKOS} that supports inferences.
-     * The inner Jena Model of this {@link JenaSKOS} is a Jena InfModel
+     * The inner Jena Model of this {@link JenaSKOS} wraps a Jena InfModel
      * ({@code com.hp.hpl.jena.rdf.model.InfModel}) that uses
      * {@code com.hp.hpl.jena.ontology.OntModelSpec.OWL_MEM_MICRO_RULE_INF}
      */
@@ -153,7 +169,7 @@ public class SKOSFactory {
      * @param ontModelSpec A Jena {@code com.hp.hpl.jena.ontology.OntModelSpec} that specifies the
      * reasoner to use for inferencing
      * @return An empty {@link ie.cmrc.skos.core.SKOS} that supports inferences.
-     * The inner Jena Model of this {@link JenaSKOS} is a Jena InfModel
+     * The inner Jena Model of this {@link JenaSKOS} wraps a Jena InfModel
      * ({@code com.hp.hpl.jena.rdf.model.InfModel})
      */
     public static JenaSKOS createInferencingSKOSThesaurus(OntModelSpec ontModelSpec) {
@@ -198,6 +214,99 @@ public class SKOSFactory {
         return new JenaSKOS(infModel);
     }
     
+    /**
+     * Creates an immutable, in-memory snapshot of the SKOS thesaurus stored in
+     * the provided TDB directory. The TDB store is read once, then closed.
+     * @param tdbDirectory Path to the TDB data directory
+     * @return {@link ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS} holding the
+     * SKOS resources, relationships and annotations of the TDB store
+     */
+    public static SnapshotSKOS createSKOSSnapshot(String tdbDirectory) {
+        TDBSKOS thesaurus = new TDBSKOS(tdbDirectory);
+        try {
+            return createSKOSSnapshot(thesaurus);
+        }
+        finally {
+            thesaurus.close();
+        }
+    }
+    
+    /**
+     * Creates an immutable, in-memory snapshot of the SKOS thesaurus held by
+     * the provided model. The statements of the model are scanned in a single
+     * pass, rather than resource by resource through the
+     * {@link ie.cmrc.smtx.skos.model.SKOS} API.
+     * @param model Jena model ({@code com.hp.hpl.jena.rdf.model.Model})
+     * @return {@link ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS} holding the
+     * SKOS resources, relationships and annotations of {@code model}
+     */
+    public static SnapshotSKOS createSKOSSnapshot(Model model) {
+        return createSKOSSnapshot(model, true);
+    }
+    
+    /**
+     * Creates an immutable, in-memory snapshot of the SKOS thesaurus held by
+     * the provided model, with or without its annotations
+     * @param model Jena model ({@code com.hp.hpl.jena.rdf.model.Model})
+     * @param annotations Whether the annotations (labels, notes, etc.) are
+     * kept. Without them, the snapshot only holds the structure of the
+     * thesaurus.
+     * @return {@link ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS} holding the
+     * SKOS resources and relationships of {@code model}, and its annotations
+     * if {@code annotations} is {@code true}
+     */
+    static SnapshotSKOS createSKOSSnapshot(Model model, boolean annotations) {
+        Map<String, SKOSType> types = new HashMap<>();
+        for (SKOSType type: SKOSType.values()) types.put(type.uri(), type);
+        Map<String, SKOSObjectProperty> objectProperties = new HashMap<>();
+        for (SKOSSemanticProperty property: SKOSSemanticProperty.values()) objectProperties.put(property.uri(), property);
+        for (SKOSElementProperty property: SKOSElementProperty.values()) objectProperties.put(property.uri(), property);
+        Map<String, SKOSAnnotationProperty> annotationProperties = new HashMap<>();
+        for (SKOSAnnotationProperty property: SKOSAnnotationProperty.values()) annotationProperties.put(property.uri(), property);
+        String rdfType = RDF.type.getURI();
+        
+        SnapshotBuilder builder = new SnapshotBuilder();
+        if (model != null) {
+            // Read the statements within one read critical section, so that
+            // they are read lazily from a consistent state of the data
+            model.enterCriticalSection(Lock.READ);
+            try {
+                StmtIterator iter = model.listStatements();
+                while (iter.hasNext()) {
+                    Statement statement = iter.next();
+                    String subject = statement.getSubject().getURI();
+                    String predicate = statement.getPredicate().getURI();
+                    RDFNode object = statement.getObject();
+                    if (subject == null || predicate == null) continue;
+                
+                    if (object.isURIResource()) {
+                        String objectURI = ((Resource)object).getURI();
+                        if (predicate.equals(rdfType)) {
+                            SKOSType type = types.get(objectURI);
+                            if (type != null) builder.addResource(subject, type);
+                        }
+                        else {
+                            SKOSObjectProperty property = objectProperties.get(predicate);
+                            if (property != null) builder.addRelation(subject, property, objectURI);
+                        }
+                    }
+                    else if (annotations && object.isLiteral()) {
+                        SKOSAnnotationProperty property = annotationProperties.get(predicate);
+                        if (property != null) {
+                            Literal literal = (Literal)object;
+                            builder.addAnnotation(subject, property, literal.getString(), literal.getLanguage());
+                        }
+                    }
+                }
+                iter.close();
+            }
+            finally {
+                model.leaveCriticalSection();
+            }
+        }
+        return builder.build();
+    }
+    
     /**
      * Creates a Jena Model that contains the SKOS and SKOSX ontologies
      * @return Jena Model
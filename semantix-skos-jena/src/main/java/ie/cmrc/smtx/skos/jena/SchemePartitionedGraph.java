@@ -0,0 +1,254 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.Node;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.graph.TripleMatch;
+import com.hp.hpl.jena.graph.impl.GraphBase;
+import com.hp.hpl.jena.shared.PrefixMapping;
+import com.hp.hpl.jena.sparql.core.DatasetGraph;
+import com.hp.hpl.jena.sparql.core.Quad;
+import com.hp.hpl.jena.util.iterator.ExtendedIterator;
+import com.hp.hpl.jena.vocabulary.RDF;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Jena graph that stores the statements of a thesaurus in one named graph
+ * per concept scheme of a dataset, and serves the union of the named graphs
+ * for reading.<br/>
+ * The statements of a resource (i.e., the statements of which it is the
+ * subject) are stored in the named graph of each concept scheme the resource
+ * belongs to (skos:inScheme). The statements of a concept scheme are stored
+ * in its own named graph, and those of the resources that belong to no
+ * concept scheme in the {@link #UNSCOPED} graph. Named graphs are named after
+ * the URI of their concept scheme. When a resource is added to or removed
+ * from a concept scheme, its statements are moved accordingly.<br/>
+ * Consequently, the statements of a concept scheme may be read (see
+ * {@link #getConceptSchemeGraph(com.hp.hpl.jena.graph.Node)}) or removed
+ * (see {@link #clearConceptScheme(com.hp.hpl.jena.graph.Node)}) without
+ * going through the whole thesaurus.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class SchemePartitionedGraph extends GraphBase {
+    
+    /**
+     * Name of the graph holding the statements of the resources that belong
+     * to no concept scheme
+     */
+    public static final Node UNSCOPED = Node.createURI("urn:x-semantix:graph:unscoped");
+    
+    /**
+     * skos:inScheme property node
+     */
+    private static final Node IN_SCHEME = PropertyFactory.inScheme.asNode();
+    
+    /**
+     * skos:ConceptScheme type node
+     */
+    private static final Node CONCEPT_SCHEME = TypeResourceFactory.CONCEPT_SCHEME.asNode();
+    
+    /**
+     * Underlying dataset
+     */
+    private final DatasetGraph dataset;
+    
+    /**
+     * Union of the named graphs of {@link #dataset}
+     */
+    private final Graph union;
+    
+    /**
+     * Subject of the last added statement
+     */
+    private Node lastSubject = null;
+    
+    /**
+     * Graphs of {@link #lastSubject}
+     */
+    private List<Node> lastGraphs = null;
+
+    /**
+     * Constructs a {@link SchemePartitionedGraph}
+     * @param dataset Dataset holding the named graphs. Its union graph must
+     * be available as {@code com.hp.hpl.jena.sparql.core.Quad.unionGraph},
+     * as with TDB datasets.
+     * @throws IllegalArgumentException if {@code dataset} is {@code null}
+     */
+    public SchemePartitionedGraph(DatasetGraph dataset) {
+        if (dataset == null) throw new IllegalArgumentException("SchemePartitionedGraph constructor: DatasetGraph argument must not be null");
+        this.dataset = dataset;
+        this.union = dataset.getGraph(Quad.unionGraph);
+    }
+
+    /**
+     * Returns the underlying dataset
+     * @return Dataset holding the named graphs
+     */
+    public DatasetGraph getDataset() {
+        return this.dataset;
+    }
+
+    /**
+     * Returns the named graph of the provided concept scheme. This holds the
+     * statements of the concept scheme and of its resources only.
+     * @param conceptScheme Concept scheme node
+     * @return Named graph of {@code conceptScheme}
+     */
+    public Graph getConceptSchemeGraph(Node conceptScheme) {
+        return this.dataset.getGraph(conceptScheme);
+    }
+
+    /**
+     * Removes all the statements of the named graph of the provided concept
+     * scheme. Resources that also belong to other concept schemes keep their
+     * statements in the graphs of those.
+     * @param conceptScheme Concept scheme node
+     */
+    public void clearConceptScheme(Node conceptScheme) {
+        this.lastSubject = null;
+        this.dataset.deleteAny(conceptScheme, Node.ANY, Node.ANY, Node.ANY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Prefix mapping of the default graph of the dataset
+     */
+    @Override
+    public PrefixMapping getPrefixMapping() {
+        return this.dataset.getDefaultGraph().getPrefixMapping();
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Statements are read from the union of the named graphs.
+     * @param m {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    protected ExtendedIterator<Triple> graphBaseFind(TripleMatch m) {
+        return this.union.find(m);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The statement is added to the graphs of its subject. Adding a resource
+     * to a concept scheme, or declaring a concept scheme, moves the
+     * statements of the resource to their new graphs.
+     * @param t {@inheritDoc}
+     */
+    @Override
+    public void performAdd(Triple t) {
+        Node subject = t.getSubject();
+        if (isScopeStatement(t)) {
+            this.dataset.add(new Quad(IN_SCHEME.equals(t.getPredicate()) ? t.getObject() : subject, t));
+            this.relocate(subject);
+        }
+        else {
+            for (Node graph: this.graphsOf(subject)) this.dataset.add(new Quad(graph, t));
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The statement is removed from all the graphs. Removing a resource from
+     * a concept scheme moves its remaining statements to their new graphs.
+     * @param t {@inheritDoc}
+     */
+    @Override
+    public void performDelete(Triple t) {
+        List<Quad> quads = new ArrayList<>();
+        Iterator<Quad> iter = this.dataset.find(Node.ANY, t.getSubject(), t.getPredicate(), t.getObject());
+        while (iter.hasNext()) quads.add(iter.next());
+        for (Quad quad: quads) this.dataset.delete(quad);
+        if (isScopeStatement(t)) this.relocate(t.getSubject());
+    }
+
+    /**
+     * Indicates whether the provided statement determines the graphs of its
+     * subject, i.e., it is a skos:inScheme statement or declares a concept
+     * scheme
+     * @param t Statement
+     * @return {@code true} if {@code t} determines the graphs of its subject
+     */
+    private static boolean isScopeStatement(Triple t) {
+        return IN_SCHEME.equals(t.getPredicate()) || (RDF.type.asNode().equals(t.getPredicate()) && CONCEPT_SCHEME.equals(t.getObject()));
+    }
+
+    /**
+     * Returns the names of the graphs holding the statements of the provided
+     * resource
+     * @param subject Resource node
+     * @return Graph names: the resource itself if it is a concept scheme,
+     * otherwise its concept schemes if any, otherwise {@link #UNSCOPED}
+     */
+    private List<Node> graphsOf(Node subject) {
+        if (subject.equals(this.lastSubject)) return this.lastGraphs;
+        
+        List<Node> graphs;
+        if (this.union.contains(subject, RDF.type.asNode(), CONCEPT_SCHEME)) graphs = Collections.singletonList(subject);
+        else {
+            graphs = new ArrayList<>(1);
+            ExtendedIterator<Triple> iter = this.union.find(subject, IN_SCHEME, Node.ANY);
+            try {
+                while (iter.hasNext()) {
+                    Node conceptScheme = iter.next().getObject();
+                    if (conceptScheme.isURI()) graphs.add(conceptScheme);
+                }
+            }
+            finally {
+                iter.close();
+            }
+            if (graphs.isEmpty()) graphs = Collections.singletonList(UNSCOPED);
+        }
+        this.lastSubject = subject;
+        this.lastGraphs = graphs;
+        return graphs;
+    }
+
+    /**
+     * Moves the statements of the provided resource to its graphs
+     * @param subject Resource node
+     */
+    private void relocate(Node subject) {
+        this.lastSubject = null;
+        List<Node> graphs = this.graphsOf(subject);
+        
+        List<Quad> misplaced = new ArrayList<>();
+        Set<Triple> triples = new LinkedHashSet<>();
+        Iterator<Quad> iter = this.dataset.find(Node.ANY, subject, Node.ANY, Node.ANY);
+        while (iter.hasNext()) {
+            Quad quad = iter.next();
+            triples.add(quad.asTriple());
+            if (!graphs.contains(quad.getGraph())) misplaced.add(quad);
+        }
+        
+        for (Quad quad: misplaced) this.dataset.delete(quad);
+        for (Triple triple: triples) {
+            for (Node graph: graphs) this.dataset.add(new Quad(graph, triple));
+        }
+    }
+}
@@ -0,0 +1,254 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.graph.GraphListener;
+import com.hp.hpl.jena.graph.Triple;
+import com.hp.hpl.jena.rdf.model.Model;
+import ie.cmrc.smtx.jena.concurrent.ReentrantMRSWLock;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * In-memory index of the structure of the SKOS thesaurus held by a Jena
+ * graph: its SKOS resources, relationships, concept scheme and collection
+ * memberships, but not its annotations. The index is a
+ * {@link ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS}, so it holds the
+ * transitive reduction, root sets, membership bitmaps and reachability
+ * labelling of the hierarchy, which {@link JenaSKOS} uses instead of probing
+ * the graph statement by statement.<br/>
+ * An index is shared by all the thesauri wrapping the same graph within a
+ * JVM (see {@link #forGraph(com.hp.hpl.jena.graph.Graph)}). It is only valid
+ * for the generation of the data it was built at (see
+ * {@link ReentrantMRSWLock#getGeneration()}) and as long as the graph is not
+ * modified directly, bypassing the lock. Otherwise, it is rebuilt on next
+ * use.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class StructureIndex {
+
+    /**
+     * Indexes of the graphs. Graphs are weakly referenced so that the index
+     * of a graph is released with it.
+     */
+    private static final Map<Graph, StructureIndex> INDEXES = new WeakHashMap<>();
+
+    /**
+     * Number of direct changes made to the indexed graph
+     */
+    private final AtomicLong changes = new AtomicLong();
+
+    /**
+     * Held by the thread building the index
+     */
+    private final ReentrantLock building = new ReentrantLock();
+
+    /**
+     * Current index, or {@code null} if it has not been built yet
+     */
+    private volatile Entry entry = null;
+
+    /**
+     * Constructs a {@link StructureIndex} that tracks the changes of the
+     * provided graph
+     * @param graph Indexed graph
+     */
+    private StructureIndex(Graph graph) {
+        graph.getEventManager().register(new ChangeListener(this.changes));
+    }
+
+    /**
+     * Returns the index of the provided graph, creating it on first use
+     * @param graph Jena graph, not wrapped by a
+     * {@link ie.cmrc.smtx.jena.concurrent.LockingGraph}
+     * @return Index shared by all the callers providing the same graph
+     */
+    static StructureIndex forGraph(Graph graph) {
+        synchronized (INDEXES) {
+            StructureIndex index = INDEXES.get(graph);
+            if (index == null) {
+                index = new StructureIndex(graph);
+                INDEXES.put(graph, index);
+            }
+            return index;
+        }
+    }
+
+    /**
+     * Returns the index of the current state of the data, building it if it
+     * is missing or stale. The index is not built, and {@code null} is
+     * returned, if the current thread holds the write lock of the data,
+     * since the data may still change before the lock is released, or if
+     * another thread is already building it.
+     * @param model Model over the indexed graph, read under {@code lock}
+     * @param lock Lock of the data
+     * @return Index of the current state of the data, or {@code null} if it
+     * is not available
+     */
+    SnapshotSKOS get(Model model, ReentrantMRSWLock lock) {
+        Entry current = this.entry;
+        if (current != null && current.isValid(lock.getGeneration(), this.changes.get())) return current.index;
+        if (lock.isWriteLockedByCurrentThread() || !this.building.tryLock()) return null;
+        try {
+            lock.lockRead();
+            try {
+                long generation = lock.getGeneration();
+                long changeCount = this.changes.get();
+                current = this.entry;
+                if (current != null && current.isValid(generation, changeCount)) return current.index;
+                SnapshotSKOS index = SKOSFactory.createSKOSSnapshot(model, false);
+                this.entry = new Entry(index, generation, changeCount);
+                return index;
+            }
+            finally {
+                lock.unlockRead();
+            }
+        }
+        finally {
+            this.building.unlock();
+        }
+    }
+
+    /**
+     * Sets the index of the current state of the data, for example an index
+     * persisted along with the data
+     * @param index Index of the current state of the data
+     * @param lock Lock of the data
+     */
+    void set(SnapshotSKOS index, ReentrantMRSWLock lock) {
+        lock.lockRead();
+        try {
+            this.entry = new Entry(index, lock.getGeneration(), this.changes.get());
+        }
+        finally {
+            lock.unlockRead();
+        }
+    }
+
+    /**
+     * Index of one state of the data
+     */
+    private static final class Entry {
+
+        /**
+         * Index
+         */
+        final SnapshotSKOS index;
+
+        /**
+         * Generation of the data the index was built at
+         */
+        final long generation;
+
+        /**
+         * Number of direct changes of the graph when the index was built
+         */
+        final long changes;
+
+        Entry(SnapshotSKOS index, long generation, long changes) {
+            this.index = index;
+            this.generation = generation;
+            this.changes = changes;
+        }
+
+        /**
+         * Checks whether the index holds the provided state of the data
+         * @param generation Current generation of the data
+         * @param changes Current number of direct changes of the graph
+         * @return {@code true} if the index is up to date
+         */
+        boolean isValid(long generation, long changes) {
+            return this.generation == generation && this.changes == changes;
+        }
+    }
+
+    /**
+     * Graph listener counting the changes of the indexed graph. It only
+     * references the counter, so that it does not keep the index alive.
+     */
+    private static final class ChangeListener implements GraphListener {
+
+        private final AtomicLong changes;
+
+        ChangeListener(AtomicLong changes) {
+            this.changes = changes;
+        }
+
+        @Override
+        public void notifyAddTriple(Graph g, Triple t) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyAddArray(Graph g, Triple[] triples) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyAddList(Graph g, List<Triple> triples) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyAddIterator(Graph g, Iterator<Triple> it) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyAddGraph(Graph g, Graph added) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyDeleteTriple(Graph g, Triple t) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyDeleteList(Graph g, List<Triple> triples) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyDeleteArray(Graph g, Triple[] triples) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyDeleteIterator(Graph g, Iterator<Triple> it) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyDeleteGraph(Graph g, Graph removed) {
+            this.changes.incrementAndGet();
+        }
+
+        @Override
+        public void notifyEvent(Graph source, Object value) {
+            this.changes.incrementAndGet();
+        }
+    }
+}
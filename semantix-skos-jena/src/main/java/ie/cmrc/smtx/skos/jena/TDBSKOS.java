@@ -18,25 +18,104 @@
 
 package ie.cmrc.smtx.skos.jena;
 
+import com.hp.hpl.jena.graph.Graph;
+import com.hp.hpl.jena.query.Dataset;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import com.hp.hpl.jena.shared.Lock;
 import com.hp.hpl.jena.tdb.TDB;
 import com.hp.hpl.jena.tdb.TDBFactory;
+import com.hp.hpl.jena.tdb.solver.stats.Stats;
+import com.hp.hpl.jena.tdb.solver.stats.StatsCollector;
+import com.hp.hpl.jena.tdb.store.GraphTDB;
+import com.hp.hpl.jena.tdb.sys.Names;
+import ie.cmrc.smtx.jena.concurrent.LockingGraph;
 import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotFile;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotSKOS;
+import java.io.File;
+import java.io.IOException;
+import java.util.Iterator;
 
 /**
- * A persistent SKOSThesaurus that uses a Jena TDB as a backend.
+ * A persistent SKOSThesaurus that uses a Jena TDB as a backend.<br/>
+ * When the index of the thesaurus is not available, the concepts belonging
+ * to both a concept scheme and a collection are listed by TDB (see
+ * {@link JenaSKOS#setQueryPushdown(boolean)}). TDB orders the patterns of
+ * these queries using the statistics file of the data directory, if any,
+ * which may be generated using {@link #writeStatistics()}.<br/>
+ * The thesaurus may be stored in one named graph per concept scheme (see
+ * {@link #TDBSKOS(java.lang.String, boolean)}), so that concept scheme
+ * scoped listings only read the graph of the concept scheme, and concept
+ * schemes may be cleared and reloaded individually (see
+ * {@link JenaSKOS#clearConceptScheme(java.lang.String)}).<br/>
+ * The index of the structure of the thesaurus (see {@link JenaSKOS#getIndex()})
+ * may be persisted in the data directory (see {@link #writeStructureIndex()}),
+ * so that it is read from there rather than rebuilt from the store each
+ * time the directory is opened.
  * @author Yassine Lassoued <y.lassoued@ucc.ie>
  */
 public class TDBSKOS extends JenaSKOS implements SKOS {
     
+    /**
+     * Name of the file of the data directory holding the index of the
+     * structure of the thesaurus
+     */
+    public static final String STRUCTURE_INDEX_FILE = "structure.snapshot";
+    
     private final String tdbDir;
+    
+    /**
+     * Generation of the data the structure index file was read or written
+     * at, {@code -1} if this thesaurus has not read or written it
+     */
+    private volatile long structureIndexGeneration = -1;
 
     /**
-     * Constructs a {@link TDBSKOS} with the provided directory as a backend
+     * Constructs a {@link TDBSKOS} with the provided directory as a backend.
+     * A data directory that stores each concept scheme in its own named graph
+     * is opened with this layout (see {@link #TDBSKOS(java.lang.String, boolean)}).
      * @param tdbDir Path of the data directory
      */
     public TDBSKOS(String tdbDir) {
-        super(TDBFactory.createDataset(tdbDir));
+        this(tdbDir, false);
+    }
+
+    /**
+     * Constructs a {@link TDBSKOS} with the provided directory as a backend
+     * @param tdbDir Path of the data directory
+     * @param schemeGraphs Whether to store the statements of each concept
+     * scheme in their own named graph (see {@link SchemePartitionedGraph}),
+     * and serve the thesaurus as the union of these graphs. This layout is
+     * also used if the data directory already stores its statements in named
+     * graphs only. It should be chosen when the data directory is created.
+     */
+    public TDBSKOS(String tdbDir, boolean schemeGraphs) {
+        this(TDBFactory.createDataset(tdbDir), tdbDir, schemeGraphs);
+    }
+
+    /**
+     * Constructs a {@link TDBSKOS} over the provided TDB dataset
+     * @param dataset TDB dataset
+     * @param tdbDir Path of the data directory
+     * @param schemeGraphs Whether to store the statements of each concept
+     * scheme in their own named graph
+     */
+    private TDBSKOS(Dataset dataset, String tdbDir, boolean schemeGraphs) {
+        super(dataset, (schemeGraphs || hasSchemeGraphs(dataset)) ? ModelFactory.createModelForGraph(new SchemePartitionedGraph(dataset.asDatasetGraph())) : dataset.getDefaultModel());
         this.tdbDir = tdbDir;
+        this.readStructureIndex();
+    }
+
+    /**
+     * Indicates whether the provided dataset stores its statements in named
+     * graphs only
+     * @param dataset Dataset
+     * @return {@code true} if the default graph of {@code dataset} is empty
+     * and {@code dataset} has named graphs
+     */
+    private static boolean hasSchemeGraphs(Dataset dataset) {
+        Iterator<String> names = dataset.listNames();
+        return names.hasNext() && dataset.getDefaultModel().isEmpty();
     }
 
     /**
@@ -47,12 +126,123 @@ public class TDBSKOS extends JenaSKOS implements SKOS {
         return tdbDir;
     }
 
+    /**
+     * {@inheritDoc}<br/>
+     * Flushes the TDB indexes within a write critical section, so that the
+     * files are not synchronised in the middle of an update or a read.
+     * @return {@inheritDoc}
+     */
     @Override
     public SKOS sync() {
-        TDB.sync(this.dataset);
+        this.enterCriticalSection(Lock.WRITE);
+        try {
+            TDB.sync(this.dataset);
+            this.nextGeneration();
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+        if (this.structureIndexGeneration >= 0) {
+            try {
+                this.writeStructureIndex();
+            }
+            catch (IOException ex) {
+                this.deleteStructureIndex();
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * {@inheritDoc}<br/>
+     * The structure index file is deleted if the data changed since it was
+     * read or written, as it no longer matches the store.
+     */
+    @Override
+    public void close() {
+        if (this.structureIndexGeneration >= 0 && this.structureIndexGeneration != this.getGeneration()) this.deleteStructureIndex();
+        super.close();
+    }
+    
+    /**
+     * Writes the index of the structure of the thesaurus (see
+     * {@link JenaSKOS#getIndex()}) to the structure index file of the data
+     * directory ({@link #STRUCTURE_INDEX_FILE}). The index is read from this
+     * file the next time the directory is opened, rather than rebuilt from
+     * the store. The file is then rewritten by {@link #sync()}, and deleted
+     * by {@link #close()} if the data changed since it was last written. It
+     * must be rewritten, or deleted, after the data directory is modified by
+     * other means.
+     * @return This thesaurus
+     * @throws IOException If an IO error occurs while writing the file
+     */
+    public TDBSKOS writeStructureIndex() throws IOException {
+        File file = new File(this.tdbDir, STRUCTURE_INDEX_FILE);
+        this.enterCriticalSection(Lock.READ);
+        try {
+            long generation = this.getGeneration();
+            if (generation == this.structureIndexGeneration && file.isFile()) return this;
+            SnapshotSKOS index = this.getIndex();
+            if (index == null) index = SKOSFactory.createSKOSSnapshot(this.model, false);
+            SnapshotFile.write(index, file);
+            this.structureIndexGeneration = generation;
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
         return this;
     }
     
+    /**
+     * Reads the structure index file of the data directory, if any, as the
+     * index of the structure of the thesaurus. A file that cannot be read is
+     * ignored, and the index is then built from the store on first use.
+     */
+    private void readStructureIndex() {
+        File file = new File(this.tdbDir, STRUCTURE_INDEX_FILE);
+        if (!file.isFile()) return;
+        try {
+            SnapshotSKOS index = SnapshotFile.open(file);
+            this.enterCriticalSection(Lock.READ);
+            try {
+                this.setIndex(index);
+                this.structureIndexGeneration = this.getGeneration();
+            }
+            finally {
+                this.leaveCriticalSection();
+            }
+        }
+        catch (IOException ex) {
+            this.deleteStructureIndex();
+        }
+    }
     
+    /**
+     * Deletes the structure index file of the data directory
+     */
+    private void deleteStructureIndex() {
+        new File(this.tdbDir, STRUCTURE_INDEX_FILE).delete();
+        this.structureIndexGeneration = -1;
+    }
     
+    /**
+     * Gathers the statistics of the TDB store and writes them to the
+     * statistics file of the data directory. TDB uses this file to order the
+     * patterns of the queries executed against the store from the next time
+     * it is opened.
+     * @return This thesaurus
+     */
+    public TDBSKOS writeStatistics() {
+        Graph graph = this.model.getGraph();
+        if (graph instanceof LockingGraph) graph = ((LockingGraph) graph).getBase();
+        this.enterCriticalSection(Lock.READ);
+        try {
+            StatsCollector stats = (graph instanceof GraphTDB) ? Stats.gatherTDB((GraphTDB) graph) : Stats.gather(graph);
+            Stats.write(new File(this.tdbDir, Names.optStats).getPath(), stats);
+        }
+        finally {
+            this.leaveCriticalSection();
+        }
+        return this;
+    }
 }
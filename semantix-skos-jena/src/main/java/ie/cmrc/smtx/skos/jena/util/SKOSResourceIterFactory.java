@@ -33,6 +33,7 @@ import ie.cmrc.smtx.skos.jena.JenaSKOSConceptScheme;
 import ie.cmrc.smtx.skos.jena.JenaSKOSResource;
 import ie.cmrc.smtx.skos.jena.JenaSKOSCollectionMember;
 import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import ie.cmrc.smtx.skos.model.util.IteratorTracker;
 
 /**
  * A factory class for creating {@link ie.cmrc.skos.core.SKOSResource} iterators
@@ -48,7 +49,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSResource> makeSKOSResourceIterOverSubjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSResource>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSResource>() {
 
             boolean isOpen= true;
 
@@ -95,7 +96,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSConceptScheme> makeSKOSConceptSchemeIterOverSubjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSConceptScheme>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSConceptScheme>() {
 
             boolean isOpen= true;
 
@@ -142,7 +143,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSCollectionMember> makeSKOSCollectionMemberIterOverSubjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSCollectionMember>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSCollectionMember>() {
 
             boolean isOpen= true;
 
@@ -188,7 +189,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSConcept> makeSKOSConceptIterOverSubjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSConcept>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSConcept>() {
 
             boolean isOpen= true;
 
@@ -235,7 +236,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSCollection> makeSKOSCollectionIterOverSubjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSCollection>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSCollection>() {
 
             boolean isOpen= true;
 
@@ -282,7 +283,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSResource> makeSKOSResourceIterOverObjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSResource>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSResource>() {
 
             boolean isOpen= true;
 
@@ -331,7 +332,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSConceptScheme> makeSKOSConceptSchemeIterOverObjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSConceptScheme>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSConceptScheme>() {
 
             boolean isOpen= true;
 
@@ -380,7 +381,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSCollectionMember> makeSKOSCollectionMemberIterOverObjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSCollectionMember>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSCollectionMember>() {
 
             boolean isOpen= true;
 
@@ -429,7 +430,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSConcept> makeSKOSConceptIterOverObjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSConcept>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSConcept>() {
 
             boolean isOpen= true;
 
@@ -478,7 +479,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@code com.hp.hpl.jena.rdf.model.StmtIterator}
      */
     public static CloseableIterator<SKOSCollection> makeSKOSCollectionIterOverObjects(final StmtIterator iter) {
-        return (new CloseableIterator<SKOSCollection>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSCollection>() {
 
             boolean isOpen= true;
 
@@ -530,7 +531,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@link JenaResourceIterator}
      */
     public static CloseableIterator<SKOSResource> makeSKOSResourceIter(final JenaResourceIterator iter) {
-        return (new CloseableIterator<SKOSResource>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSResource>() {
 
             boolean isOpen= true;
 
@@ -576,7 +577,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@link JenaResourceIterator}
      */
     public static CloseableIterator<SKOSConceptScheme> makeSKOSConceptSchemeIter(final JenaResourceIterator iter) {
-        return (new CloseableIterator<SKOSConceptScheme>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSConceptScheme>() {
 
             boolean isOpen= true;
 
@@ -622,7 +623,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@link JenaResourceIterator}
      */
     public static CloseableIterator<SKOSCollectionMember> makeSKOSCollectionMemberIter(final JenaResourceIterator iter) {
-        return (new CloseableIterator<SKOSCollectionMember>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSCollectionMember>() {
 
             boolean isOpen= true;
 
@@ -667,7 +668,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@link JenaResourceIterator}
      */
     public static CloseableIterator<SKOSConcept> makeSKOSConceptIter(final JenaResourceIterator iter) {
-        return (new CloseableIterator<SKOSConcept>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSConcept>() {
 
             boolean isOpen= true;
 
@@ -713,7 +714,7 @@ public class SKOSResourceIterFactory {
      * elements of the provided {@link JenaResourceIterator}
      */
     public static CloseableIterator<SKOSCollection> makeSKOSCollectionIter(final JenaResourceIterator iter) {
-        return (new CloseableIterator<SKOSCollection>() {
+        return IteratorTracker.track(new CloseableIterator<SKOSCollection>() {
 
             boolean isOpen= true;
 
@@ -0,0 +1,248 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the concept listings pushed down to a dataset (see
+ * {@link FilteredQuery}) return the same concepts as the
+ * {@link ie.cmrc.smtx.jena.selector.FilteredSelector} fallback, and that the
+ * filtered relation queries of a dataset backed thesaurus return the same
+ * concepts as a plain model thesaurus
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class QueryPushdownTest {
+
+    private static final String NS = "http://example.org/";
+
+    private static final int CONCEPTS = 60;
+
+    private static final int SCHEMES = 3;
+
+    private static final int COLLECTIONS = 3;
+
+    private static final List<SKOSSemanticProperty> PROPERTIES = Arrays.asList(
+            SKOSSemanticProperty.broader, SKOSSemanticProperty.narrower, SKOSSemanticProperty.related,
+            SKOSSemanticProperty.semanticRelation);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void pushdownMatchesTheFallbackOnTDB() throws Exception {
+        TDBSKOS skos = new TDBSKOS(this.folder.newFolder("tdb").getPath());
+        try {
+            populate(skos, 7);
+            assertTrue(skos.isQueryPushdown());
+            assertSameAnswers(skos, populate(new JenaSKOS(ModelFactory.createDefaultModel()), 7));
+        }
+        finally {
+            skos.close();
+        }
+    }
+
+    @Test
+    public void pushdownMatchesTheFallbackOnSchemeGraphs() throws Exception {
+        TDBSKOS skos = new TDBSKOS(this.folder.newFolder("graphs").getPath(), true);
+        try {
+            populate(skos, 11);
+            assertTrue(skos.isQueryPushdown());
+            assertSameAnswers(skos, populate(new JenaSKOS(ModelFactory.createDefaultModel()), 11));
+        }
+        finally {
+            skos.close();
+        }
+    }
+
+    @Test
+    public void pushdownIsOnlyAvailableOnDatasets() {
+        JenaSKOS skos = new JenaSKOS(ModelFactory.createDefaultModel());
+        assertFalse(skos.isQueryPushdown());
+        assertFalse(skos.setQueryPushdown(true).isQueryPushdown());
+    }
+
+    /**
+     * Writes a random thesaurus
+     * @param skos Thesaurus to populate
+     * @param seed Random seed, the same seed writes the same thesaurus
+     * @return {@code skos}
+     */
+    private static JenaSKOS populate(JenaSKOS skos, long seed) {
+        Random random = new Random(seed);
+        SKOSBulkWriter writer = skos.createBulkWriter(true, true, 200);
+        for (int i = 0; i < SCHEMES; i++) writer.addResource(NS + "s" + i, SKOSType.ConceptScheme);
+        for (int i = 0; i < COLLECTIONS; i++) writer.addResource(NS + "k" + i, SKOSType.Collection);
+        for (int i = 0; i < CONCEPTS; i++) {
+            String uri = NS + "c" + i;
+            // Some concepts belong to no concept scheme or collection
+            for (int s = 0; s < SCHEMES; s++) {
+                if (random.nextInt(3) == 0) writer.addRelation(uri, SKOSElementProperty.inScheme, NS + "s" + s);
+            }
+            writer.addResource(uri, SKOSType.Concept);
+            for (int k = 0; k < COLLECTIONS; k++) {
+                if (random.nextInt(3) == 0) writer.addRelation(NS + "k" + k, SKOSElementProperty.member, uri);
+            }
+        }
+        for (int i = 1; i < CONCEPTS; i++) {
+            String uri = NS + "c" + i;
+            int parents = random.nextInt(3);
+            for (int p = 0; p < parents; p++) writer.addRelation(uri, SKOSSemanticProperty.broader, NS + "c" + random.nextInt(i));
+            if (random.nextInt(4) == 0) writer.addRelation(uri, SKOSSemanticProperty.related, NS + "c" + random.nextInt(CONCEPTS));
+        }
+        writer.close();
+        return skos;
+    }
+
+    /**
+     * Checks that the filtered concept listing queries return the same
+     * concepts with and without pushdown, and that they and the filtered
+     * relation and relationship source queries return the same concepts as
+     * a thesaurus held in a plain model
+     * @param skos Dataset backed thesaurus
+     * @param reference Plain model thesaurus holding the same statements
+     */
+    private static void assertSameAnswers(JenaSKOS skos, JenaSKOS reference) {
+        // Listings are only pushed down, or filtered by probing the model, without the index
+        skos.setIndexing(false);
+        reference.setIndexing(false);
+        List<SKOSConceptScheme> schemes = new ArrayList<>();
+        for (int i = 0; i < SCHEMES; i++) schemes.add(skos.getConceptScheme(NS + "s" + i));
+        schemes.add(null);
+        List<SKOSCollection> collections = new ArrayList<>();
+        for (int i = 0; i < COLLECTIONS; i++) collections.add(skos.getCollection(NS + "k" + i));
+        collections.add(null);
+
+        int nonEmpty = 0;
+        for (int i = 0; i < CONCEPTS; i++) {
+            SKOSConcept concept = skos.getConcept(NS + "c" + i);
+            for (SKOSSemanticProperty property: PROPERTIES) {
+                for (SKOSConceptScheme scheme: schemes) {
+                    for (SKOSCollection collection: collections) {
+                        String message = concept.getURI() + " " + property + " " + scheme + " " + collection;
+
+                        Set<String> relations = uris(skos.listSemanticRelations(concept, property, scheme, collection));
+                        Set<String> sources = uris(skos.listSemanticRelationshipSources(property, concept, scheme, collection));
+                        Set<String> relationsIn = uris(skos.listSemanticRelations(concept, property, list(scheme), list(collection)));
+                        Set<String> sourcesIn = uris(skos.listSemanticRelationshipSources(property, concept, list(scheme), list(collection)));
+                        if (!relations.isEmpty()) nonEmpty++;
+
+                        SKOSConcept same = reference.getConcept(concept.getURI());
+                        assertEquals(message, uris(reference.listSemanticRelations(same, property, counterpart(reference, scheme), counterpart(reference, collection))), relations);
+                        assertEquals(message, uris(reference.listSemanticRelationshipSources(property, same, counterpart(reference, scheme), counterpart(reference, collection))), sources);
+                        assertEquals(relations, relationsIn);
+                        assertEquals(sources, sourcesIn);
+                    }
+                }
+            }
+        }
+        // Make sure the filters were not vacuous
+        assertTrue(nonEmpty > CONCEPTS);
+
+        for (SKOSConceptScheme scheme: schemes) {
+            if (scheme == null) continue;
+            for (SKOSCollection collection: collections) {
+                String message = scheme + " " + collection;
+                skos.setQueryPushdown(true);
+                Set<String> inScheme = uris(skos.listConcepts(scheme));
+                Set<String> inBoth = (collection != null) ? uris(skos.listConcepts(scheme, collection)) : null;
+                Set<String> inBothReversed = (collection != null) ? uris(skos.listConcepts(collection, scheme)) : null;
+                Set<String> inCollection = (collection != null) ? uris(skos.listConcepts(collection)) : null;
+                skos.setQueryPushdown(false);
+                assertEquals(message, uris(skos.listConcepts(scheme)), inScheme);
+                assertEquals(message, uris(reference.listConcepts(counterpart(reference, scheme))), inScheme);
+                if (collection != null) {
+                    assertFalse(inScheme.isEmpty());
+                    assertEquals(message, uris(skos.listConcepts(scheme, collection)), inBoth);
+                    assertEquals(message, uris(skos.listConcepts(collection, scheme)), inBothReversed);
+                    assertEquals(message, uris(skos.listConcepts(collection)), inCollection);
+                    assertEquals(message, inBoth, inBothReversed);
+                    assertEquals(message, uris(reference.listConcepts(counterpart(reference, scheme), counterpart(reference, collection))), inBoth);
+                }
+            }
+        }
+    }
+
+    /**
+     * Reads the URIs of the concepts of an iterator, and closes it
+     * @param concepts Concept iterator
+     * @return Sorted concept URIs
+     */
+    private static Set<String> uris(CloseableIterator<SKOSConcept> concepts) {
+        Set<String> uris = new TreeSet<>();
+        try {
+            while (concepts.hasNext()) uris.add(concepts.next().getURI());
+        }
+        finally {
+            concepts.close();
+        }
+        return uris;
+    }
+
+    /**
+     * Wraps an optional filter into a list
+     * @param <T> Filter type
+     * @param filter Concept scheme or collection, may be {@code null}
+     * @return Singleton list of {@code filter}, or {@code null} if
+     * {@code filter} is {@code null}
+     */
+    private static <T> List<T> list(T filter) {
+        return (filter != null) ? Collections.singletonList(filter) : null;
+    }
+
+    /**
+     * Looks up a concept scheme in another thesaurus
+     * @param skos Thesaurus
+     * @param scheme Concept scheme, may be {@code null}
+     * @return Concept scheme of {@code skos} with the same URI
+     */
+    private static SKOSConceptScheme counterpart(SKOS skos, SKOSConceptScheme scheme) {
+        return (scheme != null) ? skos.getConceptScheme(scheme.getURI()) : null;
+    }
+
+    /**
+     * Looks up a collection in another thesaurus
+     * @param skos Thesaurus
+     * @param collection Collection, may be {@code null}
+     * @return Collection of {@code skos} with the same URI
+     */
+    private static SKOSCollection counterpart(SKOS skos, SKOSCollection collection) {
+        return (collection != null) ? skos.getCollection(collection.getURI()) : null;
+    }
+}
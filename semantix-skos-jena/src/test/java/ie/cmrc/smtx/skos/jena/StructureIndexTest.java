@@ -0,0 +1,473 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.jena;
+
+import com.hp.hpl.jena.rdf.model.Model;
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import static org.junit.Assert.*;
+
+/**
+ * Tests that the queries {@link JenaSKOS} answers from its
+ * {@link StructureIndex} return the same concepts as the model
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class StructureIndexTest {
+
+    private static final String NS = "http://example.org/";
+
+    private static final int CONCEPTS = 60;
+
+    private static final int SCHEMES = 3;
+
+    private static final int COLLECTIONS = 3;
+
+    private static final List<SKOSSemanticProperty> PROPERTIES = Arrays.asList(
+            SKOSSemanticProperty.broader, SKOSSemanticProperty.narrower, SKOSSemanticProperty.narrowerTransitive);
+
+    private static final List<SKOSSemanticProperty> TRANSITIVE_PROPERTIES = Arrays.asList(
+            SKOSSemanticProperty.narrowerTransitive, SKOSSemanticProperty.broaderTransitive);
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void hierarchyMatchesTheModel() {
+        JenaSKOS skos = populate(new JenaSKOS(ModelFactory.createDefaultModel()), 3);
+        assertSameHierarchy(skos);
+    }
+
+    @Test
+    public void hierarchyMatchesTheModelOnTDB() throws Exception {
+        TDBSKOS skos = new TDBSKOS(this.folder.newFolder("tdb").getPath());
+        try {
+            populate(skos, 5);
+            assertSameHierarchy(skos);
+        }
+        finally {
+            skos.close();
+        }
+    }
+
+    @Test
+    public void membershipsMatchTheModel() {
+        JenaSKOS skos = populate(new JenaSKOS(ModelFactory.createDefaultModel()), 19);
+        assertSameMemberships(skos);
+    }
+
+    @Test
+    public void membershipsMatchTheModelOnTDB() throws Exception {
+        TDBSKOS skos = new TDBSKOS(this.folder.newFolder("memberships").getPath());
+        try {
+            populate(skos, 23);
+            assertTrue(skos.isQueryPushdown());
+            assertSameMemberships(skos);
+        }
+        finally {
+            skos.close();
+        }
+    }
+
+    @Test
+    public void transitiveRelationsMatchTheModel() {
+        JenaSKOS skos = populate(new JenaSKOS(ModelFactory.createDefaultModel()), 29);
+        int nonEmpty = 0;
+        for (int i = 0; i < CONCEPTS; i++) {
+            SKOSConcept concept = skos.getConcept(NS + "c" + i);
+            for (SKOSSemanticProperty property: TRANSITIVE_PROPERTIES) {
+                String message = concept.getURI() + " " + property;
+                skos.setIndexing(true);
+                Set<String> relations = uris(skos.listSemanticRelations(concept, property));
+                Set<String> sources = uris(skos.listSemanticRelationshipSources(property, concept));
+                if (!relations.isEmpty()) nonEmpty++;
+                skos.setIndexing(false);
+                assertEquals(message, uris(skos.listSemanticRelations(concept, property)), relations);
+                assertEquals(message, uris(skos.listSemanticRelationshipSources(property, concept)), sources);
+            }
+        }
+        skos.setIndexing(true);
+        assertTrue(nonEmpty > CONCEPTS);
+    }
+
+    @Test
+    public void transitiveRelationsDoNotNeedTheClosure() {
+        JenaSKOS closed = populate(new JenaSKOS(ModelFactory.createDefaultModel()), 31, true);
+        Model model = ModelFactory.createDefaultModel();
+        JenaSKOS skos = populate(new JenaSKOS(model), 31, false);
+        assertFalse(model.contains(null, PropertyFactory.broaderTransitive));
+        assertFalse(model.contains(null, PropertyFactory.narrowerTransitive));
+        closed.setIndexing(false);
+        List<SKOSConceptScheme> schemes = schemes(skos);
+        List<SKOSCollection> collections = collections(skos);
+        for (int i = 0; i < CONCEPTS; i++) {
+            SKOSConcept concept = skos.getConcept(NS + "c" + i);
+            SKOSConcept closedConcept = closed.getConcept(NS + "c" + i);
+            for (SKOSSemanticProperty property: TRANSITIVE_PROPERTIES) {
+                String message = concept.getURI() + " " + property;
+                assertEquals(message, uris(closed.listSemanticRelations(closedConcept, property)), uris(skos.listSemanticRelations(concept, property)));
+                assertEquals(message, uris(closed.listSemanticRelationshipSources(property, closedConcept)), uris(skos.listSemanticRelationshipSources(property, concept)));
+                for (SKOSConceptScheme scheme: schemes) {
+                    for (SKOSCollection collection: collections) {
+                        SKOSConceptScheme closedScheme = (scheme == null) ? null : closed.getConceptScheme(scheme.getURI());
+                        SKOSCollection closedCollection = (collection == null) ? null : closed.getCollection(collection.getURI());
+                        String filterMessage = message + " " + scheme + " " + collection;
+                        assertEquals(filterMessage, uris(closed.listSemanticRelations(closedConcept, property, closedScheme, closedCollection)), uris(skos.listSemanticRelations(concept, property, scheme, collection)));
+                        assertEquals(filterMessage, uris(closed.listSemanticRelationshipSources(property, closedConcept, closedScheme, closedCollection)), uris(skos.listSemanticRelationshipSources(property, concept, scheme, collection)));
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void indexIsPersistedInTheDataDirectory() throws Exception {
+        String tdbDir = this.folder.newFolder("persisted").getPath();
+        File file = new File(tdbDir, TDBSKOS.STRUCTURE_INDEX_FILE);
+        TDBSKOS skos = new TDBSKOS(tdbDir);
+        populate(skos, 7);
+        skos.sync();
+        assertFalse(file.exists());
+        skos.writeStructureIndex();
+        assertTrue(file.isFile());
+        skos.close();
+        assertTrue(file.isFile());
+
+        // The index is read from the file, and rewritten when the data is synchronised
+        skos = new TDBSKOS(tdbDir);
+        assertNotNull(skos.getIndex());
+        assertSameHierarchy(skos);
+        long modified = file.lastModified();
+        skos.createConcept(NS + "x");
+        assertTrue(uris(skos.getBroadestConcepts()).contains(NS + "x"));
+        Thread.sleep(1000);
+        skos.sync();
+        assertTrue(file.lastModified() > modified);
+        skos.close();
+
+        // Changes that are not synchronised make the file stale
+        skos = new TDBSKOS(tdbDir);
+        assertTrue(uris(skos.getBroadestConcepts()).contains(NS + "x"));
+        assertSameHierarchy(skos);
+        relate(skos.getConcept(NS + "x"), skos.getConcept(NS + "c0"), false);
+        relate(skos.getConcept(NS + "x"), skos.getConcept(NS + "c0"), true);
+        assertFalse(uris(skos.getBroadestConcepts()).contains(NS + "x"));
+        skos.close();
+        assertFalse(file.exists());
+
+        skos = new TDBSKOS(tdbDir);
+        try {
+            assertFalse(uris(skos.getBroadestConcepts()).contains(NS + "x"));
+            assertSameHierarchy(skos);
+        }
+        finally {
+            skos.close();
+        }
+    }
+
+    @Test
+    public void indexIsSharedByTheViewsOfTheData() {
+        JenaSKOS skos = populate(new JenaSKOS(ModelFactory.createDefaultModel()), 13);
+        SKOSConcept concept = skos.getConcept(NS + "c1");
+        assertNotNull(skos.getIndex());
+        assertSame(skos.getIndex(), skos.getIndex());
+        assertSame(skos.getIndex(), ((JenaSKOS) concept.getSKOS()).getIndex());
+        assertNull(skos.setIndexing(false).getIndex());
+    }
+
+    @Test
+    public void indexFollowsTheChangesOfTheData() {
+        Model model = ModelFactory.createDefaultModel();
+        JenaSKOS skos = populate(new JenaSKOS(model), 17);
+        assertSameHierarchy(skos);
+        Object index = skos.getIndex();
+
+        // Through the thesaurus
+        SKOSConcept x = skos.createConcept(NS + "x");
+        relate(x, skos.getConcept(NS + "c0"), false);
+        relate(x, skos.getConcept(NS + "c0"), true);
+        assertNotSame(index, skos.getIndex());
+        assertTrue(uris(skos.getDirectNarrowerConcepts(skos.getConcept(NS + "c0"))).contains(NS + "x"));
+        assertSameHierarchy(skos);
+        index = skos.getIndex();
+
+        // Directly in the wrapped model, bypassing the lock
+        model.removeAll(model.getResource(NS + "x"), null, model.getResource(NS + "c0"));
+        model.removeAll(model.getResource(NS + "c0"), null, model.getResource(NS + "x"));
+        assertNotSame(index, skos.getIndex());
+        assertFalse(uris(skos.getDirectNarrowerConcepts(skos.getConcept(NS + "c0"))).contains(NS + "x"));
+        assertSameHierarchy(skos);
+    }
+
+    /**
+     * Writes a random thesaurus whose hierarchy is acyclic, along with its
+     * transitive closure
+     * @param skos Thesaurus to populate
+     * @param seed Random seed, the same seed writes the same thesaurus
+     * @return {@code skos}
+     */
+    private static JenaSKOS populate(JenaSKOS skos, long seed) {
+        return populate(skos, seed, true);
+    }
+
+    /**
+     * Writes a random thesaurus whose hierarchy is acyclic
+     * @param skos Thesaurus to populate
+     * @param seed Random seed, the same seed writes the same thesaurus
+     * @param closure {@code true} to write the transitive closure of the
+     * hierarchy, {@code false} to only write its direct relationships
+     * @return {@code skos}
+     */
+    private static JenaSKOS populate(JenaSKOS skos, long seed, boolean closure) {
+        Random random = new Random(seed);
+        List<SKOSCollection> collections = new ArrayList<>();
+        for (int i = 0; i < SCHEMES; i++) skos.createConceptScheme(NS + "s" + i);
+        for (int i = 0; i < COLLECTIONS; i++) collections.add(skos.createCollection(NS + "k" + i));
+        List<SKOSConcept> concepts = new ArrayList<>();
+        List<Set<Integer>> ancestors = new ArrayList<>();
+        for (int i = 0; i < CONCEPTS; i++) {
+            SKOSConcept concept = skos.createConcept(NS + "c" + i);
+            for (int s = 0; s < SCHEMES; s++) {
+                if (random.nextInt(2) == 0) concept.addToConceptScheme(NS + "s" + s);
+            }
+            for (int k = 0; k < COLLECTIONS; k++) {
+                if (random.nextInt(2) == 0) collections.get(k).addMember(concept.getURI());
+            }
+            Set<Integer> conceptAncestors = new HashSet<>();
+            int parents = (i > 0) ? random.nextInt(3) : 0;
+            for (int p = 0; p < parents; p++) {
+                int parent = random.nextInt(i);
+                relate(concept, concepts.get(parent), false);
+                conceptAncestors.add(parent);
+                conceptAncestors.addAll(ancestors.get(parent));
+            }
+            if (closure) for (int ancestor: conceptAncestors) relate(concept, concepts.get(ancestor), true);
+            concepts.add(concept);
+            ancestors.add(conceptAncestors);
+        }
+        return skos;
+    }
+
+    /**
+     * Adds a broader relation and its inverse narrower relation between two
+     * concepts
+     * @param concept Narrower concept
+     * @param broader Broader concept
+     * @param transitive {@code true} to add skos:broaderTransitive and
+     * skos:narrowerTransitive, {@code false} to add skos:broader and
+     * skos:narrower
+     */
+    private static void relate(SKOSConcept concept, SKOSConcept broader, boolean transitive) {
+        concept.addRelation(transitive ? SKOSSemanticProperty.broaderTransitive : SKOSSemanticProperty.broader, broader);
+        broader.addRelation(transitive ? SKOSSemanticProperty.narrowerTransitive : SKOSSemanticProperty.narrower, concept);
+    }
+
+    /**
+     * Checks that the broadest concepts, and the direct narrower and broader
+     * concepts, read from the index are those computed from the model
+     * @param skos Thesaurus
+     */
+    private static void assertSameHierarchy(JenaSKOS skos) {
+        int nonEmpty = 0;
+        for (int i = 0; i < CONCEPTS; i++) {
+            SKOSConcept concept = skos.getConcept(NS + "c" + i);
+            for (SKOSConceptScheme scheme: schemes(skos)) {
+                for (SKOSCollection collection: collections(skos)) {
+                    String message = concept.getURI() + " " + scheme + " " + collection;
+                    skos.setIndexing(true);
+                    Set<String> narrower = uris(skos.getDirectNarrowerConcepts(concept, scheme, collection));
+                    Set<String> broader = uris(skos.getDirectBroaderConcepts(concept, scheme, collection));
+                    if (!narrower.isEmpty()) nonEmpty++;
+                    skos.setIndexing(false);
+                    assertEquals(message, uris(skos.getDirectNarrowerConcepts(concept, scheme, collection)), narrower);
+                    assertEquals(message, uris(skos.getDirectBroaderConcepts(concept, scheme, collection)), broader);
+                }
+            }
+        }
+        for (SKOSConceptScheme scheme: schemes(skos)) {
+            for (SKOSCollection collection: collections(skos)) {
+                String message = scheme + " " + collection;
+                skos.setIndexing(true);
+                Set<String> broadest = uris(skos.getBroadestConcepts(scheme, collection));
+                Set<String> broadestInScheme = uris(skos.getBroadestConcepts(scheme));
+                assertFalse(message, broadest.isEmpty());
+                skos.setIndexing(false);
+                assertEquals(message, uris(skos.getBroadestConcepts(scheme, collection)), broadest);
+                assertEquals(message, uris(skos.getBroadestConcepts(scheme)), broadestInScheme);
+            }
+        }
+        skos.setIndexing(true);
+        Set<String> broadest = uris(skos.getBroadestConcepts());
+        skos.setIndexing(false);
+        assertEquals(uris(skos.getBroadestConcepts()), broadest);
+        skos.setIndexing(true);
+        // Make sure the comparisons were not vacuous
+        assertTrue(nonEmpty > CONCEPTS);
+    }
+
+    /**
+     * Checks that the concept scheme and collection memberships, and the
+     * relations and concepts filtered by concept scheme and collection, read
+     * from the index are those read from the model
+     * @param skos Thesaurus
+     */
+    private static void assertSameMemberships(JenaSKOS skos) {
+        List<SKOSConceptScheme> schemes = schemes(skos);
+        List<SKOSCollection> collections = collections(skos);
+        int nonEmpty = 0;
+        for (int i = 0; i < CONCEPTS; i++) {
+            SKOSConcept concept = skos.getConcept(NS + "c" + i);
+            for (int s = 0; s < SCHEMES; s++) {
+                skos.setIndexing(true);
+                boolean inScheme = skos.resourceIsInScheme(skos.getJenaResource(concept), skos.getJenaResource(schemes.get(s)));
+                skos.setIndexing(false);
+                assertEquals(concept.getURI(), skos.resourceIsInScheme(skos.getJenaResource(concept), skos.getJenaResource(schemes.get(s))), inScheme);
+            }
+            for (int k = 0; k < COLLECTIONS; k++) {
+                skos.setIndexing(true);
+                boolean inCollection = skos.resourceIsInCollection(skos.getJenaResource(concept), skos.getJenaResource(collections.get(k)));
+                skos.setIndexing(false);
+                assertEquals(concept.getURI(), skos.resourceIsInCollection(skos.getJenaResource(concept), skos.getJenaResource(collections.get(k))), inCollection);
+            }
+            for (SKOSSemanticProperty property: PROPERTIES) {
+                for (SKOSConceptScheme scheme: schemes) {
+                    for (SKOSCollection collection: collections) {
+                        String message = concept.getURI() + " " + property + " " + scheme + " " + collection;
+                        skos.setIndexing(true);
+                        Set<String> relations = uris(skos.listSemanticRelations(concept, property, scheme, collection));
+                        Set<String> sources = uris(skos.listSemanticRelationshipSources(property, concept, scheme, collection));
+                        Set<String> relationsIn = uris(skos.listSemanticRelations(concept, property, list(scheme), list(collection)));
+                        Set<String> sourcesIn = uris(skos.listSemanticRelationshipSources(property, concept, list(scheme), list(collection)));
+                        if (!relations.isEmpty()) nonEmpty++;
+                        skos.setIndexing(false);
+                        assertEquals(message, uris(skos.listSemanticRelations(concept, property, scheme, collection)), relations);
+                        assertEquals(message, uris(skos.listSemanticRelationshipSources(property, concept, scheme, collection)), sources);
+                        assertEquals(message, uris(skos.listSemanticRelations(concept, property, list(scheme), list(collection))), relationsIn);
+                        assertEquals(message, uris(skos.listSemanticRelationshipSources(property, concept, list(scheme), list(collection))), sourcesIn);
+                    }
+                }
+                List<SKOSConceptScheme> allSchemes = schemes.subList(0, SCHEMES);
+                List<SKOSCollection> allCollections = collections.subList(0, COLLECTIONS);
+                skos.setIndexing(true);
+                Set<String> relations = uris(skos.listSemanticRelations(concept, property, allSchemes, allCollections));
+                Set<String> sources = uris(skos.listSemanticRelationshipSources(property, concept, allSchemes, allCollections));
+                skos.setIndexing(false);
+                assertEquals(uris(skos.listSemanticRelations(concept, property, allSchemes, allCollections)), relations);
+                assertEquals(uris(skos.listSemanticRelationshipSources(property, concept, allSchemes, allCollections)), sources);
+            }
+        }
+        for (SKOSConceptScheme scheme: schemes) {
+            for (SKOSCollection collection: collections) {
+                String message = scheme + " " + collection;
+                skos.setIndexing(true);
+                Set<String> inBoth = uris(skos.listConcepts(scheme, collection));
+                Set<String> inBothReversed = uris(skos.listConcepts(collection, scheme));
+                Set<String> inScheme = uris(skos.listConcepts(scheme));
+                Set<String> inCollection = uris(skos.listConcepts(collection));
+                assertFalse(message, inBoth.isEmpty());
+                skos.setIndexing(false);
+                assertEquals(message, uris(skos.listConcepts(scheme, collection)), inBoth);
+                assertEquals(message, uris(skos.listConcepts(collection, scheme)), inBothReversed);
+                assertEquals(message, uris(skos.listConcepts(scheme)), inScheme);
+                assertEquals(message, uris(skos.listConcepts(collection)), inCollection);
+            }
+        }
+        skos.setIndexing(true);
+        // Make sure the comparisons were not vacuous
+        assertTrue(nonEmpty > CONCEPTS);
+    }
+
+    /**
+     * Lists the concept schemes of the test thesaurus
+     * @param skos Thesaurus
+     * @return Concept schemes, followed by {@code null} for no filter
+     */
+    private static List<SKOSConceptScheme> schemes(JenaSKOS skos) {
+        List<SKOSConceptScheme> schemes = new ArrayList<>();
+        for (int i = 0; i < SCHEMES; i++) schemes.add(skos.getConceptScheme(NS + "s" + i));
+        schemes.add(null);
+        return schemes;
+    }
+
+    /**
+     * Lists the collections of the test thesaurus
+     * @param skos Thesaurus
+     * @return Collections, followed by {@code null} for no filter
+     */
+    private static List<SKOSCollection> collections(JenaSKOS skos) {
+        List<SKOSCollection> collections = new ArrayList<>();
+        for (int i = 0; i < COLLECTIONS; i++) collections.add(skos.getCollection(NS + "k" + i));
+        collections.add(null);
+        return collections;
+    }
+
+    /**
+     * Wraps an optional filter into a list
+     * @param <T> Filter type
+     * @param filter Concept scheme or collection, may be {@code null}
+     * @return Singleton list of {@code filter}, or {@code null} if
+     * {@code filter} is {@code null}
+     */
+    private static <T> List<T> list(T filter) {
+        return (filter != null) ? Collections.singletonList(filter) : null;
+    }
+
+    /**
+     * Reads the URIs of the concepts of an iterator, and closes it
+     * @param concepts Concept iterator
+     * @return Sorted concept URIs
+     */
+    private static Set<String> uris(CloseableIterator<SKOSConcept> concepts) {
+        Set<String> uris = new TreeSet<>();
+        try {
+            while (concepts.hasNext()) uris.add(concepts.next().getURI());
+        }
+        finally {
+            concepts.close();
+        }
+        return uris;
+    }
+
+    /**
+     * Reads the URIs of concepts
+     * @param concepts Concepts
+     * @return Sorted concept URIs
+     */
+    private static Set<String> uris(Collection<SKOSConcept> concepts) {
+        Set<String> uris = new TreeSet<>();
+        for (SKOSConcept concept: concepts) uris.add(concept.getURI());
+        return uris;
+    }
+}
@@ -235,12 +235,12 @@ public abstract class AbstractSKOSResource extends AbstractSemanticEntity implem
 
     @Override
     public String getSemanticType() {
-        CloseableIterator<SKOSResource> resources = this.listRelationshipSources(SKOSElementProperty.member);
-        if (resources.hasNext()) {
-            SKOSResource resource = resources.next();
-            if (resource != null) return resource.getURI();
+        try (CloseableIterator<SKOSResource> resources = this.listRelationshipSources(SKOSElementProperty.member)) {
+            if (resources.hasNext()) {
+                SKOSResource resource = resources.next();
+                if (resource != null) return resource.getURI();
+            }
         }
-        resources.close();
         return null;
     }
 
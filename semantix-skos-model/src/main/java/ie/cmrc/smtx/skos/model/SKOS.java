@@ -50,7 +50,29 @@ public interface SKOS {
      * @return {@link SKOSResource} iterator over the SKOS resources of the thesaurus
      */
     CloseableIterator<SKOSResource> listSKOSResources();
-    
+
+    /**
+     * Returns a closeable iterator over one partition of the SKOS resources of
+     * this thesaurus. The resources are split into {@code partitions}
+     * disjoint partitions that together cover all the resources of the
+     * requested type, so that several consumers (e.g., one thread per
+     * partition) may process the thesaurus in parallel, each holding one
+     * resource at a time. How resources are assigned to partitions depends on
+     * the implementation, but it does not change as long as the thesaurus is
+     * not updated.
+     * @param type Type of the resources to list. If {@code null}, then
+     * resources of all types are listed.
+     * @param partition Index of the partition to list, between {@code 0} and
+     * {@code partitions-1}
+     * @param partitions Number of partitions
+     * @return {@link SKOSResource} iterator over the SKOS resources of the
+     * thesaurus of the provided type that belong to the requested partition
+     * @throws IllegalArgumentException if {@code partitions} is less than
+     * {@code 1}, or {@code partition} is not between {@code 0} and
+     * {@code partitions-1}
+     */
+    CloseableIterator<SKOSResource> listSKOSResources(SKOSType type, int partition, int partitions);
+
     /**
      * Lists the SKOS resources within this thesaurus. This method is to be used
      * with caution as it is not recommended with very large thesauri.
@@ -310,7 +332,23 @@ public interface SKOS {
      * not that of a {@link SKOSConcept}, then {@code null} is returned.
      */
     SKOSConcept getConcept(String conceptURI);
-    
+
+    /**
+     * Returns the SKOS concepts with the provided URIs in one batch. Unlike
+     * repeated calls to {@link #getConcept(java.lang.String)}, implementations
+     * may load each concept together with its annotations and relations
+     * (preferred labels, concept schemes, etc.) in a single pass, so that
+     * serialising or sorting the returned concepts does not require further
+     * access to the underlying store.
+     * @param conceptURIs URIs of the SKOS concepts to return
+     * @return {@code List} of the {@link SKOSConcept}s whose URIs are in
+     * {@code conceptURIs}, in the same order. URIs that are null, empty, or not
+     * those of SKOS concepts are skipped, and duplicate URIs are returned once.
+     * If {@code conceptURIs} is null, then an <i>empty</i> {@code List} is
+     * returned.
+     */
+    List<SKOSConcept> getConcepts(Collection<String> conceptURIs);
+
     /**
      * Creates a {@link SKOSConcept} with the provided URI, if it does not exist.
      * If a {@link SKOSConcept} already exists with the same URI then no modification is made.
@@ -816,11 +854,42 @@ public interface SKOS {
      * all collections are considered.
      */
     SKOSConceptNode getConceptTree(SKOSConcept rootConcept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection, HierarchyMethod hierarchyMethod);
-    
-    
+
+
+    // -------- -------- -------- --------
+    // Bulk updates
+
+    /**
+     * Creates a writer that loads statements into this thesaurus in batches
+     * (see {@link SKOSBulkWriter}). This is meant for loading large amounts
+     * of data, for which updating resources one statement at a time is too
+     * slow.
+     * @param inferInverseProperties If {@code true}, then the writer adds the
+     * inverse of each relation
+     * @param inferSuperProperties If {@code true}, then the writer adds the
+     * super properties of each relation (and of its inverse if
+     * {@code inferInverseProperties} is {@code true})
+     * @param batchSize Maximum number of statements to buffer before flushing
+     * them to the thesaurus
+     * @return Bulk writer of this thesaurus
+     * @throws IllegalArgumentException if {@code batchSize} is not positive
+     * @throws UnsupportedOperationException if the thesaurus is read-only
+     */
+    SKOSBulkWriter createBulkWriter(boolean inferInverseProperties, boolean inferSuperProperties, int batchSize) throws IllegalArgumentException, UnsupportedOperationException;
+
+
     // -------- -------- -------- --------
     // Managing connection
     
+    /**
+     * Returns the generation of the data of the thesaurus. The generation
+     * changes each time the data is modified, committed or synchronised with
+     * its backend, so that callers may detect that the results they derived
+     * from the data, for example cached results, are out of date.
+     * @return Current generation of the data
+     */
+    long getGeneration();
+    
     /**
      * For persistent thesauri, this method synchronises the {@link SKOS}
      * with its backend. For in memory thesauri, this method does not do anything.
@@ -0,0 +1,111 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.skos.model;
+
+/**
+ * Writer that loads large amounts of SKOS statements into a thesaurus.
+ * Resource declarations, annotations and relations are buffered and written
+ * in batches, each batch as one bulk update of the thesaurus backend, instead
+ * of one update per statement. Unlike the update methods of
+ * {@link SKOSResource}, the writer does not look up the resources it is
+ * given: the caller is responsible for declaring each resource with a single
+ * SKOS type, and for relating resources that exist in the thesaurus.<br/>
+ * Buffered statements are not visible to the readers of the thesaurus until
+ * they are flushed. A writer is not thread safe, and must be closed after
+ * use so as to flush the last batch.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public interface SKOSBulkWriter {
+    
+    /**
+     * Default maximum number of statements buffered before they are flushed
+     * to the thesaurus
+     */
+    public static final int DEFAULT_BATCH_SIZE = 10000;
+    
+    /**
+     * Declares a SKOS resource
+     * @param resourceURI URI of the resource
+     * @param type SKOS type of the resource
+     * @return This writer to enable cascading calls
+     * @throws IllegalArgumentException if {@code resourceURI} is {@code null}
+     * or empty, or {@code type} is {@code null}
+     */
+    SKOSBulkWriter addResource(String resourceURI, SKOSType type) throws IllegalArgumentException;
+    
+    /**
+     * Adds an annotation to a SKOS resource. As with
+     * {@link SKOSResource#addAnnotation(ie.cmrc.smtx.skos.model.SKOSAnnotationProperty, java.lang.String, java.lang.String)},
+     * if the annotation property only accepts one value per language, then
+     * the value replaces the one the resource may already have in the same
+     * language. If the value is {@code null} or empty, then nothing is added.
+     * @param resourceURI URI of the annotated resource
+     * @param annotationProperty Annotation property
+     * @param value Value of the annotation
+     * @param language Language of the annotation, or {@code null}
+     * @return This writer to enable cascading calls
+     * @throws IllegalArgumentException if {@code resourceURI} is {@code null}
+     * or empty, or {@code annotationProperty} is {@code null}
+     */
+    SKOSBulkWriter addAnnotation(String resourceURI, SKOSAnnotationProperty annotationProperty, String value, String language) throws IllegalArgumentException;
+    
+    /**
+     * Relates two SKOS resources. Depending on the configuration of the
+     * writer, the inverse relation and the super properties of the relation
+     * (and of its inverse) are added as well.
+     * @param resourceURI URI of the source resource of the relation
+     * @param relationshipType Relation type
+     * @param otherResourceURI URI of the target resource of the relation
+     * @return This writer to enable cascading calls
+     * @throws IllegalArgumentException if {@code resourceURI} or
+     * {@code otherResourceURI} is {@code null} or empty, or
+     * {@code relationshipType} is {@code null}
+     */
+    SKOSBulkWriter addRelation(String resourceURI, SKOSObjectProperty relationshipType, String otherResourceURI) throws IllegalArgumentException;
+    
+    /**
+     * Returns the number of statements buffered and not yet flushed
+     * @return Number of buffered statements
+     */
+    int getBufferSize();
+    
+    /**
+     * Returns the number of statements written to the thesaurus by this
+     * writer so far, including inferred statements. Statements that already
+     * existed in the thesaurus are counted too.
+     * @return Number of flushed statements
+     */
+    long getWrittenStatements();
+    
+    /**
+     * Writes the buffered statements to the thesaurus, as one bulk update.
+     * This does not synchronise persistent thesauri with their backend
+     * (see {@link SKOS#sync()}).
+     * @return This writer to enable cascading calls
+     */
+    SKOSBulkWriter flush();
+    
+    /**
+     * Flushes the buffered statements and closes the writer. Calling the
+     * update methods of a closed writer results in an
+     * {@link IllegalStateException}.
+     */
+    void close();
+}
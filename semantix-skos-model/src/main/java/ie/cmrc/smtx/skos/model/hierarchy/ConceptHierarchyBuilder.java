@@ -0,0 +1,407 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.hierarchy;
+
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Builds concept hierarchies without recursion, tolerating cycles in the
+ * underlying hierarchical relationships.<br/>
+ * A hierarchy is built in two phases:
+ * <ol>
+ * <li>The child concepts of every concept reachable from the roots are
+ * fetched from a {@link ChildSource}. Each concept is expanded exactly once,
+ * and independent subtrees are expanded in parallel on a fork-join
+ * pool.</li>
+ * <li>The concept nodes are then assembled by an iterative depth-first
+ * traversal. A child that is an ancestor of its parent on the current path
+ * closes a cycle: that relationship is reported and left out of the
+ * hierarchy. A concept that appears under several parents, or under several
+ * roots, is represented by one shared {@link SKOSConceptNode} instance.</li>
+ * </ol>
+ * Since nodes may be shared, the returned hierarchies should be treated as
+ * read-only.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class ConceptHierarchyBuilder {
+
+    /**
+     * Source of the child concepts of a concept
+     */
+    public static interface ChildSource {
+
+        /**
+         * Returns the child concepts of a concept, in the order they should
+         * appear in the hierarchy. This may be called concurrently from
+         * several threads.
+         * @param concept SKOS concept
+         * @return Child concepts of {@code concept}
+         */
+        List<? extends SKOSConcept> getChildren(SKOSConcept concept);
+    }
+
+    /**
+     * Pool shared by the builders that are not given a pool
+     */
+    private static final ForkJoinPool SHARED_POOL = new ForkJoinPool();
+
+    /**
+     * Source of the child concepts
+     */
+    private final ChildSource childSource;
+
+    /**
+     * Pool used to expand the subtrees in parallel, or {@code null} to expand
+     * them in the building thread
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * Constructs a {@link ConceptHierarchyBuilder} expanding subtrees on a
+     * shared fork-join pool
+     * @param childSource Source of the child concepts
+     * @throws IllegalArgumentException If {@code childSource} is {@code null}
+     */
+    public ConceptHierarchyBuilder(ChildSource childSource) throws IllegalArgumentException {
+        this(childSource, SHARED_POOL);
+    }
+
+    /**
+     * Constructs a {@link ConceptHierarchyBuilder}
+     * @param childSource Source of the child concepts
+     * @param pool Fork-join pool used to expand the subtrees. A pool with a
+     * parallelism of {@code 1} expands the subtrees sequentially. If
+     * {@code null}, the subtrees are expanded sequentially by the building
+     * thread itself, for example when the child source must be read by the
+     * thread holding a lock.
+     * @throws IllegalArgumentException If {@code childSource} is {@code null}
+     */
+    public ConceptHierarchyBuilder(ChildSource childSource, ForkJoinPool pool) throws IllegalArgumentException {
+        if (childSource == null) throw new IllegalArgumentException("ConceptHierarchyBuilder: childSource argument must not be null");
+        this.childSource = childSource;
+        this.pool = pool;
+    }
+
+    /**
+     * Builds the hierarchy of a concept
+     * @param root Root concept
+     * @return Concept node of {@code root}, or {@code null} if {@code root}
+     * is {@code null}
+     */
+    public SKOSConceptNode build(SKOSConcept root) {
+        if (root == null) return null;
+        List<SKOSConceptNode> hierarchy = this.build(Collections.singletonList(root));
+        return hierarchy.get(0);
+    }
+
+    /**
+     * Builds the hierarchies of several concepts
+     * @param roots Root concepts, in the order their hierarchies should be
+     * returned. {@code null} elements are ignored.
+     * @return Concept nodes of the roots
+     */
+    public List<SKOSConceptNode> build(List<? extends SKOSConcept> roots) {
+        List<SKOSConceptNode> hierarchy = new ArrayList<>();
+        if (roots == null || roots.isEmpty()) return hierarchy;
+
+        Expansion expansion = new Expansion();
+        for (SKOSConcept root: roots) {
+            if (root != null && expansion.claim(root)) expansion.submit(root);
+        }
+        expansion.completed(null);
+        expansion.await();
+
+        Map<String, SKOSConceptNode> nodes = new HashMap<>();
+        for (SKOSConcept root: roots) {
+            if (root != null) hierarchy.add(this.assemble(root, expansion.children, nodes));
+        }
+        return hierarchy;
+    }
+
+    /**
+     * Assembles the concept nodes of the hierarchy of a concept
+     * @param root Root concept
+     * @param children Child concepts of every expanded concept, by URI
+     * @param nodes Concept nodes already assembled, by URI. The nodes
+     * assembled by this call are added to it.
+     * @return Concept node of {@code root}
+     */
+    private SKOSConceptNode assemble(SKOSConcept root, Map<String, List<? extends SKOSConcept>> children, Map<String, SKOSConceptNode> nodes) {
+        SKOSConceptNode rootNode = nodes.get(root.getURI());
+        if (rootNode != null) return rootNode;
+
+        Deque<Frame> stack = new ArrayDeque<>();
+        Set<String> path = new HashSet<>();
+        stack.push(new Frame(root, children.get(root.getURI())));
+        path.add(root.getURI());
+        while (!stack.isEmpty()) {
+            Frame frame = stack.peek();
+            if (frame.index < frame.children.size()) {
+                SKOSConcept child = frame.children.get(frame.index++);
+                if (child == null) continue;
+                String uri = child.getURI();
+                SKOSConceptNode childNode = nodes.get(uri);
+                if (childNode != null) frame.node.addChild(childNode);
+                else if (path.contains(uri)) this.cycleDetected(frame.node.getConcept(), child);
+                else {
+                    stack.push(new Frame(child, children.get(uri)));
+                    path.add(uri);
+                }
+            }
+            else {
+                stack.pop();
+                String uri = frame.node.getConcept().getURI();
+                path.remove(uri);
+                nodes.put(uri, frame.node);
+                if (!stack.isEmpty()) stack.peek().node.addChild(frame.node);
+            }
+        }
+        return nodes.get(root.getURI());
+    }
+
+    /**
+     * Reports a relationship that closes a cycle and is therefore left out
+     * of the hierarchy. This logs a warning.
+     * @param parent Parent concept
+     * @param child Child concept, which is also an ancestor of {@code parent}
+     */
+    protected void cycleDetected(SKOSConcept parent, SKOSConcept child) {
+        Logger.getLogger(ConceptHierarchyBuilder.class.getName()).log(Level.WARNING, "Cycle in concept hierarchy: {0} is both a child and an ancestor of {1}", new Object[] {child.getURI(), parent.getURI()});
+    }
+
+    /**
+     * Concept being assembled, and position of the next child to visit
+     */
+    private static class Frame {
+
+        /**
+         * Concept node being assembled
+         */
+        final SKOSConceptNode node;
+
+        /**
+         * Child concepts
+         */
+        final List<? extends SKOSConcept> children;
+
+        /**
+         * Index of the next child to visit
+         */
+        int index = 0;
+
+        /**
+         * Constructs a {@link Frame}
+         * @param concept Concept
+         * @param children Child concepts, or {@code null} if there are none
+         */
+        Frame(SKOSConcept concept, List<? extends SKOSConcept> children) {
+            this.node = new DefaultSKOSConceptNode(concept);
+            this.children = (children != null) ? children : Collections.<SKOSConcept>emptyList();
+        }
+    }
+
+    /**
+     * State of the expansion phase of a build. The expansion tasks never wait
+     * for each other, so that deep hierarchies do not nest task executions;
+     * instead, the number of pending tasks is counted and the building thread
+     * waits until it drops to zero.
+     */
+    private class Expansion implements ForkJoinPool.ManagedBlocker {
+
+        /**
+         * Child concepts of every expanded concept, by URI
+         */
+        final ConcurrentMap<String, List<? extends SKOSConcept>> children = new ConcurrentHashMap<>();
+
+        /**
+         * URIs of the concepts claimed by an expansion task
+         */
+        private final ConcurrentMap<String, Boolean> claimed = new ConcurrentHashMap<>();
+
+        /**
+         * Number of submitted tasks that have not completed yet, plus one
+         * until the building thread has submitted all the roots
+         */
+        private final AtomicInteger pending = new AtomicInteger(1);
+
+        /**
+         * Released when all the tasks have completed
+         */
+        private final CountDownLatch done = new CountDownLatch(1);
+
+        /**
+         * First failure of a task, if any
+         */
+        private final AtomicReference<Throwable> failure = new AtomicReference<>();
+
+        /**
+         * Tasks submitted without a pool, run by the building thread
+         */
+        private final Deque<ExpandTask> queued = new ArrayDeque<>();
+
+        /**
+         * Claims a concept for expansion
+         * @param concept SKOS concept
+         * @return {@code true} if the concept was not claimed before
+         */
+        boolean claim(SKOSConcept concept) {
+            return this.claimed.putIfAbsent(concept.getURI(), Boolean.TRUE) == null;
+        }
+
+        /**
+         * Returns the source of the child concepts
+         * @return Source of the child concepts
+         */
+        ChildSource source() {
+            return childSource;
+        }
+
+        /**
+         * Submits the expansion of a claimed concept
+         * @param concept SKOS concept
+         */
+        void submit(SKOSConcept concept) {
+            this.pending.incrementAndGet();
+            ExpandTask task = new ExpandTask(this, concept);
+            if (pool == null) this.queued.add(task);
+            else if (ForkJoinTask.inForkJoinPool() && ForkJoinTask.getPool() == pool) task.fork();
+            else pool.execute(task);
+        }
+
+        /**
+         * Signals the completion of a task
+         * @param error Failure of the task, or {@code null}
+         */
+        void completed(Throwable error) {
+            if (error != null) this.failure.compareAndSet(null, error);
+            if (this.pending.decrementAndGet() == 0) this.done.countDown();
+        }
+
+        /**
+         * Waits for all the tasks to complete, or runs them if there is no
+         * pool, then rethrows the first failure if any
+         */
+        void await() {
+            ExpandTask task;
+            while ((task = this.queued.poll()) != null) task.invoke();
+            if (!this.isReleasable()) {
+                boolean interrupted = false;
+                while (!this.isReleasable()) {
+                    try {
+                        ForkJoinPool.managedBlock(this);
+                    }
+                    catch (InterruptedException ex) {
+                        interrupted = true;
+                    }
+                }
+                if (interrupted) Thread.currentThread().interrupt();
+            }
+            Throwable error = this.failure.get();
+            if (error instanceof RuntimeException) throw (RuntimeException) error;
+            if (error instanceof Error) throw (Error) error;
+        }
+
+        @Override
+        public boolean block() throws InterruptedException {
+            this.done.await();
+            return true;
+        }
+
+        @Override
+        public boolean isReleasable() {
+            return this.done.getCount() == 0;
+        }
+    }
+
+    /**
+     * Expands a concept and its descendants. Children are expanded by the
+     * same task, depth first, except when the pool has idle threads, in which
+     * case they are forked as new tasks.
+     */
+    private static class ExpandTask extends RecursiveAction {
+
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * Expansion state
+         */
+        private final Expansion expansion;
+
+        /**
+         * Concept to expand, already claimed
+         */
+        private final SKOSConcept concept;
+
+        /**
+         * Constructs an {@link ExpandTask}
+         * @param expansion Expansion state
+         * @param concept Concept to expand, already claimed
+         */
+        ExpandTask(Expansion expansion, SKOSConcept concept) {
+            this.expansion = expansion;
+            this.concept = concept;
+        }
+
+        @Override
+        protected void compute() {
+            Throwable error = null;
+            try {
+                Deque<SKOSConcept> stack = new ArrayDeque<>();
+                stack.push(this.concept);
+                while (!stack.isEmpty()) {
+                    SKOSConcept current = stack.pop();
+                    List<? extends SKOSConcept> conceptChildren = this.expansion.source().getChildren(current);
+                    if (conceptChildren == null || conceptChildren.isEmpty()) continue;
+                    this.expansion.children.put(current.getURI(), conceptChildren);
+                    for (SKOSConcept child: conceptChildren) {
+                        if (child != null && this.expansion.claim(child)) {
+                            if (!stack.isEmpty() && getSurplusQueuedTaskCount() < 1) this.expansion.submit(child);
+                            else stack.push(child);
+                        }
+                    }
+                }
+            }
+            catch (RuntimeException | Error ex) {
+                error = ex;
+            }
+            finally {
+                this.expansion.completed(error);
+            }
+        }
+    }
+}
@@ -24,6 +24,8 @@ import ie.cmrc.smtx.base.serialisation.ElementSetName;
 import ie.cmrc.smtx.base.serialisation.Namespaces;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Set;
+import org.dom4j.DocumentHelper;
 import org.dom4j.Element;
 import org.dom4j.QName;
 import org.json.simple.JSONArray;
@@ -31,7 +33,9 @@ import org.json.simple.JSONObject;
 
 /**
  * A hierarchical structure for for a concept where the child nodes correspond to
- * narrower concepts
+ * narrower concepts. The child nodes may correspond to broader concepts
+ * instead, in which case each path from the node to a leaf is a chain of
+ * broader concepts (see {@link #DefaultSKOSConceptNode(ie.cmrc.smtx.skos.model.SKOSConcept, ie.cmrc.smtx.skos.model.SKOSSemanticProperty)}).
  * @author Yassine Lassoued
  */
 public class DefaultSKOSConceptNode implements SKOSConceptNode {
@@ -46,6 +50,12 @@ public class DefaultSKOSConceptNode implements SKOSConceptNode {
      */
     protected List<SKOSConceptNode> children;
 
+    /**
+     * Relation between the concept of this node and those of its children,
+     * used when serialising the node
+     */
+    protected SKOSSemanticProperty childRelation = SKOSSemanticProperty.narrower;
+
     /**
      * Constructs an empty concept node
      */
@@ -62,6 +72,33 @@ public class DefaultSKOSConceptNode implements SKOSConceptNode {
         this.concept = concept;
     }
 
+    /**
+     * Constructs a {@link DefaultSKOSConceptNode} with the provided
+     * {@link ie.cmrc.skos.core.SKOSConcept}, whose children correspond to
+     * concepts related by the provided relation
+     * @param concept SKOS concept to create the node with
+     * @param childRelation Relation between {@code concept} and the concepts
+     * of the child nodes: {@code narrower} for concept trees, or
+     * {@code broader} for ancestries
+     * @throws IllegalArgumentException if {@code childRelation} is
+     * {@code null}
+     */
+    public DefaultSKOSConceptNode(SKOSConcept concept, SKOSSemanticProperty childRelation) {
+        this(concept);
+        if (childRelation == null) throw new IllegalArgumentException("DefaultSKOSConceptNode constructor: childRelation argument must not be null");
+        this.childRelation = childRelation;
+    }
+
+    /**
+     * Returns the relation between the concept of this node and those of its
+     * children
+     * @return Relation between the concept of this node and those of its
+     * children, {@code narrower} by default
+     */
+    public SKOSSemanticProperty getChildRelation() {
+        return this.childRelation;
+    }
+
     /**
      * Returns the child concept nodes of this node
      * @return {@code List} of child concept nodes of this node
@@ -126,7 +163,7 @@ public class DefaultSKOSConceptNode implements SKOSConceptNode {
      */
     @Override
     public void addChild(SKOSConcept skosConcept) {
-        SKOSConceptNode cn = new DefaultSKOSConceptNode(skosConcept);
+        SKOSConceptNode cn = new DefaultSKOSConceptNode(skosConcept, this.childRelation);
         this.addChild(cn);
     }
 
@@ -221,8 +258,8 @@ public class DefaultSKOSConceptNode implements SKOSConceptNode {
                     if (child != null) {
                         Element childNodeElt = child.toXMLElement(elementSet, language);
                         if (childNodeElt != null) {
-                            Element narrower = elt.addElement(new QName(SKOSSemanticProperty.narrower.name(), Namespaces.SKOS));
-                            narrower.add(childNodeElt);
+                            Element related = elt.addElement(new QName(this.childRelation.name(), Namespaces.SKOS));
+                            related.add(childNodeElt);
                         }
                     }
                 }
@@ -254,7 +291,103 @@ public class DefaultSKOSConceptNode implements SKOSConceptNode {
                         }
                     }
                 }
-                if (!jsonChildren.isEmpty()) jsonObject.put(SKOSSemanticProperty.narrower.name(), jsonChildren);
+                if (!jsonChildren.isEmpty()) jsonObject.put(this.childRelation.name(), jsonChildren);
+            }
+
+            return jsonObject;
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Children that have already been serialised are referenced by
+     * {@code rdf:resource} attributes on their relation elements.
+     * @param elementSet {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @param serialisedURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IllegalArgumentException if {@code serialisedURIs} is
+     * {@code null}
+     */
+    @Override
+    public Element toXMLElement(ElementSetName elementSet, String language, Set<String> serialisedURIs) throws IllegalArgumentException {
+        if (serialisedURIs == null) throw new IllegalArgumentException("DefaultSKOSConceptNode.toXMLElement: serialisedURIs argument must not be null");
+        if (this.concept != null) {
+            QName aboutQN = new QName("about", Namespaces.RDF);
+            if (!serialisedURIs.add(this.concept.getURI())) {
+                Element reference = DocumentHelper.createElement(new QName(this.concept.getSkosType().name(), Namespaces.SKOS));
+                reference.addAttribute(aboutQN, this.concept.getURI());
+                return reference;
+            }
+
+            Element elt = this.concept.toXMLElement(elementSet, language);
+
+            if(elt!=null && this.hasChildren()) {
+                QName resourceQN = new QName("resource", Namespaces.RDF);
+                for (SKOSConceptNode child : this.children) {
+                    if (child != null && child.getConcept() != null) {
+                        if (serialisedURIs.contains(child.getConcept().getURI())) {
+                            elt.addElement(new QName(this.childRelation.name(), Namespaces.SKOS)).addAttribute(resourceQN, child.getConcept().getURI());
+                        }
+                        else {
+                            Element childNodeElt = child.toXMLElement(elementSet, language, serialisedURIs);
+                            if (childNodeElt != null) {
+                                Element related = elt.addElement(new QName(this.childRelation.name(), Namespaces.SKOS));
+                                related.add(childNodeElt);
+                            }
+                        }
+                    }
+                }
+            }
+
+            return elt;
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Children that have already been serialised are referenced by JSON-LD
+     * node references, that is objects that only have an {@code @id}.
+     * @param elementSet {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @param serialisedURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     * @throws IllegalArgumentException if {@code serialisedURIs} is
+     * {@code null}
+     */
+    @Override
+    public JSONObject toJSONObject(ElementSetName elementSet, String language, Set<String> serialisedURIs) throws IllegalArgumentException {
+        if (serialisedURIs == null) throw new IllegalArgumentException("DefaultSKOSConceptNode.toJSONObject: serialisedURIs argument must not be null");
+        if (concept != null) {
+            if (!serialisedURIs.add(this.concept.getURI())) {
+                JSONObject reference = new JSONObject();
+                reference.put("@type", this.concept.getSkosType().name());
+                reference.put("@id", this.concept.getURI());
+                return reference;
+            }
+
+            JSONObject jsonObject = concept.toJSONObject(elementSet, language);
+
+            if(jsonObject!=null && this.hasChildren()) {
+                JSONArray jsonChildren = new JSONArray();
+                for (SKOSConceptNode child : this.children) {
+                    if (child != null && child.getConcept() != null) {
+                        if (serialisedURIs.contains(child.getConcept().getURI())) {
+                            JSONObject reference = new JSONObject();
+                            reference.put("@id", child.getConcept().getURI());
+                            jsonChildren.add(reference);
+                        }
+                        else {
+                            JSONObject childNodeJSON = child.toJSONObject(elementSet, language, serialisedURIs);
+                            if (childNodeJSON != null) {
+                                jsonChildren.add(childNodeJSON);
+                            }
+                        }
+                    }
+                }
+                if (!jsonChildren.isEmpty()) jsonObject.put(this.childRelation.name(), jsonChildren);
             }
 
             return jsonObject;
@@ -19,9 +19,13 @@
 package ie.cmrc.smtx.skos.model.hierarchy;
 
 import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.base.serialisation.ElementSetName;
 import ie.cmrc.smtx.base.serialisation.json.JSONisable;
 import ie.cmrc.smtx.base.serialisation.rdfxml.RDFXMLisable;
 import java.util.List;
+import java.util.Set;
+import org.dom4j.Element;
+import org.json.simple.JSONObject;
 
 /**
  *
@@ -102,5 +106,37 @@ public interface SKOSConceptNode extends RDFXMLisable, JSONisable {
      * @param concept {@link SKOSConcept} to set as a concept for this node
      */
     void setItem(SKOSConcept concept);
+
+    /**
+     * Creates an XML element representing this node, in which the nodes of
+     * the concepts that have already been serialised are replaced by
+     * references to them. A concept node shared by several parents, in a
+     * polyhierarchy, is therefore serialised once, and so is its subtree.
+     * @param elementSet Specifies the level of information to serialise
+     * @param language Language code. Only annotations in this language will
+     * be included in the XML.
+     * @param serialisedURIs URIs of the concepts that have already been
+     * serialised. The URIs of the concepts serialised by this call are added
+     * to it, so that the same set may be passed for several hierarchies.
+     * @return XML element representing this node. If the concept of this
+     * node has already been serialised, then this only identifies it.
+     */
+    Element toXMLElement(ElementSetName elementSet, String language, Set<String> serialisedURIs);
+
+    /**
+     * Creates a JSON object representing this node, in which the nodes of
+     * the concepts that have already been serialised are replaced by
+     * references to them (see
+     * {@link #toXMLElement(ie.cmrc.smtx.base.serialisation.ElementSetName, java.lang.String, java.util.Set)})
+     * @param elementSet Specifies the level of information to serialise
+     * @param language Language code. Only annotations in this language will
+     * be included in the JSON object.
+     * @param serialisedURIs URIs of the concepts that have already been
+     * serialised. The URIs of the concepts serialised by this call are added
+     * to it.
+     * @return JSON object representing this node. If the concept of this
+     * node has already been serialised, then this only identifies it.
+     */
+    JSONObject toJSONObject(ElementSetName elementSet, String language, Set<String> serialisedURIs);
     
 }
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+/**
+ * Adjacency lists of a relation between the resources of a SKOS snapshot.
+ * The resources related to a given resource are identified by their internal
+ * identifiers, in increasing order.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class Adjacency {
+
+    /**
+     * Empty adjacency lists
+     */
+    static final Adjacency EMPTY = new Adjacency() {
+        @Override
+        int size(int id) {
+            return 0;
+        }
+
+        @Override
+        int get(int id, int index) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: 0");
+        }
+    };
+
+    /**
+     * Returns the number of resources related to the provided resource
+     * @param id Internal identifier of a resource
+     * @return Number of related resources
+     */
+    abstract int size(int id);
+
+    /**
+     * Returns a resource related to the provided resource
+     * @param id Internal identifier of a resource
+     * @param index Index of the related resource, between {@code 0} and
+     * {@code size(id)-1}
+     * @return Internal identifier of the related resource
+     */
+    abstract int get(int id, int index);
+
+    /**
+     * Returns the position of the first resource related to the provided
+     * resource in the concatenation of all the adjacency lists, that is the
+     * total number of resources related to the resources preceding {@code id}
+     * @param id Internal identifier of a resource, or the number of resources
+     * for the total number of related resources
+     * @return Position of the adjacency list of {@code id}
+     */
+    int offset(int id) {
+        int offset = 0;
+        for (int i = 0; i < id; i++) offset += this.size(i);
+        return offset;
+    }
+
+    /**
+     * Returns the resources related to the provided resource
+     * @param id Internal identifier of a resource
+     * @return Internal identifiers of the related resources, in increasing
+     * order
+     */
+    int[] toArray(int id) {
+        int size = this.size(id);
+        int[] targets = new int[size];
+        for (int i = 0; i < size; i++) targets[i] = this.get(id, i);
+        return targets;
+    }
+
+    /**
+     * Checks whether the provided resources are related
+     * @param id Internal identifier of a resource
+     * @param target Internal identifier of another resource
+     * @return {@code true} if {@code target} is related to {@code id}
+     */
+    boolean contains(int id, int target) {
+        int low = 0;
+        int high = this.size(id) - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int value = this.get(id, mid);
+            if (value < target) low = mid + 1;
+            else if (value > target) high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+}
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * {@link Adjacency} held in compressed sparse row form: the resources related
+ * to resource {@code id} are {@code targets[offsets[id]]} to
+ * {@code targets[offsets[id+1]-1]}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class HeapAdjacency extends Adjacency {
+
+    /**
+     * Offsets of the adjacency lists, indexed by internal identifier
+     */
+    private final int[] offsets;
+
+    /**
+     * Concatenated adjacency lists
+     */
+    private final int[] targets;
+
+    /**
+     * Constructs a {@link HeapAdjacency}
+     * @param offsets Offsets of the adjacency lists, of length {@code n+1}
+     * where {@code n} is the number of resources
+     * @param targets Concatenated adjacency lists, each sorted in increasing
+     * order
+     */
+    HeapAdjacency(int[] offsets, int[] targets) {
+        this.offsets = offsets;
+        this.targets = targets;
+    }
+
+    /**
+     * Builds the adjacency lists of the provided relationships
+     * @param size Number of resources
+     * @param sources Internal identifiers of the relationship sources
+     * @param destinations Internal identifiers of the relationship targets
+     * @param count Number of relationships
+     * @return Adjacency lists mapping each source to its targets, without
+     * duplicates
+     */
+    static HeapAdjacency build(int size, int[] sources, int[] destinations, int count) {
+        int[] offsets = new int[size + 1];
+        for (int e = 0; e < count; e++) offsets[sources[e] + 1]++;
+        for (int i = 0; i < size; i++) offsets[i + 1] += offsets[i];
+        int[] targets = new int[count];
+        int[] fill = Arrays.copyOf(offsets, size);
+        for (int e = 0; e < count; e++) targets[fill[sources[e]]++] = destinations[e];
+
+        // Sort each list and squeeze out duplicates
+        int k = 0;
+        int start = 0;
+        for (int i = 0; i < size; i++) {
+            int end = offsets[i + 1];
+            Arrays.sort(targets, start, end);
+            offsets[i] = k;
+            for (int a = start; a < end; a++) {
+                if (a == start || targets[a] != targets[a - 1]) targets[k++] = targets[a];
+            }
+            start = end;
+        }
+        offsets[size] = k;
+        return new HeapAdjacency(offsets, (k < count) ? Arrays.copyOf(targets, k) : targets);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int size(int id) {
+        return this.offsets[id + 1] - this.offsets[id];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int get(int id, int index) {
+        return this.targets[this.offsets[id] + index];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int offset(int id) {
+        return this.offsets[id];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int[] toArray(int id) {
+        return Arrays.copyOfRange(this.targets, this.offsets[id], this.offsets[id + 1]);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @param target {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    boolean contains(int id, int target) {
+        return Arrays.binarySearch(this.targets, this.offsets[id], this.offsets[id + 1], target) >= 0;
+    }
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * {@link LabelColumn} held as an array of values indexed by internal
+ * identifier. Columns where some resources have several values also hold the
+ * offsets of the values of each resource, as in compressed sparse row form.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class HeapLabelColumn extends LabelColumn {
+
+    /**
+     * Offsets of the values of each resource, or {@code null} if each
+     * resource has at most one value
+     */
+    private final int[] offsets;
+
+    /**
+     * Values, indexed by internal identifier if {@code offsets} is
+     * {@code null}, concatenated otherwise
+     */
+    private final String[] values;
+
+    /**
+     * Constructs a {@link HeapLabelColumn}
+     * @param offsets Offsets of the values of each resource, or {@code null}
+     * @param values Values
+     */
+    private HeapLabelColumn(int[] offsets, String[] values) {
+        this.offsets = offsets;
+        this.values = values;
+    }
+
+    /**
+     * Builds the column holding the provided values
+     * @param size Number of resources
+     * @param ids Internal identifiers of the annotated resources
+     * @param values Annotation values, in the same order as {@code ids}
+     * @param count Number of values
+     * @return Label column
+     */
+    static HeapLabelColumn build(int size, int[] ids, String[] values, int count) {
+        int[] offsets = new int[size + 1];
+        boolean multiple = false;
+        for (int v = 0; v < count; v++) {
+            if (++offsets[ids[v] + 1] > 1) multiple = true;
+        }
+        if (!multiple) {
+            String[] single = new String[size];
+            for (int v = 0; v < count; v++) single[ids[v]] = values[v];
+            return new HeapLabelColumn(null, single);
+        }
+        for (int i = 0; i < size; i++) offsets[i + 1] += offsets[i];
+        String[] sorted = new String[count];
+        int[] fill = Arrays.copyOf(offsets, size);
+        for (int v = 0; v < count; v++) sorted[fill[ids[v]]++] = values[v];
+        return new HeapLabelColumn(offsets, sorted);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int size(int id) {
+        if (this.offsets == null) return (this.values[id] != null) ? 1 : 0;
+        return this.offsets[id + 1] - this.offsets[id];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    String get(int id, int index) {
+        if (this.offsets == null) return this.values[id];
+        return this.values[this.offsets[id] + index];
+    }
+}
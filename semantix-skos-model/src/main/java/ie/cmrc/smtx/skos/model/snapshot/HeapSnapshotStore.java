@@ -0,0 +1,265 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SnapshotStore} held in the Java heap. The reachability indexes of
+ * the transitive relations, the transitive reduction of the concept
+ * hierarchy, the membership index and the root index are computed on
+ * construction. The closure relationships the store is built with are only
+ * used to compute the reachability indexes, which then serve the closure.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class HeapSnapshotStore extends SnapshotStore {
+
+    /**
+     * Resource URIs, indexed by internal identifier
+     */
+    private final String[] uris;
+
+    /**
+     * Maps resource URIs to internal identifiers
+     */
+    private final Map<String, Integer> ids;
+
+    /**
+     * First internal identifier of each SKOS type, indexed by ordinal, plus
+     * the number of resources
+     */
+    private final int[] typeOffsets;
+
+    /**
+     * Adjacency lists of the relations
+     */
+    private final Map<SKOSObjectProperty, Adjacency> relations;
+
+    /**
+     * Reverse adjacency lists of the relations
+     */
+    private final Map<SKOSObjectProperty, Adjacency> sources;
+
+    /**
+     * Reachability indexes serving the closure of the transitive relations
+     */
+    private final Map<SKOSObjectProperty, ReachabilityIndex> closures = new HashMap<>();
+
+    /**
+     * Reachability indexes serving the reverse closure of the transitive
+     * relations
+     */
+    private final Map<SKOSObjectProperty, ReachabilityIndex> closureSources = new HashMap<>();
+
+    /**
+     * Direct narrower concepts of each concept
+     */
+    private final Adjacency directNarrower;
+
+    /**
+     * Direct broader concepts of each concept
+     */
+    private final Adjacency directBroader;
+
+    /**
+     * Broadest concepts of each (concept scheme, collection) scope
+     */
+    private final Adjacency rootIndex;
+
+    /**
+     * Annotation values, by property and language
+     */
+    private final Map<SKOSAnnotationProperty, Map<String, LabelColumn>> labels;
+
+
+    /**
+     * Constructs a {@link HeapSnapshotStore}
+     * @param uris Resource URIs, indexed by internal identifier
+     * @param ids Maps resource URIs to internal identifiers
+     * @param typeOffsets First internal identifier of each SKOS type, plus
+     * the number of resources
+     * @param relations Adjacency lists of the relations
+     * @param sources Reverse adjacency lists of the relations
+     * @param labels Annotation values, by property and language, the
+     * languages being in the order they should be listed
+     */
+    HeapSnapshotStore(String[] uris, Map<String, Integer> ids, int[] typeOffsets, Map<SKOSObjectProperty, Adjacency> relations, Map<SKOSObjectProperty, Adjacency> sources, Map<SKOSAnnotationProperty, Map<String, LabelColumn>> labels) {
+        this.uris = uris;
+        this.ids = ids;
+        this.typeOffsets = typeOffsets;
+        this.relations = new HashMap<>(relations);
+        this.sources = new HashMap<>(sources);
+        this.labels = labels;
+        ReachabilityIndex[][] indexes = new ReachabilityIndex[ReachabilityIndex.PROPERTIES.length][];
+        for (int p = 0; p < indexes.length; p++) {
+            SKOSObjectProperty property = ReachabilityIndex.PROPERTIES[p];
+            indexes[p] = new ReachabilityIndex[] {ReachabilityIndex.compute(this, property, false), ReachabilityIndex.compute(this, property, true)};
+        }
+        for (int p = 0; p < indexes.length; p++) {
+            ReachabilityIndex.register(this.closures, this.closureSources, ReachabilityIndex.PROPERTIES[p], false, indexes[p][0]);
+            ReachabilityIndex.register(this.closures, this.closureSources, ReachabilityIndex.PROPERTIES[p], true, indexes[p][1]);
+        }
+        this.relations.keySet().removeAll(this.closures.keySet());
+        this.sources.keySet().removeAll(this.closureSources.keySet());
+        this.directNarrower = TransitiveReduction.compute(this, SKOSSemanticProperty.narrowerTransitive);
+        this.directBroader = TransitiveReduction.compute(this, SKOSSemanticProperty.broaderTransitive);
+        this.getMembership();
+        this.rootIndex = RootIndex.compute(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int size() {
+        return this.uris.length;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param uri {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int getId(String uri) {
+        Integer id = (uri != null) ? this.ids.get(uri) : null;
+        return (id != null) ? id : -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    String getURI(int id) {
+        return this.uris[id];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int getStart(SKOSType type) {
+        return this.typeOffsets[type.ordinal()];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int getEnd(SKOSType type) {
+        return this.typeOffsets[type.ordinal() + 1];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getRelations(SKOSObjectProperty property) {
+        ReachabilityIndex index = this.closures.get(property);
+        if (index != null) return index.getClosure();
+        Adjacency adjacency = this.relations.get(property);
+        return (adjacency != null) ? adjacency : Adjacency.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getRelationshipSources(SKOSObjectProperty property) {
+        ReachabilityIndex index = this.closureSources.get(property);
+        if (index != null) return index.getClosure();
+        Adjacency adjacency = this.sources.get(property);
+        return (adjacency != null) ? adjacency : Adjacency.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @param reverse {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    ReachabilityIndex getReachability(SKOSObjectProperty property, boolean reverse) {
+        return (reverse ? this.closureSources : this.closures).get(property);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getDirectRelations(SKOSSemanticProperty property) {
+        if (property == SKOSSemanticProperty.narrowerTransitive) return this.directNarrower;
+        if (property == SKOSSemanticProperty.broaderTransitive) return this.directBroader;
+        return Adjacency.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getRootIndex() {
+        return this.rootIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    List<String> getLanguages(SKOSAnnotationProperty property) {
+        Map<String, LabelColumn> columns = this.labels.get(property);
+        if (columns == null) return Collections.emptyList();
+        return new ArrayList<>(columns.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    LabelColumn getLabels(SKOSAnnotationProperty property, String language) {
+        Map<String, LabelColumn> columns = this.labels.get(property);
+        return (columns != null) ? columns.get(language) : null;
+    }
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+/**
+ * Values of an annotation property in a given language, for all the
+ * resources of a SKOS snapshot
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class LabelColumn {
+
+    /**
+     * Returns the number of values of the provided resource
+     * @param id Internal identifier of a resource
+     * @return Number of values
+     */
+    abstract int size(int id);
+
+    /**
+     * Returns a value of the provided resource
+     * @param id Internal identifier of a resource
+     * @param index Index of the value, between {@code 0} and
+     * {@code size(id)-1}
+     * @return Value
+     */
+    abstract String get(int id, int index);
+}
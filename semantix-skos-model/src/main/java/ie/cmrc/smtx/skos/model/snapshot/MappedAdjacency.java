@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import java.nio.ByteBuffer;
+
+/**
+ * {@link Adjacency} read from a memory-mapped concept store file. The lists
+ * are stored as {@code size+1} offsets followed by the concatenated targets,
+ * all as big-endian integers.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class MappedAdjacency extends Adjacency {
+
+    /**
+     * Mapped file content
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Position of the offsets in the buffer
+     */
+    private final int offsets;
+
+    /**
+     * Position of the targets in the buffer
+     */
+    private final int targets;
+
+    /**
+     * Constructs a {@link MappedAdjacency}
+     * @param buffer Mapped file content
+     * @param offsets Position of the offsets in the buffer
+     * @param size Number of resources
+     */
+    MappedAdjacency(ByteBuffer buffer, int offsets, int size) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+        this.targets = offsets + 4 * (size + 1);
+    }
+
+    /**
+     * Returns the position following the adjacency lists in the buffer
+     * @param size Number of resources
+     * @return Position of the end of the adjacency lists
+     */
+    int getEnd(int size) {
+        return this.targets + 4 * this.buffer.getInt(this.offsets + 4 * size);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int size(int id) {
+        int position = this.offsets + 4 * id;
+        return this.buffer.getInt(position + 4) - this.buffer.getInt(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int offset(int id) {
+        return this.buffer.getInt(this.offsets + 4 * id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int get(int id, int index) {
+        return this.buffer.getInt(this.targets + 4 * (this.buffer.getInt(this.offsets + 4 * id) + index));
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.Charset;
+
+/**
+ * {@link LabelColumn} read from a memory-mapped concept store file. The
+ * column is stored as {@code size+1} value offsets, the number of values, the
+ * {@code count+1} byte offsets of the values, then the UTF-8 bytes of the
+ * values.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class MappedLabelColumn extends LabelColumn {
+
+    /**
+     * UTF-8 character set
+     */
+    static final Charset UTF8 = Charset.forName("UTF-8");
+
+    /**
+     * Mapped file content
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Position of the value offsets in the buffer
+     */
+    private final int offsets;
+
+    /**
+     * Position of the byte offsets in the buffer
+     */
+    private final int byteOffsets;
+
+    /**
+     * Position of the bytes in the buffer
+     */
+    private final int bytes;
+
+    /**
+     * Constructs a {@link MappedLabelColumn}
+     * @param buffer Mapped file content
+     * @param offsets Position of the column in the buffer
+     * @param size Number of resources
+     */
+    MappedLabelColumn(ByteBuffer buffer, int offsets, int size) {
+        this.buffer = buffer;
+        this.offsets = offsets;
+        int count = buffer.getInt(offsets + 4 * (size + 1));
+        this.byteOffsets = offsets + 4 * (size + 2);
+        this.bytes = this.byteOffsets + 4 * (count + 1);
+    }
+
+    /**
+     * Returns the position following the column in the buffer
+     * @return Position of the end of the column, aligned on four bytes
+     */
+    int getEnd() {
+        int count = (this.bytes - this.byteOffsets) / 4 - 1;
+        return align(this.bytes + this.buffer.getInt(this.byteOffsets + 4 * count));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int size(int id) {
+        int position = this.offsets + 4 * id;
+        return this.buffer.getInt(position + 4) - this.buffer.getInt(position);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @param index {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    String get(int id, int index) {
+        int value = this.buffer.getInt(this.offsets + 4 * id) + index;
+        int start = this.buffer.getInt(this.byteOffsets + 4 * value);
+        int end = this.buffer.getInt(this.byteOffsets + 4 * (value + 1));
+        return decode(this.buffer, this.bytes + start, end - start);
+    }
+
+    /**
+     * Decodes a UTF-8 string
+     * @param buffer Buffer
+     * @param position Position of the bytes in the buffer
+     * @param length Number of bytes
+     * @return Decoded string
+     */
+    static String decode(ByteBuffer buffer, int position, int length) {
+        byte[] bytes = new byte[length];
+        ByteBuffer view = buffer.duplicate();
+        view.position(position);
+        view.get(bytes);
+        return new String(bytes, UTF8);
+    }
+
+    /**
+     * Rounds a position up to the next multiple of four
+     * @param position Position
+     * @return Aligned position
+     */
+    static int align(int position) {
+        return (position + 3) & ~3;
+    }
+}
@@ -0,0 +1,376 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * {@link SnapshotStore} read from a memory-mapped concept store file. Only
+ * the positions of the blocks of the file are held in the heap; URIs,
+ * relationships and annotations are read from the mapped buffer on demand.
+ * The layout of the file is described in {@link SnapshotFile}.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class MappedSnapshotStore extends SnapshotStore {
+
+    /**
+     * Mapped file content
+     */
+    private final ByteBuffer buffer;
+
+    /**
+     * Number of resources
+     */
+    private final int size;
+
+    /**
+     * First internal identifier of each SKOS type, indexed by ordinal, plus
+     * the number of resources
+     */
+    private final int[] typeOffsets;
+
+    /**
+     * Position of the URI byte offsets in the buffer
+     */
+    private final int uriOffsets;
+
+    /**
+     * Position of the URI bytes in the buffer
+     */
+    private final int uriBytes;
+
+    /**
+     * Position of the internal identifiers sorted by URI in the buffer
+     */
+    private final int sortedIds;
+
+    /**
+     * Adjacency lists of the relations
+     */
+    private final Map<SKOSObjectProperty, Adjacency> relations = new HashMap<>();
+
+    /**
+     * Reverse adjacency lists of the relations
+     */
+    private final Map<SKOSObjectProperty, Adjacency> sources = new HashMap<>();
+
+    /**
+     * Reachability indexes serving the closure of the transitive relations
+     */
+    private final Map<SKOSObjectProperty, ReachabilityIndex> closures = new HashMap<>();
+
+    /**
+     * Reachability indexes serving the reverse closure of the transitive
+     * relations
+     */
+    private final Map<SKOSObjectProperty, ReachabilityIndex> closureSources = new HashMap<>();
+
+    /**
+     * Transitive reduction of the hierarchical relations
+     */
+    private final Map<SKOSSemanticProperty, Adjacency> directRelations = new HashMap<>();
+
+    /**
+     * Broadest concepts of each (concept scheme, collection) scope
+     */
+    private final Adjacency rootIndex;
+
+    /**
+     * Annotation values, by property and language
+     */
+    private final Map<SKOSAnnotationProperty, Map<String, LabelColumn>> labels = new HashMap<>();
+
+    /**
+     * Constructs a {@link MappedSnapshotStore} over the provided buffer, whose
+     * header has already been validated
+     * @param buffer Mapped file content
+     * @throws IOException If the content of the buffer does not match the
+     * expected layout
+     */
+    MappedSnapshotStore(ByteBuffer buffer) throws IOException {
+        this.buffer = buffer;
+        int position = SnapshotFile.HEADER_LENGTH;
+
+        this.size = buffer.getInt(position);
+        int typeCount = buffer.getInt(position + 4);
+        if (typeCount != SKOSType.values().length) throw new IOException("Unexpected number of SKOS types in concept store: " + typeCount);
+        position += 8;
+        this.typeOffsets = new int[typeCount + 1];
+        for (int i = 0; i <= typeCount; i++) {
+            this.typeOffsets[i] = buffer.getInt(position);
+            position += 4;
+        }
+
+        this.uriOffsets = position;
+        this.uriBytes = position + 4 * (this.size + 1);
+        position = MappedLabelColumn.align(this.uriBytes + buffer.getInt(this.uriBytes - 4));
+        this.sortedIds = position;
+        position += 4 * this.size;
+
+        int relationCount = buffer.getInt(position);
+        position += 4;
+        for (int i = 0; i < relationCount; i++) {
+            String uri = this.readString(position);
+            position = this.skipString(position);
+            MappedAdjacency forward = new MappedAdjacency(buffer, position, this.size);
+            position = forward.getEnd(this.size);
+            MappedAdjacency reverse = new MappedAdjacency(buffer, position, this.size);
+            position = reverse.getEnd(this.size);
+            SKOSObjectProperty property = SKOSSemanticProperty.fromString(uri);
+            if (property == null) property = SKOSElementProperty.fromString(uri);
+            if (property != null) {
+                this.relations.put(property, forward);
+                this.sources.put(property, reverse);
+            }
+        }
+
+        int reachabilityCount = buffer.getInt(position);
+        position += 4;
+        for (int i = 0; i < reachabilityCount; i++) {
+            String uri = this.readString(position);
+            position = this.skipString(position);
+            boolean reverse = buffer.getInt(position) != 0;
+            int componentCount = buffer.getInt(position + 4);
+            position += 8;
+            MappedAdjacency components = new MappedAdjacency(buffer, position, this.size);
+            position = components.getEnd(this.size);
+            MappedAdjacency members = new MappedAdjacency(buffer, position, componentCount);
+            position = members.getEnd(componentCount);
+            MappedAdjacency intervals = new MappedAdjacency(buffer, position, componentCount);
+            position = intervals.getEnd(componentCount);
+            SKOSObjectProperty property = SKOSSemanticProperty.fromString(uri);
+            if (property == null) property = SKOSElementProperty.fromString(uri);
+            if (property != null) ReachabilityIndex.register(this.closures, this.closureSources, property, reverse, new ReachabilityIndex(components, members, intervals, componentCount));
+        }
+
+        int reductionCount = buffer.getInt(position);
+        position += 4;
+        for (int i = 0; i < reductionCount; i++) {
+            String uri = this.readString(position);
+            position = this.skipString(position);
+            MappedAdjacency direct = new MappedAdjacency(buffer, position, this.size);
+            position = direct.getEnd(this.size);
+            SKOSSemanticProperty property = SKOSSemanticProperty.fromString(uri);
+            if (property != null) this.directRelations.put(property, direct);
+        }
+
+        int scopeCount = RootIndex.size(this);
+        MappedAdjacency roots = new MappedAdjacency(buffer, position, scopeCount);
+        position = roots.getEnd(scopeCount);
+        this.rootIndex = roots;
+
+        int annotationCount = buffer.getInt(position);
+        position += 4;
+        for (int i = 0; i < annotationCount; i++) {
+            String uri = this.readString(position);
+            position = this.skipString(position);
+            int languageCount = buffer.getInt(position);
+            position += 4;
+            Map<String, LabelColumn> columns = new LinkedHashMap<>();
+            for (int l = 0; l < languageCount; l++) {
+                String language = this.readString(position);
+                position = this.skipString(position);
+                MappedLabelColumn column = new MappedLabelColumn(buffer, position, this.size);
+                position = column.getEnd();
+                columns.put(language, column);
+            }
+            SKOSAnnotationProperty property = SKOSAnnotationProperty.fromString(uri);
+            if (property != null) this.labels.put(property, columns);
+        }
+
+        if (position != buffer.limit()) throw new IOException("Unexpected end of concept store at position " + position + " of " + buffer.limit());
+    }
+
+    /**
+     * Reads a length-prefixed string
+     * @param position Position of the string in the buffer
+     * @return String, or {@code null} if a {@code null} string was written
+     */
+    private String readString(int position) {
+        int length = this.buffer.getInt(position);
+        return (length >= 0) ? MappedLabelColumn.decode(this.buffer, position + 4, length) : null;
+    }
+
+    /**
+     * Skips a length-prefixed string
+     * @param position Position of the string in the buffer
+     * @return Position following the string
+     */
+    private int skipString(int position) {
+        int length = this.buffer.getInt(position);
+        return MappedLabelColumn.align(position + 4 + Math.max(length, 0));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int size() {
+        return this.size;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The URI is looked up by binary search over the identifiers sorted by
+     * URI.
+     * @param uri {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int getId(String uri) {
+        if (uri == null) return -1;
+        int low = 0;
+        int high = this.size - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            int id = this.buffer.getInt(this.sortedIds + 4 * mid);
+            int comparison = this.getURI(id).compareTo(uri);
+            if (comparison < 0) low = mid + 1;
+            else if (comparison > 0) high = mid - 1;
+            else return id;
+        }
+        return -1;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param id {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    String getURI(int id) {
+        int start = this.buffer.getInt(this.uriOffsets + 4 * id);
+        int end = this.buffer.getInt(this.uriOffsets + 4 * (id + 1));
+        return MappedLabelColumn.decode(this.buffer, this.uriBytes + start, end - start);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int getStart(SKOSType type) {
+        return this.typeOffsets[type.ordinal()];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param type {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    int getEnd(SKOSType type) {
+        return this.typeOffsets[type.ordinal() + 1];
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getRelations(SKOSObjectProperty property) {
+        ReachabilityIndex index = this.closures.get(property);
+        if (index != null) return index.getClosure();
+        Adjacency adjacency = this.relations.get(property);
+        return (adjacency != null) ? adjacency : Adjacency.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getRelationshipSources(SKOSObjectProperty property) {
+        ReachabilityIndex index = this.closureSources.get(property);
+        if (index != null) return index.getClosure();
+        Adjacency adjacency = this.sources.get(property);
+        return (adjacency != null) ? adjacency : Adjacency.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @param reverse {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    ReachabilityIndex getReachability(SKOSObjectProperty property, boolean reverse) {
+        return (reverse ? this.closureSources : this.closures).get(property);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getDirectRelations(SKOSSemanticProperty property) {
+        Adjacency adjacency = this.directRelations.get(property);
+        return (adjacency != null) ? adjacency : Adjacency.EMPTY;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    Adjacency getRootIndex() {
+        return this.rootIndex;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    List<String> getLanguages(SKOSAnnotationProperty property) {
+        Map<String, LabelColumn> columns = this.labels.get(property);
+        if (columns == null) return Collections.emptyList();
+        return new ArrayList<>(columns.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param property {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    LabelColumn getLabels(SKOSAnnotationProperty property, String language) {
+        Map<String, LabelColumn> columns = this.labels.get(property);
+        return (columns != null) ? columns.get(language) : null;
+    }
+}
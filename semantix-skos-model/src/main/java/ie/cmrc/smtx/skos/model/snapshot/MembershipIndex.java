@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+
+/**
+ * Concept scheme and collection membership of the resources of a SKOS
+ * snapshot, held as one {@link RoaringBitmap} of internal identifiers per
+ * concept scheme, per collection and per collection including indirect
+ * members.<br/>
+ * Concept scheme and collection filters are turned into a single bitmap
+ * (see {@link #scope(int[], int[])}), so that filtering a list of resources
+ * costs one membership test per resource whatever the number of concept
+ * schemes and collections of the filters.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class MembershipIndex {
+
+    /**
+     * First internal identifier of the concept schemes
+     */
+    private final int schemeStart;
+
+    /**
+     * First internal identifier of the collections
+     */
+    private final int collectionStart;
+
+    /**
+     * Resources of each concept scheme, indexed by concept scheme rank
+     */
+    private final RoaringBitmap[] schemeMembers;
+
+    /**
+     * Members of each collection, indexed by collection rank
+     */
+    private final RoaringBitmap[] collectionMembers;
+
+    /**
+     * Direct and indirect members of each collection, indexed by collection
+     * rank
+     */
+    private final RoaringBitmap[] transitiveCollectionMembers;
+
+    /**
+     * Constructs a {@link MembershipIndex} from the relations of a store
+     * @param store Snapshot store
+     */
+    MembershipIndex(SnapshotStore store) {
+        this.schemeStart = store.getStart(SKOSType.ConceptScheme);
+        this.collectionStart = store.getStart(SKOSType.Collection);
+        this.schemeMembers = bitmaps(store, SKOSType.ConceptScheme, store.getRelationshipSources(SKOSElementProperty.inScheme));
+        this.collectionMembers = bitmaps(store, SKOSType.Collection, store.getRelations(SKOSElementProperty.member));
+        this.transitiveCollectionMembers = bitmaps(store, SKOSType.Collection, store.getRelations(SKOSElementProperty.memberTransitive));
+    }
+
+    /**
+     * Returns the resources of a concept scheme
+     * @param conceptSchemeId Internal identifier of a concept scheme
+     * @return Bitmap of the resources of the concept scheme
+     */
+    RoaringBitmap getSchemeMembers(int conceptSchemeId) {
+        return this.schemeMembers[conceptSchemeId - this.schemeStart];
+    }
+
+    /**
+     * Returns the members of a collection
+     * @param collectionId Internal identifier of a collection
+     * @param transitive Whether indirect members are included
+     * @return Bitmap of the members of the collection
+     */
+    RoaringBitmap getCollectionMembers(int collectionId, boolean transitive) {
+        return (transitive ? this.transitiveCollectionMembers : this.collectionMembers)[collectionId - this.collectionStart];
+    }
+
+    /**
+     * Returns the resources passing the provided filters, that is the
+     * resources that belong to at least one of the concept schemes and are a
+     * member of at least one of the collections
+     * @param conceptSchemes Concept scheme filter, or {@code null} for no
+     * filter
+     * @param collections Collection filter, or {@code null} for no filter
+     * @return Bitmap of the resources passing the filters, or {@code null} if
+     * there are no filters
+     */
+    RoaringBitmap scope(int[] conceptSchemes, int[] collections) {
+        RoaringBitmap scope = null;
+        if (conceptSchemes != null) {
+            RoaringBitmap union = RoaringBitmap.EMPTY;
+            for (int conceptScheme: conceptSchemes) union = union.or(this.getSchemeMembers(conceptScheme));
+            scope = union;
+        }
+        if (collections != null) {
+            RoaringBitmap union = RoaringBitmap.EMPTY;
+            for (int collection: collections) union = union.or(this.getCollectionMembers(collection, false));
+            scope = (scope != null) ? scope.and(union) : union;
+        }
+        return scope;
+    }
+
+    /**
+     * Builds one bitmap per resource of the provided type, from the provided
+     * adjacency lists
+     * @param store Snapshot store
+     * @param type SKOS type
+     * @param adjacency Adjacency lists
+     * @return Bitmaps of the resources adjacent to each resource of type
+     * {@code type}, indexed by rank within the type
+     */
+    private static RoaringBitmap[] bitmaps(SnapshotStore store, SKOSType type, Adjacency adjacency) {
+        int start = store.getStart(type);
+        RoaringBitmap[] bitmaps = new RoaringBitmap[store.getEnd(type) - start];
+        for (int i = 0; i < bitmaps.length; i++) bitmaps[i] = RoaringBitmap.of(adjacency.toArray(start + i));
+        return bitmaps;
+    }
+}
@@ -0,0 +1,510 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import java.util.Arrays;
+import java.util.Map;
+
+/**
+ * Reachability index of a transitive relation of a SKOS snapshot, serving the
+ * transitive closure of the relation without storing it.<br/>
+ * The relation graph is condensed into its strongly connected components,
+ * which are numbered in the order Tarjan's algorithm completes them. This is
+ * a post-order of a depth-first traversal of the condensed graph, so that the
+ * components discovered from a component form a contiguous range of numbers
+ * ending with the component itself. Each component is then labelled with the
+ * sorted, disjoint intervals of component numbers it reaches: its own range
+ * merged with the intervals of its successors. On tree-like hierarchies,
+ * which thesauri mostly are, a component has a single interval.<br/>
+ * Checking whether a resource reaches another one is a binary search over the
+ * intervals of its component, counting the resources it reaches is a sum
+ * over its intervals, and the resources it reaches are enumerated on demand
+ * from the members of the components of its intervals. A resource reaches
+ * itself only if it is part of a cycle.<br/>
+ * The index is made of three adjacency lists, so that it can be written to
+ * and memory-mapped from concept store files: the component of each
+ * resource, the members of each component and the intervals of each
+ * component, as flattened (first, last) pairs.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class ReachabilityIndex {
+
+    /**
+     * Transitive properties whose closure is served by reachability indexes,
+     * in both directions. The closure of
+     * {@link SKOSSemanticProperty#broaderTransitive} is served by the reverse
+     * index of {@link SKOSSemanticProperty#narrowerTransitive}.
+     */
+    static final SKOSObjectProperty[] PROPERTIES = {SKOSSemanticProperty.narrowerTransitive, SKOSElementProperty.memberTransitive};
+
+    /**
+     * Component of each resource, as a single target
+     */
+    private final Adjacency components;
+
+    /**
+     * Members of each component
+     */
+    private final Adjacency members;
+
+    /**
+     * Intervals of the components reached by each component, as flattened
+     * (first, last) pairs in increasing order
+     */
+    private final Adjacency intervals;
+
+    /**
+     * Number of components
+     */
+    private final int componentCount;
+
+    /**
+     * Closure of the relation, as adjacency lists
+     */
+    private final Adjacency closure = new Closure();
+
+    /**
+     * Constructs a {@link ReachabilityIndex}
+     * @param components Component of each resource, as a single target
+     * @param members Members of each component
+     * @param intervals Intervals of the components reached by each component
+     * @param componentCount Number of components
+     */
+    ReachabilityIndex(Adjacency components, Adjacency members, Adjacency intervals, int componentCount) {
+        this.components = components;
+        this.members = members;
+        this.intervals = intervals;
+        this.componentCount = componentCount;
+    }
+
+    /**
+     * Checks whether the provided property is served by reachability indexes
+     * @param property SKOS object property
+     * @return {@code true} if the closure of {@code property} is served by
+     * reachability indexes rather than stored
+     */
+    static boolean isIndexed(SKOSObjectProperty property) {
+        return property == SKOSSemanticProperty.narrowerTransitive || property == SKOSSemanticProperty.broaderTransitive || property == SKOSElementProperty.memberTransitive;
+    }
+
+    /**
+     * Computes the reachability index of a transitive property from the
+     * relations of a store. The relation graph is made of the relationships
+     * of the property and of its direct sub-property ({@code skos:narrower}
+     * or {@code skos:member}), plus the inverse relationships of their
+     * inverse properties, if any.
+     * @param store Snapshot store
+     * @param property One of {@link #PROPERTIES}
+     * @param reverse Whether the index serves the reverse relation
+     * @return Reachability index
+     */
+    static ReachabilityIndex compute(SnapshotStore store, SKOSObjectProperty property, boolean reverse) {
+        Adjacency[] successors;
+        if (property == SKOSSemanticProperty.narrowerTransitive) {
+            successors = new Adjacency[] {
+                relations(store, SKOSSemanticProperty.narrower, reverse),
+                relations(store, SKOSSemanticProperty.narrowerTransitive, reverse),
+                relations(store, SKOSSemanticProperty.broader, !reverse),
+                relations(store, SKOSSemanticProperty.broaderTransitive, !reverse)
+            };
+        }
+        else {
+            successors = new Adjacency[] {
+                relations(store, SKOSElementProperty.member, reverse),
+                relations(store, SKOSElementProperty.memberTransitive, reverse)
+            };
+        }
+        return compute(store.size(), successors);
+    }
+
+    /**
+     * Returns the forward or reverse adjacency lists of a relation
+     * @param store Snapshot store
+     * @param property SKOS object property
+     * @param reverse Whether the reverse adjacency lists are returned
+     * @return Adjacency lists
+     */
+    private static Adjacency relations(SnapshotStore store, SKOSObjectProperty property, boolean reverse) {
+        return reverse ? store.getRelationshipSources(property) : store.getRelations(property);
+    }
+
+    /**
+     * Registers an index as the closure of its property in the provided
+     * relation maps
+     * @param relations Adjacency lists of the relations
+     * @param sources Reverse adjacency lists of the relations
+     * @param property One of {@link #PROPERTIES}
+     * @param reverse Whether {@code index} serves the reverse relation
+     * @param index Reachability index
+     */
+    static void register(Map<SKOSObjectProperty, ReachabilityIndex> relations, Map<SKOSObjectProperty, ReachabilityIndex> sources, SKOSObjectProperty property, boolean reverse, ReachabilityIndex index) {
+        (reverse ? sources : relations).put(property, index);
+        if (property == SKOSSemanticProperty.narrowerTransitive) (reverse ? relations : sources).put(SKOSSemanticProperty.broaderTransitive, index);
+    }
+
+    /**
+     * Computes the reachability index of the graph made of the union of the
+     * provided adjacency lists
+     * @param size Number of resources
+     * @param successors Adjacency lists
+     * @return Reachability index
+     */
+    static ReachabilityIndex compute(int size, Adjacency[] successors) {
+        // Tarjan's strongly connected components, iteratively
+        int[] index = new int[size];
+        int[] lowLink = new int[size];
+        int[] component = new int[size];
+        int[] entry = new int[size];
+        Arrays.fill(index, -1);
+        Arrays.fill(component, -1);
+        int[] stack = new int[size];
+        int stackSize = 0;
+        int[] frameNodes = new int[size];
+        int[] frameLists = new int[size];
+        int[] frameIndexes = new int[size];
+        int[] memberIds = new int[size];
+        int[] memberOffsets = new int[size + 1];
+        int[] componentStarts = new int[size];
+        int counter = 0;
+        int componentCount = 0;
+        int memberCount = 0;
+
+        for (int root = 0; root < size; root++) {
+            if (index[root] >= 0) continue;
+            int depth = 0;
+            frameNodes[0] = root;
+            frameLists[0] = 0;
+            frameIndexes[0] = 0;
+            index[root] = lowLink[root] = counter++;
+            entry[root] = componentCount;
+            stack[stackSize++] = root;
+            while (depth >= 0) {
+                int node = frameNodes[depth];
+                boolean descended = false;
+                while (frameLists[depth] < successors.length) {
+                    Adjacency adjacency = successors[frameLists[depth]];
+                    if (frameIndexes[depth] >= adjacency.size(node)) {
+                        frameLists[depth]++;
+                        frameIndexes[depth] = 0;
+                        continue;
+                    }
+                    int successor = adjacency.get(node, frameIndexes[depth]++);
+                    if (index[successor] < 0) {
+                        depth++;
+                        frameNodes[depth] = successor;
+                        frameLists[depth] = 0;
+                        frameIndexes[depth] = 0;
+                        index[successor] = lowLink[successor] = counter++;
+                        entry[successor] = componentCount;
+                        stack[stackSize++] = successor;
+                        descended = true;
+                        break;
+                    }
+                    else if (component[successor] < 0) lowLink[node] = Math.min(lowLink[node], index[successor]);
+                }
+                if (descended) continue;
+
+                if (lowLink[node] == index[node]) {
+                    int first = memberCount;
+                    int member;
+                    do {
+                        member = stack[--stackSize];
+                        component[member] = componentCount;
+                        memberIds[memberCount++] = member;
+                    } while (member != node);
+                    Arrays.sort(memberIds, first, memberCount);
+                    memberOffsets[componentCount] = first;
+                    componentStarts[componentCount] = entry[node];
+                    componentCount++;
+                }
+                depth--;
+                if (depth >= 0) lowLink[frameNodes[depth]] = Math.min(lowLink[frameNodes[depth]], lowLink[node]);
+            }
+        }
+        memberOffsets[componentCount] = memberCount;
+
+        // Intervals, in component order so that successors come first
+        int[] fullOffsets = new int[componentCount + 1];
+        int[] full = new int[2 * componentCount];
+        int fullCount = 0;
+        int[] strictOffsets = new int[componentCount + 1];
+        int[] strict = new int[2 * componentCount];
+        int strictCount = 0;
+        int[] seen = new int[componentCount];
+        Arrays.fill(seen, -1);
+        long[] pending = new long[16];
+        for (int c = 0; c < componentCount; c++) {
+            int pendingCount = 0;
+            pending[pendingCount++] = pack(componentStarts[c], c);
+            boolean cyclic = memberOffsets[c + 1] - memberOffsets[c] > 1;
+            seen[c] = c;
+            for (int m = memberOffsets[c]; m < memberOffsets[c + 1]; m++) {
+                int member = memberIds[m];
+                for (Adjacency adjacency: successors) {
+                    int successorCount = adjacency.size(member);
+                    for (int i = 0; i < successorCount; i++) {
+                        int successor = adjacency.get(member, i);
+                        int d = component[successor];
+                        if (successor == member) cyclic = true;
+                        if (seen[d] == c) continue;
+                        seen[d] = c;
+                        int needed = pendingCount + (fullOffsets[d + 1] - fullOffsets[d]) / 2;
+                        if (needed > pending.length) pending = Arrays.copyOf(pending, Math.max(2 * pending.length, needed));
+                        for (int k = fullOffsets[d]; k < fullOffsets[d + 1]; k += 2) pending[pendingCount++] = pack(full[k], full[k + 1]);
+                    }
+                }
+            }
+
+            // Sort and merge the intervals
+            Arrays.sort(pending, 0, pendingCount);
+            fullOffsets[c] = fullCount;
+            int low = first(pending[0]);
+            int high = last(pending[0]);
+            for (int k = 1; k <= pendingCount; k++) {
+                if (k < pendingCount && first(pending[k]) <= high + 1) {
+                    high = Math.max(high, last(pending[k]));
+                    continue;
+                }
+                if (fullCount + 2 > full.length) full = Arrays.copyOf(full, 2 * full.length);
+                full[fullCount++] = low;
+                full[fullCount++] = high;
+                if (k < pendingCount) {
+                    low = first(pending[k]);
+                    high = last(pending[k]);
+                }
+            }
+            fullOffsets[c + 1] = fullCount;
+
+            // Strict intervals exclude the component itself, which ends the
+            // last interval, unless it is part of a cycle
+            int length = fullOffsets[c + 1] - fullOffsets[c];
+            if (strictCount + length > strict.length) strict = Arrays.copyOf(strict, Math.max(2 * strict.length, strictCount + length));
+            System.arraycopy(full, fullOffsets[c], strict, strictCount, length);
+            strictOffsets[c] = strictCount;
+            strictCount += length;
+            if (!cyclic) {
+                if (strict[strictCount - 2] == c) strictCount -= 2;
+                else strict[strictCount - 1] = c - 1;
+            }
+        }
+        strictOffsets[componentCount] = strictCount;
+
+        int[] componentOffsets = new int[size + 1];
+        for (int id = 0; id <= size; id++) componentOffsets[id] = id;
+        return new ReachabilityIndex(new HeapAdjacency(componentOffsets, component),
+                new HeapAdjacency(Arrays.copyOf(memberOffsets, componentCount + 1), memberIds),
+                new HeapAdjacency(strictOffsets, Arrays.copyOf(strict, strictCount)),
+                componentCount);
+    }
+
+    /**
+     * Packs an interval into a long, so that packed intervals sort by first
+     * component
+     * @param first First component of the interval
+     * @param last Last component of the interval
+     * @return Packed interval
+     */
+    private static long pack(int first, int last) {
+        return ((long) first << 32) | (last & 0xFFFFFFFFL);
+    }
+
+    /**
+     * Returns the first component of a packed interval
+     * @param interval Packed interval
+     * @return First component
+     */
+    private static int first(long interval) {
+        return (int) (interval >>> 32);
+    }
+
+    /**
+     * Returns the last component of a packed interval
+     * @param interval Packed interval
+     * @return Last component
+     */
+    private static int last(long interval) {
+        return (int) interval;
+    }
+
+    /**
+     * Returns the component of each resource
+     * @return Adjacency lists mapping each resource to its component
+     */
+    Adjacency getComponents() {
+        return this.components;
+    }
+
+    /**
+     * Returns the members of each component
+     * @return Adjacency lists mapping each component to its members
+     */
+    Adjacency getMembers() {
+        return this.members;
+    }
+
+    /**
+     * Returns the intervals of the components reached by each component
+     * @return Adjacency lists mapping each component to the flattened
+     * intervals of the components it reaches
+     */
+    Adjacency getIntervals() {
+        return this.intervals;
+    }
+
+    /**
+     * Returns the number of components
+     * @return Number of strongly connected components
+     */
+    int getComponentCount() {
+        return this.componentCount;
+    }
+
+    /**
+     * Returns the closure of the relation
+     * @return Adjacency lists mapping each resource to the resources it
+     * reaches
+     */
+    Adjacency getClosure() {
+        return this.closure;
+    }
+
+    /**
+     * Checks whether a resource reaches another one
+     * @param id Internal identifier of a resource
+     * @param target Internal identifier of another resource
+     * @return {@code true} if {@code target} is reachable from {@code id}
+     * through one or more relationships
+     */
+    boolean reaches(int id, int target) {
+        int component = this.components.get(id, 0);
+        int targetComponent = this.components.get(target, 0);
+        int low = 0;
+        int high = this.intervals.size(component) / 2 - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (this.intervals.get(component, 2 * mid + 1) < targetComponent) low = mid + 1;
+            else if (this.intervals.get(component, 2 * mid) > targetComponent) high = mid - 1;
+            else return true;
+        }
+        return false;
+    }
+
+    /**
+     * Counts the resources reached by a resource
+     * @param id Internal identifier of a resource
+     * @return Number of resources reachable from {@code id}
+     */
+    int count(int id) {
+        int component = this.components.get(id, 0);
+        int count = 0;
+        int size = this.intervals.size(component);
+        for (int k = 0; k < size; k += 2) {
+            count += this.members.offset(this.intervals.get(component, k + 1) + 1) - this.members.offset(this.intervals.get(component, k));
+        }
+        return count;
+    }
+
+    /**
+     * Lists the resources reached by a resource
+     * @param id Internal identifier of a resource
+     * @return Internal identifiers of the resources reachable from {@code id},
+     * in increasing order
+     */
+    int[] reached(int id) {
+        int component = this.components.get(id, 0);
+        int[] reached = new int[this.count(id)];
+        int position = 0;
+        int size = this.intervals.size(component);
+        for (int k = 0; k < size; k += 2) {
+            int last = this.intervals.get(component, k + 1);
+            for (int c = this.intervals.get(component, k); c <= last; c++) {
+                int memberCount = this.members.size(c);
+                for (int m = 0; m < memberCount; m++) reached[position++] = this.members.get(c, m);
+            }
+        }
+        Arrays.sort(reached);
+        return reached;
+    }
+
+    /**
+     * Closure of the relation, computed on demand from the index. The last
+     * list enumerated by each thread is cached, so that reading a list item
+     * by item does not enumerate it again.
+     */
+    private final class Closure extends Adjacency {
+
+        /**
+         * Last list enumerated by each thread, preceded by its resource
+         */
+        private final ThreadLocal<int[]> last = new ThreadLocal<>();
+
+        /**
+         * {@inheritDoc}
+         * @param id {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        int size(int id) {
+            return count(id);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param id {@inheritDoc}
+         * @param index {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        int get(int id, int index) {
+            int[] cached = this.last.get();
+            if (cached == null || cached[0] != id) {
+                int[] reached = reached(id);
+                cached = new int[reached.length + 1];
+                cached[0] = id;
+                System.arraycopy(reached, 0, cached, 1, reached.length);
+                this.last.set(cached);
+            }
+            return cached[index + 1];
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param id {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        int[] toArray(int id) {
+            return reached(id);
+        }
+
+        /**
+         * {@inheritDoc}
+         * @param id {@inheritDoc}
+         * @param target {@inheritDoc}
+         * @return {@inheritDoc}
+         */
+        @Override
+        boolean contains(int id, int target) {
+            return reaches(id, target);
+        }
+    }
+}
@@ -0,0 +1,403 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import java.util.Arrays;
+
+/**
+ * Immutable, compressed bitmap of non-negative integers, in the style of
+ * Roaring bitmaps.<br/>
+ * Values are partitioned by their 16 high bits into chunks. Each non-empty
+ * chunk holds its 16 low bits either as a sorted array, when the chunk has at
+ * most {@value #ARRAY_MAX} values, or as a bitmap of 2<sup>16</sup> bits
+ * otherwise. Sparse sets therefore take about two bytes per value, and dense
+ * sets about one bit per possible value. Membership tests are a binary search
+ * over the chunk keys followed by a binary search or bit test, and unions and
+ * intersections are computed chunk by chunk.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class RoaringBitmap {
+
+    /**
+     * Empty bitmap
+     */
+    static final RoaringBitmap EMPTY = new RoaringBitmap(new char[0], new Container[0]);
+
+    /**
+     * Maximum number of values of an array chunk
+     */
+    static final int ARRAY_MAX = 4096;
+
+    /**
+     * Number of words of a bitmap chunk
+     */
+    private static final int WORDS = 1 << 10;
+
+    /**
+     * 16 high bits of the values of each chunk, in increasing order
+     */
+    private final char[] keys;
+
+    /**
+     * Chunks, in the order of {@code keys}
+     */
+    private final Container[] containers;
+
+    /**
+     * Constructs a {@link RoaringBitmap}
+     * @param keys Chunk keys, in increasing order
+     * @param containers Non-empty chunks
+     */
+    private RoaringBitmap(char[] keys, Container[] containers) {
+        this.keys = keys;
+        this.containers = containers;
+    }
+
+    /**
+     * Creates a bitmap holding the provided values
+     * @param values Non-negative values, in increasing order. Duplicates are
+     * ignored.
+     * @return Bitmap of {@code values}
+     */
+    static RoaringBitmap of(int[] values) {
+        if (values.length == 0) return EMPTY;
+        char[] keys = new char[values.length];
+        Container[] containers = new Container[values.length];
+        int chunkCount = 0;
+        int i = 0;
+        while (i < values.length) {
+            int high = values[i] >>> 16;
+            int j = i;
+            while (j < values.length && (values[j] >>> 16) == high) j++;
+            char[] low = new char[j - i];
+            int count = 0;
+            for (int k = i; k < j; k++) {
+                char value = (char) values[k];
+                if (count == 0 || low[count - 1] != value) low[count++] = value;
+            }
+            keys[chunkCount] = (char) high;
+            containers[chunkCount] = (count <= ARRAY_MAX) ? new ArrayContainer(Arrays.copyOf(low, count)) : BitmapContainer.of(low, count);
+            chunkCount++;
+            i = j;
+        }
+        return new RoaringBitmap(Arrays.copyOf(keys, chunkCount), Arrays.copyOf(containers, chunkCount));
+    }
+
+    /**
+     * Checks whether the bitmap holds a value
+     * @param value Value
+     * @return {@code true} if {@code value} is in the bitmap
+     */
+    boolean contains(int value) {
+        if (value < 0) return false;
+        int index = Arrays.binarySearch(this.keys, (char) (value >>> 16));
+        return index >= 0 && this.containers[index].contains((char) value);
+    }
+
+    /**
+     * Returns the number of values of the bitmap
+     * @return Number of values
+     */
+    int cardinality() {
+        int cardinality = 0;
+        for (Container container: this.containers) cardinality += container.cardinality();
+        return cardinality;
+    }
+
+    /**
+     * Returns the values of the bitmap
+     * @return Values, in increasing order
+     */
+    int[] toArray() {
+        int[] values = new int[this.cardinality()];
+        int position = 0;
+        for (int i = 0; i < this.keys.length; i++) position = this.containers[i].copyTo(this.keys[i] << 16, values, position);
+        return values;
+    }
+
+    /**
+     * Computes the union of this bitmap with another one
+     * @param other Bitmap
+     * @return Bitmap of the values in this bitmap or in {@code other}
+     */
+    RoaringBitmap or(RoaringBitmap other) {
+        char[] keys = new char[this.keys.length + other.keys.length];
+        Container[] containers = new Container[keys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < this.keys.length || j < other.keys.length) {
+            if (j == other.keys.length || (i < this.keys.length && this.keys[i] < other.keys[j])) {
+                keys[count] = this.keys[i];
+                containers[count++] = this.containers[i++];
+            }
+            else if (i == this.keys.length || other.keys[j] < this.keys[i]) {
+                keys[count] = other.keys[j];
+                containers[count++] = other.containers[j++];
+            }
+            else {
+                keys[count] = this.keys[i];
+                containers[count++] = this.containers[i++].or(other.containers[j++]);
+            }
+        }
+        return new RoaringBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+    }
+
+    /**
+     * Computes the intersection of this bitmap with another one
+     * @param other Bitmap
+     * @return Bitmap of the values in both this bitmap and {@code other}
+     */
+    RoaringBitmap and(RoaringBitmap other) {
+        char[] keys = new char[Math.min(this.keys.length, other.keys.length)];
+        Container[] containers = new Container[keys.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < this.keys.length && j < other.keys.length) {
+            if (this.keys[i] < other.keys[j]) i++;
+            else if (other.keys[j] < this.keys[i]) j++;
+            else {
+                Container container = this.containers[i].and(other.containers[j]);
+                if (container.cardinality() > 0) {
+                    keys[count] = this.keys[i];
+                    containers[count++] = container;
+                }
+                i++;
+                j++;
+            }
+        }
+        if (count == 0) return EMPTY;
+        return new RoaringBitmap(Arrays.copyOf(keys, count), Arrays.copyOf(containers, count));
+    }
+
+    /**
+     * Chunk of a bitmap, holding the 16 low bits of its values
+     */
+    private abstract static class Container {
+
+        /**
+         * Checks whether the chunk holds a value
+         * @param low 16 low bits of the value
+         * @return {@code true} if the value is in the chunk
+         */
+        abstract boolean contains(char low);
+
+        /**
+         * Returns the number of values of the chunk
+         * @return Number of values
+         */
+        abstract int cardinality();
+
+        /**
+         * Copies the values of the chunk to an array
+         * @param high 16 high bits of the values, shifted
+         * @param values Destination array
+         * @param position Position of the first value in {@code values}
+         * @return Position following the last value copied
+         */
+        abstract int copyTo(int high, int[] values, int position);
+
+        /**
+         * Computes the union of this chunk with another one
+         * @param other Chunk with the same key
+         * @return Union of the chunks
+         */
+        abstract Container or(Container other);
+
+        /**
+         * Computes the intersection of this chunk with another one
+         * @param other Chunk with the same key
+         * @return Intersection of the chunks, possibly empty
+         */
+        abstract Container and(Container other);
+    }
+
+    /**
+     * Chunk holding its values as a sorted array
+     */
+    private static final class ArrayContainer extends Container {
+
+        /**
+         * 16 low bits of the values, in increasing order
+         */
+        final char[] values;
+
+        /**
+         * Constructs an {@link ArrayContainer}
+         * @param values 16 low bits of the values, in increasing order
+         */
+        ArrayContainer(char[] values) {
+            this.values = values;
+        }
+
+        @Override
+        boolean contains(char low) {
+            return Arrays.binarySearch(this.values, low) >= 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.values.length;
+        }
+
+        @Override
+        int copyTo(int high, int[] values, int position) {
+            for (char low: this.values) values[position++] = high | low;
+            return position;
+        }
+
+        @Override
+        Container or(Container other) {
+            if (other instanceof BitmapContainer) return other.or(this);
+            char[] otherValues = ((ArrayContainer) other).values;
+            char[] merged = new char[this.values.length + otherValues.length];
+            int count = 0;
+            int i = 0;
+            int j = 0;
+            while (i < this.values.length || j < otherValues.length) {
+                char value;
+                if (j == otherValues.length || (i < this.values.length && this.values[i] < otherValues[j])) value = this.values[i++];
+                else if (i == this.values.length || otherValues[j] < this.values[i]) value = otherValues[j++];
+                else {
+                    value = this.values[i++];
+                    j++;
+                }
+                merged[count++] = value;
+            }
+            return (count <= ARRAY_MAX) ? new ArrayContainer(Arrays.copyOf(merged, count)) : BitmapContainer.of(merged, count);
+        }
+
+        @Override
+        Container and(Container other) {
+            char[] common = new char[this.values.length];
+            int count = 0;
+            for (char value: this.values) {
+                if (other.contains(value)) common[count++] = value;
+            }
+            return new ArrayContainer(Arrays.copyOf(common, count));
+        }
+    }
+
+    /**
+     * Chunk holding its values as a bitmap of 2<sup>16</sup> bits
+     */
+    private static final class BitmapContainer extends Container {
+
+        /**
+         * Bits of the values
+         */
+        final long[] words;
+
+        /**
+         * Number of values
+         */
+        final int cardinality;
+
+        /**
+         * Constructs a {@link BitmapContainer}
+         * @param words Bits of the values
+         * @param cardinality Number of bits set in {@code words}
+         */
+        BitmapContainer(long[] words, int cardinality) {
+            this.words = words;
+            this.cardinality = cardinality;
+        }
+
+        /**
+         * Creates a bitmap chunk from distinct values
+         * @param values 16 low bits of the values
+         * @param count Number of values
+         * @return Bitmap chunk
+         */
+        static BitmapContainer of(char[] values, int count) {
+            long[] words = new long[WORDS];
+            for (int i = 0; i < count; i++) words[values[i] >>> 6] |= 1L << values[i];
+            return new BitmapContainer(words, count);
+        }
+
+        /**
+         * Creates the smallest chunk holding the bits of the provided words
+         * @param words Bits of the values
+         * @return Array chunk if there are at most {@value #ARRAY_MAX} values,
+         * bitmap chunk otherwise
+         */
+        static Container fromWords(long[] words) {
+            int cardinality = 0;
+            for (long word: words) cardinality += Long.bitCount(word);
+            if (cardinality > ARRAY_MAX) return new BitmapContainer(words, cardinality);
+            char[] values = new char[cardinality];
+            int count = 0;
+            for (int w = 0; w < words.length; w++) {
+                long word = words[w];
+                while (word != 0) {
+                    values[count++] = (char) ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return new ArrayContainer(values);
+        }
+
+        @Override
+        boolean contains(char low) {
+            return (this.words[low >>> 6] & (1L << low)) != 0;
+        }
+
+        @Override
+        int cardinality() {
+            return this.cardinality;
+        }
+
+        @Override
+        int copyTo(int high, int[] values, int position) {
+            for (int w = 0; w < this.words.length; w++) {
+                long word = this.words[w];
+                while (word != 0) {
+                    values[position++] = high | ((w << 6) + Long.numberOfTrailingZeros(word));
+                    word &= word - 1;
+                }
+            }
+            return position;
+        }
+
+        @Override
+        Container or(Container other) {
+            long[] words = this.words.clone();
+            if (other instanceof BitmapContainer) {
+                long[] otherWords = ((BitmapContainer) other).words;
+                for (int w = 0; w < words.length; w++) words[w] |= otherWords[w];
+            }
+            else {
+                for (char value: ((ArrayContainer) other).values) words[value >>> 6] |= 1L << value;
+            }
+            int cardinality = 0;
+            for (long word: words) cardinality += Long.bitCount(word);
+            return new BitmapContainer(words, cardinality);
+        }
+
+        @Override
+        Container and(Container other) {
+            if (other instanceof ArrayContainer) return other.and(this);
+            long[] words = this.words.clone();
+            long[] otherWords = ((BitmapContainer) other).words;
+            for (int w = 0; w < words.length; w++) words[w] &= otherWords[w];
+            return fromWords(words);
+        }
+    }
+}
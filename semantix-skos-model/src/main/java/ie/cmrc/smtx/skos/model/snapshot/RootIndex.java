@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.Arrays;
+
+/**
+ * Computes the broadest concepts of every (concept scheme, collection) scope
+ * of a SKOS snapshot.<br/>
+ * A scope is made of an optional concept scheme and an optional collection.
+ * A concept is in scope if it belongs to the concept scheme, if any, and is a
+ * member of the collection, if any. The broadest concepts of a scope are the
+ * concepts in scope that have no broader concept in scope.<br/>
+ * The broadest concepts of all the scopes are stored as adjacency lists
+ * indexed by scope key (see {@link #key(SnapshotStore, int, int)}).
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class RootIndex {
+
+    private RootIndex() {
+    }
+
+    /**
+     * Returns the number of scopes of a store
+     * @param store Snapshot store
+     * @return Number of scopes, that is the number of concept schemes plus one
+     * times the number of collections plus one
+     */
+    static int size(SnapshotStore store) {
+        return (count(store, SKOSType.ConceptScheme) + 1) * (count(store, SKOSType.Collection) + 1);
+    }
+
+    /**
+     * Returns the key of a scope
+     * @param store Snapshot store
+     * @param conceptScheme Internal identifier of the concept scheme, or
+     * {@code -1} for no concept scheme restriction
+     * @param collection Internal identifier of the collection, or {@code -1}
+     * for no collection restriction
+     * @return Scope key, ranging from {@code 0} to {@code size(store)-1}
+     */
+    static int key(SnapshotStore store, int conceptScheme, int collection) {
+        int schemeRank = (conceptScheme >= 0) ? conceptScheme - store.getStart(SKOSType.ConceptScheme) + 1 : 0;
+        int collectionRank = (collection >= 0) ? collection - store.getStart(SKOSType.Collection) + 1 : 0;
+        return schemeRank * (count(store, SKOSType.Collection) + 1) + collectionRank;
+    }
+
+    /**
+     * Computes the broadest concepts of all the scopes of a store
+     * @param store Snapshot store
+     * @return Adjacency lists mapping each scope key to the broadest concepts
+     * of the scope, in increasing order
+     */
+    static HeapAdjacency compute(SnapshotStore store) {
+        Adjacency inScheme = store.getRelations(SKOSElementProperty.inScheme);
+        Adjacency memberOf = store.getRelationshipSources(SKOSElementProperty.member);
+        Adjacency broader = store.getRelations(SKOSSemanticProperty.broaderTransitive);
+        int schemeStart = store.getStart(SKOSType.ConceptScheme);
+        int schemeEnd = store.getEnd(SKOSType.ConceptScheme);
+        int collectionStart = store.getStart(SKOSType.Collection);
+        int collectionEnd = store.getEnd(SKOSType.Collection);
+
+        int[] keys = new int[1024];
+        int[] roots = new int[1024];
+        int count = 0;
+        for (int id = store.getStart(SKOSType.Concept); id < store.getEnd(SKOSType.Concept); id++) {
+            int[] schemes = withNoRestriction(inScheme.toArray(id), schemeStart, schemeEnd);
+            int[] collections = withNoRestriction(memberOf.toArray(id), collectionStart, collectionEnd);
+            for (int scheme: schemes) {
+                for (int collection: collections) {
+                    if (!hasBroaderInScope(store, broader, id, scheme, collection)) {
+                        if (count == keys.length) {
+                            keys = Arrays.copyOf(keys, 2 * count);
+                            roots = Arrays.copyOf(roots, 2 * count);
+                        }
+                        keys[count] = key(store, scheme, collection);
+                        roots[count] = id;
+                        count++;
+                    }
+                }
+            }
+        }
+        return HeapAdjacency.build(size(store), keys, roots, count);
+    }
+
+    /**
+     * Checks whether a concept has a broader concept in a scope
+     * @param store Snapshot store
+     * @param broader Adjacency lists of the transitive broader relation
+     * @param id Internal identifier of the concept
+     * @param conceptScheme Internal identifier of the concept scheme, or
+     * {@code -1}
+     * @param collection Internal identifier of the collection, or {@code -1}
+     * @return {@code true} if the concept has a broader concept in scope
+     */
+    private static boolean hasBroaderInScope(SnapshotStore store, Adjacency broader, int id, int conceptScheme, int collection) {
+        int broaderCount = broader.size(id);
+        for (int i = 0; i < broaderCount; i++) {
+            int broaderId = broader.get(id, i);
+            if (broaderId != id
+                    && (conceptScheme < 0 || store.isInScheme(broaderId, conceptScheme))
+                    && (collection < 0 || store.isMember(collection, broaderId, false))) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Keeps the identifiers of the provided type and adds {@code -1}, standing
+     * for no restriction
+     * @param ids Internal identifiers
+     * @param start First internal identifier of the type
+     * @param end Internal identifier following the last one of the type
+     * @return {@code -1} followed by the identifiers within
+     * {@code [start, end)}
+     */
+    private static int[] withNoRestriction(int[] ids, int start, int end) {
+        int[] selected = new int[ids.length + 1];
+        int count = 0;
+        selected[count++] = -1;
+        for (int id: ids) {
+            if (id >= start && id < end) selected[count++] = id;
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Returns the number of resources of a type
+     * @param store Snapshot store
+     * @param type SKOS type
+     * @return Number of resources of type {@code type}
+     */
+    private static int count(SnapshotStore store, SKOSType type) {
+        return store.getEnd(type) - store.getStart(type);
+    }
+}
@@ -0,0 +1,300 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the resources, relationships and annotations of a SKOS thesaurus
+ * and builds a {@link SnapshotSKOS} out of them.<br/>
+ * Resources, relationships and annotations may be added in any order.
+ * Relationships and annotations of URIs that are never added as resources are
+ * ignored, as are duplicate relationships. A resource added with several
+ * types keeps the first one.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class SnapshotBuilder {
+
+    /**
+     * Maps URIs to temporary identifiers
+     */
+    private final Map<String, Integer> ids = new HashMap<>();
+
+    /**
+     * URIs, indexed by temporary identifier
+     */
+    private final List<String> uris = new ArrayList<>();
+
+    /**
+     * SKOS type ordinal plus one of each URI, or {@code 0} if the URI has not
+     * been added as a resource, indexed by temporary identifier
+     */
+    private byte[] types = new byte[1024];
+
+    /**
+     * Relationships, by property
+     */
+    private final Map<SKOSObjectProperty, Edges> relations = new LinkedHashMap<>();
+
+    /**
+     * Annotations, by property and language
+     */
+    private final Map<SKOSAnnotationProperty, Map<String, Values>> annotations = new LinkedHashMap<>();
+
+    /**
+     * Shares identical annotation values
+     */
+    private final Map<String, String> strings = new HashMap<>();
+
+    /**
+     * Adds a resource
+     * @param uri Resource URI
+     * @param type SKOS type of the resource
+     * @return This builder
+     * @throws IllegalArgumentException If any of the arguments is {@code null}
+     */
+    public SnapshotBuilder addResource(String uri, SKOSType type) {
+        if (uri == null) throw new IllegalArgumentException("SnapshotBuilder.addResource: uri argument must not be null");
+        if (type == null) throw new IllegalArgumentException("SnapshotBuilder.addResource: type argument must not be null");
+        int id = this.id(uri);
+        if (this.types[id] == 0) this.types[id] = (byte) (type.ordinal() + 1);
+        return this;
+    }
+
+    /**
+     * Adds a relationship
+     * @param subjectURI URI of the subject resource
+     * @param property SKOS object property
+     * @param objectURI URI of the object resource
+     * @return This builder
+     * @throws IllegalArgumentException If any of the arguments is {@code null}
+     */
+    public SnapshotBuilder addRelation(String subjectURI, SKOSObjectProperty property, String objectURI) {
+        if (subjectURI == null) throw new IllegalArgumentException("SnapshotBuilder.addRelation: subjectURI argument must not be null");
+        if (property == null) throw new IllegalArgumentException("SnapshotBuilder.addRelation: property argument must not be null");
+        if (objectURI == null) throw new IllegalArgumentException("SnapshotBuilder.addRelation: objectURI argument must not be null");
+        Edges edges = this.relations.get(property);
+        if (edges == null) {
+            edges = new Edges();
+            this.relations.put(property, edges);
+        }
+        edges.add(this.id(subjectURI), this.id(objectURI));
+        return this;
+    }
+
+    /**
+     * Adds an annotation
+     * @param uri URI of the annotated resource
+     * @param property SKOS annotation property
+     * @param value Annotation value
+     * @param language Language of the annotation, or {@code null}
+     * @return This builder
+     * @throws IllegalArgumentException If {@code uri}, {@code property} or
+     * {@code value} is {@code null}
+     */
+    public SnapshotBuilder addAnnotation(String uri, SKOSAnnotationProperty property, String value, String language) {
+        if (uri == null) throw new IllegalArgumentException("SnapshotBuilder.addAnnotation: uri argument must not be null");
+        if (property == null) throw new IllegalArgumentException("SnapshotBuilder.addAnnotation: property argument must not be null");
+        if (value == null) throw new IllegalArgumentException("SnapshotBuilder.addAnnotation: value argument must not be null");
+        Map<String, Values> columns = this.annotations.get(property);
+        if (columns == null) {
+            columns = new LinkedHashMap<>();
+            this.annotations.put(property, columns);
+        }
+        Values values = columns.get(language);
+        if (values == null) {
+            values = new Values();
+            columns.put(language, values);
+        }
+        String shared = this.strings.get(value);
+        if (shared == null) {
+            shared = value;
+            this.strings.put(value, value);
+        }
+        values.add(this.id(uri), shared);
+        return this;
+    }
+
+    /**
+     * Builds a snapshot of the resources, relationships and annotations added
+     * so far
+     * @return SKOS snapshot
+     */
+    public SnapshotSKOS build() {
+        // Number the resources by type, in the order they were added
+        int count = this.uris.size();
+        int[] mapping = new int[count];
+        Arrays.fill(mapping, -1);
+        SKOSType[] skosTypes = SKOSType.values();
+        int[] typeOffsets = new int[skosTypes.length + 1];
+        List<String> resourceURIs = new ArrayList<>();
+        for (SKOSType type: skosTypes) {
+            typeOffsets[type.ordinal()] = resourceURIs.size();
+            for (int t = 0; t < count; t++) {
+                if (this.types[t] == type.ordinal() + 1) {
+                    mapping[t] = resourceURIs.size();
+                    resourceURIs.add(this.uris.get(t));
+                }
+            }
+        }
+        int size = resourceURIs.size();
+        typeOffsets[skosTypes.length] = size;
+        String[] snapshotURIs = resourceURIs.toArray(new String[size]);
+        Map<String, Integer> snapshotIds = new HashMap<>(size * 4 / 3 + 1);
+        for (int id = 0; id < size; id++) snapshotIds.put(snapshotURIs[id], id);
+
+        Map<SKOSObjectProperty, Adjacency> relationAdjacency = new HashMap<>();
+        Map<SKOSObjectProperty, Adjacency> sourceAdjacency = new HashMap<>();
+        for (Map.Entry<SKOSObjectProperty, Edges> entry: this.relations.entrySet()) {
+            Edges edges = entry.getValue();
+            int[] subjects = new int[edges.count];
+            int[] objects = new int[edges.count];
+            int k = 0;
+            for (int e = 0; e < edges.count; e++) {
+                int subject = mapping[edges.subjects[e]];
+                int object = mapping[edges.objects[e]];
+                if (subject >= 0 && object >= 0) {
+                    subjects[k] = subject;
+                    objects[k++] = object;
+                }
+            }
+            if (k > 0) {
+                relationAdjacency.put(entry.getKey(), HeapAdjacency.build(size, subjects, objects, k));
+                sourceAdjacency.put(entry.getKey(), HeapAdjacency.build(size, objects, subjects, k));
+            }
+        }
+
+        Map<SKOSAnnotationProperty, Map<String, LabelColumn>> labels = new HashMap<>();
+        for (Map.Entry<SKOSAnnotationProperty, Map<String, Values>> entry: this.annotations.entrySet()) {
+            Map<String, LabelColumn> columns = new LinkedHashMap<>();
+            for (Map.Entry<String, Values> column: entry.getValue().entrySet()) {
+                Values values = column.getValue();
+                int[] resources = new int[values.count];
+                String[] strings = new String[values.count];
+                int k = 0;
+                for (int v = 0; v < values.count; v++) {
+                    int id = mapping[values.ids[v]];
+                    if (id >= 0) {
+                        resources[k] = id;
+                        strings[k++] = values.values[v];
+                    }
+                }
+                if (k > 0) columns.put(column.getKey(), HeapLabelColumn.build(size, resources, strings, k));
+            }
+            if (!columns.isEmpty()) labels.put(entry.getKey(), columns);
+        }
+
+        return new SnapshotSKOS(new HeapSnapshotStore(snapshotURIs, snapshotIds, typeOffsets, relationAdjacency, sourceAdjacency, labels));
+    }
+
+    /**
+     * Returns the temporary identifier of the provided URI, assigning a new
+     * one if needed
+     * @param uri URI
+     * @return Temporary identifier of {@code uri}
+     */
+    private int id(String uri) {
+        Integer id = this.ids.get(uri);
+        if (id == null) {
+            id = this.uris.size();
+            this.ids.put(uri, id);
+            this.uris.add(uri);
+            if (id == this.types.length) this.types = Arrays.copyOf(this.types, id * 2);
+        }
+        return id;
+    }
+
+    /**
+     * Growable list of relationships
+     */
+    private static final class Edges {
+
+        /**
+         * Subjects, by temporary identifier
+         */
+        int[] subjects = new int[64];
+
+        /**
+         * Objects, by temporary identifier
+         */
+        int[] objects = new int[64];
+
+        /**
+         * Number of relationships
+         */
+        int count = 0;
+
+        /**
+         * Adds a relationship
+         * @param subject Subject
+         * @param object Object
+         */
+        void add(int subject, int object) {
+            if (this.count == this.subjects.length) {
+                this.subjects = Arrays.copyOf(this.subjects, this.count * 2);
+                this.objects = Arrays.copyOf(this.objects, this.count * 2);
+            }
+            this.subjects[this.count] = subject;
+            this.objects[this.count++] = object;
+        }
+    }
+
+    /**
+     * Growable list of annotation values
+     */
+    private static final class Values {
+
+        /**
+         * Annotated resources, by temporary identifier
+         */
+        int[] ids = new int[64];
+
+        /**
+         * Values
+         */
+        String[] values = new String[64];
+
+        /**
+         * Number of values
+         */
+        int count = 0;
+
+        /**
+         * Adds a value
+         * @param id Annotated resource
+         * @param value Value
+         */
+        void add(int id, String value) {
+            if (this.count == this.ids.length) {
+                this.ids = Arrays.copyOf(this.ids, this.count * 2);
+                this.values = Arrays.copyOf(this.values, this.count * 2);
+            }
+            this.ids[this.count] = id;
+            this.values[this.count++] = value;
+        }
+    }
+}
@@ -0,0 +1,345 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.CRC32;
+import java.util.zip.CheckedOutputStream;
+
+/**
+ * Reads and writes SKOS concept store files.<br/>
+ * A concept store file is a read-only, binary image of a SKOS snapshot that
+ * is opened by memory-mapping it, so that opening it is almost instant, its
+ * content is paged in lazily, and the operating system page cache is shared
+ * by all the processes that open the same file.<br/>
+ * All integers are big-endian and all blocks start on a multiple of four
+ * bytes. The file starts with a header made of a magic number, the format
+ * version, the length of the body and the CRC-32 checksum of the body, which
+ * are all checked when the file is opened. The body holds:
+ * <ul>
+ * <li>the number of resources, and the first internal identifier of each SKOS
+ * type;</li>
+ * <li>the string table of the resource URIs, indexed by internal identifier,
+ * and the internal identifiers sorted by URI;</li>
+ * <li>one forward and one reverse adjacency block per SKOS object
+ * property, except for the transitive properties served by reachability
+ * indexes (since version 4);</li>
+ * <li>one reachability index per transitive property and direction, made of
+ * the number of strongly connected components and three adjacency blocks
+ * mapping resources to components, components to their members and
+ * components to the intervals of components they reach (since version
+ * 4);</li>
+ * <li>one adjacency block per transitive hierarchical property, holding the
+ * transitive reduction of the concept hierarchy (since version 2);</li>
+ * <li>one adjacency block mapping every (concept scheme, collection) scope
+ * to its broadest concepts (since version 3);</li>
+ * <li>one label block per SKOS annotation property and language.</li>
+ * </ul>
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class SnapshotFile {
+
+    /**
+     * Magic number identifying concept store files ("SKSN")
+     */
+    public static final int MAGIC = 0x534B534E;
+
+    /**
+     * Current version of the concept store format
+     */
+    public static final int VERSION = 4;
+
+    /**
+     * Length of the header in bytes
+     */
+    static final int HEADER_LENGTH = 24;
+
+    /**
+     * Padding bytes
+     */
+    private static final byte[] PADDING = new byte[4];
+
+    private SnapshotFile() {
+    }
+
+    /**
+     * Writes the provided SKOS thesaurus to a concept store file. The file is
+     * first written under a temporary name, then renamed, so that processes
+     * opening {@code file} never see a partially written file.
+     * @param skos SKOS thesaurus. If this is not a {@link SnapshotSKOS}, a
+     * snapshot is loaded first.
+     * @param file Concept store file
+     * @throws IOException If an IO error occurs while writing the file
+     * @throws IllegalArgumentException If any of the arguments is {@code null}
+     */
+    public static void write(SKOS skos, File file) throws IOException, IllegalArgumentException {
+        if (skos == null) throw new IllegalArgumentException("SnapshotFile.write: skos argument must not be null");
+        if (file == null) throw new IllegalArgumentException("SnapshotFile.write: file argument must not be null");
+
+        SnapshotSKOS snapshot = (skos instanceof SnapshotSKOS) ? (SnapshotSKOS) skos : SnapshotSKOS.load(skos);
+        SnapshotStore store = snapshot.getStore();
+
+        File temporaryFile = new File(file.getPath() + ".tmp");
+        try (FileOutputStream fileOutput = new FileOutputStream(temporaryFile)) {
+            fileOutput.write(new byte[HEADER_LENGTH]);
+            CRC32 checksum = new CRC32();
+            DataOutputStream output = new DataOutputStream(new CheckedOutputStream(new BufferedOutputStream(fileOutput, 1 << 16), checksum));
+            writeBody(store, output);
+            output.flush();
+            if (output.size() >= Integer.MAX_VALUE - HEADER_LENGTH) throw new IOException("Concept store is too large: more than " + (Integer.MAX_VALUE - HEADER_LENGTH) + " bytes");
+
+            ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+            header.putInt(MAGIC).putInt(VERSION).putLong(output.size()).putLong(checksum.getValue());
+            header.flip();
+            FileChannel channel = fileOutput.getChannel();
+            while (header.hasRemaining()) channel.write(header, header.position());
+            channel.force(true);
+        }
+        Files.move(temporaryFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Opens a concept store file. The header and the checksum of the file
+     * are validated before the file is used.
+     * @param file Concept store file
+     * @return Read-only {@link SnapshotSKOS} backed by the memory-mapped file
+     * @throws IOException If an IO error occurs while mapping the file, or if
+     * the file is not a valid concept store file of a supported version
+     * @throws IllegalArgumentException If {@code file} is {@code null}
+     */
+    public static SnapshotSKOS open(File file) throws IOException, IllegalArgumentException {
+        if (file == null) throw new IllegalArgumentException("SnapshotFile.open: file argument must not be null");
+
+        MappedByteBuffer buffer;
+        try (RandomAccessFile randomAccessFile = new RandomAccessFile(file, "r"); FileChannel channel = randomAccessFile.getChannel()) {
+            long length = channel.size();
+            if (length < HEADER_LENGTH) throw new IOException("\"" + file.getPath() + "\" is not a concept store file");
+            if (length > Integer.MAX_VALUE) throw new IOException("\"" + file.getPath() + "\" is too large to be a concept store file");
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, length);
+        }
+
+        if (buffer.getInt(0) != MAGIC) throw new IOException("\"" + file.getPath() + "\" is not a concept store file");
+        int version = buffer.getInt(4);
+        if (version != VERSION) throw new IOException("Unsupported concept store version " + version + " in \"" + file.getPath() + "\", expected version " + VERSION);
+        if (buffer.getLong(8) != buffer.capacity() - HEADER_LENGTH) throw new IOException("Concept store \"" + file.getPath() + "\" is truncated");
+        if (buffer.getLong(16) != checksum(buffer)) throw new IOException("Checksum mismatch in concept store \"" + file.getPath() + "\"");
+
+        try {
+            return new SnapshotSKOS(new MappedSnapshotStore(buffer));
+        }
+        catch (IndexOutOfBoundsException ex) {
+            throw new IOException("Concept store \"" + file.getPath() + "\" is corrupt", ex);
+        }
+    }
+
+    /**
+     * Computes the CRC-32 checksum of the body of a concept store file
+     * @param buffer Mapped file content
+     * @return Checksum of the bytes following the header
+     */
+    private static long checksum(ByteBuffer buffer) {
+        CRC32 checksum = new CRC32();
+        ByteBuffer view = buffer.duplicate();
+        view.position(HEADER_LENGTH);
+        byte[] chunk = new byte[1 << 16];
+        while (view.hasRemaining()) {
+            int length = Math.min(chunk.length, view.remaining());
+            view.get(chunk, 0, length);
+            checksum.update(chunk, 0, length);
+        }
+        return checksum.getValue();
+    }
+
+    /**
+     * Writes the body of a concept store file
+     * @param store Snapshot store
+     * @param output Output stream, positioned right after the header
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeBody(final SnapshotStore store, DataOutputStream output) throws IOException {
+        int size = store.size();
+        output.writeInt(size);
+        output.writeInt(SKOSType.values().length);
+        for (SKOSType type: SKOSType.values()) output.writeInt(store.getStart(type));
+        output.writeInt(size);
+
+        // String table
+        byte[][] uris = new byte[size][];
+        for (int id = 0; id < size; id++) uris[id] = store.getURI(id).getBytes(MappedLabelColumn.UTF8);
+        writeStrings(uris, output);
+
+        // Identifiers sorted by URI
+        Integer[] sortedIds = new Integer[size];
+        for (int id = 0; id < size; id++) sortedIds[id] = id;
+        Arrays.sort(sortedIds, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer id1, Integer id2) {
+                return store.getURI(id1).compareTo(store.getURI(id2));
+            }
+        });
+        for (Integer id: sortedIds) output.writeInt(id);
+
+        // Adjacency blocks
+        List<SKOSObjectProperty> properties = new ArrayList<>();
+        for (SKOSObjectProperty property: SKOSSemanticProperty.values()) {
+            if (!ReachabilityIndex.isIndexed(property)) properties.add(property);
+        }
+        for (SKOSObjectProperty property: SKOSElementProperty.values()) {
+            if (!ReachabilityIndex.isIndexed(property)) properties.add(property);
+        }
+        output.writeInt(properties.size());
+        for (SKOSObjectProperty property: properties) {
+            writeString(property.uri(), output);
+            writeAdjacency(store.getRelations(property), size, output);
+            writeAdjacency(store.getRelationshipSources(property), size, output);
+        }
+
+        // Reachability index blocks
+        output.writeInt(2 * ReachabilityIndex.PROPERTIES.length);
+        for (SKOSObjectProperty property: ReachabilityIndex.PROPERTIES) {
+            for (boolean reverse: new boolean[] {false, true}) {
+                ReachabilityIndex index = store.getReachability(property, reverse);
+                int componentCount = index.getComponentCount();
+                writeString(property.uri(), output);
+                output.writeInt(reverse ? 1 : 0);
+                output.writeInt(componentCount);
+                writeAdjacency(index.getComponents(), size, output);
+                writeAdjacency(index.getMembers(), componentCount, output);
+                writeAdjacency(index.getIntervals(), componentCount, output);
+            }
+        }
+
+        // Transitive reduction blocks
+        SKOSSemanticProperty[] hierarchicalProperties = {SKOSSemanticProperty.narrowerTransitive, SKOSSemanticProperty.broaderTransitive};
+        output.writeInt(hierarchicalProperties.length);
+        for (SKOSSemanticProperty property: hierarchicalProperties) {
+            writeString(property.uri(), output);
+            writeAdjacency(store.getDirectRelations(property), size, output);
+        }
+
+        // Root index block
+        writeAdjacency(store.getRootIndex(), RootIndex.size(store), output);
+
+        // Label blocks
+        output.writeInt(SKOSAnnotationProperty.values().length);
+        for (SKOSAnnotationProperty property: SKOSAnnotationProperty.values()) {
+            writeString(property.uri(), output);
+            List<String> languages = store.getLanguages(property);
+            output.writeInt(languages.size());
+            for (String language: languages) {
+                writeString(language, output);
+                writeLabels(store.getLabels(property, language), size, output);
+            }
+        }
+    }
+
+    /**
+     * Writes adjacency lists as offsets followed by targets
+     * @param adjacency Adjacency lists
+     * @param size Number of resources
+     * @param output Output stream
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeAdjacency(Adjacency adjacency, int size, DataOutputStream output) throws IOException {
+        int offset = 0;
+        output.writeInt(offset);
+        for (int id = 0; id < size; id++) {
+            offset += adjacency.size(id);
+            output.writeInt(offset);
+        }
+        for (int id = 0; id < size; id++) {
+            int count = adjacency.size(id);
+            for (int i = 0; i < count; i++) output.writeInt(adjacency.get(id, i));
+        }
+    }
+
+    /**
+     * Writes a label column as value offsets followed by a string table
+     * @param labels Label column, or {@code null} for an empty column
+     * @param size Number of resources
+     * @param output Output stream
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeLabels(LabelColumn labels, int size, DataOutputStream output) throws IOException {
+        List<byte[]> values = new ArrayList<>();
+        output.writeInt(0);
+        for (int id = 0; id < size; id++) {
+            int count = (labels != null) ? labels.size(id) : 0;
+            for (int i = 0; i < count; i++) values.add(labels.get(id, i).getBytes(MappedLabelColumn.UTF8));
+            output.writeInt(values.size());
+        }
+        output.writeInt(values.size());
+        writeStrings(values.toArray(new byte[values.size()][]), output);
+    }
+
+    /**
+     * Writes a string table as byte offsets followed by the bytes, padded to
+     * a multiple of four bytes
+     * @param strings Encoded strings
+     * @param output Output stream
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeStrings(byte[][] strings, DataOutputStream output) throws IOException {
+        int offset = 0;
+        output.writeInt(offset);
+        for (byte[] string: strings) {
+            offset += string.length;
+            output.writeInt(offset);
+        }
+        for (byte[] string: strings) output.write(string);
+        output.write(PADDING, 0, MappedLabelColumn.align(offset) - offset);
+    }
+
+    /**
+     * Writes a length-prefixed string, padded to a multiple of four bytes
+     * @param string String, which may be {@code null}
+     * @param output Output stream
+     * @throws IOException If an IO error occurs
+     */
+    private static void writeString(String string, DataOutputStream output) throws IOException {
+        if (string == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = string.getBytes(MappedLabelColumn.UTF8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+        output.write(PADDING, 0, MappedLabelColumn.align(bytes.length) - bytes.length);
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.NoSuchElementException;
+
+/**
+ * {@link CloseableIterator} over resources of a SKOS snapshot, identified by
+ * their internal identifiers. Resource objects are created as the iterator
+ * advances.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ * @param <T> Type of elements returned by this iterator
+ */
+final class SnapshotIterator<T extends SKOSResource> implements CloseableIterator<T> {
+
+    /**
+     * SKOS snapshot
+     */
+    private final SnapshotSKOS skos;
+
+    /**
+     * Internal identifiers of the resources, or {@code null} if iterating
+     * over a range of identifiers
+     */
+    private final int[] ids;
+
+    /**
+     * Current position
+     */
+    private int position;
+
+    /**
+     * End position (exclusive)
+     */
+    private int end;
+
+    /**
+     * Constructs a {@link SnapshotIterator} over the provided resources
+     * @param skos SKOS snapshot
+     * @param ids Internal identifiers of the resources, which must all be of
+     * type {@code T}
+     */
+    SnapshotIterator(SnapshotSKOS skos, int[] ids) {
+        this.skos = skos;
+        this.ids = ids;
+        this.position = 0;
+        this.end = ids.length;
+    }
+
+    /**
+     * Constructs a {@link SnapshotIterator} over a range of resources
+     * @param skos SKOS snapshot
+     * @param start First internal identifier
+     * @param end Internal identifier following the last resource. All the
+     * resources in the range must be of type {@code T}.
+     */
+    SnapshotIterator(SnapshotSKOS skos, int start, int end) {
+        this.skos = skos;
+        this.ids = null;
+        this.position = start;
+        this.end = end;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        return this.position < this.end;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if (this.position >= this.end) throw new NoSuchElementException("Iterator has no more elements!");
+        int id = (this.ids != null) ? this.ids[this.position] : this.position;
+        this.position++;
+        return (T) this.skos.getResource(id);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void remove() {
+        throw new UnsupportedOperationException("Remove() is not supported by " + SnapshotIterator.class.getName());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        this.end = this.position;
+    }
+}
@@ -0,0 +1,1380 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.base.SortKey;
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.hierarchy.ConceptHierarchyBuilder;
+import ie.cmrc.smtx.skos.model.hierarchy.DefaultSKOSConceptNode;
+import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import ie.cmrc.util.Term;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Immutable, in-memory SKOS thesaurus.<br/>
+ * A SKOS snapshot holds a copy of a SKOS thesaurus in primitive structures:
+ * URIs are mapped to internal integer identifiers, relationships are stored as
+ * sorted adjacency lists, annotations as one column of values per property and
+ * language, and concept scheme and collection memberships as bit sets. It
+ * answers all the read operations of {@link SKOS} without going back to the
+ * source thesaurus. Concepts are sorted using {@link SortKey}s, computed once
+ * per sort language and cached. All the update operations throw an
+ * {@link UnsupportedOperationException}.<br/>
+ * Snapshots are created using {@link #load(ie.cmrc.smtx.skos.model.SKOS)},
+ * or a {@link SnapshotBuilder}.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class SnapshotSKOS implements SKOS {
+
+    /**
+     * Underlying store
+     */
+    private final SnapshotStore store;
+
+    /**
+     * Sort keys of the concepts, indexed by concept rank, by sort language.
+     * These are computed on first use of each language.
+     */
+    private final ConcurrentMap<String, SortKey[]> sortKeys = new ConcurrentHashMap<>();
+
+    /**
+     * Whether the snapshot has been closed
+     */
+    private volatile boolean closed = false;
+
+    /**
+     * Constructs a {@link SnapshotSKOS} over the provided store
+     * @param store Snapshot store
+     */
+    SnapshotSKOS(SnapshotStore store) {
+        this.store = store;
+    }
+
+    /**
+     * Creates a snapshot of the provided SKOS thesaurus. The snapshot includes
+     * all the concept schemes, collections and concepts of {@code source},
+     * their relationships and annotations. The source thesaurus is not closed.
+     * @param source SKOS thesaurus
+     * @return SKOS snapshot of {@code source}
+     * @throws IllegalArgumentException If {@code source} is {@code null}
+     */
+    public static SnapshotSKOS load(SKOS source) throws IllegalArgumentException {
+        if (source == null) throw new IllegalArgumentException("SnapshotSKOS.load: source argument must not be null");
+
+        SnapshotBuilder builder = new SnapshotBuilder();
+        List<SKOSResource> resources = new ArrayList<>();
+
+        CloseableIterator<SKOSConceptScheme> conceptSchemes = source.listConceptSchemes();
+        while (conceptSchemes.hasNext()) {
+            SKOSConceptScheme conceptScheme = conceptSchemes.next();
+            if (conceptScheme != null) resources.add(conceptScheme);
+        }
+        conceptSchemes.close();
+
+        CloseableIterator<SKOSCollection> collections = source.listCollections();
+        while (collections.hasNext()) {
+            SKOSCollection collection = collections.next();
+            if (collection != null) resources.add(collection);
+        }
+        collections.close();
+
+        CloseableIterator<SKOSConcept> concepts = source.listConcepts();
+        while (concepts.hasNext()) {
+            SKOSConcept concept = concepts.next();
+            if (concept != null) resources.add(concept);
+        }
+        concepts.close();
+
+        for (SKOSResource resource: resources) builder.addResource(resource.getURI(), resource.getSkosType());
+
+        List<SKOSObjectProperty> properties = new ArrayList<>();
+        properties.addAll(Arrays.asList(SKOSSemanticProperty.values()));
+        properties.addAll(Arrays.asList(SKOSElementProperty.values()));
+
+        for (SKOSResource resource: resources) {
+            String uri = resource.getURI();
+            for (SKOSObjectProperty property: properties) {
+                CloseableIterator<SKOSResource> objects = resource.listRelations(property);
+                while (objects.hasNext()) {
+                    SKOSResource object = objects.next();
+                    if (object != null && object.getURI() != null) builder.addRelation(uri, property, object.getURI());
+                }
+                objects.close();
+            }
+            for (SKOSAnnotationProperty property: SKOSAnnotationProperty.values()) {
+                for (Term term: resource.getAnnotations(property)) {
+                    if (term != null && term.getString() != null) builder.addAnnotation(uri, property, term.getString(), term.getLanguage());
+                }
+            }
+        }
+
+        return builder.build();
+    }
+
+
+    // -------- -------- -------- --------
+    // Internal identifiers
+
+    /**
+     * Returns the underlying store
+     * @return Snapshot store
+     */
+    SnapshotStore getStore() {
+        return this.store;
+    }
+
+    /**
+     * Returns the internal identifier of the provided URI
+     * @param uri Resource URI
+     * @param type Expected SKOS type, or {@code null} to accept any type
+     * @return Internal identifier of the resource, or {@code -1} if the
+     * snapshot has no such resource of type {@code type}
+     */
+    int getId(String uri, SKOSType type) {
+        if (uri == null) return -1;
+        int id = this.store.getId(uri);
+        if (id < 0) return -1;
+        if (type != null && (id < this.store.getStart(type) || id >= this.store.getEnd(type))) return -1;
+        return id;
+    }
+
+    /**
+     * Returns the internal identifier of the provided SKOS resource
+     * @param resource SKOS resource
+     * @param type Expected SKOS type, or {@code null} to accept any type
+     * @return Internal identifier of the resource, or {@code -1} if the
+     * snapshot has no such resource of type {@code type}
+     */
+    int getId(SKOSResource resource, SKOSType type) {
+        if (resource == null) return -1;
+        if (resource instanceof SnapshotSKOSResource && ((SnapshotSKOSResource) resource).skos == this) {
+            int id = ((SnapshotSKOSResource) resource).getId();
+            if (type != null && (id < this.store.getStart(type) || id >= this.store.getEnd(type))) return -1;
+            return id;
+        }
+        return this.getId(resource.getURI(), type);
+    }
+
+    /**
+     * Keeps the identifiers of the resources of the provided types
+     * @param ids Internal identifiers
+     * @param types SKOS types to keep
+     * @return Identifiers of {@code ids} whose type is one of {@code types},
+     * in the same order
+     */
+    int[] select(int[] ids, SKOSType... types) {
+        int[] selected = new int[ids.length];
+        int count = 0;
+        for (int id: ids) {
+            for (SKOSType type: types) {
+                if (id >= this.store.getStart(type) && id < this.store.getEnd(type)) {
+                    selected[count++] = id;
+                    break;
+                }
+            }
+        }
+        return (count == ids.length) ? selected : Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Returns the resource identified by the provided internal identifier
+     * @param id Internal identifier of a resource
+     * @return SKOS resource
+     */
+    SnapshotSKOSResource getResource(int id) {
+        switch (this.store.getType(id)) {
+            case ConceptScheme:
+                return new SnapshotSKOSConceptScheme(this, id);
+            case Collection:
+                return new SnapshotSKOSCollection(this, id);
+            default:
+                return new SnapshotSKOSConcept(this, id);
+        }
+    }
+
+    /**
+     * Drains the provided iterator into a list, then closes it
+     * @param <T> Type of elements
+     * @param iterator Iterator
+     * @return List of the elements of {@code iterator}
+     */
+    static <T> List<T> toList(CloseableIterator<T> iterator) {
+        List<T> list = new ArrayList<>();
+        while (iterator.hasNext()) list.add(iterator.next());
+        iterator.close();
+        return list;
+    }
+
+    /**
+     * Returns the filter matching the provided resource
+     * @param resource Concept scheme or collection, or {@code null}
+     * @param type SKOS type of {@code resource}
+     * @return {@code null} if {@code resource} is {@code null}, meaning no
+     * filter, an array holding the identifier of {@code resource} if it is
+     * part of this snapshot, or an empty array, which matches nothing,
+     * otherwise
+     */
+    private int[] filter(SKOSResource resource, SKOSType type) {
+        if (resource == null) return null;
+        int id = this.getId(resource, type);
+        return (id >= 0) ? new int[] {id} : new int[0];
+    }
+
+    /**
+     * Returns the filter matching the provided resources
+     * @param resources Concept schemes or collections, or {@code null}
+     * @param type SKOS type of {@code resources}
+     * @return {@code null} if {@code resources} is {@code null} or empty,
+     * meaning no filter, or the identifiers of those resources that are part
+     * of this snapshot otherwise
+     */
+    private int[] filter(Collection<? extends SKOSResource> resources, SKOSType type) {
+        if (resources == null || resources.isEmpty()) return null;
+        int[] ids = new int[resources.size()];
+        int count = 0;
+        for (SKOSResource resource: resources) {
+            int id = this.getId(resource, type);
+            if (id >= 0) ids[count++] = id;
+        }
+        return Arrays.copyOf(ids, count);
+    }
+
+    /**
+     * Keeps the concepts passing the provided filters
+     * @param ids Internal identifiers
+     * @param conceptSchemes Concept scheme filter, or {@code null}
+     * @param collections Collection filter, or {@code null}
+     * @return Identifiers of the concepts of {@code ids} that pass the
+     * filters, in the same order
+     */
+    private int[] selectConcepts(int[] ids, int[] conceptSchemes, int[] collections) {
+        RoaringBitmap scope = this.store.getMembership().scope(conceptSchemes, collections);
+        int[] selected = new int[ids.length];
+        int count = 0;
+        int start = this.store.getStart(SKOSType.Concept);
+        int end = this.store.getEnd(SKOSType.Concept);
+        for (int id: ids) {
+            if (id >= start && id < end && (scope == null || scope.contains(id))) selected[count++] = id;
+        }
+        return Arrays.copyOf(selected, count);
+    }
+
+    /**
+     * Lists the resources of the provided type passing the provided filters
+     * @param type SKOS type
+     * @param conceptSchemes Concept scheme filter, or {@code null}
+     * @param collections Collection filter, or {@code null}
+     * @return Internal identifiers of the matching resources
+     */
+    private int[] listIds(SKOSType type, int[] conceptSchemes, int[] collections) {
+        if ((conceptSchemes != null && conceptSchemes.length == 0) || (collections != null && collections.length == 0)) return new int[0];
+        RoaringBitmap scope = this.store.getMembership().scope(conceptSchemes, collections);
+        if (scope != null) return this.select(scope.toArray(), type);
+        int start = this.store.getStart(type);
+        int[] ids = new int[this.store.getEnd(type) - start];
+        for (int i = 0; i < ids.length; i++) ids[i] = start + i;
+        return ids;
+    }
+
+    /**
+     * Returns the direct narrower or broader concepts of a concept, that is
+     * the targets of its transitive relationships that cannot be reached
+     * through another target. Without filters, these are read from the
+     * transitive reduction precomputed by the store. Otherwise, they are
+     * computed among the targets that pass the filters.
+     * @param concept Internal identifier of the concept
+     * @param property {@link SKOSSemanticProperty#narrowerTransitive} or
+     * {@link SKOSSemanticProperty#broaderTransitive}
+     * @param conceptSchemes Concept scheme filter, or {@code null}
+     * @param collections Collection filter, or {@code null}
+     * @return Internal identifiers of the direct narrower or broader concepts,
+     * in increasing order
+     */
+    private int[] getDirectConcepts(int concept, SKOSSemanticProperty property, int[] conceptSchemes, int[] collections) {
+        if (conceptSchemes == null && collections == null) return this.store.getDirectRelations(property).toArray(concept);
+
+        Adjacency relations = this.store.getRelations(property);
+        boolean excludeCycles = (property == SKOSSemanticProperty.narrowerTransitive);
+
+        int[] targets = this.selectConcepts(relations.toArray(concept), conceptSchemes, collections);
+        int[] candidates = new int[targets.length];
+        int count = 0;
+        for (int target: targets) {
+            if (target != concept && !(excludeCycles && relations.contains(target, concept))) candidates[count++] = target;
+        }
+        candidates = Arrays.copyOf(candidates, count);
+
+        Adjacency sources = this.store.getRelationshipSources(property);
+        int[] direct = new int[count];
+        int directCount = 0;
+        for (int candidate: candidates) {
+            if (!TransitiveReduction.isReachedThroughOther(sources, candidate, candidates)) direct[directCount++] = candidate;
+        }
+        return Arrays.copyOf(direct, directCount);
+    }
+
+    /**
+     * Converts internal identifiers to a list of concepts
+     * @param ids Internal identifiers of concepts
+     * @return List of concepts
+     */
+    private List<SKOSConcept> toConcepts(int[] ids) {
+        List<SKOSConcept> concepts = new ArrayList<>(ids.length);
+        for (int id: ids) concepts.add(new SnapshotSKOSConcept(this, id));
+        return concepts;
+    }
+
+
+    // -------- -------- -------- --------
+    // SKOS resources
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSResource> listSKOSResources() {
+        return new SnapshotIterator<>(this, 0, this.store.size());
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Resources are numbered contiguously by type, therefore each partition
+     * is a range of consecutive resources, and partitions are balanced.
+     * @param type {@inheritDoc}
+     * @param partition {@inheritDoc}
+     * @param partitions {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSResource> listSKOSResources(SKOSType type, int partition, int partitions) {
+        if (partitions < 1) throw new IllegalArgumentException("SnapshotSKOS.listSKOSResources: partitions argument must be positive");
+        if (partition < 0 || partition >= partitions) throw new IllegalArgumentException("SnapshotSKOS.listSKOSResources: partition argument must be between 0 and "+(partitions-1));
+        int start = (type != null) ? this.store.getStart(type) : 0;
+        int end = (type != null) ? this.store.getEnd(type) : this.store.size();
+        long length = end - start;
+        return new SnapshotIterator<>(this, start + (int) (length * partition / partitions), start + (int) (length * (partition + 1) / partitions));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSResource> getSKOSResources() {
+        return toList(this.listSKOSResources());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSResource getSKOSResource(String resourceURI) {
+        int id = this.getId(resourceURI, null);
+        return (id >= 0) ? this.getResource(id) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosResource {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSResource getSKOSResource(SKOSResource skosResource) {
+        if (skosResource instanceof SnapshotSKOSResource && ((SnapshotSKOSResource) skosResource).skos == this) return skosResource;
+        int id = this.getId(skosResource, null);
+        return (id >= 0) ? this.getResource(id) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSType getSKOSResourceType(String resourceURI) {
+        int id = this.getId(resourceURI, null);
+        return (id >= 0) ? this.store.getType(id) : null;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param resourceURI Resource URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOS removeResource(String resourceURI) {
+        throw new UnsupportedOperationException(SnapshotSKOSResource.READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param resource SKOS resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOS removeResource(SKOSResource resource) {
+        throw new UnsupportedOperationException(SnapshotSKOSResource.READ_ONLY);
+    }
+
+
+    // -------- -------- -------- --------
+    // Concept schemes
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConceptScheme> listConceptSchemes() {
+        return new SnapshotIterator<>(this, this.store.getStart(SKOSType.ConceptScheme), this.store.getEnd(SKOSType.ConceptScheme));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptScheme> getConceptSchemes() {
+        return toList(this.listConceptSchemes());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptScheme getConceptScheme(String conceptSchemeURI) {
+        int id = this.getId(conceptSchemeURI, SKOSType.ConceptScheme);
+        return (id >= 0) ? new SnapshotSKOSConceptScheme(this, id) : null;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptSchemeURI Concept scheme URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme createConceptScheme(String conceptSchemeURI) {
+        throw new UnsupportedOperationException(SnapshotSKOSResource.READ_ONLY);
+    }
+
+
+    // -------- -------- -------- --------
+    // Collections
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections() {
+        return new SnapshotIterator<>(this, this.store.getStart(SKOSType.Collection), this.store.getEnd(SKOSType.Collection));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections(SKOSConceptScheme conceptScheme) {
+        return this.listCollections(conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections(SKOSCollection skosCollection) {
+        return this.listCollections(null, skosCollection);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        int[] ids = this.listIds(SKOSType.Collection, this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection));
+        return new SnapshotIterator<>(this, ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollections() {
+        return toList(this.listCollections());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSCollection getCollection(String skosCollectionURI) {
+        int id = this.getId(skosCollectionURI, SKOSType.Collection);
+        return (id >= 0) ? new SnapshotSKOSCollection(this, id) : null;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param collectionURI Collection URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection createCollection(String collectionURI) {
+        throw new UnsupportedOperationException(SnapshotSKOSResource.READ_ONLY);
+    }
+
+
+    // -------- -------- -------- --------
+    // Concepts
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts() {
+        return new SnapshotIterator<>(this, this.store.getStart(SKOSType.Concept), this.store.getEnd(SKOSType.Concept));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts(SKOSConceptScheme conceptScheme) {
+        return this.listConcepts(conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts(SKOSCollection skosCollection) {
+        return this.listConcepts(null, skosCollection);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        int[] ids = this.listIds(SKOSType.Concept, this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection));
+        return new SnapshotIterator<>(this, ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts(SKOSCollection skosCollection, SKOSConceptScheme conceptScheme) {
+        return this.listConcepts(conceptScheme, skosCollection);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConcepts() {
+        return toList(this.listConcepts());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConcept getConcept(String conceptURI) {
+        int id = this.getId(conceptURI, SKOSType.Concept);
+        return (id >= 0) ? new SnapshotSKOSConcept(this, id) : null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConcepts(Collection<String> conceptURIs) {
+        List<SKOSConcept> concepts = new ArrayList<>();
+        if (conceptURIs != null) {
+            Set<Integer> seen = new HashSet<>();
+            for (String conceptURI: conceptURIs) {
+                if (conceptURI != null && !conceptURI.isEmpty()) {
+                    int id = this.getId(conceptURI, SKOSType.Concept);
+                    if (id >= 0 && seen.add(id)) concepts.add(new SnapshotSKOSConcept(this, id));
+                }
+            }
+        }
+        return concepts;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptURI Concept URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConcept createConcept(String conceptURI) {
+        throw new UnsupportedOperationException(SnapshotSKOSResource.READ_ONLY);
+    }
+
+
+    // -------- -------- -------- --------
+    // Semantic relations
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSConcept concept, SKOSSemanticProperty relationshipType) {
+        return this.listSemanticRelations(concept, relationshipType, (Collection<SKOSConceptScheme>) null, (Collection<SKOSCollection>) null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSConcept concept, SKOSSemanticProperty relationshipType, SKOSConceptScheme conceptScheme) {
+        return this.listSemanticRelations(concept, relationshipType, conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSConcept concept, SKOSSemanticProperty relationshipType, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        int id = this.getId(concept, SKOSType.Concept);
+        if (id < 0 || relationshipType == null) return new SnapshotIterator<>(this, new int[0]);
+        int[] ids = this.selectConcepts(this.store.getRelations(relationshipType).toArray(id), this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection));
+        return new SnapshotIterator<>(this, ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param conceptSchemes {@inheritDoc}
+     * @param skosCollections {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSConcept concept, SKOSSemanticProperty relationshipType, Collection<SKOSConceptScheme> conceptSchemes, Collection<SKOSCollection> skosCollections) {
+        int id = this.getId(concept, SKOSType.Concept);
+        if (id < 0 || relationshipType == null) return new SnapshotIterator<>(this, new int[0]);
+        int[] ids = this.selectConcepts(this.store.getRelations(relationshipType).toArray(id), this.filter(conceptSchemes, SKOSType.ConceptScheme), this.filter(skosCollections, SKOSType.Collection));
+        return new SnapshotIterator<>(this, ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param targetResource {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSResource targetResource) {
+        int id = this.getId(targetResource, null);
+        if (id < 0 || relationshipType == null) return new SnapshotIterator<>(this, new int[0]);
+        int[] ids = this.selectConcepts(this.store.getRelationshipSources(relationshipType).toArray(id), null, null);
+        return new SnapshotIterator<>(this, ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param targetConcept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSConcept targetConcept, SKOSConceptScheme conceptScheme) {
+        return this.listSemanticRelationshipSources(relationshipType, targetConcept, conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param targetConcept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSConcept targetConcept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        int id = this.getId(targetConcept, SKOSType.Concept);
+        if (id < 0 || relationshipType == null) return new SnapshotIterator<>(this, new int[0]);
+        int[] ids = this.selectConcepts(this.store.getRelationshipSources(relationshipType).toArray(id), this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection));
+        return new SnapshotIterator<>(this, ids);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param targetConcept {@inheritDoc}
+     * @param conceptSchemes {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSConcept targetConcept, Collection<SKOSConceptScheme> conceptSchemes) {
+        return this.listSemanticRelationshipSources(relationshipType, targetConcept, conceptSchemes, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param targetConcept {@inheritDoc}
+     * @param conceptSchemes {@inheritDoc}
+     * @param skosCollections {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType, SKOSConcept targetConcept, Collection<SKOSConceptScheme> conceptSchemes, Collection<SKOSCollection> skosCollections) {
+        int id = this.getId(targetConcept, SKOSType.Concept);
+        if (id < 0 || relationshipType == null) return new SnapshotIterator<>(this, new int[0]);
+        int[] ids = this.selectConcepts(this.store.getRelationshipSources(relationshipType).toArray(id), this.filter(conceptSchemes, SKOSType.ConceptScheme), this.filter(skosCollections, SKOSType.Collection));
+        return new SnapshotIterator<>(this, ids);
+    }
+
+
+    // -------- -------- -------- --------
+    // Top, broadest and direct concepts
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listTopConcepts() {
+        return this.listTopConcepts(null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listTopConcepts(SKOSConceptScheme conceptScheme) {
+        return this.listTopConcepts(conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listTopConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        return new SnapshotIterator<>(this, this.getTopConceptIds(this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection)));
+    }
+
+    /**
+     * Returns the top concepts of a concept scheme
+     * @param conceptSchemes Concept scheme filter holding at most one concept
+     * scheme, or {@code null} for the top concepts of all the concept schemes
+     * @param collections Collection filter, or {@code null}
+     * @return Internal identifiers of the top concepts
+     */
+    private int[] getTopConceptIds(int[] conceptSchemes, int[] collections) {
+        int[] ids;
+        if (conceptSchemes == null) {
+            Adjacency topConceptOf = this.store.getRelations(SKOSElementProperty.topConceptOf);
+            int start = this.store.getStart(SKOSType.Concept);
+            int end = this.store.getEnd(SKOSType.Concept);
+            ids = new int[end - start];
+            int count = 0;
+            for (int id = start; id < end; id++) {
+                if (topConceptOf.size(id) > 0) ids[count++] = id;
+            }
+            ids = Arrays.copyOf(ids, count);
+        }
+        else if (conceptSchemes.length == 0) return new int[0];
+        else ids = this.store.getRelationshipSources(SKOSElementProperty.topConceptOf).toArray(conceptSchemes[0]);
+        return this.selectConcepts(ids, null, collections);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getBroadestConcepts() {
+        return this.getBroadestConcepts(null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getBroadestConcepts(SKOSConceptScheme conceptScheme) {
+        return this.getBroadestConcepts(conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getBroadestConcepts(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        return this.toConcepts(this.getBroadestConceptIds(this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection)));
+    }
+
+    /**
+     * Returns the concepts that have no broader concepts passing the provided
+     * filters. Unless a filter holds several concept schemes or collections,
+     * these are read from the root index of the store.
+     * @param conceptSchemes Concept scheme filter, or {@code null}
+     * @param collections Collection filter, or {@code null}
+     * @return Internal identifiers of the broadest concepts
+     */
+    private int[] getBroadestConceptIds(int[] conceptSchemes, int[] collections) {
+        if ((conceptSchemes != null && conceptSchemes.length == 0) || (collections != null && collections.length == 0)) return new int[0];
+        if ((conceptSchemes == null || conceptSchemes.length == 1) && (collections == null || collections.length == 1)) {
+            return this.store.getRoots((conceptSchemes != null) ? conceptSchemes[0] : -1, (collections != null) ? collections[0] : -1);
+        }
+
+        Adjacency broader = this.store.getRelations(SKOSSemanticProperty.broaderTransitive);
+        RoaringBitmap scope = this.store.getMembership().scope(conceptSchemes, collections);
+        int[] ids = this.select(scope.toArray(), SKOSType.Concept);
+        int[] broadest = new int[ids.length];
+        int count = 0;
+        for (int id: ids) {
+            boolean hasBroader = false;
+            int broaderCount = broader.size(id);
+            for (int i = 0; i < broaderCount; i++) {
+                int broaderId = broader.get(id, i);
+                if (broaderId != id && scope.contains(broaderId)) {
+                    hasBroader = true;
+                    break;
+                }
+            }
+            if (!hasBroader) broadest[count++] = id;
+        }
+        return Arrays.copyOf(broadest, count);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectNarrowerConcepts(SKOSConcept concept) {
+        return this.getDirectNarrowerConcepts(concept, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectNarrowerConcepts(SKOSConcept concept, SKOSConceptScheme conceptScheme) {
+        return this.getDirectNarrowerConcepts(concept, conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectNarrowerConcepts(SKOSConcept concept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        int id = this.getId(concept, SKOSType.Concept);
+        if (id < 0) return new ArrayList<>(0);
+        return this.toConcepts(this.getDirectConcepts(id, SKOSSemanticProperty.narrowerTransitive, this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection)));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectBroaderConcepts(SKOSConcept concept) {
+        return this.getDirectBroaderConcepts(concept, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectBroaderConcepts(SKOSConcept concept, SKOSConceptScheme conceptScheme) {
+        return this.getDirectBroaderConcepts(concept, conceptScheme, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectBroaderConcepts(SKOSConcept concept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        int id = this.getId(concept, SKOSType.Concept);
+        if (id < 0) return new ArrayList<>(0);
+        return this.toConcepts(this.getDirectConcepts(id, SKOSSemanticProperty.broaderTransitive, this.filter(conceptScheme, SKOSType.ConceptScheme), this.filter(skosCollection, SKOSType.Collection)));
+    }
+
+
+    // -------- -------- -------- --------
+    // Hierarchies
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy() {
+        return this.getConceptHierarchy(null, null, HierarchyMethod.DEFAULT_METHOD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(HierarchyMethod hierarchyMethod) {
+        return this.getConceptHierarchy(null, null, hierarchyMethod);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(SKOSConceptScheme conceptScheme) {
+        return this.getConceptHierarchy(conceptScheme, null, HierarchyMethod.DEFAULT_METHOD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(SKOSConceptScheme conceptScheme, HierarchyMethod hierarchyMethod) {
+        return this.getConceptHierarchy(conceptScheme, null, hierarchyMethod);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(SKOSCollection skosCollection) {
+        return this.getConceptHierarchy(null, skosCollection, HierarchyMethod.DEFAULT_METHOD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(SKOSCollection skosCollection, HierarchyMethod hierarchyMethod) {
+        return this.getConceptHierarchy(null, skosCollection, hierarchyMethod);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        return this.getConceptHierarchy(conceptScheme, skosCollection, HierarchyMethod.DEFAULT_METHOD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(SKOSConceptScheme conceptScheme, SKOSCollection skosCollection, HierarchyMethod hierarchyMethod) {
+        HierarchyMethod hm = hierarchyMethod;
+        if (hm == null) hm = HierarchyMethod.DEFAULT_METHOD;
+
+        List<SKOSConceptNode> conceptHierarchy = new ArrayList<>();
+
+        int[] conceptSchemes = this.filter(conceptScheme, SKOSType.ConceptScheme);
+        int[] collections = this.filter(skosCollection, SKOSType.Collection);
+        if ((conceptSchemes != null && conceptSchemes.length == 0) || (collections != null && collections.length == 0)) return conceptHierarchy;
+
+        int[] roots;
+        HierarchyMethod.RootType rootType = hm.getRootType();
+        if (rootType == null) rootType = HierarchyMethod.DEFAULT_ROOT_TYPE;
+        switch (rootType) {
+            case BOTH:
+                roots = union(this.getTopConceptIds(conceptSchemes, collections), this.getBroadestConceptIds(conceptSchemes, collections));
+                break;
+            case BROADEST_CONCEPTS:
+                roots = this.getBroadestConceptIds(conceptSchemes, collections);
+                break;
+            default:
+                roots = this.getTopConceptIds(conceptSchemes, collections);
+                break;
+        }
+
+        return this.hierarchyBuilder(conceptSchemes, collections, hm).build(this.sortConcepts(roots, hm.getSortLanguage()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param rootConcept {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(SKOSConcept rootConcept) {
+        return this.getConceptTree(rootConcept, null, null, HierarchyMethod.DEFAULT_METHOD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param rootConcept {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(SKOSConcept rootConcept, HierarchyMethod hierarchyMethod) {
+        return this.getConceptTree(rootConcept, null, null, hierarchyMethod);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param rootConcept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(SKOSConcept rootConcept, SKOSConceptScheme conceptScheme) {
+        return this.getConceptTree(rootConcept, conceptScheme, null, HierarchyMethod.DEFAULT_METHOD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param rootConcept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(SKOSConcept rootConcept, SKOSConceptScheme conceptScheme, HierarchyMethod hierarchyMethod) {
+        return this.getConceptTree(rootConcept, conceptScheme, null, hierarchyMethod);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param rootConcept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(SKOSConcept rootConcept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection) {
+        return this.getConceptTree(rootConcept, conceptScheme, skosCollection, HierarchyMethod.DEFAULT_METHOD);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param rootConcept {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @param skosCollection {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(SKOSConcept rootConcept, SKOSConceptScheme conceptScheme, SKOSCollection skosCollection, HierarchyMethod hierarchyMethod) {
+        HierarchyMethod hm = hierarchyMethod;
+        if (hm == null) hm = HierarchyMethod.DEFAULT_METHOD;
+
+        int root = this.getId(rootConcept, SKOSType.Concept);
+        if (root < 0) return null;
+        SnapshotSKOSConcept concept = new SnapshotSKOSConcept(this, root);
+
+        int[] conceptSchemes = this.filter(conceptScheme, SKOSType.ConceptScheme);
+        int[] collections = this.filter(skosCollection, SKOSType.Collection);
+        if ((conceptSchemes != null && conceptSchemes.length == 0) || (collections != null && collections.length == 0)) return new DefaultSKOSConceptNode(concept);
+
+        return this.hierarchyBuilder(conceptSchemes, collections, hm).build(concept);
+    }
+
+    /**
+     * Returns a builder of hierarchies of narrower concepts
+     * @param conceptSchemes Concept scheme filter, or {@code null}
+     * @param collections Collection filter, or {@code null}
+     * @param hm Hierarchy method
+     * @return Hierarchy builder whose child concepts are the narrower
+     * concepts passing the filters, sorted by label
+     */
+    private ConceptHierarchyBuilder hierarchyBuilder(final int[] conceptSchemes, final int[] collections, final HierarchyMethod hm) {
+        return new ConceptHierarchyBuilder(new ConceptHierarchyBuilder.ChildSource() {
+            @Override
+            public List<SnapshotSKOSConcept> getChildren(SKOSConcept concept) {
+                return getChildConcepts(((SnapshotSKOSConcept) concept).getId(), conceptSchemes, collections, hm);
+            }
+        });
+    }
+
+    /**
+     * Returns the child concepts of a concept in a hierarchy
+     * @param id Internal identifier of the concept
+     * @param conceptSchemes Concept scheme filter, or {@code null}
+     * @param collections Collection filter, or {@code null}
+     * @param hm Hierarchy method
+     * @return Child concepts, sorted by label in the sort language of
+     * {@code hm}
+     */
+    private List<SnapshotSKOSConcept> getChildConcepts(int id, int[] conceptSchemes, int[] collections, HierarchyMethod hm) {
+        int[] children;
+        HierarchyMethod.RelationshipType relType = hm.getRelationshipType();
+        if (relType == null) relType = HierarchyMethod.DEFAULT_RELATIONSHIP_TYPE;
+        switch (relType) {
+            case BOTH_NARROWER:
+                children = union(this.selectConcepts(this.store.getRelations(SKOSSemanticProperty.narrower).toArray(id), conceptSchemes, collections),
+                                 this.getDirectConcepts(id, SKOSSemanticProperty.narrowerTransitive, conceptSchemes, collections));
+                break;
+            case DIRECT_NARROWER:
+                children = this.getDirectConcepts(id, SKOSSemanticProperty.narrowerTransitive, conceptSchemes, collections);
+                break;
+            default:
+                children = this.selectConcepts(this.store.getRelations(SKOSSemanticProperty.narrower).toArray(id), conceptSchemes, collections);
+                break;
+        }
+
+        int count = 0;
+        for (int child: children) {
+            if (child != id) children[count++] = child;
+        }
+        return this.sortConcepts(Arrays.copyOf(children, count), hm.getSortLanguage());
+    }
+
+    /**
+     * Sorts concepts by their cached sort keys
+     * @param ids Internal identifiers of distinct concepts
+     * @param language Sort language, or {@code null}
+     * @return Concepts, sorted by preferred label in {@code language}, then
+     * local name, then URI
+     */
+    private List<SnapshotSKOSConcept> sortConcepts(int[] ids, String language) {
+        final SortKey[] keys = this.getSortKeys(language);
+        final int start = this.store.getStart(SKOSType.Concept);
+        Integer[] sortedIds = new Integer[ids.length];
+        for (int i = 0; i < ids.length; i++) sortedIds[i] = ids[i];
+        Arrays.sort(sortedIds, new Comparator<Integer>() {
+            @Override
+            public int compare(Integer id1, Integer id2) {
+                return keys[id1 - start].compareTo(keys[id2 - start]);
+            }
+        });
+        List<SnapshotSKOSConcept> concepts = new ArrayList<>(ids.length);
+        for (Integer id: sortedIds) concepts.add(new SnapshotSKOSConcept(this, id));
+        return concepts;
+    }
+
+    /**
+     * Returns the sort keys of all the concepts in a language, computing them
+     * on first use
+     * @param language Sort language, or {@code null}
+     * @return Sort keys of the concepts, indexed by concept rank
+     */
+    private SortKey[] getSortKeys(String language) {
+        String cacheKey = (language != null) ? language : "";
+        SortKey[] keys = this.sortKeys.get(cacheKey);
+        if (keys == null) {
+            int start = this.store.getStart(SKOSType.Concept);
+            keys = new SortKey[this.store.getEnd(SKOSType.Concept) - start];
+            for (int i = 0; i < keys.length; i++) keys[i] = SortKey.of(new SnapshotSKOSConcept(this, start + i), language);
+            SortKey[] existing = this.sortKeys.putIfAbsent(cacheKey, keys);
+            if (existing != null) keys = existing;
+        }
+        return keys;
+    }
+
+    /**
+     * Merges two sorted arrays of internal identifiers
+     * @param first Sorted internal identifiers
+     * @param second Sorted internal identifiers
+     * @return Sorted internal identifiers of {@code first} and {@code second},
+     * without duplicates
+     */
+    private static int[] union(int[] first, int[] second) {
+        int[] merged = new int[first.length + second.length];
+        int i = 0, j = 0, count = 0;
+        while (i < first.length || j < second.length) {
+            int next;
+            if (j >= second.length || (i < first.length && first[i] <= second[j])) next = first[i++];
+            else next = second[j++];
+            if (count == 0 || merged[count - 1] != next) merged[count++] = next;
+        }
+        return Arrays.copyOf(merged, count);
+    }
+
+
+    // -------- -------- -------- --------
+    // Bulk updates
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param inferInverseProperties Whether to add inverse relations
+     * @param inferSuperProperties Whether to add super properties
+     * @param batchSize Batch size
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSBulkWriter createBulkWriter(boolean inferInverseProperties, boolean inferSuperProperties, int batchSize) {
+        throw new UnsupportedOperationException(SnapshotSKOSResource.READ_ONLY);
+    }
+
+
+    // -------- -------- -------- --------
+    // Managing connection
+
+    /**
+     * {@inheritDoc}<br/>
+     * SKOS snapshots are immutable, so their generation never changes.
+     * @return {@code 0}
+     */
+    @Override
+    public long getGeneration() {
+        return 0L;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * SKOS snapshots are immutable, so there is nothing to synchronise.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOS sync() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * SKOS snapshots are immutable, so there is nothing to commit.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOS commit() {
+        return this;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        this.closed = true;
+        this.store.close();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isClosed() {
+        return this.closed;
+    }
+}
@@ -0,0 +1,215 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.List;
+
+/**
+ * SKOS collection of a {@link SnapshotSKOS}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class SnapshotSKOSCollection extends SnapshotSKOSCollectionMember implements SKOSCollection {
+
+    /**
+     * Constructs a {@link SnapshotSKOSCollection}
+     * @param skos SKOS snapshot
+     * @param id Internal identifier of the collection
+     */
+    SnapshotSKOSCollection(SnapshotSKOS skos, int id) {
+        super(skos, id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSType getSkosType() {
+        return SKOSType.Collection;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptOrCollectionURI Member URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection addMember(String conceptOrCollectionURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param skosCollectionMember Member
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection addMember(SKOSCollectionMember skosCollectionMember) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollectionMember {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasMember(SKOSCollectionMember skosCollectionMember) {
+        int member = this.skos.getId(skosCollectionMember, null);
+        return member >= 0 && this.getStore().isMember(this.id, member, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollectionMember {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasMemberTransitive(SKOSCollectionMember skosCollectionMember) {
+        int member = this.skos.getId(skosCollectionMember, null);
+        return member >= 0 && this.getStore().isMember(this.id, member, true);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param skosCollectionMember Member
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection removeMember(SKOSCollectionMember skosCollectionMember) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollectionMember> listMembers() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelations(SKOSElementProperty.member).toArray(this.id), SKOSType.Concept, SKOSType.Collection));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollectionMember> listMembersTransitive() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelations(SKOSElementProperty.memberTransitive).toArray(this.id), SKOSType.Concept, SKOSType.Collection));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollectionMember> getMembers() {
+        return SnapshotSKOS.toList(this.listMembers());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollectionMember> getMembersTransitive() {
+        return SnapshotSKOS.toList(this.listMembersTransitive());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConceptMembers() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelations(SKOSElementProperty.member).toArray(this.id), SKOSType.Concept));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConceptMembersTransitive() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelations(SKOSElementProperty.memberTransitive).toArray(this.id), SKOSType.Concept));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConceptMembers() {
+        return SnapshotSKOS.toList(this.listConceptMembers());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConceptMembersTransitive() {
+        return SnapshotSKOS.toList(this.listConceptMembersTransitive());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollectionMembers() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelations(SKOSElementProperty.member).toArray(this.id), SKOSType.Collection));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollectionMembersTransitive() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelations(SKOSElementProperty.memberTransitive).toArray(this.id), SKOSType.Collection));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollectionMembers() {
+        return SnapshotSKOS.toList(this.listCollectionMembers());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollectionMembersTransitive() {
+        return SnapshotSKOS.toList(this.listCollectionMembersTransitive());
+    }
+}
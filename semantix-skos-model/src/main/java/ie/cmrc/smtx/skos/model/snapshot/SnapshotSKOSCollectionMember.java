@@ -0,0 +1,177 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SKOS collection member (concept or collection) of a {@link SnapshotSKOS}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class SnapshotSKOSCollectionMember extends SnapshotSKOSResource implements SKOSCollectionMember {
+
+    /**
+     * Constructs a {@link SnapshotSKOSCollectionMember}
+     * @param skos SKOS snapshot
+     * @param id Internal identifier of the resource
+     */
+    protected SnapshotSKOSCollectionMember(SnapshotSKOS skos, int id) {
+        super(skos, id);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param collectionUri Collection URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember addToCollection(String collectionUri) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param collection Collection
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember addToCollection(SKOSCollection collection) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelationshipSources(SKOSElementProperty.member).toArray(this.id), SKOSType.Collection));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollectionsTransitive() {
+        return new SnapshotIterator<>(this.skos, this.skos.select(this.getStore().getRelationshipSources(SKOSElementProperty.memberTransitive).toArray(this.id), SKOSType.Collection));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollections() {
+        return SnapshotSKOS.toList(this.listCollections());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollectionsTransitive() {
+        return SnapshotSKOS.toList(this.listCollectionsTransitive());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isMemberOfCollection(String collectionURI) {
+        int collection = this.skos.getId(collectionURI, SKOSType.Collection);
+        return collection >= 0 && this.getStore().isMember(collection, this.id, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isTransitiveMemberOfCollection(String collectionURI) {
+        int collection = this.skos.getId(collectionURI, SKOSType.Collection);
+        return collection >= 0 && this.getStore().isMember(collection, this.id, true);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isMemberOfCollection(SKOSCollection collection) {
+        int collectionId = this.skos.getId(collection, SKOSType.Collection);
+        return collectionId >= 0 && this.getStore().isMember(collectionId, this.id, false);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isTransitiveMemberOfCollection(SKOSCollection collection) {
+        int collectionId = this.skos.getId(collection, SKOSType.Collection);
+        return collectionId >= 0 && this.getStore().isMember(collectionId, this.id, true);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember removeFromAllCollections() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param collectionURI Collection URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember removeFromCollection(String collectionURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param collection Collection
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember removeFromCollection(SKOSCollection collection) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
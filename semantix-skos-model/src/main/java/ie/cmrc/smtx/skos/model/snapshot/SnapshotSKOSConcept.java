@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+
+/**
+ * SKOS concept of a {@link SnapshotSKOS}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class SnapshotSKOSConcept extends SnapshotSKOSCollectionMember implements SKOSConcept {
+
+    /**
+     * Constructs a {@link SnapshotSKOSConcept}
+     * @param skos SKOS snapshot
+     * @param id Internal identifier of the concept
+     */
+    SnapshotSKOSConcept(SnapshotSKOS skos, int id) {
+        super(skos, id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSType getSkosType() {
+        return SKOSType.Concept;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptSchemeURI Concept scheme URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConcept makeTopConcept(String conceptSchemeURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptScheme Concept scheme
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConcept makeTopConcept(SKOSConceptScheme conceptScheme) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSSemanticProperty relationshipType) {
+        return this.skos.listSemanticRelations(this, relationshipType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType) {
+        return this.skos.listSemanticRelationshipSources(relationshipType, this);
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.List;
+
+/**
+ * SKOS concept scheme of a {@link SnapshotSKOS}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class SnapshotSKOSConceptScheme extends SnapshotSKOSResource implements SKOSConceptScheme {
+
+    /**
+     * Constructs a {@link SnapshotSKOSConceptScheme}
+     * @param skos SKOS snapshot
+     * @param id Internal identifier of the concept scheme
+     */
+    SnapshotSKOSConceptScheme(SnapshotSKOS skos, int id) {
+        super(skos, id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSType getSkosType() {
+        return SKOSType.ConceptScheme;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param skosResource SKOS resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme add(SKOSResource skosResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosResource {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean has(SKOSResource skosResource) {
+        int resource = this.skos.getId(skosResource, null);
+        return resource >= 0 && this.getStore().isInScheme(resource, this.id);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param skosResource SKOS resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme remove(SKOSResource skosResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptURI Concept URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConcept createConcept(String conceptURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts() {
+        return this.skos.listConcepts(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConcepts() {
+        return SnapshotSKOS.toList(this.listConcepts());
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param concept Concept
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme addTopConcept(SKOSConcept concept) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasTopConcept(SKOSConcept concept) {
+        int conceptId = this.skos.getId(concept, SKOSType.Concept);
+        return conceptId >= 0 && this.getStore().getRelations(SKOSElementProperty.hasTopConcept).contains(this.id, conceptId);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param concept Concept
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme removeTopConcept(SKOSConcept concept) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme removeTopConcepts() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getTopConcepts() {
+        return SnapshotSKOS.toList(this.skos.listTopConcepts(this));
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param collectionURI Collection URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection createCollection(String collectionURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections() {
+        return this.skos.listCollections(this);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollections() {
+        return SnapshotSKOS.toList(this.listCollections());
+    }
+}
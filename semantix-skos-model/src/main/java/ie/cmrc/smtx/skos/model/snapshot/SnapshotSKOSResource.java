@@ -0,0 +1,606 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.AbstractSKOSResource;
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import ie.cmrc.util.Term;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * SKOS resource of a {@link SnapshotSKOS}.<br/>
+ * Read operations are served from the primitive structures of the snapshot.
+ * Write operations throw an {@link UnsupportedOperationException}.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class SnapshotSKOSResource extends AbstractSKOSResource {
+
+    /**
+     * Message of the exceptions thrown by write operations
+     */
+    static final String READ_ONLY = "SKOS snapshots are read-only";
+
+    /**
+     * SKOS snapshot the resource belongs to
+     */
+    protected final SnapshotSKOS skos;
+
+    /**
+     * Internal identifier of the resource
+     */
+    protected final int id;
+
+    /**
+     * Constructs a {@link SnapshotSKOSResource}
+     * @param skos SKOS snapshot
+     * @param id Internal identifier of the resource
+     */
+    protected SnapshotSKOSResource(SnapshotSKOS skos, int id) {
+        super(skos.getStore().getURI(id));
+        this.skos = skos;
+        this.id = id;
+    }
+
+    /**
+     * Returns the internal identifier of the resource
+     * @return Internal identifier
+     */
+    int getId() {
+        return this.id;
+    }
+
+    /**
+     * Returns the primitive storage of the snapshot
+     * @return Snapshot store
+     */
+    SnapshotStore getStore() {
+        return this.skos.getStore();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOS getSKOS() {
+        return this.skos;
+    }
+
+    /**
+     * Snapshot resources are read-only
+     * @return {@code true}
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+
+    // -------- -------- -------- --------
+    // Annotations
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param annotationProperty Annotation property
+     * @param value Annotation value
+     * @param language Annotation language
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addAnnotation(SKOSAnnotationProperty annotationProperty, String value, String language) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String getAnnotation(SKOSAnnotationProperty annotationProperty, String language) {
+        if (annotationProperty == null) return null;
+        LabelColumn column = this.getStore().getLabels(annotationProperty, language);
+        if (column != null && column.size(this.id) > 0) return column.get(this.id, 0);
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<Term> getAnnotations(SKOSAnnotationProperty annotationProperty) {
+        List<Term> terms = new ArrayList<>();
+        if (annotationProperty != null) {
+            for (String language: this.getStore().getLanguages(annotationProperty)) {
+                LabelColumn column = this.getStore().getLabels(annotationProperty, language);
+                int size = column.size(this.id);
+                for (int i = 0; i < size; i++) terms.add(new Term(column.get(this.id, i), language));
+            }
+        }
+        return terms;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<String> getAnnotations(SKOSAnnotationProperty annotationProperty, String language) {
+        List<String> values = new ArrayList<>();
+        if (annotationProperty != null) {
+            LabelColumn column = this.getStore().getLabels(annotationProperty, language);
+            if (column != null) {
+                int size = column.size(this.id);
+                for (int i = 0; i < size; i++) values.add(column.get(this.id, i));
+            }
+        }
+        return values;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty) {
+        if (annotationProperty != null) {
+            for (String language: this.getStore().getLanguages(annotationProperty)) {
+                if (this.hasAnnotation(annotationProperty, language)) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty, String language) {
+        if (annotationProperty == null) return false;
+        LabelColumn column = this.getStore().getLabels(annotationProperty, language);
+        return column != null && column.size(this.id) > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param value {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty, String value, String language) {
+        if (annotationProperty == null || value == null) return false;
+        LabelColumn column = this.getStore().getLabels(annotationProperty, language);
+        if (column != null) {
+            int size = column.size(this.id);
+            for (int i = 0; i < size; i++) {
+                if (value.equals(column.get(this.id, i))) return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param annotationProperty Annotation property
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAnnotations(SKOSAnnotationProperty annotationProperty) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param annotationProperty Annotation property
+     * @param language Annotation language
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAnnotations(SKOSAnnotationProperty annotationProperty, String language) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param annotationProperty Annotation property
+     * @param annotationValue Annotation value
+     * @param language Annotation language
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAnnotation(SKOSAnnotationProperty annotationProperty, String annotationValue, String language) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSAnnotationProperty> getAnnotationProperties() {
+        List<SKOSAnnotationProperty> annotationProperties = new ArrayList<>();
+        for (SKOSAnnotationProperty annotationProperty: SKOSAnnotationProperty.values()) {
+            if (this.hasAnnotation(annotationProperty)) annotationProperties.add(annotationProperty);
+        }
+        return annotationProperties;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<String> getAnnotationLanguages() {
+        List<String> languages = new ArrayList<>();
+        for (SKOSAnnotationProperty annotationProperty: SKOSAnnotationProperty.values()) {
+            for (String language: this.getAnnotationLanguages(annotationProperty)) {
+                if (!languages.contains(language)) languages.add(language);
+            }
+        }
+        return languages;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<String> getAnnotationLanguages(SKOSAnnotationProperty annotationProperty) {
+        List<String> languages = new ArrayList<>();
+        if (annotationProperty != null) {
+            for (String language: this.getStore().getLanguages(annotationProperty)) {
+                if (this.hasAnnotation(annotationProperty, language)) languages.add(language);
+            }
+        }
+        return languages;
+    }
+
+
+    // -------- -------- -------- --------
+    // Relations
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param relationshipType Relationship type
+     * @param resourceURI URI of the related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addRelation(SKOSObjectProperty relationshipType, String resourceURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param relationshipType Relationship type
+     * @param otherResource Related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addRelation(SKOSObjectProperty relationshipType, SKOSResource otherResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSResource> listRelations(SKOSObjectProperty relationshipType) {
+        if (relationshipType == null) return new SnapshotIterator<>(this.skos, new int[0]);
+        return new SnapshotIterator<>(this.skos, this.getStore().getRelations(relationshipType).toArray(this.id));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasRelation(SKOSObjectProperty relationshipType) {
+        return relationshipType != null && this.getStore().getRelations(relationshipType).size(this.id) > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasRelation(SKOSObjectProperty relationshipType, String resourceURI) {
+        if (relationshipType == null) return false;
+        int other = this.getStore().getId(resourceURI);
+        return other >= 0 && this.getStore().getRelations(relationshipType).contains(this.id, other);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param skosResource {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasRelation(SKOSObjectProperty relationshipType, SKOSResource skosResource) {
+        if (relationshipType == null) return false;
+        int other = this.skos.getId(skosResource, null);
+        return other >= 0 && this.getStore().getRelations(relationshipType).contains(this.id, other);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeRelations(SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param relationshipType Relationship type
+     * @param resourceURI URI of the related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeRelation(SKOSObjectProperty relationshipType, String resourceURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param relationshipType Relationship type
+     * @param skosResource Related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeRelation(SKOSObjectProperty relationshipType, SKOSResource skosResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param resourceURI URI of the related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource makeRelation(String resourceURI, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param otherResource Related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource makeRelation(SKOSResource otherResource, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSResource> listRelationshipSources(SKOSObjectProperty relationshipType) {
+        if (relationshipType == null) return new SnapshotIterator<>(this.skos, new int[0]);
+        return new SnapshotIterator<>(this.skos, this.getStore().getRelationshipSources(relationshipType).toArray(this.id));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isRelation(SKOSObjectProperty relationshipType) {
+        return relationshipType != null && this.getStore().getRelationshipSources(relationshipType).size(this.id) > 0;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isRelation(String resourceURI, SKOSObjectProperty relationshipType) {
+        if (relationshipType == null) return false;
+        int other = this.getStore().getId(resourceURI);
+        return other >= 0 && this.getStore().getRelations(relationshipType).contains(other, this.id);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param otherResource {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isRelation(SKOSResource otherResource, SKOSObjectProperty relationshipType) {
+        if (relationshipType == null) return false;
+        int other = this.skos.getId(otherResource, null);
+        return other >= 0 && this.getStore().getRelations(relationshipType).contains(other, this.id);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAsRelation(SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param resourceURI URI of the related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAsRelation(String resourceURI, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param skosResource Related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAsRelation(SKOSResource skosResource, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+
+    // -------- -------- -------- --------
+    // Concept schemes
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptSchemeURI Concept scheme URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addToConceptScheme(String conceptSchemeURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptScheme Concept scheme
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addToConceptScheme(SKOSConceptScheme conceptScheme) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptScheme> getConceptSchemes() {
+        List<SKOSConceptScheme> conceptSchemes = new ArrayList<>();
+        for (int conceptScheme: this.skos.select(this.getStore().getRelations(SKOSElementProperty.inScheme).toArray(this.id), SKOSType.ConceptScheme)) {
+            conceptSchemes.add((SKOSConceptScheme) this.skos.getResource(conceptScheme));
+        }
+        return conceptSchemes;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isInScheme(String conceptSchemeURI) {
+        int conceptScheme = this.skos.getId(conceptSchemeURI, SKOSType.ConceptScheme);
+        return conceptScheme >= 0 && this.getStore().isInScheme(this.id, conceptScheme);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isInScheme(SKOSConceptScheme conceptScheme) {
+        int conceptSchemeId = this.skos.getId(conceptScheme, SKOSType.ConceptScheme);
+        return conceptSchemeId >= 0 && this.getStore().isInScheme(this.id, conceptSchemeId);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeFromAllConceptSchemes() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptSchemeURI Concept scheme URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeFromConceptScheme(String conceptSchemeURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, SKOS snapshots are read-only
+     * @param conceptScheme Concept scheme
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeFromConceptScheme(SKOSConceptScheme conceptScheme) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.List;
+
+/**
+ * Primitive storage of a SKOS snapshot.<br/>
+ * Resources are identified by internal identifiers ranging from {@code 0} to
+ * {@code size()-1}, grouped by SKOS type in the order of {@link SKOSType}.
+ * Relationships are stored as adjacency lists in both directions, together
+ * with the transitive reduction of the concept hierarchy and the broadest
+ * concepts of every concept scheme and collection, and annotations as one
+ * column of values per annotation property and language. The closure of the
+ * transitive relations is served by reachability indexes (see
+ * {@link ReachabilityIndex}) rather than stored. Concept scheme and
+ * collection membership is indexed by a {@link MembershipIndex}, built from
+ * the relations on first use.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class SnapshotStore {
+
+    /**
+     * Concept scheme and collection membership, built on first use
+     */
+    private volatile MembershipIndex membership;
+
+    /**
+     * Returns the number of resources
+     * @return Number of resources
+     */
+    abstract int size();
+
+    /**
+     * Returns the internal identifier of the provided URI
+     * @param uri Resource URI
+     * @return Internal identifier of the resource, or {@code -1} if the
+     * snapshot has no such resource
+     */
+    abstract int getId(String uri);
+
+    /**
+     * Returns the URI of the provided resource
+     * @param id Internal identifier of a resource
+     * @return Resource URI
+     */
+    abstract String getURI(int id);
+
+    /**
+     * Returns the first internal identifier of the resources of the provided
+     * type
+     * @param type SKOS type
+     * @return First internal identifier of the resources of type {@code type}
+     */
+    abstract int getStart(SKOSType type);
+
+    /**
+     * Returns the internal identifier following the last resource of the
+     * provided type
+     * @param type SKOS type
+     * @return Internal identifier following the last resource of type
+     * {@code type}
+     */
+    abstract int getEnd(SKOSType type);
+
+    /**
+     * Returns the adjacency lists of the provided relation, mapping each
+     * resource to the objects of its relationships
+     * @param property SKOS object property
+     * @return Adjacency lists of {@code property}
+     */
+    abstract Adjacency getRelations(SKOSObjectProperty property);
+
+    /**
+     * Returns the reverse adjacency lists of the provided relation, mapping
+     * each resource to the subjects of its relationships
+     * @param property SKOS object property
+     * @return Reverse adjacency lists of {@code property}
+     */
+    abstract Adjacency getRelationshipSources(SKOSObjectProperty property);
+
+    /**
+     * Returns the reachability index serving the closure of the provided
+     * transitive relation
+     * @param property {@link SKOSSemanticProperty#narrowerTransitive},
+     * {@link SKOSSemanticProperty#broaderTransitive} or
+     * {@link ie.cmrc.smtx.skos.model.SKOSElementProperty#memberTransitive}
+     * @param reverse Whether the index of the reverse relation is returned
+     * @return Reachability index, or {@code null} for any other property
+     */
+    abstract ReachabilityIndex getReachability(SKOSObjectProperty property, boolean reverse);
+
+    /**
+     * Returns the transitive reduction of the provided hierarchical relation,
+     * mapping each concept to its direct narrower or broader concepts
+     * @param property {@link SKOSSemanticProperty#narrowerTransitive} or
+     * {@link SKOSSemanticProperty#broaderTransitive}
+     * @return Adjacency lists of the direct relations, or
+     * {@link Adjacency#EMPTY} for any other property
+     */
+    abstract Adjacency getDirectRelations(SKOSSemanticProperty property);
+
+    /**
+     * Returns the broadest concepts of all the (concept scheme, collection)
+     * scopes, as computed by {@link RootIndex}
+     * @return Adjacency lists mapping each scope key to the broadest concepts
+     * of the scope
+     */
+    abstract Adjacency getRootIndex();
+
+    /**
+     * Returns the languages of the values of the provided annotation property
+     * @param property SKOS annotation property
+     * @return Languages of the values of {@code property}, possibly including
+     * {@code null}
+     */
+    abstract List<String> getLanguages(SKOSAnnotationProperty property);
+
+    /**
+     * Returns the values of the provided annotation property in the provided
+     * language
+     * @param property SKOS annotation property
+     * @param language Language, or {@code null} for values without language
+     * @return Values of {@code property} in {@code language}, or {@code null}
+     * if there are none
+     */
+    abstract LabelColumn getLabels(SKOSAnnotationProperty property, String language);
+
+    /**
+     * Returns the type of the provided resource
+     * @param id Internal identifier of a resource
+     * @return SKOS type of the resource
+     */
+    SKOSType getType(int id) {
+        for (SKOSType type: SKOSType.values()) {
+            if (id < this.getEnd(type)) return type;
+        }
+        return null;
+    }
+
+    /**
+     * Checks whether a resource belongs to a concept scheme
+     * @param id Internal identifier of a resource
+     * @param conceptSchemeId Internal identifier of a concept scheme
+     * @return {@code true} if resource {@code id} is in concept scheme
+     * {@code conceptSchemeId}
+     */
+    boolean isInScheme(int id, int conceptSchemeId) {
+        return this.getMembership().getSchemeMembers(conceptSchemeId).contains(id);
+    }
+
+    /**
+     * Checks whether a resource is a member of a collection
+     * @param collectionId Internal identifier of a collection
+     * @param id Internal identifier of a resource
+     * @param transitive Whether indirect members are accepted
+     * @return {@code true} if resource {@code id} is a member of collection
+     * {@code collectionId}
+     */
+    boolean isMember(int collectionId, int id, boolean transitive) {
+        return this.getMembership().getCollectionMembers(collectionId, transitive).contains(id);
+    }
+
+    /**
+     * Returns the concept scheme and collection membership index of the
+     * store, building it on first call
+     * @return Membership index
+     */
+    MembershipIndex getMembership() {
+        MembershipIndex index = this.membership;
+        if (index == null) {
+            synchronized (this) {
+                index = this.membership;
+                if (index == null) {
+                    index = new MembershipIndex(this);
+                    this.membership = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the broadest concepts of a (concept scheme, collection) scope,
+     * that is the concepts in scope that have no broader concept in scope
+     * @param conceptSchemeId Internal identifier of a concept scheme, or
+     * {@code -1} for no concept scheme restriction
+     * @param collectionId Internal identifier of a collection, or {@code -1}
+     * for no collection restriction
+     * @return Internal identifiers of the broadest concepts, in increasing
+     * order
+     */
+    int[] getRoots(int conceptSchemeId, int collectionId) {
+        return this.getRootIndex().toArray(RootIndex.key(this, conceptSchemeId, collectionId));
+    }
+
+    /**
+     * Releases the resources held by the store
+     */
+    void close() {
+    }
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.Arrays;
+
+/**
+ * Computes the transitive reduction of the hierarchy of a SKOS snapshot, that
+ * is the direct narrower and broader concepts of every concept.<br/>
+ * The direct narrower (resp. broader) concepts of a concept {@code c} are the
+ * concepts {@code j != c} such that {@code c narrowerTransitive j} (resp.
+ * {@code c broaderTransitive j}) and there is no other such concept {@code i}
+ * with {@code i narrowerTransitive j} (resp. {@code i broaderTransitive j}).
+ * Narrower concepts that are also broader than {@code c} are ignored, so that
+ * cycles do not hide the direct narrower concepts.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class TransitiveReduction {
+
+    private TransitiveReduction() {
+    }
+
+    /**
+     * Computes the direct relations of all the concepts of a store
+     * @param store Snapshot store
+     * @param property {@link SKOSSemanticProperty#narrowerTransitive} or
+     * {@link SKOSSemanticProperty#broaderTransitive}
+     * @return Adjacency lists mapping each concept to its direct narrower or
+     * broader concepts
+     */
+    static HeapAdjacency compute(SnapshotStore store, SKOSSemanticProperty property) {
+        int size = store.size();
+        int[] offsets = new int[size + 1];
+        int[] targets = new int[1024];
+        int count = 0;
+        int start = store.getStart(SKOSType.Concept);
+        int end = store.getEnd(SKOSType.Concept);
+        for (int id = 0; id < size; id++) {
+            offsets[id] = count;
+            if (id >= start && id < end) {
+                int[] direct = directTargets(store, id, property);
+                if (count + direct.length > targets.length) targets = Arrays.copyOf(targets, Math.max(2 * targets.length, count + direct.length));
+                System.arraycopy(direct, 0, targets, count, direct.length);
+                count += direct.length;
+            }
+        }
+        offsets[size] = count;
+        return new HeapAdjacency(offsets, Arrays.copyOf(targets, count));
+    }
+
+    /**
+     * Computes the direct relations of a concept
+     * @param store Snapshot store
+     * @param concept Internal identifier of the concept
+     * @param property {@link SKOSSemanticProperty#narrowerTransitive} or
+     * {@link SKOSSemanticProperty#broaderTransitive}
+     * @return Internal identifiers of the direct narrower or broader concepts,
+     * in increasing order
+     */
+    static int[] directTargets(SnapshotStore store, int concept, SKOSSemanticProperty property) {
+        Adjacency relations = store.getRelations(property);
+        Adjacency sources = store.getRelationshipSources(property);
+        boolean excludeCycles = (property == SKOSSemanticProperty.narrowerTransitive);
+        int start = store.getStart(SKOSType.Concept);
+        int end = store.getEnd(SKOSType.Concept);
+
+        int[] candidates = relations.toArray(concept);
+        int count = 0;
+        for (int candidate: candidates) {
+            if (candidate >= start && candidate < end && candidate != concept && !(excludeCycles && relations.contains(candidate, concept))) candidates[count++] = candidate;
+        }
+        candidates = Arrays.copyOf(candidates, count);
+
+        int[] direct = new int[count];
+        int directCount = 0;
+        for (int candidate: candidates) {
+            if (!isReachedThroughOther(sources, candidate, candidates)) direct[directCount++] = candidate;
+        }
+        return Arrays.copyOf(direct, directCount);
+    }
+
+    /**
+     * Checks whether a candidate is related to another candidate. The
+     * shorter of the sources of the candidate and the other candidates is
+     * enumerated, since the sources of a broad concept span most of the
+     * hierarchy when its direct broader concepts are computed, and so do the
+     * candidates of a broad concept when its direct narrower concepts are.
+     * @param sources Reverse adjacency lists of the transitive relation
+     * @param candidate Internal identifier of the candidate
+     * @param candidates Internal identifiers of all the candidates, sorted in
+     * increasing order
+     * @return {@code true} if another candidate is related to
+     * {@code candidate}
+     */
+    static boolean isReachedThroughOther(Adjacency sources, int candidate, int[] candidates) {
+        int sourceCount = sources.size(candidate);
+        if (sourceCount > candidates.length) {
+            for (int other: candidates) {
+                if (other != candidate && sources.contains(candidate, other)) return true;
+            }
+            return false;
+        }
+        for (int i = 0; i < sourceCount; i++) {
+            int source = sources.get(candidate, i);
+            if (source != candidate && Arrays.binarySearch(candidates, source) >= 0) return true;
+        }
+        return false;
+    }
+}
@@ -23,13 +23,18 @@ import java.util.Iterator;
 /**
  * An iterator that may be closed after use to free up any memory resources used by
  * the iterator. Implementations may chose to close the iterator when it is exhausted.
+ * Iterators over a persistent store hold store resources until they are closed or
+ * exhausted, and should therefore be closed using a {@code try}-with-resources
+ * statement, or in a {@code finally} block, when they may not be exhausted.
+ * @see IteratorTracker
  * @author Yassine Lassoued <y.lassoued@ucc.ie>
  * @param <T> Type of elements returned by this iterator
  */
-public interface CloseableIterator<T> extends Iterator<T> {
+public interface CloseableIterator<T> extends Iterator<T>, AutoCloseable {
     /**
      * Closes the iterator to free any memory resources being used by it. If the
      * iterator is already closed, then calling this method will do nothing.
      */
+    @Override
     void close();
 }
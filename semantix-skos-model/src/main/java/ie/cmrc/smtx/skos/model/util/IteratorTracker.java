@@ -0,0 +1,409 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.skos.model.util;
+
+import java.lang.management.ManagementFactory;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Instrumentation of {@link CloseableIterator}s, which counts the iterators
+ * that are open, i.e., neither closed nor exhausted, globally, per thread and
+ * per scope (e.g., per request).<br/>
+ * Thesauri register the iterators they return using
+ * {@link #track(ie.cmrc.smtx.skos.model.util.CloseableIterator)}. Callers may
+ * delimit a unit of work, such as a request, with a {@link Scope} (see
+ * {@link #openScope(java.lang.String)}), which reports the iterators opened
+ * within it that are still open when it is closed.<br/>
+ * In debug mode (see {@link #setDebug(boolean)}, or the
+ * {@value #DEBUG_PROPERTY} system property), the allocation site of each
+ * iterator is captured, so that the iterators left open by a scope, and those
+ * that are garbage collected without being closed, are reported along with
+ * the code that opened them. Capturing allocation sites is costly, and is
+ * meant for diagnosis only.<br/>
+ * The gauges of the tracker may be exposed as a JMX MBean (see
+ * {@link #registerMBean()}).
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class IteratorTracker {
+
+    /**
+     * System property that enables debug mode on start up if {@code true}
+     */
+    public static final String DEBUG_PROPERTY = "semantix.iterators.debug";
+
+    /**
+     * Name of the MBean exposing the gauges of the tracker
+     */
+    public static final String MBEAN_NAME = "ie.cmrc.smtx:type=IteratorTracker";
+
+    private static final Logger LOGGER = Logger.getLogger(IteratorTracker.class.getName());
+
+    /**
+     * Number of open iterators
+     */
+    private static final AtomicInteger OPEN = new AtomicInteger();
+
+    /**
+     * Number of tracked iterators
+     */
+    private static final AtomicLong OPENED = new AtomicLong();
+
+    /**
+     * Number of iterators garbage collected without being closed, detected in
+     * debug mode
+     */
+    private static final AtomicLong LEAKED = new AtomicLong();
+
+    /**
+     * Number of open iterators opened by each thread
+     */
+    private static final ThreadLocal<AtomicInteger> THREAD_OPEN = new ThreadLocal<AtomicInteger>() {
+        @Override
+        protected AtomicInteger initialValue() {
+            return new AtomicInteger();
+        }
+    };
+
+    /**
+     * Innermost scope of each thread
+     */
+    private static final ThreadLocal<Scope> CURRENT_SCOPE = new ThreadLocal<>();
+
+    /**
+     * Allocation sites of the open iterators tracked in debug mode
+     */
+    private static final Set<Site> SITES = Collections.newSetFromMap(new ConcurrentHashMap<Site, Boolean>());
+
+    /**
+     * Queue of the allocation sites whose iterator was garbage collected
+     */
+    private static final ReferenceQueue<Object> COLLECTED = new ReferenceQueue<>();
+
+    private static volatile boolean debug = Boolean.getBoolean(DEBUG_PROPERTY);
+
+    /**
+     * Prevents instantiation
+     */
+    private IteratorTracker() {
+    }
+
+    /**
+     * Tracks the provided iterator until it is closed or exhausted
+     * @param <T> Type of the iterated elements
+     * @param iterator Iterator to track
+     * @return Iterator over the elements of {@code iterator}, closing
+     * {@code iterator} when closed, or {@code null} if {@code iterator} is
+     * {@code null}
+     */
+    public static <T> CloseableIterator<T> track(CloseableIterator<T> iterator) {
+        if (iterator == null || iterator instanceof TrackedIterator || iterator instanceof EmptyCloseableIterator) return iterator;
+        if (debug) reportCollected();
+        
+        Registration registration = new Registration(THREAD_OPEN.get(), CURRENT_SCOPE.get());
+        TrackedIterator<T> tracked = new TrackedIterator<>(iterator, registration);
+        if (debug) {
+            Site site = new Site(tracked, registration, new Throwable("Iterator opened by thread \""+Thread.currentThread().getName()+"\""));
+            registration.site = site;
+            SITES.add(site);
+        }
+        return tracked;
+    }
+
+    /**
+     * Indicates whether debug mode is enabled
+     * @return {@code true} if the allocation sites of iterators are captured
+     */
+    public static boolean isDebug() {
+        return debug;
+    }
+
+    /**
+     * Enables or disables debug mode. Only the iterators opened while debug
+     * mode is enabled are reported with their allocation site.
+     * @param debug {@code true} to capture the allocation sites of iterators
+     */
+    public static void setDebug(boolean debug) {
+        IteratorTracker.debug = debug;
+    }
+
+    /**
+     * Returns the number of open iterators
+     * @return Number of iterators neither closed nor exhausted
+     */
+    public static int getOpenIterators() {
+        if (debug) reportCollected();
+        return OPEN.get();
+    }
+
+    /**
+     * Returns the number of open iterators opened by the calling thread
+     * @return Number of iterators opened by the calling thread, and neither
+     * closed nor exhausted
+     */
+    public static int getThreadOpenIterators() {
+        return THREAD_OPEN.get().get();
+    }
+
+    /**
+     * Returns the number of tracked iterators
+     * @return Number of iterators opened since start up
+     */
+    public static long getOpenedIterators() {
+        return OPENED.get();
+    }
+
+    /**
+     * Returns the number of iterators that were garbage collected without
+     * being closed. Those are only detected in debug mode.
+     * @return Number of leaked iterators
+     */
+    public static long getLeakedIterators() {
+        if (debug) reportCollected();
+        return LEAKED.get();
+    }
+
+    /**
+     * Returns the allocation sites of the open iterators opened in debug mode
+     * @return Allocation sites, whose stack traces show where the open
+     * iterators were opened
+     */
+    public static List<Throwable> getOpenIteratorSites() {
+        List<Throwable> sites = new ArrayList<>();
+        for (Site site: SITES) sites.add(site.stackTrace);
+        return sites;
+    }
+
+    /**
+     * Opens a scope, such as a request, on the calling thread. Scopes may be
+     * nested, and must be closed by the thread that opened them, in reverse
+     * order.
+     * @param name Name of the scope, used in reports
+     * @return Scope, which should be closed using a {@code try}-with-resources
+     * statement
+     */
+    public static Scope openScope(String name) {
+        Scope scope = new Scope(name, CURRENT_SCOPE.get());
+        CURRENT_SCOPE.set(scope);
+        return scope;
+    }
+
+    /**
+     * Registers the MBean exposing the gauges of the tracker under
+     * {@value #MBEAN_NAME} with the platform MBean server, unless it is
+     * already registered
+     * @throws JMException if the MBean could not be registered
+     */
+    public static void registerMBean() throws JMException {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName(MBEAN_NAME);
+        synchronized (IteratorTracker.class) {
+            if (!server.isRegistered(name)) server.registerMBean(new Stats(), name);
+        }
+    }
+
+    /**
+     * Counts and reports the iterators garbage collected without being
+     * closed
+     */
+    private static void reportCollected() {
+        Site site;
+        while ((site = (Site) COLLECTED.poll()) != null) {
+            if (site.registration.release()) {
+                LEAKED.incrementAndGet();
+                LOGGER.log(Level.WARNING, "Iterator garbage collected without being closed", site.stackTrace);
+            }
+        }
+    }
+
+    /**
+     * Open iterators counts updated by an iterator
+     */
+    static final class Registration {
+
+        private final AtomicInteger threadOpen;
+
+        private final Scope scope;
+
+        private final AtomicBoolean released = new AtomicBoolean(false);
+
+        /**
+         * Allocation site of the iterator, in debug mode
+         */
+        private Site site = null;
+
+        Registration(AtomicInteger threadOpen, Scope scope) {
+            this.threadOpen = threadOpen;
+            this.scope = scope;
+            OPEN.incrementAndGet();
+            OPENED.incrementAndGet();
+            threadOpen.incrementAndGet();
+            for (Scope s = scope; s != null; s = s.parent) {
+                s.open.incrementAndGet();
+                s.opened.incrementAndGet();
+            }
+        }
+
+        /**
+         * Decrements the open iterators counts, once
+         * @return {@code true} if the counts were decremented by this call
+         */
+        boolean release() {
+            if (!this.released.compareAndSet(false, true)) return false;
+            OPEN.decrementAndGet();
+            this.threadOpen.decrementAndGet();
+            for (Scope s = this.scope; s != null; s = s.parent) s.open.decrementAndGet();
+            if (this.site != null) SITES.remove(this.site);
+            return true;
+        }
+    }
+
+    /**
+     * Allocation site of an iterator, which is queued when the iterator is
+     * garbage collected
+     */
+    private static final class Site extends WeakReference<Object> {
+
+        private final Registration registration;
+
+        private final Throwable stackTrace;
+
+        Site(Object iterator, Registration registration, Throwable stackTrace) {
+            super(iterator, COLLECTED);
+            this.registration = registration;
+            this.stackTrace = stackTrace;
+        }
+    }
+
+    /**
+     * Unit of work, such as a request, whose open iterators are counted.
+     * Closing a scope reports the iterators opened within it that are still
+     * open.
+     */
+    public static final class Scope implements AutoCloseable {
+
+        private final String name;
+
+        private final Scope parent;
+
+        private final AtomicInteger open = new AtomicInteger();
+
+        private final AtomicInteger opened = new AtomicInteger();
+
+        private boolean closed = false;
+
+        private Scope(String name, Scope parent) {
+            this.name = name;
+            this.parent = parent;
+        }
+
+        /**
+         * Returns the name of the scope
+         * @return Name of the scope
+         */
+        public String getName() {
+            return this.name;
+        }
+
+        /**
+         * Returns the number of open iterators opened within the scope
+         * @return Number of iterators opened within the scope, and neither
+         * closed nor exhausted
+         */
+        public int getOpenIterators() {
+            return this.open.get();
+        }
+
+        /**
+         * Returns the number of iterators opened within the scope
+         * @return Number of iterators opened within the scope
+         */
+        public int getOpenedIterators() {
+            return this.opened.get();
+        }
+
+        /**
+         * Closes the scope, restoring the enclosing scope of the thread, and
+         * logs a warning if some of the iterators opened within the scope are
+         * still open, with their allocation sites in debug mode. The counts
+         * of the scope remain available.
+         */
+        @Override
+        public void close() {
+            if (this.closed) return;
+            this.closed = true;
+            if (CURRENT_SCOPE.get() == this) {
+                if (this.parent != null) CURRENT_SCOPE.set(this.parent);
+                else CURRENT_SCOPE.remove();
+            }
+            int leftOpen = this.open.get();
+            if (leftOpen > 0 && LOGGER.isLoggable(Level.WARNING)) {
+                LOGGER.log(Level.WARNING, "{0}: {1} of {2} iterators left open", new Object[]{this.name, leftOpen, this.opened.get()});
+                for (Site site: SITES) {
+                    if (site.registration.scope == this) LOGGER.log(Level.WARNING, this.name+": iterator left open", site.stackTrace);
+                }
+            }
+        }
+    }
+
+    /**
+     * MBean exposing the gauges of the tracker
+     */
+    private static final class Stats implements IteratorTrackerMXBean {
+
+        @Override
+        public int getOpenIterators() {
+            return IteratorTracker.getOpenIterators();
+        }
+
+        @Override
+        public long getOpenedIterators() {
+            return IteratorTracker.getOpenedIterators();
+        }
+
+        @Override
+        public long getLeakedIterators() {
+            return IteratorTracker.getLeakedIterators();
+        }
+
+        @Override
+        public boolean isDebug() {
+            return IteratorTracker.isDebug();
+        }
+
+        @Override
+        public void setDebug(boolean debug) {
+            IteratorTracker.setDebug(debug);
+        }
+    }
+}
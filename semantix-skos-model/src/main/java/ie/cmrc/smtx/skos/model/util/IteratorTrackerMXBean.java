@@ -0,0 +1,58 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.skos.model.util;
+
+/**
+ * Management interface exposing the gauges of {@link IteratorTracker}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public interface IteratorTrackerMXBean {
+
+    /**
+     * Returns the number of open iterators
+     * @return Number of iterators neither closed nor exhausted
+     */
+    int getOpenIterators();
+
+    /**
+     * Returns the number of tracked iterators
+     * @return Number of iterators opened since start up
+     */
+    long getOpenedIterators();
+
+    /**
+     * Returns the number of iterators garbage collected without being closed,
+     * detected in debug mode
+     * @return Number of leaked iterators
+     */
+    long getLeakedIterators();
+
+    /**
+     * Indicates whether the allocation sites of iterators are captured
+     * @return {@code true} if debug mode is enabled
+     */
+    boolean isDebug();
+
+    /**
+     * Enables or disables debug mode
+     * @param debug {@code true} to capture the allocation sites of iterators
+     */
+    void setDebug(boolean debug);
+}
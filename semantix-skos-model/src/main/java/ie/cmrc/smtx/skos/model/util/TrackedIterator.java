@@ -0,0 +1,91 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package ie.cmrc.smtx.skos.model.util;
+
+/**
+ * Iterator registered with {@link IteratorTracker}, which is counted as open
+ * until it is closed or exhausted
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ * @param <T> Type of the iterated elements
+ */
+final class TrackedIterator<T> implements CloseableIterator<T> {
+
+    /**
+     * Underlying iterator
+     */
+    private final CloseableIterator<T> iterator;
+
+    /**
+     * Registration of the iterator with the tracker
+     */
+    private final IteratorTracker.Registration registration;
+
+    /**
+     * Constructs a {@link TrackedIterator}
+     * @param iterator Underlying iterator
+     * @param registration Registration of the iterator with the tracker
+     */
+    TrackedIterator(CloseableIterator<T> iterator, IteratorTracker.Registration registration) {
+        this.iterator = iterator;
+        this.registration = registration;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The iterator is closed when it is exhausted.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasNext() {
+        boolean hasNext = this.iterator.hasNext();
+        if (!hasNext) this.close();
+        return hasNext;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public T next() {
+        return this.iterator.next();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void remove() {
+        this.iterator.remove();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public void close() {
+        try {
+            this.iterator.close();
+        }
+        finally {
+            this.registration.release();
+        }
+    }
+}
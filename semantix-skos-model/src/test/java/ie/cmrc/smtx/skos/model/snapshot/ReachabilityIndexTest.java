@@ -0,0 +1,173 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.skos.model.snapshot;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Random;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link ReachabilityIndex}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class ReachabilityIndexTest {
+
+    @Test
+    public void treeComponentsHaveAtMostOneInterval() {
+        // Complete binary tree: i -> 2i+1, 2i+2
+        int size = 63;
+        int[] sources = new int[size - 1];
+        int[] targets = new int[size - 1];
+        for (int i = 1; i < size; i++) {
+            sources[i - 1] = (i - 1) / 2;
+            targets[i - 1] = i;
+        }
+        Adjacency tree = HeapAdjacency.build(size, sources, targets, size - 1);
+        ReachabilityIndex index = ReachabilityIndex.compute(size, new Adjacency[]{tree});
+
+        assertEquals(size, index.getComponentCount());
+        // Leaves reach nothing, other concepts reach a single range
+        for (int c = 0; c < size; c++) assertTrue(index.getIntervals().size(c) <= 2);
+        assertEquals(size - 1, index.count(0));
+        assertEquals(0, index.count(size - 1));
+        assertFalse(index.reaches(0, 0));
+        assertTrue(index.reaches(0, size - 1));
+        assertFalse(index.reaches(1, 2));
+        this.assertMatchesSearch(size, tree, index);
+    }
+
+    @Test
+    public void cyclesAreCondensed() {
+        // 0 -> 1 -> 2 -> 0, 2 -> 3, 4 -> 4
+        Adjacency graph = HeapAdjacency.build(5, new int[]{0, 1, 2, 2, 4}, new int[]{1, 2, 0, 3, 4}, 5);
+        ReachabilityIndex index = ReachabilityIndex.compute(5, new Adjacency[]{graph});
+
+        assertEquals(3, index.getComponentCount());
+        assertTrue(index.reaches(0, 0));
+        assertTrue(index.reaches(1, 0));
+        assertTrue(index.reaches(4, 4));
+        assertFalse(index.reaches(3, 3));
+        assertArrayEquals(new int[]{0, 1, 2, 3}, index.reached(2));
+        assertArrayEquals(new int[0], index.reached(3));
+        this.assertMatchesSearch(5, graph, index);
+    }
+
+    @Test
+    public void polyhierarchiesAreLabelledWithSeveralIntervals() {
+        // 0 -> 1, 0 -> 2, 1 -> 3, 2 -> 3, 2 -> 4, 5 -> 3
+        Adjacency graph = HeapAdjacency.build(6, new int[]{0, 0, 1, 2, 2, 5}, new int[]{1, 2, 3, 3, 4, 3}, 6);
+        ReachabilityIndex index = ReachabilityIndex.compute(6, new Adjacency[]{graph});
+        this.assertMatchesSearch(6, graph, index);
+        assertEquals(4, index.count(0));
+        assertArrayEquals(new int[]{3}, index.reached(5));
+    }
+
+    @Test
+    public void unionOfAdjacencyListsIsIndexed() {
+        Adjacency first = HeapAdjacency.build(4, new int[]{0}, new int[]{1}, 1);
+        Adjacency second = HeapAdjacency.build(4, new int[]{1, 2}, new int[]{2, 3}, 2);
+        ReachabilityIndex index = ReachabilityIndex.compute(4, new Adjacency[]{first, second});
+        assertArrayEquals(new int[]{1, 2, 3}, index.reached(0));
+        assertTrue(index.getClosure().contains(0, 3));
+        assertEquals(3, index.getClosure().size(0));
+    }
+
+    @Test
+    public void randomGraphsMatchBreadthFirstSearch() {
+        Random random = new Random(11);
+        for (int round = 0; round < 200; round++) {
+            int size = 1 + random.nextInt(60);
+            int count = random.nextInt(3 * size);
+            int[] sources = new int[count];
+            int[] targets = new int[count];
+            boolean acyclic = random.nextBoolean();
+            for (int e = 0; e < count; e++) {
+                int a = random.nextInt(size);
+                int b = random.nextInt(size);
+                if (acyclic && a > b) {
+                    int t = a;
+                    a = b;
+                    b = t;
+                }
+                if (acyclic && a == b) b = Math.min(size - 1, b + 1);
+                sources[e] = a;
+                targets[e] = b;
+            }
+            if (acyclic) {
+                for (int e = 0; e < count; e++) {
+                    if (sources[e] == targets[e]) targets[e] = -1;
+                }
+                int kept = 0;
+                for (int e = 0; e < count; e++) {
+                    if (targets[e] >= 0) {
+                        sources[kept] = sources[e];
+                        targets[kept++] = targets[e];
+                    }
+                }
+                count = kept;
+            }
+            Adjacency graph = HeapAdjacency.build(size, sources, targets, count);
+            ReachabilityIndex index = ReachabilityIndex.compute(size, new Adjacency[]{graph});
+            if (acyclic) assertEquals(size, index.getComponentCount());
+            this.assertMatchesSearch(size, graph, index);
+        }
+    }
+
+    /**
+     * Checks the index against a breadth-first search from each resource
+     * @param size Number of resources
+     * @param graph Relation graph
+     * @param index Reachability index of {@code graph}
+     */
+    private void assertMatchesSearch(int size, Adjacency graph, ReachabilityIndex index) {
+        Adjacency closure = index.getClosure();
+        for (int id = 0; id < size; id++) {
+            boolean[] reached = new boolean[size];
+            Deque<Integer> queue = new ArrayDeque<>();
+            queue.add(id);
+            while (!queue.isEmpty()) {
+                int node = queue.poll();
+                for (int k = 0; k < graph.size(node); k++) {
+                    int target = graph.get(node, k);
+                    if (!reached[target]) {
+                        reached[target] = true;
+                        queue.add(target);
+                    }
+                }
+            }
+            int count = 0;
+            for (int target = 0; target < size; target++) {
+                assertEquals(id + " -> " + target, reached[target], index.reaches(id, target));
+                assertEquals(id + " -> " + target, reached[target], closure.contains(id, target));
+                if (reached[target]) count++;
+            }
+            assertEquals(count, index.count(id));
+            assertEquals(count, closure.size(id));
+            int[] expected = new int[count];
+            int position = 0;
+            for (int target = 0; target < size; target++) {
+                if (reached[target]) expected[position++] = target;
+            }
+            assertArrayEquals(expected, index.reached(id));
+            assertArrayEquals(expected, closure.toArray(id));
+        }
+    }
+}
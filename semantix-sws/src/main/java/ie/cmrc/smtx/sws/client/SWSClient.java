@@ -28,6 +28,7 @@ import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
 import ie.cmrc.smtx.skos.model.util.CloseableIterator;
 import ie.cmrc.smtx.skos.index.IndexField;
 import ie.cmrc.smtx.thesaurus.SWSThesaurus;
+import ie.cmrc.smtx.thesaurus.query.ConceptQuery;
 import ie.cmrc.util.Term;
 import java.io.IOException;
 import java.text.ParseException;
@@ -205,6 +206,51 @@ public class SWSClient implements SWSThesaurus {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
+    @Override
+    public List<SKOSConcept> getConcepts(Collection<String> conceptURIs) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes, int maxDistance) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public List<SKOSConcept> getLowestCommonBroaderConcepts(String conceptURI1, String conceptURI2) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public SKOSConceptNode getConceptAncestry(String conceptURI) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public SKOSConceptNode getConceptAncestry(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public List<SKOSConceptNode> getConceptAncestries(Collection<String> conceptURIs, String conceptSchemeURI, String skosCollectionURI) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public int countDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
+    @Override
+    public int countTransitiveNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
     @Override
     public List<SemanticEntity> search(Term keyword, IndexField.Searchable searchField, int offset, int limit) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
@@ -305,6 +351,16 @@ public class SWSClient implements SWSThesaurus {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, String withinConceptURI, int offset, int limit) {
+        throw new UnsupportedOperationException("Not supported yet.");
+    }
+
+    @Override
+    public List<SKOSConcept> searchConcepts(ConceptQuery query) {
+        throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
+    }
+
     @Override
     public List<SKOSConcept> interpretKeyword(Term keyword) {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
@@ -330,6 +386,15 @@ public class SWSClient implements SWSThesaurus {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
     }
 
+    /**
+     * Changes to the remote thesaurus are not tracked
+     * @return {@code 0}
+     */
+    @Override
+    public long getGeneration() {
+        return 0L;
+    }
+
     @Override
     public void close() throws IOException {
         throw new UnsupportedOperationException("Not supported yet."); //To change body of generated methods, choose Tools | Templates.
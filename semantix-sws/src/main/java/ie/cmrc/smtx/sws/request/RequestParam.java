@@ -40,5 +40,7 @@ public enum RequestParam {
     field,
     keywordLanguage,
     offset,
-    limit;
+    limit,
+    sharedNodes,
+    withinConcept;
 }
@@ -38,6 +38,7 @@ public enum RequestType {
     GetRelatedConcepts,
     GetDirectNarrowerConcepts,
     GetDirectBroaderConcepts,
+    GetConceptAncestry,
     SearchConcepts,
     InterpretKeyword;
     
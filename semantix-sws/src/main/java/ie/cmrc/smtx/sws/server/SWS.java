@@ -21,6 +21,8 @@ package ie.cmrc.smtx.sws.server;
 import ie.cmrc.smtx.skos.model.SKOS;
 import ie.cmrc.smtx.skos.jena.SKOSFactory;
 import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
+import ie.cmrc.smtx.skos.model.snapshot.SnapshotFile;
+import ie.cmrc.smtx.skos.model.util.IteratorTracker;
 import ie.cmrc.smtx.skos.index.SKOSIndex;
 import ie.cmrc.smtx.skos.index.SKOSIndexFactory;
 import ie.cmrc.smtx.sws.config.FilterType;
@@ -32,6 +34,7 @@ import ie.cmrc.smtx.sws.request.RequestParam;
 import ie.cmrc.smtx.sws.request.RequestType;
 import ie.cmrc.smtx.thesaurus.DefaultSWSThesaurus;
 import ie.cmrc.smtx.thesaurus.SWSThesaurus;
+import java.io.File;
 import java.io.IOException;
 import java.io.PrintWriter;
 import java.util.ArrayList;
@@ -39,6 +42,7 @@ import java.util.Arrays;
 import java.util.List;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.management.JMException;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
 import javax.servlet.http.HttpServlet;
@@ -137,6 +141,31 @@ public class SWS extends HttpServlet {
             }
         }
         
+        boolean snapshot = false;
+        String snapshotStr = getServletConfig().getInitParameter("SNAPSHOT");
+        if (snapshotStr!=null && !(snapshotStr=snapshotStr.trim()).isEmpty()) {
+            if (snapshotStr.equalsIgnoreCase("true")) snapshot = true;
+            else if (!snapshotStr.equalsIgnoreCase("false")) {
+                Logger.getLogger(SWS.class.getName()).log(Level.SEVERE, "Invalid SNAPSHOT parameter value ({0})!", snapshotStr);
+                throw new ServletException("Servlet "+SWS.class.getName()+": initialisation failed: invalid SNAPSHOT parameter value ("+snapshotStr+")!");
+            }
+        }
+        
+        String iteratorDebugStr = getServletConfig().getInitParameter("ITERATOR_DEBUG");
+        if (iteratorDebugStr!=null && !(iteratorDebugStr=iteratorDebugStr.trim()).isEmpty()) {
+            if (iteratorDebugStr.equalsIgnoreCase("true")) IteratorTracker.setDebug(true);
+            else if (!iteratorDebugStr.equalsIgnoreCase("false")) {
+                Logger.getLogger(SWS.class.getName()).log(Level.SEVERE, "Invalid ITERATOR_DEBUG parameter value ({0})!", iteratorDebugStr);
+                throw new ServletException("Servlet "+SWS.class.getName()+": initialisation failed: invalid ITERATOR_DEBUG parameter value ("+iteratorDebugStr+")!");
+            }
+        }
+        try {
+            IteratorTracker.registerMBean();
+        }
+        catch (JMException ex) {
+            Logger.getLogger(SWS.class.getName()).log(Level.WARNING, "Could not register the open iterators MBean!", ex);
+        }
+        
         String dataPath = getServletConfig().getInitParameter("DATA");
 
         if (dataPath!=null && !(dataPath=dataPath.trim()).isEmpty()) {
@@ -146,12 +175,33 @@ public class SWS extends HttpServlet {
             String tdbDir = dataPath+"tdb";
             String indexDir = dataPath+"index";
             
-            SKOS skos = SKOSFactory.createSKOSThesaurus(tdbDir);
+            File snapshotFile = new File(dataPath+"skos.snapshot");
+            
+            SKOS skos;
+            if (snapshot && snapshotFile.isFile()) {
+                try {
+                    skos = SnapshotFile.open(snapshotFile);
+                    Logger.getLogger(SWS.class.getName()).log(Level.INFO, "Opened concept store {0}", snapshotFile.getPath());
+                } catch (IOException ex) {
+                    Logger.getLogger(SWS.class.getName()).log(Level.SEVERE, "IO error encountered while trying to open the concept store!", ex);
+                    throw new ServletException("IO error encountered while trying to open the concept store!");
+                }
+            }
+            else if (snapshot) {
+                skos = SKOSFactory.createSKOSSnapshot(tdbDir);
+                Logger.getLogger(SWS.class.getName()).log(Level.INFO, "Loaded an in-memory snapshot of the thesaurus from {0}", tdbDir);
+            }
+            else skos = SKOSFactory.createSKOSThesaurus(tdbDir);
 
             try {
                 SKOSIndex index = SKOSIndexFactory.createLuceneSKOSIndex(indexDir, langs);
                 index.setMinKeywordLength(minKwLength);
-                thesaurus = new DefaultSWSThesaurus(skos, index);
+                DefaultSWSThesaurus defaultThesaurus = new DefaultSWSThesaurus(skos, index);
+                // Build the broader links and narrower counts once, so that
+                // ancestries and counts are served from memory
+                defaultThesaurus.getConceptGraph().loadBroaderHierarchy();
+                defaultThesaurus.getConceptGraph().loadNarrowerCounts(null, null);
+                thesaurus = defaultThesaurus;
                 swsHelper = new SWSHelper(thesaurus, requiredFilter, hm, minKwLength);
                 this.initialised = true;
                 Logger.getLogger(SWS.class.getName()).log(Level.INFO, "{0} Servlet started successfully.", SWS.class.getName());
@@ -187,12 +237,32 @@ public class SWS extends HttpServlet {
 
     /**
      * Processes requests for both HTTP <code>GET</code> and <code>POST</code> methods.
+     * The iterators opened while processing the request are tracked in an
+     * {@link IteratorTracker.Scope}, which reports those left open.
      * @param request servlet request
      * @param response servlet response
      * @throws ServletException if a servlet-specific error occurs
      * @throws IOException if an I/O error occurs
      */
     protected void processRequest(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+        IteratorTracker.Scope scope = IteratorTracker.openScope("SWS "+request.getParameter(RequestParam.request.name()));
+        try {
+            this.dispatchRequest(request, response);
+        }
+        finally {
+            scope.close();
+        }
+    }
+
+    /**
+     * Checks the output format and request type of a request, and processes
+     * it
+     * @param request servlet request
+     * @param response servlet response
+     * @throws ServletException if a servlet-specific error occurs
+     * @throws IOException if an I/O error occurs
+     */
+    protected void dispatchRequest(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
         OutputFormat outputFormat = DEFAULT_OUTPUT_FORMAT;
         if (request.getParameterMap().containsKey(RequestParam.acceptFormat.name())) {
             String stringFormat = request.getParameter(RequestParam.acceptFormat.name());
@@ -232,6 +302,7 @@ public class SWS extends HttpServlet {
                             case GetRelatedConcepts: processGetRelatedConceptsRequest(request, response, outputFormat, callback); break;
                             case GetDirectNarrowerConcepts: processGetDirectNarrowerConceptsRequest(request, response, outputFormat, callback); break;
                             case GetDirectBroaderConcepts: processGetDirectBroaderConceptsRequest(request, response, outputFormat, callback); break;
+                            case GetConceptAncestry: processGetConceptAncestryRequest(request, response, outputFormat, callback); break;
                             case SearchConcepts: processSearchConceptRequest(request, response, outputFormat, callback); break;
                             case InterpretKeyword: processInterpretKeywordRequest(request, response, outputFormat, callback); break;
                         }
@@ -427,6 +498,18 @@ public class SWS extends HttpServlet {
         }
     }
 
+    protected void processGetConceptAncestryRequest(HttpServletRequest request, HttpServletResponse response, OutputFormat outputFormat, String callback) throws ServletException, IOException {
+        try {
+            long t0 = System.currentTimeMillis();
+            String responseDoc  = swsHelper.getConceptAncestryResponse(request, outputFormat);
+            long d = System.currentTimeMillis() - t0;
+            this.returnDocumentAsResponse(responseDoc, response, outputFormat, callback, d);
+        }
+        catch (SWSException e) {
+            this.raiseException(e, response, outputFormat, callback);
+        }
+    }
+
     protected void processSearchConceptRequest(HttpServletRequest request, HttpServletResponse response, OutputFormat outputFormat, String callback) throws ServletException, IOException {
         try {
             //SWS_1_0_Helper swsHelper = new SWS_1_0_Helper(this.persOntConfig);
@@ -21,6 +21,7 @@ package ie.cmrc.smtx.sws.server;
 
 import ie.cmrc.smtx.base.SemanticEntity;
 import ie.cmrc.smtx.base.serialisation.ElementSetName;
+import ie.cmrc.smtx.base.serialisation.Namespaces;
 import ie.cmrc.smtx.base.serialisation.json.JSONSerialiser;
 import ie.cmrc.smtx.base.serialisation.rdfxml.RDFXMLSerialiser;
 import ie.cmrc.smtx.skos.model.SKOSCollection;
@@ -43,9 +44,15 @@ import ie.cmrc.util.Term;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import javax.servlet.http.HttpServletRequest;
 import org.dom4j.Document;
+import org.dom4j.Element;
+import org.dom4j.QName;
+import org.json.simple.JSONArray;
 import org.json.simple.JSONObject;
 
 
@@ -55,6 +62,13 @@ import org.json.simple.JSONObject;
  */
 public class SWSHelper {
     
+    /**
+     * Names of the properties carrying the numbers of direct and transitive
+     * narrower concepts in navigation responses
+     */
+    private static final String NARROWER_COUNT = "narrowerCount";
+    private static final String DESCENDANT_COUNT = "descendantCount";
+    
     private final SWSThesaurus thesaurus;
     
     private final FilterType requiredFilter;
@@ -183,7 +197,7 @@ public class SWSHelper {
         CloseableIterator<SKOSConcept> result = thesaurus.listTopConcepts(csUri, collectionUri);
         
         
-        return this.resultToString(result, outputFormat, elementSetName, responseLanguage);
+        return this.conceptResultToString(result, outputFormat, elementSetName, responseLanguage, csUri, collectionUri);
 
     }
 
@@ -201,7 +215,7 @@ public class SWSHelper {
         
         List<SKOSConcept> result = thesaurus.getBroadestConcepts(csUri, collectionUri);
         
-        return this.resultToString(result, outputFormat, elementSetName, responseLanguage);
+        return this.conceptResultToString(result, outputFormat, elementSetName, responseLanguage, csUri, collectionUri);
 
     }
 
@@ -228,6 +242,13 @@ public class SWSHelper {
         ElementSetName elementSetName = this.getElementSet(request);
         String responseLanguage = this.getResponseLanguage(request);
 
+        List<String> conceptUris = this.getParameterValues(request, RequestParam.concept);
+        if (conceptUris.size() > 1) {
+            // Several concepts requested: fetch them in one batch
+            List<SKOSConcept> result = thesaurus.getConcepts(conceptUris);
+            return this.resultToString(result, outputFormat, elementSetName, responseLanguage);
+        }
+
         String conceptUri = this.getParameterValue(request, RequestParam.concept);
         if (conceptUri != null) {
 
@@ -283,12 +304,21 @@ public class SWSHelper {
         }
         HierarchyMethod hirerachyMethod = new HierarchyMethod(rootType, relType, responseLanguage);
         
+        // In a polyhierarchy, shared nodes are serialised once and then referenced
+        String sharedStr = this.getParameterValue(request, RequestParam.sharedNodes);
+        boolean shared = false;
+        if (sharedStr!=null && !sharedStr.isEmpty()) {
+            shared = Boolean.valueOf(sharedStr);
+        }
+        
         if (conceptUri==null || conceptUri.isEmpty()) {
             List<SKOSConceptNode> result = this.thesaurus.getConceptHierarchy(csUri, collectionUri, hirerachyMethod);
+            if (shared) return this.sharedNodeResultToString(result, outputFormat, elementSetName, responseLanguage);
             return this.nodeResultToString(result, outputFormat, elementSetName, responseLanguage);
         }
         else {
             SKOSConceptNode result = this.thesaurus.getConceptTree(conceptUri, csUri, collectionUri, hirerachyMethod);
+            if (shared) return this.sharedNodeResultToString(Collections.singletonList(result), outputFormat, elementSetName, responseLanguage);
             return this.nodeResultToString(result, outputFormat, elementSetName, responseLanguage);
         }
     }
@@ -349,7 +379,7 @@ public class SWSHelper {
 
                 List<SKOSConcept> result = thesaurus.getDirectNarrowerConcepts(conceptUri, csUri, collectionUri);
 
-                return this.resultToString(result, outputFormat, elementSetName, responseLanguage);
+                return this.conceptResultToString(result, outputFormat, elementSetName, responseLanguage, csUri, collectionUri);
             }
             else {
                 throw (new SWSException(SWSExceptionCode.INVALID_PARAMETER_VALUE, RequestParam.concept+" value is empty!", RequestParam.concept.name()));
@@ -438,12 +468,19 @@ public class SWSHelper {
                 
                 List<String> conceptSchemeUris = this.getParameterValues(request, RequestParam.conceptScheme);
                 List<String> collectionUris = this.getParameterValues(request, RequestParam.collection);
-                if (elementSetName.compareTo(ElementSetName.BRIEF)<=0) {
+                
+                String withinConceptUri = this.getParameterValue(request, RequestParam.withinConcept);
+                if (withinConceptUri!=null && withinConceptUri.isEmpty()) {
+                    throw (new SWSException(SWSExceptionCode.INVALID_PARAMETER_VALUE, RequestParam.withinConcept+" value is empty!", RequestParam.withinConcept.name()));
+                }
+                
+                if (withinConceptUri==null && elementSetName.compareTo(ElementSetName.BRIEF)<=0) {
                     List<SemanticEntity> result = this.thesaurus.search(new Term(kw, keywordLanguage), field, conceptSchemeUris, collectionUris, offset, limit);
                     return this.resultToString(result, outputFormat, elementSetName, responseLanguage);
                 }
                 else {
-                    List<SKOSConcept> result = this.thesaurus.searchConcepts(new Term(kw, keywordLanguage), field, conceptSchemeUris, collectionUris, offset, limit);
+                    // Searches within a concept only return concepts
+                    List<SKOSConcept> result = this.thesaurus.searchConcepts(new Term(kw, keywordLanguage), field, conceptSchemeUris, collectionUris, withinConceptUri, offset, limit);
                     return this.resultToString(result, outputFormat, elementSetName, responseLanguage);
                 }
             }
@@ -511,6 +548,24 @@ public class SWSHelper {
     }
 
     private String resultToString(CloseableIterator<? extends SemanticEntity> result, OutputFormat outputFormat, ElementSetName elementSetName, String responseLanguage) {
+        try {
+            if (outputFormat==OutputFormat.APPLICATION_JSON) {
+                JSONObject doc = JSONSerialiser.makeRDFJSONDocument(result, elementSetName, responseLanguage);
+                return doc.toJSONString();
+            }
+            else {
+                // This must be application/xml
+                Document doc = RDFXMLSerialiser.makeRDFXMLDocument(result, elementSetName, responseLanguage);
+                return doc.asXML();
+            }
+        }
+        finally {
+            // The serialisers may stop before the end of the result
+            if (result != null) result.close();
+        }
+    }
+
+    private String resultToString(Collection<? extends SemanticEntity> result, OutputFormat outputFormat, ElementSetName elementSetName, String responseLanguage) {
         if (outputFormat==OutputFormat.APPLICATION_JSON) {
             JSONObject doc = JSONSerialiser.makeRDFJSONDocument(result, elementSetName, responseLanguage);
             return doc.toJSONString();
@@ -521,18 +576,74 @@ public class SWSHelper {
             return doc.asXML();
         }
     }
+    
+    private String conceptResultToString(CloseableIterator<? extends SKOSConcept> result, OutputFormat outputFormat, ElementSetName elementSetName, String responseLanguage, String csUri, String collectionUri) {
+        try {
+            if (outputFormat==OutputFormat.APPLICATION_JSON) {
+                JSONObject doc = JSONSerialiser.makeRDFJSONDocument(result, elementSetName, responseLanguage);
+                this.addNarrowerCounts(doc, csUri, collectionUri);
+                return doc.toJSONString();
+            }
+            else {
+                // This must be application/xml
+                Document doc = RDFXMLSerialiser.makeRDFXMLDocument(result, elementSetName, responseLanguage);
+                this.addNarrowerCounts(doc, csUri, collectionUri);
+                return doc.asXML();
+            }
+        }
+        finally {
+            // The serialisers may stop before the end of the result
+            if (result != null) result.close();
+        }
+    }
 
-    private String resultToString(Collection<? extends SemanticEntity> result, OutputFormat outputFormat, ElementSetName elementSetName, String responseLanguage) {
+    private String conceptResultToString(Collection<? extends SKOSConcept> result, OutputFormat outputFormat, ElementSetName elementSetName, String responseLanguage, String csUri, String collectionUri) {
         if (outputFormat==OutputFormat.APPLICATION_JSON) {
             JSONObject doc = JSONSerialiser.makeRDFJSONDocument(result, elementSetName, responseLanguage);
+            this.addNarrowerCounts(doc, csUri, collectionUri);
             return doc.toJSONString();
         }
         else {
             // This must be application/xml
             Document doc = RDFXMLSerialiser.makeRDFXMLDocument(result, elementSetName, responseLanguage);
+            this.addNarrowerCounts(doc, csUri, collectionUri);
             return doc.asXML();
         }
     }
+
+    /**
+     * Adds the numbers of direct and transitive narrower concepts to the
+     * concepts of a JSON response, so that clients can tell which concepts
+     * have children without requesting them
+     */
+    private void addNarrowerCounts(JSONObject doc, String csUri, String collectionUri) {
+        ((JSONObject) doc.get("@context")).put(Namespaces.SWS.getPrefix(), Namespaces.SWS.getURI());
+        for (Object resource: (JSONArray) doc.get("@graph")) {
+            JSONObject concept = (JSONObject) resource;
+            String conceptUri = (String) concept.get("@id");
+            concept.put(Namespaces.SWS.getPrefix()+":"+NARROWER_COUNT, this.thesaurus.countDirectNarrowerConcepts(conceptUri, csUri, collectionUri));
+            concept.put(Namespaces.SWS.getPrefix()+":"+DESCENDANT_COUNT, this.thesaurus.countTransitiveNarrowerConcepts(conceptUri, csUri, collectionUri));
+        }
+    }
+
+    /**
+     * Adds the numbers of direct and transitive narrower concepts to the
+     * concepts of an XML response, so that clients can tell which concepts
+     * have children without requesting them
+     */
+    private void addNarrowerCounts(Document doc, String csUri, String collectionUri) {
+        Element rdfElt = doc.getRootElement();
+        rdfElt.add(Namespaces.SWS);
+        QName aboutQN = new QName("about", Namespaces.RDF);
+        QName datatypeQN = new QName("datatype", Namespaces.RDF);
+        String datatype = Namespaces.XSD.getURI()+"nonNegativeInteger";
+        for (Object child: rdfElt.elements()) {
+            Element conceptElt = (Element) child;
+            String conceptUri = conceptElt.attributeValue(aboutQN);
+            conceptElt.addElement(new QName(NARROWER_COUNT, Namespaces.SWS)).addAttribute(datatypeQN, datatype).setText(String.valueOf(this.thesaurus.countDirectNarrowerConcepts(conceptUri, csUri, collectionUri)));
+            conceptElt.addElement(new QName(DESCENDANT_COUNT, Namespaces.SWS)).addAttribute(datatypeQN, datatype).setText(String.valueOf(this.thesaurus.countTransitiveNarrowerConcepts(conceptUri, csUri, collectionUri)));
+        }
+    }
     
     private String nodeResultToString(SKOSConceptNode result, OutputFormat outputFormat, ElementSetName elementSetName, String responseLanguage) {
         if (outputFormat==OutputFormat.APPLICATION_JSON) {
@@ -558,6 +669,33 @@ public class SWSHelper {
         }
     }
     
+    private String sharedNodeResultToString(Collection<? extends SKOSConceptNode> result, OutputFormat outputFormat, ElementSetName elementSetName, String responseLanguage) {
+        Set<String> serialisedUris = new HashSet<>();
+        if (outputFormat==OutputFormat.APPLICATION_JSON) {
+            JSONObject doc = JSONSerialiser.makeRDFJSONDocument(Collections.<SKOSConceptNode>emptyList(), elementSetName, responseLanguage);
+            JSONArray graph = (JSONArray) doc.get("@graph");
+            for (SKOSConceptNode node: result) {
+                if (node != null) {
+                    JSONObject jsonObject = node.toJSONObject(elementSetName, responseLanguage, serialisedUris);
+                    if (jsonObject != null) graph.add(jsonObject);
+                }
+            }
+            return doc.toJSONString();
+        }
+        else {
+            // This must be application/xml
+            Document doc = RDFXMLSerialiser.makeRDFXMLDocument(Collections.<SKOSConceptNode>emptyList(), elementSetName, responseLanguage);
+            Element rdfElt = doc.getRootElement();
+            for (SKOSConceptNode node: result) {
+                if (node != null) {
+                    Element xmlElement = node.toXMLElement(elementSetName, responseLanguage, serialisedUris);
+                    if (xmlElement != null) rdfElt.add(xmlElement);
+                }
+            }
+            return doc.asXML();
+        }
+    }
+    
     private ElementSetName getElementSet(HttpServletRequest request) throws SWSException {
         ElementSetName elementSetName = ElementSetName.ABSTRACT;
         String stringESN = "";
@@ -579,6 +717,39 @@ public class SWSHelper {
         return responseLanguage;
     }
     
+    public String getConceptAncestryResponse(HttpServletRequest request, OutputFormat outputFormat) throws SWSException {
+
+        ElementSetName elementSetName = this.getElementSet(request);
+        String responseLanguage = this.getResponseLanguage(request);
+        
+        String csUri = this.getParameterValue(request, RequestParam.conceptScheme);
+        String collectionUri = this.getParameterValue(request, RequestParam.collection);
+        
+        List<String> conceptUris = this.getParameterValues(request, RequestParam.concept);
+        
+        if (!conceptUris.isEmpty()) {
+            this.checkFilterCondition(csUri, collectionUri);
+
+            if (conceptUris.size() > 1) {
+                // Several concepts requested: build their ancestries in one batch
+                List<SKOSConceptNode> result = this.thesaurus.getConceptAncestries(conceptUris, csUri, collectionUri);
+                return this.nodeResultToString(result, outputFormat, elementSetName, responseLanguage);
+            }
+            else {
+                SKOSConceptNode result = this.thesaurus.getConceptAncestry(conceptUris.get(0), csUri, collectionUri);
+                return this.nodeResultToString(result, outputFormat, elementSetName, responseLanguage);
+            }
+        }
+        else if (this.getParameterValue(request, RequestParam.concept) != null) {
+            throw (new SWSException(SWSExceptionCode.INVALID_PARAMETER_VALUE, RequestParam.concept+" value is empty!", RequestParam.concept.name()));
+        }
+        else {
+            throw (new SWSException(SWSExceptionCode.MISSING_PARAMETER, RequestParam.concept+" parameter is missing!", RequestParam.concept.name()));
+        }
+    }
+
+
+
     private String getParameterValue(HttpServletRequest request, RequestParam param) {
         if (request.getParameterMap().containsKey(param.name())) {
             String value = request.getParameter(param.name()).trim();
@@ -0,0 +1,246 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus;
+
+import ie.cmrc.smtx.base.SemanticEntity;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import ie.cmrc.smtx.skos.index.IndexField;
+import ie.cmrc.util.Term;
+import java.io.IOException;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Asynchronous counterpart of {@link SWSThesaurus}. Each operation returns
+ * immediately with a {@code CompletableFuture} that is completed with the
+ * result of the corresponding {@link SWSThesaurus} operation, so that callers
+ * can compose lookups without blocking a thread on each one.<br/>
+ * Operations that list resources complete with a {@code List} rather than a
+ * {@link ie.cmrc.smtx.skos.model.util.CloseableIterator}, as iterators over
+ * the underlying store may not be consumed safely from another thread.<br/>
+ * Unless stated otherwise, {@code null} scheme and collection URIs mean that
+ * results are not filtered by concept scheme or collection, as in
+ * {@link SWSThesaurus}.
+ *
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public interface AsyncSWSThesaurus {
+
+    /**
+     * Lists the SKOS concept schemes of this thesaurus
+     * @return Future completed with the SKOS concept schemes of the thesaurus
+     * @see SWSThesaurus#listConceptSchemes()
+     */
+    public CompletableFuture<List<SKOSConceptScheme>> getConceptSchemes();
+
+    /**
+     * Gets the concept scheme with the provided URI
+     * @param conceptSchemeURI URI of the concept scheme
+     * @return Future completed with the concept scheme whose URI is
+     * {@code conceptSchemeURI} if any, otherwise with {@code null}
+     * @see SWSThesaurus#getConceptScheme(java.lang.String)
+     */
+    public CompletableFuture<SKOSConceptScheme> getConceptScheme(String conceptSchemeURI);
+
+    /**
+     * Lists the SKOS collections in the provided concept scheme and collection
+     * @param conceptSchemeURI URI of the concept scheme to filter by
+     * @param skosCollectionURI URI of the collection to filter by
+     * @return Future completed with the matching SKOS collections
+     * @see SWSThesaurus#listCollections(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<SKOSCollection>> getCollections(String conceptSchemeURI, String skosCollectionURI);
+
+    /**
+     * Gets the SKOS collection with the provided URI
+     * @param skosCollectionURI URI of the SKOS collection
+     * @return Future completed with the SKOS collection whose URI is
+     * {@code skosCollectionURI} if any, otherwise with {@code null}
+     * @see SWSThesaurus#getCollection(java.lang.String)
+     */
+    public CompletableFuture<SKOSCollection> getCollection(String skosCollectionURI);
+
+    /**
+     * Lists the top concepts of the provided concept scheme and collection
+     * @param conceptSchemeURI URI of the concept scheme to filter by
+     * @param skosCollectionURI URI of the collection to filter by
+     * @return Future completed with the matching top concepts
+     * @see SWSThesaurus#listTopConcepts(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<SKOSConcept>> getTopConcepts(String conceptSchemeURI, String skosCollectionURI);
+
+    /**
+     * Gets the broadest concepts of the provided concept scheme and collection
+     * @param conceptSchemeURI URI of the concept scheme to filter by
+     * @param skosCollectionURI URI of the collection to filter by
+     * @return Future completed with the matching broadest concepts
+     * @see SWSThesaurus#getBroadestConcepts(java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<SKOSConcept>> getBroadestConcepts(String conceptSchemeURI, String skosCollectionURI);
+
+    /**
+     * Builds the concept hierarchy of the provided concept scheme and collection
+     * @param conceptSchemeURI URI of the concept scheme to filter by
+     * @param skosCollectionURI URI of the collection to filter by
+     * @param hierarchyMethod Method used to build the hierarchy
+     * @return Future completed with the root nodes of the hierarchy
+     * @see SWSThesaurus#getConceptHierarchy(java.lang.String, java.lang.String, ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod)
+     */
+    public CompletableFuture<List<SKOSConceptNode>> getConceptHierarchy(String conceptSchemeURI, String skosCollectionURI, HierarchyMethod hierarchyMethod);
+
+    /**
+     * Builds the concept tree rooted at the provided concept
+     * @param rootConceptURI URI of the root concept
+     * @param conceptSchemeURI URI of the concept scheme to filter by
+     * @param skosCollectionURI URI of the collection to filter by
+     * @param hierarchyMethod Method used to build the tree
+     * @return Future completed with the root node of the tree, or with
+     * {@code null} if no concept exists with the provided URI
+     * @see SWSThesaurus#getConceptTree(java.lang.String, java.lang.String, java.lang.String, ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod)
+     */
+    public CompletableFuture<SKOSConceptNode> getConceptTree(String rootConceptURI, String conceptSchemeURI, String skosCollectionURI, HierarchyMethod hierarchyMethod);
+
+    /**
+     * Lists the concepts related to the provided concept
+     * @param conceptURI URI of the concept
+     * @param relationshipType Type of the semantic relationship
+     * @param conceptSchemeURIs URIs of the concept schemes to filter by
+     * @param skosCollectionURIs URIs of the collections to filter by
+     * @return Future completed with the related concepts
+     * @see SWSThesaurus#listRelatedConcepts(java.lang.String, ie.cmrc.smtx.skos.model.SKOSSemanticProperty, java.util.Collection, java.util.Collection)
+     */
+    public CompletableFuture<List<SKOSConcept>> getRelatedConcepts(String conceptURI, SKOSSemanticProperty relationshipType, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs);
+
+    /**
+     * Gets the direct narrower concepts of the provided concept
+     * @param conceptURI URI of the concept
+     * @param conceptSchemeURI URI of the concept scheme to filter by
+     * @param skosCollectionURI URI of the collection to filter by
+     * @return Future completed with the direct narrower concepts
+     * @see SWSThesaurus#getDirectNarrowerConcepts(java.lang.String, java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<SKOSConcept>> getDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI);
+
+    /**
+     * Gets the direct broader concepts of the provided concept
+     * @param conceptURI URI of the concept
+     * @param conceptSchemeURI URI of the concept scheme to filter by
+     * @param skosCollectionURI URI of the collection to filter by
+     * @return Future completed with the direct broader concepts
+     * @see SWSThesaurus#getDirectBroaderConcepts(java.lang.String, java.lang.String, java.lang.String)
+     */
+    public CompletableFuture<List<SKOSConcept>> getDirectBroaderConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI);
+
+    /**
+     * Gets the concept with the provided URI
+     * @param conceptURI URI of the concept
+     * @return Future completed with the concept whose URI is
+     * {@code conceptURI} if any, otherwise with {@code null}
+     * @see SWSThesaurus#getConcept(java.lang.String)
+     */
+    public CompletableFuture<SKOSConcept> getConcept(String conceptURI);
+
+    /**
+     * Gets the concepts with the provided URIs
+     * @param conceptURIs URIs of the concepts
+     * @return Future completed with the concepts whose URIs are in
+     * {@code conceptURIs}
+     * @see SWSThesaurus#getConcepts(java.util.Collection)
+     */
+    public CompletableFuture<List<SKOSConcept>> getConcepts(Collection<String> conceptURIs);
+
+    /**
+     * Searches the index for semantic entities matching the provided keyword
+     * @param keyword Keyword to search for
+     * @param searchField Field to search in
+     * @param conceptSchemeURIs URIs of the concept schemes to filter by
+     * @param skosCollectionURIs URIs of the collections to filter by
+     * @param offset Offset of the first result
+     * @param limit Maximum number of results
+     * @return Future completed with the matching semantic entities
+     * @see SWSThesaurus#search(ie.cmrc.util.Term, ie.cmrc.smtx.skos.index.IndexField.Searchable, java.util.Collection, java.util.Collection, int, int)
+     */
+    public CompletableFuture<List<SemanticEntity>> search(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit);
+
+    /**
+     * Searches the index for semantic entities matching the provided query
+     * @param queryString Query string
+     * @param conceptSchemeURIs URIs of the concept schemes to filter by
+     * @param skosCollectionURIs URIs of the collections to filter by
+     * @param offset Offset of the first result
+     * @param limit Maximum number of results
+     * @return Future completed with the matching semantic entities. If the
+     * query cannot be parsed, then the future completes exceptionally with
+     * a {@code java.text.ParseException}.
+     * @see SWSThesaurus#search(java.lang.String, java.util.Collection, java.util.Collection, int, int)
+     */
+    public CompletableFuture<List<SemanticEntity>> search(String queryString, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit);
+
+    /**
+     * Searches for the concepts matching the provided keyword
+     * @param keyword Keyword to search for
+     * @param searchField Field to search in
+     * @param conceptSchemeURIs URIs of the concept schemes to filter by
+     * @param skosCollectionURIs URIs of the collections to filter by
+     * @param offset Offset of the first result
+     * @param limit Maximum number of results
+     * @return Future completed with the matching concepts
+     * @see SWSThesaurus#searchConcepts(ie.cmrc.util.Term, ie.cmrc.smtx.skos.index.IndexField.Searchable, java.util.Collection, java.util.Collection, int, int)
+     */
+    public CompletableFuture<List<SKOSConcept>> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit);
+
+    /**
+     * Searches for the concepts matching the provided query
+     * @param queryString Query string
+     * @param conceptSchemeURIs URIs of the concept schemes to filter by
+     * @param skosCollectionURIs URIs of the collections to filter by
+     * @param offset Offset of the first result
+     * @param limit Maximum number of results
+     * @return Future completed with the matching concepts. If the query cannot
+     * be parsed, then the future completes exceptionally with a
+     * {@code java.text.ParseException}.
+     * @see SWSThesaurus#searchConcepts(java.lang.String, java.util.Collection, java.util.Collection, int, int)
+     */
+    public CompletableFuture<List<SKOSConcept>> searchConcepts(String queryString, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit);
+
+    /**
+     * Interprets the provided keyword in the provided concept schemes and
+     * SKOS collections
+     * @param keyword Keyword to interpret
+     * @param conceptSchemeURIs URIs of the target concept schemes
+     * @param skosCollectionURIs URIs of the target SKOS collections
+     * @return Future completed with the concepts matching the meaning of the
+     * provided keyword
+     * @see SWSThesaurus#interpretKeyword(ie.cmrc.util.Term, java.util.Collection, java.util.Collection)
+     */
+    public CompletableFuture<List<SKOSConcept>> interpretKeyword(Term keyword, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs);
+
+    /**
+     * Closes the thesaurus and frees up resources held. Pending operations
+     * may fail once the thesaurus is closed.
+     * @throws java.io.IOException If an IO error is encountered
+     */
+    public void close() throws IOException;
+}
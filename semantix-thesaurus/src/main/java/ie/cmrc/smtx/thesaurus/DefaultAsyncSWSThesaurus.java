@@ -0,0 +1,648 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus;
+
+import ie.cmrc.smtx.base.SemanticEntity;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import ie.cmrc.smtx.skos.index.IndexField;
+import ie.cmrc.smtx.skos.index.Scored;
+import ie.cmrc.util.Term;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Supplier;
+
+/**
+ * Default implementation of {@link AsyncSWSThesaurus}. It runs the operations
+ * of a {@link DefaultSWSThesaurus} on the provided {@code Executor}. Steps of
+ * an operation that do not depend on each other run concurrently: for example
+ * the target concept, concept schemes and collections of a relationship query
+ * are resolved in parallel, and so are the narrower and related concept
+ * expansions of a keyword interpretation.<br/>
+ * The underlying SKOS thesaurus and index must support concurrent reads.
+ *
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class DefaultAsyncSWSThesaurus implements AsyncSWSThesaurus {
+
+    /**
+     * Synchronous thesaurus whose operations are run asynchronously
+     */
+    protected final DefaultSWSThesaurus thesaurus;
+
+    /**
+     * Executor used to run the operations
+     */
+    protected final Executor executor;
+
+    /**
+     * Constructs a {@link DefaultAsyncSWSThesaurus} that runs the operations of
+     * the provided thesaurus on the common fork-join pool. As the operations
+     * block on the underlying store, a dedicated executor should be preferred
+     * for heavy loads (see
+     * {@link #DefaultAsyncSWSThesaurus(ie.cmrc.smtx.thesaurus.DefaultSWSThesaurus, java.util.concurrent.Executor)}).
+     * @param thesaurus Synchronous thesaurus
+     */
+    public DefaultAsyncSWSThesaurus(DefaultSWSThesaurus thesaurus) {
+        this(thesaurus, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Constructs a {@link DefaultAsyncSWSThesaurus} that runs the operations of
+     * the provided thesaurus on the provided executor
+     * @param thesaurus Synchronous thesaurus
+     * @param executor Executor used to run the operations
+     * @throws IllegalArgumentException if {@code thesaurus} or
+     * {@code executor} is {@code null}
+     */
+    public DefaultAsyncSWSThesaurus(DefaultSWSThesaurus thesaurus, Executor executor) {
+        if (thesaurus == null) throw new IllegalArgumentException("DefaultAsyncSWSThesaurus constructor: thesaurus argument must not be null");
+        if (executor == null) throw new IllegalArgumentException("DefaultAsyncSWSThesaurus constructor: executor argument must not be null");
+        this.thesaurus = thesaurus;
+        this.executor = executor;
+    }
+
+    /**
+     * Returns the synchronous thesaurus whose operations are run asynchronously
+     * @return Synchronous thesaurus
+     */
+    public DefaultSWSThesaurus getThesaurus() {
+        return this.thesaurus;
+    }
+
+    /**
+     * Returns the executor used to run the operations
+     * @return Executor
+     */
+    public Executor getExecutor() {
+        return this.executor;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConceptScheme>> getConceptSchemes() {
+        return this.supply(() -> toList(thesaurus.listConceptSchemes()));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SKOSConceptScheme> getConceptScheme(final String conceptSchemeURI) {
+        return this.supply(() -> thesaurus.getConceptScheme(conceptSchemeURI));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSCollection>> getCollections(final String conceptSchemeURI, final String skosCollectionURI) {
+        final CompletableFuture<SKOSConceptScheme> conceptScheme = this.getConceptScheme(conceptSchemeURI);
+        final CompletableFuture<SKOSCollection> skosCollection = this.getCollection(skosCollectionURI);
+        return conceptScheme.thenCombineAsync(skosCollection, (cs, coll) -> {
+            if ((conceptSchemeURI==null || cs!=null) && (skosCollectionURI==null || coll!=null)) {
+                return toList(thesaurus.skos.listCollections(cs, coll));
+            }
+            else return new ArrayList<SKOSCollection>(0);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SKOSCollection> getCollection(final String skosCollectionURI) {
+        return this.supply(() -> thesaurus.getCollection(skosCollectionURI));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> getTopConcepts(final String conceptSchemeURI, final String skosCollectionURI) {
+        final CompletableFuture<SKOSConceptScheme> conceptScheme = this.getConceptScheme(conceptSchemeURI);
+        final CompletableFuture<SKOSCollection> skosCollection = this.getCollection(skosCollectionURI);
+        return conceptScheme.thenCombineAsync(skosCollection, (cs, coll) -> {
+            if ((conceptSchemeURI==null || cs!=null) && (skosCollectionURI==null || coll!=null)) {
+                return toList(thesaurus.skos.listTopConcepts(cs, coll));
+            }
+            else return new ArrayList<SKOSConcept>(0);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> getBroadestConcepts(final String conceptSchemeURI, final String skosCollectionURI) {
+        final CompletableFuture<SKOSConceptScheme> conceptScheme = this.getConceptScheme(conceptSchemeURI);
+        final CompletableFuture<SKOSCollection> skosCollection = this.getCollection(skosCollectionURI);
+        return conceptScheme.thenCombineAsync(skosCollection, (cs, coll) -> {
+            if ((conceptSchemeURI==null || cs!=null) && (skosCollectionURI==null || coll!=null)) {
+                return thesaurus.skos.getBroadestConcepts(cs, coll);
+            }
+            else return new ArrayList<SKOSConcept>(0);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConceptNode>> getConceptHierarchy(final String conceptSchemeURI, final String skosCollectionURI, final HierarchyMethod hierarchyMethod) {
+        final CompletableFuture<SKOSConceptScheme> conceptScheme = this.getConceptScheme(conceptSchemeURI);
+        final CompletableFuture<SKOSCollection> skosCollection = this.getCollection(skosCollectionURI);
+        return conceptScheme.thenCombineAsync(skosCollection, (cs, coll) -> {
+            if ((conceptSchemeURI==null || cs!=null) && (skosCollectionURI==null || coll!=null)) {
+                return thesaurus.skos.getConceptHierarchy(cs, coll, hierarchyMethod);
+            }
+            else return new ArrayList<SKOSConceptNode>(0);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param rootConceptURI {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @param hierarchyMethod {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SKOSConceptNode> getConceptTree(final String rootConceptURI, final String conceptSchemeURI, final String skosCollectionURI, final HierarchyMethod hierarchyMethod) {
+        final CompletableFuture<SKOSConcept> rootConcept = this.getConcept(rootConceptURI);
+        final CompletableFuture<SKOSConceptScheme> conceptScheme = this.getConceptScheme(conceptSchemeURI);
+        final CompletableFuture<SKOSCollection> skosCollection = this.getCollection(skosCollectionURI);
+        return CompletableFuture.allOf(rootConcept, conceptScheme, skosCollection).thenApplyAsync((v) -> {
+            SKOSConcept root = rootConcept.join();
+            SKOSConceptScheme cs = conceptScheme.join();
+            SKOSCollection coll = skosCollection.join();
+            if (root!=null && (conceptSchemeURI==null || cs!=null) && (skosCollectionURI==null || coll!=null)) {
+                return thesaurus.skos.getConceptTree(root, cs, coll, hierarchyMethod);
+            }
+            else return null;
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param conceptSchemeURIs {@inheritDoc}
+     * @param skosCollectionURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> getRelatedConcepts(final String conceptURI, final SKOSSemanticProperty relationshipType, final Collection<String> conceptSchemeURIs, final Collection<String> skosCollectionURIs) {
+        final CompletableFuture<SKOSConcept> concept = this.getConcept(conceptURI);
+        final CompletableFuture<List<SKOSConceptScheme>> conceptSchemes = this.resolveConceptSchemes(conceptSchemeURIs);
+        final CompletableFuture<List<SKOSCollection>> skosCollections = this.resolveCollections(skosCollectionURIs);
+        return CompletableFuture.allOf(concept, conceptSchemes, skosCollections).thenApplyAsync((v) -> {
+            SKOSConcept c = concept.join();
+            List<SKOSConceptScheme> schemes = conceptSchemes.join();
+            List<SKOSCollection> colls = skosCollections.join();
+            if (c!=null && resolved(conceptSchemeURIs, schemes) && resolved(skosCollectionURIs, colls)) {
+                return toList(thesaurus.skos.listSemanticRelations(c, relationshipType, schemes, colls));
+            }
+            else return new ArrayList<SKOSConcept>(0);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> getDirectNarrowerConcepts(final String conceptURI, final String conceptSchemeURI, final String skosCollectionURI) {
+        final CompletableFuture<SKOSConcept> concept = this.getConcept(conceptURI);
+        final CompletableFuture<SKOSConceptScheme> conceptScheme = this.getConceptScheme(conceptSchemeURI);
+        final CompletableFuture<SKOSCollection> skosCollection = this.getCollection(skosCollectionURI);
+        return CompletableFuture.allOf(concept, conceptScheme, skosCollection).thenApplyAsync((v) -> {
+            SKOSConcept c = concept.join();
+            SKOSConceptScheme cs = conceptScheme.join();
+            SKOSCollection coll = skosCollection.join();
+            if (c!=null && (conceptSchemeURI==null || cs!=null) && (skosCollectionURI==null || coll!=null)) {
+                return thesaurus.skos.getDirectNarrowerConcepts(c, cs, coll);
+            }
+            else return new ArrayList<SKOSConcept>(0);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> getDirectBroaderConcepts(final String conceptURI, final String conceptSchemeURI, final String skosCollectionURI) {
+        final CompletableFuture<SKOSConcept> concept = this.getConcept(conceptURI);
+        final CompletableFuture<SKOSConceptScheme> conceptScheme = this.getConceptScheme(conceptSchemeURI);
+        final CompletableFuture<SKOSCollection> skosCollection = this.getCollection(skosCollectionURI);
+        return CompletableFuture.allOf(concept, conceptScheme, skosCollection).thenApplyAsync((v) -> {
+            SKOSConcept c = concept.join();
+            SKOSConceptScheme cs = conceptScheme.join();
+            SKOSCollection coll = skosCollection.join();
+            if (c!=null && (conceptSchemeURI==null || cs!=null) && (skosCollectionURI==null || coll!=null)) {
+                return thesaurus.skos.getDirectBroaderConcepts(c, cs, coll);
+            }
+            else return new ArrayList<SKOSConcept>(0);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<SKOSConcept> getConcept(final String conceptURI) {
+        return this.supply(() -> thesaurus.getConcept(conceptURI));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> getConcepts(final Collection<String> conceptURIs) {
+        return this.supply(() -> thesaurus.getConcepts(conceptURIs));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param keyword {@inheritDoc}
+     * @param searchField {@inheritDoc}
+     * @param conceptSchemeURIs {@inheritDoc}
+     * @param skosCollectionURIs {@inheritDoc}
+     * @param offset {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SemanticEntity>> search(final Term keyword, final IndexField.Searchable searchField, final Collection<String> conceptSchemeURIs, final Collection<String> skosCollectionURIs, final int offset, final int limit) {
+        return this.supply(() -> thesaurus.search(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit));
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param queryString {@inheritDoc}
+     * @param conceptSchemeURIs {@inheritDoc}
+     * @param skosCollectionURIs {@inheritDoc}
+     * @param offset {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SemanticEntity>> search(final String queryString, final Collection<String> conceptSchemeURIs, final Collection<String> skosCollectionURIs, final int offset, final int limit) {
+        final CompletableFuture<List<SemanticEntity>> future = new CompletableFuture<>();
+        this.executor.execute(() -> {
+            try {
+                future.complete(thesaurus.search(queryString, conceptSchemeURIs, skosCollectionURIs, offset, limit));
+            }
+            catch (ParseException | RuntimeException ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The index search and the loading of the matched concepts from the
+     * thesaurus are run as two chained stages, so that no thread is held
+     * between them.
+     * @param keyword {@inheritDoc}
+     * @param searchField {@inheritDoc}
+     * @param conceptSchemeURIs {@inheritDoc}
+     * @param skosCollectionURIs {@inheritDoc}
+     * @param offset {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> searchConcepts(final Term keyword, final IndexField.Searchable searchField, final Collection<String> conceptSchemeURIs, final Collection<String> skosCollectionURIs, final int offset, final int limit) {
+        return this.supply(() -> thesaurus.index.search(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit))
+                .thenApplyAsync((results) -> this.loadConcepts(results), this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param queryString {@inheritDoc}
+     * @param conceptSchemeURIs {@inheritDoc}
+     * @param skosCollectionURIs {@inheritDoc}
+     * @param offset {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> searchConcepts(final String queryString, final Collection<String> conceptSchemeURIs, final Collection<String> skosCollectionURIs, final int offset, final int limit) {
+        final CompletableFuture<List<Scored<SemanticEntity>>> future = new CompletableFuture<>();
+        this.executor.execute(() -> {
+            try {
+                future.complete(thesaurus.index.query(queryString, conceptSchemeURIs, skosCollectionURIs, offset, limit));
+            }
+            catch (ParseException | RuntimeException ex) {
+                future.completeExceptionally(ex);
+            }
+        });
+        return future.thenApplyAsync((results) -> this.loadConcepts(results), this.executor);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The target concept schemes, the target collections and the concepts
+     * directly matching the keyword are looked up concurrently. The narrower
+     * concepts of each direct match, then the related concepts of each of
+     * these and their own narrower concepts, are expanded in parallel.
+     * Results are returned in the same order as
+     * {@link DefaultSWSThesaurus#interpretKeyword(ie.cmrc.util.Term, java.util.Collection, java.util.Collection)}.
+     * @param keyword {@inheritDoc}
+     * @param conceptSchemeURIs {@inheritDoc}
+     * @param skosCollectionURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CompletableFuture<List<SKOSConcept>> interpretKeyword(final Term keyword, final Collection<String> conceptSchemeURIs, final Collection<String> skosCollectionURIs) {
+        if (keyword == null) return CompletableFuture.completedFuture((List<SKOSConcept>)new ArrayList<SKOSConcept>(0));
+
+        final CompletableFuture<List<SKOSConceptScheme>> conceptSchemesFuture = this.resolveConceptSchemes(conceptSchemeURIs);
+        final CompletableFuture<List<SKOSCollection>> skosCollectionsFuture = this.resolveCollections(skosCollectionURIs);
+        final CompletableFuture<List<SKOSConcept>> directMatchesFuture = this.supply(() -> {
+            SKOSConcept concept = thesaurus.getConcept(keyword.getString());
+            if (concept != null) {
+                List<SKOSConcept> directMatches = new ArrayList<>(1);
+                directMatches.add(concept);
+                return directMatches;
+            }
+            int maxMatches = thesaurus.getInterpretationMaxMatches();
+            List<SKOSConcept> directMatches = thesaurus.searchConcepts(keyword, IndexField.Searchable.LABEL, conceptSchemeURIs, skosCollectionURIs, 0, maxMatches);
+            if (directMatches.isEmpty()) directMatches = thesaurus.searchConcepts(keyword, IndexField.Searchable.IX_LABEL, conceptSchemeURIs, skosCollectionURIs, 0, maxMatches);
+            if (directMatches.isEmpty()) directMatches = thesaurus.searchConcepts(keyword, null, conceptSchemeURIs, skosCollectionURIs, 0, maxMatches);
+            return directMatches;
+        });
+
+        return CompletableFuture.allOf(conceptSchemesFuture, skosCollectionsFuture, directMatchesFuture).thenComposeAsync((v) -> {
+            final List<SKOSConceptScheme> conceptSchemes = conceptSchemesFuture.join();
+            final List<SKOSCollection> skosCollections = skosCollectionsFuture.join();
+            if (!resolved(conceptSchemeURIs, conceptSchemes) || !resolved(skosCollectionURIs, skosCollections)) {
+                return CompletableFuture.completedFuture((List<SKOSConcept>)new ArrayList<SKOSConcept>(0));
+            }
+
+            // Each direct match followed by its narrower concepts
+            List<CompletableFuture<List<SKOSConcept>>> narrowerExpansions = new ArrayList<>();
+            for (final SKOSConcept matchingConcept: directMatchesFuture.join()) {
+                narrowerExpansions.add(this.supply(() -> {
+                    List<SKOSConcept> expansion = new ArrayList<>();
+                    expansion.add(matchingConcept);
+                    expansion.addAll(toList(matchingConcept.listSemanticRelations(SKOSSemanticProperty.narrowerTransitive)));
+                    return expansion;
+                }));
+            }
+
+            return allAsList(narrowerExpansions).thenComposeAsync((expansions) -> {
+                List<SKOSConcept> firstLevelNarrowerConcepts = new ArrayList<>();
+                for (List<SKOSConcept> expansion: expansions) firstLevelNarrowerConcepts.addAll(expansion);
+
+                if (!thesaurus.isInterpretWithRelatedConcepts() || firstLevelNarrowerConcepts.isEmpty()) {
+                    return CompletableFuture.completedFuture((List<SKOSConcept>)new ArrayList<SKOSConcept>(0));
+                }
+                return this.expandRelatedConcepts(firstLevelNarrowerConcepts, conceptSchemes, skosCollections);
+            }, this.executor);
+        }, this.executor);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @throws IOException {@inheritDoc}
+     */
+    @Override
+    public void close() throws IOException {
+        this.thesaurus.close();
+    }
+
+    /**
+     * Expands the provided first level concepts of a keyword interpretation
+     * with their related concepts and the narrower concepts of these. The
+     * concepts are expanded in parallel.
+     * @param firstLevelNarrowerConcepts Concepts directly matching the keyword
+     * and their narrower concepts
+     * @param conceptSchemes Target concept schemes
+     * @param skosCollections Target collections
+     * @return Future completed with the interpretation of the keyword
+     */
+    private CompletableFuture<List<SKOSConcept>> expandRelatedConcepts(final List<SKOSConcept> firstLevelNarrowerConcepts, final List<SKOSConceptScheme> conceptSchemes, final List<SKOSCollection> skosCollections) {
+        List<CompletableFuture<Expansion>> relatedExpansions = new ArrayList<>(firstLevelNarrowerConcepts.size());
+        for (final SKOSConcept narrowerConcept: firstLevelNarrowerConcepts) {
+            relatedExpansions.add(this.supply(() -> new Expansion(
+                    narrowerConcept,
+                    thesaurus.conceptIsInAtLeastOneOfSchemes(narrowerConcept, conceptSchemes) && thesaurus.conceptIsInAtLeastOneOfCollections(narrowerConcept, skosCollections),
+                    toList(narrowerConcept.listSemanticRelations(SKOSSemanticProperty.related)))));
+        }
+
+        return allAsList(relatedExpansions).thenComposeAsync((expansions) -> {
+            final List<SKOSConcept> matchingConcepts = new ArrayList<>();
+            List<SKOSConcept> flncRelatedConcepts = new ArrayList<>();
+            for (Expansion expansion: expansions) {
+                if (expansion.accepted && !matchingConcepts.contains(expansion.concept)) matchingConcepts.add(expansion.concept);
+                for (SKOSConcept relatedConcept: expansion.concepts) {
+                    if (relatedConcept!=null && !flncRelatedConcepts.contains(relatedConcept)) flncRelatedConcepts.add(relatedConcept);
+                }
+            }
+
+            List<CompletableFuture<Expansion>> narrowerExpansions = new ArrayList<>(flncRelatedConcepts.size());
+            for (final SKOSConcept relatedConcept: flncRelatedConcepts) {
+                narrowerExpansions.add(this.supply(() -> new Expansion(
+                        relatedConcept,
+                        thesaurus.conceptIsInAtLeastOneOfSchemes(relatedConcept, conceptSchemes) && thesaurus.conceptIsInAtLeastOneOfCollections(relatedConcept, skosCollections),
+                        toList(thesaurus.skos.listSemanticRelations(relatedConcept, SKOSSemanticProperty.narrowerTransitive, conceptSchemes, skosCollections)))));
+            }
+
+            return allAsList(narrowerExpansions).thenApply((secondLevel) -> {
+                for (Expansion expansion: secondLevel) {
+                    if (expansion.accepted && !matchingConcepts.contains(expansion.concept)) matchingConcepts.add(expansion.concept);
+                    for (SKOSConcept narrowerConcept: expansion.concepts) {
+                        if (!matchingConcepts.contains(narrowerConcept)) matchingConcepts.add(narrowerConcept);
+                    }
+                }
+                return matchingConcepts;
+            });
+        }, this.executor);
+    }
+
+    /**
+     * Resolves the concept schemes with the provided URIs
+     * @param conceptSchemeURIs URIs of concept schemes
+     * @return Future completed with the concept schemes found
+     */
+    private CompletableFuture<List<SKOSConceptScheme>> resolveConceptSchemes(final Collection<String> conceptSchemeURIs) {
+        if (conceptSchemeURIs==null || conceptSchemeURIs.isEmpty()) return CompletableFuture.completedFuture((List<SKOSConceptScheme>)new ArrayList<SKOSConceptScheme>(0));
+        return this.supply(() -> {
+            List<SKOSConceptScheme> conceptSchemes = new ArrayList<>(conceptSchemeURIs.size());
+            for (String conceptSchemeURI: conceptSchemeURIs) {
+                SKOSConceptScheme conceptScheme = thesaurus.skos.getConceptScheme(conceptSchemeURI);
+                if (conceptScheme != null) conceptSchemes.add(conceptScheme);
+            }
+            return conceptSchemes;
+        });
+    }
+
+    /**
+     * Resolves the SKOS collections with the provided URIs
+     * @param skosCollectionURIs URIs of SKOS collections
+     * @return Future completed with the SKOS collections found
+     */
+    private CompletableFuture<List<SKOSCollection>> resolveCollections(final Collection<String> skosCollectionURIs) {
+        if (skosCollectionURIs==null || skosCollectionURIs.isEmpty()) return CompletableFuture.completedFuture((List<SKOSCollection>)new ArrayList<SKOSCollection>(0));
+        return this.supply(() -> {
+            List<SKOSCollection> skosCollections = new ArrayList<>(skosCollectionURIs.size());
+            for (String skosCollectionURI: skosCollectionURIs) {
+                SKOSCollection skosCollection = thesaurus.skos.getCollection(skosCollectionURI);
+                if (skosCollection != null) skosCollections.add(skosCollection);
+            }
+            return skosCollections;
+        });
+    }
+
+    /**
+     * Loads the concepts matching the provided index results
+     * @param results Index search results
+     * @return Concepts matching the results, in the same order
+     */
+    private List<SKOSConcept> loadConcepts(List<Scored<SemanticEntity>> results) {
+        List<String> conceptURIs = new ArrayList<>(results.size());
+        for (Scored<SemanticEntity> result: results) conceptURIs.add(result.getItem().getURI());
+        return this.thesaurus.skos.getConcepts(conceptURIs);
+    }
+
+    /**
+     * Runs the provided supplier on the executor of this thesaurus
+     * @param <T> Type of the result
+     * @param supplier Supplier to run
+     * @return Future completed with the result of {@code supplier}
+     */
+    private <T> CompletableFuture<T> supply(Supplier<T> supplier) {
+        return CompletableFuture.supplyAsync(supplier, this.executor);
+    }
+
+    /**
+     * Checks whether a list of resource URIs has been resolved: either no
+     * URIs were provided or at least one of them matched a resource
+     * @param uris Resource URIs
+     * @param resources Resources found
+     * @return {@code true} if {@code uris} is null or empty or if
+     * {@code resources} is not empty
+     */
+    private static boolean resolved(Collection<String> uris, List<?> resources) {
+        return (uris==null || uris.isEmpty() || !resources.isEmpty());
+    }
+
+    /**
+     * Lists the elements of the provided iterator, then closes it
+     * @param <T> Type of the elements
+     * @param iter Closeable iterator
+     * @return {@code List} of the elements of {@code iter}
+     */
+    private static <T> List<T> toList(CloseableIterator<T> iter) {
+        List<T> list = new ArrayList<>();
+        if (iter != null) {
+            while (iter.hasNext()) list.add(iter.next());
+            iter.close();
+        }
+        return list;
+    }
+
+    /**
+     * Combines the provided futures into a future of the list of their results
+     * @param <T> Type of the results
+     * @param futures Futures to combine
+     * @return Future completed with the results of {@code futures}, in the
+     * same order, once all of them have completed
+     */
+    private static <T> CompletableFuture<List<T>> allAsList(final List<CompletableFuture<T>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[futures.size()])).thenApply((v) -> {
+            List<T> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<T> future: futures) results.add(future.join());
+            return results;
+        });
+    }
+
+    /**
+     * Result of the expansion of a concept in a keyword interpretation
+     */
+    private static class Expansion {
+
+        /**
+         * Expanded concept
+         */
+        final SKOSConcept concept;
+
+        /**
+         * Whether the expanded concept is in the target schemes and collections
+         */
+        final boolean accepted;
+
+        /**
+         * Concepts the concept expanded to
+         */
+        final List<SKOSConcept> concepts;
+
+        Expansion(SKOSConcept concept, boolean accepted, List<SKOSConcept> concepts) {
+            this.concept = concept;
+            this.accepted = accepted;
+            this.concepts = concepts;
+        }
+    }
+}
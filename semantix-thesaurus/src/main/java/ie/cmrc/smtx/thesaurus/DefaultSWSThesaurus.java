@@ -24,6 +24,7 @@ import ie.cmrc.smtx.skos.model.SKOSCollection;
 import ie.cmrc.smtx.skos.model.SKOSConcept;
 import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
 import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.hierarchy.DefaultSKOSConceptNode;
 import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
 import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
 import ie.cmrc.smtx.skos.model.util.CloseableIterator;
@@ -31,12 +32,20 @@ import ie.cmrc.smtx.skos.model.util.EmptyCloseableIterator;
 import ie.cmrc.smtx.skos.index.IndexField;
 import ie.cmrc.smtx.skos.index.SKOSIndex;
 import ie.cmrc.smtx.skos.index.Scored;
+import ie.cmrc.smtx.thesaurus.graph.ConceptGraph;
+import ie.cmrc.smtx.thesaurus.query.ConceptQuery;
+import ie.cmrc.smtx.thesaurus.query.ConceptQueryPlanner;
 import ie.cmrc.util.Term;
 import java.io.IOException;
 import java.text.ParseException;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * The {@code DefaultSWSThesaurus} interface is a high-level interface that
@@ -74,7 +83,23 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
      * Indicates whether related concepts are included in keyword interpretation
      */
     private boolean interpretWithRelatedConcepts;
-    
+
+    /**
+     * Default maximum number of chains of broader concepts per ancestry
+     */
+    public static final int DEFAULT_ANCESTRY_MAX_PATHS = 100;
+
+    /**
+     * Maximum number of chains of broader concepts per ancestry
+     */
+    private int ancestryMaxPaths;
+
+    /**
+     * Concept graph answering concept-to-concept queries, built on first use
+     * and rebuilt when the generation of the thesaurus changes
+     */
+    private volatile ConceptGraph conceptGraph;
+
     /**
      * Constructs a {@link DefaultSWSThesaurus} with the provided SKOS thesaurus
      * and SKOS index
@@ -87,6 +112,7 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
         this.index = index;
         this.interpretationMaxMatches = DEFAULT_MAX_MATCHES;
         this.interpretWithRelatedConcepts = false;
+        this.ancestryMaxPaths = DEFAULT_ANCESTRY_MAX_PATHS;
     }
 
     /**
@@ -124,6 +150,26 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
     public void setInterpretWithRelatedConcepts(boolean interpretWithRelatedConcepts) {
         this.interpretWithRelatedConcepts = interpretWithRelatedConcepts;
     }
+
+    /**
+     * Maximum number of chains of broader concepts per ancestry
+     * @return Maximum number of chains of broader concepts returned for each
+     * concept by the ancestry operations
+     */
+    public int getAncestryMaxPaths() {
+        return ancestryMaxPaths;
+    }
+
+    /**
+     * Sets the maximum number of chains of broader concepts per ancestry. In
+     * a polyhierarchy, the number of chains may grow exponentially with the
+     * depth of the concept.
+     * @param ancestryMaxPaths Maximum number of chains of broader concepts
+     * returned for each concept by the ancestry operations
+     */
+    public void setAncestryMaxPaths(int ancestryMaxPaths) {
+        this.ancestryMaxPaths = ancestryMaxPaths;
+    }
     
     /**
      * {@inheritDoc}
@@ -416,6 +462,94 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
         else return null;
     }
 
+    /**
+     * {@inheritDoc}
+     * @param conceptURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptAncestry(String conceptURI) {
+        return this.getConceptAncestry(conceptURI, null, null);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptAncestry(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        if (conceptURI == null) return null;
+        List<SKOSConceptNode> ancestries = this.getConceptAncestries(Collections.singletonList(conceptURI), conceptSchemeURI, skosCollectionURI);
+        return ancestries.isEmpty() ? null : ancestries.get(0);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Ancestries are read from the broader links of the concept graph (see
+     * {@link #getConceptGraph()}), and have at most
+     * {@link #getAncestryMaxPaths()} chains each.
+     * @param conceptURIs {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptAncestries(Collection<String> conceptURIs, String conceptSchemeURI, String skosCollectionURI) {
+        if (conceptURIs == null || conceptURIs.isEmpty()) return new ArrayList<>(0);
+        ConceptGraph graph = this.getConceptGraph();
+        List<List<List<String>>> ancestries = new ArrayList<>(conceptURIs.size());
+        Set<String> ancestryURIs = new LinkedHashSet<>();
+        for (String conceptURI: conceptURIs) {
+            List<List<String>> paths = graph.getBroaderPaths(conceptURI, conceptSchemeURI, skosCollectionURI, this.ancestryMaxPaths);
+            ancestries.add(paths);
+            for (List<String> path: paths) ancestryURIs.addAll(path);
+        }
+
+        Map<String, SKOSConcept> concepts = new HashMap<>(2 * ancestryURIs.size());
+        if (!ancestryURIs.isEmpty()) {
+            for (SKOSConcept concept: this.skos.getConcepts(new ArrayList<>(ancestryURIs))) {
+                if (concept != null) concepts.put(concept.getURI(), concept);
+            }
+        }
+
+        List<SKOSConceptNode> result = new ArrayList<>(ancestries.size());
+        for (List<List<String>> paths: ancestries) {
+            SKOSConcept rootConcept = !paths.isEmpty() ? concepts.get(paths.get(0).get(0)) : null;
+            if (rootConcept == null) {
+                // Keep the ancestries aligned with the requested URIs
+                result.add(null);
+                continue;
+            }
+            SKOSConceptNode root = new DefaultSKOSConceptNode(rootConcept, SKOSSemanticProperty.broader);
+            for (List<String> path: paths) {
+                // Merge the chain into the tree, sharing the longest common prefix
+                SKOSConceptNode node = root;
+                for (String conceptURI: path.subList(1, path.size())) {
+                    SKOSConcept concept = concepts.get(conceptURI);
+                    // The concept graph may list concepts removed since it was built
+                    if (concept == null) continue;
+                    SKOSConceptNode next = null;
+                    for (SKOSConceptNode child: node.getChildren()) {
+                        if (conceptURI.equals(child.getConcept().getURI())) {
+                            next = child;
+                            break;
+                        }
+                    }
+                    if (next == null) {
+                        next = new DefaultSKOSConceptNode(concept, SKOSSemanticProperty.broader);
+                        node.addChild(next);
+                    }
+                    node = next;
+                }
+            }
+            result.add(root);
+        }
+        return result;
+    }
+
     /**
      * {@inheritDoc}
      * @param conceptURI {@inheritDoc}
@@ -547,8 +681,10 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
     @Override
     public List<SKOSConcept> getDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
         SKOSConcept concept = this.skos.getConcept(conceptURI);
-        if (concept!=null) {
-            return this.skos.getDirectNarrowerConcepts(concept);
+        SKOSConceptScheme conceptScheme = this.skos.getConceptScheme(conceptSchemeURI);
+        SKOSCollection skosCollection  = this.skos.getCollection(skosCollectionURI);
+        if ((concept!=null) && (conceptSchemeURI==null || conceptScheme!=null) && (skosCollectionURI==null || skosCollection!=null)) {
+            return this.skos.getDirectNarrowerConcepts(concept, conceptScheme, skosCollection);
         }
         else return new ArrayList<>(0);
     }
@@ -601,6 +737,33 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
         else return new ArrayList<>(0);
     }
 
+    /**
+     * {@inheritDoc}<br/>
+     * Counts are read from the concept graph (see {@link #getConceptGraph()}),
+     * where they are computed once for each concept scheme and collection.
+     * @param conceptURI {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int countDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        return this.getConceptGraph().getNarrowerCount(conceptURI, conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Counts are read from the concept graph (see {@link #getConceptGraph()}).
+     * @param conceptURI {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @param skosCollectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int countTransitiveNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        return this.getConceptGraph().getTransitiveNarrowerCount(conceptURI, conceptSchemeURI, skosCollectionURI);
+    }
+
     /**
      * {@inheritDoc}
      * @param conceptURI {@inheritDoc}
@@ -610,6 +773,87 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
     public SKOSConcept getConcept(String conceptURI) {
         return this.skos.getConcept(conceptURI);
     }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURIs {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConcepts(Collection<String> conceptURIs) {
+        return this.skos.getConcepts(conceptURIs);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI1 {@inheritDoc}
+     * @param conceptURI2 {@inheritDoc}
+     * @param relationshipTypes {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes) {
+        return this.getSemanticDistance(conceptURI1, conceptURI2, relationshipTypes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI1 {@inheritDoc}
+     * @param conceptURI2 {@inheritDoc}
+     * @param relationshipTypes {@inheritDoc}
+     * @param maxDistance {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes, int maxDistance) {
+        return this.getConceptGraph().getDistance(conceptURI1, conceptURI2, relationshipTypes, maxDistance);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptURI1 {@inheritDoc}
+     * @param conceptURI2 {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getLowestCommonBroaderConcepts(String conceptURI1, String conceptURI2) {
+        List<String> conceptURIs = this.getConceptGraph().getLowestCommonBroaderConcepts(conceptURI1, conceptURI2);
+        if (conceptURIs.isEmpty()) return new ArrayList<>(0);
+        return this.skos.getConcepts(conceptURIs);
+    }
+
+    /**
+     * Returns the concept graph answering concept-to-concept queries (semantic
+     * distances, lowest common broader concepts and narrower concept counts),
+     * building it on first use. The graph is rebuilt when the generation of
+     * the thesaurus (see {@link SKOS#getGeneration()}) differs from the one
+     * it was built from.
+     * @return Concept graph of the thesaurus
+     */
+    public ConceptGraph getConceptGraph() {
+        ConceptGraph graph = this.conceptGraph;
+        if (graph == null || graph.getGeneration() != this.skos.getGeneration()) {
+            synchronized (this) {
+                graph = this.conceptGraph;
+                if (graph == null || graph.getGeneration() != this.skos.getGeneration()) {
+                    graph = new ConceptGraph(this.skos);
+                    this.conceptGraph = graph;
+                }
+            }
+        }
+        return graph;
+    }
+
+    /**
+     * Discards the concept graph answering concept-to-concept queries, so
+     * that it is rebuilt on next use. The graph follows the writes that
+     * change the generation of the thesaurus by itself; this is only needed
+     * after changes that the generation does not reflect, such as writes to
+     * the underlying store made by another process.
+     */
+    public void invalidateConceptGraph() {
+        this.conceptGraph = null;
+    }
     
     /**
      * {@inheritDoc}
@@ -872,14 +1116,48 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
      */
     @Override
     public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit) {
-        List<SKOSConcept> concepts = new ArrayList<>(Math.max(0, limit));
         List<Scored<SemanticEntity>> results = this.index.search(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit);
-        for (Scored<SemanticEntity> result: results) {
-            String conceptURI = result.getItem().getURI();
-            SKOSConcept concept = this.skos.getConcept(conceptURI);
-            if (concept != null) concepts.add(concept);
+        List<String> conceptURIs = new ArrayList<>(results.size());
+        for (Scored<SemanticEntity> result: results) conceptURIs.add(result.getItem().getURI());
+        return this.skos.getConcepts(conceptURIs);
+    }
+    
+    /**
+     * {@inheritDoc}<br/>
+     * If the index contains the concept hierarchy, then the hierarchy
+     * restriction is evaluated by the index as a range filter. Otherwise, the
+     * search is evaluated as a {@link ConceptQuery} with a
+     * {@linkplain SKOSSemanticProperty#narrowerTransitive} constraint.
+     * @param keyword {@inheritDoc}
+     * @param searchField {@inheritDoc}
+     * @param conceptSchemeURIs {@inheritDoc}
+     * @param skosCollectionURIs {@inheritDoc}
+     * @param withinConceptURI {@inheritDoc}
+     * @param offset {@inheritDoc}
+     * @param limit {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, String withinConceptURI, int offset, int limit) {
+        if (withinConceptURI == null) {
+            return this.searchConcepts(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit);
+        }
+        if (this.index.isHierarchyIndexed()) {
+            List<Scored<SemanticEntity>> results = this.index.search(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, false, withinConceptURI, offset, limit);
+            List<String> conceptURIs = new ArrayList<>(results.size());
+            for (Scored<SemanticEntity> result: results) conceptURIs.add(result.getItem().getURI());
+            return this.skos.getConcepts(conceptURIs);
         }
-        return concepts;
+        if (keyword == null) return new ArrayList<>(0);
+        ConceptQuery query = ConceptQuery.builder()
+                .text(keyword, searchField)
+                .conceptSchemes(conceptSchemeURIs)
+                .collections(skosCollectionURIs)
+                .relation(SKOSSemanticProperty.narrowerTransitive, withinConceptURI)
+                .offset(offset)
+                .limit(limit)
+                .build();
+        return this.searchConcepts(query);
     }
     
     /**
@@ -965,14 +1243,20 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
      */
     @Override
     public List<SKOSConcept> searchConcepts(String queryString, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit) throws ParseException {
-        List<SKOSConcept> concepts = new ArrayList<>(Math.max(0, limit));
         List<Scored<SemanticEntity>> results = this.index.query(queryString, conceptSchemeURIs, skosCollectionURIs, offset, limit);
-        for (Scored<SemanticEntity> result: results) {
-            String conceptURI = result.getItem().getURI();
-            SKOSConcept concept = this.skos.getConcept(conceptURI);
-            if (concept != null) concepts.add(concept);
-        }
-        return concepts;
+        List<String> conceptURIs = new ArrayList<>(results.size());
+        for (Scored<SemanticEntity> result: results) conceptURIs.add(result.getItem().getURI());
+        return this.skos.getConcepts(conceptURIs);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param query {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(ConceptQuery query) {
+        return new ConceptQueryPlanner(this.skos, this.index).execute(query);
     }
 
     /**
@@ -1139,6 +1423,17 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
         return matchingConcepts;
     }
 
+    /**
+     * {@inheritDoc}<br/>
+     * This is the generation of the underlying SKOS thesaurus (see
+     * {@link SKOS#getGeneration()}).
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long getGeneration() {
+        return this.skos.getGeneration();
+    }
+
     /**
      * {@inheritDoc}
      * @throws IOException {@inheritDoc}
@@ -1158,7 +1453,7 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
      * {@code concept} is an at least one of the concept schemes listed in
      * {@code conceptSchemes}
      */
-    private boolean conceptIsInAtLeastOneOfSchemes(SKOSConcept concept, List<SKOSConceptScheme> conceptSchemes) {
+    protected boolean conceptIsInAtLeastOneOfSchemes(SKOSConcept concept, List<SKOSConceptScheme> conceptSchemes) {
         if (conceptSchemes==null || conceptSchemes.isEmpty()) return true;
         else {
             for (SKOSConceptScheme conceptScheme: conceptSchemes) {
@@ -1177,7 +1472,7 @@ public class DefaultSWSThesaurus implements SWSThesaurus {
      * {@code concept} is an at least one of the collections listed in
      * {@code conceptSchemes}
      */
-    private boolean conceptIsInAtLeastOneOfCollections(SKOSConcept concept, List<SKOSCollection> skosCollections) {
+    protected boolean conceptIsInAtLeastOneOfCollections(SKOSConcept concept, List<SKOSCollection> skosCollections) {
         if (skosCollections==null || skosCollections.isEmpty()) return true;
         else {
             for (SKOSCollection skosCollection: skosCollections) {
@@ -27,6 +27,7 @@ import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
 import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
 import ie.cmrc.smtx.skos.model.util.CloseableIterator;
 import ie.cmrc.smtx.skos.index.IndexField;
+import ie.cmrc.smtx.thesaurus.query.ConceptQuery;
 import ie.cmrc.util.Term;
 import java.io.IOException;
 import java.text.ParseException;
@@ -310,6 +311,52 @@ public interface SWSThesaurus {
      * returns a leaf node containing the root concept.
      */
     public SKOSConceptNode getConceptTree(String rootConceptURI, String conceptSchemeURI, String skosCollectionURI, HierarchyMethod hierarchyMethod);
+
+    /**
+     * Builds the ancestry of the provided concept, that is all the chains of
+     * broader concepts leading from it to the broadest concepts. The ancestry
+     * is returned as a tree rooted at the concept, whose children are
+     * related to their parent by {@code broader} relationships: each path
+     * from the root to a leaf is a chain of broader concepts, such as a
+     * breadcrumb.
+     * @param conceptURI URI of the concept
+     * @return Ancestry of the concept. If {@code conceptURI==null} or no
+     * concept exists with the provided URI, then this returns {@code null}.
+     */
+    public SKOSConceptNode getConceptAncestry(String conceptURI);
+
+    /**
+     * Builds the ancestry of the provided concept in the specified concept
+     * scheme and collection. Broader concepts outside the concept scheme or
+     * collection are skipped, so that each chain leads from the concept to
+     * the broadest concepts of the concept scheme and collection.
+     * @param conceptURI URI of the concept
+     * @param conceptSchemeURI URI of the target concept scheme
+     * @param skosCollectionURI URI of the target SKOS collection
+     * @return Ancestry of the concept (see
+     * {@linkplain #getConceptAncestry(java.lang.String)}). If
+     * {@code conceptURI==null} or no resource exists with one of the provided
+     * URIs, then this returns {@code null}. If {@code conceptSchemeURI==null},
+     * then broader concepts are not filtered by concept scheme. Similarly if
+     * {@code skosCollectionURI==null}, then broader concepts are not filtered
+     * by collection.
+     */
+    public SKOSConceptNode getConceptAncestry(String conceptURI, String conceptSchemeURI, String skosCollectionURI);
+
+    /**
+     * Builds the ancestries of the provided concepts in the specified concept
+     * scheme and collection, fetching all the concepts involved in one batch
+     * @param conceptURIs URIs of the concepts
+     * @param conceptSchemeURI URI of the target concept scheme
+     * @param skosCollectionURI URI of the target SKOS collection
+     * @return List of the ancestries of the concepts (see
+     * {@linkplain #getConceptAncestry(java.lang.String, java.lang.String, java.lang.String)}),
+     * in the same order: the list has one element per element of
+     * {@code conceptURIs}. An element is {@code null} if the corresponding URI
+     * does not identify a concept, or if no concept scheme or collection
+     * exists with the provided URIs.
+     */
+    public List<SKOSConceptNode> getConceptAncestries(Collection<String> conceptURIs, String conceptSchemeURI, String skosCollectionURI);
     
     /**
      * Lists the concepts related to the specified concept through the provided
@@ -513,6 +560,44 @@ public interface SWSThesaurus {
      */
     public List<SKOSConcept> getDirectBroaderConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI);
 
+    /**
+     * Counts the concepts that are immediately narrower than the specified
+     * concept in the specified concept scheme and collection (see
+     * {@linkplain #getDirectNarrowerConcepts(java.lang.String, java.lang.String, java.lang.String)}).
+     * This allows to tell whether a concept has children in a tree without
+     * fetching them.
+     * @param conceptURI URI of a SKOS concept
+     * @param conceptSchemeURI URI of the target SKOS concept scheme
+     * @param skosCollectionURI URI of the target SKOS collection
+     * @return Number of concepts that are immediately narrower than
+     * {@code conceptURI} in {@code conceptSchemeURI} and
+     * {@code skosCollectionURI}. If {@code conceptURI==null} or no resource
+     * exists with one of the provided URIs, then {@code 0} is returned. If
+     * {@code conceptSchemeURI==null}, then narrower concepts are not filtered
+     * by concept scheme. If {@code skosCollectionURI==null}, then narrower
+     * concepts are not filtered by SKOS collection.
+     */
+    public int countDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI);
+
+    /**
+     * Counts the concepts that are transitively narrower than the specified
+     * concept in the specified concept scheme and collection, that is its
+     * descendants in the hierarchy of the concept scheme and collection. Each
+     * concept is counted once, even if it is reached through several paths.
+     * @param conceptURI URI of a SKOS concept
+     * @param conceptSchemeURI URI of the target SKOS concept scheme
+     * @param skosCollectionURI URI of the target SKOS collection
+     * @return Number of concepts, other than {@code conceptURI}, that are
+     * transitively narrower than {@code conceptURI} in
+     * {@code conceptSchemeURI} and {@code skosCollectionURI}. If
+     * {@code conceptURI==null} or no resource exists with one of the provided
+     * URIs, then {@code 0} is returned. If {@code conceptSchemeURI==null},
+     * then narrower concepts are not filtered by concept scheme. If
+     * {@code skosCollectionURI==null}, then narrower concepts are not
+     * filtered by SKOS collection.
+     */
+    public int countTransitiveNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI);
+
     /**
      * Get the concept with the provide URI
      * @param conceptURI URI of the requested concept
@@ -521,6 +606,72 @@ public interface SWSThesaurus {
      */
     public SKOSConcept getConcept(String conceptURI);
 
+    /**
+     * Get the concepts with the provided URIs. The concepts are fetched from
+     * the thesaurus in one batch, which is more efficient than calling
+     * {@link #getConcept(java.lang.String)} for each URI.
+     * @param conceptURIs URIs of the requested concepts
+     * @return {@code List} of the {@link ie.cmrc.skos.core.SKOSConcept}s whose
+     * URIs are in {@code conceptURIs}, in the same order. URIs that do not
+     * identify a concept are skipped.
+     */
+    public List<SKOSConcept> getConcepts(Collection<String> conceptURIs);
+
+    /**
+     * Semantic distance between two concepts, that is the number of
+     * relationships of the shortest path leading from the first concept to
+     * the second one through relationships of the specified types.
+     * Relationships are followed in their direction only: for example, the
+     * distance through {@code broader} relationships from a concept to one of
+     * its narrower concepts is {@code -1}, unless {@code narrower} is also
+     * one of the specified types.
+     * @param conceptURI1 URI of the concept the path starts from
+     * @param conceptURI2 URI of the concept the path leads to
+     * @param relationshipTypes Types of the relationships the path may
+     * follow
+     * @return Semantic distance from {@code conceptURI1} to
+     * {@code conceptURI2}, {@code 0} if they are the same concept, or
+     * {@code -1} if no concept exists with one of the provided URIs or if no
+     * path exists
+     */
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes);
+
+    /**
+     * Semantic distance between two concepts, bounded by the provided maximum
+     * distance. This is equivalent to
+     * {@linkplain #getSemanticDistance(java.lang.String, java.lang.String, java.util.Collection)},
+     * except that paths longer than {@code maxDistance} are not searched,
+     * which is faster when distant concepts are not of interest.
+     * @param conceptURI1 URI of the concept the path starts from
+     * @param conceptURI2 URI of the concept the path leads to
+     * @param relationshipTypes Types of the relationships the path may
+     * follow
+     * @param maxDistance Maximum distance
+     * @return Semantic distance from {@code conceptURI1} to
+     * {@code conceptURI2}, {@code 0} if they are the same concept, or
+     * {@code -1} if no concept exists with one of the provided URIs or if no
+     * path of at most {@code maxDistance} relationships exists
+     */
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes, int maxDistance);
+
+    /**
+     * Lowest common broader concepts of two concepts. For given concepts
+     * {@code X} and {@code Y}, a concept {@code Z} is a <b><i>lowest common
+     * broader concept</i></b> of {@code X} and {@code Y} if {@code Z} is
+     * broader than, or the same as, both {@code X} and {@code Y}, and no
+     * narrower concept of {@code Z} is. Hence if {@code X} is broader than
+     * {@code Y}, then {@code X} is their only lowest common broader concept.
+     * In a polyhierarchy, two concepts may have several lowest common
+     * broader concepts.
+     * @param conceptURI1 URI of the first concept
+     * @param conceptURI2 URI of the second concept
+     * @return List of the lowest common broader concepts of
+     * {@code conceptURI1} and {@code conceptURI2}, deepest first. If no
+     * concept exists with one of the provided URIs, or if the concepts have
+     * no common broader concept, then an empty list is returned.
+     */
+    public List<SKOSConcept> getLowestCommonBroaderConcepts(String conceptURI1, String conceptURI2);
+
     /**
      * Lists the semantic entities (concepts) whose values for the provided field
      * match the provided keyword
@@ -780,6 +931,30 @@ public interface SWSThesaurus {
      * @return List of concepts matching {@code keyword}
      */
     public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit);
+
+    /**
+     * Lists the URIs of the concepts matching the provided keyword,
+     * belonging to at least one of the concept schemes and at least one of the
+     * collections identified by the provided URIs, and narrower (directly or
+     * indirectly) than the concept identified by {@code withinConceptURI}
+     * @param keyword A {@link ie.cmrc.util.Term} consisting of a string keyword
+     * to search and a language code. If the language code is {@code null} then
+     * the search is performed across all the available languages
+     * @param searchField Specifies the search field. If {@code null} then all
+     * search fields a considered.
+     * @param conceptSchemeURIs List of URIs of concept schemes to restrict
+     * search to
+     * @param skosCollectionURIs List of URIs of SKOS collections to restrict
+     * search to
+     * @param withinConceptURI URI of the concept whose narrower concepts the
+     * search is restricted to. If {@code null} then the search is not
+     * restricted.
+     * @param offset Number of results to skip before returning any results. Results
+     * that are skipped due to {@code offset} do not count against {@code limit}.
+     * @param limit Maximum number of results the query will return
+     * @return List of concepts matching {@code keyword}
+     */
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, String withinConceptURI, int offset, int limit);
     
     /**
      * Lists the concepts matching the provided query. This method
@@ -872,6 +1047,18 @@ public interface SWSThesaurus {
      * @throws java.text.ParseException If a parsing error is encountered
      */
     public List<SKOSConcept> searchConcepts(String queryString, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit) throws ParseException;
+    
+    /**
+     * Lists the concepts satisfying all the constraints of the provided
+     * concept query. Constraints are evaluated in increasing order of
+     * estimated cardinality, so that the most selective ones narrow down the
+     * candidates first (see {@link ie.cmrc.smtx.thesaurus.query.ConceptQueryPlanner}).
+     * @param query Concept query combining text, type, concept scheme,
+     * collection and relation constraints
+     * @return List of concepts satisfying {@code query}. If the query has a
+     * text constraint, then concepts are sorted by decreasing relevance.
+     */
+    public List<SKOSConcept> searchConcepts(ConceptQuery query);
 
     
     /**
@@ -940,6 +1127,15 @@ public interface SWSThesaurus {
      */
     public List<SKOSConcept> interpretKeyword(Term keyword, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs);
     
+    /**
+     * Returns the generation of the data of this thesaurus. The generation
+     * changes each time the data is modified, so that callers may detect
+     * that the results they obtained, for example cached results, are out of
+     * date.
+     * @return Current generation of the data
+     */
+    public long getGeneration();
+    
     /**
      * Closes the {@link SWSThesaurus} and frees up resources held.
      * Not all implementations of {@link SWSThesaurus} require this method to
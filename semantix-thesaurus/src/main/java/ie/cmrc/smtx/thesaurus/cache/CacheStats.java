@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Hit and miss counts of a cached operation
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class CacheStats {
+
+    /**
+     * Number of requests answered from the cache
+     */
+    private final AtomicLong hits = new AtomicLong();
+
+    /**
+     * Number of requests answered by the underlying thesaurus
+     */
+    private final AtomicLong misses = new AtomicLong();
+
+    /**
+     * Records a cache hit
+     */
+    void recordHit() {
+        this.hits.incrementAndGet();
+    }
+
+    /**
+     * Records a cache miss
+     */
+    void recordMiss() {
+        this.misses.incrementAndGet();
+    }
+
+    /**
+     * Returns the number of requests answered from the cache
+     * @return Number of cache hits
+     */
+    public long getHitCount() {
+        return this.hits.get();
+    }
+
+    /**
+     * Returns the number of requests answered by the underlying thesaurus
+     * @return Number of cache misses
+     */
+    public long getMissCount() {
+        return this.misses.get();
+    }
+
+    /**
+     * Returns the total number of requests
+     * @return Number of cache hits and misses
+     */
+    public long getRequestCount() {
+        return this.getHitCount() + this.getMissCount();
+    }
+
+    /**
+     * Returns the ratio of requests answered from the cache
+     * @return Hit ratio, between {@code 0} and {@code 1}. If no request has
+     * been made, then {@code 1} is returned.
+     */
+    public double getHitRatio() {
+        long hitCount = this.getHitCount();
+        long requestCount = hitCount + this.getMissCount();
+        return (requestCount == 0) ? 1.0 : ((double) hitCount) / requestCount;
+    }
+
+    @Override
+    public String toString() {
+        return "hits=" + this.getHitCount() + ", misses=" + this.getMissCount() + ", hitRatio=" + this.getHitRatio();
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+/**
+ * Operations of {@link ie.cmrc.smtx.thesaurus.SWSThesaurus} whose results are
+ * cached by {@link CachingSWSThesaurus}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public enum CachedOperation {
+
+    /**
+     * {@code getConceptScheme}
+     */
+    GET_CONCEPT_SCHEME,
+
+    /**
+     * {@code getCollection}
+     */
+    GET_COLLECTION,
+
+    /**
+     * {@code getBroadestConcepts}
+     */
+    GET_BROADEST_CONCEPTS,
+
+    /**
+     * {@code getConceptHierarchy}
+     */
+    GET_CONCEPT_HIERARCHY,
+
+    /**
+     * {@code getConceptTree}
+     */
+    GET_CONCEPT_TREE,
+
+    /**
+     * {@code getDirectNarrowerConcepts}
+     */
+    GET_DIRECT_NARROWER_CONCEPTS,
+
+    /**
+     * {@code getDirectBroaderConcepts}
+     */
+    GET_DIRECT_BROADER_CONCEPTS,
+
+    /**
+     * {@code getConcept}
+     */
+    GET_CONCEPT,
+
+    /**
+     * {@code getConcepts}
+     */
+    GET_CONCEPTS,
+
+    /**
+     * {@code search}
+     */
+    SEARCH,
+
+    /**
+     * {@code searchConcepts}
+     */
+    SEARCH_CONCEPTS,
+
+    /**
+     * {@code interpretKeyword}
+     */
+    INTERPRET_KEYWORD
+}
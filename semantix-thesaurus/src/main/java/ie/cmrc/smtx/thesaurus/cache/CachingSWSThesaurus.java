@@ -0,0 +1,1055 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.base.SemanticEntity;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.hierarchy.DefaultSKOSConceptNode;
+import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import ie.cmrc.smtx.skos.index.IndexField;
+import ie.cmrc.smtx.thesaurus.SWSThesaurus;
+import ie.cmrc.smtx.thesaurus.query.ConceptQuery;
+import ie.cmrc.util.Term;
+import java.io.IOException;
+import java.text.ParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.EnumMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.LongSupplier;
+import java.util.function.ToLongFunction;
+import java.util.function.UnaryOperator;
+
+/**
+ * A {@link SWSThesaurus} that caches the results of the operations of another
+ * {@link SWSThesaurus}.<br/>
+ * Results are stored as detached snapshots, taken once when they are
+ * loaded: SKOS resources are copied into read-only value objects (see
+ * {@link EntityDetacher}), lists are copied into unmodifiable lists and
+ * concept trees are copied into read-only trees of detached nodes (see
+ * {@link DetachedSKOSConceptNode}). Cached results are therefore not affected
+ * by later changes to the thesaurus. Snapshots are shared by all the callers
+ * that get them from the cache: resources and concept trees are returned as
+ * they are, and lists are returned as new lists of the shared elements.
+ * <br/>
+ * Each entry is weighed by the number of elements (or tree nodes) it holds,
+ * and the total weight of the cache is bounded. When the cache is full, a new
+ * entry only replaces the least recently used ones if it is requested more
+ * frequently (see {@link WeightedCache}).<br/>
+ * The cache is flushed when the dataset generation changes, as reported by
+ * the generation supplier provided at construction time (by default, the
+ * generation of the underlying thesaurus, see
+ * {@link SWSThesaurus#getGeneration()}), or when {@link #invalidateAll()} is
+ * called. The generation of a thesaurus only counts the writes made through
+ * it in this JVM: when other processes write to the same store, the cache
+ * must be flushed with {@link #invalidateAll()}, or be given a generation
+ * supplier that follows their writes.<br/>
+ * Operations returning iterators are not cached.
+ *
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class CachingSWSThesaurus implements SWSThesaurus {
+
+    /**
+     * Maximum number of entries the frequency sketch is sized for
+     */
+    private static final int MAX_EXPECTED_ENTRIES = 1 << 20;
+
+    /**
+     * Underlying thesaurus
+     */
+    protected final SWSThesaurus thesaurus;
+
+    /**
+     * Supplier of the current dataset generation
+     */
+    protected final LongSupplier generation;
+
+    /**
+     * Cached results
+     */
+    private final WeightedCache<List<Object>, Object> cache;
+
+    /**
+     * Hit and miss counts per operation
+     */
+    private final Map<CachedOperation, CacheStats> stats;
+
+    /**
+     * Dataset generation of the cached results
+     */
+    private volatile long cachedGeneration;
+
+    /**
+     * Detacher of the results of the current generation
+     */
+    private volatile EntityDetacher detacher = new EntityDetacher();
+
+    /**
+     * Constructs a {@link CachingSWSThesaurus} that is flushed each time the
+     * generation of the underlying thesaurus changes (see
+     * {@link SWSThesaurus#getGeneration()})
+     * @param thesaurus Underlying thesaurus
+     * @param maxWeight Maximum total weight of the cached results, expressed
+     * in number of elements (entities, concepts or tree nodes)
+     */
+    public CachingSWSThesaurus(SWSThesaurus thesaurus, long maxWeight) {
+        this(thesaurus, maxWeight, () -> thesaurus.getGeneration());
+    }
+
+    /**
+     * Constructs a {@link CachingSWSThesaurus}
+     * @param thesaurus Underlying thesaurus
+     * @param maxWeight Maximum total weight of the cached results, expressed
+     * in number of elements (entities, concepts or tree nodes)
+     * @param generation Supplier of the current dataset generation. This
+     * must return a different value each time the dataset of
+     * {@code thesaurus} is modified.
+     */
+    public CachingSWSThesaurus(SWSThesaurus thesaurus, long maxWeight, LongSupplier generation) {
+        if (thesaurus == null) throw new IllegalArgumentException("CachingSWSThesaurus constructor: thesaurus argument must not be null");
+        if (generation == null) throw new IllegalArgumentException("CachingSWSThesaurus constructor: generation argument must not be null");
+        if (maxWeight <= 0) throw new IllegalArgumentException("CachingSWSThesaurus constructor: maxWeight argument must be positive");
+        this.thesaurus = thesaurus;
+        this.generation = generation;
+        this.cache = new WeightedCache<>(maxWeight, (int) Math.min(maxWeight, MAX_EXPECTED_ENTRIES));
+        this.cachedGeneration = generation.getAsLong();
+        EnumMap<CachedOperation, CacheStats> statsMap = new EnumMap<>(CachedOperation.class);
+        for (CachedOperation operation: CachedOperation.values()) {
+            statsMap.put(operation, new CacheStats());
+        }
+        this.stats = Collections.unmodifiableMap(statsMap);
+    }
+
+    /**
+     * Removes all the cached results
+     */
+    public synchronized void invalidateAll() {
+        this.cache.clear();
+        this.detacher = new EntityDetacher();
+    }
+
+    /**
+     * Returns the hit and miss counts of all the cached operations
+     * @return Unmodifiable map associating each cached operation with its
+     * statistics
+     */
+    public Map<CachedOperation, CacheStats> getStats() {
+        return this.stats;
+    }
+
+    /**
+     * Returns the hit and miss counts of the provided operation
+     * @param operation Cached operation
+     * @return Statistics of {@code operation}
+     */
+    public CacheStats getStats(CachedOperation operation) {
+        return this.stats.get(operation);
+    }
+
+
+    // ******************************************************************************
+    // Concept schemes and collections
+    // ******************************************************************************
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConceptScheme> listConceptSchemes() {
+        return this.thesaurus.listConceptSchemes();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptScheme getConceptScheme(String conceptSchemeURI) {
+        return this.cachedEntity(CachedOperation.GET_CONCEPT_SCHEME, () -> thesaurus.getConceptScheme(conceptSchemeURI), conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections() {
+        return this.thesaurus.listCollections();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections(String conceptSchemeURI) {
+        return this.thesaurus.listCollections(conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections(String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.listCollections(conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SKOSCollection getCollection(String skosCollectionURI) {
+        return this.cachedEntity(CachedOperation.GET_COLLECTION, () -> thesaurus.getCollection(skosCollectionURI), skosCollectionURI);
+    }
+
+
+    // ******************************************************************************
+    // Top and broadest concepts
+    // ******************************************************************************
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listTopConcepts() {
+        return this.thesaurus.listTopConcepts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listTopConcepts(String conceptSchemeURI) {
+        return this.thesaurus.listTopConcepts(conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listTopConcepts(String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.listTopConcepts(conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getBroadestConcepts() {
+        return this.cachedList(CachedOperation.GET_BROADEST_CONCEPTS, () -> thesaurus.getBroadestConcepts());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getBroadestConcepts(String conceptSchemeURI) {
+        return this.cachedList(CachedOperation.GET_BROADEST_CONCEPTS, () -> thesaurus.getBroadestConcepts(conceptSchemeURI), conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getBroadestConcepts(String conceptSchemeURI, String skosCollectionURI) {
+        return this.cachedList(CachedOperation.GET_BROADEST_CONCEPTS, () -> thesaurus.getBroadestConcepts(conceptSchemeURI, skosCollectionURI), conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts() {
+        return this.thesaurus.listConcepts();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts(String conceptSchemeURI) {
+        return this.thesaurus.listConcepts(conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts(String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.listConcepts(conceptSchemeURI, skosCollectionURI);
+    }
+
+
+    // ******************************************************************************
+    // Hierarchies
+    // ******************************************************************************
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(HierarchyMethod hierarchyMethod) {
+        return this.cachedHierarchy(CachedOperation.GET_CONCEPT_HIERARCHY, () -> thesaurus.getConceptHierarchy(hierarchyMethod), methodOrDefault(hierarchyMethod));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(String conceptSchemeURI, HierarchyMethod hierarchyMethod) {
+        return this.cachedHierarchy(CachedOperation.GET_CONCEPT_HIERARCHY, () -> thesaurus.getConceptHierarchy(conceptSchemeURI, hierarchyMethod), conceptSchemeURI, methodOrDefault(hierarchyMethod));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptHierarchy(String conceptSchemeURI, String skosCollectionURI, HierarchyMethod hierarchyMethod) {
+        return this.cachedHierarchy(CachedOperation.GET_CONCEPT_HIERARCHY, () -> thesaurus.getConceptHierarchy(conceptSchemeURI, skosCollectionURI, hierarchyMethod), conceptSchemeURI, skosCollectionURI, methodOrDefault(hierarchyMethod));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(String rootConceptURI, HierarchyMethod hierarchyMethod) {
+        return this.cachedTree(CachedOperation.GET_CONCEPT_TREE, () -> thesaurus.getConceptTree(rootConceptURI, hierarchyMethod), rootConceptURI, methodOrDefault(hierarchyMethod));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(String rootConceptURI, String conceptSchemeURI, HierarchyMethod hierarchyMethod) {
+        return this.cachedTree(CachedOperation.GET_CONCEPT_TREE, () -> thesaurus.getConceptTree(rootConceptURI, conceptSchemeURI, hierarchyMethod), rootConceptURI, conceptSchemeURI, methodOrDefault(hierarchyMethod));
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SKOSConceptNode getConceptTree(String rootConceptURI, String conceptSchemeURI, String skosCollectionURI, HierarchyMethod hierarchyMethod) {
+        return this.cachedTree(CachedOperation.GET_CONCEPT_TREE, () -> thesaurus.getConceptTree(rootConceptURI, conceptSchemeURI, skosCollectionURI, hierarchyMethod), rootConceptURI, conceptSchemeURI, skosCollectionURI, methodOrDefault(hierarchyMethod));
+    }
+
+
+    // ******************************************************************************
+    // Related concepts
+    // ******************************************************************************
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listRelatedConcepts(String conceptURI, SKOSSemanticProperty relationshipType) {
+        return this.thesaurus.listRelatedConcepts(conceptURI, relationshipType);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listRelatedConcepts(String conceptURI, SKOSSemanticProperty relationshipType, String conceptSchemeURI) {
+        return this.thesaurus.listRelatedConcepts(conceptURI, relationshipType, conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listRelatedConcepts(String conceptURI, SKOSSemanticProperty relationshipType, String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.listRelatedConcepts(conceptURI, relationshipType, conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listRelatedConcepts(String conceptURI, SKOSSemanticProperty relationshipType, Collection<String> conceptSchemeURIs) {
+        return this.thesaurus.listRelatedConcepts(conceptURI, relationshipType, conceptSchemeURIs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listRelatedConcepts(String conceptURI, SKOSSemanticProperty relationshipType, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs) {
+        return this.thesaurus.listRelatedConcepts(conceptURI, relationshipType, conceptSchemeURIs, skosCollectionURIs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectNarrowerConcepts(String conceptURI) {
+        return this.cachedList(CachedOperation.GET_DIRECT_NARROWER_CONCEPTS, () -> thesaurus.getDirectNarrowerConcepts(conceptURI), conceptURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI) {
+        return this.cachedList(CachedOperation.GET_DIRECT_NARROWER_CONCEPTS, () -> thesaurus.getDirectNarrowerConcepts(conceptURI, conceptSchemeURI), conceptURI, conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        return this.cachedList(CachedOperation.GET_DIRECT_NARROWER_CONCEPTS, () -> thesaurus.getDirectNarrowerConcepts(conceptURI, conceptSchemeURI, skosCollectionURI), conceptURI, conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectBroaderConcepts(String conceptURI) {
+        return this.cachedList(CachedOperation.GET_DIRECT_BROADER_CONCEPTS, () -> thesaurus.getDirectBroaderConcepts(conceptURI), conceptURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectBroaderConcepts(String conceptURI, String conceptSchemeURI) {
+        return this.cachedList(CachedOperation.GET_DIRECT_BROADER_CONCEPTS, () -> thesaurus.getDirectBroaderConcepts(conceptURI, conceptSchemeURI), conceptURI, conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getDirectBroaderConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        return this.cachedList(CachedOperation.GET_DIRECT_BROADER_CONCEPTS, () -> thesaurus.getDirectBroaderConcepts(conceptURI, conceptSchemeURI, skosCollectionURI), conceptURI, conceptSchemeURI, skosCollectionURI);
+    }
+
+
+    // ******************************************************************************
+    // Concepts
+    // ******************************************************************************
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public SKOSConcept getConcept(String conceptURI) {
+        return this.cachedEntity(CachedOperation.GET_CONCEPT, () -> thesaurus.getConcept(conceptURI), conceptURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConcepts(Collection<String> conceptURIs) {
+        return this.cachedList(CachedOperation.GET_CONCEPTS, () -> thesaurus.getConcepts(conceptURIs), conceptURIs);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Semantic distances are not cached: they are typically requested for
+     * many distinct pairs of concepts, which would flood the cache.
+     */
+    @Override
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes) {
+        return this.thesaurus.getSemanticDistance(conceptURI1, conceptURI2, relationshipTypes);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Semantic distances are not cached.
+     */
+    @Override
+    public int getSemanticDistance(String conceptURI1, String conceptURI2, Collection<SKOSSemanticProperty> relationshipTypes, int maxDistance) {
+        return this.thesaurus.getSemanticDistance(conceptURI1, conceptURI2, relationshipTypes, maxDistance);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Lowest common broader concepts are not cached, for the same reason as
+     * semantic distances.
+     */
+    @Override
+    public List<SKOSConcept> getLowestCommonBroaderConcepts(String conceptURI1, String conceptURI2) {
+        return this.thesaurus.getLowestCommonBroaderConcepts(conceptURI1, conceptURI2);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Ancestries are not cached: they are read from the broader links of the
+     * decorated thesaurus, which are already held in memory.
+     */
+    @Override
+    public SKOSConceptNode getConceptAncestry(String conceptURI) {
+        return this.thesaurus.getConceptAncestry(conceptURI);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Ancestries are not cached, for the same reason as
+     * {@link #getConceptAncestry(java.lang.String)}.
+     */
+    @Override
+    public SKOSConceptNode getConceptAncestry(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.getConceptAncestry(conceptURI, conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Ancestries are not cached, for the same reason as
+     * {@link #getConceptAncestry(java.lang.String)}.
+     */
+    @Override
+    public List<SKOSConceptNode> getConceptAncestries(Collection<String> conceptURIs, String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.getConceptAncestries(conceptURIs, conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Counts are not cached: they are precomputed by the decorated thesaurus.
+     */
+    @Override
+    public int countDirectNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.countDirectNarrowerConcepts(conceptURI, conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * Counts are not cached: they are precomputed by the decorated thesaurus.
+     */
+    @Override
+    public int countTransitiveNarrowerConcepts(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        return this.thesaurus.countTransitiveNarrowerConcepts(conceptURI, conceptSchemeURI, skosCollectionURI);
+    }
+
+
+    // ******************************************************************************
+    // Search
+    // ******************************************************************************
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(Term keyword, IndexField.Searchable searchField, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(keyword, searchField, offset, limit), keyword, searchField, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(Term keyword, IndexField.Searchable searchField, String conceptSchemeURI, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(keyword, searchField, conceptSchemeURI, offset, limit), keyword, searchField, conceptSchemeURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(Term keyword, IndexField.Searchable searchField, String conceptSchemeURI, String skosCollectionURI, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(keyword, searchField, conceptSchemeURI, skosCollectionURI, offset, limit), keyword, searchField, conceptSchemeURI, skosCollectionURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(keyword, searchField, conceptSchemeURIs, offset, limit), keyword, searchField, conceptSchemeURIs, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit), keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(String queryString, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(queryString, offset, limit), queryString, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(String queryString, String conceptSchemeURI, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(queryString, conceptSchemeURI, offset, limit), queryString, conceptSchemeURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(String queryString, String conceptSchemeURI, String skosCollectionURI, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(queryString, conceptSchemeURI, skosCollectionURI, offset, limit), queryString, conceptSchemeURI, skosCollectionURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(String queryString, Collection<String> conceptSchemeURIs, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(queryString, conceptSchemeURIs, offset, limit), queryString, conceptSchemeURIs, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SemanticEntity> search(String queryString, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH, () -> thesaurus.search(queryString, conceptSchemeURIs, skosCollectionURIs, offset, limit), queryString, conceptSchemeURIs, skosCollectionURIs, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(keyword, searchField, offset, limit), keyword, searchField, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, String conceptSchemeURI, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(keyword, searchField, conceptSchemeURI, offset, limit), keyword, searchField, conceptSchemeURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, String conceptSchemeURI, String skosCollectionURI, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(keyword, searchField, conceptSchemeURI, skosCollectionURI, offset, limit), keyword, searchField, conceptSchemeURI, skosCollectionURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(keyword, searchField, conceptSchemeURIs, offset, limit), keyword, searchField, conceptSchemeURIs, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit), keyword, searchField, conceptSchemeURIs, skosCollectionURIs, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(Term keyword, IndexField.Searchable searchField, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, String withinConceptURI, int offset, int limit) {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(keyword, searchField, conceptSchemeURIs, skosCollectionURIs, withinConceptURI, offset, limit), keyword, searchField, conceptSchemeURIs, skosCollectionURIs, withinConceptURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(String queryString, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(queryString, offset, limit), queryString, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(String queryString, String conceptSchemeURI, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(queryString, conceptSchemeURI, offset, limit), queryString, conceptSchemeURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(String queryString, String conceptSchemeURI, String skosCollectionURI, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(queryString, conceptSchemeURI, skosCollectionURI, offset, limit), queryString, conceptSchemeURI, skosCollectionURI, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(String queryString, Collection<String> conceptSchemeURIs, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(queryString, conceptSchemeURIs, offset, limit), queryString, conceptSchemeURIs, offset, limit);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(String queryString, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs, int offset, int limit) throws ParseException {
+        return this.cachedList(CachedOperation.SEARCH_CONCEPTS, () -> thesaurus.searchConcepts(queryString, conceptSchemeURIs, skosCollectionURIs, offset, limit), queryString, conceptSchemeURIs, skosCollectionURIs, offset, limit);
+    }
+
+
+    /**
+     * Concept queries are not cached: their results are passed through from
+     * the underlying thesaurus
+     * @param query {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> searchConcepts(ConceptQuery query) {
+        return this.thesaurus.searchConcepts(query);
+    }
+
+
+    // ******************************************************************************
+    // Keyword interpretation
+    // ******************************************************************************
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> interpretKeyword(Term keyword) {
+        return this.cachedList(CachedOperation.INTERPRET_KEYWORD, () -> thesaurus.interpretKeyword(keyword), keyword);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> interpretKeyword(Term keyword, String conceptSchemeURI) {
+        return this.cachedList(CachedOperation.INTERPRET_KEYWORD, () -> thesaurus.interpretKeyword(keyword, conceptSchemeURI), keyword, conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> interpretKeyword(Term keyword, String conceptSchemeURI, String skosCollectionURI) {
+        return this.cachedList(CachedOperation.INTERPRET_KEYWORD, () -> thesaurus.interpretKeyword(keyword, conceptSchemeURI, skosCollectionURI), keyword, conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> interpretKeyword(Term keyword, Collection<String> conceptSchemeURIs) {
+        return this.cachedList(CachedOperation.INTERPRET_KEYWORD, () -> thesaurus.interpretKeyword(keyword, conceptSchemeURIs), keyword, conceptSchemeURIs);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> interpretKeyword(Term keyword, Collection<String> conceptSchemeURIs, Collection<String> skosCollectionURIs) {
+        return this.cachedList(CachedOperation.INTERPRET_KEYWORD, () -> thesaurus.interpretKeyword(keyword, conceptSchemeURIs, skosCollectionURIs), keyword, conceptSchemeURIs, skosCollectionURIs);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * This is the generation reported by the generation supplier of the
+     * cache.
+     * @return {@inheritDoc}
+     */
+    @Override
+    public long getGeneration() {
+        return this.generation.getAsLong();
+    }
+
+    /**
+     * Closes the underlying thesaurus and removes all the cached results
+     * @throws IOException If an IO error is encountered
+     */
+    @Override
+    public void close() throws IOException {
+        this.invalidateAll();
+        this.thesaurus.close();
+    }
+
+
+    // ******************************************************************************
+    // Cache access
+    // ******************************************************************************
+
+    /**
+     * Loads a result from the underlying thesaurus
+     * @param <V> Type of the result
+     * @param <E> Type of exception thrown by the operation
+     */
+    private static interface Loader<V, E extends Exception> {
+
+        /**
+         * Loads the result
+         * @return Result of the operation
+         * @throws E If the operation fails
+         */
+        V load() throws E;
+    }
+
+    /**
+     * Returns the cached result of a single-entity operation, or loads and
+     * caches it. Entities are stored as detached copies.
+     * @param <V> Type of the result
+     * @param operation Cached operation
+     * @param loader Loader of the result
+     * @param arguments Arguments of the operation
+     * @return Result of the operation
+     */
+    private <V> V cachedEntity(CachedOperation operation, Loader<V, RuntimeException> loader, Object... arguments) {
+        return this.cached(operation, loader, entity -> detacher.detach(entity), entity -> 1L, arguments);
+    }
+
+    /**
+     * Returns the cached result of a list operation, or loads and caches it.
+     * Lists are stored as unmodifiable copies of detached elements, and a new
+     * list is returned on each call.
+     * @param <T> Type of the elements of the list
+     * @param <E> Type of exception thrown by the operation
+     * @param operation Cached operation
+     * @param loader Loader of the result
+     * @param arguments Arguments of the operation
+     * @return Result of the operation
+     * @throws E If the operation fails
+     */
+    private <T, E extends Exception> List<T> cachedList(CachedOperation operation, Loader<List<T>, E> loader, Object... arguments) throws E {
+        List<T> result = this.cached(operation, loader, list -> Collections.unmodifiableList(detacher.detachAll(list)), list -> 1L + list.size(), arguments);
+        return (result != null) ? new ArrayList<>(result) : null;
+    }
+
+    /**
+     * Returns the cached result of a concept hierarchy operation, or loads and
+     * caches it. Hierarchies are copied into read-only trees when they are
+     * loaded, and the cached trees are returned as they are.
+     * @param operation Cached operation
+     * @param loader Loader of the result
+     * @param arguments Arguments of the operation
+     * @return Result of the operation
+     */
+    private List<SKOSConceptNode> cachedHierarchy(CachedOperation operation, Loader<List<SKOSConceptNode>, RuntimeException> loader, Object... arguments) {
+        return this.cached(operation, loader, hierarchy -> detachHierarchy(hierarchy, detacher), hierarchy -> 1L + countNodes(hierarchy), arguments);
+    }
+
+    /**
+     * Returns the cached result of a concept tree operation, or loads and
+     * caches it. Trees are copied into read-only trees when they are loaded,
+     * and the cached trees are returned as they are.
+     * @param operation Cached operation
+     * @param loader Loader of the result
+     * @param arguments Arguments of the operation
+     * @return Result of the operation
+     */
+    private SKOSConceptNode cachedTree(CachedOperation operation, Loader<SKOSConceptNode, RuntimeException> loader, Object... arguments) {
+        return this.cached(operation, loader, tree -> detachHierarchy(Collections.singletonList(tree), detacher).get(0), tree -> countNodes(Collections.singletonList(tree)), arguments);
+    }
+
+    /**
+     * Returns the cached result of an operation, or loads and caches it
+     * @param <V> Type of the result
+     * @param <E> Type of exception thrown by the operation
+     * @param operation Cached operation
+     * @param loader Loader of the result
+     * @param snapshot Function returning a detached snapshot of a loaded
+     * result. The snapshot is both cached and returned, and cache hits
+     * return it as it is.
+     * @param weigher Function returning the weight of a result
+     * @param arguments Arguments of the operation
+     * @return Result of the operation
+     * @throws E If the operation fails
+     */
+    @SuppressWarnings("unchecked")
+    private <V, E extends Exception> V cached(CachedOperation operation, Loader<V, E> loader, UnaryOperator<V> snapshot, ToLongFunction<V> weigher, Object... arguments) throws E {
+        long currentGeneration = this.checkGeneration();
+        List<Object> key = key(operation, arguments);
+        CacheStats operationStats = this.stats.get(operation);
+
+        Object cachedValue = this.cache.get(key);
+        if (cachedValue != null) {
+            operationStats.recordHit();
+            return (V) cachedValue;
+        }
+
+        operationStats.recordMiss();
+        V value = loader.load();
+        if (value == null) return null;
+        V detached = snapshot.apply(value);
+        // Do not cache results loaded while the dataset was being modified
+        if (currentGeneration == this.cachedGeneration && currentGeneration == this.generation.getAsLong()) {
+            this.cache.put(key, detached, weigher.applyAsLong(detached));
+        }
+        return detached;
+    }
+
+    /**
+     * Flushes the cache if the dataset generation has changed
+     * @return Current dataset generation
+     */
+    private long checkGeneration() {
+        long currentGeneration = this.generation.getAsLong();
+        if (currentGeneration != this.cachedGeneration) {
+            synchronized (this) {
+                if (currentGeneration != this.cachedGeneration) {
+                    this.cache.clear();
+                    this.detacher = new EntityDetacher();
+                    this.cachedGeneration = currentGeneration;
+                }
+            }
+        }
+        return currentGeneration;
+    }
+
+    /**
+     * Builds the cache key of an operation
+     * @param operation Cached operation
+     * @param arguments Arguments of the operation
+     * @return Cache key
+     */
+    private static List<Object> key(CachedOperation operation, Object... arguments) {
+        List<Object> key = new ArrayList<>(arguments.length + 1);
+        key.add(operation);
+        for (Object argument: arguments) {
+            key.add(keyComponent(argument));
+        }
+        return key;
+    }
+
+    /**
+     * Converts an argument into a value with consistent {@code equals} and
+     * {@code hashCode} methods
+     * @param argument Argument of an operation
+     * @return Key component
+     */
+    private static Object keyComponent(Object argument) {
+        if (argument instanceof Term) {
+            Term term = (Term) argument;
+            return Arrays.asList(Term.class, term.getString(), term.getLanguage());
+        } else if (argument instanceof HierarchyMethod) {
+            HierarchyMethod method = (HierarchyMethod) argument;
+            return Arrays.asList(HierarchyMethod.class, method.getRootType(), method.getRelationshipType(), method.getSortLanguage());
+        } else if (argument instanceof Collection) {
+            return new ArrayList<>((Collection<?>) argument);
+        } else {
+            return argument;
+        }
+    }
+
+    /**
+     * Returns the provided hierarchy method, or the default one if {@code null}
+     * @param hierarchyMethod Hierarchy method
+     * @return {@code hierarchyMethod} if not {@code null}, otherwise
+     * {@link HierarchyMethod#DEFAULT_METHOD}
+     */
+    private static HierarchyMethod methodOrDefault(HierarchyMethod hierarchyMethod) {
+        return (hierarchyMethod != null) ? hierarchyMethod : HierarchyMethod.DEFAULT_METHOD;
+    }
+
+    /**
+     * Copies the provided concept hierarchy into read-only trees of
+     * {@link DetachedSKOSConceptNode} nodes of detached concepts. A node
+     * shared by several parents is copied once, and the copy is shared in
+     * the same way.
+     * @param hierarchy Concept hierarchy
+     * @param detacher Detacher of the concepts
+     * @return Unmodifiable list of the copies of the roots of
+     * {@code hierarchy}
+     */
+    private static List<SKOSConceptNode> detachHierarchy(List<SKOSConceptNode> hierarchy, EntityDetacher detacher) {
+        List<SKOSConceptNode> copy = new ArrayList<>(hierarchy.size());
+        Map<SKOSConceptNode, DetachedSKOSConceptNode> copies = new IdentityHashMap<>();
+        Deque<SKOSConceptNode> pending = new ArrayDeque<>();
+        for (SKOSConceptNode node: hierarchy) {
+            copy.add((node != null) ? copyNode(node, detacher, copies, pending) : null);
+        }
+        while (!pending.isEmpty()) {
+            SKOSConceptNode node = pending.pop();
+            List<SKOSConceptNode> children = node.getChildren();
+            if (children != null && !children.isEmpty()) {
+                List<SKOSConceptNode> childCopies = new ArrayList<>(children.size());
+                for (SKOSConceptNode child: children) {
+                    if (child != null) childCopies.add(copyNode(child, detacher, copies, pending));
+                }
+                copies.get(node).attachChildren(childCopies);
+            }
+        }
+        return Collections.unmodifiableList(copy);
+    }
+
+    /**
+     * Returns the copy of a concept node, creating it if the node has not
+     * been copied yet
+     * @param node Concept node
+     * @param detacher Detacher of the concepts
+     * @param copies Copies of the nodes already copied
+     * @param pending Nodes whose children remain to be copied. A node copied
+     * by this call is added to it.
+     * @return Copy of {@code node}, without children if just created
+     */
+    private static SKOSConceptNode copyNode(SKOSConceptNode node, EntityDetacher detacher, Map<SKOSConceptNode, DetachedSKOSConceptNode> copies, Deque<SKOSConceptNode> pending) {
+        DetachedSKOSConceptNode nodeCopy = copies.get(node);
+        if (nodeCopy == null) {
+            SKOSConcept concept = detacher.detach(node.getConcept());
+            SKOSSemanticProperty childRelation = (node instanceof DefaultSKOSConceptNode) ? ((DefaultSKOSConceptNode) node).getChildRelation() : SKOSSemanticProperty.narrower;
+            nodeCopy = new DetachedSKOSConceptNode(concept, childRelation);
+            copies.put(node, nodeCopy);
+            pending.push(node);
+        }
+        return nodeCopy;
+    }
+
+    /**
+     * Counts the distinct nodes of the provided concept hierarchy
+     * @param hierarchy Concept hierarchy
+     * @return Number of nodes in {@code hierarchy}, a node shared by several
+     * parents being counted once
+     */
+    private static long countNodes(List<SKOSConceptNode> hierarchy) {
+        Set<SKOSConceptNode> counted = Collections.newSetFromMap(new IdentityHashMap<SKOSConceptNode, Boolean>());
+        Deque<SKOSConceptNode> pending = new ArrayDeque<>();
+        for (SKOSConceptNode node: hierarchy) {
+            if (node != null && counted.add(node)) pending.push(node);
+        }
+        while (!pending.isEmpty()) {
+            SKOSConceptNode node = pending.pop();
+            List<SKOSConceptNode> children = node.getChildren();
+            if (children != null) {
+                for (SKOSConceptNode child: children) {
+                    if (child != null && counted.add(child)) pending.push(child);
+                }
+            }
+        }
+        return counted.size();
+    }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.List;
+
+/**
+ * Detached SKOS collection (see {@link DetachedSKOSResource}). The members
+ * of the collection are listed by looking the collection up again in its
+ * thesaurus.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class DetachedSKOSCollection extends DetachedSKOSCollectionMember implements SKOSCollection {
+
+    /**
+     * Constructs a {@link DetachedSKOSCollection}
+     * @param collection SKOS collection to detach
+     * @param detacher Detacher of the related concept schemes
+     */
+    DetachedSKOSCollection(SKOSCollection collection, EntityDetacher detacher) {
+        super(collection, detacher);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Current version of the collection in its thesaurus
+     * @throws IllegalStateException {@inheritDoc}
+     */
+    @Override
+    protected SKOSCollection live() throws IllegalStateException {
+        return (SKOSCollection) super.live();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSType getSkosType() {
+        return SKOSType.Collection;
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptOrCollectionURI URI of the member
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection addMember(String conceptOrCollectionURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param skosCollectionMember Collection member
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection addMember(SKOSCollectionMember skosCollectionMember) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollectionMember {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasMember(SKOSCollectionMember skosCollectionMember) {
+        return this.live().hasMember(skosCollectionMember);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosCollectionMember {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasMemberTransitive(SKOSCollectionMember skosCollectionMember) {
+        return this.live().hasMemberTransitive(skosCollectionMember);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param skosCollectionMember Collection member
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection removeMember(SKOSCollectionMember skosCollectionMember) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollectionMember> listMembers() {
+        return this.live().listMembers();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollectionMember> listMembersTransitive() {
+        return this.live().listMembersTransitive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollectionMember> getMembers() {
+        return this.live().getMembers();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollectionMember> getMembersTransitive() {
+        return this.live().getMembersTransitive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConceptMembers() {
+        return this.live().listConceptMembers();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConceptMembersTransitive() {
+        return this.live().listConceptMembersTransitive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConceptMembers() {
+        return this.live().getConceptMembers();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConceptMembersTransitive() {
+        return this.live().getConceptMembersTransitive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollectionMembers() {
+        return this.live().listCollectionMembers();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollectionMembersTransitive() {
+        return this.live().listCollectionMembersTransitive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollectionMembers() {
+        return this.live().getCollectionMembers();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollectionMembersTransitive() {
+        return this.live().getCollectionMembersTransitive();
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSCollectionMember;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.List;
+
+/**
+ * Detached SKOS collection member (see {@link DetachedSKOSResource}).
+ * Collection memberships are navigated by looking the resource up again in
+ * its thesaurus.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class DetachedSKOSCollectionMember extends DetachedSKOSResource implements SKOSCollectionMember {
+
+    /**
+     * Constructs a {@link DetachedSKOSCollectionMember}
+     * @param member SKOS collection member to detach
+     * @param detacher Detacher of the related concept schemes
+     */
+    protected DetachedSKOSCollectionMember(SKOSCollectionMember member, EntityDetacher detacher) {
+        super(member, detacher);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Current version of the collection member in its thesaurus
+     * @throws IllegalStateException {@inheritDoc}
+     */
+    @Override
+    protected SKOSCollectionMember live() throws IllegalStateException {
+        return (SKOSCollectionMember) super.live();
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param collectionUri Collection URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember addToCollection(String collectionUri) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param collection Collection
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember addToCollection(SKOSCollection collection) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections() {
+        return this.live().listCollections();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollectionsTransitive() {
+        return this.live().listCollectionsTransitive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollections() {
+        return this.live().getCollections();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollectionsTransitive() {
+        return this.live().getCollectionsTransitive();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isMemberOfCollection(String collectionURI) {
+        return this.live().isMemberOfCollection(collectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collectionURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isTransitiveMemberOfCollection(String collectionURI) {
+        return this.live().isTransitiveMemberOfCollection(collectionURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isMemberOfCollection(SKOSCollection collection) {
+        return this.live().isMemberOfCollection(collection);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param collection {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isTransitiveMemberOfCollection(SKOSCollection collection) {
+        return this.live().isTransitiveMemberOfCollection(collection);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember removeFromAllCollections() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param collectionURI Collection URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember removeFromCollection(String collectionURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param collection Collection
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollectionMember removeFromCollection(SKOSCollection collection) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
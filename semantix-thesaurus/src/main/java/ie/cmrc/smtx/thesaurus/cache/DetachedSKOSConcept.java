@@ -0,0 +1,103 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+
+/**
+ * Detached SKOS concept (see {@link DetachedSKOSResource}). Semantic
+ * relations are navigated by looking the concept up again in its thesaurus.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class DetachedSKOSConcept extends DetachedSKOSCollectionMember implements SKOSConcept {
+
+    /**
+     * Constructs a {@link DetachedSKOSConcept}
+     * @param concept SKOS concept to detach
+     * @param detacher Detacher of the related concept schemes
+     */
+    DetachedSKOSConcept(SKOSConcept concept, EntityDetacher detacher) {
+        super(concept, detacher);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Current version of the concept in its thesaurus
+     * @throws IllegalStateException {@inheritDoc}
+     */
+    @Override
+    protected SKOSConcept live() throws IllegalStateException {
+        return (SKOSConcept) super.live();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSType getSkosType() {
+        return SKOSType.Concept;
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptSchemeURI Concept scheme URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConcept makeTopConcept(String conceptSchemeURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptScheme Concept scheme
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConcept makeTopConcept(SKOSConceptScheme conceptScheme) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelations(SKOSSemanticProperty relationshipType) {
+        return this.live().listSemanticRelations(relationshipType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listSemanticRelationshipSources(SKOSSemanticProperty relationshipType) {
+        return this.live().listSemanticRelationshipSources(relationshipType);
+    }
+}
@@ -0,0 +1,134 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.hierarchy.DefaultSKOSConceptNode;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Concept node of a concept hierarchy cached by {@link CachingSWSThesaurus}.
+ * <br/>
+ * The concept of the node is a detached concept (see
+ * {@link DetachedSKOSConcept}) and its children are detached nodes. Detached
+ * nodes are read-only: write operations throw an
+ * {@link UnsupportedOperationException}. A cached hierarchy can therefore be
+ * returned to all the callers that request it, without being copied.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class DetachedSKOSConceptNode extends DefaultSKOSConceptNode {
+
+    /**
+     * Message of the exceptions thrown by write operations
+     */
+    static final String READ_ONLY = "Detached concept nodes are read-only";
+
+    /**
+     * Constructs a {@link DetachedSKOSConceptNode} without children
+     * @param concept Detached concept of the node
+     * @param childRelation Relation between {@code concept} and the concepts
+     * of the child nodes
+     */
+    DetachedSKOSConceptNode(SKOSConcept concept, SKOSSemanticProperty childRelation) {
+        super(concept, childRelation);
+        this.children = Collections.emptyList();
+    }
+
+    /**
+     * Sets the children of the node. This is only called while the hierarchy
+     * is detached, before it is published.
+     * @param children Detached child nodes
+     */
+    void attachChildren(List<SKOSConceptNode> children) {
+        this.children = Collections.unmodifiableList(children);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Unmodifiable list of the child nodes
+     */
+    @Override
+    public List<SKOSConceptNode> getChildren() {
+        return this.children;
+    }
+
+    /**
+     * Not supported, detached nodes are read-only
+     * @param children Child nodes
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void setChildren(List<SKOSConceptNode> children) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached nodes are read-only
+     * @param child Child node
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void addChild(SKOSConceptNode child) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached nodes are read-only
+     * @param skosConcept Concept of the child node
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void addChild(SKOSConcept skosConcept) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached nodes are read-only
+     * @param index Position of the child node
+     * @param conceptNode Child node
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void insertChildAt(int index, SKOSConceptNode conceptNode) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached nodes are read-only
+     * @param index Position of the child node
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void removeChildAt(int index) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached nodes are read-only
+     * @param concept Concept of the node
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public void setItem(SKOSConcept concept) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
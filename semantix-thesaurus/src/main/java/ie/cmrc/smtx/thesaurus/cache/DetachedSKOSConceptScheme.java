@@ -0,0 +1,205 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.List;
+
+/**
+ * Detached SKOS concept scheme (see {@link DetachedSKOSResource}). The
+ * concepts and collections of the scheme are listed by looking the scheme up
+ * again in its thesaurus.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class DetachedSKOSConceptScheme extends DetachedSKOSResource implements SKOSConceptScheme {
+
+    /**
+     * Constructs a {@link DetachedSKOSConceptScheme}
+     * @param conceptScheme SKOS concept scheme to detach
+     * @param detacher Detacher of the related concept schemes
+     */
+    DetachedSKOSConceptScheme(SKOSConceptScheme conceptScheme, EntityDetacher detacher) {
+        super(conceptScheme, detacher);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return Current version of the concept scheme in its thesaurus
+     * @throws IllegalStateException {@inheritDoc}
+     */
+    @Override
+    protected SKOSConceptScheme live() throws IllegalStateException {
+        return (SKOSConceptScheme) super.live();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOSType getSkosType() {
+        return SKOSType.ConceptScheme;
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param skosResource SKOS resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme add(SKOSResource skosResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param skosResource {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean has(SKOSResource skosResource) {
+        return this.live().has(skosResource);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param skosResource SKOS resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme remove(SKOSResource skosResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptURI Concept URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConcept createConcept(String conceptURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSConcept> listConcepts() {
+        return this.live().listConcepts();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getConcepts() {
+        return this.live().getConcepts();
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param concept Concept
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme addTopConcept(SKOSConcept concept) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param concept {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasTopConcept(SKOSConcept concept) {
+        return this.live().hasTopConcept(concept);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param concept Concept
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme removeTopConcept(SKOSConcept concept) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSConceptScheme removeTopConcepts() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConcept> getTopConcepts() {
+        return this.live().getTopConcepts();
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param collectionURI Collection URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSCollection createCollection(String collectionURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSCollection> listCollections() {
+        return this.live().listCollections();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSCollection> getCollections() {
+        return this.live().getCollections();
+    }
+}
@@ -0,0 +1,666 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.skos.model.AbstractSKOSResource;
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSObjectProperty;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import ie.cmrc.util.Term;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * SKOS resource detached from its thesaurus, as cached by
+ * {@link CachingSWSThesaurus}.<br/>
+ * The annotations of the resource and the URIs of its concept schemes
+ * ({@code skos:inScheme} and {@code skos:topConceptOf}) are copied when the
+ * resource is detached, so that the cached resource is not affected by later
+ * changes to the thesaurus, and can be serialised without accessing it. The
+ * concept schemes themselves are detached on first use, through the
+ * {@link EntityDetacher} that detached the resource. Other relations are
+ * navigated by looking the resource up again in its thesaurus.<br/>
+ * Detached resources are read-only: write operations throw an
+ * {@link UnsupportedOperationException}.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class DetachedSKOSResource extends AbstractSKOSResource {
+
+    /**
+     * Message of the exceptions thrown by write operations
+     */
+    static final String READ_ONLY = "Detached SKOS resources are read-only";
+
+    /**
+     * Thesaurus the resource was detached from
+     */
+    protected final SKOS skos;
+
+    /**
+     * Detacher of the related concept schemes
+     */
+    protected final EntityDetacher detacher;
+
+    /**
+     * Annotation values by property, in the order they were read
+     */
+    private final Map<SKOSAnnotationProperty, List<Term>> annotations = new EnumMap<>(SKOSAnnotationProperty.class);
+
+    /**
+     * URIs of the concept schemes of the resource
+     */
+    private final List<String> conceptSchemeURIs;
+
+    /**
+     * URIs of the concept schemes the resource is a top concept of
+     */
+    private final List<String> topConceptOfURIs;
+
+    /**
+     * Constructs a {@link DetachedSKOSResource}, copying the annotations and
+     * concept schemes of the provided resource
+     * @param resource SKOS resource to detach
+     * @param detacher Detacher of the related concept schemes
+     */
+    protected DetachedSKOSResource(SKOSResource resource, EntityDetacher detacher) {
+        super(resource.getURI());
+        this.skos = resource.getSKOS();
+        this.detacher = detacher;
+        for (SKOSAnnotationProperty property: resource.getAnnotationProperties()) {
+            List<Term> terms = new ArrayList<>();
+            for (Term term: resource.getAnnotations(property)) terms.add(new Term(term.getString(), term.getLanguage()));
+            if (!terms.isEmpty()) this.annotations.put(property, Collections.unmodifiableList(terms));
+        }
+        this.conceptSchemeURIs = relationURIs(resource, SKOSElementProperty.inScheme);
+        this.topConceptOfURIs = relationURIs(resource, SKOSElementProperty.topConceptOf);
+    }
+
+    /**
+     * Lists the URIs of the resources related to a resource
+     * @param resource SKOS resource
+     * @param property Relationship type
+     * @return Unmodifiable list of the URIs of the resources related to
+     * {@code resource} through {@code property}
+     */
+    private static List<String> relationURIs(SKOSResource resource, SKOSObjectProperty property) {
+        List<String> uris = new ArrayList<>();
+        CloseableIterator<SKOSResource> relations = resource.listRelations(property);
+        try {
+            while (relations.hasNext()) uris.add(relations.next().getURI());
+        }
+        finally {
+            relations.close();
+        }
+        return Collections.unmodifiableList(uris);
+    }
+
+    /**
+     * Looks the resource up in its thesaurus, to navigate the relations that
+     * are not copied when it is detached
+     * @return Current version of the resource in its thesaurus
+     * @throws IllegalStateException if the resource no longer exists in the
+     * thesaurus
+     */
+    protected SKOSResource live() throws IllegalStateException {
+        SKOSResource resource = this.skos.getSKOSResource(this.getURI());
+        if (resource == null) throw new IllegalStateException("DetachedSKOSResource: "+this.getURI()+" no longer exists in its thesaurus");
+        return resource;
+    }
+
+    /**
+     * Returns the values of an annotation property
+     * @param property SKOS annotation property
+     * @return Values of {@code property}. This list must not be modified.
+     */
+    private List<Term> terms(SKOSAnnotationProperty property) {
+        List<Term> terms = (property != null) ? this.annotations.get(property) : null;
+        return (terms != null) ? terms : Collections.<Term>emptyList();
+    }
+
+    /**
+     * Returns the copied URIs of the resources related through the provided
+     * property
+     * @param relationshipType Relationship type
+     * @return URIs of the related concept schemes if {@code relationshipType}
+     * is {@code skos:inScheme} or {@code skos:topConceptOf}, {@code null}
+     * otherwise
+     */
+    private List<String> copiedRelations(SKOSObjectProperty relationshipType) {
+        if (relationshipType == SKOSElementProperty.inScheme) return this.conceptSchemeURIs;
+        if (relationshipType == SKOSElementProperty.topConceptOf) return this.topConceptOfURIs;
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public SKOS getSKOS() {
+        return this.skos;
+    }
+
+    /**
+     * Detached resources are read-only
+     * @return {@code true}
+     */
+    @Override
+    public boolean isReadOnly() {
+        return true;
+    }
+
+
+    // -------- -------- -------- --------
+    // Annotations
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param annotationProperty Annotation property
+     * @param value Annotation value
+     * @param language Annotation language
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addAnnotation(SKOSAnnotationProperty annotationProperty, String value, String language) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public String getAnnotation(SKOSAnnotationProperty annotationProperty, String language) {
+        for (Term term: this.terms(annotationProperty)) {
+            if (Objects.equals(language, term.getLanguage())) return term.getString();
+        }
+        return null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<Term> getAnnotations(SKOSAnnotationProperty annotationProperty) {
+        List<Term> terms = new ArrayList<>();
+        for (Term term: this.terms(annotationProperty)) terms.add(new Term(term.getString(), term.getLanguage()));
+        return terms;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<String> getAnnotations(SKOSAnnotationProperty annotationProperty, String language) {
+        List<String> values = new ArrayList<>();
+        for (Term term: this.terms(annotationProperty)) {
+            if (Objects.equals(language, term.getLanguage())) values.add(term.getString());
+        }
+        return values;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty) {
+        return !this.terms(annotationProperty).isEmpty();
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty, String language) {
+        return this.getAnnotation(annotationProperty, language) != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @param value {@inheritDoc}
+     * @param language {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasAnnotation(SKOSAnnotationProperty annotationProperty, String value, String language) {
+        if (value == null) return false;
+        for (Term term: this.terms(annotationProperty)) {
+            if (Objects.equals(language, term.getLanguage()) && value.equals(term.getString())) return true;
+        }
+        return false;
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param annotationProperty Annotation property
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAnnotations(SKOSAnnotationProperty annotationProperty) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param annotationProperty Annotation property
+     * @param language Annotation language
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAnnotations(SKOSAnnotationProperty annotationProperty, String language) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param annotationProperty Annotation property
+     * @param annotationValue Annotation value
+     * @param language Annotation language
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAnnotation(SKOSAnnotationProperty annotationProperty, String annotationValue, String language) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSAnnotationProperty> getAnnotationProperties() {
+        return new ArrayList<>(this.annotations.keySet());
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<String> getAnnotationLanguages() {
+        List<String> languages = new ArrayList<>();
+        for (List<Term> terms: this.annotations.values()) {
+            for (Term term: terms) {
+                if (!languages.contains(term.getLanguage())) languages.add(term.getLanguage());
+            }
+        }
+        return languages;
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param annotationProperty {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<String> getAnnotationLanguages(SKOSAnnotationProperty annotationProperty) {
+        List<String> languages = new ArrayList<>();
+        for (Term term: this.terms(annotationProperty)) {
+            if (!languages.contains(term.getLanguage())) languages.add(term.getLanguage());
+        }
+        return languages;
+    }
+
+
+    // -------- -------- -------- --------
+    // Relations
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param relationshipType Relationship type
+     * @param resourceURI URI of the related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addRelation(SKOSObjectProperty relationshipType, String resourceURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param relationshipType Relationship type
+     * @param otherResource Related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addRelation(SKOSObjectProperty relationshipType, SKOSResource otherResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}<br/>
+     * The concept schemes of the resource are served from the copy made when
+     * it was detached.
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSResource> listRelations(SKOSObjectProperty relationshipType) {
+        List<String> uris = this.copiedRelations(relationshipType);
+        if (uris == null) return this.live().listRelations(relationshipType);
+        final Iterator<SKOSConceptScheme> conceptSchemes = this.detacher.detachConceptSchemes(this.skos, uris).iterator();
+        return new CloseableIterator<SKOSResource>() {
+
+            @Override
+            public boolean hasNext() {
+                return conceptSchemes.hasNext();
+            }
+
+            @Override
+            public SKOSResource next() {
+                return conceptSchemes.next();
+            }
+
+            @Override
+            public void remove() {
+                throw new UnsupportedOperationException(READ_ONLY);
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasRelation(SKOSObjectProperty relationshipType) {
+        List<String> uris = this.copiedRelations(relationshipType);
+        return (uris != null) ? !uris.isEmpty() : this.live().hasRelation(relationshipType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasRelation(SKOSObjectProperty relationshipType, String resourceURI) {
+        List<String> uris = this.copiedRelations(relationshipType);
+        return (uris != null) ? uris.contains(resourceURI) : this.live().hasRelation(relationshipType, resourceURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @param skosResource {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean hasRelation(SKOSObjectProperty relationshipType, SKOSResource skosResource) {
+        return skosResource != null && this.hasRelation(relationshipType, skosResource.getURI());
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeRelations(SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param relationshipType Relationship type
+     * @param resourceURI URI of the related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeRelation(SKOSObjectProperty relationshipType, String resourceURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param relationshipType Relationship type
+     * @param skosResource Related resource
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeRelation(SKOSObjectProperty relationshipType, SKOSResource skosResource) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param resourceURI URI of the related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource makeRelation(String resourceURI, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param otherResource Related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource makeRelation(SKOSResource otherResource, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public CloseableIterator<SKOSResource> listRelationshipSources(SKOSObjectProperty relationshipType) {
+        return this.live().listRelationshipSources(relationshipType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isRelation(SKOSObjectProperty relationshipType) {
+        return this.live().isRelation(relationshipType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param resourceURI {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isRelation(String resourceURI, SKOSObjectProperty relationshipType) {
+        return this.live().isRelation(resourceURI, relationshipType);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param otherResource {@inheritDoc}
+     * @param relationshipType {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isRelation(SKOSResource otherResource, SKOSObjectProperty relationshipType) {
+        return this.live().isRelation(otherResource, relationshipType);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAsRelation(SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param resourceURI URI of the related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAsRelation(String resourceURI, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param skosResource Related resource
+     * @param relationshipType Relationship type
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeAsRelation(SKOSResource skosResource, SKOSObjectProperty relationshipType) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+
+    // -------- -------- -------- --------
+    // Concept schemes
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptSchemeURI Concept scheme URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addToConceptScheme(String conceptSchemeURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptScheme Concept scheme
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource addToConceptScheme(SKOSConceptScheme conceptScheme) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public List<SKOSConceptScheme> getConceptSchemes() {
+        return this.detacher.detachConceptSchemes(this.skos, this.conceptSchemeURIs);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptSchemeURI {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isInScheme(String conceptSchemeURI) {
+        return this.conceptSchemeURIs.contains(conceptSchemeURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     * @param conceptScheme {@inheritDoc}
+     * @return {@inheritDoc}
+     */
+    @Override
+    public boolean isInScheme(SKOSConceptScheme conceptScheme) {
+        return conceptScheme != null && this.conceptSchemeURIs.contains(conceptScheme.getURI());
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeFromAllConceptSchemes() {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptSchemeURI Concept scheme URI
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeFromConceptScheme(String conceptSchemeURI) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+
+    /**
+     * Not supported, detached resources are read-only
+     * @param conceptScheme Concept scheme
+     * @return Nothing
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    public SKOSResource removeFromConceptScheme(SKOSConceptScheme conceptScheme) {
+        throw new UnsupportedOperationException(READ_ONLY);
+    }
+}
@@ -0,0 +1,126 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Detaches the SKOS resources returned by a thesaurus into read-only value
+ * objects (see {@link DetachedSKOSResource}), before they are cached by
+ * {@link CachingSWSThesaurus}.<br/>
+ * Resources that are already read-only, such as detached resources or the
+ * resources of an immutable SKOS snapshot, are kept as they are. Concept
+ * schemes are shared by the resources they are related to, and detached
+ * once. A detacher is therefore meant for one generation of the data of the
+ * thesaurus, and is replaced when the cache is flushed.<br/>
+ * This class is thread-safe.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class EntityDetacher {
+
+    /**
+     * Detached concept schemes by URI
+     */
+    private final ConcurrentMap<String, SKOSConceptScheme> conceptSchemes = new ConcurrentHashMap<>();
+
+    /**
+     * Returns a detached copy of the provided entity
+     * @param <T> Type of the entity
+     * @param entity Entity to detach, for example a SKOS concept or a search
+     * result
+     * @return Detached copy of {@code entity} if it is a SKOS resource that
+     * is not read-only, {@code entity} itself otherwise
+     */
+    @SuppressWarnings("unchecked")
+    <T> T detach(T entity) {
+        if (!(entity instanceof SKOSResource)) return entity;
+        SKOSResource resource = (SKOSResource) entity;
+        if (resource.isReadOnly() || resource.getSkosType() == null) return entity;
+        switch (resource.getSkosType()) {
+            case Concept:
+                return (T) new DetachedSKOSConcept((SKOSConcept) resource, this);
+            case Collection:
+                return (T) new DetachedSKOSCollection((SKOSCollection) resource, this);
+            case ConceptScheme:
+                return (T) this.detachConceptScheme((SKOSConceptScheme) resource);
+            default:
+                return entity;
+        }
+    }
+
+    /**
+     * Returns detached copies of the elements of the provided list
+     * @param <T> Type of the elements
+     * @param entities Entities to detach
+     * @return New list of the detached copies of {@code entities}, in the
+     * same order
+     */
+    <T> List<T> detachAll(Collection<T> entities) {
+        List<T> detached = new ArrayList<>(entities.size());
+        for (T entity: entities) detached.add(this.detach(entity));
+        return detached;
+    }
+
+    /**
+     * Returns the detached copies of the concept schemes of a thesaurus
+     * identified by the provided URIs
+     * @param skos Thesaurus
+     * @param conceptSchemeURIs URIs of the concept schemes
+     * @return New list of the detached concept schemes. URIs that are not
+     * those of concept schemes of {@code skos} are ignored.
+     */
+    List<SKOSConceptScheme> detachConceptSchemes(SKOS skos, Collection<String> conceptSchemeURIs) {
+        List<SKOSConceptScheme> detached = new ArrayList<>(conceptSchemeURIs.size());
+        for (String uri: conceptSchemeURIs) {
+            SKOSConceptScheme conceptScheme = this.conceptSchemes.get(uri);
+            if (conceptScheme == null) {
+                SKOSConceptScheme liveConceptScheme = skos.getConceptScheme(uri);
+                if (liveConceptScheme != null) conceptScheme = this.detachConceptScheme(liveConceptScheme);
+            }
+            if (conceptScheme != null) detached.add(conceptScheme);
+        }
+        return detached;
+    }
+
+    /**
+     * Returns the detached copy of a concept scheme, detaching it on first
+     * use
+     * @param conceptScheme Concept scheme
+     * @return Detached copy of {@code conceptScheme}
+     */
+    private SKOSConceptScheme detachConceptScheme(SKOSConceptScheme conceptScheme) {
+        if (conceptScheme.isReadOnly()) return conceptScheme;
+        SKOSConceptScheme detached = this.conceptSchemes.get(conceptScheme.getURI());
+        if (detached == null) {
+            detached = new DetachedSKOSConceptScheme(conceptScheme, this);
+            SKOSConceptScheme previous = this.conceptSchemes.putIfAbsent(conceptScheme.getURI(), detached);
+            if (previous != null) detached = previous;
+        }
+        return detached;
+    }
+}
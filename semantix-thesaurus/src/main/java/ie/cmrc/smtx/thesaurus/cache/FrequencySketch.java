@@ -0,0 +1,139 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+/**
+ * A count-min sketch estimating how often keys have been requested
+ * recently. Counters saturate at {@value #MAX_COUNT} and are all halved
+ * once the number of recorded requests reaches ten times the width of the
+ * sketch, so that old popularity fades away.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+class FrequencySketch {
+
+    /**
+     * Number of hash functions (rows of counters)
+     */
+    private static final int DEPTH = 4;
+
+    /**
+     * Maximum value of a counter
+     */
+    private static final int MAX_COUNT = 15;
+
+    /**
+     * Seeds of the hash functions
+     */
+    private static final int[] SEEDS = {0x9E3779B9, 0x85EBCA6B, 0xC2B2AE35, 0x27D4EB2F};
+
+    /**
+     * Counters, one row per hash function
+     */
+    private final byte[][] counters;
+
+    /**
+     * Bit mask used to map hashes to counter indexes
+     */
+    private final int mask;
+
+    /**
+     * Number of requests after which counters are halved
+     */
+    private final int sampleSize;
+
+    /**
+     * Number of requests recorded since counters were last halved
+     */
+    private int size = 0;
+
+    /**
+     * Constructs a sketch sized for the provided number of keys
+     * @param expectedKeys Expected number of distinct keys
+     */
+    FrequencySketch(int expectedKeys) {
+        int width = Integer.highestOneBit(Math.max(16, Math.min(expectedKeys, 1 << 24)) - 1) << 1;
+        this.counters = new byte[DEPTH][width];
+        this.mask = width - 1;
+        this.sampleSize = 10 * width;
+    }
+
+    /**
+     * Records a request for the provided key
+     * @param key Requested key
+     */
+    void increment(Object key) {
+        int hash = spread(key.hashCode());
+        boolean incremented = false;
+        for (int i = 0; i < DEPTH; i++) {
+            int index = this.indexOf(hash, i);
+            if (this.counters[i][index] < MAX_COUNT) {
+                this.counters[i][index]++;
+                incremented = true;
+            }
+        }
+        if (incremented && ++this.size >= this.sampleSize) this.reset();
+    }
+
+    /**
+     * Estimates how often the provided key has been requested recently
+     * @param key Key
+     * @return Estimated frequency of {@code key}, between {@code 0} and
+     * {@value #MAX_COUNT}
+     */
+    int frequency(Object key) {
+        int hash = spread(key.hashCode());
+        int frequency = MAX_COUNT;
+        for (int i = 0; i < DEPTH; i++) {
+            frequency = Math.min(frequency, this.counters[i][this.indexOf(hash, i)]);
+        }
+        return frequency;
+    }
+
+    /**
+     * Halves all the counters
+     */
+    private void reset() {
+        for (byte[] row : this.counters) {
+            for (int j = 0; j < row.length; j++) row[j] = (byte) (row[j] >>> 1);
+        }
+        this.size = this.size / 2;
+    }
+
+    /**
+     * Returns the index of the counter of the provided hash in the provided row
+     * @param hash Spread hash of a key
+     * @param row Row of counters
+     * @return Index of the counter
+     */
+    private int indexOf(int hash, int row) {
+        int h = (hash + SEEDS[row]) * SEEDS[row];
+        h ^= (h >>> 16);
+        return h & this.mask;
+    }
+
+    /**
+     * Spreads the bits of the provided hash code
+     * @param hashCode Hash code
+     * @return Spread hash
+     */
+    private static int spread(int hashCode) {
+        int h = hashCode * 0x9E3779B9;
+        return h ^ (h >>> 15);
+    }
+}
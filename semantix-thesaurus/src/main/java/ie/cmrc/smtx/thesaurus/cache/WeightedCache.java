@@ -0,0 +1,160 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A size-bounded cache whose entries have a weight. The total weight of the
+ * entries never exceeds the maximum weight of the cache.<br/>
+ * Eviction is frequency-aware: when a new entry does not fit, it is only
+ * admitted if it has been requested more often recently than the least
+ * recently used entries it would replace. Request frequencies are estimated
+ * with a {@link FrequencySketch}, which also accounts for keys that are not
+ * in the cache. This keeps popular entries from being flushed by bursts of
+ * one-off requests.<br/>
+ * This class is thread-safe.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ * @param <K> Type of keys
+ * @param <V> Type of values
+ */
+class WeightedCache<K, V> {
+
+    /**
+     * Maximum total weight of the entries
+     */
+    private final long maxWeight;
+
+    /**
+     * Entries in access order, least recently used first
+     */
+    private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * Estimated request frequencies of the keys
+     */
+    private final FrequencySketch sketch;
+
+    /**
+     * Total weight of the entries
+     */
+    private long weight = 0;
+
+    /**
+     * Constructs a cache with the provided maximum weight
+     * @param maxWeight Maximum total weight of the entries
+     * @param expectedEntries Expected number of entries, used to size the
+     * frequency sketch
+     * @throws IllegalArgumentException if {@code maxWeight<=0}
+     */
+    WeightedCache(long maxWeight, int expectedEntries) {
+        if (maxWeight <= 0) throw new IllegalArgumentException("WeightedCache constructor: maxWeight must be positive");
+        this.maxWeight = maxWeight;
+        this.sketch = new FrequencySketch(expectedEntries);
+    }
+
+    /**
+     * Returns the value cached for the provided key, and records the request
+     * @param key Key
+     * @return Value cached for {@code key} if any, otherwise {@code null}
+     */
+    synchronized V get(K key) {
+        this.sketch.increment(key);
+        Entry<V> entry = this.entries.get(key);
+        return (entry != null) ? entry.value : null;
+    }
+
+    /**
+     * Caches the provided value, if admitted. An entry already cached for
+     * the key is only replaced if the new value is admitted.
+     * @param key Key
+     * @param value Value
+     * @param valueWeight Weight of the value
+     * @return {@code true} if the value has been cached, {@code false} if it
+     * has been rejected
+     */
+    synchronized boolean put(K key, V value, long valueWeight) {
+        if (valueWeight > this.maxWeight) return false;
+
+        // The weight of the entry replaced, if any, is freed by the update
+        Entry<V> previous = this.entries.get(key);
+        long weightAfter = this.weight - ((previous != null) ? previous.weight : 0) + valueWeight;
+
+        List<K> victims = new ArrayList<>();
+        if (weightAfter > this.maxWeight) {
+            // Check that the candidate is worth the entries it would replace
+            int candidateFrequency = this.sketch.frequency(key);
+            for (Map.Entry<K, Entry<V>> victim : this.entries.entrySet()) {
+                if (weightAfter <= this.maxWeight) break;
+                if (victim.getKey().equals(key)) continue;
+                if (candidateFrequency <= this.sketch.frequency(victim.getKey())) return false;
+                weightAfter -= victim.getValue().weight;
+                victims.add(victim.getKey());
+            }
+        }
+
+        for (K victim : victims) this.entries.remove(victim);
+        this.entries.put(key, new Entry<>(value, valueWeight));
+        this.weight = weightAfter;
+        return true;
+    }
+
+    /**
+     * Removes all the entries. Request frequencies are kept.
+     */
+    synchronized void clear() {
+        this.entries.clear();
+        this.weight = 0;
+    }
+
+    /**
+     * Returns the number of entries
+     * @return Number of entries
+     */
+    synchronized int size() {
+        return this.entries.size();
+    }
+
+    /**
+     * Returns the total weight of the entries
+     * @return Total weight of the entries
+     */
+    synchronized long weight() {
+        return this.weight;
+    }
+
+    /**
+     * A cached value and its weight
+     * @param <V> Type of the value
+     */
+    private static class Entry<V> {
+
+        final V value;
+
+        final long weight;
+
+        Entry(V value, long weight) {
+            this.value = value;
+            this.weight = weight;
+        }
+    }
+}
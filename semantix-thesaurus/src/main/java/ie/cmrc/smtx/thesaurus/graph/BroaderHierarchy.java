@@ -0,0 +1,323 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.graph;
+
+import java.util.Arrays;
+
+/**
+ * Index answering lowest common broader concept queries over the broader
+ * hierarchy of a {@link ConceptGraph}.<br/>
+ * Each concept is attached to the spanning forest of a breadth-first
+ * traversal starting from the broadest concepts, whose Euler tour is indexed
+ * by a sparse table of depth minima. When both concepts only have a single
+ * chain of broader concepts, their lowest common broader concept is
+ * therefore read from the sparse table in constant time. Otherwise, since
+ * a concept of a polyhierarchy may have several lowest common broader
+ * concepts, the common broader concepts are computed by walking the broader
+ * links, and those that are broader than another one are discarded.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class BroaderHierarchy {
+
+    /**
+     * Broader links
+     */
+    private final RelationAdjacency broader;
+
+    /**
+     * Depth of each concept in the spanning forest
+     */
+    private final int[] depth;
+
+    /**
+     * Root of the spanning tree of each concept
+     */
+    private final int[] root;
+
+    /**
+     * Indicates, for each concept, whether its broader concepts form a single
+     * chain, which is then its path in the spanning forest
+     */
+    private final boolean[] chain;
+
+    /**
+     * Euler tour of the spanning forest
+     */
+    private final int[] euler;
+
+    /**
+     * Index of the first occurrence of each concept in {@link #euler}
+     */
+    private final int[] first;
+
+    /**
+     * Sparse table: {@code sparse[k][i]} is the index of the shallowest
+     * concept of {@code euler[i..i+2^k-1]}
+     */
+    private final int[][] sparse;
+
+    /**
+     * Constructs a {@link BroaderHierarchy}
+     * @param broader Broader links between concepts
+     */
+    BroaderHierarchy(RelationAdjacency broader) {
+        int size = broader.size();
+        this.broader = broader;
+        this.depth = new int[size];
+        this.root = new int[size];
+        this.chain = new boolean[size];
+        Arrays.fill(this.depth, -1);
+
+        // Spanning forest, rooted at the broadest concepts and then at one
+        // concept of each broader cycle that no broadest concept leads to
+        int[] parent = new int[size];
+        int[] order = new int[size];
+        int count = 0;
+        for (int node = 0; node < size; node++) {
+            if (broader.outStart(node) == broader.outEnd(node)) count = this.plant(node, parent, order, count);
+        }
+        for (int node = 0; node < size; node++) {
+            if (this.depth[node] < 0) count = this.plant(node, parent, order, count);
+        }
+
+        int[] parents = broader.outTargets();
+        for (int i = 0; i < size; i++) {
+            int node = order[i];
+            int start = broader.outStart(node);
+            int end = broader.outEnd(node);
+            if (start == end) this.chain[node] = true;
+            else if (end - start == 1 && parents[start] == parent[node]) this.chain[node] = this.chain[parent[node]];
+        }
+
+        // Euler tour
+        int[] childOffsets = new int[size + 1];
+        for (int node = 0; node < size; node++) {
+            if (parent[node] >= 0) childOffsets[parent[node] + 1]++;
+        }
+        for (int node = 0; node < size; node++) childOffsets[node + 1] += childOffsets[node];
+        int[] children = new int[size];
+        int[] cursors = Arrays.copyOf(childOffsets, size);
+        for (int i = 0; i < size; i++) {
+            int node = order[i];
+            if (parent[node] >= 0) children[cursors[parent[node]]++] = node;
+        }
+
+        int roots = 0;
+        for (int node = 0; node < size; node++) {
+            if (parent[node] < 0) roots++;
+        }
+        this.euler = new int[Math.max(0, 2 * size - roots)];
+        this.first = new int[size];
+        int[] stack = new int[size];
+        System.arraycopy(childOffsets, 0, cursors, 0, size);
+        int position = 0;
+        for (int i = 0; i < size; i++) {
+            int top = order[i];
+            if (parent[top] >= 0) continue;
+            int height = 0;
+            stack[height++] = top;
+            this.first[top] = position;
+            this.euler[position++] = top;
+            while (height > 0) {
+                int node = stack[height - 1];
+                if (cursors[node] < childOffsets[node + 1]) {
+                    int child = children[cursors[node]++];
+                    stack[height++] = child;
+                    this.first[child] = position;
+                    this.euler[position++] = child;
+                }
+                else {
+                    height--;
+                    if (height > 0) this.euler[position++] = stack[height - 1];
+                }
+            }
+        }
+
+        // Sparse table of depth minima
+        int length = this.euler.length;
+        int levels = length > 0 ? 32 - Integer.numberOfLeadingZeros(length) : 0;
+        this.sparse = new int[levels][];
+        if (levels > 0) {
+            int[] base = new int[length];
+            for (int i = 0; i < length; i++) base[i] = i;
+            this.sparse[0] = base;
+        }
+        for (int k = 1; k < levels; k++) {
+            int half = 1 << (k - 1);
+            int[] previous = this.sparse[k - 1];
+            int[] level = new int[length - (1 << k) + 1];
+            for (int i = 0; i < level.length; i++) level[i] = this.shallowest(previous[i], previous[i + half]);
+            this.sparse[k] = level;
+        }
+    }
+
+    /**
+     * Depth of a concept, that is the length of the shortest chain of broader
+     * links leading from it to a broadest concept
+     * @param node Concept index
+     * @return Depth of {@code node}
+     */
+    int getDepth(int node) {
+        return this.depth[node];
+    }
+
+    /**
+     * Lowest common broader concepts of two concepts. A concept is considered
+     * here as a broader concept of itself, so that if one of the concepts is
+     * broader than the other then it is their only lowest common broader
+     * concept.
+     * @param first First concept index
+     * @param second Second concept index
+     * @param state Scratch arrays of the calling thread
+     * @return Indexes of the common broader concepts of {@code first} and
+     * {@code second} that are not broader than another common broader
+     * concept. This is empty if the concepts have no common broader concept.
+     */
+    int[] lowestCommonBroader(int first, int second, TraversalState state) {
+        if (this.chain[first] && this.chain[second]) {
+            if (this.root[first] != this.root[second]) return new int[0];
+            int i = this.first[first];
+            int j = this.first[second];
+            if (i > j) {
+                int swap = i;
+                i = j;
+                j = swap;
+            }
+            int k = 31 - Integer.numberOfLeadingZeros(j - i + 1);
+            return new int[] {this.euler[this.shallowest(this.sparse[k][i], this.sparse[k][j - (1 << k) + 1])]};
+        }
+
+        int[] parents = this.broader.outTargets();
+        int[] ancestors = state.markA;
+        int[] visited = state.markB;
+        int[] queue = state.queueA;
+        int[] walk = state.queueB;
+
+        // Broader concepts of the first concept
+        int stamp = state.newStamp();
+        ancestors[first] = stamp;
+        queue[0] = first;
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int node = queue[head];
+            for (int e = this.broader.outStart(node); e < this.broader.outEnd(node); e++) {
+                int next = parents[e];
+                if (ancestors[next] != stamp) {
+                    ancestors[next] = stamp;
+                    queue[tail++] = next;
+                }
+            }
+        }
+
+        // Walk up from the second concept, stopping at common broader concepts
+        int[] candidates = new int[4];
+        int candidateCount = 0;
+        visited[second] = stamp;
+        walk[0] = second;
+        tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int node = walk[head];
+            if (ancestors[node] == stamp) {
+                if (candidateCount == candidates.length) candidates = Arrays.copyOf(candidates, 2 * candidateCount);
+                candidates[candidateCount++] = node;
+                continue;
+            }
+            for (int e = this.broader.outStart(node); e < this.broader.outEnd(node); e++) {
+                int next = parents[e];
+                if (visited[next] != stamp) {
+                    visited[next] = stamp;
+                    walk[tail++] = next;
+                }
+            }
+        }
+        if (candidateCount <= 1) return Arrays.copyOf(candidates, candidateCount);
+
+        // Discard the candidates that are broader than another candidate
+        int dominated = state.newStamp();
+        tail = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            int node = candidates[c];
+            for (int e = this.broader.outStart(node); e < this.broader.outEnd(node); e++) {
+                int next = parents[e];
+                if (ancestors[next] != dominated) {
+                    ancestors[next] = dominated;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        for (int head = 0; head < tail; head++) {
+            int node = queue[head];
+            for (int e = this.broader.outStart(node); e < this.broader.outEnd(node); e++) {
+                int next = parents[e];
+                if (ancestors[next] != dominated) {
+                    ancestors[next] = dominated;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        int[] lowest = new int[candidateCount];
+        int lowestCount = 0;
+        for (int c = 0; c < candidateCount; c++) {
+            if (ancestors[candidates[c]] != dominated) lowest[lowestCount++] = candidates[c];
+        }
+        // Candidates that are all broader than each other belong to a broader cycle
+        return lowestCount > 0 ? Arrays.copyOf(lowest, lowestCount) : Arrays.copyOf(candidates, candidateCount);
+    }
+
+    /**
+     * Adds a tree to the spanning forest
+     * @param top Root of the new tree
+     * @param parent Parent of each concept in the spanning forest
+     * @param order Concepts in the order they were added to the forest
+     * @param count Number of concepts already added to the forest
+     * @return Number of concepts added to the forest, including those of
+     * the new tree
+     */
+    private int plant(int top, int[] parent, int[] order, int count) {
+        int[] narrower = this.broader.inSources();
+        this.depth[top] = 0;
+        this.root[top] = top;
+        parent[top] = -1;
+        int tail = count;
+        order[tail++] = top;
+        for (int head = count; head < tail; head++) {
+            int node = order[head];
+            for (int e = this.broader.inStart(node); e < this.broader.inEnd(node); e++) {
+                int child = narrower[e];
+                if (this.depth[child] < 0) {
+                    this.depth[child] = this.depth[node] + 1;
+                    this.root[child] = top;
+                    parent[child] = node;
+                    order[tail++] = child;
+                }
+            }
+        }
+        return tail;
+    }
+
+    /**
+     * Returns the Euler tour index of the shallowest of two concepts
+     * @param i First Euler tour index
+     * @param j Second Euler tour index
+     * @return {@code i} or {@code j}
+     */
+    private int shallowest(int i, int j) {
+        return this.depth[this.euler[i]] <= this.depth[this.euler[j]] ? i : j;
+    }
+}
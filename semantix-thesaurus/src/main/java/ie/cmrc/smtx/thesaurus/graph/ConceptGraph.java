@@ -0,0 +1,617 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.graph;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * In-memory index of the semantic relations between the concepts of a SKOS
+ * thesaurus, answering concept-to-concept queries without accessing the
+ * thesaurus.<br/>
+ * The concepts are numbered when the graph is constructed. The links of each
+ * semantic relation are loaded from the thesaurus the first time the relation
+ * is queried, and include the inverse of the links of its inverse relation
+ * (e.g. {@code broader} links include the inverse of {@code narrower} links).
+ * The index of the broader hierarchy, the members of the concept schemes
+ * and collections used as filters, and the numbers of narrower concepts
+ * within them, are also loaded on first use.<br/>
+ * A concept graph is a snapshot: it does not reflect later changes to the
+ * thesaurus, and must be replaced by a new one when the thesaurus is
+ * modified. It records the generation of the thesaurus it was built from
+ * (see {@link #getGeneration()}) so that users can tell when it is out of
+ * date. It is thread safe.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public final class ConceptGraph {
+
+    /**
+     * Distance returned when no path exists between two concepts
+     */
+    public static final int UNREACHABLE = -1;
+
+    /**
+     * SKOS thesaurus
+     */
+    private final SKOS skos;
+
+    /**
+     * Generation of the thesaurus when the graph was constructed
+     */
+    private final long generation;
+
+    /**
+     * Concept URIs, by concept index
+     */
+    private final String[] uris;
+
+    /**
+     * Concept indexes, by concept URI
+     */
+    private final Map<String, Integer> ids;
+
+    /**
+     * Loaded relations
+     */
+    private final ConcurrentMap<SKOSSemanticProperty, RelationAdjacency> relations = new ConcurrentHashMap<>();
+
+    /**
+     * Members of the queried concept scheme and collection pairs, by pair of
+     * URIs
+     */
+    private final ConcurrentMap<List<String>, BitSet> members = new ConcurrentHashMap<>();
+
+    /**
+     * Numbers of narrower concepts within the queried concept scheme and
+     * collection pairs, by pair of URIs
+     */
+    private final ConcurrentMap<List<String>, NarrowerCounts> narrowerCounts = new ConcurrentHashMap<>();
+
+    /**
+     * Index of the broader hierarchy, built on first use
+     */
+    private volatile BroaderHierarchy hierarchy;
+
+    /**
+     * Scratch arrays of each thread
+     */
+    private final ThreadLocal<TraversalState> states;
+
+    /**
+     * Constructs a {@link ConceptGraph} over the concepts of the provided
+     * thesaurus
+     * @param skos SKOS thesaurus
+     * @throws IllegalArgumentException if {@code skos} is {@code null}
+     */
+    public ConceptGraph(SKOS skos) {
+        if (skos == null) throw new IllegalArgumentException("ConceptGraph constructor: skos argument must not be null");
+        this.skos = skos;
+        this.generation = skos.getGeneration();
+        Set<String> conceptURIs = new LinkedHashSet<>();
+        try (CloseableIterator<SKOSConcept> concepts = skos.listConcepts()) {
+            while (concepts.hasNext()) {
+                SKOSConcept concept = concepts.next();
+                if (concept != null) conceptURIs.add(concept.getURI());
+            }
+        }
+        this.uris = conceptURIs.toArray(new String[conceptURIs.size()]);
+        this.ids = new HashMap<>(2 * this.uris.length);
+        for (int i = 0; i < this.uris.length; i++) this.ids.put(this.uris[i], i);
+        int size = this.uris.length;
+        this.states = ThreadLocal.withInitial(() -> new TraversalState(size));
+    }
+
+    /**
+     * Returns the generation of the thesaurus when the graph was constructed
+     * (see {@link SKOS#getGeneration()}). The graph is out of date if the
+     * thesaurus has a different generation.
+     * @return Generation of the thesaurus the graph was built from
+     */
+    public long getGeneration() {
+        return this.generation;
+    }
+
+    /**
+     * Number of concepts of the graph
+     * @return Number of concepts
+     */
+    public int size() {
+        return this.uris.length;
+    }
+
+    /**
+     * Indicates whether the graph contains the provided concept
+     * @param conceptURI Concept URI
+     * @return {@code true} if {@code conceptURI} is the URI of a concept of
+     * the graph
+     */
+    public boolean containsConcept(String conceptURI) {
+        return conceptURI != null && this.ids.containsKey(conceptURI);
+    }
+
+    /**
+     * Length of the shortest path between two concepts, following links of
+     * the provided relations. The path is searched by a bidirectional
+     * breadth-first search, expanding at each step the smaller frontier.
+     * @param fromConceptURI URI of the concept the path starts from
+     * @param toConceptURI URI of the concept the path leads to
+     * @param relationshipTypes Relations whose links may be followed. Links
+     * are followed in their direction only, so that the distance over
+     * {@code broader} links from a concept to a narrower one is
+     * {@linkplain #UNREACHABLE}.
+     * @param maxDistance Maximum length of the path
+     * @return Number of links of the shortest path from
+     * {@code fromConceptURI} to {@code toConceptURI}, {@code 0} if they are
+     * the same concept, or {@linkplain #UNREACHABLE} if either URI is not that
+     * of a concept of the graph or if no path of at most {@code maxDistance}
+     * links exists
+     */
+    public int getDistance(String fromConceptURI, String toConceptURI, Collection<SKOSSemanticProperty> relationshipTypes, int maxDistance) {
+        Integer from = fromConceptURI != null ? this.ids.get(fromConceptURI) : null;
+        Integer to = toConceptURI != null ? this.ids.get(toConceptURI) : null;
+        if (from == null || to == null || maxDistance < 0) return UNREACHABLE;
+        if (from.intValue() == to.intValue()) return 0;
+        if (relationshipTypes == null || relationshipTypes.isEmpty()) return UNREACHABLE;
+
+        Set<SKOSSemanticProperty> types = new LinkedHashSet<>(relationshipTypes);
+        types.remove(null);
+        List<RelationAdjacency> adjacencies = new ArrayList<>(types.size());
+        for (SKOSSemanticProperty type: types) adjacencies.add(this.getRelation(type));
+        return this.distance(from, to, adjacencies.toArray(new RelationAdjacency[adjacencies.size()]), maxDistance);
+    }
+
+    /**
+     * Lowest common broader concepts of two concepts, that is the concepts
+     * that are broader than (or the same as) both concepts, and that are not
+     * broader than another such concept. A concept is considered as a broader
+     * concept of itself, so that if one of the concepts is broader than the
+     * other then it is their only lowest common broader concept. In a
+     * polyhierarchy, two concepts may have several lowest common broader
+     * concepts.
+     * @param conceptURI1 URI of the first concept
+     * @param conceptURI2 URI of the second concept
+     * @return URIs of the lowest common broader concepts of
+     * {@code conceptURI1} and {@code conceptURI2}, deepest first. This is
+     * empty if the concepts have no common broader concept, or if either URI
+     * is not that of a concept of the graph.
+     */
+    public List<String> getLowestCommonBroaderConcepts(String conceptURI1, String conceptURI2) {
+        Integer first = conceptURI1 != null ? this.ids.get(conceptURI1) : null;
+        Integer second = conceptURI2 != null ? this.ids.get(conceptURI2) : null;
+        if (first == null || second == null) return new ArrayList<>(0);
+
+        BroaderHierarchy index = this.getHierarchy();
+        int[] lowest = index.lowestCommonBroader(first, second, this.states.get());
+        if (lowest.length == 1) return Collections.singletonList(this.uris[lowest[0]]);
+
+        Integer[] sorted = new Integer[lowest.length];
+        for (int i = 0; i < lowest.length; i++) sorted[i] = lowest[i];
+        Arrays.sort(sorted, Comparator.comparingInt((Integer node) -> -index.getDepth(node)).thenComparing(node -> this.uris[node]));
+        List<String> result = new ArrayList<>(sorted.length);
+        for (Integer node: sorted) result.add(this.uris[node]);
+        return result;
+    }
+
+    /**
+     * Depth of a concept in the broader hierarchy, that is the length of the
+     * shortest chain of broader links leading from it to a concept that has
+     * no broader concept
+     * @param conceptURI Concept URI
+     * @return Depth of the concept, {@code 0} for a concept that has no
+     * broader concept, or {@linkplain #UNREACHABLE} if {@code conceptURI} is
+     * not that of a concept of the graph
+     */
+    public int getDepth(String conceptURI) {
+        Integer node = conceptURI != null ? this.ids.get(conceptURI) : null;
+        if (node == null) return UNREACHABLE;
+        return this.getHierarchy().getDepth(node);
+    }
+
+    /**
+     * Chains of broader concepts leading from a concept to the broadest
+     * concepts, optionally within a concept scheme and collection. When
+     * filtering, concepts that are outside the concept scheme or collection
+     * are skipped: the broader concepts of a concept are then the nearest
+     * broader concepts that are within the concept scheme and collection.
+     * Broader cycles are not followed.
+     * @param conceptURI URI of the concept the chains start from
+     * @param conceptSchemeURI URI of the concept scheme the chains are
+     * restricted to, or {@code null}
+     * @param skosCollectionURI URI of the collection the chains are
+     * restricted to, or {@code null}
+     * @param maxPaths Maximum number of chains. In a polyhierarchy, the
+     * number of chains may grow exponentially with the depth of the concept.
+     * @return Chains of concept URIs, each starting with {@code conceptURI}
+     * and ending with a concept that has no broader concept (within the
+     * concept scheme and collection). A concept that has no broader concept
+     * has a single chain consisting of itself. This is empty if
+     * {@code conceptURI} is not that of a concept of the graph, or if no
+     * concept scheme or collection exists with the provided URIs.
+     */
+    public List<List<String>> getBroaderPaths(String conceptURI, String conceptSchemeURI, String skosCollectionURI, int maxPaths) {
+        Integer node = conceptURI != null ? this.ids.get(conceptURI) : null;
+        if (node == null || maxPaths <= 0) return new ArrayList<>(0);
+        BitSet filter = null;
+        if (conceptSchemeURI != null || skosCollectionURI != null) {
+            filter = this.getMembers(conceptSchemeURI, skosCollectionURI);
+            if (filter == null) return new ArrayList<>(0);
+        }
+
+        RelationAdjacency broader = this.getRelation(SKOSSemanticProperty.broader);
+        List<int[]> paths = new ArrayList<>();
+        this.collectPaths(node, new ArrayList<>(), broader, filter, maxPaths, paths, this.states.get());
+
+        List<List<String>> result = new ArrayList<>(paths.size());
+        for (int[] path: paths) {
+            List<String> pathURIs = new ArrayList<>(path.length);
+            for (int pathNode: path) pathURIs.add(this.uris[pathNode]);
+            result.add(pathURIs);
+        }
+        return result;
+    }
+
+    /**
+     * Loads the broader links and builds the index of the broader hierarchy,
+     * unless already done. Queries do this on first use: calling this
+     * beforehand moves the cost to start-up time.
+     */
+    public void loadBroaderHierarchy() {
+        this.getHierarchy();
+    }
+
+    /**
+     * Number of direct narrower concepts of a concept, optionally within a
+     * concept scheme and collection. When filtering, the direct narrower
+     * concepts of a concept are its nearest narrower concepts that are
+     * within the concept scheme and collection.
+     * @param conceptURI Concept URI
+     * @param conceptSchemeURI URI of the concept scheme the narrower concepts
+     * are restricted to, or {@code null}
+     * @param skosCollectionURI URI of the collection the narrower concepts
+     * are restricted to, or {@code null}
+     * @return Number of direct narrower concepts of the concept. This is
+     * {@code 0} if {@code conceptURI} is not that of a concept of the graph,
+     * if no concept scheme or collection exists with the provided URIs, or if
+     * the concept is not within them.
+     */
+    public int getNarrowerCount(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        Integer node = conceptURI != null ? this.ids.get(conceptURI) : null;
+        NarrowerCounts counts = node != null ? this.getNarrowerCounts(conceptSchemeURI, skosCollectionURI) : null;
+        return counts != null ? counts.getDirectCount(node) : 0;
+    }
+
+    /**
+     * Number of transitive narrower concepts of a concept, optionally within
+     * a concept scheme and collection
+     * @param conceptURI Concept URI
+     * @param conceptSchemeURI URI of the concept scheme the narrower concepts
+     * are restricted to, or {@code null}
+     * @param skosCollectionURI URI of the collection the narrower concepts
+     * are restricted to, or {@code null}
+     * @return Number of distinct concepts that are transitively narrower than
+     * the concept, the concept itself excluded. This is {@code 0} in the same
+     * cases as {@link #getNarrowerCount(java.lang.String, java.lang.String, java.lang.String)}.
+     */
+    public int getTransitiveNarrowerCount(String conceptURI, String conceptSchemeURI, String skosCollectionURI) {
+        Integer node = conceptURI != null ? this.ids.get(conceptURI) : null;
+        NarrowerCounts counts = node != null ? this.getNarrowerCounts(conceptSchemeURI, skosCollectionURI) : null;
+        return counts != null ? counts.getTransitiveCount(node, this.states.get()) : 0;
+    }
+
+    /**
+     * Computes the numbers of narrower concepts within a concept scheme and
+     * collection, unless already done. Queries do this on first use: calling
+     * this beforehand moves the cost to start-up time.
+     * @param conceptSchemeURI Concept scheme URI, or {@code null}
+     * @param skosCollectionURI Collection URI, or {@code null}
+     */
+    public void loadNarrowerCounts(String conceptSchemeURI, String skosCollectionURI) {
+        this.getNarrowerCounts(conceptSchemeURI, skosCollectionURI);
+    }
+
+    /**
+     * Extends a chain of broader concepts up to the broadest concepts
+     * @param node Concept to add to the chain
+     * @param path Chain leading to {@code node}
+     * @param broader Broader links
+     * @param filter Concepts the chains are restricted to, or {@code null}
+     * @param maxPaths Maximum number of chains
+     * @param paths Complete chains
+     * @param state Scratch arrays of the calling thread
+     */
+    private void collectPaths(int node, List<Integer> path, RelationAdjacency broader, BitSet filter, int maxPaths, List<int[]> paths, TraversalState state) {
+        path.add(node);
+        boolean extended = false;
+        for (int parent: this.parentsOf(node, broader, filter, state)) {
+            if (paths.size() >= maxPaths) break;
+            if (path.contains(parent)) continue;
+            extended = true;
+            this.collectPaths(parent, path, broader, filter, maxPaths, paths, state);
+        }
+        if (!extended && paths.size() < maxPaths) {
+            int[] complete = new int[path.size()];
+            for (int i = 0; i < complete.length; i++) complete[i] = path.get(i);
+            paths.add(complete);
+        }
+        path.remove(path.size() - 1);
+    }
+
+    /**
+     * Broader concepts of a concept, within the provided filter
+     * @param node Concept index
+     * @param broader Broader links
+     * @param filter Concepts to keep, or {@code null}
+     * @param state Scratch arrays of the calling thread
+     * @return Indexes of the broader concepts of {@code node}. If
+     * {@code filter} is not {@code null}, then these are the nearest broader
+     * concepts that are in {@code filter}.
+     */
+    private int[] parentsOf(int node, RelationAdjacency broader, BitSet filter, TraversalState state) {
+        int[] parents = broader.outTargets();
+        if (filter == null) return Arrays.copyOfRange(parents, broader.outStart(node), broader.outEnd(node));
+
+        int stamp = state.newStamp();
+        int[] visited = state.markB;
+        int[] queue = state.queueA;
+        int[] kept = new int[4];
+        int keptCount = 0;
+        visited[node] = stamp;
+        queue[0] = node;
+        int tail = 1;
+        for (int head = 0; head < tail; head++) {
+            int current = queue[head];
+            for (int e = broader.outStart(current); e < broader.outEnd(current); e++) {
+                int next = parents[e];
+                if (visited[next] == stamp) continue;
+                visited[next] = stamp;
+                if (filter.get(next)) {
+                    if (keptCount == kept.length) kept = Arrays.copyOf(kept, 2 * keptCount);
+                    kept[keptCount++] = next;
+                }
+                else queue[tail++] = next;
+            }
+        }
+        return Arrays.copyOf(kept, keptCount);
+    }
+
+    /**
+     * Returns the members of a concept scheme and collection, loading them on
+     * first use
+     * @param conceptSchemeURI Concept scheme URI, or {@code null}
+     * @param skosCollectionURI Collection URI, or {@code null}
+     * @return Indexes of the concepts that are in both the concept scheme and
+     * the collection, or {@code null} if either does not exist
+     */
+    private BitSet getMembers(String conceptSchemeURI, String skosCollectionURI) {
+        List<String> key = Arrays.asList(conceptSchemeURI, skosCollectionURI);
+        BitSet filter = this.members.get(key);
+        if (filter == null) {
+            SKOSConceptScheme conceptScheme = conceptSchemeURI != null ? this.skos.getConceptScheme(conceptSchemeURI) : null;
+            SKOSCollection skosCollection = skosCollectionURI != null ? this.skos.getCollection(skosCollectionURI) : null;
+            if ((conceptSchemeURI != null && conceptScheme == null) || (skosCollectionURI != null && skosCollection == null)) return null;
+            filter = new BitSet(this.uris.length);
+            try (CloseableIterator<SKOSConcept> concepts = this.skos.listConcepts(conceptScheme, skosCollection)) {
+                while (concepts.hasNext()) {
+                    SKOSConcept concept = concepts.next();
+                    Integer node = concept != null ? this.ids.get(concept.getURI()) : null;
+                    if (node != null) filter.set(node);
+                }
+            }
+            BitSet previous = this.members.putIfAbsent(key, filter);
+            if (previous != null) filter = previous;
+        }
+        return filter;
+    }
+
+    /**
+     * Returns the numbers of narrower concepts within a concept scheme and
+     * collection, computing them on first use
+     * @param conceptSchemeURI Concept scheme URI, or {@code null}
+     * @param skosCollectionURI Collection URI, or {@code null}
+     * @return Numbers of narrower concepts, or {@code null} if no concept
+     * scheme or collection exists with the provided URIs
+     */
+    private NarrowerCounts getNarrowerCounts(String conceptSchemeURI, String skosCollectionURI) {
+        List<String> key = Arrays.asList(conceptSchemeURI, skosCollectionURI);
+        NarrowerCounts counts = this.narrowerCounts.get(key);
+        if (counts == null) {
+            BitSet filter = null;
+            if (conceptSchemeURI != null || skosCollectionURI != null) {
+                filter = this.getMembers(conceptSchemeURI, skosCollectionURI);
+                if (filter == null) return null;
+            }
+            counts = new NarrowerCounts(this.getRelation(SKOSSemanticProperty.broader), filter);
+            NarrowerCounts previous = this.narrowerCounts.putIfAbsent(key, counts);
+            if (previous != null) counts = previous;
+        }
+        return counts;
+    }
+
+    /**
+     * Returns the index of the broader hierarchy, building it on first use
+     * @return Index of the broader hierarchy
+     */
+    private BroaderHierarchy getHierarchy() {
+        BroaderHierarchy index = this.hierarchy;
+        if (index == null) {
+            RelationAdjacency broader = this.getRelation(SKOSSemanticProperty.broader);
+            synchronized (this) {
+                index = this.hierarchy;
+                if (index == null) {
+                    index = new BroaderHierarchy(broader);
+                    this.hierarchy = index;
+                }
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Returns the links of a relation, loading them on first use
+     * @param relationshipType Semantic relation
+     * @return Links of {@code relationshipType}
+     */
+    private RelationAdjacency getRelation(SKOSSemanticProperty relationshipType) {
+        RelationAdjacency adjacency = this.relations.get(relationshipType);
+        if (adjacency == null) {
+            adjacency = this.relations.computeIfAbsent(relationshipType, this::loadRelation);
+        }
+        return adjacency;
+    }
+
+    /**
+     * Loads the links of a relation from the thesaurus
+     * @param relationshipType Semantic relation
+     * @return Links of {@code relationshipType}, including the inverse of
+     * the links of its inverse relation, or of its own links if it is
+     * symmetric
+     */
+    private RelationAdjacency loadRelation(SKOSSemanticProperty relationshipType) {
+        SKOSSemanticProperty inverse = relationshipType.getInverseProperty();
+        boolean symmetric = relationshipType.isSymmetric() || inverse == relationshipType;
+        int[] sources = new int[Math.max(16, this.uris.length)];
+        int[] targets = new int[sources.length];
+        int count = 0;
+        try (CloseableIterator<SKOSConcept> concepts = this.skos.listConcepts()) {
+            while (concepts.hasNext()) {
+                SKOSConcept concept = concepts.next();
+                Integer node = concept != null ? this.ids.get(concept.getURI()) : null;
+                if (node == null) continue;
+                for (int pass = 0; pass < 2; pass++) {
+                    SKOSSemanticProperty property = pass == 0 ? relationshipType : inverse;
+                    if (pass == 1 && (inverse == null || symmetric)) break;
+                    try (CloseableIterator<SKOSConcept> related = this.skos.listSemanticRelations(concept, property)) {
+                        while (related.hasNext()) {
+                            SKOSConcept relatedConcept = related.next();
+                            Integer other = relatedConcept != null ? this.ids.get(relatedConcept.getURI()) : null;
+                            if (other == null) continue;
+                            if (count + 2 > sources.length) {
+                                sources = Arrays.copyOf(sources, 2 * sources.length);
+                                targets = Arrays.copyOf(targets, sources.length);
+                            }
+                            boolean forward = pass == 0;
+                            sources[count] = forward ? node : other;
+                            targets[count++] = forward ? other : node;
+                            if (symmetric) {
+                                sources[count] = other;
+                                targets[count++] = node;
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return new RelationAdjacency(this.uris.length, sources, targets, count);
+    }
+
+    /**
+     * Bidirectional breadth-first search. Whole levels are expanded at a
+     * time, so that the shortest of the paths found when the searches first
+     * meet is a shortest path.
+     * @param from Index of the start concept
+     * @param to Index of the end concept
+     * @param adjacencies Links that may be followed
+     * @param maxDistance Maximum length of the path
+     * @return Length of the shortest path, or {@linkplain #UNREACHABLE}
+     */
+    private int distance(int from, int to, RelationAdjacency[] adjacencies, int maxDistance) {
+        TraversalState state = this.states.get();
+        int stamp = state.newStamp();
+        int[] forwardMark = state.markA;
+        int[] backwardMark = state.markB;
+        int[] forwardDist = state.distA;
+        int[] backwardDist = state.distB;
+        int[] forwardQueue = state.queueA;
+        int[] backwardQueue = state.queueB;
+
+        forwardMark[from] = stamp;
+        forwardDist[from] = 0;
+        forwardQueue[0] = from;
+        backwardMark[to] = stamp;
+        backwardDist[to] = 0;
+        backwardQueue[0] = to;
+        int forwardStart = 0, forwardEnd = 1, forwardDepth = 0;
+        int backwardStart = 0, backwardEnd = 1, backwardDepth = 0;
+
+        while (forwardStart < forwardEnd && backwardStart < backwardEnd && forwardDepth + backwardDepth < maxDistance) {
+            int best = Integer.MAX_VALUE;
+            if (forwardEnd - forwardStart <= backwardEnd - backwardStart) {
+                int tail = forwardEnd;
+                for (int i = forwardStart; i < forwardEnd; i++) {
+                    int node = forwardQueue[i];
+                    for (RelationAdjacency adjacency: adjacencies) {
+                        int[] targets = adjacency.outTargets();
+                        for (int e = adjacency.outStart(node); e < adjacency.outEnd(node); e++) {
+                            int next = targets[e];
+                            if (backwardMark[next] == stamp) best = Math.min(best, forwardDepth + 1 + backwardDist[next]);
+                            if (forwardMark[next] != stamp) {
+                                forwardMark[next] = stamp;
+                                forwardDist[next] = forwardDepth + 1;
+                                forwardQueue[tail++] = next;
+                            }
+                        }
+                    }
+                }
+                forwardStart = forwardEnd;
+                forwardEnd = tail;
+                forwardDepth++;
+            }
+            else {
+                int tail = backwardEnd;
+                for (int i = backwardStart; i < backwardEnd; i++) {
+                    int node = backwardQueue[i];
+                    for (RelationAdjacency adjacency: adjacencies) {
+                        int[] sources = adjacency.inSources();
+                        for (int e = adjacency.inStart(node); e < adjacency.inEnd(node); e++) {
+                            int next = sources[e];
+                            if (forwardMark[next] == stamp) best = Math.min(best, backwardDepth + 1 + forwardDist[next]);
+                            if (backwardMark[next] != stamp) {
+                                backwardMark[next] = stamp;
+                                backwardDist[next] = backwardDepth + 1;
+                                backwardQueue[tail++] = next;
+                            }
+                        }
+                    }
+                }
+                backwardStart = backwardEnd;
+                backwardEnd = tail;
+                backwardDepth++;
+            }
+            if (best != Integer.MAX_VALUE) return best;
+        }
+        return UNREACHABLE;
+    }
+}
@@ -0,0 +1,196 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.graph;
+
+import java.util.Arrays;
+import java.util.BitSet;
+
+/**
+ * Numbers of narrower concepts of the concepts of a {@link ConceptGraph},
+ * optionally within a set of member concepts (e.g. those of a concept scheme
+ * and collection).<br/>
+ * The numbers of direct narrower concepts are all computed on construction.
+ * So are the numbers of transitive narrower concepts of the concepts whose
+ * narrower concepts form a tree, by summing those of their children. The
+ * transitive narrower concepts of a concept of a polyhierarchy may be
+ * reached through several children, so they are counted by walking the
+ * narrower links the first time they are requested.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class NarrowerCounts {
+
+    /**
+     * Number of concepts not yet computed
+     */
+    private static final int UNKNOWN = -1;
+
+    /**
+     * Broader links between the counted concepts
+     */
+    private final RelationAdjacency broader;
+
+    /**
+     * Number of direct narrower concepts of each concept
+     */
+    private final int[] direct;
+
+    /**
+     * Number of transitive narrower concepts of each concept, or
+     * {@link #UNKNOWN}. Values computed on demand by concurrent threads are
+     * identical, so races are harmless.
+     */
+    private final int[] descendants;
+
+    /**
+     * Constructs a {@link NarrowerCounts}
+     * @param broader Broader links between concepts
+     * @param filter Concepts to count, or {@code null} to count all the
+     * concepts. The direct narrower concepts of a member concept are then its
+     * nearest narrower concepts that are members, and concepts that are not
+     * members have no narrower concepts.
+     */
+    NarrowerCounts(RelationAdjacency broader, BitSet filter) {
+        this.broader = filter != null ? restrict(broader, filter) : broader;
+        int size = this.broader.size();
+        this.direct = new int[size];
+        this.descendants = new int[size];
+        Arrays.fill(this.descendants, UNKNOWN);
+
+        // Visit the narrower concepts before their broader concepts. Concepts
+        // of broader cycles, and those above them, are never visited.
+        int[] parents = this.broader.outTargets();
+        int[] children = this.broader.inSources();
+        int[] pending = new int[size];
+        int[] order = new int[size];
+        int tail = 0;
+        for (int node = 0; node < size; node++) {
+            this.direct[node] = this.broader.inEnd(node) - this.broader.inStart(node);
+            pending[node] = this.direct[node];
+            if (pending[node] == 0) order[tail++] = node;
+        }
+        boolean[] tree = new boolean[size];
+        for (int head = 0; head < tail; head++) {
+            int node = order[head];
+            boolean disjoint = true;
+            int sum = 0;
+            for (int e = this.broader.inStart(node); e < this.broader.inEnd(node); e++) {
+                int child = children[e];
+                if (!tree[child] || this.broader.outEnd(child) - this.broader.outStart(child) != 1) {
+                    disjoint = false;
+                    break;
+                }
+                sum += this.descendants[child] + 1;
+            }
+            if (disjoint) {
+                tree[node] = true;
+                this.descendants[node] = sum;
+            }
+            for (int e = this.broader.outStart(node); e < this.broader.outEnd(node); e++) {
+                int parent = parents[e];
+                if (--pending[parent] == 0) order[tail++] = parent;
+            }
+        }
+    }
+
+    /**
+     * Number of direct narrower concepts of a concept
+     * @param node Concept index
+     * @return Number of direct narrower concepts of {@code node}
+     */
+    int getDirectCount(int node) {
+        return this.direct[node];
+    }
+
+    /**
+     * Number of transitive narrower concepts of a concept, the concept
+     * itself excluded
+     * @param node Concept index
+     * @param state Scratch arrays of the calling thread
+     * @return Number of distinct concepts that are transitively narrower
+     * than {@code node}
+     */
+    int getTransitiveCount(int node, TraversalState state) {
+        int count = this.descendants[node];
+        if (count == UNKNOWN) {
+            int[] children = this.broader.inSources();
+            int[] visited = state.markA;
+            int[] queue = state.queueA;
+            int stamp = state.newStamp();
+            visited[node] = stamp;
+            queue[0] = node;
+            int tail = 1;
+            for (int head = 0; head < tail; head++) {
+                int current = queue[head];
+                for (int e = this.broader.inStart(current); e < this.broader.inEnd(current); e++) {
+                    int child = children[e];
+                    if (visited[child] != stamp) {
+                        visited[child] = stamp;
+                        queue[tail++] = child;
+                    }
+                }
+            }
+            count = tail - 1;
+            this.descendants[node] = count;
+        }
+        return count;
+    }
+
+    /**
+     * Restricts broader links to a set of member concepts, linking each
+     * member to its nearest broader members
+     * @param broader Broader links between concepts
+     * @param filter Member concepts
+     * @return Broader links between the members
+     */
+    private static RelationAdjacency restrict(RelationAdjacency broader, BitSet filter) {
+        int size = broader.size();
+        int[] children = broader.inSources();
+        int[] sources = new int[16];
+        int[] targets = new int[16];
+        int count = 0;
+        int[] visited = new int[size];
+        int[] queue = new int[size];
+        int stamp = 0;
+        for (int node = filter.nextSetBit(0); node >= 0 && node < size; node = filter.nextSetBit(node + 1)) {
+            stamp++;
+            visited[node] = stamp;
+            queue[0] = node;
+            int tail = 1;
+            for (int head = 0; head < tail; head++) {
+                int current = queue[head];
+                for (int e = broader.inStart(current); e < broader.inEnd(current); e++) {
+                    int child = children[e];
+                    if (visited[child] == stamp) continue;
+                    visited[child] = stamp;
+                    if (filter.get(child)) {
+                        if (count == sources.length) {
+                            sources = Arrays.copyOf(sources, 2 * count);
+                            targets = Arrays.copyOf(targets, 2 * count);
+                        }
+                        sources[count] = child;
+                        targets[count] = node;
+                        count++;
+                    }
+                    else queue[tail++] = child;
+                }
+            }
+        }
+        return new RelationAdjacency(size, sources, targets, count);
+    }
+}
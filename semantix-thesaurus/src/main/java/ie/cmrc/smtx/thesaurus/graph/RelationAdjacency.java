@@ -0,0 +1,163 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.graph;
+
+import java.util.Arrays;
+
+/**
+ * Adjacency lists of one semantic relation between the concepts of a
+ * {@link ConceptGraph}, in both directions. Concepts are identified by their
+ * index in the graph, and the lists are stored in compressed sparse row form.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class RelationAdjacency {
+
+    /**
+     * Start of the outgoing list of each concept in {@link #outTargets},
+     * followed by the total number of edges
+     */
+    private final int[] outOffsets;
+
+    /**
+     * Targets of the outgoing edges
+     */
+    private final int[] outTargets;
+
+    /**
+     * Start of the incoming list of each concept in {@link #inSources},
+     * followed by the total number of edges
+     */
+    private final int[] inOffsets;
+
+    /**
+     * Sources of the incoming edges
+     */
+    private final int[] inSources;
+
+    /**
+     * Constructs a {@link RelationAdjacency} from a list of edges. Duplicate
+     * edges and loops are ignored.
+     * @param size Number of concepts
+     * @param sources Sources of the edges
+     * @param targets Targets of the edges
+     * @param edgeCount Number of edges held by {@code sources} and
+     * {@code targets}
+     */
+    RelationAdjacency(int size, int[] sources, int[] targets, int edgeCount) {
+        this.outOffsets = new int[size + 1];
+        this.outTargets = rows(size, sources, targets, edgeCount, this.outOffsets);
+        this.inOffsets = new int[size + 1];
+        this.inSources = rows(size, targets, sources, edgeCount, this.inOffsets);
+    }
+
+    /**
+     * Number of concepts
+     * @return Number of concepts
+     */
+    int size() {
+        return this.outOffsets.length - 1;
+    }
+
+    /**
+     * Targets of the outgoing edges, to be read between
+     * {@link #outStart(int)} and {@link #outEnd(int)}
+     * @return Targets of the outgoing edges of all the concepts
+     */
+    int[] outTargets() {
+        return this.outTargets;
+    }
+
+    /**
+     * Start of the outgoing edges of a concept
+     * @param node Concept index
+     * @return Index of the first outgoing edge of {@code node}
+     */
+    int outStart(int node) {
+        return this.outOffsets[node];
+    }
+
+    /**
+     * End of the outgoing edges of a concept
+     * @param node Concept index
+     * @return Index following the last outgoing edge of {@code node}
+     */
+    int outEnd(int node) {
+        return this.outOffsets[node + 1];
+    }
+
+    /**
+     * Sources of the incoming edges, to be read between
+     * {@link #inStart(int)} and {@link #inEnd(int)}
+     * @return Sources of the incoming edges of all the concepts
+     */
+    int[] inSources() {
+        return this.inSources;
+    }
+
+    /**
+     * Start of the incoming edges of a concept
+     * @param node Concept index
+     * @return Index of the first incoming edge of {@code node}
+     */
+    int inStart(int node) {
+        return this.inOffsets[node];
+    }
+
+    /**
+     * End of the incoming edges of a concept
+     * @param node Concept index
+     * @return Index following the last incoming edge of {@code node}
+     */
+    int inEnd(int node) {
+        return this.inOffsets[node + 1];
+    }
+
+    /**
+     * Groups edges by source, removing duplicates and loops
+     * @param size Number of concepts
+     * @param from Sources of the edges
+     * @param to Targets of the edges
+     * @param edgeCount Number of edges
+     * @param offsets Array receiving the start of each row, followed by the
+     * total number of edges kept
+     * @return Edge targets grouped by source, each row being sorted
+     */
+    private static int[] rows(int size, int[] from, int[] to, int edgeCount, int[] offsets) {
+        int[] counts = new int[size + 1];
+        for (int i = 0; i < edgeCount; i++) counts[from[i] + 1]++;
+        for (int node = 0; node < size; node++) counts[node + 1] += counts[node];
+        int[] cursors = Arrays.copyOf(counts, size);
+        int[] grouped = new int[edgeCount];
+        for (int i = 0; i < edgeCount; i++) grouped[cursors[from[i]]++] = to[i];
+
+        int kept = 0;
+        for (int node = 0; node < size; node++) {
+            offsets[node] = kept;
+            Arrays.sort(grouped, counts[node], counts[node + 1]);
+            int previous = -1;
+            for (int i = counts[node]; i < counts[node + 1]; i++) {
+                int target = grouped[i];
+                if (target != previous && target != node) grouped[kept++] = target;
+                previous = target;
+            }
+        }
+        offsets[size] = kept;
+        return Arrays.copyOf(grouped, kept);
+    }
+}
@@ -0,0 +1,92 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.graph;
+
+import java.util.Arrays;
+
+/**
+ * Scratch arrays of the graph traversals of one thread. Nodes are marked with
+ * the stamp of the current traversal, so that the arrays never need to be
+ * cleared between traversals.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+final class TraversalState {
+
+    /**
+     * First mark array
+     */
+    final int[] markA;
+
+    /**
+     * Second mark array
+     */
+    final int[] markB;
+
+    /**
+     * Distances of the nodes marked in {@link #markA}
+     */
+    final int[] distA;
+
+    /**
+     * Distances of the nodes marked in {@link #markB}
+     */
+    final int[] distB;
+
+    /**
+     * First queue
+     */
+    final int[] queueA;
+
+    /**
+     * Second queue
+     */
+    final int[] queueB;
+
+    /**
+     * Stamp of the current traversal
+     */
+    private int stamp = 0;
+
+    /**
+     * Constructs a {@link TraversalState}
+     * @param size Number of nodes of the traversed graph
+     */
+    TraversalState(int size) {
+        this.markA = new int[size];
+        this.markB = new int[size];
+        this.distA = new int[size];
+        this.distB = new int[size];
+        this.queueA = new int[size];
+        this.queueB = new int[size];
+    }
+
+    /**
+     * Starts a new traversal
+     * @return Stamp marking the nodes visited by the new traversal, which
+     * differs from all the values currently held by the mark arrays
+     */
+    int newStamp() {
+        if (this.stamp == Integer.MAX_VALUE) {
+            Arrays.fill(this.markA, 0);
+            Arrays.fill(this.markB, 0);
+            this.stamp = 0;
+        }
+        return ++this.stamp;
+    }
+}
@@ -0,0 +1,404 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.skos.index.IndexField;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.util.Term;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A query combining text, type, concept scheme, collection and relation
+ * constraints. All the constraints must be satisfied by the returned
+ * concepts. Queries are immutable and are created using a {@link Builder}:
+ * <pre>
+ * ConceptQuery query = ConceptQuery.builder()
+ *         .text(new Term("cod", "en"))
+ *         .conceptScheme(speciesSchemeURI)
+ *         .relation(SKOSSemanticProperty.narrowerTransitive, fishURI)
+ *         .depth(2)
+ *         .limit(20)
+ *         .build();
+ * </pre>
+ * Queries are evaluated by a {@link ConceptQueryPlanner}.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class ConceptQuery {
+
+    /**
+     * Default maximum number of results
+     */
+    public static final int DEFAULT_LIMIT = 200;
+
+    /**
+     * Keyword to search
+     */
+    private final Term keyword;
+
+    /**
+     * Index field to search the keyword in
+     */
+    private final IndexField.Searchable searchField;
+
+    /**
+     * Type of the returned resources
+     */
+    private final SKOSType type;
+
+    /**
+     * URIs of the concept schemes the returned concepts must belong to
+     */
+    private final List<String> conceptSchemeURIs;
+
+    /**
+     * URIs of the collections the returned concepts must belong to
+     */
+    private final List<String> collectionURIs;
+
+    /**
+     * Indicates whether indirect members of the collections are considered
+     */
+    private final boolean transitiveMember;
+
+    /**
+     * Relation constraints
+     */
+    private final List<RelationConstraint> relations;
+
+    /**
+     * Maximum depth of hierarchical relation constraints
+     */
+    private final int maxDepth;
+
+    /**
+     * Number of results to skip
+     */
+    private final int offset;
+
+    /**
+     * Maximum number of results
+     */
+    private final int limit;
+
+    /**
+     * Constructs a {@link ConceptQuery} from the provided builder
+     * @param builder Query builder
+     */
+    private ConceptQuery(Builder builder) {
+        this.keyword = builder.keyword;
+        this.searchField = builder.searchField;
+        this.type = builder.type;
+        this.conceptSchemeURIs = Collections.unmodifiableList(new ArrayList<>(builder.conceptSchemeURIs));
+        this.collectionURIs = Collections.unmodifiableList(new ArrayList<>(builder.collectionURIs));
+        this.transitiveMember = builder.transitiveMember;
+        this.relations = Collections.unmodifiableList(new ArrayList<>(builder.relations));
+        this.maxDepth = builder.maxDepth;
+        this.offset = builder.offset;
+        this.limit = builder.limit;
+    }
+
+    /**
+     * Creates a new query builder
+     * @return Empty query builder
+     */
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * Returns the keyword to search
+     * @return Keyword if any, otherwise {@code null}
+     */
+    public Term getKeyword() {
+        return this.keyword;
+    }
+
+    /**
+     * Returns the index field to search the keyword in
+     * @return Search field. If {@code null}, then the keyword is searched in
+     * the default fields.
+     */
+    public IndexField.Searchable getSearchField() {
+        return this.searchField;
+    }
+
+    /**
+     * Returns the type of the returned resources
+     * @return SKOS type if specified, otherwise {@code null}
+     */
+    public SKOSType getType() {
+        return this.type;
+    }
+
+    /**
+     * Returns the URIs of the concept schemes the returned concepts must
+     * belong to (at least one of them)
+     * @return Unmodifiable list of concept scheme URIs. If empty, then
+     * results are not restricted to any concept scheme.
+     */
+    public List<String> getConceptSchemeURIs() {
+        return this.conceptSchemeURIs;
+    }
+
+    /**
+     * Returns the URIs of the collections the returned concepts must belong
+     * to (at least one of them)
+     * @return Unmodifiable list of collection URIs. If empty, then results
+     * are not restricted to any collection.
+     */
+    public List<String> getCollectionURIs() {
+        return this.collectionURIs;
+    }
+
+    /**
+     * Indicates whether indirect (transitive) members of the collections are
+     * considered
+     * @return {@code true} if indirect members of the collections are
+     * accepted, {@code false} if only direct members are
+     */
+    public boolean isTransitiveMember() {
+        return this.transitiveMember;
+    }
+
+    /**
+     * Returns the relation constraints of the query
+     * @return Unmodifiable list of relation constraints
+     */
+    public List<RelationConstraint> getRelations() {
+        return this.relations;
+    }
+
+    /**
+     * Returns the maximum depth of the hierarchical relation constraints. For
+     * example, with a depth of {@code 2}, a narrowerTransitive constraint is
+     * only satisfied by the children and grand-children of its concept.
+     * @return Maximum depth, or {@code 0} if unbounded
+     */
+    public int getMaxDepth() {
+        return this.maxDepth;
+    }
+
+    /**
+     * Returns the number of results to skip
+     * @return Offset
+     */
+    public int getOffset() {
+        return this.offset;
+    }
+
+    /**
+     * Returns the maximum number of results
+     * @return Limit
+     */
+    public int getLimit() {
+        return this.limit;
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("ConceptQuery[");
+        if (this.keyword != null) sb.append("text=\"").append(this.keyword.getString()).append("\"@").append(this.keyword.getLanguage()).append(", ");
+        if (this.type != null) sb.append("type=").append(this.type.name()).append(", ");
+        if (!this.conceptSchemeURIs.isEmpty()) sb.append("schemes=").append(this.conceptSchemeURIs).append(", ");
+        if (!this.collectionURIs.isEmpty()) sb.append(this.transitiveMember ? "collectionsTransitive=" : "collections=").append(this.collectionURIs).append(", ");
+        if (!this.relations.isEmpty()) sb.append("relations=").append(this.relations).append(", ");
+        if (this.maxDepth > 0) sb.append("depth=").append(this.maxDepth).append(", ");
+        sb.append("offset=").append(this.offset).append(", limit=").append(this.limit).append("]");
+        return sb.toString();
+    }
+
+
+    /**
+     * Builder of {@link ConceptQuery} objects
+     */
+    public static class Builder {
+
+        private Term keyword = null;
+
+        private IndexField.Searchable searchField = null;
+
+        private SKOSType type = null;
+
+        private final List<String> conceptSchemeURIs = new ArrayList<>();
+
+        private final List<String> collectionURIs = new ArrayList<>();
+
+        private boolean transitiveMember = false;
+
+        private final List<RelationConstraint> relations = new ArrayList<>();
+
+        private int maxDepth = 0;
+
+        private int offset = 0;
+
+        private int limit = DEFAULT_LIMIT;
+
+        /**
+         * Constructs an empty builder
+         */
+        public Builder() {
+        }
+
+        /**
+         * Sets the keyword to search in the default fields
+         * @param keyword Keyword. If its language is {@code null}, then the
+         * keyword is searched in all the languages.
+         * @return This builder
+         */
+        public Builder text(Term keyword) {
+            return this.text(keyword, null);
+        }
+
+        /**
+         * Sets the keyword to search and the field to search it in
+         * @param keyword Keyword. If its language is {@code null}, then the
+         * keyword is searched in all the languages.
+         * @param searchField Field to search the keyword in. If {@code null},
+         * then the default fields are searched.
+         * @return This builder
+         */
+        public Builder text(Term keyword, IndexField.Searchable searchField) {
+            this.keyword = keyword;
+            this.searchField = searchField;
+            return this;
+        }
+
+        /**
+         * Sets the type of the returned resources
+         * @param type SKOS type
+         * @return This builder
+         */
+        public Builder type(SKOSType type) {
+            this.type = type;
+            return this;
+        }
+
+        /**
+         * Adds a concept scheme the returned concepts may belong to
+         * @param conceptSchemeURI Concept scheme URI
+         * @return This builder
+         */
+        public Builder conceptScheme(String conceptSchemeURI) {
+            if (conceptSchemeURI != null) this.conceptSchemeURIs.add(conceptSchemeURI);
+            return this;
+        }
+
+        /**
+         * Adds concept schemes the returned concepts may belong to
+         * @param conceptSchemeURIs Concept scheme URIs
+         * @return This builder
+         */
+        public Builder conceptSchemes(Collection<String> conceptSchemeURIs) {
+            if (conceptSchemeURIs != null) {
+                for (String conceptSchemeURI: conceptSchemeURIs) this.conceptScheme(conceptSchemeURI);
+            }
+            return this;
+        }
+
+        /**
+         * Adds a collection the returned concepts may belong to
+         * @param collectionURI Collection URI
+         * @return This builder
+         */
+        public Builder collection(String collectionURI) {
+            if (collectionURI != null) this.collectionURIs.add(collectionURI);
+            return this;
+        }
+
+        /**
+         * Adds collections the returned concepts may belong to
+         * @param collectionURIs Collection URIs
+         * @return This builder
+         */
+        public Builder collections(Collection<String> collectionURIs) {
+            if (collectionURIs != null) {
+                for (String collectionURI: collectionURIs) this.collection(collectionURI);
+            }
+            return this;
+        }
+
+        /**
+         * Sets whether indirect members of the collections are accepted
+         * @param transitiveMember {@code true} to accept indirect members of
+         * the collections, {@code false} to only accept direct members
+         * @return This builder
+         */
+        public Builder transitiveMember(boolean transitiveMember) {
+            this.transitiveMember = transitiveMember;
+            return this;
+        }
+
+        /**
+         * Adds a relation constraint
+         * @param relationshipType Semantic relation linking {@code conceptURI}
+         * to the returned concepts
+         * @param conceptURI URI of the concept the returned concepts must be
+         * related to
+         * @return This builder
+         */
+        public Builder relation(SKOSSemanticProperty relationshipType, String conceptURI) {
+            this.relations.add(new RelationConstraint(relationshipType, conceptURI));
+            return this;
+        }
+
+        /**
+         * Sets the maximum depth of the hierarchical relation constraints
+         * @param maxDepth Maximum depth. Values lower or equal to {@code 0}
+         * mean no limit.
+         * @return This builder
+         */
+        public Builder depth(int maxDepth) {
+            this.maxDepth = Math.max(0, maxDepth);
+            return this;
+        }
+
+        /**
+         * Sets the number of results to skip
+         * @param offset Offset
+         * @return This builder
+         */
+        public Builder offset(int offset) {
+            this.offset = Math.max(0, offset);
+            return this;
+        }
+
+        /**
+         * Sets the maximum number of results
+         * @param limit Limit. If lower or equal to {@code 0}, then
+         * {@linkplain ConceptQuery#DEFAULT_LIMIT} is used.
+         * @return This builder
+         */
+        public Builder limit(int limit) {
+            this.limit = (limit > 0) ? limit : DEFAULT_LIMIT;
+            return this;
+        }
+
+        /**
+         * Builds the query
+         * @return Query
+         */
+        public ConceptQuery build() {
+            return new ConceptQuery(this);
+        }
+    }
+}
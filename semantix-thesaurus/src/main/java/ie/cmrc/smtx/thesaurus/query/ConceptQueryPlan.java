@@ -0,0 +1,238 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Execution plan of a {@link ConceptQuery}, as produced by a
+ * {@link ConceptQueryPlanner}. A plan starts with a step generating
+ * candidate concepts, followed by steps narrowing them down, in increasing
+ * order of estimated cardinality. Candidate concepts are loaded from the
+ * SKOS store page by page, so that evaluation stops as soon as the requested
+ * number of results is reached.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class ConceptQueryPlan {
+
+    /**
+     * Minimum number of candidates loaded at once
+     */
+    private static final int MIN_PAGE_SIZE = 50;
+
+    /**
+     * Maximum number of candidates loaded at once
+     */
+    private static final int MAX_PAGE_SIZE = 5000;
+
+    /**
+     * SKOS thesaurus
+     */
+    private final SKOS skos;
+
+    /**
+     * Planned query
+     */
+    private final ConceptQuery query;
+
+    /**
+     * Steps of the plan, in evaluation order
+     */
+    private final List<PlanStep> steps;
+
+    /**
+     * Reason why the query has no results, if known at planning time
+     */
+    private final String emptyReason;
+
+    /**
+     * Constructs a {@link ConceptQueryPlan}
+     * @param skos SKOS thesaurus
+     * @param query Planned query
+     * @param steps Steps of the plan, in evaluation order. The first step
+     * must be in {@linkplain PlanStep.Mode#GENERATE} mode.
+     */
+    ConceptQueryPlan(SKOS skos, ConceptQuery query, List<PlanStep> steps) {
+        this.skos = skos;
+        this.query = query;
+        this.steps = steps;
+        this.emptyReason = null;
+    }
+
+    /**
+     * Constructs a {@link ConceptQueryPlan} for a query known to have no
+     * results
+     * @param skos SKOS thesaurus
+     * @param query Planned query
+     * @param emptyReason Reason why the query has no results
+     */
+    ConceptQueryPlan(SKOS skos, ConceptQuery query, String emptyReason) {
+        this.skos = skos;
+        this.query = query;
+        this.steps = Collections.emptyList();
+        this.emptyReason = emptyReason;
+    }
+
+    /**
+     * Returns the planned query
+     * @return Concept query
+     */
+    public ConceptQuery getQuery() {
+        return this.query;
+    }
+
+    /**
+     * Indicates whether the query is known to have no results, in which
+     * case {@linkplain #execute()} does not access the store or the index
+     * @return {@code true} if the query has no results
+     */
+    public boolean isEmpty() {
+        return this.emptyReason != null;
+    }
+
+    /**
+     * Executes the plan
+     * @return Concepts satisfying the query, in relevance order if the query
+     * has a text constraint
+     */
+    public List<SKOSConcept> execute() {
+        if (this.isEmpty() || this.steps.isEmpty()) return new ArrayList<>(0);
+
+        PlanStep generator = this.steps.get(0);
+        TextStep ranking = null;
+        List<PlanStep> verifiers = new ArrayList<>();
+        Set<String> candidates = null;
+
+        if (!(generator instanceof TextStep)) {
+            candidates = generator.generate();
+        }
+        for (PlanStep step: this.steps.subList(1, this.steps.size())) {
+            switch (step.getMode()) {
+                case INTERSECT:
+                    candidates = this.intersect(candidates, step.generate());
+                    if (candidates.isEmpty()) return new ArrayList<>(0);
+                    break;
+                case RANK:
+                    ranking = (TextStep) step;
+                    break;
+                default:
+                    verifiers.add(step);
+            }
+        }
+
+        int window = this.query.getOffset() + this.query.getLimit();
+        List<SKOSConcept> results = new ArrayList<>(Math.min(window, MAX_PAGE_SIZE));
+
+        if (generator instanceof TextStep || ranking != null) {
+            // Stream index hits by relevance. Candidates, if any, are passed
+            // to the index as a filter, so that only they are ranked.
+            TextStep text = (ranking != null) ? ranking : (TextStep) generator;
+            int offset = 0;
+            int pageSize = Math.max(MIN_PAGE_SIZE, Math.min(window, MAX_PAGE_SIZE));
+            while (results.size() < window) {
+                List<String> pageURIs = text.search(candidates, offset, pageSize);
+                this.verify(pageURIs, verifiers, results, window);
+                if (pageURIs.size() < pageSize) break;
+                offset += pageSize;
+                pageSize = Math.min(pageSize * 2, MAX_PAGE_SIZE);
+            }
+        }
+        else {
+            // Load the candidates page by page
+            Iterator<String> iter = candidates.iterator();
+            int pageSize = Math.max(MIN_PAGE_SIZE, Math.min(window, MAX_PAGE_SIZE));
+            while (iter.hasNext() && results.size() < window) {
+                List<String> pageURIs = new ArrayList<>(pageSize);
+                while (iter.hasNext() && pageURIs.size() < pageSize) pageURIs.add(iter.next());
+                this.verify(pageURIs, verifiers, results, window);
+                pageSize = Math.min(pageSize * 2, MAX_PAGE_SIZE);
+            }
+        }
+
+        if (results.size() <= this.query.getOffset()) return new ArrayList<>(0);
+        return new ArrayList<>(results.subList(this.query.getOffset(), Math.min(results.size(), window)));
+    }
+
+    /**
+     * Returns a description of the plan, one step per line
+     * @return Human-readable description of the plan
+     */
+    public String explain() {
+        if (this.isEmpty()) return "EMPTY " + this.emptyReason;
+        StringBuilder sb = new StringBuilder();
+        int i = 1;
+        for (PlanStep step: this.steps) {
+            if (i > 1) sb.append("\n");
+            sb.append(i++).append(". ").append(step);
+        }
+        return sb.toString();
+    }
+
+    @Override
+    public String toString() {
+        return this.explain();
+    }
+
+    /**
+     * Loads the concepts identified by the provided URIs and adds those
+     * satisfying all the provided steps to the results
+     * @param uris Candidate concept URIs
+     * @param verifiers Steps to check
+     * @param results Results to fill
+     * @param window Maximum number of results
+     */
+    private void verify(List<String> uris, List<PlanStep> verifiers, List<SKOSConcept> results, int window) {
+        if (uris.isEmpty()) return;
+        for (SKOSConcept concept: this.skos.getConcepts(uris)) {
+            if (results.size() >= window) return;
+            boolean accepted = true;
+            for (PlanStep verifier: verifiers) {
+                if (!verifier.accepts(concept)) {
+                    accepted = false;
+                    break;
+                }
+            }
+            if (accepted) results.add(concept);
+        }
+    }
+
+    /**
+     * Intersects the provided sets of concept URIs
+     * @param candidates Current candidates, or {@code null} if none have been
+     * generated yet
+     * @param uris Concept URIs produced by a step
+     * @return Intersection of {@code candidates} and {@code uris}, in the
+     * order of {@code candidates}
+     */
+    private Set<String> intersect(Set<String> candidates, Set<String> uris) {
+        if (candidates == null) return new LinkedHashSet<>(uris);
+        Set<String> intersection = new LinkedHashSet<>();
+        for (String uri: candidates) {
+            if (uris.contains(uri)) intersection.add(uri);
+        }
+        return intersection;
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.skos.index.SKOSIndex;
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Cost-based planner for {@link ConceptQuery} objects.<br/>
+ * Each constraint of a query is turned into a plan step whose cardinality
+ * is estimated: text constraints by counting index hits (with the concept
+ * scheme and collection constraints applied as index filters, and so is an
+ * unbounded narrowerTransitive constraint if the index contains the concept
+ * hierarchy), relation
+ * constraints by probing the SKOS store, and concept scheme and collection
+ * constraints are considered unselective. The most selective step generates
+ * the candidate concepts, and the other steps are applied in increasing order
+ * of cardinality:
+ * <ul>
+ * <li>relation constraints whose result is already known from probing are
+ * intersected with the candidates;</li>
+ * <li>other relation constraints, and concept scheme and collection
+ * constraints, are checked on each candidate;</li>
+ * <li>a text constraint that does not generate the candidates ranks them,
+ * by streaming index hits and keeping the candidates only.</li>
+ * </ul>
+ * Queries that can not have any results (unknown concepts, schemes or
+ * collections, no index hits, non-concept type) are detected at planning
+ * time and not executed.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class ConceptQueryPlanner {
+
+    /**
+     * SKOS thesaurus
+     */
+    private final SKOS skos;
+
+    /**
+     * SKOS index
+     */
+    private final SKOSIndex index;
+
+    /**
+     * Constructs a {@link ConceptQueryPlanner}
+     * @param skos SKOS thesaurus
+     * @param index SKOS index of {@code skos}
+     * @throws IllegalArgumentException If any of the arguments is {@code null}
+     */
+    public ConceptQueryPlanner(SKOS skos, SKOSIndex index) {
+        if (skos == null) throw new IllegalArgumentException("ConceptQueryPlanner constructor: skos argument must not be null");
+        if (index == null) throw new IllegalArgumentException("ConceptQueryPlanner constructor: index argument must not be null");
+        this.skos = skos;
+        this.index = index;
+    }
+
+    /**
+     * Plans the provided query
+     * @param query Concept query
+     * @return Execution plan of {@code query}
+     * @throws IllegalArgumentException If {@code query} is {@code null}
+     */
+    public ConceptQueryPlan plan(ConceptQuery query) {
+        if (query == null) throw new IllegalArgumentException("ConceptQueryPlanner.plan: query argument must not be null");
+
+        if (query.getType() != null && query.getType() != SKOSType.Concept) {
+            return new ConceptQueryPlan(this.skos, query, "type " + query.getType().name() + " is not " + SKOSType.Concept.name());
+        }
+
+        MembershipStep membership = new MembershipStep(this.skos, query.getConceptSchemeURIs(), query.getCollectionURIs(), query.isTransitiveMember());
+        if (membership.getEstimatedCardinality() == 0) {
+            return new ConceptQueryPlan(this.skos, query, "unknown concept scheme or collection");
+        }
+        boolean membershipConstrained = !query.getConceptSchemeURIs().isEmpty() || !query.getCollectionURIs().isEmpty();
+
+        // An unbounded narrowerTransitive constraint can be evaluated by the
+        // index as a range filter on the interval encoding of the hierarchy
+        RelationConstraint within = null;
+        if (query.getKeyword() != null && query.getMaxDepth() == 0 && this.index.isHierarchyIndexed()) {
+            for (RelationConstraint constraint: query.getRelations()) {
+                if (constraint.getRelationshipType() == SKOSSemanticProperty.narrowerTransitive) {
+                    within = constraint;
+                    break;
+                }
+            }
+        }
+
+        List<PlanStep> relationSteps = new ArrayList<>(query.getRelations().size());
+        RelationStep withinStep = null;
+        for (RelationConstraint constraint: query.getRelations()) {
+            RelationStep step = new RelationStep(this.skos, constraint, query.getMaxDepth());
+            if (step.getEstimatedCardinality() == 0) {
+                return new ConceptQueryPlan(this.skos, query, "no concept satisfies " + step.describe());
+            }
+            relationSteps.add(step);
+            if (constraint == within) withinStep = step;
+        }
+        Collections.sort(relationSteps, new Comparator<PlanStep>() {
+            @Override
+            public int compare(PlanStep s1, PlanStep s2) {
+                return Long.compare(s1.getEstimatedCardinality(), s2.getEstimatedCardinality());
+            }
+        });
+
+        TextStep text = null;
+        if (query.getKeyword() != null) {
+            text = new TextStep(this.index, query, (within != null) ? within.getConceptURI() : null);
+            if (text.getEstimatedCardinality() == 0) {
+                return new ConceptQueryPlan(this.skos, query, "no index hits for " + text.describe());
+            }
+        }
+
+        List<PlanStep> steps = new ArrayList<>();
+        PlanStep bestRelation = relationSteps.isEmpty() ? null : relationSteps.get(0);
+
+        if (text != null && (bestRelation == null || text.getEstimatedCardinality() < bestRelation.getEstimatedCardinality())) {
+            // Index-driven plan: scheme and collection filters are applied by the index
+            text.setMode(PlanStep.Mode.GENERATE);
+            steps.add(text);
+            if (withinStep != null) relationSteps.remove(withinStep);
+            this.addNarrowingSteps(relationSteps, steps);
+        }
+        else if (bestRelation != null) {
+            // Store-driven plan
+            bestRelation.setMode(PlanStep.Mode.GENERATE);
+            steps.add(bestRelation);
+            this.addNarrowingSteps(relationSteps.subList(1, relationSteps.size()), steps);
+            if (membershipConstrained) {
+                membership.setMode(PlanStep.Mode.VERIFY);
+                steps.add(membership);
+            }
+            if (text != null) {
+                text.setMode(PlanStep.Mode.RANK);
+                steps.add(text);
+            }
+        }
+        else {
+            // Only scheme and collection constraints, if any
+            membership.setMode(PlanStep.Mode.GENERATE);
+            steps.add(membership);
+        }
+
+        return new ConceptQueryPlan(this.skos, query, steps);
+    }
+
+    /**
+     * Plans and executes the provided query
+     * @param query Concept query
+     * @return Concepts satisfying {@code query}
+     * @throws IllegalArgumentException If {@code query} is {@code null}
+     */
+    public List<SKOSConcept> execute(ConceptQuery query) {
+        return this.plan(query).execute();
+    }
+
+    /**
+     * Adds the provided relation steps to a plan, intersecting those whose
+     * result is known and verifying the others
+     * @param relationSteps Relation steps, in increasing order of cardinality
+     * @param steps Plan steps to fill
+     */
+    private void addNarrowingSteps(List<PlanStep> relationSteps, List<PlanStep> steps) {
+        for (PlanStep step: relationSteps) {
+            step.setMode(step.isExact() ? PlanStep.Mode.INTERSECT : PlanStep.Mode.VERIFY);
+            steps.add(step);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSCollection;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSConceptScheme;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plan step evaluating the concept scheme and collection constraints of a
+ * {@link ConceptQuery} against the SKOS store. Its cardinality is unknown, so
+ * it only generates candidates when a query has no other constraint.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+class MembershipStep extends PlanStep {
+
+    /**
+     * SKOS thesaurus
+     */
+    private final SKOS skos;
+
+    /**
+     * Concept schemes the concepts must belong to
+     */
+    private final List<SKOSConceptScheme> conceptSchemes;
+
+    /**
+     * Collections the concepts must belong to
+     */
+    private final List<SKOSCollection> collections;
+
+    /**
+     * Indicates whether indirect members of the collections are accepted
+     */
+    private final boolean transitiveMember;
+
+    /**
+     * Indicates whether some of the requested concept schemes or collections
+     * do not exist, in which case no concept satisfies this step
+     */
+    private final boolean unsatisfiable;
+
+    /**
+     * Constructs a {@link MembershipStep}
+     * @param skos SKOS thesaurus
+     * @param conceptSchemeURIs URIs of the concept schemes the concepts must
+     * belong to (at least one of them)
+     * @param collectionURIs URIs of the collections the concepts must belong
+     * to (at least one of them)
+     * @param transitiveMember Indicates whether indirect members of the
+     * collections are accepted
+     */
+    MembershipStep(SKOS skos, List<String> conceptSchemeURIs, List<String> collectionURIs, boolean transitiveMember) {
+        this.skos = skos;
+        this.transitiveMember = transitiveMember;
+        this.conceptSchemes = new ArrayList<>(conceptSchemeURIs.size());
+        for (String conceptSchemeURI: conceptSchemeURIs) {
+            SKOSConceptScheme conceptScheme = skos.getConceptScheme(conceptSchemeURI);
+            if (conceptScheme != null) this.conceptSchemes.add(conceptScheme);
+        }
+        this.collections = new ArrayList<>(collectionURIs.size());
+        for (String collectionURI: collectionURIs) {
+            SKOSCollection collection = skos.getCollection(collectionURI);
+            if (collection != null) this.collections.add(collection);
+        }
+        this.unsatisfiable = (!conceptSchemeURIs.isEmpty() && this.conceptSchemes.isEmpty())
+                || (!collectionURIs.isEmpty() && this.collections.isEmpty());
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getEstimatedCardinality() {
+        return this.unsatisfiable ? 0 : UNKNOWN_CARDINALITY;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean isExact() {
+        return this.unsatisfiable;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Set<String> generate() {
+        Set<String> uris = new LinkedHashSet<>();
+        if (this.unsatisfiable) return uris;
+        if (this.conceptSchemes.isEmpty()) {
+            this.collect(this.skos.listConcepts(), uris);
+        }
+        else {
+            for (SKOSConceptScheme conceptScheme: this.conceptSchemes) {
+                this.collect(this.skos.listConcepts(conceptScheme), uris);
+            }
+        }
+        return uris;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean accepts(SKOSConcept concept) {
+        if (this.unsatisfiable || concept == null) return false;
+        if (!this.conceptSchemes.isEmpty()) {
+            boolean inScheme = false;
+            for (SKOSConceptScheme conceptScheme: this.conceptSchemes) {
+                if (concept.isInScheme(conceptScheme)) {
+                    inScheme = true;
+                    break;
+                }
+            }
+            if (!inScheme) return false;
+        }
+        if (!this.collections.isEmpty()) {
+            for (SKOSCollection collection: this.collections) {
+                if (this.transitiveMember ? concept.isTransitiveMemberOfCollection(collection) : concept.isMemberOfCollection(collection)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return true;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    String describe() {
+        List<String> conceptSchemeURIs = new ArrayList<>(this.conceptSchemes.size());
+        for (SKOSConceptScheme conceptScheme: this.conceptSchemes) conceptSchemeURIs.add(conceptScheme.getURI());
+        List<String> collectionURIs = new ArrayList<>(this.collections.size());
+        for (SKOSCollection collection: this.collections) collectionURIs.add(collection.getURI());
+        return "member of schemes " + conceptSchemeURIs + " and " + (this.transitiveMember ? "transitive " : "") + "collections " + collectionURIs;
+    }
+
+    /**
+     * Adds the URIs of the concepts listed by the provided iterator that
+     * satisfy the collection constraints to the provided set, and closes the
+     * iterator
+     * @param iter Concept iterator
+     * @param uris Set of concept URIs to fill
+     */
+    private void collect(CloseableIterator<SKOSConcept> iter, Set<String> uris) {
+        try {
+            while (iter.hasNext()) {
+                SKOSConcept concept = iter.next();
+                if (this.collections.isEmpty() || this.accepts(concept)) uris.add(concept.getURI());
+            }
+        }
+        finally {
+            iter.close();
+        }
+    }
+}
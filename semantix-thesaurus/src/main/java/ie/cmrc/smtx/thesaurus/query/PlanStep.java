@@ -0,0 +1,124 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import java.util.Set;
+
+/**
+ * A step of a {@link ConceptQueryPlan}, evaluating one constraint of a
+ * {@link ConceptQuery}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+abstract class PlanStep {
+
+    /**
+     * Estimated cardinality of a step whose number of results is unknown
+     */
+    static final long UNKNOWN_CARDINALITY = Long.MAX_VALUE;
+
+    /**
+     * Ways a step may be evaluated
+     */
+    static enum Mode {
+
+        /**
+         * The step produces the initial candidate concepts
+         */
+        GENERATE,
+
+        /**
+         * The step produces a set of concepts which is intersected with the
+         * candidates
+         */
+        INTERSECT,
+
+        /**
+         * The step is checked on each candidate concept
+         */
+        VERIFY,
+
+        /**
+         * The step orders the candidates by relevance, discarding the
+         * candidates that do not match
+         */
+        RANK
+    }
+
+    /**
+     * Evaluation mode chosen by the planner
+     */
+    private Mode mode = Mode.VERIFY;
+
+    /**
+     * Returns the evaluation mode of this step
+     * @return Evaluation mode
+     */
+    Mode getMode() {
+        return this.mode;
+    }
+
+    /**
+     * Sets the evaluation mode of this step
+     * @param mode Evaluation mode
+     */
+    void setMode(Mode mode) {
+        this.mode = mode;
+    }
+
+    /**
+     * Returns the estimated number of concepts satisfying this step
+     * @return Estimated cardinality, or {@linkplain #UNKNOWN_CARDINALITY}
+     */
+    abstract long getEstimatedCardinality();
+
+    /**
+     * Indicates whether {@linkplain #getEstimatedCardinality()} is the exact
+     * number of concepts satisfying this step and these concepts are already
+     * known, in which case intersecting is cheaper than verifying
+     * @return {@code true} if the result of this step is known
+     */
+    abstract boolean isExact();
+
+    /**
+     * Lists the URIs of the concepts satisfying this step
+     * @return Set of concept URIs, in the order they were found
+     */
+    abstract Set<String> generate();
+
+    /**
+     * Checks whether the provided concept satisfies this step
+     * @param concept SKOS concept
+     * @return {@code true} if {@code concept} satisfies this step
+     */
+    abstract boolean accepts(SKOSConcept concept);
+
+    /**
+     * Returns a description of the constraint evaluated by this step
+     * @return Human-readable description
+     */
+    abstract String describe();
+
+    @Override
+    public String toString() {
+        long cardinality = this.getEstimatedCardinality();
+        String estimate = (cardinality == UNKNOWN_CARDINALITY) ? "?" : (this.isExact() ? "" : "~") + cardinality;
+        return this.mode.name() + " " + this.describe() + " [" + estimate + "]";
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+
+/**
+ * A constraint requiring the concepts returned by a {@link ConceptQuery} to be
+ * related to a given concept. For example, the constraint
+ * {@code (narrowerTransitive, X)} is satisfied by the concepts that are
+ * narrower (directly or indirectly) than {@code X}, in other words the
+ * concepts {@code C} such that {@code X skos:narrowerTransitive C}.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class RelationConstraint {
+
+    /**
+     * Semantic relation
+     */
+    private final SKOSSemanticProperty relationshipType;
+
+    /**
+     * URI of the concept the returned concepts must be related to
+     */
+    private final String conceptURI;
+
+    /**
+     * Constructs a {@link RelationConstraint}
+     * @param relationshipType Semantic relation linking {@code conceptURI} to
+     * the returned concepts
+     * @param conceptURI URI of the concept the returned concepts must be
+     * related to
+     * @throws IllegalArgumentException If any of the arguments is {@code null}
+     */
+    public RelationConstraint(SKOSSemanticProperty relationshipType, String conceptURI) {
+        if (relationshipType == null) throw new IllegalArgumentException("RelationConstraint constructor: relationshipType argument must not be null");
+        if (conceptURI == null) throw new IllegalArgumentException("RelationConstraint constructor: conceptURI argument must not be null");
+        this.relationshipType = relationshipType;
+        this.conceptURI = conceptURI;
+    }
+
+    /**
+     * Returns the semantic relation of the constraint
+     * @return Semantic relation linking {@link #getConceptURI()} to the
+     * returned concepts
+     */
+    public SKOSSemanticProperty getRelationshipType() {
+        return this.relationshipType;
+    }
+
+    /**
+     * Returns the URI of the concept the returned concepts must be related to
+     * @return Concept URI
+     */
+    public String getConceptURI() {
+        return this.conceptURI;
+    }
+
+    /**
+     * Returns the non-transitive relation whose transitive closure is the
+     * relation of this constraint, if any. This is used for depth-bounded
+     * traversals.
+     * @return {@link SKOSSemanticProperty#narrower} for narrower and
+     * narrowerTransitive constraints, {@link SKOSSemanticProperty#broader}
+     * for broader and broaderTransitive constraints, {@code null} otherwise
+     */
+    public SKOSSemanticProperty getStepRelation() {
+        switch (this.relationshipType) {
+            case narrower:
+            case narrowerTransitive:
+                return SKOSSemanticProperty.narrower;
+            case broader:
+            case broaderTransitive:
+                return SKOSSemanticProperty.broader;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return this.relationshipType.name() + " of <" + this.conceptURI + ">";
+    }
+}
@@ -0,0 +1,229 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.skos.model.SKOS;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plan step evaluating a {@link RelationConstraint} by traversing the SKOS
+ * store. Its cardinality is estimated by probing the store: up to
+ * {@linkplain #PROBE_LIMIT} related concepts are listed; if there are no
+ * more, then the result of the step is known exactly and kept for later
+ * evaluation.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+class RelationStep extends PlanStep {
+
+    /**
+     * Maximum number of related concepts listed when estimating cardinality
+     */
+    static final int PROBE_LIMIT = 1000;
+
+    /**
+     * SKOS thesaurus
+     */
+    private final SKOS skos;
+
+    /**
+     * Evaluated constraint
+     */
+    private final RelationConstraint constraint;
+
+    /**
+     * Non-transitive relation to follow for depth-bounded traversals, or
+     * {@code null} if the traversal is not bounded
+     */
+    private final SKOSSemanticProperty stepRelation;
+
+    /**
+     * Maximum traversal depth
+     */
+    private final int maxDepth;
+
+    /**
+     * Concept of the constraint
+     */
+    private final SKOSConcept concept;
+
+    /**
+     * Related concept URIs found when probing, if there were no more than
+     * {@linkplain #PROBE_LIMIT}, otherwise {@code null}
+     */
+    private Set<String> probed;
+
+    /**
+     * Estimated cardinality
+     */
+    private final long cardinality;
+
+    /**
+     * Constructs a {@link RelationStep} and estimates its cardinality
+     * @param skos SKOS thesaurus
+     * @param constraint Relation constraint
+     * @param maxDepth Maximum depth of hierarchical traversals, {@code 0} if
+     * unbounded
+     */
+    RelationStep(SKOS skos, RelationConstraint constraint, int maxDepth) {
+        this.skos = skos;
+        this.constraint = constraint;
+        SKOSSemanticProperty relation = constraint.getRelationshipType();
+        boolean transitive = (relation == SKOSSemanticProperty.narrowerTransitive || relation == SKOSSemanticProperty.broaderTransitive);
+        this.stepRelation = (transitive && maxDepth > 0) ? constraint.getStepRelation() : null;
+        this.maxDepth = maxDepth;
+        this.concept = skos.getConcept(constraint.getConceptURI());
+
+        if (this.concept == null) {
+            this.probed = new LinkedHashSet<>(0);
+            this.cardinality = 0;
+        }
+        else {
+            Set<String> uris = this.traverse(PROBE_LIMIT + 1);
+            if (uris.size() <= PROBE_LIMIT) {
+                this.probed = uris;
+                this.cardinality = uris.size();
+            }
+            else {
+                this.probed = null;
+                this.cardinality = PROBE_LIMIT + 1;
+            }
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getEstimatedCardinality() {
+        return this.cardinality;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean isExact() {
+        return this.probed != null;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Set<String> generate() {
+        if (this.probed != null) return this.probed;
+        return this.traverse(Integer.MAX_VALUE);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean accepts(SKOSConcept candidate) {
+        if (this.concept == null || candidate == null) return false;
+        if (this.probed != null) return this.probed.contains(candidate.getURI());
+        if (this.stepRelation == null) {
+            return this.concept.hasRelation(this.constraint.getRelationshipType(), candidate.getURI());
+        }
+        else {
+            // Walk back from the candidate towards the constraint concept
+            String target = this.concept.getURI();
+            SKOSSemanticProperty inverse = this.stepRelation.getInverseProperty();
+            List<SKOSConcept> level = new ArrayList<>(1);
+            level.add(candidate);
+            Set<String> visited = new HashSet<>();
+            for (int depth = 0; depth < this.maxDepth && !level.isEmpty(); depth++) {
+                List<SKOSConcept> nextLevel = new ArrayList<>();
+                for (SKOSConcept node: level) {
+                    CloseableIterator<SKOSConcept> iter = this.skos.listSemanticRelations(node, inverse);
+                    try {
+                        while (iter.hasNext()) {
+                            SKOSConcept parent = iter.next();
+                            if (target.equals(parent.getURI())) return true;
+                            if (visited.add(parent.getURI())) nextLevel.add(parent);
+                        }
+                    }
+                    finally {
+                        iter.close();
+                    }
+                }
+                level = nextLevel;
+            }
+            return false;
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    String describe() {
+        if (this.stepRelation != null) return this.constraint.toString() + " within depth " + this.maxDepth;
+        return this.constraint.toString();
+    }
+
+    /**
+     * Lists the concepts related to the constraint concept
+     * @param limit Maximum number of concept URIs to list
+     * @return Set of at most {@code limit} concept URIs
+     */
+    private Set<String> traverse(int limit) {
+        Set<String> uris = new LinkedHashSet<>();
+        if (this.stepRelation == null) {
+            CloseableIterator<SKOSConcept> iter = this.skos.listSemanticRelations(this.concept, this.constraint.getRelationshipType());
+            try {
+                while (iter.hasNext() && uris.size() < limit) {
+                    uris.add(iter.next().getURI());
+                }
+            }
+            finally {
+                iter.close();
+            }
+        }
+        else {
+            // Breadth-first traversal of the direct relation, level by level
+            List<SKOSConcept> level = new ArrayList<>(1);
+            level.add(this.concept);
+            for (int depth = 0; depth < this.maxDepth && !level.isEmpty() && uris.size() < limit; depth++) {
+                List<SKOSConcept> nextLevel = new ArrayList<>();
+                for (SKOSConcept node: level) {
+                    CloseableIterator<SKOSConcept> iter = this.skos.listSemanticRelations(node, this.stepRelation);
+                    try {
+                        while (iter.hasNext() && uris.size() < limit) {
+                            SKOSConcept child = iter.next();
+                            if (uris.add(child.getURI())) nextLevel.add(child);
+                        }
+                    }
+                    finally {
+                        iter.close();
+                    }
+                }
+                level = nextLevel;
+            }
+        }
+        return uris;
+    }
+}
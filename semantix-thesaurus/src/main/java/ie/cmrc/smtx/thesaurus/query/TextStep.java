@@ -0,0 +1,158 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.query;
+
+import ie.cmrc.smtx.base.SemanticEntity;
+import ie.cmrc.smtx.skos.index.SKOSIndex;
+import ie.cmrc.smtx.skos.index.Scored;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Plan step evaluating the text constraint of a {@link ConceptQuery} using
+ * the SKOS index. The concept scheme and collection constraints of the query
+ * are pushed into the index search as filters, which the index evaluates as
+ * cached document bit sets. So can an unbounded
+ * {@linkplain ie.cmrc.smtx.skos.model.SKOSSemanticProperty#narrowerTransitive}
+ * constraint, if the index contains the concept hierarchy. Its cardinality is
+ * the number of index hits.
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+class TextStep extends PlanStep {
+
+    /**
+     * SKOS index
+     */
+    private final SKOSIndex index;
+
+    /**
+     * Evaluated query
+     */
+    private final ConceptQuery query;
+
+    /**
+     * URI of the concept whose narrower concepts the index search is
+     * restricted to, or {@code null}
+     */
+    private final String withinConceptURI;
+
+    /**
+     * Number of index hits
+     */
+    private final long cardinality;
+
+    /**
+     * Constructs a {@link TextStep} and counts its index hits
+     * @param index SKOS index
+     * @param query Concept query
+     * @param withinConceptURI URI of the concept whose narrower concepts the
+     * index search is restricted to, or {@code null}. The index must contain
+     * the concept hierarchy if this is not {@code null}.
+     */
+    TextStep(SKOSIndex index, ConceptQuery query, String withinConceptURI) {
+        this.index = index;
+        this.query = query;
+        this.withinConceptURI = withinConceptURI;
+        this.cardinality = index.count(query.getKeyword(), query.getSearchField(), query.getConceptSchemeURIs(), query.getCollectionURIs(), query.isTransitiveMember(), withinConceptURI);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    long getEstimatedCardinality() {
+        return this.cardinality;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    boolean isExact() {
+        return false;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    Set<String> generate() {
+        if (this.cardinality == 0) return new LinkedHashSet<>(0);
+        return new LinkedHashSet<>(this.search(0, (int) Math.min(this.cardinality, Integer.MAX_VALUE)));
+    }
+
+    /**
+     * Text constraints can not be checked on individual concepts
+     * @param concept SKOS concept
+     * @throws UnsupportedOperationException Always
+     */
+    @Override
+    boolean accepts(SKOSConcept concept) {
+        throw new UnsupportedOperationException("Text constraints can not be verified on individual concepts");
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    String describe() {
+        String description = "text \"" + this.query.getKeyword().getString() + "\"";
+        if (this.query.getKeyword().getLanguage() != null) description += "@" + this.query.getKeyword().getLanguage();
+        if (this.query.getSearchField() != null) description += " in " + this.query.getSearchField().fieldName();
+        if (!this.query.getConceptSchemeURIs().isEmpty() || !this.query.getCollectionURIs().isEmpty()) {
+            description += " filtered by schemes " + this.query.getConceptSchemeURIs() + " and "
+                    + (this.query.isTransitiveMember() ? "transitive " : "") + "collections " + this.query.getCollectionURIs();
+        }
+        if (this.withinConceptURI != null) description += " within " + this.withinConceptURI;
+        return description;
+    }
+
+    /**
+     * Returns a page of matching concept URIs, by decreasing relevance
+     * @param offset Number of hits to skip
+     * @param limit Maximum number of hits
+     * @return List of concept URIs
+     */
+    List<String> search(int offset, int limit) {
+        return this.search(null, offset, limit);
+    }
+
+    /**
+     * Returns a page of matching concept URIs among the provided candidates,
+     * by decreasing relevance. The candidates are passed to the index as a
+     * filter, so that only they are scored.
+     * @param candidates URIs of the candidate concepts, or {@code null} to
+     * search all the concepts
+     * @param offset Number of hits to skip
+     * @param limit Maximum number of hits
+     * @return List of concept URIs
+     */
+    List<String> search(Collection<String> candidates, int offset, int limit) {
+        List<Scored<SemanticEntity>> hits = this.index.search(this.query.getKeyword(), this.query.getSearchField(), this.query.getConceptSchemeURIs(), this.query.getCollectionURIs(), this.query.isTransitiveMember(), this.withinConceptURI, candidates, offset, limit);
+        List<String> uris = new ArrayList<>(hits.size());
+        for (Scored<SemanticEntity> hit: hits) {
+            uris.add(hit.getItem().getURI());
+        }
+        return uris;
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus;
+
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import ie.cmrc.smtx.skos.jena.JenaSKOS;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link DefaultSWSThesaurus}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class DefaultSWSThesaurusTest {
+
+    private static final String NS = "http://example.org/";
+
+    private JenaSKOS skos;
+
+    private DefaultSWSThesaurus thesaurus;
+
+    @Before
+    public void setUp() {
+        JenaSKOS skos = new JenaSKOS(ModelFactory.createDefaultModel());
+        this.skos = skos;
+        SKOSBulkWriter writer = skos.createBulkWriter(true, true, 100);
+        for (String name: Arrays.asList("a", "b", "c")) writer.addResource(NS+name, SKOSType.Concept);
+        writer.addRelation(NS+"c", SKOSSemanticProperty.broader, NS+"b");
+        writer.addRelation(NS+"b", SKOSSemanticProperty.broader, NS+"a");
+        writer.close();
+        this.thesaurus = new DefaultSWSThesaurus(skos, null);
+    }
+
+    @Test
+    public void ancestriesAreAlignedWithTheRequestedURIs() {
+        List<SKOSConceptNode> ancestries = this.thesaurus.getConceptAncestries(Arrays.asList(NS+"c", NS+"missing", NS+"a"), null, null);
+        assertEquals(3, ancestries.size());
+
+        SKOSConceptNode c = ancestries.get(0);
+        assertEquals(NS+"c", c.getConcept().getURI());
+        assertEquals(1, c.getChildren().size());
+        SKOSConceptNode b = c.getChildren().get(0);
+        assertEquals(NS+"b", b.getConcept().getURI());
+        assertEquals(NS+"a", b.getChildren().get(0).getConcept().getURI());
+
+        assertNull(ancestries.get(1));
+
+        SKOSConceptNode a = ancestries.get(2);
+        assertEquals(NS+"a", a.getConcept().getURI());
+        assertTrue(a.getChildren().isEmpty());
+    }
+
+    @Test
+    public void unknownConceptSchemeGivesNullAncestries() {
+        List<SKOSConceptNode> ancestries = this.thesaurus.getConceptAncestries(Arrays.asList(NS+"c", NS+"a"), NS+"missing", null);
+        assertEquals(Arrays.asList(null, null), ancestries);
+        assertNull(this.thesaurus.getConceptAncestry(NS+"missing"));
+    }
+
+    @Test
+    public void countsFollowTheChangesOfTheThesaurus() {
+        assertEquals(1, this.thesaurus.countDirectNarrowerConcepts(NS+"a", null, null));
+        assertEquals(2, this.thesaurus.countTransitiveNarrowerConcepts(NS+"a", null, null));
+
+        SKOSConcept d = this.skos.createConcept(NS+"d");
+        d.addRelation(SKOSSemanticProperty.broader, NS+"a");
+        this.skos.getConcept(NS+"a").addRelation(SKOSSemanticProperty.narrower, NS+"d");
+
+        assertEquals(2, this.thesaurus.countDirectNarrowerConcepts(NS+"a", null, null));
+        assertEquals(3, this.thesaurus.countTransitiveNarrowerConcepts(NS+"a", null, null));
+        assertEquals(2, this.thesaurus.getDirectNarrowerConcepts(NS+"a", null, null).size());
+        assertEquals(1, this.thesaurus.getConceptGraph().getDistance(NS+"a", NS+"d", Arrays.asList(SKOSSemanticProperty.narrower), 5));
+    }
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus;
+
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import ie.cmrc.smtx.base.serialisation.ElementSetName;
+import ie.cmrc.smtx.skos.jena.JenaSKOS;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.hierarchy.HierarchyMethod;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import ie.cmrc.smtx.thesaurus.cache.CachingSWSThesaurus;
+import java.util.HashSet;
+import java.util.Set;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the serialisation of concept hierarchies that share nodes between
+ * several parents
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class SharedConceptNodesTest {
+
+    private static final String NS = "http://example.org/";
+
+    /**
+     * Number of levels of the diamond lattice below the root
+     */
+    private static final int LEVELS = 12;
+
+    private DefaultSWSThesaurus thesaurus;
+
+    /**
+     * Builds a lattice of stacked diamonds: each level has two concepts that
+     * are both narrower than the two concepts of the level above, so the
+     * number of root-to-leaf paths doubles at every level
+     */
+    @Before
+    public void setUp() {
+        JenaSKOS skos = new JenaSKOS(ModelFactory.createDefaultModel());
+        SKOSBulkWriter writer = skos.createBulkWriter(true, true, 500);
+        writer.addResource(NS+"root", SKOSType.Concept);
+        for (int level = 0; level < LEVELS; level++) {
+            for (int k = 0; k < 2; k++) {
+                String uri = NS + level + "_" + k;
+                writer.addResource(uri, SKOSType.Concept);
+                if (level == 0) writer.addRelation(uri, SKOSSemanticProperty.broader, NS+"root");
+                else for (int p = 0; p < 2; p++) writer.addRelation(uri, SKOSSemanticProperty.broader, NS + (level-1) + "_" + p);
+            }
+        }
+        writer.close();
+        this.thesaurus = new DefaultSWSThesaurus(skos, null);
+    }
+
+    @Test
+    public void sharedNodesAreSerialisedOnce() {
+        SKOSConceptNode tree = this.thesaurus.getConceptTree(NS+"root", null, null, HierarchyMethod.DEFAULT_METHOD);
+        int concepts = 1 + 2*LEVELS;
+
+        Set<String> serialised = new HashSet<>();
+        String json = tree.toJSONObject(ElementSetName.BRIEF, "en", serialised).toJSONString();
+        assertEquals(concepts, serialised.size());
+        assertEquals(concepts, occurrences(json, "\"@type\":\"Concept\""));
+
+        String xml = tree.toXMLElement(ElementSetName.BRIEF, "en", new HashSet<String>()).asXML();
+        assertEquals(concepts, occurrences(xml, "<skos:Concept "));
+
+        // Bounded by the number of distinct concepts (about 2 KB), whereas
+        // expanding every path takes about 436 KB
+        assertTrue("Shared JSON is " + json.length() + " characters", json.length() < 4096);
+        assertTrue("Shared XML is " + xml.length() + " characters", xml.length() < 8192);
+        String expanded = tree.toJSONObject(ElementSetName.BRIEF, "en").toJSONString();
+        assertTrue(expanded.length() > 100 * json.length());
+    }
+
+    @Test
+    public void cachedTreesKeepTheirSharedNodes() {
+        SKOSConceptNode tree = this.thesaurus.getConceptTree(NS+"root", null, null, HierarchyMethod.DEFAULT_METHOD);
+        String json = tree.toJSONObject(ElementSetName.BRIEF, "en", new HashSet<String>()).toJSONString();
+
+        CachingSWSThesaurus cache = new CachingSWSThesaurus(this.thesaurus, 1000000);
+        for (int i = 0; i < 2; i++) {
+            SKOSConceptNode cached = cache.getConceptTree(NS+"root", null, null, HierarchyMethod.DEFAULT_METHOD);
+            assertSame(cached.getChild(0).getChild(0), cached.getChild(1).getChild(0));
+            assertEquals(json, cached.toJSONObject(ElementSetName.BRIEF, "en", new HashSet<String>()).toJSONString());
+        }
+    }
+
+    /**
+     * Counts the occurrences of a string
+     * @param text Text to search
+     * @param token String to count
+     * @return Number of non-overlapping occurrences of {@code token} in
+     * {@code text}
+     */
+    private static int occurrences(String text, String token) {
+        int count = 0;
+        for (int i = text.indexOf(token); i >= 0; i = text.indexOf(token, i + token.length())) count++;
+        return count;
+    }
+}
@@ -0,0 +1,154 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import ie.cmrc.smtx.skos.jena.JenaSKOS;
+import ie.cmrc.smtx.skos.model.SKOSAnnotationProperty;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSConcept;
+import ie.cmrc.smtx.skos.model.SKOSElementProperty;
+import ie.cmrc.smtx.skos.model.SKOSResource;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import ie.cmrc.smtx.skos.model.hierarchy.SKOSConceptNode;
+import ie.cmrc.smtx.skos.model.util.CloseableIterator;
+import ie.cmrc.smtx.thesaurus.DefaultSWSThesaurus;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link CachingSWSThesaurus}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class CachingSWSThesaurusTest {
+
+    private static final String NS = "http://example.org/";
+
+    private JenaSKOS skos;
+
+    private CachingSWSThesaurus thesaurus;
+
+    @Before
+    public void setUp() {
+        this.skos = new JenaSKOS(ModelFactory.createDefaultModel());
+        this.skos.createConceptScheme(NS+"cs").addAnnotation(SKOSAnnotationProperty.prefLabel, "Scheme", "en");
+        for (String name: Arrays.asList("a", "b")) {
+            SKOSConcept concept = this.skos.createConcept(NS+name);
+            concept.addAnnotation(SKOSAnnotationProperty.prefLabel, name.toUpperCase(), "en");
+            concept.addToConceptScheme(NS+"cs");
+        }
+        this.thesaurus = new CachingSWSThesaurus(new DefaultSWSThesaurus(this.skos, null), 1000);
+    }
+
+    @Test
+    public void writesChangeTheGeneration() {
+        long generation = this.skos.getGeneration();
+        this.skos.getConcept(NS+"a").setPrefLabel("A2", "en");
+        assertTrue(this.skos.getGeneration() > generation);
+
+        generation = this.skos.getGeneration();
+        SKOSBulkWriter writer = this.skos.createBulkWriter(true, true, 100);
+        writer.addResource(NS+"c", SKOSType.Concept);
+        writer.close();
+        assertTrue(this.skos.getGeneration() > generation);
+
+        generation = this.skos.getGeneration();
+        this.skos.sync();
+        assertTrue(this.skos.getGeneration() > generation);
+        assertEquals(this.skos.getGeneration(), this.thesaurus.getGeneration());
+    }
+
+    @Test
+    public void writeFlushesTheCache() {
+        assertEquals("A", this.thesaurus.getConcept(NS+"a").getPrefLabel("en"));
+        assertEquals("A", this.thesaurus.getConcept(NS+"a").getPrefLabel("en"));
+        assertEquals(1, this.thesaurus.getStats(CachedOperation.GET_CONCEPT).getHitCount());
+
+        this.skos.getConcept(NS+"a").setPrefLabel("A2", "en");
+        assertEquals("A2", this.thesaurus.getConcept(NS+"a").getPrefLabel("en"));
+        assertEquals(2, this.thesaurus.getStats(CachedOperation.GET_CONCEPT).getMissCount());
+    }
+
+    @Test
+    public void cachedConceptsAreDetached() {
+        SKOSConcept concept = this.thesaurus.getConcept(NS+"a");
+        assertTrue(concept.isReadOnly());
+        this.skos.getConcept(NS+"a").setPrefLabel("A2", "en");
+        assertEquals("A", concept.getPrefLabel("en"));
+        assertTrue(concept.isInScheme(NS+"cs"));
+        CloseableIterator<SKOSResource> schemes = concept.listRelations(SKOSElementProperty.inScheme);
+        try {
+            assertTrue(schemes.hasNext());
+            SKOSResource scheme = schemes.next();
+            assertEquals(NS+"cs", scheme.getURI());
+            assertTrue(scheme.isReadOnly());
+            assertEquals("Scheme", scheme.getPrefLabel("en"));
+        }
+        finally {
+            schemes.close();
+        }
+        try {
+            concept.setPrefLabel("A3", "en");
+            fail("Detached concepts must be read-only");
+        }
+        catch (UnsupportedOperationException e) {
+            assertEquals("A2", this.skos.getConcept(NS+"a").getPrefLabel("en"));
+        }
+    }
+
+    @Test
+    public void cachedListsAreDetached() {
+        List<SKOSConcept> concepts = this.thesaurus.getConcepts(Arrays.asList(NS+"a", NS+"b"));
+        assertEquals(2, concepts.size());
+        concepts = this.thesaurus.getConcepts(Arrays.asList(NS+"a", NS+"b"));
+        for (SKOSConcept concept: concepts) {
+            assertTrue(concept.isReadOnly());
+            assertEquals(concept.getLocalName().toUpperCase(), concept.getPrefLabel("en"));
+        }
+    }
+
+    @Test
+    public void cachedHierarchiesAreSharedAndReadOnly() {
+        this.skos.getConcept(NS+"b").addRelation(SKOSSemanticProperty.broader, NS+"a");
+        this.skos.getConcept(NS+"a").addRelation(SKOSSemanticProperty.narrower, NS+"b");
+        this.skos.getConcept(NS+"a").addRelation(SKOSElementProperty.topConceptOf, NS+"cs");
+
+        List<SKOSConceptNode> hierarchy = this.thesaurus.getConceptHierarchy(NS+"cs", null);
+        assertEquals(1, hierarchy.size());
+        SKOSConceptNode a = hierarchy.get(0);
+        assertEquals(NS+"a", a.getConcept().getURI());
+        assertEquals(NS+"b", a.getChild(0).getConcept().getURI());
+        assertSame(hierarchy, this.thesaurus.getConceptHierarchy(NS+"cs", null));
+        try {
+            a.addChild(this.skos.getConcept(NS+"b"));
+            fail("Cached hierarchies must be read-only");
+        }
+        catch (UnsupportedOperationException e) {
+            assertEquals(1, a.getNumberOfChildren());
+        }
+
+        this.skos.getConcept(NS+"b").setPrefLabel("B2", "en");
+        assertEquals("B", a.getChild(0).getConcept().getPrefLabel("en"));
+        assertEquals("B2", this.thesaurus.getConceptHierarchy(NS+"cs", null).get(0).getChild(0).getConcept().getPrefLabel("en"));
+    }
+}
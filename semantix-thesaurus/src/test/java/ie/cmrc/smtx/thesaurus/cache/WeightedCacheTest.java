@@ -0,0 +1,69 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.cache;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for {@link WeightedCache}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class WeightedCacheTest {
+
+    @Test
+    public void rejectedUpdateKeepsPreviousEntry() {
+        WeightedCache<String, String> cache = new WeightedCache<>(10, 16);
+        cache.get("a");
+        cache.get("a");
+        assertTrue(cache.put("a", "a1", 5));
+        for (int i = 0; i < 5; i++) cache.get("b");
+        assertTrue(cache.put("b", "b1", 5));
+
+        // "a" is requested less often than "b", which it would have to evict
+        assertFalse(cache.put("a", "a2", 8));
+        assertEquals("a1", cache.get("a"));
+        assertEquals("b1", cache.get("b"));
+        assertEquals(10, cache.weight());
+    }
+
+    @Test
+    public void updateReusesWeightOfPreviousEntry() {
+        WeightedCache<String, String> cache = new WeightedCache<>(10, 16);
+        assertTrue(cache.put("a", "a1", 4));
+        assertTrue(cache.put("b", "b1", 4));
+        assertTrue(cache.put("a", "a2", 6));
+        assertEquals("a2", cache.get("a"));
+        assertEquals("b1", cache.get("b"));
+        assertEquals(10, cache.weight());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    public void admittedEntryEvictsLeastRecentlyUsedEntries() {
+        WeightedCache<String, String> cache = new WeightedCache<>(10, 16);
+        assertTrue(cache.put("a", "a1", 5));
+        assertTrue(cache.put("b", "b1", 5));
+        for (int i = 0; i < 3; i++) cache.get("c");
+        assertTrue(cache.put("c", "c1", 5));
+        assertNull(cache.get("a"));
+        assertEquals("c1", cache.get("c"));
+        assertEquals(10, cache.weight());
+    }
+}
@@ -0,0 +1,250 @@
+/*
+ * Copyright 2015 Coastal and Marine Research Centre (CMRC), Beaufort,
+ * Environmental Research Institute (ERI), University College Cork (UCC).
+ * Yassine Lassoued <y.lassoued@gmail.com, y.lassoued@ucc.ie>.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package ie.cmrc.smtx.thesaurus.graph;
+
+import com.hp.hpl.jena.rdf.model.ModelFactory;
+import ie.cmrc.smtx.skos.jena.JenaSKOS;
+import ie.cmrc.smtx.skos.model.SKOSBulkWriter;
+import ie.cmrc.smtx.skos.model.SKOSSemanticProperty;
+import ie.cmrc.smtx.skos.model.SKOSType;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests for the lowest common broader concepts, depths and distances of
+ * {@link ConceptGraph}
+ * @author Yassine Lassoued <y.lassoued@ucc.ie>
+ */
+public class ConceptGraphTest {
+
+    private static final String NS = "http://example.org/c";
+
+    @Test
+    public void treesAreAnsweredFromTheSparseTable() {
+        // Every concept has at most one broader concept, so all the pairs are
+        // answered from the Euler tour of the spanning forest
+        Random random = new Random(3);
+        List<List<Integer>> broader = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            List<Integer> parents = new ArrayList<>(1);
+            // A few roots, so that some pairs are in different trees
+            if (i > 0 && random.nextInt(20) > 0) parents.add(random.nextInt(i));
+            broader.add(parents);
+        }
+        ConceptGraph graph = graph(broader);
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(broader.size());
+            int y = random.nextInt(broader.size());
+            assertEquals(x + ", " + y, uris(lowestCommonBroader(broader, x, y)), new HashSet<>(graph.getLowestCommonBroaderConcepts(NS + x, NS + y)));
+        }
+        for (int i = 0; i < broader.size(); i++) assertEquals(depth(broader, i), graph.getDepth(NS + i));
+    }
+
+    @Test
+    public void polyhierarchiesReturnAllLowestCommonBroaderConcepts() {
+        Random random = new Random(5);
+        List<List<Integer>> broader = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            Set<Integer> parents = new HashSet<>();
+            int count = (i == 0) ? 0 : 1 + random.nextInt(3);
+            for (int k = 0; k < count; k++) parents.add(random.nextInt(i));
+            broader.add(new ArrayList<>(parents));
+        }
+        ConceptGraph graph = graph(broader);
+        int several = 0;
+        for (int i = 0; i < 3000; i++) {
+            int x = random.nextInt(broader.size());
+            int y = random.nextInt(broader.size());
+            Set<Integer> expected = lowestCommonBroader(broader, x, y);
+            if (expected.size() > 1) several++;
+            List<String> lowest = graph.getLowestCommonBroaderConcepts(NS + x, NS + y);
+            assertEquals(x + ", " + y, uris(expected), new HashSet<>(lowest));
+            // Deepest first
+            for (int k = 1; k < lowest.size(); k++) assertTrue(graph.getDepth(lowest.get(k - 1)) >= graph.getDepth(lowest.get(k)));
+        }
+        assertTrue(several > 0);
+    }
+
+    @Test
+    public void diamondHasTwoLowestCommonBroaderConcepts() {
+        // 1 and 2 are narrower than 0, 3 and 4 are narrower than both 1 and 2
+        List<List<Integer>> broader = Arrays.asList(
+                Collections.<Integer>emptyList(), Arrays.asList(0), Arrays.asList(0), Arrays.asList(1, 2), Arrays.asList(1, 2));
+        ConceptGraph graph = graph(broader);
+        assertEquals(new HashSet<>(Arrays.asList(NS + 1, NS + 2)), new HashSet<>(graph.getLowestCommonBroaderConcepts(NS + 3, NS + 4)));
+        assertEquals(Arrays.asList(NS + 1), graph.getLowestCommonBroaderConcepts(NS + 3, NS + 1));
+        assertEquals(Arrays.asList(NS + 3), graph.getLowestCommonBroaderConcepts(NS + 3, NS + 3));
+        assertEquals(Arrays.asList(NS + 0), graph.getLowestCommonBroaderConcepts(NS + 1, NS + 2));
+        assertTrue(graph.getLowestCommonBroaderConcepts(NS + 3, NS + "missing").isEmpty());
+        assertEquals(2, graph.getDepth(NS + 4));
+        assertEquals(ConceptGraph.UNREACHABLE, graph.getDepth(NS + "missing"));
+    }
+
+    @Test
+    public void distancesMatchBreadthFirstSearch() {
+        Random random = new Random(9);
+        List<List<Integer>> broader = new ArrayList<>();
+        for (int i = 0; i < 150; i++) {
+            Set<Integer> parents = new HashSet<>();
+            int count = (i == 0) ? 0 : 1 + random.nextInt(2);
+            for (int k = 0; k < count; k++) parents.add(random.nextInt(i));
+            broader.add(new ArrayList<>(parents));
+        }
+        ConceptGraph graph = graph(broader);
+        List<SKOSSemanticProperty> up = Arrays.asList(SKOSSemanticProperty.broader);
+        List<SKOSSemanticProperty> both = Arrays.asList(SKOSSemanticProperty.broader, SKOSSemanticProperty.narrower);
+        for (int i = 0; i < 2000; i++) {
+            int x = random.nextInt(broader.size());
+            int y = random.nextInt(broader.size());
+            int upwards = distance(broader, x, y, false);
+            int anyway = distance(broader, x, y, true);
+            assertEquals(x + " -> " + y, upwards, graph.getDistance(NS + x, NS + y, up, Integer.MAX_VALUE));
+            assertEquals(x + " -> " + y, anyway, graph.getDistance(NS + x, NS + y, both, Integer.MAX_VALUE));
+            assertEquals(x + " -> " + y, anyway <= 2 ? anyway : ConceptGraph.UNREACHABLE, graph.getDistance(NS + x, NS + y, both, 2));
+        }
+    }
+
+    /**
+     * Builds the concept graph of a broader hierarchy
+     * @param broader Broader concepts of each concept
+     * @return Concept graph
+     */
+    private static ConceptGraph graph(List<List<Integer>> broader) {
+        JenaSKOS skos = new JenaSKOS(ModelFactory.createDefaultModel());
+        SKOSBulkWriter writer = skos.createBulkWriter(true, true, 500);
+        for (int i = 0; i < broader.size(); i++) writer.addResource(NS + i, SKOSType.Concept);
+        for (int i = 0; i < broader.size(); i++) {
+            for (int parent: broader.get(i)) {
+                // Assert the links either way, the graph reads both
+                if ((i + parent) % 2 == 0) writer.addRelation(NS + i, SKOSSemanticProperty.broader, NS + parent);
+                else writer.addRelation(NS + parent, SKOSSemanticProperty.narrower, NS + i);
+            }
+        }
+        writer.close();
+        return new ConceptGraph(skos);
+    }
+
+    /**
+     * Lists a concept and its broader concepts, direct or indirect
+     * @param broader Broader concepts of each concept
+     * @param concept Concept
+     * @return Concept and its broader concepts
+     */
+    private static Set<Integer> ancestors(List<List<Integer>> broader, int concept) {
+        Set<Integer> ancestors = new HashSet<>();
+        Deque<Integer> queue = new ArrayDeque<>();
+        ancestors.add(concept);
+        queue.add(concept);
+        while (!queue.isEmpty()) {
+            for (int parent: broader.get(queue.poll())) {
+                if (ancestors.add(parent)) queue.add(parent);
+            }
+        }
+        return ancestors;
+    }
+
+    /**
+     * Computes the lowest common broader concepts of two concepts by brute
+     * force
+     * @param broader Broader concepts of each concept
+     * @param x First concept
+     * @param y Second concept
+     * @return Common broader concepts that are not broader than another one
+     */
+    private static Set<Integer> lowestCommonBroader(List<List<Integer>> broader, int x, int y) {
+        Set<Integer> common = ancestors(broader, x);
+        common.retainAll(ancestors(broader, y));
+        Set<Integer> lowest = new HashSet<>(common);
+        for (int concept: common) {
+            Set<Integer> above = ancestors(broader, concept);
+            above.remove(concept);
+            lowest.removeAll(above);
+        }
+        return lowest;
+    }
+
+    /**
+     * Computes the depth of a concept by brute force
+     * @param broader Broader concepts of each concept
+     * @param concept Concept
+     * @return Length of the shortest chain of broader links to a concept
+     * that has no broader concept
+     */
+    private static int depth(List<List<Integer>> broader, int concept) {
+        if (broader.get(concept).isEmpty()) return 0;
+        int depth = Integer.MAX_VALUE;
+        for (int parent: broader.get(concept)) depth = Math.min(depth, 1 + depth(broader, parent));
+        return depth;
+    }
+
+    /**
+     * Computes a distance by breadth-first search
+     * @param broader Broader concepts of each concept
+     * @param from Source concept
+     * @param to Target concept
+     * @param narrower Whether narrower links may be followed too
+     * @return Length of the shortest path, or {@link ConceptGraph#UNREACHABLE}
+     */
+    private static int distance(List<List<Integer>> broader, int from, int to, boolean narrower) {
+        int size = broader.size();
+        List<List<Integer>> links = new ArrayList<>(size);
+        for (int i = 0; i < size; i++) links.add(new ArrayList<Integer>());
+        for (int i = 0; i < size; i++) {
+            for (int parent: broader.get(i)) {
+                links.get(i).add(parent);
+                if (narrower) links.get(parent).add(i);
+            }
+        }
+        int[] distances = new int[size];
+        Arrays.fill(distances, ConceptGraph.UNREACHABLE);
+        distances[from] = 0;
+        Deque<Integer> queue = new ArrayDeque<>();
+        queue.add(from);
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            for (int next: links.get(node)) {
+                if (distances[next] < 0) {
+                    distances[next] = distances[node] + 1;
+                    queue.add(next);
+                }
+            }
+        }
+        return distances[to];
+    }
+
+    /**
+     * Converts concept numbers to URIs
+     * @param concepts Concept numbers
+     * @return Concept URIs
+     */
+    private static Set<String> uris(Set<Integer> concepts) {
+        Set<String> uris = new HashSet<>();
+        for (int concept: concepts) uris.add(NS + concept);
+        return uris;
+    }
+}